@@ -0,0 +1,76 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.benchmark;
+
+import io.github.bucket4j.benchmark.state.ClusterPipeliningState;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ClusterPipeliningBenchmark {
+
+    private static final int KEY_COUNT = 100_000;
+
+    @Benchmark
+    public boolean tryConsume_distinctKeys_withoutBatching(ClusterPipeliningState state) {
+        long key = ThreadLocalRandom.current().nextInt(KEY_COUNT);
+        return state.withoutBatching.builder().build(key, state.configuration).tryConsume(1);
+    }
+
+    @Benchmark
+    public boolean tryConsume_distinctKeys_withCrossKeyBatching(ClusterPipeliningState state) {
+        long key = ThreadLocalRandom.current().nextInt(KEY_COUNT);
+        return state.withCrossKeyBatching.builder().build(key, state.configuration).tryConsume(1);
+    }
+
+    @Benchmark
+    public boolean tryConsume_distinctKeys_withPipelinedBatching(ClusterPipeliningState state) {
+        long key = ThreadLocalRandom.current().nextInt(KEY_COUNT);
+        return state.withPipelinedBatching.builder().build(key, state.configuration).tryConsume(1);
+    }
+
+    public static class ThirtyTwoThreads {
+
+        public static void main(String[] args) throws RunnerException {
+            benchmark(32);
+        }
+
+    }
+
+    private static void benchmark(int threadCount) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ClusterPipeliningBenchmark.class.getSimpleName())
+                .warmupIterations(3)
+                .measurementIterations(5)
+                .threads(threadCount)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
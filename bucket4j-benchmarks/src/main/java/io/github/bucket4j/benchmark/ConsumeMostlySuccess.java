@@ -25,6 +25,7 @@ import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.profile.GCProfiler;
 import org.openjdk.jmh.runner.Runner;
 import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
@@ -41,6 +42,21 @@ public class ConsumeMostlySuccess {
         state._10_milion_rps_Bucket.asBlocking().tryConsumeUninterruptibly(1, TimeUnit.MILLISECONDS.toNanos(1), UninterruptibleBlockingStrategy.PARKING);
     }
 
+    @Benchmark
+    public void consumeOneToken_mostlySuccess_LockFreeSingleWord(LocalLockFreeSingleWordState state) {
+        state._10_milion_rps_Bucket.asBlocking().tryConsumeUninterruptibly(1, TimeUnit.MILLISECONDS.toNanos(1), UninterruptibleBlockingStrategy.PARKING);
+    }
+
+    @Benchmark
+    public void consumeOneToken_mostlySuccess_SeqLock(LocalSeqLockState state) {
+        state._10_milion_rps_Bucket.asBlocking().tryConsumeUninterruptibly(1, TimeUnit.MILLISECONDS.toNanos(1), UninterruptibleBlockingStrategy.PARKING);
+    }
+
+    @Benchmark
+    public void consumeOneToken_mostlySuccess_Striped(LocalStripedState state) {
+        state._10_milion_rps_Bucket.asBlocking().tryConsumeUninterruptibly(1, TimeUnit.MILLISECONDS.toNanos(1), UninterruptibleBlockingStrategy.PARKING);
+    }
+
     @Benchmark
     public void consumeOneToken_mostlySuccess_Synchronized(LocalSynchronizedState state) {
         state._10_milion_rps_Bucket.asBlocking().tryConsumeUninterruptibly(1, TimeUnit.MILLISECONDS.toNanos(1), UninterruptibleBlockingStrategy.PARKING);
@@ -75,6 +91,30 @@ public class ConsumeMostlySuccess {
 
     }
 
+    public static class EightThreads {
+
+        public static void main(String[] args) throws RunnerException {
+            benchmark(8);
+        }
+
+    }
+
+    public static class SixteenThreads {
+
+        public static void main(String[] args) throws RunnerException {
+            benchmark(16);
+        }
+
+    }
+
+    public static class ThirtyTwoThreads {
+
+        public static void main(String[] args) throws RunnerException {
+            benchmark(32);
+        }
+
+    }
+
     private static void benchmark(int threadCount) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(ConsumeMostlySuccess.class.getSimpleName())
@@ -82,6 +122,7 @@ public class ConsumeMostlySuccess {
                 .measurementIterations(10)
                 .threads(threadCount)
                 .forks(1)
+                .addProfiler(GCProfiler.class)
                 .build();
 
         new Runner(opt).run();
@@ -0,0 +1,63 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.benchmark;
+
+import io.github.bucket4j.benchmark.state.ContentionState;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ContentionBenchmark {
+
+    private static final long HOT_KEY = 42L;
+
+    @Benchmark
+    public boolean tryConsume_hotKey_optimistic(ContentionState state) {
+        return state.optimistic.builder().build(HOT_KEY, state.configuration).tryConsume(1);
+    }
+
+    @Benchmark
+    public boolean tryConsume_hotKey_contentionAware(ContentionState state) {
+        return state.contentionAware.builder().build(HOT_KEY, state.configuration).tryConsume(1);
+    }
+
+    public static class SixteenThreads {
+
+        public static void main(String[] args) throws RunnerException {
+            Options opt = new OptionsBuilder()
+                    .include(ContentionBenchmark.class.getSimpleName())
+                    .warmupIterations(3)
+                    .measurementIterations(5)
+                    .threads(16)
+                    .forks(1)
+                    .build();
+
+            new Runner(opt).run();
+        }
+
+    }
+
+}
@@ -0,0 +1,92 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.benchmark;
+
+import io.github.bucket4j.benchmark.state.KeyedBucketsState;
+import io.github.bucket4j.benchmark.state.ZipfKeysState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LocalBucketTableBenchmark {
+
+    @Benchmark
+    public boolean tryConsume_zipfKeys_LocalBucketTable(KeyedBucketsState buckets, ZipfKeysState keys) {
+        return buckets.table.tryConsume(keys.nextKey(), 1);
+    }
+
+    @Benchmark
+    public boolean tryConsume_zipfKeys_OffHeapBucketTable(KeyedBucketsState buckets, ZipfKeysState keys) {
+        return buckets.offHeapTable.tryConsume(keys.nextKey(), 1);
+    }
+
+    @Benchmark
+    public boolean tryConsume_zipfKeys_ConcurrentHashMap(KeyedBucketsState buckets, ZipfKeysState keys) {
+        return buckets.bucketFromMap(keys.nextKey()).tryConsume(1);
+    }
+
+    public static class OneThread {
+
+        public static void main(String[] args) throws RunnerException {
+            benchmark(1);
+        }
+
+    }
+
+    public static class FourThreads {
+
+        public static void main(String[] args) throws RunnerException {
+            benchmark(4);
+        }
+
+    }
+
+    public static class SixteenThreads {
+
+        public static void main(String[] args) throws RunnerException {
+            benchmark(16);
+        }
+
+    }
+
+    private static void benchmark(int threadCount) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(LocalBucketTableBenchmark.class.getSimpleName())
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .threads(threadCount)
+                .forks(1)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        new Runner(opt).run();
+    }
+
+}
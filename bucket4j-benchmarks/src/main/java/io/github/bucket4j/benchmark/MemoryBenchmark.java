@@ -20,9 +20,16 @@
 package io.github.bucket4j.benchmark;
 
 import com.google.common.util.concurrent.RateLimiter;
+import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.local.LocalBucket;
+import io.github.bucket4j.local.LocalBucketTable;
 import io.github.resilience4j.ratelimiter.internal.AtomicRateLimiter;
 import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class MemoryBenchmark {
 
@@ -37,4 +44,27 @@ public class MemoryBenchmark {
 
     }
 
+    public static class LocalBucketTableFootprint {
+
+        public static void main(String[] args) {
+            Bandwidth limit = Bandwidth.simple(1000, Duration.ofSeconds(1));
+            for (int keyCount : new int[] {10_000, 100_000, 1_000_000}) {
+                ConcurrentHashMap<Long, LocalBucket> map = new ConcurrentHashMap<>();
+                LocalBucketTable<Long> table = LocalBucketTable.builder().addLimit(limit).build();
+                for (long key = 0; key < keyCount; key++) {
+                    map.computeIfAbsent(key, k -> Bucket.builder().addLimit(limit).build()).tryConsume(1);
+                    table.tryConsume(key, 1);
+                }
+                // keys are shared by both structures, so they are excluded from comparison
+                Object[] keys = map.keySet().toArray();
+                long keysSize = GraphLayout.parseInstance(keys).totalSize() - GraphLayout.parseInstance((Object) new Object[keys.length]).totalSize();
+                long mapSize = GraphLayout.parseInstance(map).totalSize() - keysSize;
+                long tableSize = GraphLayout.parseInstance(table).totalSize() - keysSize;
+                System.out.println(keyCount + " keys: ConcurrentHashMap<Long, LocalBucket> " + mapSize / keyCount + " bytes per key, "
+                        + "LocalBucketTable " + tableSize / keyCount + " bytes per key");
+            }
+        }
+
+    }
+
 }
@@ -0,0 +1,104 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.benchmark;
+
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.EstimationProbe;
+import io.github.bucket4j.benchmark.state.LocalLockFreeState;
+import io.github.bucket4j.benchmark.state.LocalSynchronizedState;
+import io.github.bucket4j.benchmark.state.LocalUnsafeState;
+import io.github.bucket4j.benchmark.state.MutableProbeState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares allocation rate of probes that are allocated per invocation with probes that are provided by caller,
+ * look at "gc.alloc.rate.norm" reported by {@link GCProfiler}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProbeAllocation {
+
+    @Benchmark
+    public ConsumptionProbe tryConsumeAndReturnRemaining_Synchronized(LocalSynchronizedState state) {
+        return state.unlimitedBucket.tryConsumeAndReturnRemaining(1);
+    }
+
+    @Benchmark
+    public boolean tryConsumeAndReturnRemaining_mutableProbe_Synchronized(LocalSynchronizedState state, MutableProbeState probes) {
+        return state.unlimitedBucket.tryConsumeAndReturnRemaining(1, probes.consumptionProbe);
+    }
+
+    @Benchmark
+    public EstimationProbe estimateAbilityToConsume_Synchronized(LocalSynchronizedState state) {
+        return state.unlimitedBucket.estimateAbilityToConsume(1);
+    }
+
+    @Benchmark
+    public boolean estimateAbilityToConsume_mutableProbe_Synchronized(LocalSynchronizedState state, MutableProbeState probes) {
+        return state.unlimitedBucket.estimateAbilityToConsume(1, probes.estimationProbe);
+    }
+
+    @Benchmark
+    public ConsumptionProbe tryConsumeAndReturnRemaining_Unsafe(LocalUnsafeState state) {
+        return state.bucket.tryConsumeAndReturnRemaining(1);
+    }
+
+    @Benchmark
+    public boolean tryConsumeAndReturnRemaining_mutableProbe_Unsafe(LocalUnsafeState state, MutableProbeState probes) {
+        return state.bucket.tryConsumeAndReturnRemaining(1, probes.consumptionProbe);
+    }
+
+    @Benchmark
+    public ConsumptionProbe tryConsumeAndReturnRemaining_LockFree(LocalLockFreeState state) {
+        return state.unlimitedBucket.tryConsumeAndReturnRemaining(1);
+    }
+
+    @Benchmark
+    public boolean tryConsumeAndReturnRemaining_mutableProbe_LockFree(LocalLockFreeState state, MutableProbeState probes) {
+        return state.unlimitedBucket.tryConsumeAndReturnRemaining(1, probes.consumptionProbe);
+    }
+
+    public static class OneThread {
+
+        public static void main(String[] args) throws RunnerException {
+            Options opt = new OptionsBuilder()
+                    .include(ProbeAllocation.class.getSimpleName())
+                    .warmupIterations(10)
+                    .measurementIterations(10)
+                    .threads(1)
+                    .forks(1)
+                    .addProfiler(GCProfiler.class)
+                    .build();
+            new Runner(opt).run();
+        }
+
+    }
+
+}
@@ -0,0 +1,78 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.benchmark;
+
+import io.github.bucket4j.benchmark.state.RefillState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RefillBenchmark {
+
+    @Benchmark
+    public long refillAllBandwidth_integer(RefillState state) {
+        long currentTimeNanos = state.nextTimeNanos();
+        state.integerState.refillAllBandwidth(currentTimeNanos);
+        return state.integerState.getCurrentSize(0);
+    }
+
+    @Benchmark
+    public long refillAllBandwidth_ieee754(RefillState state) {
+        long currentTimeNanos = state.nextTimeNanos();
+        state.ieee754State.refillAllBandwidth(currentTimeNanos);
+        return state.ieee754State.getCurrentSize(0);
+    }
+
+    @Benchmark
+    public long calculateDelayNanos_integer(RefillState state) {
+        return state.integerState.calculateDelayNanosAfterWillBePossibleToConsume(1_000, state.currentTimeNanos, false);
+    }
+
+    @Benchmark
+    public long calculateDelayNanos_ieee754(RefillState state) {
+        return state.ieee754State.calculateDelayNanosAfterWillBePossibleToConsume(1_000, state.currentTimeNanos, false);
+    }
+
+    public static class OneThread {
+
+        public static void main(String[] args) throws RunnerException {
+            Options opt = new OptionsBuilder()
+                    .include(RefillBenchmark.class.getSimpleName())
+                    .warmupIterations(5)
+                    .measurementIterations(5)
+                    .threads(1)
+                    .forks(1)
+                    .build();
+            new Runner(opt).run();
+        }
+
+    }
+
+}
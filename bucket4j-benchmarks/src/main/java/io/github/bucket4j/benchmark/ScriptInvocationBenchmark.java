@@ -0,0 +1,81 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.benchmark;
+
+import io.github.bucket4j.benchmark.state.ScriptInvocationState;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares client side cost of invoking compare-and-swap script via EVAL and via EVALSHA,
+ * both commands are encoded into RESP as they are written to the socket, so Redis is not required.
+ * {@link Footprint} prints the amount of request bytes per compare-and-swap.
+ */
+@BenchmarkMode({Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScriptInvocationBenchmark {
+
+    @Benchmark
+    public int encodeEval(ScriptInvocationState state) {
+        return state.encodeEval();
+    }
+
+    @Benchmark
+    public int encodeEvalSha(ScriptInvocationState state) {
+        return state.encodeEvalSha();
+    }
+
+    public static class OneThread {
+
+        public static void main(String[] args) throws RunnerException {
+            Options opt = new OptionsBuilder()
+                    .include(ScriptInvocationBenchmark.class.getSimpleName())
+                    .warmupIterations(3)
+                    .measurementIterations(5)
+                    .threads(1)
+                    .forks(1)
+                    .build();
+
+            new Runner(opt).run();
+        }
+
+    }
+
+    public static class Footprint {
+
+        public static void main(String[] args) {
+            ScriptInvocationState state = new ScriptInvocationState();
+            for (int bandwidthCount = 1; bandwidthCount <= 3; bandwidthCount++) {
+                state.bandwidthCount = bandwidthCount;
+                state.setup();
+                int evalSize = state.encodeEval();
+                int evalShaSize = state.encodeEvalSha();
+                System.out.println(bandwidthCount + " bandwidth(s): EVAL " + evalSize + " bytes, EVALSHA " + evalShaSize + " bytes per compare-and-swap");
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,174 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.benchmark;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.benchmark.state.SerializationState;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.serialization.DataOutputSerializationAdapter;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
+import io.github.bucket4j.distributed.serialization.Scope;
+import io.github.bucket4j.distributed.versioning.Versions;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    @Benchmark
+    public byte[] serializeState(SerializationState state) {
+        return InternalSerializationHelper.serializeState(state.state, Versions.getLatest());
+    }
+
+    @Benchmark
+    public byte[] serializeState_compact(SerializationState state) {
+        return InternalSerializationHelper.serializeState(state.state, Versions.getLatest(), true);
+    }
+
+    @Benchmark
+    public RemoteBucketState deserializeState(SerializationState state) {
+        return InternalSerializationHelper.deserializeState(state.stateBytes);
+    }
+
+    @Benchmark
+    public RemoteBucketState deserializeState_compact(SerializationState state) {
+        return InternalSerializationHelper.deserializeState(state.compactStateBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeRequest(SerializationState state) {
+        return InternalSerializationHelper.serializeRequest(state.request);
+    }
+
+    @Benchmark
+    public byte[] serializeRequest_compact(SerializationState state) {
+        return InternalSerializationHelper.serializeRequest(state.compactRequest);
+    }
+
+    @Benchmark
+    public Request<Boolean> deserializeRequest(SerializationState state) {
+        return InternalSerializationHelper.deserializeRequest(state.requestBytes);
+    }
+
+    @Benchmark
+    public ByteBuffer serializeRequest_directBuffer(SerializationState state) {
+        ByteBuffer buffer = state.directBuffer;
+        buffer.clear();
+        InternalSerializationHelper.serializeRequest(state.request, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public byte[] serializeResult(SerializationState state) {
+        return InternalSerializationHelper.serializeResult(CommandResult.TRUE, Versions.getLatest());
+    }
+
+    @Benchmark
+    public CommandResult<Boolean> deserializeResult(SerializationState state) {
+        return InternalSerializationHelper.deserializeResult(state.resultBytes, Versions.getLatest());
+    }
+
+    @Benchmark
+    public byte[] serializeRequest_sharedConfiguration(SerializationState state) {
+        // configuration is shared constant, so its serialized form is reused
+        return InternalSerializationHelper.serializeRequest(SerializationState.createRequest(state.configuration, false));
+    }
+
+    @Benchmark
+    public byte[] serializeRequest_uniqueConfiguration(SerializationState state) {
+        // configuration is a new instance each time, so it is serialized from scratch
+        BucketConfiguration configuration = new BucketConfiguration(Arrays.asList(state.configuration.getBandwidths()));
+        return InternalSerializationHelper.serializeRequest(SerializationState.createRequest(configuration, false));
+    }
+
+    @Benchmark
+    public byte[] baseline_serializeState_streams(SerializationState state) throws IOException {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(byteStream);
+        RemoteBucketState.SERIALIZATION_HANDLE.serialize(DataOutputSerializationAdapter.INSTANCE, output, state.state, Versions.getLatest(), Scope.PERSISTED_STATE);
+        output.close();
+        return byteStream.toByteArray();
+    }
+
+    @Benchmark
+    public RemoteBucketState baseline_deserializeState_streams(SerializationState state) throws IOException {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(state.stateBytes))) {
+            return RemoteBucketState.SERIALIZATION_HANDLE.deserialize(DataOutputSerializationAdapter.INSTANCE, input);
+        }
+    }
+
+    @Benchmark
+    public byte[] baseline_serializeRequest_streams(SerializationState state) throws IOException {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(byteStream);
+        Request.SERIALIZATION_HANDLE.serialize(DataOutputSerializationAdapter.INSTANCE, output, state.request, Versions.getLatest(), Scope.REQUEST);
+        output.close();
+        return byteStream.toByteArray();
+    }
+
+    public static class OneThread {
+
+        public static void main(String[] args) throws RunnerException {
+            Options opt = new OptionsBuilder()
+                    .include(SerializationBenchmark.class.getSimpleName())
+                    .warmupIterations(3)
+                    .measurementIterations(5)
+                    .threads(1)
+                    .forks(1)
+                    .build();
+
+            new Runner(opt).run();
+        }
+
+    }
+
+    public static class Footprint {
+
+        public static void main(String[] args) {
+            for (int bandwidthCount = 1; bandwidthCount <= 3; bandwidthCount++) {
+                BucketConfiguration configuration = SerializationState.createConfiguration(bandwidthCount);
+                RemoteBucketState state = SerializationState.createState(configuration);
+                int stateSize = InternalSerializationHelper.serializeState(state, Versions.getLatest()).length;
+                int compactStateSize = InternalSerializationHelper.serializeState(state, Versions.getLatest(), true).length;
+                int requestSize = InternalSerializationHelper.serializeRequest(SerializationState.createRequest(configuration, false)).length;
+                int compactRequestSize = InternalSerializationHelper.serializeRequest(SerializationState.createRequest(configuration, true)).length;
+                System.out.println(bandwidthCount + " bandwidth(s): state " + stateSize + " bytes, compact state " + compactStateSize + " bytes, "
+                        + "request " + requestSize + " bytes, compact request " + compactRequestSize + " bytes");
+            }
+        }
+
+    }
+
+}
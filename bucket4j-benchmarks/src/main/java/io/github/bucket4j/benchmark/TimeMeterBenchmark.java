@@ -0,0 +1,91 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.benchmark;
+
+import io.github.bucket4j.benchmark.state.CachedTimeMeterState;
+import io.github.bucket4j.benchmark.state.LocalLockFreeState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TimeMeterBenchmark {
+
+    @Benchmark
+    public long currentTimeNanos_SystemMilliseconds(CachedTimeMeterState state) {
+        return state.systemMilliseconds.currentTimeNanos();
+    }
+
+    @Benchmark
+    public long currentTimeNanos_SystemNanotime(CachedTimeMeterState state) {
+        return state.systemNanotime.currentTimeNanos();
+    }
+
+    @Benchmark
+    public long currentTimeNanos_CachedMilliseconds(CachedTimeMeterState state) {
+        return state.cachedMilliseconds.currentTimeNanos();
+    }
+
+    @Benchmark
+    public boolean tryConsumeOneToken_mostlySuccess_SystemMilliseconds(LocalLockFreeState state) {
+        return state.unlimitedBucket.tryConsume(1);
+    }
+
+    @Benchmark
+    public boolean tryConsumeOneToken_mostlySuccess_CachedMilliseconds(CachedTimeMeterState state) {
+        return state.unlimitedBucket.tryConsume(1);
+    }
+
+    public static class OneThread {
+
+        public static void main(String[] args) throws RunnerException {
+            benchmark(1);
+        }
+
+    }
+
+    public static class FourThreads {
+
+        public static void main(String[] args) throws RunnerException {
+            benchmark(4);
+        }
+
+    }
+
+    private static void benchmark(int threadCount) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(TimeMeterBenchmark.class.getSimpleName())
+                .warmupIterations(10)
+                .measurementIterations(10)
+                .threads(threadCount)
+                .forks(1)
+                .build();
+        new Runner(opt).run();
+    }
+
+}
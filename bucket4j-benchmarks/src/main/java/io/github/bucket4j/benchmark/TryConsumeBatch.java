@@ -0,0 +1,113 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.benchmark;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.benchmark.state.BatchState;
+import io.github.bucket4j.benchmark.state.LocalLockFreeState;
+import io.github.bucket4j.benchmark.state.LocalSynchronizedState;
+import io.github.bucket4j.benchmark.state.LocalUnsafeState;
+import io.github.bucket4j.local.LocalBucket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TryConsumeBatch {
+
+    @Benchmark
+    public int tryConsumeEach_LockFree(LocalLockFreeState state, BatchState batch) {
+        return ((LocalBucket) state.unlimitedBucket).tryConsumeEach(batch.tokensToConsume, batch.admitted);
+    }
+
+    @Benchmark
+    public int tryConsumeSequentially_LockFree(LocalLockFreeState state, BatchState batch) {
+        return tryConsumeSequentially(state.unlimitedBucket, batch);
+    }
+
+    @Benchmark
+    public int tryConsumeEach_Synchronized(LocalSynchronizedState state, BatchState batch) {
+        return ((LocalBucket) state.unlimitedBucket).tryConsumeEach(batch.tokensToConsume, batch.admitted);
+    }
+
+    @Benchmark
+    public int tryConsumeSequentially_Synchronized(LocalSynchronizedState state, BatchState batch) {
+        return tryConsumeSequentially(state.unlimitedBucket, batch);
+    }
+
+    @Benchmark
+    public int tryConsumeEach_Unsafe(LocalUnsafeState state, BatchState batch) {
+        return ((LocalBucket) state.bucket).tryConsumeEach(batch.tokensToConsume, batch.admitted);
+    }
+
+    @Benchmark
+    public int tryConsumeSequentially_Unsafe(LocalUnsafeState state, BatchState batch) {
+        return tryConsumeSequentially(state.bucket, batch);
+    }
+
+    private static int tryConsumeSequentially(Bucket bucket, BatchState batch) {
+        int admittedCount = 0;
+        for (int i = 0; i < batch.tokensToConsume.length; i++) {
+            batch.admitted[i] = bucket.tryConsume(batch.tokensToConsume[i]);
+            if (batch.admitted[i]) {
+                admittedCount++;
+            }
+        }
+        return admittedCount;
+    }
+
+    public static class OneThread {
+
+        public static void main(String[] args) throws RunnerException {
+            benchmark(1);
+        }
+
+    }
+
+    public static class FourThreads {
+
+        public static void main(String[] args) throws RunnerException {
+            benchmark(4);
+        }
+
+    }
+
+    private static void benchmark(int threadCount) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(TryConsumeBatch.class.getSimpleName())
+                .warmupIterations(10)
+                .measurementIterations(10)
+                .threads(threadCount)
+                .forks(1)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+
+}
@@ -41,6 +41,21 @@ public class TryConsumeMostlySuccess {
         return state.unlimitedBucket.tryConsume(1);
     }
 
+    @Benchmark
+    public boolean tryConsumeOneToken_mostlySuccess_LockFreeSingleWord(LocalLockFreeSingleWordState state) {
+        return state.unlimitedBucket.tryConsume(1);
+    }
+
+    @Benchmark
+    public boolean tryConsumeOneToken_mostlySuccess_SeqLock(LocalSeqLockState state) {
+        return state.unlimitedBucket.tryConsume(1);
+    }
+
+    @Benchmark
+    public boolean tryConsumeOneToken_mostlySuccess_Striped(LocalStripedState state) {
+        return state.unlimitedBucket.tryConsume(1);
+    }
+
     @Benchmark
     public boolean tryConsumeOneToken_mostlySuccess_Synchronized(LocalSynchronizedState state) {
         return state.unlimitedBucket.tryConsume(1);
@@ -85,6 +100,30 @@ public class TryConsumeMostlySuccess {
 
     }
 
+    public static class EightThreads {
+
+        public static void main(String[] args) throws RunnerException {
+            benchmark(8);
+        }
+
+    }
+
+    public static class SixteenThreads {
+
+        public static void main(String[] args) throws RunnerException {
+            benchmark(16);
+        }
+
+    }
+
+    public static class ThirtyTwoThreads {
+
+        public static void main(String[] args) throws RunnerException {
+            benchmark(32);
+        }
+
+    }
+
     private static void benchmark(int threadCount) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(TryConsumeMostlySuccess.class.getSimpleName())
@@ -0,0 +1,67 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.benchmark.state;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.ContentionAwareExecution;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.DefaultContentionListener;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+public class ContentionState {
+
+    @Param({"100"})
+    public long latencyMicros;
+
+    public final BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(Bandwidth.simple(Long.MAX_VALUE / 2, Duration.ofNanos(Long.MAX_VALUE / 2)))
+            .build();
+
+    public final DefaultContentionListener listener = new DefaultContentionListener();
+
+    public SimulatedLatencyCompareAndSwapProxyManager optimistic;
+    public SimulatedLatencyCompareAndSwapProxyManager contentionAware;
+
+    @Setup
+    public void setup() {
+        long latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+        optimistic = new SimulatedLatencyCompareAndSwapProxyManager(ClientSideConfig.getDefault(), latencyNanos);
+        contentionAware = new SimulatedLatencyCompareAndSwapProxyManager(ClientSideConfig.getDefault()
+                .withContentionAwareExecution(ContentionAwareExecution.createDefault().withListener(listener)), latencyNanos);
+    }
+
+    @TearDown
+    public void printStatistics() {
+        System.out.println("\nconflicts=" + listener.getConflictCount()
+                + " avoidedConflicts=" + listener.getAvoidedConflictCount()
+                + " pessimisticModeEntered=" + listener.getPessimisticModeEnteredCount()
+                + " pessimisticModeExited=" + listener.getPessimisticModeExitedCount());
+    }
+
+}
@@ -0,0 +1,75 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.benchmark.state;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.proxy.AsyncProxyManager;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.serialization.Mapper;
+import io.github.bucket4j.redis.jedis.Bucket4jJedis;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@State(Scope.Benchmark)
+public class JedisAsyncState {
+
+    @Param({"100", "1000"})
+    public long latencyMicros;
+
+    @Param({"8"})
+    public int connections;
+
+    public final BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(Bandwidth.simple(Long.MAX_VALUE / 2, Duration.ofNanos(Long.MAX_VALUE / 2)))
+            .build();
+
+    public final Supplier<CompletableFuture<BucketConfiguration>> asyncConfiguration = () -> CompletableFuture.completedFuture(configuration);
+
+    public ProxyManager<Long> sync;
+    public AsyncProxyManager<Long> asyncNotPipelined;
+    public AsyncProxyManager<Long> async;
+    public AsyncProxyManager<Long> asyncPipelined;
+
+    @Setup
+    public void setup() {
+        long latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+        sync = new Bucket4jJedis.JedisBasedProxyManagerBuilder<>(Mapper.LONG, new SimulatedLatencyJedisApi(latencyNanos, connections))
+                .build();
+        asyncNotPipelined = new Bucket4jJedis.JedisBasedProxyManagerBuilder<>(Mapper.LONG, new SimulatedLatencyJedisApi(latencyNanos, connections, false))
+                .build()
+                .asAsync();
+        async = new Bucket4jJedis.JedisBasedProxyManagerBuilder<>(Mapper.LONG, new SimulatedLatencyJedisApi(latencyNanos, connections))
+                .build()
+                .asAsync();
+        asyncPipelined = new Bucket4jJedis.JedisBasedProxyManagerBuilder<>(Mapper.LONG, new SimulatedLatencyJedisApi(latencyNanos, connections))
+                .crossKeyBatching(128)
+                .build()
+                .asAsync();
+    }
+
+}
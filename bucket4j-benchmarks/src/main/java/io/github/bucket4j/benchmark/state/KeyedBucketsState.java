@@ -0,0 +1,84 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.benchmark.state;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.local.LocalBucket;
+import io.github.bucket4j.local.LocalBucketTable;
+import io.github.bucket4j.local.OffHeapBucketTable;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+@State(Scope.Benchmark)
+public class KeyedBucketsState {
+
+    private static final Bandwidth LIMIT = Bandwidth.simple(1000, Duration.ofSeconds(1));
+
+    @Param({"100000", "1000000"})
+    public int keyCount;
+
+    public LocalBucketTable<Long> table;
+    public OffHeapBucketTable offHeapTable;
+    public ConcurrentHashMap<Long, LocalBucket> concurrentHashMap;
+
+    // cumulative distribution of zipf law with exponent 1, the key with rank i has probability proportional to 1/i
+    public double[] zipfCumulativeProbabilities;
+
+    @Setup
+    public void setup() {
+        table = LocalBucketTable.builder()
+                .addLimit(LIMIT)
+                .withNanosecondPrecision()
+                .withInitialCapacity(keyCount)
+                .build();
+        offHeapTable = OffHeapBucketTable.builder()
+                .addLimit(LIMIT)
+                .withNanosecondPrecision()
+                .withMaxKeys(keyCount * 2L)
+                .build();
+        concurrentHashMap = new ConcurrentHashMap<>(keyCount);
+        for (long key = 0; key < keyCount; key++) {
+            table.tryConsume(key, 1);
+            offHeapTable.tryConsume(key, 1);
+            bucketFromMap(key).tryConsume(1);
+        }
+
+        zipfCumulativeProbabilities = new double[keyCount];
+        double sum = 0;
+        for (int i = 0; i < keyCount; i++) {
+            sum += 1.0 / (i + 1);
+            zipfCumulativeProbabilities[i] = sum;
+        }
+        for (int i = 0; i < keyCount; i++) {
+            zipfCumulativeProbabilities[i] /= sum;
+        }
+    }
+
+    public LocalBucket bucketFromMap(Long key) {
+        return concurrentHashMap.computeIfAbsent(key, k -> Bucket.builder().addLimit(LIMIT).withNanosecondPrecision().build());
+    }
+
+}
@@ -0,0 +1,69 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.benchmark.state;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketState;
+import io.github.bucket4j.MathType;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+
+@State(Scope.Thread)
+public class RefillState {
+
+    // time that passes between two invocations, is not multiple of any refill period to keep rounding error non-zero
+    private static final long STEP_NANOS = 1_337;
+
+    // 1 millisecond, 1 second, 1 minute, 1 hour
+    @Param({"1000000", "1000000000", "60000000000", "3600000000000"})
+    public long refillPeriodNanos;
+
+    @Param({"false", "true"})
+    public boolean refillIntervally;
+
+    public BucketState integerState;
+    public BucketState ieee754State;
+
+    public long currentTimeNanos;
+
+    @Setup
+    public void setup() {
+        // capacity is big enough to never be reached during benchmark, so refill always goes through full arithmetic
+        BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(limit -> refillIntervally ?
+                limit.capacity(Long.MAX_VALUE / 2).refillIntervally(7, Duration.ofNanos(refillPeriodNanos)).initialTokens(0) :
+                limit.capacity(Long.MAX_VALUE / 2).refillGreedy(7, Duration.ofNanos(refillPeriodNanos)).initialTokens(0))
+            .build();
+        integerState = BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, 0L);
+        ieee754State = BucketState.createInitialState(configuration, MathType.IEEE754, 0L);
+    }
+
+    public long nextTimeNanos() {
+        currentTimeNanos += STEP_NANOS;
+        return currentTimeNanos;
+    }
+
+}
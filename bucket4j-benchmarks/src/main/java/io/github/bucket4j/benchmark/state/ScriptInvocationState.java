@@ -0,0 +1,101 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.benchmark.state;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.redis.consts.LuaScripts;
+import io.github.bucket4j.redis.script.RedisScript;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Arguments of compare-and-swap script which is sent to Redis on each consumption from CAS-based proxy-manager,
+ * and encoder of commands into RESP in the same form as Redis clients write them to the socket.
+ */
+@State(Scope.Thread)
+public class ScriptInvocationState {
+
+    private static final byte[] EVAL = "EVAL".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EVALSHA = "EVALSHA".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] KEY_COUNT = "1".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    @Param({"1", "3"})
+    public int bandwidthCount;
+
+    public RedisScript script;
+    public byte[][] keysAndArgs;
+    public ByteBuffer buffer;
+
+    @Setup
+    public void setup() {
+        script = RedisScript.of(LuaScripts.SCRIPT_COMPARE_AND_SWAP_PX);
+        keysAndArgs = createKeysAndArgs(bandwidthCount);
+        buffer = ByteBuffer.allocate(16 * 1024);
+    }
+
+    public static byte[][] createKeysAndArgs(int bandwidthCount) {
+        BucketConfiguration configuration = SerializationState.createConfiguration(bandwidthCount);
+        RemoteBucketState state = SerializationState.createState(configuration);
+        byte[] stateBytes = InternalSerializationHelper.serializeState(state, Versions.getLatest());
+        byte[] key = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        byte[] ttlMillis = "60000".getBytes(StandardCharsets.UTF_8);
+        return new byte[][] {key, stateBytes, stateBytes, ttlMillis};
+    }
+
+    public int encodeEval() {
+        return encode(EVAL, script.getSourceBytes());
+    }
+
+    public int encodeEvalSha() {
+        return encode(EVALSHA, script.getSha1Bytes());
+    }
+
+    private int encode(byte[] command, byte[] scriptOrSha) {
+        buffer.clear();
+        writeArrayHeader(3 + keysAndArgs.length);
+        writeBulkString(command);
+        writeBulkString(scriptOrSha);
+        writeBulkString(KEY_COUNT);
+        for (byte[] keyOrArg : keysAndArgs) {
+            writeBulkString(keyOrArg);
+        }
+        return buffer.position();
+    }
+
+    private void writeArrayHeader(int size) {
+        buffer.put((byte) '*').put(Integer.toString(size).getBytes(StandardCharsets.US_ASCII)).put(CRLF);
+    }
+
+    private void writeBulkString(byte[] value) {
+        buffer.put((byte) '$').put(Integer.toString(value.length).getBytes(StandardCharsets.US_ASCII)).put(CRLF);
+        buffer.put(value).put(CRLF);
+    }
+
+}
@@ -0,0 +1,97 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.benchmark.state;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConfigurationBuilder;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.MutableBucketEntry;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateAndExecuteCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
+import io.github.bucket4j.distributed.versioning.Versions;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+@State(Scope.Benchmark)
+public class SerializationState {
+
+    @Param({"1", "3"})
+    public int bandwidthCount;
+
+    public BucketConfiguration configuration;
+    public RemoteBucketState state;
+    public Request<Boolean> request;
+    public Request<Boolean> compactRequest;
+    public byte[] stateBytes;
+    public byte[] compactStateBytes;
+    public byte[] requestBytes;
+    public byte[] resultBytes;
+    public ByteBuffer directBuffer;
+
+    @Setup
+    public void setup() {
+        configuration = createConfiguration(bandwidthCount);
+        state = createState(configuration);
+        request = createRequest(configuration, false);
+        compactRequest = createRequest(configuration, true);
+        stateBytes = InternalSerializationHelper.serializeState(state, Versions.getLatest());
+        compactStateBytes = InternalSerializationHelper.serializeState(state, Versions.getLatest(), true);
+        requestBytes = InternalSerializationHelper.serializeRequest(request);
+        resultBytes = InternalSerializationHelper.serializeResult(CommandResult.TRUE, Versions.getLatest());
+        directBuffer = ByteBuffer.allocateDirect(4096);
+    }
+
+    public static BucketConfiguration createConfiguration(int bandwidthCount) {
+        Bandwidth[] typicalLimits = {
+            Bandwidth.builder().capacity(100).refillGreedy(100, Duration.ofSeconds(1)).build(),
+            Bandwidth.builder().capacity(10_000).refillGreedy(10_000, Duration.ofHours(1)).build(),
+            Bandwidth.builder().capacity(100_000).refillIntervally(100_000, Duration.ofDays(1)).build(),
+        };
+        ConfigurationBuilder builder = BucketConfiguration.builder();
+        for (int i = 0; i < bandwidthCount; i++) {
+            builder.addLimit(typicalLimits[i]);
+        }
+        return builder.build();
+    }
+
+    public static RemoteBucketState createState(BucketConfiguration configuration) {
+        long now = System.currentTimeMillis() * 1_000_000;
+        byte[] initialState = InternalSerializationHelper.serializeRequest(createRequest(configuration, false));
+        MutableBucketEntry entry = new MutableBucketEntry((byte[]) null);
+        InternalSerializationHelper.<Boolean>deserializeRequest(initialState).getCommand().execute(entry, now);
+        return entry.get();
+    }
+
+    public static Request<Boolean> createRequest(BucketConfiguration configuration, boolean compact) {
+        CreateInitialStateAndExecuteCommand<Boolean> command = new CreateInitialStateAndExecuteCommand<>(configuration, TryConsumeCommand.create(1), MathType.INTEGER_64_BITS);
+        return new Request<>(command, Versions.getLatest(), System.currentTimeMillis() * 1_000_000, null, compact);
+    }
+
+}
@@ -0,0 +1,206 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.benchmark.state;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncBatchCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntConsumer;
+
+/**
+ * In-process stand-in of Redis Cluster for compare-and-swap based proxy-managers.
+ * Keys are spread over {@code nodeCount} nodes by hash slot, each node serves {@code connections} round trips in parallel
+ * and each round trip costs {@code latencyNanos}. Reading of state and compare-and-swap cost one round trip each,
+ * when batch operations are enabled commands of one batch cost one round trip per node, like pipeline to each node does.
+ */
+public class SimulatedClusterCompareAndSwapProxyManager extends AbstractCompareAndSwapBasedProxyManager<Long> {
+
+    private static final int SLOT_COUNT = 16384;
+
+    private final ConcurrentHashMap<Long, byte[]> states = new ConcurrentHashMap<>();
+    private final long latencyNanos;
+    private final Semaphore[] nodes;
+    private final boolean batchCompareAndSwap;
+    private final ExecutorService pipelineExecutor;
+
+    public SimulatedClusterCompareAndSwapProxyManager(ClientSideConfig clientSideConfig, long latencyNanos, int nodeCount, int connections, boolean batchCompareAndSwap) {
+        super(clientSideConfig);
+        this.latencyNanos = latencyNanos;
+        this.nodes = new Semaphore[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            nodes[i] = new Semaphore(connections);
+        }
+        this.batchCompareAndSwap = batchCompareAndSwap;
+        this.pipelineExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "simulated-cluster-pipeline");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    protected CompareAndSwapOperation beginCompareAndSwapOperation(Long key) {
+        int node = nodeOf(key);
+        return new CompareAndSwapOperation() {
+            @Override
+            public Optional<byte[]> getStateData(Optional<Long> timeoutNanos) {
+                roundTrip(node);
+                return Optional.ofNullable(states.get(key));
+            }
+            @Override
+            public boolean compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState, Optional<Long> timeoutNanos) {
+                roundTrip(node);
+                return swap(key, originalData, newData);
+            }
+        };
+    }
+
+    @Override
+    protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(Long key) {
+        CompareAndSwapOperation operation = beginCompareAndSwapOperation(key);
+        return new AsyncCompareAndSwapOperation() {
+            @Override
+            public CompletableFuture<Optional<byte[]>> getStateData(Optional<Long> timeoutNanos) {
+                return CompletableFuture.supplyAsync(() -> operation.getStateData(timeoutNanos), pipelineExecutor);
+            }
+            @Override
+            public CompletableFuture<Boolean> compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState, Optional<Long> timeoutNanos) {
+                return CompletableFuture.supplyAsync(() -> operation.compareAndSwap(originalData, newData, newState, timeoutNanos), pipelineExecutor);
+            }
+        };
+    }
+
+    @Override
+    protected boolean isBatchCompareAndSwapSupported() {
+        return batchCompareAndSwap;
+    }
+
+    @Override
+    protected AsyncBatchCompareAndSwapOperation beginAsyncBatchCompareAndSwapOperation(List<Long> keys) {
+        return new AsyncBatchCompareAndSwapOperation() {
+            @Override
+            public List<CompletableFuture<Optional<byte[]>>> getStateData(Optional<Long> timeoutNanos) {
+                List<CompletableFuture<Optional<byte[]>>> results = new ArrayList<>(keys.size());
+                for (int i = 0; i < keys.size(); i++) {
+                    results.add(new CompletableFuture<>());
+                }
+                pipeline(groupByNode(keys), position -> results.get(position).complete(Optional.ofNullable(states.get(keys.get(position)))));
+                return results;
+            }
+            @Override
+            public List<CompletableFuture<Boolean>> compareAndSwap(List<Integer> positions, List<byte[]> originalData, List<byte[]> newData, List<RemoteBucketState> newStates, Optional<Long> timeoutNanos) {
+                List<CompletableFuture<Boolean>> results = new ArrayList<>(positions.size());
+                List<Long> swappedKeys = new ArrayList<>(positions.size());
+                for (int position : positions) {
+                    results.add(new CompletableFuture<>());
+                    swappedKeys.add(keys.get(position));
+                }
+                pipeline(groupByNode(swappedKeys), i -> results.get(i).complete(swap(swappedKeys.get(i), originalData.get(i), newData.get(i))));
+                return results;
+            }
+        };
+    }
+
+    @Override
+    protected boolean isLastSeenStateCacheSupported() {
+        return true;
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(Long key) {
+        states.remove(key);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void removeProxy(Long key) {
+        states.remove(key);
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return true;
+    }
+
+    private List<List<Integer>> groupByNode(List<Long> keys) {
+        List<List<Integer>> positionsByNode = new ArrayList<>(nodes.length);
+        for (int i = 0; i < nodes.length; i++) {
+            positionsByNode.add(new ArrayList<>());
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            positionsByNode.get(nodeOf(keys.get(i))).add(i);
+        }
+        return positionsByNode;
+    }
+
+    private void pipeline(List<List<Integer>> positionsByNode, IntConsumer replyHandler) {
+        for (int node = 0; node < positionsByNode.size(); node++) {
+            List<Integer> positions = positionsByNode.get(node);
+            if (positions.isEmpty()) {
+                continue;
+            }
+            int targetNode = node;
+            pipelineExecutor.execute(() -> {
+                roundTrip(targetNode);
+                for (int position : positions) {
+                    replyHandler.accept(position);
+                }
+            });
+        }
+    }
+
+    private boolean swap(Long key, byte[] originalData, byte[] newData) {
+        boolean[] swapped = new boolean[1];
+        states.compute(key, (k, actualData) -> {
+            swapped[0] = Arrays.equals(actualData, originalData);
+            return swapped[0] ? newData : actualData;
+        });
+        return swapped[0];
+    }
+
+    private int nodeOf(Long key) {
+        int slot = Math.floorMod(Long.hashCode(key * 0x9E3779B97F4A7C15L), SLOT_COUNT);
+        return slot * nodes.length / SLOT_COUNT;
+    }
+
+    private void roundTrip(int node) {
+        nodes[node].acquireUninterruptibly();
+        try {
+            LockSupport.parkNanos(latencyNanos);
+        } finally {
+            nodes[node].release();
+        }
+    }
+
+}
@@ -0,0 +1,95 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.benchmark.state;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process compare-and-swap storage that pays {@code latencyNanos} per round trip,
+ * both reading of state and compare-and-swap cost one round trip each.
+ */
+public class SimulatedLatencyCompareAndSwapProxyManager extends AbstractCompareAndSwapBasedProxyManager<Long> {
+
+    private final ConcurrentHashMap<Long, byte[]> states = new ConcurrentHashMap<>();
+    private final long latencyNanos;
+
+    public SimulatedLatencyCompareAndSwapProxyManager(ClientSideConfig clientSideConfig, long latencyNanos) {
+        super(clientSideConfig);
+        this.latencyNanos = latencyNanos;
+    }
+
+    @Override
+    protected CompareAndSwapOperation beginCompareAndSwapOperation(Long key) {
+        return new CompareAndSwapOperation() {
+            @Override
+            public Optional<byte[]> getStateData(Optional<Long> timeoutNanos) {
+                LockSupport.parkNanos(latencyNanos);
+                return Optional.ofNullable(states.get(key));
+            }
+            @Override
+            public boolean compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState, Optional<Long> timeoutNanos) {
+                LockSupport.parkNanos(latencyNanos);
+                boolean[] swapped = new boolean[1];
+                states.compute(key, (k, actualData) -> {
+                    swapped[0] = Arrays.equals(actualData, originalData);
+                    return swapped[0] ? newData : actualData;
+                });
+                return swapped[0];
+            }
+        };
+    }
+
+    @Override
+    protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(Long key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected boolean isLastSeenStateCacheSupported() {
+        return true;
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(Long key) {
+        states.remove(key);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void removeProxy(Long key) {
+        states.remove(key);
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return false;
+    }
+
+}
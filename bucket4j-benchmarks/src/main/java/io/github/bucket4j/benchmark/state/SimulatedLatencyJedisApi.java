@@ -0,0 +1,138 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.benchmark.state;
+
+import io.github.bucket4j.redis.consts.LuaScripts;
+import io.github.bucket4j.redis.jedis.RedisApi;
+import io.github.bucket4j.redis.script.RedisScript;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * In-process stand-in of standalone Redis accessed through pool of Jedis connections.
+ * Each command occupies one of {@code connections} connections for {@code latencyNanos},
+ * pipelined commands occupy single connection for single round trip, as Jedis pipeline does.
+ * When {@code pipelining} is disabled, the API reports that pipelining is not supported, as custom implementations of {@link RedisApi} do by default.
+ * Only scripts that are used by compare-and-swap based proxy-manager without version stamping are supported, TTL is ignored.
+ */
+public class SimulatedLatencyJedisApi implements RedisApi {
+
+    private static final RedisScript SET_NX = RedisScript.of(LuaScripts.SCRIPT_SET_NX);
+    private static final RedisScript SET_NX_PX = RedisScript.of(LuaScripts.SCRIPT_SET_NX_PX);
+    private static final RedisScript COMPARE_AND_SWAP = RedisScript.of(LuaScripts.SCRIPT_COMPARE_AND_SWAP);
+    private static final RedisScript COMPARE_AND_SWAP_PX = RedisScript.of(LuaScripts.SCRIPT_COMPARE_AND_SWAP_PX);
+
+    private final ConcurrentHashMap<ByteBuffer, byte[]> values = new ConcurrentHashMap<>();
+    private final long latencyNanos;
+    private final Semaphore connections;
+    private final boolean pipelining;
+
+    public SimulatedLatencyJedisApi(long latencyNanos, int connections) {
+        this(latencyNanos, connections, true);
+    }
+
+    public SimulatedLatencyJedisApi(long latencyNanos, int connections, boolean pipelining) {
+        this.latencyNanos = latencyNanos;
+        this.connections = new Semaphore(connections);
+        this.pipelining = pipelining;
+    }
+
+    @Override
+    public boolean isPipeliningSupported() {
+        return pipelining;
+    }
+
+    @Override
+    public Object eval(byte[] script, int keyCount, byte[]... params) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object evalScript(RedisScript script, int keyCount, byte[]... params) {
+        roundTrip();
+        return execute(script, params);
+    }
+
+    @Override
+    public byte[] get(byte[] key) {
+        roundTrip();
+        return values.get(ByteBuffer.wrap(key));
+    }
+
+    @Override
+    public void delete(byte[] key) {
+        roundTrip();
+        values.remove(ByteBuffer.wrap(key));
+    }
+
+    @Override
+    public List<byte[]> getPipelined(List<byte[]> keys) {
+        roundTrip();
+        List<byte[]> result = new ArrayList<>(keys.size());
+        for (byte[] key : keys) {
+            result.add(values.get(ByteBuffer.wrap(key)));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Object> evalScriptPipelined(List<RedisScript> scripts, int keyCount, List<byte[][]> params) {
+        roundTrip();
+        List<Object> result = new ArrayList<>(scripts.size());
+        for (int i = 0; i < scripts.size(); i++) {
+            result.add(execute(scripts.get(i), params.get(i)));
+        }
+        return result;
+    }
+
+    private Object execute(RedisScript script, byte[][] keysAndArgs) {
+        ByteBuffer key = ByteBuffer.wrap(keysAndArgs[0]);
+        if (script == SET_NX || script == SET_NX_PX) {
+            return values.putIfAbsent(key, keysAndArgs[1]) == null ? 1L : 0L;
+        } else if (script == COMPARE_AND_SWAP || script == COMPARE_AND_SWAP_PX) {
+            byte[] originalData = keysAndArgs[1];
+            byte[] newData = keysAndArgs[2];
+            boolean[] swapped = new boolean[1];
+            values.compute(key, (k, actualData) -> {
+                swapped[0] = Arrays.equals(actualData, originalData);
+                return swapped[0] ? newData : actualData;
+            });
+            return swapped[0] ? 1L : 0L;
+        } else {
+            throw new UnsupportedOperationException(script.getSource());
+        }
+    }
+
+    private void roundTrip() {
+        connections.acquireUninterruptibly();
+        try {
+            LockSupport.parkNanos(latencyNanos);
+        } finally {
+            connections.release();
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.benchmark.state;
+
+import io.github.bucket4j.distributed.proxy.AbstractProxyManager;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.remote.AbstractBinaryTransaction;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.Request;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.deserializeResult;
+import static io.github.bucket4j.distributed.serialization.InternalSerializationHelper.serializeRequest;
+
+/**
+ * In-process storage that pays {@code latencyNanos} per round trip over a pool of {@code connections} connections,
+ * bulk execution pays single round trip per batch like pipeline does.
+ */
+public class SimulatedLatencyProxyManager extends AbstractProxyManager<Long> {
+
+    private final ConcurrentHashMap<Long, byte[]> states = new ConcurrentHashMap<>();
+    private final long latencyNanos;
+    private final Semaphore connections;
+
+    public SimulatedLatencyProxyManager(ClientSideConfig clientSideConfig, long latencyNanos, int connections) {
+        super(clientSideConfig);
+        this.latencyNanos = latencyNanos;
+        this.connections = new Semaphore(connections);
+    }
+
+    @Override
+    protected <T> CommandResult<T> execute(Long key, Request<T> request) {
+        roundTrip();
+        return executeLocally(key, request);
+    }
+
+    @Override
+    protected boolean isCrossKeyBatchingSupported() {
+        return true;
+    }
+
+    @Override
+    protected List<CompletableFuture<CommandResult<?>>> executeBatch(List<Long> keys, List<Request<?>> requests) {
+        roundTrip();
+        List<CompletableFuture<CommandResult<?>>> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            results.add(CompletableFuture.completedFuture(executeLocally(keys.get(i), requests.get(i))));
+        }
+        return results;
+    }
+
+    @Override
+    protected <T> CompletableFuture<CommandResult<T>> executeAsync(Long key, Request<T> request) {
+        return CompletableFuture.completedFuture(execute(key, request));
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(Long key) {
+        states.remove(key);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void removeProxy(Long key) {
+        states.remove(key);
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return false;
+    }
+
+    private void roundTrip() {
+        connections.acquireUninterruptibly();
+        try {
+            LockSupport.parkNanos(latencyNanos);
+        } finally {
+            connections.release();
+        }
+    }
+
+    private <T> CommandResult<T> executeLocally(Long key, Request<T> request) {
+        byte[] requestBytes = serializeRequest(request);
+        byte[][] responseHolder = new byte[1][];
+        states.compute(key, (k, stateBytes) -> {
+            byte[][] newStateHolder = new byte[][] {stateBytes};
+            responseHolder[0] = new AbstractBinaryTransaction(requestBytes) {
+                @Override
+                protected byte[] getRawState() {
+                    return stateBytes;
+                }
+                @Override
+                protected void setRawState(byte[] newStateBytes, RemoteBucketState newState) {
+                    newStateHolder[0] = newStateBytes;
+                }
+                @Override
+                public boolean exists() {
+                    return stateBytes != null;
+                }
+            }.execute();
+            return newStateHolder[0];
+        });
+        return deserializeResult(responseHolder[0], request.getBackwardCompatibilityVersion());
+    }
+
+}
@@ -0,0 +1,54 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.benchmark.state;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+@State(Scope.Thread)
+public class ZipfKeysState {
+
+    private static final int SAMPLES = 1 << 16;
+
+    private Long[] keys;
+    private int cursor;
+
+    @Setup
+    public void setup(KeyedBucketsState buckets) {
+        // keys are sampled in advance, so neither random generation nor boxing is measured
+        keys = new Long[SAMPLES];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < SAMPLES; i++) {
+            int rank = Arrays.binarySearch(buckets.zipfCumulativeProbabilities, random.nextDouble());
+            keys[i] = (long) (rank >= 0 ? rank : Math.min(-rank - 1, buckets.keyCount - 1));
+        }
+    }
+
+    public Long nextKey() {
+        Long key = keys[cursor];
+        cursor = (cursor + 1) & (SAMPLES - 1);
+        return key;
+    }
+
+}
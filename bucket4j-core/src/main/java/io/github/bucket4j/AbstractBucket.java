@@ -517,6 +517,75 @@ public abstract class AbstractBucket implements Bucket {
         }
     }
 
+    /**
+     * @see io.github.bucket4j.local.LocalBucket#tryConsumeEach(long[], boolean[])
+     */
+    public int tryConsumeEach(long[] tokensToConsume, boolean[] admitted) {
+        checkTokensToConsume(tokensToConsume, admitted);
+
+        int admittedCount = tryConsumeEachImpl(tokensToConsume, admitted);
+        for (int i = 0; i < tokensToConsume.length; i++) {
+            if (admitted[i]) {
+                listener.onConsumed(tokensToConsume[i]);
+            } else {
+                listener.onRejected(tokensToConsume[i]);
+            }
+        }
+        return admittedCount;
+    }
+
+    /**
+     * Settles batch of consumption requests, implementations that are able to apply whole batch by one update of state should override this method.
+     *
+     * @param tokensToConsume amounts of tokens to consume
+     * @param admitted array for per-request results
+     *
+     * @return amount of requests that were admitted
+     */
+    protected int tryConsumeEachImpl(long[] tokensToConsume, boolean[] admitted) {
+        int admittedCount = 0;
+        for (int i = 0; i < tokensToConsume.length; i++) {
+            admitted[i] = tryConsumeImpl(tokensToConsume[i]);
+            if (admitted[i]) {
+                admittedCount++;
+            }
+        }
+        return admittedCount;
+    }
+
+    /**
+     * Decides which requests from batch can be admitted when {@code availableTokens} are available,
+     * requests are checked in order, so result is the same as for sequential consumption.
+     *
+     * @param availableTokens amount of tokens available at the moment of batch settlement
+     * @param tokensToConsume amounts of tokens to consume
+     * @param admitted array for per-request results
+     *
+     * @return total amount of tokens that should be consumed for admitted requests
+     */
+    protected static long admitEach(long availableTokens, long[] tokensToConsume, boolean[] admitted) {
+        long tokensToConsumeTotal = 0;
+        for (int i = 0; i < tokensToConsume.length; i++) {
+            long tokens = tokensToConsume[i];
+            admitted[i] = tokens <= availableTokens;
+            if (admitted[i]) {
+                availableTokens -= tokens;
+                tokensToConsumeTotal += tokens;
+            }
+        }
+        return tokensToConsumeTotal;
+    }
+
+    protected static int countAdmitted(long[] tokensToConsume, boolean[] admitted) {
+        int admittedCount = 0;
+        for (int i = 0; i < tokensToConsume.length; i++) {
+            if (admitted[i]) {
+                admittedCount++;
+            }
+        }
+        return admittedCount;
+    }
+
     @Override
     public long consumeIgnoringRateLimits(long tokens) {
         checkTokensToConsume(tokens);
@@ -568,6 +637,41 @@ public abstract class AbstractBucket implements Bucket {
         return estimateAbilityToConsumeImpl(numTokens);
     }
 
+    @Override
+    public boolean tryConsumeAndReturnRemaining(long tokensToConsume, MutableConsumptionProbe probe) {
+        checkTokensToConsume(tokensToConsume);
+
+        tryConsumeAndReturnRemainingTokensImpl(tokensToConsume, probe);
+        if (probe.isConsumed()) {
+            listener.onConsumed(tokensToConsume);
+            return true;
+        } else {
+            listener.onRejected(tokensToConsume);
+            return false;
+        }
+    }
+
+    @Override
+    public boolean estimateAbilityToConsume(long numTokens, MutableEstimationProbe probe) {
+        checkTokensToConsume(numTokens);
+        estimateAbilityToConsumeImpl(numTokens, probe);
+        return probe.canBeConsumed();
+    }
+
+    /**
+     * Implementations that are able to calculate the probe without allocation should override this method.
+     */
+    protected void tryConsumeAndReturnRemainingTokensImpl(long tokensToConsume, MutableConsumptionProbe probe) {
+        probe.copyFrom(tryConsumeAndReturnRemainingTokensImpl(tokensToConsume));
+    }
+
+    /**
+     * Implementations that are able to calculate the probe without allocation should override this method.
+     */
+    protected void estimateAbilityToConsumeImpl(long numTokens, MutableEstimationProbe probe) {
+        probe.copyFrom(estimateAbilityToConsumeImpl(numTokens));
+    }
+
     @Override
     public void addTokens(long tokensToAdd) {
         checkTokensToAdd(tokensToAdd);
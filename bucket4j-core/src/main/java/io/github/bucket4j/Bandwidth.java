@@ -52,6 +52,11 @@ public class Bandwidth implements ComparableByContent<Bandwidth> {
     final boolean useAdaptiveInitialTokens;
     final String id;
 
+    // fixed-point reciprocals that replace division by refillPeriodNanos and refillTokens on the hot path,
+    // see divideByRefillPeriod and divideByRefillTokens
+    private final long refillPeriodNanosReciprocal;
+    private final long refillTokensReciprocal;
+
     /**
      * Creates a builder for {@link Bandwidth}
      *
@@ -71,6 +76,8 @@ public class Bandwidth implements ComparableByContent<Bandwidth> {
         this.timeOfFirstRefillMillis = timeOfFirstRefillMillis;
         this.useAdaptiveInitialTokens = useAdaptiveInitialTokens;
         this.id = id;
+        this.refillPeriodNanosReciprocal = reciprocal(refillPeriodNanos);
+        this.refillTokensReciprocal = reciprocal(refillTokens);
     }
 
     /**
@@ -314,4 +321,38 @@ public class Bandwidth implements ComparableByContent<Bandwidth> {
                 useAdaptiveInitialTokens == other.useAdaptiveInitialTokens;
     }
 
+    /**
+     * Returns {@code dividend / refillPeriodNanos} without executing of division instruction for non-negative dividend.
+     */
+    long divideByRefillPeriod(long dividend) {
+        return divide(dividend, refillPeriodNanos, refillPeriodNanosReciprocal);
+    }
+
+    /**
+     * Returns {@code dividend / refillTokens} without executing of division instruction for non-negative dividend.
+     */
+    long divideByRefillTokens(long dividend) {
+        return divide(dividend, refillTokens, refillTokensReciprocal);
+    }
+
+    private static long reciprocal(long divisor) {
+        // floor((2^64 - 1) / divisor) as unsigned number
+        return divisor > 0 ? Long.divideUnsigned(-1L, divisor) : 0L;
+    }
+
+    private static long divide(long dividend, long divisor, long reciprocal) {
+        if (dividend < 0 || reciprocal == 0) {
+            return dividend / divisor;
+        }
+        // unsigned high word of dividend * reciprocal, dividend is non-negative so only reciprocal needs in correction of sign
+        long quotient = Math.multiplyHigh(dividend, reciprocal) + ((reciprocal >> 63) & dividend);
+        // estimation can be less than exact quotient at most by two, because reciprocal is truncated
+        long remainder = dividend - quotient * divisor;
+        while (remainder >= divisor) {
+            quotient++;
+            remainder -= divisor;
+        }
+        return quotient;
+    }
+
 }
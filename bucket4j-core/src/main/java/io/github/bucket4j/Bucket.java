@@ -112,6 +112,34 @@ public interface Bucket {
      */
     EstimationProbe estimateAbilityToConsume(long numTokens);
 
+    /**
+     * Does the same as {@link #tryConsumeAndReturnRemaining(long)}, but writes result into {@code probe} provided by caller instead of allocation of new {@link ConsumptionProbe},
+     * so the same holder can be reused for many invocations.
+     *
+     * @param numTokens The number of tokens to consume from the bucket, must be a positive number.
+     * @param probe the holder that receives both result of consumption and tokens remaining in the bucket after consumption.
+     *
+     * @return {@code true} if tokens were consumed, the same value as {@link MutableConsumptionProbe#isConsumed()}
+     */
+    default boolean tryConsumeAndReturnRemaining(long numTokens, MutableConsumptionProbe probe) {
+        probe.copyFrom(tryConsumeAndReturnRemaining(numTokens));
+        return probe.isConsumed();
+    }
+
+    /**
+     * Does the same as {@link #estimateAbilityToConsume(long)}, but writes result into {@code probe} provided by caller instead of allocation of new {@link EstimationProbe},
+     * so the same holder can be reused for many invocations.
+     *
+     * @param numTokens The number of tokens to consume, must be a positive number.
+     * @param probe the holder that receives the ability to consume.
+     *
+     * @return {@code true} if requested tokens can be consumed, the same value as {@link MutableEstimationProbe#canBeConsumed()}
+     */
+    default boolean estimateAbilityToConsume(long numTokens, MutableEstimationProbe probe) {
+        probe.copyFrom(estimateAbilityToConsume(numTokens));
+        return probe.canBeConsumed();
+    }
+
     /**
      * Tries to consume as many tokens from this bucket as available at the moment of invocation.
      *
@@ -20,9 +20,11 @@
 package io.github.bucket4j;
 
 import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
+import io.github.bucket4j.distributed.serialization.FragmentSerializationAdapter;
 import io.github.bucket4j.distributed.serialization.Scope;
 import io.github.bucket4j.distributed.serialization.SerializationHandle;
 import io.github.bucket4j.distributed.serialization.SerializationAdapter;
+import io.github.bucket4j.distributed.serialization.SerializedFragments;
 import io.github.bucket4j.distributed.versioning.Version;
 import io.github.bucket4j.distributed.versioning.Versions;
 import io.github.bucket4j.util.ComparableByContent;
@@ -35,6 +37,7 @@ import static io.github.bucket4j.distributed.versioning.Versions.v_7_0_0;
 public final class BucketConfiguration implements ComparableByContent<BucketConfiguration> {
 
     private final Bandwidth[] bandwidths;
+    private final SerializedFragments serializedFragments = new SerializedFragments();
 
     public BucketConfiguration(List<Bandwidth> bandwidths) {
         Objects.requireNonNull(bandwidths);
@@ -103,6 +106,17 @@ public final class BucketConfiguration implements ComparableByContent<BucketConf
 
         @Override
         public <O> void serialize(SerializationAdapter<O> adapter, O output, BucketConfiguration configuration, Version backwardCompatibilityVersion, Scope scope) throws IOException {
+            if (adapter instanceof FragmentSerializationAdapter) {
+                // configurations are immutable and usually shared between many buckets, so serialized form is reused
+                FragmentSerializationAdapter<O> fragmentAdapter = (FragmentSerializationAdapter<O>) adapter;
+                configuration.serializedFragments.write(fragmentAdapter, output, backwardCompatibilityVersion, scope,
+                    target -> serializeBandwidths(fragmentAdapter, target, configuration, backwardCompatibilityVersion, scope));
+            } else {
+                serializeBandwidths(adapter, output, configuration, backwardCompatibilityVersion, scope);
+            }
+        }
+
+        private <O> void serializeBandwidths(SerializationAdapter<O> adapter, O output, BucketConfiguration configuration, Version backwardCompatibilityVersion, Scope scope) throws IOException {
             adapter.writeInt(output, v_7_0_0.getNumber());
 
             adapter.writeInt(output, configuration.bandwidths.length);
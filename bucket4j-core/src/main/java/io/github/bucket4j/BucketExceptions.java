@@ -19,6 +19,8 @@
  */
 package io.github.bucket4j;
 
+import io.github.bucket4j.local.SynchronizationStrategy;
+
 import java.text.MessageFormat;
 import java.time.Duration;
 import java.time.Instant;
@@ -63,6 +65,46 @@ public final class BucketExceptions {
         return new IllegalArgumentException(msg);
     }
 
+    public static IllegalArgumentException nullMathType() {
+        String msg = "Math type can not be null";
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException mathTypeIsNotSupportedBySynchronizationStrategy(MathType mathType, SynchronizationStrategy synchronizationStrategy) {
+        String pattern = "{0} math is not supported by {1} synchronization strategy";
+        String msg = MessageFormat.format(pattern, mathType, synchronizationStrategy);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nullKey() {
+        String msg = "Key can not be null";
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nonPositiveStripes(int stripes) {
+        String pattern = "Amount of stripes should be positive, but was {0}";
+        String msg = MessageFormat.format(pattern, stripes);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException negativeInitialCapacity(int initialCapacity) {
+        String pattern = "Initial capacity can not be negative, but was {0}";
+        String msg = MessageFormat.format(pattern, initialCapacity);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException negativeKeepAfterRefillDuration(Duration keepAfterRefillDuration) {
+        String pattern = "keepAfterRefillDuration can not be null or negative, but was {0}";
+        String msg = MessageFormat.format(pattern, keepAfterRefillDuration);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nonPositiveMaxKeys(long maxKeys) {
+        String pattern = "Maximum amount of keys should be positive, but was {0}";
+        String msg = MessageFormat.format(pattern, maxKeys);
+        return new IllegalArgumentException(msg);
+    }
+
     public static IllegalArgumentException nullListener() {
         String msg = "listener can not be null";
         return new IllegalArgumentException(msg);
@@ -116,6 +158,12 @@ public final class BucketExceptions {
         return new IllegalArgumentException(msg);
     }
 
+    public static IllegalArgumentException nonPositiveTimeMeterResolution(Duration resolution) {
+        String pattern = "{0} is wrong value for resolution of time meter, because resolution should be positive";
+        String msg = MessageFormat.format(pattern, resolution);
+        return new IllegalArgumentException(msg);
+    }
+
     public static IllegalArgumentException nonPositivePeriodTokens(long tokens) {
         String pattern = "{0} is wrong value for period tokens, because tokens should be positive";
         String msg = MessageFormat.format(pattern, tokens);
@@ -142,6 +190,23 @@ public final class BucketExceptions {
         return new IllegalArgumentException(msg);
     }
 
+    public static IllegalArgumentException nonPositiveTokensForLeaseParameters(long maxLeaseTokens) {
+        String pattern = "{0} is wrong value for maxLeaseTokens, because tokens should be positive";
+        String msg = MessageFormat.format(pattern, maxLeaseTokens);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nullLeaseDurationForLeaseParameters() {
+        String msg = "leaseDuration can not be null";
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nonPositiveLeaseDurationForLeaseParameters(Duration leaseDuration) {
+        String pattern = "leaseDuration = {0}, leaseDuration should be positive";
+        String msg = MessageFormat.format(pattern, leaseDuration);
+        return new IllegalArgumentException(msg);
+    }
+
     // TODO add test
     public static IllegalArgumentException wrongValueOfMinSamplesForPredictionParameters(int minSamples) {
         String pattern = "minSamples = {0}, minSamples must be >= 2";
@@ -192,6 +257,26 @@ public final class BucketExceptions {
         return new IllegalArgumentException(msg);
     }
 
+    public static IllegalArgumentException configurationIsNotApplicableForSingleWordStrategy(BucketConfiguration configuration) {
+        String pattern = "{0} can not be used with LOCK_FREE_SINGLE_WORD synchronization strategy, " +
+                "because this strategy supports only configurations with exactly one bandwidth with greedy refill";
+        String msg = MessageFormat.format(pattern, configuration);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static UnsupportedOperationException forceAddTokensIsNotSupportedBySingleWordStrategy() {
+        String msg = "forceAddTokens is not supported by LOCK_FREE_SINGLE_WORD synchronization strategy, " +
+                "because amount of tokens above capacity can not be represented by single word, use addTokens or another synchronization strategy";
+        return new UnsupportedOperationException(msg);
+    }
+
+    public static IllegalArgumentException configurationIsNotApplicableForStripedStrategy(BucketConfiguration configuration, int stripes) {
+        String pattern = "{0} can not be split into {1} stripes of STRIPED synchronization strategy, " +
+                "because capacity and refill tokens of each bandwidth should not be less than amount of stripes";
+        String msg = MessageFormat.format(pattern, configuration, stripes);
+        return new IllegalArgumentException(msg);
+    }
+
     public static IllegalArgumentException foundTwoBandwidthsWithSameId(int firstIndex, int secondIndex, String id) {
         String pattern = "All identifiers must unique. Id: {0}, first index: {1}, second index: {2}";
         String msg = MessageFormat.format(pattern, id, firstIndex, secondIndex);
@@ -213,6 +298,17 @@ public final class BucketExceptions {
         return new IllegalArgumentException(msg);
     }
 
+    public static IllegalArgumentException emptyConsumptions() {
+        String msg = "List of consumptions can not be null or empty";
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException tooShortArrayForBatchResults(int batchSize, int resultsLength) {
+        String pattern = "Array for results has length {1}, that is not enough to store results of batch of {0} requests";
+        String msg = MessageFormat.format(pattern, batchSize, resultsLength);
+        return new IllegalArgumentException(msg);
+    }
+
     public static IllegalArgumentException nonPositiveTokensLimitToSync(long tokens) {
         String pattern = "Sync threshold tokens should be positive, {0} is wrong waiting period";
         String msg = MessageFormat.format(pattern, tokens);
@@ -254,6 +350,47 @@ public final class BucketExceptions {
         return new IllegalArgumentException(msg);
     }
 
+    public static IllegalArgumentException nonPositiveMaxBatchSize(int maxBatchSize) {
+        String pattern = "{0} is wrong value for maxBatchSize, because maxBatchSize should be positive";
+        String msg = MessageFormat.format(pattern, maxBatchSize);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException negativeKnownBucketsCacheSize(int knownBucketsCacheSize) {
+        String pattern = "{0} is wrong value for knownBucketsCacheSize, because knownBucketsCacheSize can not be negative";
+        String msg = MessageFormat.format(pattern, knownBucketsCacheSize);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nonPositiveLastSeenStateCacheSize(int maxSize) {
+        String pattern = "{0} is wrong value for lastSeenStateCacheSize, because lastSeenStateCacheSize should be positive";
+        String msg = MessageFormat.format(pattern, maxSize);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException wrongConflictRateThreshold(double conflictRateThreshold) {
+        String pattern = "{0} is wrong value for conflictRateThreshold, because conflictRateThreshold should be in range (0, 1]";
+        String msg = MessageFormat.format(pattern, conflictRateThreshold);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nonPositiveContentionWindowSize(int windowSize) {
+        String pattern = "{0} is wrong value for windowSize, because windowSize should be positive";
+        String msg = MessageFormat.format(pattern, windowSize);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nonPositiveMaxTrackedKeys(int maxTrackedKeys) {
+        String pattern = "{0} is wrong value for maxTrackedKeys, because maxTrackedKeys should be positive";
+        String msg = MessageFormat.format(pattern, maxTrackedKeys);
+        return new IllegalArgumentException(msg);
+    }
+
+    public static IllegalArgumentException nullContentionAwareExecution() {
+        String msg = "Contention-aware execution can not be null";
+        return new IllegalArgumentException(msg);
+    }
+
     public static BucketExecutionException maxRetriesExceeded(int maxRetries) {
         String pattern = "CAS operation failed after {0} retry attempts";
         String msg = MessageFormat.format(pattern, maxRetries);
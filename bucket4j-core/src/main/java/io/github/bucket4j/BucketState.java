@@ -64,6 +64,7 @@ public interface BucketState {
     static BucketState createInitialState(BucketConfiguration configuration, MathType mathType, long currentTimeNanos) {
         return switch (mathType) {
             case INTEGER_64_BITS -> new BucketState64BitsInteger(configuration, currentTimeNanos);
+            case IEEE754 -> new BucketStateIEEE754(configuration, currentTimeNanos);
         };
     }
 
@@ -71,6 +72,8 @@ public interface BucketState {
         int typeId = adapter.readInt(input);
         if (typeId == BucketState64BitsInteger.SERIALIZATION_HANDLE.getTypeId()) {
             return BucketState64BitsInteger.SERIALIZATION_HANDLE.deserialize(adapter, input);
+        } else if (typeId == BucketStateIEEE754.SERIALIZATION_HANDLE.getTypeId()) {
+            return BucketStateIEEE754.SERIALIZATION_HANDLE.deserialize(adapter, input);
         } else {
             throw new IOException("Unknown typeId=" + typeId);
         }
@@ -82,6 +85,10 @@ public interface BucketState {
                 adapter.writeInt(output, BucketState64BitsInteger.SERIALIZATION_HANDLE.getTypeId());
                 BucketState64BitsInteger.SERIALIZATION_HANDLE.serialize(adapter, output, (BucketState64BitsInteger) state, backwardCompatibilityVersion, scope);
                 break;
+            case IEEE754:
+                adapter.writeInt(output, BucketStateIEEE754.SERIALIZATION_HANDLE.getTypeId());
+                BucketStateIEEE754.SERIALIZATION_HANDLE.serialize(adapter, output, (BucketStateIEEE754) state, backwardCompatibilityVersion, scope);
+                break;
             default:
                 throw new IOException("Unknown mathType=" + state.getMathType());
         }
@@ -91,6 +98,8 @@ public interface BucketState {
         String type = (String) snapshot.get("type");
         if (BucketState64BitsInteger.SERIALIZATION_HANDLE.getTypeName().equals(type)) {
             return BucketState64BitsInteger.SERIALIZATION_HANDLE.fromJsonCompatibleSnapshot(snapshot);
+        } else if (BucketStateIEEE754.SERIALIZATION_HANDLE.getTypeName().equals(type)) {
+            return BucketStateIEEE754.SERIALIZATION_HANDLE.fromJsonCompatibleSnapshot(snapshot);
         } else {
             throw new IOException("Unknown typeName=" + type);
         }
@@ -103,6 +112,11 @@ public interface BucketState {
                 result.put("type", BucketState64BitsInteger.SERIALIZATION_HANDLE.getTypeName());
                 return result;
             }
+            case IEEE754: {
+                Map<String, Object> result = BucketStateIEEE754.SERIALIZATION_HANDLE.toJsonCompatibleSnapshot((BucketStateIEEE754) state, backwardCompatibilityVersion, scope);
+                result.put("type", BucketStateIEEE754.SERIALIZATION_HANDLE.getTypeName());
+                return result;
+            }
             default:
                 throw new IOException("Unknown mathType=" + state.getMathType());
         }
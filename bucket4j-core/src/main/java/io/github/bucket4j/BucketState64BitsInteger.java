@@ -108,6 +108,17 @@ public class BucketState64BitsInteger implements BucketState, ComparableByConten
         this.stateData = stateData;
     }
 
+    /**
+     * Creates the state from raw data, where each bandwidth is represented by triple {@code [lastRefillTimeNanos, currentSize, roundingError]}.
+     *
+     * @param configuration the configuration to which state belongs
+     * @param stateData raw data of state, array is not copied
+     */
+    public BucketState64BitsInteger(BucketConfiguration configuration, long[] stateData) {
+        this.configuration = configuration;
+        this.stateData = stateData;
+    }
+
     public BucketState64BitsInteger(BucketConfiguration configuration, long currentTimeNanos) {
         this.configuration = configuration;
         Bandwidth[] bandwidths = configuration.getBandwidths();
@@ -451,7 +462,8 @@ public class BucketState64BitsInteger implements BucketState, ComparableByConten
         }
 
         if (bandwidth.isRefillIntervally()) {
-            long incompleteIntervalCorrection = (currentTimeNanos - previousRefillNanos) % bandwidth.getRefillPeriodNanos();
+            long durationNanos = currentTimeNanos - previousRefillNanos;
+            long incompleteIntervalCorrection = durationNanos - bandwidth.divideByRefillPeriod(durationNanos) * bandwidth.refillPeriodNanos;
             currentTimeNanos -= incompleteIntervalCorrection;
         }
         if (currentTimeNanos <= previousRefillNanos) {
@@ -474,7 +486,7 @@ public class BucketState64BitsInteger implements BucketState, ComparableByConten
         long newSize = currentSize;
 
         if (durationSinceLastRefillNanos > refillPeriodNanos) {
-            long elapsedPeriods = durationSinceLastRefillNanos / refillPeriodNanos;
+            long elapsedPeriods = bandwidth.divideByRefillPeriod(durationSinceLastRefillNanos);
             long calculatedRefill = elapsedPeriods * refillTokens;
             newSize += calculatedRefill;
             if (newSize > capacity) {
@@ -487,7 +499,7 @@ public class BucketState64BitsInteger implements BucketState, ComparableByConten
                 resetBandwidth(bandwidthIndex, capacity);
                 return;
             }
-            durationSinceLastRefillNanos %= refillPeriodNanos;
+            durationSinceLastRefillNanos -= elapsedPeriods * refillPeriodNanos;
         }
 
 
@@ -501,12 +513,12 @@ public class BucketState64BitsInteger implements BucketState, ComparableByConten
             newSize += calculatedRefill;
             roundingError = 0;
         } else {
-            long calculatedRefill = divided / refillPeriodNanos;
+            long calculatedRefill = bandwidth.divideByRefillPeriod(divided);
             if (calculatedRefill == 0) {
                 roundingError = divided;
             } else {
                 newSize += calculatedRefill;
-                roundingError = divided % refillPeriodNanos;
+                roundingError = divided - calculatedRefill * refillPeriodNanos;
             }
         }
 
@@ -561,7 +573,7 @@ public class BucketState64BitsInteger implements BucketState, ComparableByConten
         } else {
             long correctionForPartiallyRefilledToken = getRoundingError(bandwidthIndex);
             divided -= correctionForPartiallyRefilledToken;
-            return divided / refillPeriodTokens;
+            return bandwidth.divideByRefillTokens(divided);
         }
     }
 
@@ -581,7 +593,8 @@ public class BucketState64BitsInteger implements BucketState, ComparableByConten
             return waitForNextRefillNanos + refillPeriodNanos;
         }
 
-        long deficitPeriods = deficit / refillTokens + (deficit % refillTokens == 0L? 0 : 1);
+        long fullDeficitPeriods = bandwidth.divideByRefillTokens(deficit);
+        long deficitPeriods = fullDeficitPeriods + (deficit == fullDeficitPeriods * refillTokens ? 0 : 1);
         long deficitNanos = multiplyExactOrReturnMaxValue(deficitPeriods, refillPeriodNanos);
         if (deficitNanos == Long.MAX_VALUE) {
             // math overflow happen
@@ -595,7 +608,7 @@ public class BucketState64BitsInteger implements BucketState, ComparableByConten
         return deficitNanos;
     }
 
-    private long getLastRefillTimeNanos(int bandwidth) {
+    public long getLastRefillTimeNanos(int bandwidth) {
         return stateData[bandwidth * BANDWIDTH_SIZE];
     }
 
@@ -637,19 +650,13 @@ public class BucketState64BitsInteger implements BucketState, ComparableByConten
                 '}';
     }
 
-    // just a copy of JDK method Math#multiplyExact,
-    // but instead of throwing exception it returns Long.MAX_VALUE in case of overflow
+    // the same as JDK method Math#multiplyExact,
+    // but instead of throwing exception it returns Long.MAX_VALUE in case of overflow.
+    // Overflow is detected by comparing high word of 128 bits product with sign extension of low word, so no division is required
     private static long multiplyExactOrReturnMaxValue(long x, long y) {
         long r = x * y;
-        long ax = Math.abs(x);
-        long ay = Math.abs(y);
-        if (((ax | ay) >>> 31 != 0)) {
-            // Some bits greater than 2^31 that might cause overflow
-            // Check the result using the divide operator
-            // and check for the special case of Long.MIN_VALUE * -1
-            if (((y != 0) && (r / y != x)) || (x == Long.MIN_VALUE && y == -1)) {
-                return Long.MAX_VALUE;
-            }
+        if (Math.multiplyHigh(x, y) != (r >> 63)) {
+            return Long.MAX_VALUE;
         }
         return r;
     }
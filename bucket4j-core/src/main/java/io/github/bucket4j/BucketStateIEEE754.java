@@ -0,0 +1,434 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j;
+
+import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
+import io.github.bucket4j.distributed.serialization.Scope;
+import io.github.bucket4j.distributed.serialization.SerializationAdapter;
+import io.github.bucket4j.distributed.serialization.SerializationHandle;
+import io.github.bucket4j.distributed.versioning.Version;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.util.ComparableByContent;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static io.github.bucket4j.distributed.versioning.Versions.v_8_19_0;
+
+/**
+ * The state of bucket that stores amount of tokens as IEEE-754 floating point numbers,
+ * the fraction of partially refilled token is stored in the same number as whole tokens,
+ * so refill does not need in overflow checking and rounding error bookkeeping that {@link BucketState64BitsInteger} does.
+ *
+ * <p>The price is precision: amounts of tokens greater than 2<sup>53</sup> can not be represented exactly,
+ * and partially refilled token can be observed as available a few nanoseconds later than with integer arithmetic.
+ *
+ * @see MathType#IEEE754
+ */
+public class BucketStateIEEE754 implements BucketState, ComparableByContent<BucketStateIEEE754> {
+
+    long[] lastRefillTime;
+    double[] tokens;
+
+    private BucketConfiguration configuration;
+
+    public static final SerializationHandle<BucketStateIEEE754> SERIALIZATION_HANDLE = new SerializationHandle<>() {
+        @Override
+        public <S> BucketStateIEEE754 deserialize(DeserializationAdapter<S> adapter, S input) throws IOException {
+            int formatNumber = adapter.readInt(input);
+            Versions.check(formatNumber, v_8_19_0, v_8_19_0);
+
+            long[] lastRefillTime = adapter.readLongArray(input);
+            double[] tokens = adapter.readDoubleArray(input);
+            return new BucketStateIEEE754(lastRefillTime, tokens);
+        }
+
+        @Override
+        public <O> void serialize(SerializationAdapter<O> adapter, O output, BucketStateIEEE754 state, Version backwardCompatibilityVersion, Scope scope) throws IOException {
+            adapter.writeInt(output, v_8_19_0.getNumber());
+
+            adapter.writeLongArray(output, state.lastRefillTime);
+            adapter.writeDoubleArray(output, state.tokens);
+        }
+
+        @Override
+        public int getTypeId() {
+            return 4;
+        }
+
+        @Override
+        public Class<BucketStateIEEE754> getSerializedType() {
+            return BucketStateIEEE754.class;
+        }
+
+        @Override
+        public BucketStateIEEE754 fromJsonCompatibleSnapshot(Map<String, Object> snapshot) throws IOException {
+            int formatNumber = readIntValue(snapshot, "version");
+            Versions.check(formatNumber, v_8_19_0, v_8_19_0);
+
+            long[] lastRefillTime = readLongArray(snapshot, "lastRefillTime");
+            double[] tokens = readDoubleArray(snapshot, "tokens");
+            Map<String, Object> configurationSnapshot = (Map<String, Object>) snapshot.get("configuration");
+            BucketConfiguration configuration = BucketConfiguration.SERIALIZATION_HANDLE.fromJsonCompatibleSnapshot(configurationSnapshot);
+            BucketStateIEEE754 state = new BucketStateIEEE754(lastRefillTime, tokens);
+            state.setConfiguration(configuration);
+            return state;
+        }
+
+        @Override
+        public Map<String, Object> toJsonCompatibleSnapshot(BucketStateIEEE754 state, Version backwardCompatibilityVersion, Scope scope) throws IOException {
+            Map<String, Object> result = new HashMap<>();
+            result.put("version", v_8_19_0.getNumber());
+            result.put("lastRefillTime", state.lastRefillTime);
+            result.put("tokens", state.tokens);
+            result.put("configuration", BucketConfiguration.SERIALIZATION_HANDLE.toJsonCompatibleSnapshot(state.configuration, backwardCompatibilityVersion, scope));
+            return result;
+        }
+
+        @Override
+        public String getTypeName() {
+            return "BucketStateIEEE754";
+        }
+    };
+
+    private BucketStateIEEE754(BucketStateIEEE754 otherState) {
+        this.lastRefillTime = otherState.lastRefillTime.clone();
+        this.tokens = otherState.tokens.clone();
+        this.configuration = otherState.configuration;
+    }
+
+    private BucketStateIEEE754(long[] lastRefillTime, double[] tokens) {
+        this.lastRefillTime = lastRefillTime;
+        this.tokens = tokens;
+    }
+
+    public BucketStateIEEE754(BucketConfiguration configuration, long currentTimeNanos) {
+        this.configuration = configuration;
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+
+        this.lastRefillTime = new long[bandwidths.length];
+        this.tokens = new double[bandwidths.length];
+        for (int i = 0; i < bandwidths.length; i++) {
+            tokens[i] = calculateInitialTokens(bandwidths[i], currentTimeNanos);
+            lastRefillTime[i] = calculateLastRefillTimeNanos(bandwidths[i], currentTimeNanos);
+        }
+    }
+
+    @Override
+    public BucketState copy() {
+        return new BucketStateIEEE754(this);
+    }
+
+    @Override
+    public BucketConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    @Override
+    public void setConfiguration(BucketConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    @Override
+    public BucketState replaceConfiguration(BucketConfiguration newConfiguration,
+                                            TokensInheritanceStrategy tokensInheritanceStrategy, long currentTimeNanos) {
+        BucketConfiguration previousConfiguration = this.configuration;
+        if (tokensInheritanceStrategy == TokensInheritanceStrategy.RESET) {
+            return new BucketStateIEEE754(newConfiguration, currentTimeNanos);
+        }
+
+        boolean nullIdComparisonCanBeApplied = countOfBandwidthsWithNullIdentifiers(previousConfiguration) < 2
+                && countOfBandwidthsWithNullIdentifiers(newConfiguration) < 2;
+
+        Bandwidth[] previousBandwidths = previousConfiguration.getBandwidths();
+        Bandwidth[] newBandwidths = newConfiguration.getBandwidths();
+
+        BucketStateIEEE754 newState = new BucketStateIEEE754(new long[newBandwidths.length], new double[newBandwidths.length]);
+        newState.setConfiguration(newConfiguration);
+        for (int newBandwidthIndex = 0; newBandwidthIndex < newBandwidths.length; newBandwidthIndex++) {
+            Bandwidth newBandwidth = newBandwidths[newBandwidthIndex];
+            Bandwidth previousBandwidth = null;
+            int previousBandwidthIndex = -1;
+            if (newBandwidth.getId() != null || nullIdComparisonCanBeApplied) {
+                for (int j = 0; j < previousBandwidths.length; j++) {
+                    if (Objects.equals(newBandwidth.getId(), previousBandwidths[j].getId())) {
+                        previousBandwidth = previousBandwidths[j];
+                        previousBandwidthIndex = j;
+                        break;
+                    }
+                }
+            }
+            if (previousBandwidth == null) {
+                newState.tokens[newBandwidthIndex] = calculateInitialTokens(newBandwidth, currentTimeNanos);
+                newState.lastRefillTime[newBandwidthIndex] = calculateLastRefillTimeNanos(newBandwidth, currentTimeNanos);
+                continue;
+            }
+
+            newState.lastRefillTime[newBandwidthIndex] = lastRefillTime[previousBandwidthIndex];
+            double currentSize = tokens[previousBandwidthIndex];
+            double newSize;
+            switch (tokensInheritanceStrategy) {
+                case AS_IS:
+                    newSize = currentSize;
+                    break;
+                case PROPORTIONALLY:
+                    newSize = currentSize >= previousBandwidth.capacity ?
+                            newBandwidth.capacity : currentSize * newBandwidth.capacity / previousBandwidth.capacity;
+                    break;
+                case ADDITIVE:
+                    if (newBandwidth.capacity <= previousBandwidth.capacity) {
+                        newSize = currentSize;
+                    } else if (currentSize >= previousBandwidth.capacity) {
+                        newSize = newBandwidth.capacity;
+                    } else {
+                        newSize = currentSize + (newBandwidth.capacity - previousBandwidth.capacity);
+                    }
+                    break;
+                default: throw new IllegalStateException("Should never reach there");
+            }
+            // partially refilled token can not be inherited by bandwidth that refills intervally
+            boolean fractionCanBeInherited = newBandwidth.isGready()
+                    && (previousBandwidth.isGready() || tokensInheritanceStrategy == TokensInheritanceStrategy.PROPORTIONALLY);
+            if (newSize >= newBandwidth.capacity) {
+                newSize = newBandwidth.capacity;
+            } else if (!fractionCanBeInherited) {
+                newSize = Math.floor(newSize);
+            }
+            newState.tokens[newBandwidthIndex] = newSize;
+        }
+        return newState;
+    }
+
+    private int countOfBandwidthsWithNullIdentifiers(BucketConfiguration configuration) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        int count = 0;
+        for (int i = 0; i < bandwidths.length; i++) {
+            if (bandwidths[i].getId() == null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void copyStateFrom(BucketState sourceState) {
+        BucketStateIEEE754 sourceStateIEEE754 = (BucketStateIEEE754) sourceState;
+        if (sourceStateIEEE754.configuration == configuration) {
+            System.arraycopy(sourceStateIEEE754.lastRefillTime, 0, lastRefillTime, 0, lastRefillTime.length);
+            System.arraycopy(sourceStateIEEE754.tokens, 0, tokens, 0, tokens.length);
+        } else {
+            this.configuration = sourceStateIEEE754.configuration;
+            this.lastRefillTime = sourceStateIEEE754.lastRefillTime.clone();
+            this.tokens = sourceStateIEEE754.tokens.clone();
+        }
+    }
+
+    @Override
+    public long getAvailableTokens() {
+        double availableTokens = tokens[0];
+        for (int i = 1; i < tokens.length; i++) {
+            availableTokens = Math.min(availableTokens, tokens[i]);
+        }
+        return (long) Math.floor(availableTokens);
+    }
+
+    @Override
+    public void consume(long toConsume) {
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] -= toConsume;
+        }
+    }
+
+    @Override
+    public long calculateDelayNanosAfterWillBePossibleToConsume(long tokensToConsume, long currentTimeNanos, boolean checkTokensToConsumeShouldBeLessThenCapacity) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        long delayAfterWillBePossibleToConsume = calculateDelayNanosAfterWillBePossibleToConsume(0, bandwidths[0], tokensToConsume, currentTimeNanos, checkTokensToConsumeShouldBeLessThenCapacity);
+        for (int i = 1; i < bandwidths.length; i++) {
+            long delay = calculateDelayNanosAfterWillBePossibleToConsume(i, bandwidths[i], tokensToConsume, currentTimeNanos, checkTokensToConsumeShouldBeLessThenCapacity);
+            delayAfterWillBePossibleToConsume = Math.max(delayAfterWillBePossibleToConsume, delay);
+        }
+        return delayAfterWillBePossibleToConsume;
+    }
+
+    @Override
+    public long calculateFullRefillingTime(long currentTimeNanos) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        long maxTimeToFullRefillNanos = calculateFullRefillingTime(0, bandwidths[0], currentTimeNanos);
+        for (int i = 1; i < bandwidths.length; i++) {
+            maxTimeToFullRefillNanos = Math.max(maxTimeToFullRefillNanos, calculateFullRefillingTime(i, bandwidths[i], currentTimeNanos));
+        }
+        return maxTimeToFullRefillNanos;
+    }
+
+    @Override
+    public void refillAllBandwidth(long currentTimeNanos) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        for (int i = 0; i < bandwidths.length; i++) {
+            refill(i, bandwidths[i], currentTimeNanos);
+        }
+    }
+
+    @Override
+    public void addTokens(long tokensToAdd) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        for (int i = 0; i < bandwidths.length; i++) {
+            tokens[i] = Math.min(bandwidths[i].capacity, tokens[i] + tokensToAdd);
+        }
+    }
+
+    @Override
+    public void reset() {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        for (int i = 0; i < bandwidths.length; i++) {
+            tokens[i] = bandwidths[i].capacity;
+        }
+    }
+
+    @Override
+    public void forceAddTokens(long tokensToAdd) {
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] += tokensToAdd;
+        }
+    }
+
+    @Override
+    public long getCurrentSize(int bandwidth) {
+        return (long) Math.floor(tokens[bandwidth]);
+    }
+
+    @Override
+    public long getRoundingError(int bandwidth) {
+        double fraction = tokens[bandwidth] - Math.floor(tokens[bandwidth]);
+        return (long) (fraction * configuration.getBandwidths()[bandwidth].refillPeriodNanos);
+    }
+
+    @Override
+    public MathType getMathType() {
+        return MathType.IEEE754;
+    }
+
+    private long calculateLastRefillTimeNanos(Bandwidth bandwidth, long currentTimeNanos) {
+        if (!bandwidth.isIntervallyAligned()) {
+            return currentTimeNanos;
+        }
+        return bandwidth.timeOfFirstRefillMillis * 1_000_000 - bandwidth.refillPeriodNanos;
+    }
+
+    private double calculateInitialTokens(Bandwidth bandwidth, long currentTimeNanos) {
+        if (!bandwidth.useAdaptiveInitialTokens) {
+            return bandwidth.initialTokens;
+        }
+
+        long timeOfFirstRefillNanos = bandwidth.timeOfFirstRefillMillis * 1_000_000;
+        if (currentTimeNanos >= timeOfFirstRefillNanos) {
+            return bandwidth.initialTokens;
+        }
+
+        long guaranteedBase = Math.max(0, bandwidth.capacity - bandwidth.refillTokens);
+        long nanosBeforeFirstRefill = timeOfFirstRefillNanos - currentTimeNanos;
+        // the bandwidth refills intervally, so partially refilled token must not be available
+        double adaptiveTokens = Math.floor((double) nanosBeforeFirstRefill * bandwidth.refillTokens / bandwidth.refillPeriodNanos);
+        return Math.min(bandwidth.capacity, guaranteedBase + adaptiveTokens);
+    }
+
+    private void refill(int bandwidthIndex, Bandwidth bandwidth, long currentTimeNanos) {
+        long previousRefillNanos = lastRefillTime[bandwidthIndex];
+        if (currentTimeNanos <= previousRefillNanos) {
+            return;
+        }
+
+        if (bandwidth.isRefillIntervally()) {
+            long incompleteIntervalCorrection = (currentTimeNanos - previousRefillNanos) % bandwidth.refillPeriodNanos;
+            currentTimeNanos -= incompleteIntervalCorrection;
+            if (currentTimeNanos <= previousRefillNanos) {
+                return;
+            }
+        }
+        lastRefillTime[bandwidthIndex] = currentTimeNanos;
+
+        double capacity = bandwidth.capacity;
+        double currentSize = tokens[bandwidthIndex];
+        if (currentSize >= capacity) {
+            // can come here if forceAddTokens has been used
+            return;
+        }
+
+        long durationSinceLastRefillNanos = currentTimeNanos - previousRefillNanos;
+        double refilledTokens = (double) durationSinceLastRefillNanos * bandwidth.refillTokens / bandwidth.refillPeriodNanos;
+        tokens[bandwidthIndex] = Math.min(capacity, currentSize + refilledTokens);
+    }
+
+    private long calculateDelayNanosAfterWillBePossibleToConsume(int bandwidthIndex, Bandwidth bandwidth, long tokensToConsume, long currentTimeNanos, boolean checkTokensToConsumeShouldBeLessThenCapacity) {
+        if (checkTokensToConsumeShouldBeLessThenCapacity && tokensToConsume > bandwidth.capacity) {
+            return Long.MAX_VALUE;
+        }
+        double deficit = tokensToConsume - tokens[bandwidthIndex];
+        if (deficit <= 0) {
+            return 0;
+        }
+        return calculateDelayNanosToRefill(bandwidthIndex, bandwidth, deficit, currentTimeNanos);
+    }
+
+    private long calculateFullRefillingTime(int bandwidthIndex, Bandwidth bandwidth, long currentTimeNanos) {
+        double deficit = bandwidth.capacity - tokens[bandwidthIndex];
+        if (deficit <= 0) {
+            return 0L;
+        }
+        return calculateDelayNanosToRefill(bandwidthIndex, bandwidth, deficit, currentTimeNanos);
+    }
+
+    private long calculateDelayNanosToRefill(int bandwidthIndex, Bandwidth bandwidth, double deficit, long currentTimeNanos) {
+        long refillPeriodNanos = bandwidth.refillPeriodNanos;
+        long refillTokens = bandwidth.refillTokens;
+        if (!bandwidth.isRefillIntervally()) {
+            // cast to long returns Long.MAX_VALUE in case of overflow
+            return (long) Math.ceil(deficit * refillPeriodNanos / refillTokens);
+        }
+
+        long timeOfNextRefillNanos = lastRefillTime[bandwidthIndex] + refillPeriodNanos;
+        long waitForNextRefillNanos = timeOfNextRefillNanos - currentTimeNanos;
+        if (deficit <= refillTokens) {
+            return waitForNextRefillNanos;
+        }
+
+        double deficitPeriods = Math.ceil((deficit - refillTokens) / refillTokens);
+        double deficitNanos = deficitPeriods * refillPeriodNanos + waitForNextRefillNanos;
+        return deficitNanos >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) deficitNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "BucketStateIEEE754{" +
+                "lastRefillTime=" + Arrays.toString(lastRefillTime) +
+                ", tokens=" + Arrays.toString(tokens) +
+                '}';
+    }
+
+    @Override
+    public boolean equalsByContent(BucketStateIEEE754 other) {
+        return Arrays.equals(lastRefillTime, other.lastRefillTime) &&
+                Arrays.equals(tokens, other.tokens);
+    }
+
+}
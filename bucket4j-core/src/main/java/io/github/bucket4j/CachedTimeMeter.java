@@ -0,0 +1,150 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The implementation of {@link TimeMeter} that returns time cached in volatile field,
+ * the field is refreshed from {@code source} time meter by dedicated daemon ticker thread with configured resolution.
+ *
+ * <p>Reading of cached time costs one volatile read instead of system call, so it makes sense when buckets are used at extremely high rates
+ * and clock reading becomes measurable part of latency. The price is precision: returned time can lag behind {@code source} for {@code resolution}
+ * (plus the time needed by OS scheduler to wake up ticker thread), so bucket can refill tokens a little bit later than with {@code source} time meter.
+ *
+ * <p>Each instance owns one thread, so instances should be shared between buckets instead of being created per bucket,
+ * {@link #millisecondPrecision()} returns the instance that is shared across whole JVM.
+ * After {@link #close()} the ticker thread stops and time meter falls back to reading of {@code source} directly,
+ * the shared instance can not be closed, because it would stop the clock for all other users.
+ *
+ * @see io.github.bucket4j.local.LocalBucketBuilder#withCachedMillisecondPrecision()
+ * @see io.github.bucket4j.distributed.proxy.ClientSideConfig#withClientClock(TimeMeter)
+ */
+public class CachedTimeMeter implements TimeMeter, AutoCloseable {
+
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    private static final VarHandle CURRENT_TIME_NANOS;
+    static {
+        try {
+            CURRENT_TIME_NANOS = MethodHandles.lookup().findVarHandle(CachedTimeMeter.class, "currentTimeNanos", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final TimeMeter source;
+    private final long resolutionNanos;
+    private final Thread ticker;
+    private final boolean shared;
+
+    private volatile long currentTimeNanos;
+
+    /**
+     * Creates time meter and starts ticker thread.
+     *
+     * @param source time meter from which time is read by ticker thread
+     * @param resolution how frequently ticker thread should refresh the time
+     */
+    public CachedTimeMeter(TimeMeter source, Duration resolution) {
+        this(source, resolution, false);
+    }
+
+    private CachedTimeMeter(TimeMeter source, Duration resolution, boolean shared) {
+        if (source == null) {
+            throw BucketExceptions.nullTimeMeter();
+        }
+        if (resolution == null || resolution.isNegative() || resolution.isZero()) {
+            throw BucketExceptions.nonPositiveTimeMeterResolution(resolution);
+        }
+        this.source = source;
+        this.resolutionNanos = resolution.toNanos();
+        this.currentTimeNanos = source.currentTimeNanos();
+        this.shared = shared;
+
+        this.ticker = new Thread(this::tick, "bucket4j-time-ticker-" + source);
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    /**
+     * Returns the time meter with millisecond resolution that wraps {@link TimeMeter#SYSTEM_MILLISECONDS},
+     * the instance is shared across whole JVM, its ticker thread is started lazily on first invocation of this method.
+     * {@link #close()} of shared instance does nothing.
+     *
+     * @return the shared cached time meter
+     */
+    public static CachedTimeMeter millisecondPrecision() {
+        return SharedMillisecondsHolder.INSTANCE;
+    }
+
+    @Override
+    public long currentTimeNanos() {
+        long cachedTimeNanos = currentTimeNanos;
+        return cachedTimeNanos != CLOSED ? cachedTimeNanos : source.currentTimeNanos();
+    }
+
+    @Override
+    public boolean isWallClockBased() {
+        return source.isWallClockBased();
+    }
+
+    /**
+     * Stops the ticker thread, time meter stays usable after closing, but each invocation of {@link #currentTimeNanos()} reads {@code source}.
+     * Invocation on instance returned by {@link #millisecondPrecision()} is ignored.
+     */
+    @Override
+    public void close() {
+        if (shared) {
+            return;
+        }
+        currentTimeNanos = CLOSED;
+        LockSupport.unpark(ticker);
+    }
+
+    private void tick() {
+        while (true) {
+            long previousTimeNanos = currentTimeNanos;
+            if (previousTimeNanos == CLOSED) {
+                return;
+            }
+            // CAS instead of plain write prevents ticker from overwriting the marker of closing
+            CURRENT_TIME_NANOS.compareAndSet(this, previousTimeNanos, source.currentTimeNanos());
+            LockSupport.parkNanos(this, resolutionNanos);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CachedTimeMeter{" +
+                "source=" + source +
+                ", resolutionNanos=" + resolutionNanos +
+                '}';
+    }
+
+    private static final class SharedMillisecondsHolder {
+        private static final CachedTimeMeter INSTANCE = new CachedTimeMeter(TimeMeter.SYSTEM_MILLISECONDS, Duration.ofMillis(1), true);
+    }
+
+}
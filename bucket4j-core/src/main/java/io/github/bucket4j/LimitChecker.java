@@ -39,6 +39,15 @@ public class LimitChecker {
         }
     }
 
+    public static void checkTokensToConsume(long[] tokensToConsume, boolean[] admitted) {
+        if (admitted.length < tokensToConsume.length) {
+            throw BucketExceptions.tooShortArrayForBatchResults(tokensToConsume.length, admitted.length);
+        }
+        for (long tokens : tokensToConsume) {
+            checkTokensToConsume(tokens);
+        }
+    }
+
     public static void checkMaxWaitTime(long maxWaitTimeNanos) {
         if (maxWaitTimeNanos <= 0) {
             throw BucketExceptions.nonPositiveNanosToWait(maxWaitTimeNanos);
@@ -28,4 +28,16 @@ public enum MathType {
      */
     INTEGER_64_BITS,
 
+    /**
+     * Math that uses IEEE-754 floating point numbers for amounts of tokens.
+     *
+     * <p>Refill costs one floating point multiplication and division instead of overflow-checked integer arithmetic with rounding error bookkeeping,
+     * so it can be cheaper for buckets that are refilled at very high rates.
+     * The price is precision: amounts of tokens greater than 2<sup>53</sup> can not be represented exactly,
+     * and partially refilled token can be observed as available a few nanoseconds later than with {@link #INTEGER_64_BITS}.
+     *
+     * <p>Serialization of state with this math requires {@link io.github.bucket4j.distributed.versioning.Versions#v_8_19_0}.
+     */
+    IEEE754,
+
 }
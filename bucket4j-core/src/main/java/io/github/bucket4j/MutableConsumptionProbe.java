@@ -0,0 +1,103 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j;
+
+/**
+ * Mutable counterpart of {@link ConsumptionProbe} that is owned by caller and can be reused across invocations of
+ * {@link Bucket#tryConsumeAndReturnRemaining(long, MutableConsumptionProbe)} to avoid allocation of new probe per each invocation.
+ *
+ * <p>Instances are not thread-safe, typical usage is one instance per thread or per request processing pipeline.
+ */
+public class MutableConsumptionProbe {
+
+    private boolean consumed;
+    private long remainingTokens;
+    private long nanosToWaitForRefill;
+    private long nanosToWaitForReset;
+
+    public void setConsumed(long remainingTokens, long nanosToWaitForReset) {
+        this.consumed = true;
+        this.remainingTokens = Math.max(0L, remainingTokens);
+        this.nanosToWaitForRefill = 0L;
+        this.nanosToWaitForReset = nanosToWaitForReset;
+    }
+
+    public void setRejected(long remainingTokens, long nanosToWaitForRefill, long nanosToWaitForReset) {
+        this.consumed = false;
+        this.remainingTokens = Math.max(0L, remainingTokens);
+        this.nanosToWaitForRefill = nanosToWaitForRefill;
+        this.nanosToWaitForReset = nanosToWaitForReset;
+    }
+
+    public void copyFrom(ConsumptionProbe probe) {
+        this.consumed = probe.isConsumed();
+        this.remainingTokens = probe.getRemainingTokens();
+        this.nanosToWaitForRefill = probe.getNanosToWaitForRefill();
+        this.nanosToWaitForReset = probe.getNanosToWaitForReset();
+    }
+
+    /**
+     * Flag describes result of consumption operation.
+     *
+     * @return true if tokens was consumed
+     */
+    public boolean isConsumed() {
+        return consumed;
+    }
+
+    /**
+     * Return the tokens remaining in the bucket
+     *
+     * @return the tokens remaining in the bucket
+     */
+    public long getRemainingTokens() {
+        return remainingTokens;
+    }
+
+    /**
+     * Returns zero if {@link #isConsumed()} returns true, else time in nanos which need to wait until requested amount of tokens will be refilled
+     *
+     * @return Zero if {@link #isConsumed()} returns true, else time in nanos which need to wait until requested amount of tokens will be refilled
+     */
+    public long getNanosToWaitForRefill() {
+        return nanosToWaitForRefill;
+    }
+
+    /**
+     * Time in nanos which need to wait until bucket will be fully refilled to its maximum
+     *
+     * @return time in nanos which need to wait until bucket will be fully refilled to its maximum
+     */
+    public long getNanosToWaitForReset() {
+        return nanosToWaitForReset;
+    }
+
+    @Override
+    public String toString() {
+        return "MutableConsumptionProbe{" +
+                "consumed=" + consumed +
+                ", remainingTokens=" + remainingTokens +
+                ", nanosToWaitForRefill=" + nanosToWaitForRefill +
+                ", nanosToWaitForReset=" + nanosToWaitForReset +
+                '}';
+    }
+
+}
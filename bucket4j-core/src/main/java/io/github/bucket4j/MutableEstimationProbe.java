@@ -0,0 +1,89 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j;
+
+/**
+ * Mutable counterpart of {@link EstimationProbe} that is owned by caller and can be reused across invocations of
+ * {@link Bucket#estimateAbilityToConsume(long, MutableEstimationProbe)} to avoid allocation of new probe per each invocation.
+ *
+ * <p>Instances are not thread-safe, typical usage is one instance per thread or per request processing pipeline.
+ */
+public class MutableEstimationProbe {
+
+    private boolean canBeConsumed;
+    private long remainingTokens;
+    private long nanosToWaitForRefill;
+
+    public void setCanBeConsumed(long remainingTokens) {
+        this.canBeConsumed = true;
+        this.remainingTokens = Math.max(0L, remainingTokens);
+        this.nanosToWaitForRefill = 0L;
+    }
+
+    public void setCanNotBeConsumed(long remainingTokens, long nanosToWaitForRefill) {
+        this.canBeConsumed = false;
+        this.remainingTokens = Math.max(0L, remainingTokens);
+        this.nanosToWaitForRefill = nanosToWaitForRefill;
+    }
+
+    public void copyFrom(EstimationProbe probe) {
+        this.canBeConsumed = probe.canBeConsumed();
+        this.remainingTokens = probe.getRemainingTokens();
+        this.nanosToWaitForRefill = probe.getNanosToWaitForRefill();
+    }
+
+    /**
+     * Flag describes result of estimation
+     *
+     * @return true if requested tokens can be consumed
+     */
+    public boolean canBeConsumed() {
+        return canBeConsumed;
+    }
+
+    /**
+     * Return the tokens remaining in the bucket
+     *
+     * @return the tokens remaining in the bucket
+     */
+    public long getRemainingTokens() {
+        return remainingTokens;
+    }
+
+    /**
+     * Returns zero if {@link #canBeConsumed()} returns true, else time in nanos which need to wait until requested amount of tokens will be refilled
+     *
+     * @return Zero if {@link #canBeConsumed()} returns true, else time in nanos which need to wait until requested amount of tokens will be refilled
+     */
+    public long getNanosToWaitForRefill() {
+        return nanosToWaitForRefill;
+    }
+
+    @Override
+    public String toString() {
+        return "MutableEstimationProbe{" +
+                "canBeConsumed=" + canBeConsumed +
+                ", remainingTokens=" + remainingTokens +
+                ", nanosToWaitForRefill=" + nanosToWaitForRefill +
+                '}';
+    }
+
+}
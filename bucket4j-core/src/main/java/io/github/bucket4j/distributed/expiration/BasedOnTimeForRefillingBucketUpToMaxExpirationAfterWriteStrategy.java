@@ -46,6 +46,10 @@ public class BasedOnTimeForRefillingBucketUpToMaxExpirationAfterWriteStrategy im
         }
     }
 
+    public long getKeepAfterRefillDurationMillis() {
+        return keepAfterRefillDurationMillis;
+    }
+
     @Override
     public long calculateTimeToLiveMillis(RemoteBucketState state, long currentTimeNanos) {
         long millisToFullRefill = state.calculateFullRefillingTime(currentTimeNanos) / 1_000_000;
@@ -47,6 +47,10 @@ public class FixedTtlExpirationAfterWriteStrategy implements ExpirationAfterWrit
         this.ttlMillis = ttlMillis;
     }
 
+    public long getTtlMillis() {
+        return ttlMillis;
+    }
+
     @Override
     public long calculateTimeToLiveMillis(RemoteBucketState state, long currentTimeNanos) {
         return ttlMillis;
@@ -29,14 +29,24 @@ import io.github.bucket4j.distributed.BucketProxy;
 import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
 import io.github.bucket4j.distributed.proxy.optimization.Optimization;
 import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.MutableBucketEntry;
 import io.github.bucket4j.distributed.remote.RemoteCommand;
 import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.remote.commands.ForceAddTokensCommand;
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateAndExecuteCommand;
 import io.github.bucket4j.distributed.remote.commands.GetConfigurationCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
 import io.github.bucket4j.distributed.versioning.Version;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Supplier;
 
 import static java.util.Objects.requireNonNull;
@@ -47,12 +57,19 @@ public abstract class AbstractProxyManager<K> implements ProxyManager<K> {
     private static final Optimization DEFAULT_REQUEST_OPTIMIZER = Optimization.NONE_OPTIMIZED;
 
     private final ClientSideConfig clientSideConfig;
+    private final KnownBucketsCache<K> knownBuckets;
+    private final CrossKeyBatchingExecutor<K> crossKeyBatchingExecutor;
 
     protected AbstractProxyManager(ClientSideConfig clientSideConfig) {
         if (clientSideConfig.getExpirationAfterWriteStrategy().isPresent() && !isExpireAfterWriteSupported()) {
             throw BucketExceptions.expirationAfterWriteIsNotSupported();
         }
         this.clientSideConfig = requireNonNull(clientSideConfig);
+        this.knownBuckets = clientSideConfig.isSpeculativeInitialization() && clientSideConfig.getKnownBucketsCacheSize() > 0 ?
+            new KnownBucketsCache<>(clientSideConfig.getKnownBucketsCacheSize()) : null;
+        this.crossKeyBatchingExecutor = clientSideConfig.getMaxCrossKeyBatchSize()
+            .map(maxBatchSize -> new CrossKeyBatchingExecutor<>(this, maxBatchSize))
+            .orElse(null);
     }
 
     private final AsyncProxyManager<K> asyncView = new AsyncProxyManager<>() {
@@ -60,7 +77,7 @@ public abstract class AbstractProxyManager<K> implements ProxyManager<K> {
         public CompletableFuture<Optional<BucketConfiguration>> getProxyConfiguration(K key) {
             GetConfigurationCommand cmd = new GetConfigurationCommand();
             ExpirationAfterWriteStrategy expirationStrategy = clientSideConfig.getExpirationAfterWriteStrategy().orElse(null);
-            Request<BucketConfiguration> request = new Request<>(cmd, getBackwardCompatibilityVersion(), getClientSideTime(), expirationStrategy);
+            Request<BucketConfiguration> request = new Request<>(cmd, getBackwardCompatibilityVersion(), getClientSideTime(), expirationStrategy, clientSideConfig.isCompactSerializationEnabled());
             return executeAsync(key, request).thenApply(result -> {
                 if (result.isBucketNotFound()) {
                     return Optional.empty();
@@ -97,7 +114,7 @@ public abstract class AbstractProxyManager<K> implements ProxyManager<K> {
     public Optional<BucketConfiguration> getProxyConfiguration(K key) {
         GetConfigurationCommand cmd = new GetConfigurationCommand();
 
-        Request<BucketConfiguration> request = new Request<>(cmd, getBackwardCompatibilityVersion(), getClientSideTime(), null);
+        Request<BucketConfiguration> request = new Request<>(cmd, getBackwardCompatibilityVersion(), getClientSideTime(), null, clientSideConfig.isCompactSerializationEnabled());
         CommandResult<BucketConfiguration> result = this.execute(key, request);
         if (result.isBucketNotFound()) {
             return Optional.empty();
@@ -105,6 +122,83 @@ public abstract class AbstractProxyManager<K> implements ProxyManager<K> {
         return Optional.of(result.getData());
     }
 
+    @Override
+    public boolean tryConsumeAll(List<KeyedConsumption<K>> consumptions) {
+        if (consumptions == null || consumptions.isEmpty()) {
+            throw BucketExceptions.emptyConsumptions();
+        }
+        ExpirationAfterWriteStrategy expirationStrategy = clientSideConfig.getExpirationAfterWriteStrategy().orElse(null);
+        List<K> keys = new ArrayList<>(consumptions.size());
+        List<Request<Boolean>> requests = new ArrayList<>(consumptions.size());
+        for (KeyedConsumption<K> consumption : consumptions) {
+            BucketConfiguration configuration = consumption.getConfigurationSupplier().get();
+            if (configuration == null) {
+                throw BucketExceptions.nullConfiguration();
+            }
+            TryConsumeCommand tryConsume = TryConsumeCommand.create(consumption.getTokens());
+            RemoteCommand<Boolean> command = new CreateInitialStateAndExecuteCommand<>(configuration, tryConsume, clientSideConfig.getMathType());
+            keys.add(consumption.getKey());
+            requests.add(new Request<>(command, getBackwardCompatibilityVersion(), getClientSideTime(), expirationStrategy, clientSideConfig.isCompactSerializationEnabled()));
+        }
+
+        if (isAtomicMultiKeyConsumptionSupported()) {
+            return executeAllOrNothing(keys, requests);
+        }
+        return tryConsumeAllWithRefund(keys, requests);
+    }
+
+    /**
+     * Executes consumption requests independently and returns consumed tokens back via {@link ForceAddTokensCommand}
+     * to buckets where consumption succeeded when consumption from any other bucket fails.
+     * Tokens are returned by force in order to not lose them when bucket has been refilled up to capacity in the meantime.
+     */
+    private boolean tryConsumeAllWithRefund(List<K> keys, List<Request<Boolean>> requests) {
+        List<CompletableFuture<CommandResult<?>>> results = executeBatch(keys, (List) requests);
+
+        ExpirationAfterWriteStrategy expirationStrategy = clientSideConfig.getExpirationAfterWriteStrategy().orElse(null);
+        List<K> refundKeys = new ArrayList<>(keys.size());
+        List<Request<?>> refundRequests = new ArrayList<>(keys.size());
+        RuntimeException failure = null;
+        CommandResult<?> failedResult = null;
+        for (int i = 0; i < results.size(); i++) {
+            CommandResult<?> result;
+            try {
+                result = results.get(i).join();
+            } catch (CompletionException e) {
+                failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                continue;
+            }
+            if (result.isError()) {
+                failedResult = result;
+            } else if ((Boolean) result.getData()) {
+                long consumedTokens = requests.get(i).getCommand().getConsumedTokens(Boolean.TRUE);
+                ForceAddTokensCommand refund = new ForceAddTokensCommand(consumedTokens);
+                refundKeys.add(keys.get(i));
+                refundRequests.add(new Request<>(refund, getBackwardCompatibilityVersion(), getClientSideTime(), expirationStrategy, clientSideConfig.isCompactSerializationEnabled()));
+            } else if (failedResult == null) {
+                failedResult = result;
+            }
+        }
+        if (failure == null && failedResult == null) {
+            return true;
+        }
+
+        if (!refundRequests.isEmpty()) {
+            for (CompletableFuture<CommandResult<?>> refundResult : executeBatch(refundKeys, refundRequests)) {
+                CommandResult<?> result = refundResult.join();
+                if (!result.isBucketNotFound()) {
+                    result.getData();
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        // rethrows the error if consumption was failed by error
+        failedResult.getData();
+        return false;
+    }
+
     class DefaultAsyncRemoteBucketBuilder implements RemoteAsyncBucketBuilder<K> {
 
         private RecoveryStrategy recoveryStrategy = DEFAULT_RECOVERY_STRATEGY;
@@ -154,14 +248,15 @@ public abstract class AbstractProxyManager<K> implements ProxyManager<K> {
                 @Override
                 public <T> CompletableFuture<CommandResult<T>> executeAsync(RemoteCommand<T> command) {
                     ExpirationAfterWriteStrategy expirationStrategy = clientSideConfig.getExpirationAfterWriteStrategy().orElse(null);
-                    Request<T> request = new Request<>(command, getBackwardCompatibilityVersion(), getClientSideTime(), expirationStrategy);
-                    Supplier<CompletableFuture<CommandResult<T>>> futureSupplier = () -> AbstractProxyManager.this.executeAsync(key, request);
+                    Request<T> request = new Request<>(command, getBackwardCompatibilityVersion(), getClientSideTime(), expirationStrategy, clientSideConfig.isCompactSerializationEnabled());
+                    Supplier<CompletableFuture<CommandResult<T>>> futureSupplier = () -> executeAsyncWithBatching(key, request);
                     return clientSideConfig.getExecutionStrategy().executeAsync(futureSupplier);
                 }
             };
             commandExecutor = asyncRequestOptimizer.apply(commandExecutor);
 
-            return new DefaultAsyncBucketProxy(commandExecutor, recoveryStrategy, configurationSupplier, implicitConfigurationReplacement, listener);
+            return new DefaultAsyncBucketProxy(commandExecutor, recoveryStrategy, configurationSupplier, implicitConfigurationReplacement, clientSideConfig.getMathType(),
+                isSpeculativeInitializationRequired(key), initializationCallback(key), listener);
         }
 
     }
@@ -215,22 +310,191 @@ public abstract class AbstractProxyManager<K> implements ProxyManager<K> {
                 @Override
                 public <T> CommandResult<T> execute(RemoteCommand<T> command) {
                     ExpirationAfterWriteStrategy expirationStrategy = clientSideConfig.getExpirationAfterWriteStrategy().orElse(null);
-                    Request<T> request = new Request<>(command, getBackwardCompatibilityVersion(), getClientSideTime(), expirationStrategy);
-                    Supplier<CommandResult<T>> resultSupplier = () -> AbstractProxyManager.this.execute(key, request);
+                    Request<T> request = new Request<>(command, getBackwardCompatibilityVersion(), getClientSideTime(), expirationStrategy, clientSideConfig.isCompactSerializationEnabled());
+                    Supplier<CommandResult<T>> resultSupplier = () -> executeWithBatching(key, request);
                     return clientSideConfig.getExecutionStrategy().execute(resultSupplier);
                 }
             };
             commandExecutor = requestOptimizer.apply(commandExecutor);
 
-            return new DefaultBucketProxy(configurationSupplier, commandExecutor, recoveryStrategy, implicitConfigurationReplacement, listener);
+            return new DefaultBucketProxy(configurationSupplier, commandExecutor, recoveryStrategy, implicitConfigurationReplacement, clientSideConfig.getMathType(),
+                isSpeculativeInitializationRequired(key), initializationCallback(key), listener);
+        }
+
+    }
+
+    private boolean isSpeculativeInitializationRequired(K key) {
+        return clientSideConfig.isSpeculativeInitialization() && (knownBuckets == null || !knownBuckets.contains(key));
+    }
+
+    private Runnable initializationCallback(K key) {
+        if (knownBuckets == null) {
+            return () -> {};
         }
+        return () -> knownBuckets.add(key);
+    }
 
+    private <T> CommandResult<T> executeWithBatching(K key, Request<T> request) {
+        if (crossKeyBatchingExecutor == null || !isCrossKeyBatchingSupported()) {
+            return execute(key, request);
+        }
+        return crossKeyBatchingExecutor.execute(key, request);
+    }
+
+    private <T> CompletableFuture<CommandResult<T>> executeAsyncWithBatching(K key, Request<T> request) {
+        if (crossKeyBatchingExecutor == null || !isCrossKeyBatchingSupported()) {
+            return executeAsync(key, request);
+        }
+        return crossKeyBatchingExecutor.executeAsync(key, request);
     }
 
     abstract protected <T> CommandResult<T> execute(K key, Request<T> request);
 
     abstract protected <T> CompletableFuture<CommandResult<T>> executeAsync(K key, Request<T> request);
 
+    /**
+     * Describes whether this proxy-manager is able to execute requests for multiple keys as one storage operation
+     * via {@link #executeBatch(List, List)} and {@link #executeBatchAsync(List, List)}.
+     *
+     * <p>
+     * Cross-key batching, see {@link ClientSideConfig#withCrossKeyBatching(int)}, is applied only when this method returns {@code true},
+     * because batches are sent one by one, so with default implementation of {@link #executeBatch(List, List)}
+     * all requests of proxy-manager would be serialized instead of being executed in parallel.
+     * Proxy-managers that override {@link #executeBatch(List, List)} should also override this method in order to return {@code true}.
+     *
+     * @return {@code true} if this proxy-manager is able to execute requests for multiple keys by one storage operation
+     */
+    protected boolean isCrossKeyBatchingSupported() {
+        return false;
+    }
+
+    /**
+     * Executes requests for multiple keys, this method is invoked when cross-key batching is enabled via {@link ClientSideConfig#withCrossKeyBatching(int)}.
+     * Proxy-managers that are able to execute multiple requests as one storage operation, like pipeline or bulk invocation, should override this method.
+     *
+     * <p>
+     * The same key can be present in the batch several times, in such case requests for the key must be applied in the same order as they are present in the batch.
+     * Each request has its own result future, failure of one request must be reported via its own future and must not affect results of other requests.
+     * Each future must be completed when this method returns.
+     * The default implementation executes requests one by one via {@link #execute(Object, Request)}.
+     *
+     * @param keys the keys, {@code keys.get(i)} is the key for {@code requests.get(i)}
+     * @param requests the requests to execute
+     *
+     * @return completed futures of results in the same order as requests
+     */
+    protected List<CompletableFuture<CommandResult<?>>> executeBatch(List<K> keys, List<Request<?>> requests) {
+        List<CompletableFuture<CommandResult<?>>> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            CompletableFuture<CommandResult<?>> result = new CompletableFuture<>();
+            try {
+                result.complete(execute(keys.get(i), requests.get(i)));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * Asynchronous version of {@link #executeBatch(List, List)}.
+     * The default implementation executes requests via {@link #executeAsync(Object, Request)}.
+     *
+     * @param keys the keys, {@code keys.get(i)} is the key for {@code requests.get(i)}
+     * @param requests the requests to execute
+     *
+     * @return futures of results in the same order as requests, each future is completed independently
+     */
+    protected List<CompletableFuture<CommandResult<?>>> executeBatchAsync(List<K> keys, List<Request<?>> requests) {
+        List<CompletableFuture<CommandResult<?>>> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            CompletableFuture<? extends CommandResult<?>> future;
+            try {
+                future = executeAsync(keys.get(i), requests.get(i));
+            } catch (Throwable e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            results.add((CompletableFuture<CommandResult<?>>) future);
+        }
+        return results;
+    }
+
+    /**
+     * Describes whether this proxy-manager is able to execute {@link #executeAllOrNothing(List, List)},
+     * if this method returns {@code false} then {@link #tryConsumeAll(List)} consumes tokens one by one and returns them back on failure.
+     *
+     * @return {@code true} if this proxy-manager supports atomic consumption from multiple buckets
+     */
+    protected boolean isAtomicMultiKeyConsumptionSupported() {
+        return false;
+    }
+
+    /**
+     * Executes requests for multiple keys in all-or-nothing manner,
+     * modifications of bucket states must be persisted only if each request returns {@code true}.
+     *
+     * <p>
+     * The same key can be present several times, in such case requests for the key must be applied to the same state in the same order as they are present in the list.
+     * Proxy-managers that override this method should also override {@link #isAtomicMultiKeyConsumptionSupported()},
+     * {@link #applyAllOrNothing(List, List, Map)} can be used to evaluate requests when states of all keys are fetched and locked.
+     *
+     * @param keys the keys, {@code keys.get(i)} is the key for {@code requests.get(i)}
+     * @param requests the requests to execute
+     *
+     * <p>
+     * Default implementation is not atomic, it executes requests independently and returns consumed tokens back
+     * when any request fails, exactly as {@link #tryConsumeAll(List)} does when {@link #isAtomicMultiKeyConsumptionSupported()} is {@code false}.
+     *
+     * @return {@code true} if all requests were successful and their results were persisted
+     */
+    protected boolean executeAllOrNothing(List<K> keys, List<Request<Boolean>> requests) {
+        return tryConsumeAllWithRefund(keys, requests);
+    }
+
+    /**
+     * Applies requests to entries without persisting, stops on first unsuccessful request.
+     *
+     * @param keys the keys, {@code keys.get(i)} is the key for {@code requests.get(i)}
+     * @param requests the requests to apply
+     * @param entries the entries for each distinct key
+     *
+     * @return {@code true} if each request returned {@code true}
+     */
+    protected boolean applyAllOrNothing(List<K> keys, List<Request<Boolean>> requests, Map<K, MutableBucketEntry> entries) {
+        for (int i = 0; i < requests.size(); i++) {
+            MutableBucketEntry entry = entries.get(keys.get(i));
+            CommandResult<Boolean> result = requests.get(i).getCommand().execute(entry, getClientSideTime());
+            if (!result.getData()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns distinct keys in the order that should be used to lock them,
+     * keys are sorted to avoid deadlocks between concurrent multi-key operations.
+     * Comparable keys are sorted in natural order, others by hash code and string representation.
+     *
+     * @param keys the keys to sort
+     *
+     * @return distinct keys in locking order
+     */
+    protected static <K> List<K> distinctKeysInLockingOrder(List<K> keys) {
+        List<K> distinctKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+        boolean comparable = true;
+        for (K key : distinctKeys) {
+            comparable &= key instanceof Comparable;
+        }
+        if (comparable) {
+            distinctKeys.sort((k1, k2) -> ((Comparable) k1).compareTo(k2));
+        } else {
+            distinctKeys.sort(Comparator.comparingInt(Object::hashCode).thenComparing(String::valueOf));
+        }
+        return distinctKeys;
+    }
+
     abstract protected CompletableFuture<Void> removeAsync(K key);
 
     protected ClientSideConfig getClientSideConfig() {
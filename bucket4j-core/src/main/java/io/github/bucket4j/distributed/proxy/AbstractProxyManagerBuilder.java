@@ -25,8 +25,12 @@ import java.util.Optional;
 
 import io.github.bucket4j.BucketExceptions;
 import io.github.bucket4j.BucketListener;
+import io.github.bucket4j.MathType;
 import io.github.bucket4j.TimeMeter;
 import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.ContentionAwareExecution;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.NopeStateCacheListener;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.StateCacheListener;
 import io.github.bucket4j.distributed.versioning.Version;
 import io.github.bucket4j.distributed.versioning.Versions;
 
@@ -51,6 +55,15 @@ public abstract class AbstractProxyManagerBuilder<K, P extends ProxyManager<K>,
     private Optional<Integer> maxRetries = Optional.empty();
     private Optional<RetryStrategy> retryStrategy = Optional.empty();
 
+    private MathType mathType = MathType.INTEGER_64_BITS;
+    private boolean speculativeInitialization = false;
+    private int knownBucketsCacheSize = 0;
+    private Optional<Integer> maxCrossKeyBatchSize = Optional.empty();
+    private boolean compactSerializationEnabled = false;
+    private int lastSeenStateCacheSize = 0;
+    private StateCacheListener stateCacheListener = NopeStateCacheListener.INSTANCE;
+    private Optional<ContentionAwareExecution> contentionAwareExecution = Optional.empty();
+
     /**
      * Configures {@code backwardCompatibilityVersion}.
      *
@@ -222,6 +235,140 @@ public abstract class AbstractProxyManagerBuilder<K, P extends ProxyManager<K>,
         return (B) this;
     }
 
+    /**
+     * Configures math type that will be used for creation of new buckets.
+     *
+     * <p>
+     * Math type is used to create the state of bucket when bucket does not exist yet in the storage,
+     * already persisted buckets continue to use the math with which they were created.
+     *
+     * <p>
+     * By default, mathType is {@link MathType#INTEGER_64_BITS}. Any other math type requires {@link Versions#v_8_19_0} to be supported by all nodes in the cluster.
+     *
+     * @param mathType the math type that will be used for creation of new buckets.
+     *
+     * @return this builder with configured {@code mathType}.
+     */
+    public B mathType(MathType mathType) {
+        if (mathType == null) {
+            throw BucketExceptions.nullMathType();
+        }
+        this.mathType = mathType;
+        return (B) this;
+    }
+
+    /**
+     * Enables speculative initialization of buckets: the first request from the proxy that was never initialized is sent in create-if-absent form,
+     * so a cold key costs a single round trip to the storage instead of two.
+     *
+     * @return this builder with enabled speculative initialization.
+     *
+     * @see ClientSideConfig#withSpeculativeInitialization()
+     */
+    public B speculativeInitialization() {
+        return speculativeInitialization(0);
+    }
+
+    /**
+     * Enables speculative initialization of buckets with bounded LRU cache of keys which are known to exist in the storage,
+     * requests for cached keys are sent without configuration even by new proxies.
+     *
+     * @param knownBucketsCacheSize maximum amount of keys that are remembered as existing, zero means that nothing is remembered.
+     *
+     * @return this builder with enabled speculative initialization.
+     *
+     * @see ClientSideConfig#withSpeculativeInitialization(int)
+     */
+    public B speculativeInitialization(int knownBucketsCacheSize) {
+        if (knownBucketsCacheSize < 0) {
+            throw BucketExceptions.negativeKnownBucketsCacheSize(knownBucketsCacheSize);
+        }
+        this.speculativeInitialization = true;
+        this.knownBucketsCacheSize = knownBucketsCacheSize;
+        return (B) this;
+    }
+
+    /**
+     * Enables coalescing of concurrent requests for different keys into one storage operation.
+     *
+     * @param maxBatchSize maximum amount of requests that can be sent to the storage as one operation.
+     *
+     * @return this builder with enabled cross-key batching.
+     *
+     * @see ClientSideConfig#withCrossKeyBatching(int)
+     */
+    public B crossKeyBatching(int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw BucketExceptions.nonPositiveMaxBatchSize(maxBatchSize);
+        }
+        this.maxCrossKeyBatchSize = Optional.of(maxBatchSize);
+        return (B) this;
+    }
+
+    /**
+     * Enables compact binary format for requests, responses and persisted state.
+     *
+     * @return this builder with enabled compact serialization.
+     *
+     * @see ClientSideConfig#withCompactSerialization()
+     */
+    public B compactSerialization() {
+        this.compactSerializationEnabled = true;
+        return (B) this;
+    }
+
+    /**
+     * Enables cache of last seen states for compare-and-swap based proxy managers.
+     *
+     * @param maxSize maximum amount of keys for which states are remembered
+     *
+     * @return this builder with enabled cache of last seen states.
+     *
+     * @see ClientSideConfig#withLastSeenStateCache(int)
+     */
+    public B lastSeenStateCache(int maxSize) {
+        return lastSeenStateCache(maxSize, NopeStateCacheListener.INSTANCE);
+    }
+
+    /**
+     * Enables cache of last seen states for compare-and-swap based proxy managers with listener of cache events.
+     *
+     * @param maxSize maximum amount of keys for which states are remembered
+     * @param listener the listener of cache events
+     *
+     * @return this builder with enabled cache of last seen states.
+     *
+     * @see ClientSideConfig#withLastSeenStateCache(int, StateCacheListener)
+     */
+    public B lastSeenStateCache(int maxSize, StateCacheListener listener) {
+        if (maxSize < 1) {
+            throw BucketExceptions.nonPositiveLastSeenStateCacheSize(maxSize);
+        }
+        if (listener == null) {
+            throw BucketExceptions.nullListener();
+        }
+        this.lastSeenStateCacheSize = maxSize;
+        this.stateCacheListener = listener;
+        return (B) this;
+    }
+
+    /**
+     * Enables contention-aware execution for compare-and-swap based proxy managers.
+     *
+     * @param contentionAwareExecution parameters of contention-aware execution
+     *
+     * @return this builder with enabled contention-aware execution.
+     *
+     * @see ClientSideConfig#withContentionAwareExecution(ContentionAwareExecution)
+     */
+    public B contentionAwareExecution(ContentionAwareExecution contentionAwareExecution) {
+        if (contentionAwareExecution == null) {
+            throw BucketExceptions.nullContentionAwareExecution();
+        }
+        this.contentionAwareExecution = Optional.of(contentionAwareExecution);
+        return (B) this;
+    }
+
     /**
      * Returns the strategy for choosing time to live for buckets.
      *
@@ -287,6 +434,78 @@ public abstract class AbstractProxyManagerBuilder<K, P extends ProxyManager<K>,
         return retryStrategy;
     }
 
+    /**
+     * Returns the math type that is used for creation of new buckets
+     *
+     * @return the math type that is used for creation of new buckets
+     */
+    public MathType getMathType() {
+        return mathType;
+    }
+
+    /**
+     * Returns whether speculative initialization of buckets is enabled
+     *
+     * @return whether speculative initialization of buckets is enabled
+     */
+    public boolean isSpeculativeInitialization() {
+        return speculativeInitialization;
+    }
+
+    /**
+     * Returns maximum amount of keys that are remembered as existing when speculative initialization is enabled
+     *
+     * @return maximum amount of keys that are remembered as existing
+     */
+    public int getKnownBucketsCacheSize() {
+        return knownBucketsCacheSize;
+    }
+
+    /**
+     * Returns maximum amount of requests for different keys that can be sent to the storage as one operation
+     *
+     * @return maximum size of cross-key batch, empty if cross-key batching is disabled
+     */
+    public Optional<Integer> getMaxCrossKeyBatchSize() {
+        return maxCrossKeyBatchSize;
+    }
+
+    /**
+     * Returns whether requests, responses and persisted state are written in compact binary format
+     *
+     * @return whether compact serialization is enabled
+     */
+    public boolean isCompactSerializationEnabled() {
+        return compactSerializationEnabled;
+    }
+
+    /**
+     * Returns maximum amount of keys for which last seen states are remembered, zero means that cache is disabled
+     *
+     * @return maximum amount of keys for which last seen states are remembered
+     */
+    public int getLastSeenStateCacheSize() {
+        return lastSeenStateCacheSize;
+    }
+
+    /**
+     * Returns the listener of events of last seen states cache
+     *
+     * @return the listener of events of last seen states cache
+     */
+    public StateCacheListener getStateCacheListener() {
+        return stateCacheListener;
+    }
+
+    /**
+     * Returns parameters of contention-aware execution
+     *
+     * @return parameters of contention-aware execution, or empty when contention-aware execution is disabled
+     */
+    public Optional<ContentionAwareExecution> getContentionAwareExecution() {
+        return contentionAwareExecution;
+    }
+
     /**
      * Builds new instance of {@link P}
      *
@@ -304,7 +523,16 @@ public abstract class AbstractProxyManagerBuilder<K, P extends ProxyManager<K>,
     }
 
     public ClientSideConfig getClientSideConfig() {
-        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, executionStrategy, requestTimeoutNanos, expirationStrategy, defaultListener, defaultRecoveryStrategy, maxRetries, retryStrategy);
+        ClientSideConfig.Builder builder = new ClientSideConfig.Builder(backwardCompatibilityVersion, clientSideClock, executionStrategy, requestTimeoutNanos, expirationStrategy, defaultListener, defaultRecoveryStrategy, maxRetries, retryStrategy);
+        builder.mathType = mathType;
+        builder.speculativeInitialization = speculativeInitialization;
+        builder.knownBucketsCacheSize = knownBucketsCacheSize;
+        builder.maxCrossKeyBatchSize = maxCrossKeyBatchSize;
+        builder.compactSerializationEnabled = compactSerializationEnabled;
+        builder.lastSeenStateCacheSize = lastSeenStateCacheSize;
+        builder.stateCacheListener = stateCacheListener;
+        builder.contentionAwareExecution = contentionAwareExecution;
+        return builder.build();
     }
 
 }
@@ -20,15 +20,22 @@
 package io.github.bucket4j.distributed.proxy;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
 import io.github.bucket4j.BucketExceptions;
 import io.github.bucket4j.BucketListener;
+import io.github.bucket4j.MathType;
 import io.github.bucket4j.TimeMeter;
 import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
 import io.github.bucket4j.distributed.proxy.AbstractProxyManager.DefaultAsyncRemoteBucketBuilder;
 import io.github.bucket4j.distributed.proxy.AbstractProxyManager.DefaultRemoteBucketBuilder;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.ContentionAwareExecution;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.NopeStateCacheListener;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.StateCacheListener;
+import io.github.bucket4j.distributed.serialization.CompactSerializationAdapter;
 import io.github.bucket4j.distributed.versioning.Version;
 import io.github.bucket4j.distributed.versioning.Versions;
 
@@ -59,6 +66,18 @@ public class ClientSideConfig {
     private final Optional<Integer> maxRetries;
     private final Optional<RetryStrategy> retryStrategy;
 
+    private final MathType mathType;
+
+    private final boolean speculativeInitialization;
+    private final int knownBucketsCacheSize;
+
+    private final Optional<Integer> maxCrossKeyBatchSize;
+
+    private final boolean compactSerializationEnabled;
+    private final int lastSeenStateCacheSize;
+    private final StateCacheListener stateCacheListener;
+    private final Optional<ContentionAwareExecution> contentionAwareExecution;
+
     protected ClientSideConfig(Version backwardCompatibilityVersion, Optional<TimeMeter> clientSideClock,
                                ExecutionStrategy executionStrategy,
                                Optional<Long> requestTimeoutNanos,
@@ -67,15 +86,27 @@ public class ClientSideConfig {
                                RecoveryStrategy defaultRecoveryStrategy,
                                Optional<Integer> maxRetries,
                                Optional<RetryStrategy> retryStrategy) {
-        this.backwardCompatibilityVersion = Objects.requireNonNull(backwardCompatibilityVersion);
-        this.clientSideClock = Objects.requireNonNull(clientSideClock);
-        this.executionStrategy = executionStrategy;
-        this.requestTimeoutNanos = requestTimeoutNanos;
-        this.expirationStrategy = expirationStrategy;
-        this.defaultListener = Objects.requireNonNull(defaultListener);
-        this.defaultRecoveryStrategy = Objects.requireNonNull(defaultRecoveryStrategy);
-        this.maxRetries = Objects.requireNonNull(maxRetries);
-        this.retryStrategy = Objects.requireNonNull(retryStrategy);
+        this(new Builder(backwardCompatibilityVersion, clientSideClock, executionStrategy, requestTimeoutNanos, expirationStrategy, defaultListener, defaultRecoveryStrategy, maxRetries, retryStrategy));
+    }
+
+    private ClientSideConfig(Builder builder) {
+        this.backwardCompatibilityVersion = Objects.requireNonNull(builder.backwardCompatibilityVersion);
+        this.clientSideClock = Objects.requireNonNull(builder.clientSideClock);
+        this.executionStrategy = builder.executionStrategy;
+        this.requestTimeoutNanos = builder.requestTimeoutNanos;
+        this.expirationStrategy = builder.expirationStrategy;
+        this.defaultListener = Objects.requireNonNull(builder.defaultListener);
+        this.defaultRecoveryStrategy = Objects.requireNonNull(builder.defaultRecoveryStrategy);
+        this.maxRetries = Objects.requireNonNull(builder.maxRetries);
+        this.retryStrategy = Objects.requireNonNull(builder.retryStrategy);
+        this.mathType = Objects.requireNonNull(builder.mathType);
+        this.speculativeInitialization = builder.speculativeInitialization;
+        this.knownBucketsCacheSize = builder.knownBucketsCacheSize;
+        this.maxCrossKeyBatchSize = Objects.requireNonNull(builder.maxCrossKeyBatchSize);
+        this.compactSerializationEnabled = builder.compactSerializationEnabled;
+        this.lastSeenStateCacheSize = builder.lastSeenStateCacheSize;
+        this.stateCacheListener = Objects.requireNonNull(builder.stateCacheListener);
+        this.contentionAwareExecution = Objects.requireNonNull(builder.contentionAwareExecution);
     }
 
     /**
@@ -105,7 +136,9 @@ public class ClientSideConfig {
      * @return new instance of {@link ClientSideConfig} with configured {@code backwardCompatibilityVersion}.
      */
     public ClientSideConfig backwardCompatibleWith(Version backwardCompatibilityVersion) {
-        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, executionStrategy, requestTimeoutNanos, expirationStrategy, defaultListener, defaultRecoveryStrategy, maxRetries, retryStrategy);
+        Builder builder = new Builder(this);
+        builder.backwardCompatibilityVersion = backwardCompatibilityVersion;
+        return builder.build();
     }
 
     /**
@@ -118,12 +151,18 @@ public class ClientSideConfig {
      * <p>
      * By default, client-clock is null. This means that server-side clock is always used.
      *
+     * <p>
+     * When time is measured on client side at very high request rates, {@link io.github.bucket4j.CachedTimeMeter#millisecondPrecision()}
+     * can be used to avoid system call per request.
+     *
      * @param clientClock the clock that will be used for time measuring instead of server-side clock.
      *
      * @return new instance of {@link ClientSideConfig} with configured {@code clientClock}.
      */
     public ClientSideConfig withClientClock(TimeMeter clientClock) {
-        return new ClientSideConfig(backwardCompatibilityVersion, Optional.of(clientClock), executionStrategy, requestTimeoutNanos, expirationStrategy, defaultListener, defaultRecoveryStrategy, maxRetries, retryStrategy);
+        Builder builder = new Builder(this);
+        builder.clientSideClock = Optional.of(clientClock);
+        return builder.build();
     }
 
     /**
@@ -137,7 +176,9 @@ public class ClientSideConfig {
      * @return new instance of {@link ClientSideConfig} with configured {@code clientClock}.
      */
     public ClientSideConfig withExecutionStrategy(ExecutionStrategy executionStrategy) {
-        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, executionStrategy, requestTimeoutNanos, expirationStrategy, defaultListener, defaultRecoveryStrategy, maxRetries, retryStrategy);
+        Builder builder = new Builder(this);
+        builder.executionStrategy = executionStrategy;
+        return builder.build();
     }
 
     /**
@@ -160,7 +201,9 @@ public class ClientSideConfig {
             throw BucketExceptions.nonPositiveRequestTimeout(requestTimeout);
         }
         long requestTimeoutNanos = requestTimeout.toNanos();
-        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, executionStrategy, Optional.of(requestTimeoutNanos), expirationStrategy, defaultListener, defaultRecoveryStrategy, maxRetries, retryStrategy);
+        Builder builder = new Builder(this);
+        builder.requestTimeoutNanos = Optional.of(requestTimeoutNanos);
+        return builder.build();
     }
 
     /**
@@ -173,7 +216,9 @@ public class ClientSideConfig {
      * @return new instance of {@link ClientSideConfig} with configured {@code expirationStrategy}.
      */
     public ClientSideConfig withExpirationAfterWriteStrategy(ExpirationAfterWriteStrategy expirationStrategy) {
-        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, executionStrategy, requestTimeoutNanos, Optional.of(expirationStrategy), defaultListener, defaultRecoveryStrategy, maxRetries, retryStrategy);
+        Builder builder = new Builder(this);
+        builder.expirationStrategy = Optional.of(expirationStrategy);
+        return builder.build();
     }
 
     /**
@@ -194,7 +239,9 @@ public class ClientSideConfig {
         if (maxRetries < 1) {
             throw BucketExceptions.nonPositiveMaxRetries(maxRetries);
         }
-        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, executionStrategy, requestTimeoutNanos, expirationStrategy, defaultListener, defaultRecoveryStrategy, Optional.of(maxRetries), retryStrategy);
+        Builder builder = new Builder(this);
+        builder.maxRetries = Optional.of(maxRetries);
+        return builder.build();
     }
 
     /**
@@ -221,7 +268,197 @@ public class ClientSideConfig {
      * @return new instance of {@link ClientSideConfig} with configured {@code retryStrategy}.
      */
     public ClientSideConfig withRetryStrategy(RetryStrategy retryStrategy) {
-        return new ClientSideConfig(backwardCompatibilityVersion, clientSideClock, executionStrategy, requestTimeoutNanos, expirationStrategy, defaultListener, defaultRecoveryStrategy, maxRetries, Optional.of(retryStrategy));
+        Builder builder = new Builder(this);
+        builder.retryStrategy = Optional.of(retryStrategy);
+        return builder.build();
+    }
+
+    /**
+     * Returns new instance of {@link ClientSideConfig} with configured {@code mathType}.
+     *
+     * <p>
+     * Math type is used to create the state of bucket when bucket does not exist yet in the storage,
+     * already persisted buckets continue to use the math with which they were created.
+     *
+     * <p>
+     * By default, mathType is {@link MathType#INTEGER_64_BITS}. Any other math type requires {@link Versions#v_8_19_0} to be supported by all nodes in the cluster.
+     *
+     * @param mathType the math type that will be used for creation of new buckets.
+     *
+     * @return new instance of {@link ClientSideConfig} with configured {@code mathType}.
+     */
+    public ClientSideConfig withMathType(MathType mathType) {
+        if (mathType == null) {
+            throw BucketExceptions.nullMathType();
+        }
+        Builder builder = new Builder(this);
+        builder.mathType = mathType;
+        return builder.build();
+    }
+
+    /**
+     * Returns new instance of {@link ClientSideConfig} with enabled speculative initialization of buckets.
+     *
+     * <p>
+     * By default, the first request from a proxy is sent as a plain command, and if the bucket does not exist yet
+     * the command is sent again together with configuration, so a cold key costs two round trips to the storage.
+     * When speculative initialization is enabled, the first request from the proxy that was never initialized is sent in create-if-absent form,
+     * so a cold key costs a single round trip. The price is a bigger first request, because the configuration is always attached to it,
+     * and the configuration supplier is invoked for each new proxy.
+     *
+     * <p>
+     * {@link RecoveryStrategy} semantics are not affected, because create-if-absent is never sent instead of requests of already initialized proxy.
+     *
+     * @return new instance of {@link ClientSideConfig} with enabled speculative initialization.
+     *
+     * @see #withSpeculativeInitialization(int)
+     */
+    public ClientSideConfig withSpeculativeInitialization() {
+        return withSpeculativeInitialization(0);
+    }
+
+    /**
+     * Returns new instance of {@link ClientSideConfig} with enabled speculative initialization of buckets
+     * and with bounded LRU cache of keys which are known to exist in the storage.
+     *
+     * <p>
+     * Requests for keys from the cache are sent as plain commands even by new proxies, so the configuration is not attached to them,
+     * other keys are initialized speculatively as described in {@link #withSpeculativeInitialization()}.
+     * The cache is just a hint, if bucket for cached key has been expired or removed the request falls back to usual two round trips.
+     *
+     * @param knownBucketsCacheSize maximum amount of keys that are remembered as existing, zero means that nothing is remembered.
+     *
+     * @return new instance of {@link ClientSideConfig} with enabled speculative initialization.
+     */
+    public ClientSideConfig withSpeculativeInitialization(int knownBucketsCacheSize) {
+        if (knownBucketsCacheSize < 0) {
+            throw BucketExceptions.negativeKnownBucketsCacheSize(knownBucketsCacheSize);
+        }
+        Builder builder = new Builder(this);
+        builder.speculativeInitialization = true;
+        builder.knownBucketsCacheSize = knownBucketsCacheSize;
+        return builder.build();
+    }
+
+    /**
+     * Returns new instance of {@link ClientSideConfig} with enabled coalescing of concurrent requests for different keys.
+     *
+     * <p>
+     * By default, each request is sent to the storage independently, even when thousands of requests for different keys are issued concurrently.
+     * When cross-key batching is enabled, requests that were issued while previous request is in flight are accumulated
+     * and sent together via {@link AbstractProxyManager#executeBatch(List, List)}, so the storage-specific implementation
+     * can execute them as one operation, for example as pipeline. Single request is never delayed in order to wait for companions.
+     *
+     * <p>
+     * The option is ignored by proxy-managers that do not provide native bulk execution,
+     * see {@link AbstractProxyManager#isCrossKeyBatchingSupported()}, because batching of such proxy-manager would only serialize its requests.
+     * At the moment native bulk execution is provided only by compare-and-swap based proxy-managers that support batch compare-and-swap,
+     * such as Jedis and Lettuce integrations, while Glide, JDBC, Hazelcast, Ignite and other integrations ignore this option.
+     * Each request of batch is completed independently, so failure of one request does not fail other requests of the same batch.
+     *
+     * @param maxBatchSize maximum amount of requests that can be sent to the storage as one operation.
+     *
+     * @return new instance of {@link ClientSideConfig} with enabled cross-key batching.
+     */
+    public ClientSideConfig withCrossKeyBatching(int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw BucketExceptions.nonPositiveMaxBatchSize(maxBatchSize);
+        }
+        Builder builder = new Builder(this);
+        builder.maxCrossKeyBatchSize = Optional.of(maxBatchSize);
+        return builder.build();
+    }
+
+    /**
+     * Returns new instance of {@link ClientSideConfig} that writes requests, responses and persisted state in compact binary format,
+     * see {@link CompactSerializationAdapter}.
+     *
+     * <p>
+     * In compact format numbers are written as variable length integers and timestamps of bandwidths are written as deltas,
+     * so typical state and request become two-three times smaller, that reduces network traffic and storage footprint.
+     * Format is detected by the first byte of data, so states that were persisted in default format stay readable, and vice versa.
+     *
+     * <p>
+     * Compact format is not used when {@link #getBackwardCompatibilityVersion()} is older than {@link Versions#v_8_19_0},
+     * because versions older than {@link Versions#v_8_19_0} are not able to read it.
+     *
+     * @return new instance of {@link ClientSideConfig} with enabled compact serialization.
+     */
+    public ClientSideConfig withCompactSerialization() {
+        Builder builder = new Builder(this);
+        builder.compactSerializationEnabled = true;
+        return builder.build();
+    }
+
+    /**
+     * Returns new instance of {@link ClientSideConfig} with enabled cache of last seen states for compare-and-swap based proxy managers.
+     *
+     * <p>
+     * By default, each request to compare-and-swap based storage costs two round trips: reading of state and conditional write.
+     * When the cache is enabled, the proxy-manager remembers the state bytes that were last written or read for each key,
+     * executes command against remembered state and sends conditional write immediately.
+     * Compare-and-swap validates that remembered state is still actual, if it is not the state is read from storage as usual.
+     * So for traffic that is routed to the same client per key, request costs a single round trip.
+     *
+     * <p>
+     * The option has effect only for proxy-managers which compare-and-swap validates original data,
+     * see {@link AbstractCompareAndSwapBasedProxyManager#isLastSeenStateCacheSupported()}, other proxy-managers ignore it.
+     * Requests that do not modify state, like {@link io.github.bucket4j.Bucket#getAvailableTokens()}, always read state from storage.
+     *
+     * @param maxSize maximum amount of keys for which states are remembered
+     *
+     * @return new instance of {@link ClientSideConfig} with enabled cache of last seen states.
+     *
+     * @see #withLastSeenStateCache(int, StateCacheListener)
+     */
+    public ClientSideConfig withLastSeenStateCache(int maxSize) {
+        return withLastSeenStateCache(maxSize, NopeStateCacheListener.INSTANCE);
+    }
+
+    /**
+     * Returns new instance of {@link ClientSideConfig} with enabled cache of last seen states,
+     * and with listener that is notified about cache hits, misses and conflicts.
+     *
+     * @param maxSize maximum amount of keys for which states are remembered
+     * @param listener the listener of cache events
+     *
+     * @return new instance of {@link ClientSideConfig} with enabled cache of last seen states.
+     *
+     * @see #withLastSeenStateCache(int)
+     */
+    public ClientSideConfig withLastSeenStateCache(int maxSize, StateCacheListener listener) {
+        if (maxSize < 1) {
+            throw BucketExceptions.nonPositiveLastSeenStateCacheSize(maxSize);
+        }
+        if (listener == null) {
+            throw BucketExceptions.nullListener();
+        }
+        Builder builder = new Builder(this);
+        builder.lastSeenStateCacheSize = maxSize;
+        builder.stateCacheListener = listener;
+        return builder.build();
+    }
+
+    /**
+     * Returns new instance of {@link ClientSideConfig} with enabled contention-aware execution for compare-and-swap based proxy managers.
+     *
+     * <p>
+     * Keys on which compare-and-swap fails too often are switched to pessimistic mode,
+     * where requests for the key are executed one by one and requests that wait for their turn are merged together,
+     * see {@link ContentionAwareExecution} for details.
+     * The option has no effect for proxy-managers that are not based on compare-and-swap.
+     *
+     * @param contentionAwareExecution parameters of contention-aware execution
+     *
+     * @return new instance of {@link ClientSideConfig} with enabled contention-aware execution.
+     */
+    public ClientSideConfig withContentionAwareExecution(ContentionAwareExecution contentionAwareExecution) {
+        if (contentionAwareExecution == null) {
+            throw BucketExceptions.nullContentionAwareExecution();
+        }
+        Builder builder = new Builder(this);
+        builder.contentionAwareExecution = Optional.of(contentionAwareExecution);
+        return builder.build();
     }
 
     /**
@@ -291,6 +528,92 @@ public class ClientSideConfig {
         return retryStrategy;
     }
 
+    /**
+     * Returns the math type that is used for creation of new buckets
+     *
+     * @return the math type that is used for creation of new buckets
+     *
+     * @see #withMathType(MathType)
+     */
+    public MathType getMathType() {
+        return mathType;
+    }
+
+    /**
+     * Returns whether speculative initialization of buckets is enabled
+     *
+     * @return whether speculative initialization of buckets is enabled
+     *
+     * @see #withSpeculativeInitialization(int)
+     */
+    public boolean isSpeculativeInitialization() {
+        return speculativeInitialization;
+    }
+
+    /**
+     * Returns maximum amount of keys that are remembered as existing when speculative initialization is enabled
+     *
+     * @return maximum amount of keys that are remembered as existing
+     *
+     * @see #withSpeculativeInitialization(int)
+     */
+    public int getKnownBucketsCacheSize() {
+        return knownBucketsCacheSize;
+    }
+
+    /**
+     * Returns maximum amount of requests for different keys that can be sent to the storage as one operation
+     *
+     * @return maximum size of cross-key batch, empty if cross-key batching is disabled
+     *
+     * @see #withCrossKeyBatching(int)
+     */
+    public Optional<Integer> getMaxCrossKeyBatchSize() {
+        return maxCrossKeyBatchSize;
+    }
+
+    /**
+     * Returns whether requests, responses and persisted state are written in compact binary format
+     *
+     * @return whether compact serialization is enabled
+     *
+     * @see #withCompactSerialization()
+     */
+    public boolean isCompactSerializationEnabled() {
+        return compactSerializationEnabled;
+    }
+
+    /**
+     * Returns maximum amount of keys for which compare-and-swap based proxy managers remember last seen states, zero means that cache is disabled
+     *
+     * @return maximum amount of keys for which last seen states are remembered
+     *
+     * @see #withLastSeenStateCache(int)
+     */
+    public int getLastSeenStateCacheSize() {
+        return lastSeenStateCacheSize;
+    }
+
+    /**
+     * Returns the listener of events of last seen states cache
+     *
+     * @return the listener of events of last seen states cache
+     */
+    public StateCacheListener getStateCacheListener() {
+        return stateCacheListener;
+    }
+
+    /**
+     * Returns parameters of contention-aware execution for compare-and-swap based proxy managers
+     *
+     * @return parameters of contention-aware execution, or empty when contention-aware execution is disabled
+     *
+     * @see #withContentionAwareExecution(ContentionAwareExecution)
+     */
+    public Optional<ContentionAwareExecution> getContentionAwareExecution() {
+        return contentionAwareExecution;
+    }
+
     public <K> RemoteBucketBuilder<K> apply(DefaultRemoteBucketBuilder builder) {
         return builder.withListener(defaultListener)
             .withRecoveryStrategy(defaultRecoveryStrategy);
@@ -300,4 +623,72 @@ public class ClientSideConfig {
         return builder.withListener(defaultListener)
             .withRecoveryStrategy(defaultRecoveryStrategy);
     }
+    /**
+     * Mutable copy of configuration that is used to create modified instances of {@link ClientSideConfig}.
+     */
+    static final class Builder {
+
+        Version backwardCompatibilityVersion;
+        Optional<TimeMeter> clientSideClock;
+        ExecutionStrategy executionStrategy;
+        Optional<Long> requestTimeoutNanos;
+        Optional<ExpirationAfterWriteStrategy> expirationStrategy;
+        BucketListener defaultListener;
+        RecoveryStrategy defaultRecoveryStrategy;
+        Optional<Integer> maxRetries;
+        Optional<RetryStrategy> retryStrategy;
+        MathType mathType = MathType.INTEGER_64_BITS;
+        boolean speculativeInitialization;
+        int knownBucketsCacheSize;
+        Optional<Integer> maxCrossKeyBatchSize = Optional.empty();
+        boolean compactSerializationEnabled;
+        int lastSeenStateCacheSize;
+        StateCacheListener stateCacheListener = NopeStateCacheListener.INSTANCE;
+        Optional<ContentionAwareExecution> contentionAwareExecution = Optional.empty();
+
+        Builder(Version backwardCompatibilityVersion, Optional<TimeMeter> clientSideClock,
+                ExecutionStrategy executionStrategy,
+                Optional<Long> requestTimeoutNanos,
+                Optional<ExpirationAfterWriteStrategy> expirationStrategy,
+                BucketListener defaultListener,
+                RecoveryStrategy defaultRecoveryStrategy,
+                Optional<Integer> maxRetries,
+                Optional<RetryStrategy> retryStrategy) {
+            this.backwardCompatibilityVersion = backwardCompatibilityVersion;
+            this.clientSideClock = clientSideClock;
+            this.executionStrategy = executionStrategy;
+            this.requestTimeoutNanos = requestTimeoutNanos;
+            this.expirationStrategy = expirationStrategy;
+            this.defaultListener = defaultListener;
+            this.defaultRecoveryStrategy = defaultRecoveryStrategy;
+            this.maxRetries = maxRetries;
+            this.retryStrategy = retryStrategy;
+        }
+
+        Builder(ClientSideConfig config) {
+            this.backwardCompatibilityVersion = config.backwardCompatibilityVersion;
+            this.clientSideClock = config.clientSideClock;
+            this.executionStrategy = config.executionStrategy;
+            this.requestTimeoutNanos = config.requestTimeoutNanos;
+            this.expirationStrategy = config.expirationStrategy;
+            this.defaultListener = config.defaultListener;
+            this.defaultRecoveryStrategy = config.defaultRecoveryStrategy;
+            this.maxRetries = config.maxRetries;
+            this.retryStrategy = config.retryStrategy;
+            this.mathType = config.mathType;
+            this.speculativeInitialization = config.speculativeInitialization;
+            this.knownBucketsCacheSize = config.knownBucketsCacheSize;
+            this.maxCrossKeyBatchSize = config.maxCrossKeyBatchSize;
+            this.compactSerializationEnabled = config.compactSerializationEnabled;
+            this.lastSeenStateCacheSize = config.lastSeenStateCacheSize;
+            this.stateCacheListener = config.stateCacheListener;
+            this.contentionAwareExecution = config.contentionAwareExecution;
+        }
+
+        ClientSideConfig build() {
+            return new ClientSideConfig(this);
+        }
+
+    }
+
 }
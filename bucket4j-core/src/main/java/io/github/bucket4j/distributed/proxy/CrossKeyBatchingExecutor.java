@@ -0,0 +1,149 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.distributed.proxy;
+
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.util.concurrent.batch.AsyncBatchHelper;
+import io.github.bucket4j.util.concurrent.batch.BatchHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Coalesces requests for different keys that are issued concurrently through the same {@link AbstractProxyManager}
+ * and dispatches them via {@link AbstractProxyManager#executeBatch(List, List)}.
+ *
+ * <p>Batches are formed naturally: while one request or batch is in flight, requests from other threads are accumulated,
+ * and are sent together as soon as the storage becomes free, so single request is never delayed in order to wait for companions.
+ * Accumulated requests are split into chunks of {@code maxBatchSize}.
+ *
+ * <p>Each request of the batch has its own result, so failure of one request is reported only to the caller of that request.
+ * Because only one batch is in flight at any time, this executor is used only by proxy-managers that
+ * declare {@link AbstractProxyManager#isCrossKeyBatchingSupported()}, for others it would serialize all requests.
+ *
+ * @param <K> type of key
+ */
+class CrossKeyBatchingExecutor<K> {
+
+    private final AbstractProxyManager<K> proxyManager;
+    private final int maxBatchSize;
+
+    private final BatchHelper<KeyedRequest<K>, CompletableFuture<CommandResult<?>>, List<KeyedRequest<K>>, List<CompletableFuture<CommandResult<?>>>> batchHelper;
+    private final AsyncBatchHelper<KeyedRequest<K>, CompletableFuture<CommandResult<?>>, List<KeyedRequest<K>>, List<CompletableFuture<CommandResult<?>>>> asyncBatchHelper;
+
+    CrossKeyBatchingExecutor(AbstractProxyManager<K> proxyManager, int maxBatchSize) {
+        this.proxyManager = proxyManager;
+        this.maxBatchSize = maxBatchSize;
+
+        Function<List<KeyedRequest<K>>, List<KeyedRequest<K>>> taskCombiner = Function.identity();
+        BiFunction<List<KeyedRequest<K>>, List<CompletableFuture<CommandResult<?>>>, List<CompletableFuture<CommandResult<?>>>> combinedResultSplitter = (requests, results) -> results;
+
+        Function<KeyedRequest<K>, CompletableFuture<CommandResult<?>>> taskExecutor = keyedRequest ->
+            CompletableFuture.completedFuture(proxyManager.execute(keyedRequest.key, keyedRequest.request));
+        this.batchHelper = BatchHelper.create(taskCombiner, this::executeBatch, taskExecutor, combinedResultSplitter);
+
+        Function<KeyedRequest<K>, CompletableFuture<CompletableFuture<CommandResult<?>>>> asyncTaskExecutor = keyedRequest -> {
+            CompletableFuture<CommandResult<?>> future = (CompletableFuture<CommandResult<?>>) proxyManager.executeAsync(keyedRequest.key, keyedRequest.request);
+            return future.handle((result, error) -> future);
+        };
+        this.asyncBatchHelper = AsyncBatchHelper.create(taskCombiner, this::executeBatchAsync, asyncTaskExecutor, combinedResultSplitter);
+    }
+
+    <T> CommandResult<T> execute(K key, Request<T> request) {
+        CompletableFuture<CommandResult<?>> future;
+        try {
+            future = batchHelper.execute(new KeyedRequest<>(key, request));
+        } catch (BatchHelper.BatchFailedException e) {
+            // report original exception to the caller, as it would be done without batching
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        try {
+            return (CommandResult<T>) future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    <T> CompletableFuture<CommandResult<T>> executeAsync(K key, Request<T> request) {
+        return asyncBatchHelper.executeAsync(new KeyedRequest<>(key, request))
+            .thenCompose(result -> (CompletableFuture) result);
+    }
+
+    private List<CompletableFuture<CommandResult<?>>> executeBatch(List<KeyedRequest<K>> requests) {
+        List<CompletableFuture<CommandResult<?>>> results = new ArrayList<>(requests.size());
+        for (int from = 0; from < requests.size(); from += maxBatchSize) {
+            List<KeyedRequest<K>> chunk = requests.subList(from, Math.min(requests.size(), from + maxBatchSize));
+            results.addAll(proxyManager.executeBatch(keys(chunk), requests(chunk)));
+        }
+        return results;
+    }
+
+    private CompletableFuture<List<CompletableFuture<CommandResult<?>>>> executeBatchAsync(List<KeyedRequest<K>> requests) {
+        List<CompletableFuture<CommandResult<?>>> results = new ArrayList<>(requests.size());
+        for (int from = 0; from < requests.size(); from += maxBatchSize) {
+            List<KeyedRequest<K>> chunk = requests.subList(from, Math.min(requests.size(), from + maxBatchSize));
+            results.addAll(proxyManager.executeBatchAsync(keys(chunk), requests(chunk)));
+        }
+        // next batch is started only when each request of current batch is completed, successfully or not
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+            .handle((nothing, error) -> results);
+    }
+
+    private static <K> List<K> keys(List<KeyedRequest<K>> keyedRequests) {
+        List<K> keys = new ArrayList<>(keyedRequests.size());
+        for (KeyedRequest<K> keyedRequest : keyedRequests) {
+            keys.add(keyedRequest.key);
+        }
+        return keys;
+    }
+
+    private static <K> List<Request<?>> requests(List<KeyedRequest<K>> keyedRequests) {
+        List<Request<?>> requests = new ArrayList<>(keyedRequests.size());
+        for (KeyedRequest<K> keyedRequest : keyedRequests) {
+            requests.add(keyedRequest.request);
+        }
+        return requests;
+    }
+
+    private static class KeyedRequest<K> {
+
+        private final K key;
+        private final Request<?> request;
+
+        private KeyedRequest(K key, Request<?> request) {
+            this.key = key;
+            this.request = request;
+        }
+
+    }
+
+}
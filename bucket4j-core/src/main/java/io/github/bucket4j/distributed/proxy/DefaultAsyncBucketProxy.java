@@ -41,12 +41,17 @@ import static io.github.bucket4j.LimitChecker.*;
 
 public class DefaultAsyncBucketProxy implements AsyncBucketProxy, AsyncOptimizationController {
 
+    private static final Runnable NOOP = () -> {};
+
     private final AsyncCommandExecutor commandExecutor;
     private final RecoveryStrategy recoveryStrategy;
     private final Supplier<CompletableFuture<BucketConfiguration>> configurationSupplier;
     private final BucketListener listener;
     private final ImplicitConfigurationReplacement implicitConfigurationReplacement;
     private final AtomicBoolean wasInitialized;
+    private final MathType mathType;
+    private final boolean speculativeInitialization;
+    private final Runnable initializationCallback;
 
     @Override
     public AsyncVerboseBucket asVerbose() {
@@ -55,7 +60,7 @@ public class DefaultAsyncBucketProxy implements AsyncBucketProxy, AsyncOptimizat
 
     @Override
     public AsyncBucketProxy toListenable(BucketListener listener) {
-        return new DefaultAsyncBucketProxy(commandExecutor, recoveryStrategy, configurationSupplier, implicitConfigurationReplacement, wasInitialized, listener);
+        return new DefaultAsyncBucketProxy(commandExecutor, recoveryStrategy, configurationSupplier, implicitConfigurationReplacement, wasInitialized, mathType, speculativeInitialization, initializationCallback, listener);
     }
 
     @Override
@@ -65,15 +70,34 @@ public class DefaultAsyncBucketProxy implements AsyncBucketProxy, AsyncOptimizat
 
     public DefaultAsyncBucketProxy(AsyncCommandExecutor commandExecutor, RecoveryStrategy recoveryStrategy, Supplier<CompletableFuture<BucketConfiguration>> configurationSupplier,
                                    ImplicitConfigurationReplacement implicitConfigurationReplacement, BucketListener listener) {
-        this(commandExecutor, recoveryStrategy, configurationSupplier, implicitConfigurationReplacement, new AtomicBoolean(false), listener);
+        this(commandExecutor, recoveryStrategy, configurationSupplier, implicitConfigurationReplacement, new AtomicBoolean(false), MathType.INTEGER_64_BITS, false, NOOP, listener);
+    }
+
+    public DefaultAsyncBucketProxy(AsyncCommandExecutor commandExecutor, RecoveryStrategy recoveryStrategy, Supplier<CompletableFuture<BucketConfiguration>> configurationSupplier,
+                                   ImplicitConfigurationReplacement implicitConfigurationReplacement, MathType mathType, BucketListener listener) {
+        this(commandExecutor, recoveryStrategy, configurationSupplier, implicitConfigurationReplacement, new AtomicBoolean(false), mathType, false, NOOP, listener);
     }
 
-    private DefaultAsyncBucketProxy(AsyncCommandExecutor commandExecutor, RecoveryStrategy recoveryStrategy, Supplier<CompletableFuture<BucketConfiguration>> configurationSupplier, ImplicitConfigurationReplacement implicitConfigurationReplacement, AtomicBoolean wasInitialized, BucketListener listener) {
+    /**
+     * @param speculativeInitialization if {@code true} then the first request of never initialized proxy is sent together with configuration in create-if-absent form
+     * @param initializationCallback invoked each time when proxy knows for sure that bucket exists in the storage after initialization request
+     */
+    public DefaultAsyncBucketProxy(AsyncCommandExecutor commandExecutor, RecoveryStrategy recoveryStrategy, Supplier<CompletableFuture<BucketConfiguration>> configurationSupplier,
+                                   ImplicitConfigurationReplacement implicitConfigurationReplacement, MathType mathType,
+                                   boolean speculativeInitialization, Runnable initializationCallback, BucketListener listener) {
+        this(commandExecutor, recoveryStrategy, configurationSupplier, implicitConfigurationReplacement, new AtomicBoolean(false), mathType, speculativeInitialization, initializationCallback, listener);
+    }
+
+    private DefaultAsyncBucketProxy(AsyncCommandExecutor commandExecutor, RecoveryStrategy recoveryStrategy, Supplier<CompletableFuture<BucketConfiguration>> configurationSupplier, ImplicitConfigurationReplacement implicitConfigurationReplacement, AtomicBoolean wasInitialized, MathType mathType,
+                                    boolean speculativeInitialization, Runnable initializationCallback, BucketListener listener) {
         this.commandExecutor = Objects.requireNonNull(commandExecutor);
         this.recoveryStrategy = recoveryStrategy;
         this.configurationSupplier = configurationSupplier;
         this.implicitConfigurationReplacement = implicitConfigurationReplacement;
         this.wasInitialized = wasInitialized;
+        this.mathType = Objects.requireNonNull(mathType);
+        this.speculativeInitialization = speculativeInitialization;
+        this.initializationCallback = Objects.requireNonNull(initializationCallback);
 
         if (listener == null) {
             throw BucketExceptions.nullListener();
@@ -459,6 +483,11 @@ public class DefaultAsyncBucketProxy implements AsyncBucketProxy, AsyncOptimizat
             new CheckConfigurationVersionAndExecuteCommand<>(command, implicitConfigurationReplacement.getDesiredConfigurationVersion());
 
         boolean wasInitializedBeforeExecution = wasInitialized.get();
+        if (speculativeInitialization && !wasInitializedBeforeExecution) {
+            // most likely bucket does not exist yet, so save one round trip by sending create-if-absent at once
+            return initializeAndExecute(command);
+        }
+
         CompletableFuture<CommandResult<T>> futureResult = commandExecutor.executeAsync(commandToExecute);
         return futureResult.thenCompose(cmdResult -> {
             if (!cmdResult.isBucketNotFound() && !cmdResult.isConfigurationNeedToBeReplaced()) {
@@ -473,36 +502,41 @@ public class DefaultAsyncBucketProxy implements AsyncBucketProxy, AsyncOptimizat
                 return failedFuture;
             }
 
-            // fetch actual configuration
-            CompletableFuture<BucketConfiguration> configurationFuture;
-            try {
-                configurationFuture = configurationSupplier.get();
-            } catch (Throwable t) {
-                CompletableFuture<T> failedFuture = new CompletableFuture<>();
-                failedFuture.completeExceptionally(t);
-                return failedFuture;
-            }
-            if (configurationFuture == null) {
+            // retry command execution
+            return initializeAndExecute(command);
+        });
+    }
+
+    private <T> CompletableFuture<T> initializeAndExecute(RemoteCommand<T> command) {
+        // fetch actual configuration
+        CompletableFuture<BucketConfiguration> configurationFuture;
+        try {
+            configurationFuture = configurationSupplier.get();
+        } catch (Throwable t) {
+            CompletableFuture<T> failedFuture = new CompletableFuture<>();
+            failedFuture.completeExceptionally(t);
+            return failedFuture;
+        }
+        if (configurationFuture == null) {
+            CompletableFuture<T> failedFuture = new CompletableFuture<>();
+            failedFuture.completeExceptionally(BucketExceptions.nullConfigurationFuture());
+            return failedFuture;
+        }
+
+        return configurationFuture.thenCompose(configuration -> {
+            if (configuration == null) {
                 CompletableFuture<T> failedFuture = new CompletableFuture<>();
-                failedFuture.completeExceptionally(BucketExceptions.nullConfigurationFuture());
+                failedFuture.completeExceptionally(BucketExceptions.nullConfiguration());
                 return failedFuture;
             }
-
-            // retry command execution
-            return configurationFuture.thenCompose(configuration -> {
-                if (configuration == null) {
-                    CompletableFuture<T> failedFuture = new CompletableFuture<>();
-                    failedFuture.completeExceptionally(BucketExceptions.nullConfiguration());
-                    return failedFuture;
-                }
-                RemoteCommand<T> initAndExecuteCommand = implicitConfigurationReplacement == null?
-                        new CreateInitialStateAndExecuteCommand<>(configuration, command) :
-                        new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(configuration, command, implicitConfigurationReplacement.getDesiredConfigurationVersion(), implicitConfigurationReplacement.getTokensInheritanceStrategy());
-
-                return commandExecutor.executeAsync(initAndExecuteCommand).thenApply(initAndExecuteCmdResult -> {
-                    wasInitialized.set(true);
-                    return initAndExecuteCmdResult.getData();
-                });
+            RemoteCommand<T> initAndExecuteCommand = implicitConfigurationReplacement == null?
+                    new CreateInitialStateAndExecuteCommand<>(configuration, command, mathType) :
+                    new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(configuration, command, implicitConfigurationReplacement.getDesiredConfigurationVersion(), implicitConfigurationReplacement.getTokensInheritanceStrategy(), mathType);
+
+            return commandExecutor.executeAsync(initAndExecuteCommand).thenApply(initAndExecuteCmdResult -> {
+                wasInitialized.set(true);
+                initializationCallback.run();
+                return initAndExecuteCmdResult.getData();
             });
         });
     }
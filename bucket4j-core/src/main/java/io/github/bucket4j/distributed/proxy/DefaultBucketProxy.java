@@ -34,15 +34,20 @@ import java.util.function.Supplier;
 
 public class DefaultBucketProxy extends AbstractBucket implements BucketProxy, OptimizationController {
 
+    private static final Runnable NOOP = () -> {};
+
     private final CommandExecutor commandExecutor;
     private final RecoveryStrategy recoveryStrategy;
     private final Supplier<BucketConfiguration> configurationSupplier;
     private final ImplicitConfigurationReplacement implicitConfigurationReplacement;
     private final AtomicBoolean wasInitialized;
+    private final MathType mathType;
+    private final boolean speculativeInitialization;
+    private final Runnable initializationCallback;
 
     @Override
     public BucketProxy toListenable(BucketListener listener) {
-        return new DefaultBucketProxy(configurationSupplier, commandExecutor, recoveryStrategy, wasInitialized, implicitConfigurationReplacement, listener);
+        return new DefaultBucketProxy(configurationSupplier, commandExecutor, recoveryStrategy, wasInitialized, implicitConfigurationReplacement, mathType, speculativeInitialization, initializationCallback, listener);
     }
 
     @Override
@@ -57,10 +62,26 @@ public class DefaultBucketProxy extends AbstractBucket implements BucketProxy, O
 
     public DefaultBucketProxy(Supplier<BucketConfiguration> configurationSupplier, CommandExecutor commandExecutor, RecoveryStrategy recoveryStrategy,
                               ImplicitConfigurationReplacement implicitConfigurationReplacement, BucketListener listener) {
-        this(configurationSupplier, commandExecutor, recoveryStrategy, new AtomicBoolean(false), implicitConfigurationReplacement, listener);
+        this(configurationSupplier, commandExecutor, recoveryStrategy, new AtomicBoolean(false), implicitConfigurationReplacement, MathType.INTEGER_64_BITS, false, NOOP, listener);
+    }
+
+    public DefaultBucketProxy(Supplier<BucketConfiguration> configurationSupplier, CommandExecutor commandExecutor, RecoveryStrategy recoveryStrategy,
+                              ImplicitConfigurationReplacement implicitConfigurationReplacement, MathType mathType, BucketListener listener) {
+        this(configurationSupplier, commandExecutor, recoveryStrategy, new AtomicBoolean(false), implicitConfigurationReplacement, mathType, false, NOOP, listener);
     }
 
-    private DefaultBucketProxy(Supplier<BucketConfiguration> configurationSupplier, CommandExecutor commandExecutor, RecoveryStrategy recoveryStrategy, AtomicBoolean wasInitialized, ImplicitConfigurationReplacement implicitConfigurationReplacement, BucketListener listener) {
+    /**
+     * @param speculativeInitialization if {@code true} then the first request of never initialized proxy is sent together with configuration in create-if-absent form
+     * @param initializationCallback invoked each time when proxy knows for sure that bucket exists in the storage after initialization request
+     */
+    public DefaultBucketProxy(Supplier<BucketConfiguration> configurationSupplier, CommandExecutor commandExecutor, RecoveryStrategy recoveryStrategy,
+                              ImplicitConfigurationReplacement implicitConfigurationReplacement, MathType mathType,
+                              boolean speculativeInitialization, Runnable initializationCallback, BucketListener listener) {
+        this(configurationSupplier, commandExecutor, recoveryStrategy, new AtomicBoolean(false), implicitConfigurationReplacement, mathType, speculativeInitialization, initializationCallback, listener);
+    }
+
+    private DefaultBucketProxy(Supplier<BucketConfiguration> configurationSupplier, CommandExecutor commandExecutor, RecoveryStrategy recoveryStrategy, AtomicBoolean wasInitialized, ImplicitConfigurationReplacement implicitConfigurationReplacement, MathType mathType,
+                               boolean speculativeInitialization, Runnable initializationCallback, BucketListener listener) {
         super(listener);
 
         this.commandExecutor = Objects.requireNonNull(commandExecutor);
@@ -72,6 +93,9 @@ public class DefaultBucketProxy extends AbstractBucket implements BucketProxy, O
         this.configurationSupplier = configurationSupplier;
         this.implicitConfigurationReplacement = implicitConfigurationReplacement;
         this.wasInitialized = wasInitialized;
+        this.mathType = Objects.requireNonNull(mathType);
+        this.speculativeInitialization = speculativeInitialization;
+        this.initializationCallback = Objects.requireNonNull(initializationCallback);
     }
 
     @Override
@@ -212,6 +236,11 @@ public class DefaultBucketProxy extends AbstractBucket implements BucketProxy, O
         }
 
         boolean wasInitializedBeforeExecution = wasInitialized.get();
+        if (speculativeInitialization && !wasInitializedBeforeExecution) {
+            // most likely bucket does not exist yet, so save one round trip by sending create-if-absent at once
+            return initializeAndExecute(command);
+        }
+
         CommandResult<T> result = commandExecutor.execute(command);
         if (!result.isBucketNotFound() && !result.isConfigurationNeedToBeReplaced()) {
             return result.getData();
@@ -223,15 +252,20 @@ public class DefaultBucketProxy extends AbstractBucket implements BucketProxy, O
         }
 
         // retry command execution
+        return initializeAndExecute(command);
+    }
+
+    private <T> T initializeAndExecute(RemoteCommand<T> command) {
         RemoteCommand<T> initAndExecuteCommand = implicitConfigurationReplacement == null?
-                new CreateInitialStateAndExecuteCommand<>(getConfiguration(), command) :
-                new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(getConfiguration(), command, implicitConfigurationReplacement.getDesiredConfigurationVersion(), implicitConfigurationReplacement.getTokensInheritanceStrategy());
+                new CreateInitialStateAndExecuteCommand<>(getConfiguration(), command, mathType) :
+                new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(getConfiguration(), command, implicitConfigurationReplacement.getDesiredConfigurationVersion(), implicitConfigurationReplacement.getTokensInheritanceStrategy(), mathType);
         CommandResult<T> resultAfterInitialization = commandExecutor.execute(initAndExecuteCommand);
         if (resultAfterInitialization.isBucketNotFound()) {
             throw new IllegalStateException("Bucket is not initialized properly");
         }
         T data = resultAfterInitialization.getData();
         wasInitialized.set(true);
+        initializationCallback.run();
         return data;
     }
 
@@ -0,0 +1,104 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketExceptions;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Describes the amount of tokens that should be consumed from the bucket identified by key,
+ * used as element of all-or-nothing consumption {@link ProxyManager#tryConsumeAll(List)}.
+ *
+ * @param <K> type of primary key
+ */
+public class KeyedConsumption<K> {
+
+    private final K key;
+    private final Supplier<BucketConfiguration> configurationSupplier;
+    private final long tokens;
+
+    private KeyedConsumption(K key, Supplier<BucketConfiguration> configurationSupplier, long tokens) {
+        if (key == null) {
+            throw BucketExceptions.nullKey();
+        }
+        if (configurationSupplier == null) {
+            throw BucketExceptions.nullConfigurationSupplier();
+        }
+        if (tokens <= 0) {
+            throw BucketExceptions.nonPositiveTokensToConsume(tokens);
+        }
+        this.key = key;
+        this.configurationSupplier = configurationSupplier;
+        this.tokens = tokens;
+    }
+
+    /**
+     * Creates consumption of {@code tokens} from the bucket identified by {@code key}.
+     *
+     * @param key the key that used in external storage to distinguish one bucket from another.
+     * @param configuration the configuration that is used to create bucket if it does not exist in the storage
+     * @param tokens amount of tokens to consume, must be positive
+     *
+     * @return new instance of {@link KeyedConsumption}
+     */
+    public static <K> KeyedConsumption<K> of(K key, BucketConfiguration configuration, long tokens) {
+        if (configuration == null) {
+            throw BucketExceptions.nullConfiguration();
+        }
+        return new KeyedConsumption<>(key, () -> configuration, tokens);
+    }
+
+    /**
+     * Creates consumption of {@code tokens} from the bucket identified by {@code key}.
+     *
+     * @param key the key that used in external storage to distinguish one bucket from another.
+     * @param configurationSupplier provider for configuration that is used to create bucket if it does not exist in the storage
+     * @param tokens amount of tokens to consume, must be positive
+     *
+     * @return new instance of {@link KeyedConsumption}
+     */
+    public static <K> KeyedConsumption<K> of(K key, Supplier<BucketConfiguration> configurationSupplier, long tokens) {
+        return new KeyedConsumption<>(key, configurationSupplier, tokens);
+    }
+
+    public K getKey() {
+        return key;
+    }
+
+    public Supplier<BucketConfiguration> getConfigurationSupplier() {
+        return configurationSupplier;
+    }
+
+    public long getTokens() {
+        return tokens;
+    }
+
+    @Override
+    public String toString() {
+        return "KeyedConsumption{" +
+                "key=" + key +
+                ", tokens=" + tokens +
+                '}';
+    }
+
+}
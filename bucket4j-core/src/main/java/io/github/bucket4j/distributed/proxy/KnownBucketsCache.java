@@ -0,0 +1,50 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.distributed.proxy;
+
+import io.github.bucket4j.util.concurrent.StripedLruCache;
+
+/**
+ * Bounded set of keys for which buckets are known to exist in the storage,
+ * used by speculative initialization to avoid attaching configuration to requests for already existed buckets.
+ *
+ * <p>
+ * Cache is striped in order to not serialize all requests of proxy-manager on single lock.
+ *
+ * @param <K> type of key
+ */
+class KnownBucketsCache<K> {
+
+    private final StripedLruCache<K, Boolean> keys;
+
+    KnownBucketsCache(int maxSize) {
+        this.keys = new StripedLruCache<>(maxSize);
+    }
+
+    boolean contains(K key) {
+        return keys.get(key) != null;
+    }
+
+    void add(K key) {
+        keys.put(key, Boolean.TRUE);
+    }
+
+}
@@ -20,8 +20,11 @@
 
 package io.github.bucket4j.distributed.proxy;
 import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketExceptions;
 import io.github.bucket4j.distributed.BucketProxy;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -79,6 +82,62 @@ public interface ProxyManager<K> {
      */
     void removeProxy(K key);
 
+    /**
+     * Consumes tokens from several buckets in all-or-nothing manner:
+     * tokens are consumed from all buckets only when each bucket has enough tokens, otherwise nothing is consumed.
+     * Buckets that do not exist in the storage are created from configurations provided by {@code consumptions}.
+     *
+     * <p>
+     * Typical use-case is the check of per-user, per-tenant and global limits for the same incoming request,
+     * where tokens should not be leaked from per-user bucket when per-tenant limit is exceeded.
+     * The same key can be present in the list several times, in such case the amounts of tokens are summed.
+     *
+     * <p>
+     * Proxy-managers that are able to lock or compare-and-swap several keys in scope of one operation execute consumption atomically,
+     * other implementations consume tokens one by one and return tokens back to already touched buckets when consumption fails,
+     * so concurrent observers can see the tokens that are going to be returned back as temporarily missed.
+     *
+     * <p>
+     * Default implementation consumes tokens one by one via {@link #getProxy(Object, Supplier)}
+     * and returns tokens back to already touched buckets via {@link BucketProxy#forceAddTokens(long)} in reverse order
+     * when consumption from some bucket fails or throws exception.
+     *
+     * @param consumptions the list of consumptions, must not be empty
+     *
+     * @return {@code true} if tokens have been consumed from all buckets, {@code false} if nothing has been consumed
+     */
+    default boolean tryConsumeAll(List<KeyedConsumption<K>> consumptions) {
+        if (consumptions == null || consumptions.isEmpty()) {
+            throw BucketExceptions.emptyConsumptions();
+        }
+        List<BucketProxy> consumedBuckets = new ArrayList<>(consumptions.size());
+        try {
+            for (KeyedConsumption<K> consumption : consumptions) {
+                BucketProxy bucket = getProxy(consumption.getKey(), consumption.getConfigurationSupplier());
+                if (!bucket.tryConsume(consumption.getTokens())) {
+                    break;
+                }
+                consumedBuckets.add(bucket);
+            }
+        } catch (RuntimeException e) {
+            for (int i = consumedBuckets.size() - 1; i >= 0; i--) {
+                try {
+                    consumedBuckets.get(i).forceAddTokens(consumptions.get(i).getTokens());
+                } catch (RuntimeException refundFailure) {
+                    e.addSuppressed(refundFailure);
+                }
+            }
+            throw e;
+        }
+        if (consumedBuckets.size() == consumptions.size()) {
+            return true;
+        }
+        for (int i = consumedBuckets.size() - 1; i >= 0; i--) {
+            consumedBuckets.get(i).forceAddTokens(consumptions.get(i).getTokens());
+        }
+        return false;
+    }
+
     /**
      * Describes whether this manager supports asynchronous API.
      * If this method returns <code>false</code> then any invocation of {@link #asAsync()} will throw {@link UnsupportedOperationException}.
@@ -19,11 +19,14 @@
  */
 package io.github.bucket4j.distributed.proxy;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
 import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketExceptions;
 import io.github.bucket4j.distributed.BucketProxy;
 
 public class ProxyManagerView<K, KeyOld> implements ProxyManager<K> {
@@ -55,6 +58,19 @@ public class ProxyManagerView<K, KeyOld> implements ProxyManager<K> {
         target.removeProxy(mapper.apply(key));
     }
 
+    @Override
+    public boolean tryConsumeAll(List<KeyedConsumption<K>> consumptions) {
+        if (consumptions == null) {
+            throw BucketExceptions.emptyConsumptions();
+        }
+        List<KeyedConsumption<KeyOld>> mappedConsumptions = new ArrayList<>(consumptions.size());
+        for (KeyedConsumption<K> consumption : consumptions) {
+            KeyOld mappedKey = mapper.apply(consumption.getKey());
+            mappedConsumptions.add(KeyedConsumption.of(mappedKey, consumption.getConfigurationSupplier(), consumption.getTokens()));
+        }
+        return target.tryConsumeAll(mappedConsumptions);
+    }
+
     @Override
     public boolean isAsyncModeSupported() {
         return target.isAsyncModeSupported();
@@ -29,11 +29,19 @@ import io.github.bucket4j.distributed.proxy.RetryStrategy;
 import io.github.bucket4j.distributed.proxy.Timeout;
 import io.github.bucket4j.distributed.remote.CommandResult;
 import io.github.bucket4j.distributed.remote.MutableBucketEntry;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
 import io.github.bucket4j.distributed.remote.RemoteCommand;
 import io.github.bucket4j.distributed.remote.Request;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.LockSupport;
 import java.util.function.Supplier;
@@ -47,15 +55,58 @@ public abstract class AbstractCompareAndSwapBasedProxyManager<K> extends Abstrac
 
     private static final CommandResult<?> UNSUCCESSFUL_CAS_RESULT = null;
 
+    private final LastSeenStateCache<K> lastSeenStateCache;
+    private final StateCacheListener stateCacheListener;
+    private final ContentionTracker<K> contentionTracker;
+
     protected AbstractCompareAndSwapBasedProxyManager(ClientSideConfig clientSideConfig) {
         super(injectTimeClock(clientSideConfig));
+        int lastSeenStateCacheSize = clientSideConfig.getLastSeenStateCacheSize();
+        this.lastSeenStateCache = lastSeenStateCacheSize > 0 ? new LastSeenStateCache<>(lastSeenStateCacheSize) : null;
+        this.stateCacheListener = clientSideConfig.getStateCacheListener();
+        this.contentionTracker = clientSideConfig.getContentionAwareExecution()
+            .map(settings -> new ContentionTracker<K>(settings.getMaxTrackedKeys(), key -> new KeyContention(settings,
+                request -> execute(key, request, false),
+                request -> executeAsync(key, request, false)
+            )))
+            .orElse(null);
     }
 
     @Override
     public <T> CommandResult<T> execute(K key, Request<T> request) {
+        if (contentionTracker == null) {
+            return execute(key, request, false);
+        }
+        KeyContention contention = contentionTracker.find(key);
+        if (contention != null && contention.isPessimistic()) {
+            return contention.executeSerialized(request);
+        }
+        return execute(key, request, true);
+    }
+
+    @Override
+    public <T> CompletableFuture<CommandResult<T>> executeAsync(K key, Request<T> request) {
+        if (contentionTracker == null) {
+            return executeAsync(key, request, false);
+        }
+        KeyContention contention = contentionTracker.find(key);
+        if (contention != null && contention.isPessimistic()) {
+            return contention.executeSerializedAsync(request);
+        }
+        return executeAsync(key, request, true);
+    }
+
+    private <T> CommandResult<T> execute(K key, Request<T> request, boolean trackContention) {
         Timeout timeout = Timeout.of(getClientSideConfig());
         CompareAndSwapOperation operation = timeout.call(requestTimeout -> beginCompareAndSwapOperation(key));
 
+        if (isLastSeenStateCacheEnabled()) {
+            CommandResult<T> result = executeAgainstLastSeenState(key, request, operation, timeout);
+            if (result != UNSUCCESSFUL_CAS_RESULT) {
+                return result;
+            }
+        }
+
         Optional<RetryStrategy> retryStrategy = getClientSideConfig().getRetryStrategy();
         Optional<Integer> maxRetries = getClientSideConfig().getMaxRetries();
 
@@ -64,7 +115,10 @@ public abstract class AbstractCompareAndSwapBasedProxyManager<K> extends Abstrac
         int maxAttempts = retryStrategy.isPresent() ? Integer.MAX_VALUE : maxRetries.orElse(Integer.MAX_VALUE);
 
         while (attempt < maxAttempts) {
-            CommandResult<T> result = execute(request, operation, timeout);
+            CommandResult<T> result = execute(key, request, operation, timeout);
+            if (trackContention) {
+                contentionTracker.onCompareAndSwapAttempt(key, result != UNSUCCESSFUL_CAS_RESULT);
+            }
             if (result != UNSUCCESSFUL_CAS_RESULT) {
                 return result;
             }
@@ -89,37 +143,447 @@ public abstract class AbstractCompareAndSwapBasedProxyManager<K> extends Abstrac
         throw BucketExceptions.maxRetriesExceeded(maxAttempts);
     }
 
-    @Override
-    public <T> CompletableFuture<CommandResult<T>> executeAsync(K key, Request<T> request) {
+    private <T> CompletableFuture<CommandResult<T>> executeAsync(K key, Request<T> request, boolean trackContention) {
         Timeout timeout = Timeout.of(getClientSideConfig());
         AsyncCompareAndSwapOperation operation = beginAsyncCompareAndSwapOperation(key);
-        CompletableFuture<CommandResult<T>> result = executeAsync(request, operation, timeout);
         long startTimeNanos = System.nanoTime();
-        return result.thenCompose((CommandResult<T> response) -> retryIfCasWasUnsuccessful(operation, request, response, timeout, 1, key, startTimeNanos));
+        if (isLastSeenStateCacheEnabled()) {
+            return executeAsyncAgainstLastSeenState(key, request, operation, timeout)
+                .thenCompose((CommandResult<T> cachedResponse) -> {
+                    if (cachedResponse != UNSUCCESSFUL_CAS_RESULT) {
+                        return CompletableFuture.completedFuture(cachedResponse);
+                    }
+                    return executeAsync(key, request, operation, timeout)
+                        .thenCompose((CommandResult<T> response) -> retryIfCasWasUnsuccessful(operation, request, response, timeout, 1, key, startTimeNanos, trackContention));
+                });
+        }
+        CompletableFuture<CommandResult<T>> result = executeAsync(key, request, operation, timeout);
+        return result.thenCompose((CommandResult<T> response) -> retryIfCasWasUnsuccessful(operation, request, response, timeout, 1, key, startTimeNanos, trackContention));
     }
 
     protected abstract CompareAndSwapOperation beginCompareAndSwapOperation(K key);
 
     protected abstract AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(K key);
 
-    private <T> CommandResult<T> execute(Request<T> request, CompareAndSwapOperation operation, Timeout timeout) {
+    /**
+     * Begins compare-and-swap operation that covers several keys at once.
+     * Proxy-managers that override this method should also override {@link #isAtomicMultiKeyConsumptionSupported()} in order to return {@code true}.
+     *
+     * @param keys distinct keys
+     *
+     * @return the operation for the keys
+     */
+    protected MultiKeyCompareAndSwapOperation beginMultiKeyCompareAndSwapOperation(List<K> keys) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Begins compare-and-swap operation that reads and updates several independent keys by batches.
+     * Proxy-managers that override this method should also override {@link #isBatchCompareAndSwapSupported()} in order to return {@code true}.
+     *
+     * @param keys distinct keys
+     *
+     * @return the operation for the keys
+     */
+    protected AsyncBatchCompareAndSwapOperation beginAsyncBatchCompareAndSwapOperation(List<K> keys) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Describes whether this proxy-manager is able to execute {@link #executeBatch(List, List)} via {@link #beginAsyncBatchCompareAndSwapOperation(List)}.
+     * When it is supported, requests for different keys that were coalesced by {@link ClientSideConfig#withCrossKeyBatching(int)}
+     * are sent to the storage by one batch of reads followed by one batch of compare-and-swaps, instead of separate round trips for each key.
+     *
+     * @return {@code true} if this proxy-manager is able to process requests for several keys by batch compare-and-swap operations
+     */
+    protected boolean isBatchCompareAndSwapSupported() {
+        return false;
+    }
+
+    /**
+     * Describes whether this proxy-manager is able to use cache of last seen states, see {@link ClientSideConfig#withLastSeenStateCache(int)}.
+     *
+     * <p>
+     * When cache is used, {@link CompareAndSwapOperation#compareAndSwap(byte[], byte[], RemoteBucketState, Optional)} can be called
+     * without preceding call of {@link CompareAndSwapOperation#getStateData(Optional)}, with original data that was remembered by previous requests.
+     * So proxy-managers that override this method in order to return {@code true} must compare original data with actual data in the storage,
+     * and must not rely on anything captured by {@link CompareAndSwapOperation#getStateData(Optional)}, like a version token.
+     *
+     * @return {@code true} if this proxy-manager is able to use cache of last seen states
+     */
+    protected boolean isLastSeenStateCacheSupported() {
+        return false;
+    }
+
+    /**
+     * Extracts serialized bucket state from the data that is kept in the storage.
+     *
+     * <p>
+     * By default the storage keeps serialized state as is. Proxy-managers that keep some additional information together with the state,
+     * like a version stamp, should override this method together with {@link #toStoredData(byte[], byte[])}.
+     *
+     * @param storedData data that was read from the storage or remembered in the cache of last seen states, can be null
+     *
+     * @return serialized bucket state, or null if storedData is null
+     */
+    protected byte[] toStateBytes(byte[] storedData) {
+        return storedData;
+    }
+
+    /**
+     * Converts serialized bucket state into the data that should be written to the storage.
+     * The result is passed as {@code newData} to compare-and-swap operation,
+     * and as {@code originalData} to the next compare-and-swap operation when cache of last seen states is used.
+     *
+     * @param originalStoredData the data from which the state was read, can be null
+     * @param stateBytes new serialized bucket state
+     *
+     * @return the data that should be written to the storage
+     */
+    protected byte[] toStoredData(byte[] originalStoredData, byte[] stateBytes) {
+        return stateBytes;
+    }
+
+    @Override
+    protected boolean executeAllOrNothing(List<K> keys, List<Request<Boolean>> requests) {
+        Timeout timeout = Timeout.of(getClientSideConfig());
+        List<K> distinctKeys = distinctKeysInLockingOrder(keys);
+        MultiKeyCompareAndSwapOperation operation = timeout.call(requestTimeout -> beginMultiKeyCompareAndSwapOperation(distinctKeys));
+
+        Optional<RetryStrategy> retryStrategy = getClientSideConfig().getRetryStrategy();
+        Optional<Integer> maxRetries = getClientSideConfig().getMaxRetries();
+
+        long startTimeNanos = System.nanoTime();
+        int attempt = 0;
+        int maxAttempts = retryStrategy.isPresent() ? Integer.MAX_VALUE : maxRetries.orElse(Integer.MAX_VALUE);
+
+        while (attempt < maxAttempts) {
+            Boolean result = executeAllOrNothing(keys, requests, distinctKeys, operation, timeout);
+            if (result != null) {
+                return result;
+            }
+
+            if (retryStrategy.isPresent()) {
+                long currentTimeNanos = System.nanoTime();
+                RetryStrategy.RetryMetadata metadata = new RetryStrategy.RetryMetadata(
+                    attempt + 1, distinctKeys, startTimeNanos, currentTimeNanos
+                );
+                RetryDecision retryDecision = retryStrategy.get().shouldRetry(metadata);
+                if (!retryDecision.shouldRetry()) {
+                    throw BucketExceptions.maxRetriesExceeded(attempt + 1);
+                }
+                sleepBeforeRetry(timeout, retryDecision);
+            }
+
+            attempt++;
+        }
+
+        throw BucketExceptions.maxRetriesExceeded(maxAttempts);
+    }
+
+    @Override
+    protected boolean isCrossKeyBatchingSupported() {
+        return isBatchCompareAndSwapSupported();
+    }
+
+    @Override
+    protected List<CompletableFuture<CommandResult<?>>> executeBatch(List<K> keys, List<Request<?>> requests) {
+        if (!isBatchCompareAndSwapSupported() || keys.size() < 2) {
+            return super.executeBatch(keys, requests);
+        }
+        List<CompletableFuture<CommandResult<?>>> results = executeBatchAsync(keys, requests);
+        // failures are reported via individual futures
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).handle((nothing, error) -> null).join();
+        return results;
+    }
+
+    @Override
+    protected List<CompletableFuture<CommandResult<?>>> executeBatchAsync(List<K> keys, List<Request<?>> requests) {
+        if (!isBatchCompareAndSwapSupported() || keys.size() < 2) {
+            return super.executeBatchAsync(keys, requests);
+        }
+
+        // only first request for each key goes to the batch, next requests for the same key are executed after the previous one,
+        // because they would conflict with each other otherwise
+        Set<K> batchedKeySet = new HashSet<>();
+        boolean[] batched = new boolean[keys.size()];
+        List<K> batchedKeys = new ArrayList<>(keys.size());
+        List<Request<?>> batchedRequests = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            K key = keys.get(i);
+            if (batchedKeySet.add(key) && !isPessimistic(key)) {
+                batched[i] = true;
+                batchedKeys.add(key);
+                batchedRequests.add(requests.get(i));
+            }
+        }
+        List<CompletableFuture<CommandResult<?>>> batchedResults = batchedKeys.isEmpty() ? new ArrayList<>() : executeByBatch(batchedKeys, batchedRequests);
+
+        List<CompletableFuture<CommandResult<?>>> futures = new ArrayList<>(keys.size());
+        Map<K, CompletableFuture<CommandResult<?>>> lastFutures = new HashMap<>();
+        int batchedIndex = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            K key = keys.get(i);
+            Request<?> request = requests.get(i);
+            CompletableFuture<CommandResult<?>> future;
+            if (batched[i]) {
+                future = batchedResults.get(batchedIndex++);
+            } else {
+                CompletableFuture<CommandResult<?>> previous = lastFutures.get(key);
+                future = previous == null ? executeSingleAsync(key, request)
+                    : previous.handle((result, error) -> null).thenCompose(nothing -> executeSingleAsync(key, request));
+            }
+            lastFutures.put(key, future);
+            futures.add(future);
+        }
+        return futures;
+    }
+
+    private <T> CommandResult<T> execute(K key, Request<T> request, CompareAndSwapOperation operation, Timeout timeout) {
         RemoteCommand<T> command = request.getCommand();
         byte[] originalStateBytes = timeout.call(operation::getStateData).orElse(null);
-        MutableBucketEntry entry = new MutableBucketEntry(originalStateBytes);
+        MutableBucketEntry entry = new MutableBucketEntry(toStateBytes(originalStateBytes));
         CommandResult<T> result = command.execute(entry, getClientSideTime());
         if (!entry.isStateModified()) {
+            rememberState(key, originalStateBytes);
             return result;
         }
 
-        byte[] newStateBytes = entry.getStateBytes(request.getBackwardCompatibilityVersion());
+        byte[] newStateBytes = toStoredData(originalStateBytes, entry.getStateBytes(request));
         if (timeout.call(requestTimeout -> operation.compareAndSwap(originalStateBytes, newStateBytes, entry.get(), requestTimeout))) {
+            rememberState(key, newStateBytes);
+            return result;
+        } else {
+            return null;
+        }
+    }
+
+    private <T> CommandResult<T> executeAgainstLastSeenState(K key, Request<T> request, CompareAndSwapOperation operation, Timeout timeout) {
+        byte[] lastSeenStateBytes = lastSeenStateCache.get(key);
+        if (lastSeenStateBytes == null) {
+            stateCacheListener.onMiss();
+            return null;
+        }
+
+        MutableBucketEntry entry = new MutableBucketEntry(toStateBytes(lastSeenStateBytes));
+        CommandResult<T> result = request.getCommand().execute(entry, getClientSideTime());
+        if (!entry.isStateModified()) {
+            // result of read-only command can not be validated by compare-and-swap, so actual state needs to be read
+            stateCacheListener.onMiss();
+            return null;
+        }
+
+        byte[] newStateBytes = toStoredData(lastSeenStateBytes, entry.getStateBytes(request));
+        if (timeout.call(requestTimeout -> operation.compareAndSwap(lastSeenStateBytes, newStateBytes, entry.get(), requestTimeout))) {
+            lastSeenStateCache.put(key, newStateBytes);
+            stateCacheListener.onHit();
             return result;
         } else {
+            lastSeenStateCache.remove(key, lastSeenStateBytes);
+            stateCacheListener.onConflict();
             return null;
         }
     }
 
-    private <T> CompletableFuture<CommandResult<T>> retryIfCasWasUnsuccessful(AsyncCompareAndSwapOperation operation, Request<T> request, CommandResult<T> casResponse, Timeout timeout, int attemptCount, K key, long startTimeNanos) {
+    private <T> CompletableFuture<CommandResult<T>> executeAsyncAgainstLastSeenState(K key, Request<T> request, AsyncCompareAndSwapOperation operation, Timeout timeout) {
+        byte[] lastSeenStateBytes = lastSeenStateCache.get(key);
+        if (lastSeenStateBytes == null) {
+            stateCacheListener.onMiss();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        MutableBucketEntry entry = new MutableBucketEntry(toStateBytes(lastSeenStateBytes));
+        CommandResult<T> result = request.getCommand().execute(entry, getClientSideTime());
+        if (!entry.isStateModified()) {
+            // result of read-only command can not be validated by compare-and-swap, so actual state needs to be read
+            stateCacheListener.onMiss();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        byte[] newStateBytes = toStoredData(lastSeenStateBytes, entry.getStateBytes(request));
+        return timeout.callAsync(requestTimeout -> operation.compareAndSwap(lastSeenStateBytes, newStateBytes, entry.get(), requestTimeout))
+            .thenApply((casWasSuccessful) -> {
+                if (casWasSuccessful) {
+                    lastSeenStateCache.put(key, newStateBytes);
+                    stateCacheListener.onHit();
+                    return result;
+                } else {
+                    lastSeenStateCache.remove(key, lastSeenStateBytes);
+                    stateCacheListener.onConflict();
+                    return null;
+                }
+            });
+    }
+
+    private boolean isLastSeenStateCacheEnabled() {
+        return lastSeenStateCache != null && isLastSeenStateCacheSupported();
+    }
+
+    private void rememberState(K key, byte[] stateBytes) {
+        if (stateBytes != null && isLastSeenStateCacheEnabled()) {
+            lastSeenStateCache.put(key, stateBytes);
+        }
+    }
+
+    private Boolean executeAllOrNothing(List<K> keys, List<Request<Boolean>> requests, List<K> distinctKeys, MultiKeyCompareAndSwapOperation operation, Timeout timeout) {
+        List<byte[]> originalData = timeout.call(operation::getStateData);
+        Map<K, MutableBucketEntry> entries = new HashMap<>();
+        for (int i = 0; i < distinctKeys.size(); i++) {
+            entries.put(distinctKeys.get(i), new MutableBucketEntry(toStateBytes(originalData.get(i))));
+        }
+        if (!applyAllOrNothing(keys, requests, entries)) {
+            return false;
+        }
+
+        List<byte[]> newData = new ArrayList<>(distinctKeys.size());
+        List<RemoteBucketState> newStates = new ArrayList<>(distinctKeys.size());
+        for (int i = 0; i < distinctKeys.size(); i++) {
+            MutableBucketEntry entry = entries.get(distinctKeys.get(i));
+            newData.add(entry.isStateModified() ? toStoredData(originalData.get(i), entry.getStateBytes(requests.get(0))) : originalData.get(i));
+            newStates.add(entry.get());
+        }
+        if (timeout.call(requestTimeout -> operation.compareAndSwap(originalData, newData, newStates, requestTimeout))) {
+            for (int i = 0; i < distinctKeys.size(); i++) {
+                rememberState(distinctKeys.get(i), newData.get(i));
+            }
+            return true;
+        } else {
+            return null;
+        }
+    }
+
+    private List<CompletableFuture<CommandResult<?>>> executeByBatch(List<K> keys, List<Request<?>> requests) {
+        Timeout timeout = Timeout.of(getClientSideConfig());
+        int size = keys.size();
+        AsyncBatchCompareAndSwapOperation operation;
+        List<CompletableFuture<Optional<byte[]>>> stateFutures;
+        try {
+            operation = beginAsyncBatchCompareAndSwapOperation(keys);
+            stateFutures = timeout.call(operation::getStateData);
+        } catch (Throwable e) {
+            List<CompletableFuture<CommandResult<?>>> failedResults = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                failedResults.add(CompletableFuture.failedFuture(e));
+            }
+            return failedResults;
+        }
+
+        List<CompletableFuture<CommandResult<?>>> results = new ArrayList<>(size);
+        PendingSwap[] pendingSwaps = new PendingSwap[size];
+        CompletableFuture<?>[] processedStates = new CompletableFuture[size];
+        for (int i = 0; i < size; i++) {
+            int position = i;
+            K key = keys.get(i);
+            Request<?> request = requests.get(i);
+            CompletableFuture<CommandResult<?>> result = new CompletableFuture<>();
+            results.add(result);
+            // each result is completed as soon as reply for its key arrives, when command does not modify the state
+            processedStates[i] = stateFutures.get(i).handle((Optional<byte[]> state, Throwable error) -> {
+                if (error != null) {
+                    result.completeExceptionally(unwrap(error));
+                    return null;
+                }
+                try {
+                    byte[] originalStateBytes = state.orElse(null);
+                    MutableBucketEntry entry = new MutableBucketEntry(toStateBytes(originalStateBytes));
+                    CommandResult<?> commandResult = request.getCommand().execute(entry, getClientSideTime());
+                    if (!entry.isStateModified()) {
+                        rememberState(key, originalStateBytes);
+                        result.complete(commandResult);
+                    } else {
+                        byte[] newStateBytes = toStoredData(originalStateBytes, entry.getStateBytes(request));
+                        pendingSwaps[position] = new PendingSwap(originalStateBytes, newStateBytes, entry.get(), commandResult);
+                    }
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+                return null;
+            });
+        }
+        CompletableFuture.allOf(processedStates).whenComplete((nothing, error) -> swapByBatch(keys, requests, results, pendingSwaps, operation, timeout));
+        return results;
+    }
+
+    private void swapByBatch(List<K> keys, List<Request<?>> requests, List<CompletableFuture<CommandResult<?>>> results,
+                             PendingSwap[] pendingSwaps, AsyncBatchCompareAndSwapOperation operation, Timeout timeout) {
+        List<Integer> positions = new ArrayList<>(pendingSwaps.length);
+        List<byte[]> originalData = new ArrayList<>(pendingSwaps.length);
+        List<byte[]> newData = new ArrayList<>(pendingSwaps.length);
+        List<RemoteBucketState> newStates = new ArrayList<>(pendingSwaps.length);
+        for (int i = 0; i < pendingSwaps.length; i++) {
+            PendingSwap swap = pendingSwaps[i];
+            if (swap != null) {
+                positions.add(i);
+                originalData.add(swap.originalData);
+                newData.add(swap.newData);
+                newStates.add(swap.newState);
+            }
+        }
+        if (positions.isEmpty()) {
+            return;
+        }
+
+        List<CompletableFuture<Boolean>> swapFutures;
+        try {
+            swapFutures = timeout.call(requestTimeout -> operation.compareAndSwap(positions, originalData, newData, newStates, requestTimeout));
+        } catch (Throwable e) {
+            for (int position : positions) {
+                results.get(position).completeExceptionally(e);
+            }
+            return;
+        }
+
+        for (int i = 0; i < positions.size(); i++) {
+            int position = positions.get(i);
+            K key = keys.get(position);
+            PendingSwap swap = pendingSwaps[position];
+            CompletableFuture<CommandResult<?>> result = results.get(position);
+            swapFutures.get(i).whenComplete((casWasSuccessful, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(unwrap(error));
+                    return;
+                }
+                boolean swapped = Boolean.TRUE.equals(casWasSuccessful);
+                if (contentionTracker != null) {
+                    contentionTracker.onCompareAndSwapAttempt(key, swapped);
+                }
+                if (swapped) {
+                    rememberState(key, swap.newData);
+                    result.complete(swap.result);
+                } else {
+                    // conflict with parallel transaction, the request is retried in regular way, according to configured retry strategy
+                    executeSingleAsync(key, requests.get(position)).whenComplete((retryResult, retryError) -> {
+                        if (retryError != null) {
+                            result.completeExceptionally(unwrap(retryError));
+                        } else {
+                            result.complete(retryResult);
+                        }
+                    });
+                }
+            });
+        }
+    }
+
+    private CompletableFuture<CommandResult<?>> executeSingleAsync(K key, Request<?> request) {
+        CompletableFuture<? extends CommandResult<?>> future = executeAsync(key, request);
+        return (CompletableFuture<CommandResult<?>>) future;
+    }
+
+    private boolean isPessimistic(K key) {
+        return contentionTracker != null && contentionTracker.isPessimistic(key);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+
+    private <T> CompletableFuture<CommandResult<T>> retryIfCasWasUnsuccessful(AsyncCompareAndSwapOperation operation, Request<T> request, CommandResult<T> casResponse, Timeout timeout, int attemptCount, K key, long startTimeNanos, boolean trackContention) {
+        if (trackContention) {
+            contentionTracker.onCompareAndSwapAttempt(key, casResponse != UNSUCCESSFUL_CAS_RESULT);
+        }
         if (casResponse != UNSUCCESSFUL_CAS_RESULT) {
             return CompletableFuture.completedFuture(casResponse);
         }
@@ -137,8 +601,8 @@ public abstract class AbstractCompareAndSwapBasedProxyManager<K> extends Abstrac
                 failed.completeExceptionally(BucketExceptions.maxRetriesExceeded(attemptCount));
                 return failed;
             }
-            return delayRetry(timeout, retryDecision, () -> executeAsync(request, operation, timeout)
-                .thenCompose((CommandResult<T> response) -> retryIfCasWasUnsuccessful(operation, request, response, timeout, attemptCount + 1, key, startTimeNanos)));
+            return delayRetry(timeout, retryDecision, () -> executeAsync(key, request, operation, timeout)
+                .thenCompose((CommandResult<T> response) -> retryIfCasWasUnsuccessful(operation, request, response, timeout, attemptCount + 1, key, startTimeNanos, trackContention)));
         } else {
             // Fall back to max retries check
             Optional<Integer> maxRetries = getClientSideConfig().getMaxRetries();
@@ -149,23 +613,30 @@ public abstract class AbstractCompareAndSwapBasedProxyManager<K> extends Abstrac
             }
         }
 
-        return executeAsync(request, operation, timeout).thenCompose((CommandResult<T> response) -> retryIfCasWasUnsuccessful(operation, request, response, timeout, attemptCount + 1, key, startTimeNanos));
+        return executeAsync(key, request, operation, timeout).thenCompose((CommandResult<T> response) -> retryIfCasWasUnsuccessful(operation, request, response, timeout, attemptCount + 1, key, startTimeNanos, trackContention));
     }
 
-    private <T> CompletableFuture<CommandResult<T>> executeAsync(Request<T> request, AsyncCompareAndSwapOperation operation, Timeout timeout) {
+    private <T> CompletableFuture<CommandResult<T>> executeAsync(K key, Request<T> request, AsyncCompareAndSwapOperation operation, Timeout timeout) {
         return timeout.callAsync(operation::getStateData)
             .thenApply((Optional<byte[]> originalStateBytes) -> originalStateBytes.orElse(null))
             .thenCompose((byte[] originalStateBytes) -> {
                 RemoteCommand<T> command = request.getCommand();
-                MutableBucketEntry entry = new MutableBucketEntry(originalStateBytes);
+                MutableBucketEntry entry = new MutableBucketEntry(toStateBytes(originalStateBytes));
                 CommandResult<T> result = command.execute(entry, getClientSideTime());
                 if (!entry.isStateModified()) {
+                    rememberState(key, originalStateBytes);
                     return CompletableFuture.completedFuture(result);
                 }
 
-                byte[] newStateBytes = entry.getStateBytes(request.getBackwardCompatibilityVersion());
+                byte[] newStateBytes = toStoredData(originalStateBytes, entry.getStateBytes(request));
                 return timeout.callAsync(requestTimeout -> operation.compareAndSwap(originalStateBytes, newStateBytes, entry.get(), requestTimeout))
-                    .thenApply((casWasSuccessful) -> casWasSuccessful? result : null);
+                    .thenApply((casWasSuccessful) -> {
+                        if (!casWasSuccessful) {
+                            return null;
+                        }
+                        rememberState(key, newStateBytes);
+                        return result;
+                    });
             });
     }
 
@@ -206,4 +677,20 @@ public abstract class AbstractCompareAndSwapBasedProxyManager<K> extends Abstrac
         });
     }
 
+    private static class PendingSwap {
+
+        private final byte[] originalData;
+        private final byte[] newData;
+        private final RemoteBucketState newState;
+        private final CommandResult<?> result;
+
+        private PendingSwap(byte[] originalData, byte[] newData, RemoteBucketState newState, CommandResult<?> result) {
+            this.originalData = originalData;
+            this.newData = newData;
+            this.newState = newState;
+            this.result = result;
+        }
+
+    }
+
 }
@@ -0,0 +1,62 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Compare-and-swap operation that processes requests for several different keys by batches,
+ * used by {@link AbstractCompareAndSwapBasedProxyManager} in order to send reads and writes of many buckets through one pipeline.
+ *
+ * <p>
+ * In contrast to {@link MultiKeyCompareAndSwapOperation} keys are independent, swap of each key succeeds or fails separately from others.
+ * Elements of all lists are positioned in the same order as keys were passed to {@link AbstractCompareAndSwapBasedProxyManager#beginAsyncBatchCompareAndSwapOperation(List)},
+ * future of each element should be completed as soon as reply for the key is received, without waiting for replies of other keys.
+ */
+public interface AsyncBatchCompareAndSwapOperation {
+
+    /**
+     * Reads data of all keys by one batch
+     *
+     * @param timeoutNanos optional timeout in nanoseconds
+     *
+     * @return future of persisted data for each key, empty optional means that data for key does not exist
+     */
+    List<CompletableFuture<Optional<byte[]>>> getStateData(Optional<Long> timeoutNanos);
+
+    /**
+     * Compares and swaps data of several keys by one batch, data of each key must be changed only if it is equal to its original data.
+     *
+     * @param positions positions of keys which should be updated, other keys must not be touched
+     * @param originalData previous bucket states, {@code null} element means that data for key did not exist
+     * @param newData new bucket states
+     * @param newStates new states of buckets - can be used to extract additional data is useful for persistence or logging.
+     * @param timeoutNanos optional timeout in nanoseconds
+     *
+     * @return future for each position, completed by {@code true} if data changed,
+     *         or by {@code false} if another parallel transaction modified data of the key
+     */
+    List<CompletableFuture<Boolean>> compareAndSwap(List<Integer> positions, List<byte[]> originalData, List<byte[]> newData, List<RemoteBucketState> newStates, Optional<Long> timeoutNanos);
+
+}
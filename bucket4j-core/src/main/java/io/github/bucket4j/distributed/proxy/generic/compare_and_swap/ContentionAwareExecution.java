@@ -0,0 +1,166 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+import io.github.bucket4j.BucketExceptions;
+
+import java.util.Objects;
+
+/**
+ * Describes contention-aware execution for compare-and-swap based proxy managers.
+ *
+ * <p>
+ * By default, each request is executed optimistically: state is read, command is applied, result is written by compare-and-swap,
+ * and the whole cycle is repeated when compare-and-swap fails. When many threads of the same JVM hammer the same key,
+ * most of these cycles are wasted on conflicts with each other.
+ *
+ * <p>
+ * When contention-aware execution is enabled, proxy-manager tracks rate of compare-and-swap failures per key.
+ * As soon as rate of failures inside window of {@link #getWindowSize()} attempts reaches {@link #getConflictRateThreshold()},
+ * the key is switched to pessimistic mode: only one request per key is in flight at any time,
+ * and requests that arrive meanwhile are merged into single {@link io.github.bucket4j.distributed.remote.commands.MultiCommand}
+ * that is executed by the next compare-and-swap cycle. The key is switched back to optimistic mode
+ * when {@link #getWindowSize()} requests in a row were executed without any other request waiting for them.
+ *
+ * <p>
+ * Pessimistic mode coordinates only requests issued by the same proxy-manager instance,
+ * conflicts with other JVMs are still resolved by compare-and-swap.
+ */
+public final class ContentionAwareExecution {
+
+    public static final double DEFAULT_CONFLICT_RATE_THRESHOLD = 0.5;
+    public static final int DEFAULT_WINDOW_SIZE = 32;
+    public static final int DEFAULT_MAX_TRACKED_KEYS = 10_000;
+
+    private final double conflictRateThreshold;
+    private final int windowSize;
+    private final int maxTrackedKeys;
+    private final ContentionListener listener;
+
+    private ContentionAwareExecution(double conflictRateThreshold, int windowSize, int maxTrackedKeys, ContentionListener listener) {
+        if (!(conflictRateThreshold > 0.0 && conflictRateThreshold <= 1.0)) {
+            throw BucketExceptions.wrongConflictRateThreshold(conflictRateThreshold);
+        }
+        if (windowSize < 1) {
+            throw BucketExceptions.nonPositiveContentionWindowSize(windowSize);
+        }
+        if (maxTrackedKeys < 1) {
+            throw BucketExceptions.nonPositiveMaxTrackedKeys(maxTrackedKeys);
+        }
+        if (listener == null) {
+            throw BucketExceptions.nullListener();
+        }
+        this.conflictRateThreshold = conflictRateThreshold;
+        this.windowSize = windowSize;
+        this.maxTrackedKeys = maxTrackedKeys;
+        this.listener = listener;
+    }
+
+    /**
+     * Creates contention-aware execution with default parameters:
+     * {@link #DEFAULT_CONFLICT_RATE_THRESHOLD}, {@link #DEFAULT_WINDOW_SIZE} and {@link #DEFAULT_MAX_TRACKED_KEYS}.
+     *
+     * @return contention-aware execution with default parameters
+     */
+    public static ContentionAwareExecution createDefault() {
+        return of(DEFAULT_CONFLICT_RATE_THRESHOLD, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Creates contention-aware execution.
+     *
+     * @param conflictRateThreshold the rate of unsuccessful compare-and-swap attempts, in range {@code (0, 1]}, at which key is switched to pessimistic mode
+     * @param windowSize the amount of compare-and-swap attempts over which rate of failures is measured,
+     *                   and the amount of uncontended requests after which key is switched back to optimistic mode
+     *
+     * @return contention-aware execution with specified parameters
+     */
+    public static ContentionAwareExecution of(double conflictRateThreshold, int windowSize) {
+        return new ContentionAwareExecution(conflictRateThreshold, windowSize, DEFAULT_MAX_TRACKED_KEYS, NopeContentionListener.INSTANCE);
+    }
+
+    /**
+     * Returns copy of this contention-aware execution that tracks contention for at most {@code maxTrackedKeys} recently contended keys.
+     *
+     * @param maxTrackedKeys maximum amount of keys for which contention is tracked
+     *
+     * @return copy of this contention-aware execution with specified limit of tracked keys
+     */
+    public ContentionAwareExecution withMaxTrackedKeys(int maxTrackedKeys) {
+        return new ContentionAwareExecution(conflictRateThreshold, windowSize, maxTrackedKeys, listener);
+    }
+
+    /**
+     * Returns copy of this contention-aware execution that notifies {@code listener} about contention events.
+     *
+     * @param listener the listener of contention events
+     *
+     * @return copy of this contention-aware execution with specified listener
+     */
+    public ContentionAwareExecution withListener(ContentionListener listener) {
+        return new ContentionAwareExecution(conflictRateThreshold, windowSize, maxTrackedKeys, listener);
+    }
+
+    public double getConflictRateThreshold() {
+        return conflictRateThreshold;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public int getMaxTrackedKeys() {
+        return maxTrackedKeys;
+    }
+
+    public ContentionListener getListener() {
+        return listener;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ContentionAwareExecution that = (ContentionAwareExecution) o;
+        return Double.compare(that.conflictRateThreshold, conflictRateThreshold) == 0
+            && windowSize == that.windowSize
+            && maxTrackedKeys == that.maxTrackedKeys
+            && listener.equals(that.listener);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(conflictRateThreshold, windowSize, maxTrackedKeys, listener);
+    }
+
+    @Override
+    public String toString() {
+        return "ContentionAwareExecution{" +
+            "conflictRateThreshold=" + conflictRateThreshold +
+            ", windowSize=" + windowSize +
+            ", maxTrackedKeys=" + maxTrackedKeys +
+            '}';
+    }
+
+}
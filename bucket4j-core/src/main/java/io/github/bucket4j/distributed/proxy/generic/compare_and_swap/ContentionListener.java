@@ -0,0 +1,61 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+/**
+ * Monitoring listener for contention-aware execution, see {@link ContentionAwareExecution}.
+ */
+public interface ContentionListener {
+
+    /**
+     * Creates new instance of {@link DefaultContentionListener}
+     *
+     * @return new instance of {@link DefaultContentionListener}
+     *
+     * @see DefaultContentionListener
+     */
+    static ContentionListener createDefault() {
+        return new DefaultContentionListener();
+    }
+
+    /**
+     * This method is invoked every time when compare-and-swap was unsuccessful because state was concurrently modified.
+     */
+    void onConflict();
+
+    /**
+     * This method is invoked every time when key is switched to pessimistic mode, where requests for the key are executed one by one.
+     */
+    void onPessimisticModeEntered();
+
+    /**
+     * This method is invoked every time when key is switched back to optimistic mode.
+     */
+    void onPessimisticModeExited();
+
+    /**
+     * This method is invoked every time when several requests for the same key were merged into one compare-and-swap,
+     * instead of competing with each other.
+     *
+     * @param count amount of requests that were merged to another request
+     */
+    void incrementAvoidedConflictCount(int count);
+
+}
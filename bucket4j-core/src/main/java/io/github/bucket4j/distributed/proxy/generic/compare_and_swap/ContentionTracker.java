@@ -0,0 +1,64 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+import io.github.bucket4j.util.concurrent.StripedLruCache;
+
+import java.util.function.Function;
+
+/**
+ * Bounded registry of {@link KeyContention} for recently contended keys.
+ *
+ * <p>
+ * {@link KeyContention} is allocated only when first compare-and-swap conflict is detected for the key,
+ * so uncontended keys cost single lookup in striped cache.
+ *
+ * @param <K> type of key
+ */
+class ContentionTracker<K> {
+
+    private final StripedLruCache<K, KeyContention> contentions;
+    private final Function<K, KeyContention> factory;
+
+    ContentionTracker(int maxTrackedKeys, Function<K, KeyContention> factory) {
+        this.factory = factory;
+        this.contentions = new StripedLruCache<>(maxTrackedKeys);
+    }
+
+    /**
+     * Returns contention of the key, or {@code null} if no conflict was detected for the key recently.
+     */
+    KeyContention find(K key) {
+        return contentions.get(key);
+    }
+
+    boolean isPessimistic(K key) {
+        KeyContention contention = contentions.get(key);
+        return contention != null && contention.isPessimistic();
+    }
+
+    void onCompareAndSwapAttempt(K key, boolean successful) {
+        KeyContention contention = successful ? contentions.get(key) : contentions.computeIfAbsent(key, factory);
+        if (contention != null) {
+            contention.onCompareAndSwapAttempt(successful);
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The simple listener that just stores all events as AtomicLong counters and provides getters for them.
+ */
+public class DefaultContentionListener implements ContentionListener {
+
+    private final AtomicLong conflictCount = new AtomicLong();
+    private final AtomicLong pessimisticModeEnteredCount = new AtomicLong();
+    private final AtomicLong pessimisticModeExitedCount = new AtomicLong();
+    private final AtomicLong avoidedConflictCount = new AtomicLong();
+
+    @Override
+    public void onConflict() {
+        conflictCount.incrementAndGet();
+    }
+
+    @Override
+    public void onPessimisticModeEntered() {
+        pessimisticModeEnteredCount.incrementAndGet();
+    }
+
+    @Override
+    public void onPessimisticModeExited() {
+        pessimisticModeExitedCount.incrementAndGet();
+    }
+
+    @Override
+    public void incrementAvoidedConflictCount(int count) {
+        avoidedConflictCount.addAndGet(count);
+    }
+
+    public long getConflictCount() {
+        return conflictCount.get();
+    }
+
+    public long getPessimisticModeEnteredCount() {
+        return pessimisticModeEnteredCount.get();
+    }
+
+    public long getPessimisticModeExitedCount() {
+        return pessimisticModeExitedCount.get();
+    }
+
+    public long getAvoidedConflictCount() {
+        return avoidedConflictCount.get();
+    }
+
+}
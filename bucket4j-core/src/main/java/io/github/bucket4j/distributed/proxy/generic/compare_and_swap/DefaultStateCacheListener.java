@@ -0,0 +1,60 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The simple listener that just stores all events as AtomicLong counters and provides getters for them.
+ */
+public class DefaultStateCacheListener implements StateCacheListener {
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong conflictCount = new AtomicLong();
+
+    @Override
+    public void onHit() {
+        hitCount.incrementAndGet();
+    }
+
+    @Override
+    public void onMiss() {
+        missCount.incrementAndGet();
+    }
+
+    @Override
+    public void onConflict() {
+        conflictCount.incrementAndGet();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getConflictCount() {
+        return conflictCount.get();
+    }
+
+}
@@ -0,0 +1,163 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.MultiResult;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.distributed.remote.commands.MultiCommand;
+import io.github.bucket4j.util.concurrent.batch.AsyncBatchHelper;
+import io.github.bucket4j.util.concurrent.batch.BatchHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Tracks contention of single key and serializes requests for the key while it is in pessimistic mode.
+ */
+class KeyContention {
+
+    private final ContentionAwareExecution settings;
+    private final BatchHelper<Request<?>, CommandResult<?>, Request<MultiResult>, CommandResult<MultiResult>> batchHelper;
+    private final AsyncBatchHelper<Request<?>, CommandResult<?>, Request<MultiResult>, CommandResult<MultiResult>> asyncBatchHelper;
+
+    private volatile boolean pessimistic;
+
+    // guarded by this
+    private int attempts;
+    private int conflicts;
+    private int uncontendedRequests;
+
+    KeyContention(ContentionAwareExecution settings,
+                  Function<Request<?>, CommandResult<?>> executor,
+                  Function<Request<?>, CompletableFuture<? extends CommandResult<?>>> asyncExecutor) {
+        this.settings = settings;
+
+        Function<List<Request<?>>, Request<MultiResult>> taskCombiner = new Function<>() {
+            @Override
+            public Request<MultiResult> apply(List<Request<?>> requests) {
+                onSerializedExecution(requests.size());
+                return merge(requests);
+            }
+        };
+        BiFunction<Request<MultiResult>, CommandResult<MultiResult>, List<CommandResult<?>>> combinedResultSplitter = new BiFunction<>() {
+            @Override
+            public List<CommandResult<?>> apply(Request<MultiResult> request, CommandResult<MultiResult> multiResult) {
+                return ((MultiCommand) request.getCommand()).unwrap(multiResult);
+            }
+        };
+
+        Function<Request<?>, CommandResult<?>> taskExecutor = new Function<>() {
+            @Override
+            public CommandResult<?> apply(Request<?> request) {
+                onSerializedExecution(1);
+                return executor.apply(request);
+            }
+        };
+        Function<Request<MultiResult>, CommandResult<MultiResult>> combinedTaskExecutor = new Function<>() {
+            @Override
+            public CommandResult<MultiResult> apply(Request<MultiResult> request) {
+                return (CommandResult<MultiResult>) executor.apply(request);
+            }
+        };
+        this.batchHelper = BatchHelper.create(taskCombiner, combinedTaskExecutor, taskExecutor, combinedResultSplitter);
+
+        Function<Request<?>, CompletableFuture<CommandResult<?>>> asyncTaskExecutor = new Function<>() {
+            @Override
+            public CompletableFuture<CommandResult<?>> apply(Request<?> request) {
+                onSerializedExecution(1);
+                CompletableFuture<? extends CommandResult<?>> future = asyncExecutor.apply(request);
+                return (CompletableFuture<CommandResult<?>>) future;
+            }
+        };
+        Function<Request<MultiResult>, CompletableFuture<CommandResult<MultiResult>>> asyncCombinedTaskExecutor = new Function<>() {
+            @Override
+            public CompletableFuture<CommandResult<MultiResult>> apply(Request<MultiResult> request) {
+                CompletableFuture<? extends CommandResult<?>> future = asyncExecutor.apply(request);
+                return (CompletableFuture<CommandResult<MultiResult>>) future;
+            }
+        };
+        this.asyncBatchHelper = AsyncBatchHelper.create(taskCombiner, asyncCombinedTaskExecutor, asyncTaskExecutor, combinedResultSplitter);
+    }
+
+    boolean isPessimistic() {
+        return pessimistic;
+    }
+
+    <T> CommandResult<T> executeSerialized(Request<T> request) {
+        return (CommandResult<T>) batchHelper.execute(request);
+    }
+
+    <T> CompletableFuture<CommandResult<T>> executeSerializedAsync(Request<T> request) {
+        CompletableFuture<? extends CommandResult<?>> future = asyncBatchHelper.executeAsync(request);
+        return (CompletableFuture<CommandResult<T>>) future;
+    }
+
+    synchronized void onCompareAndSwapAttempt(boolean successful) {
+        if (!successful) {
+            settings.getListener().onConflict();
+        }
+        if (pessimistic) {
+            return;
+        }
+        attempts++;
+        if (!successful) {
+            conflicts++;
+        }
+        if (attempts < settings.getWindowSize()) {
+            return;
+        }
+        if (conflicts >= settings.getConflictRateThreshold() * attempts) {
+            pessimistic = true;
+            uncontendedRequests = 0;
+            settings.getListener().onPessimisticModeEntered();
+        }
+        attempts = 0;
+        conflicts = 0;
+    }
+
+    private synchronized void onSerializedExecution(int requestCount) {
+        if (requestCount > 1) {
+            uncontendedRequests = 0;
+            settings.getListener().incrementAvoidedConflictCount(requestCount - 1);
+            return;
+        }
+        uncontendedRequests++;
+        if (pessimistic && uncontendedRequests >= settings.getWindowSize()) {
+            pessimistic = false;
+            settings.getListener().onPessimisticModeExited();
+        }
+    }
+
+    private static Request<MultiResult> merge(List<Request<?>> requests) {
+        List<RemoteCommand<?>> commands = new ArrayList<>(requests.size());
+        for (Request<?> request : requests) {
+            commands.add(request.getCommand());
+        }
+        Request<?> first = requests.get(0);
+        return new Request<>(MultiCommand.merge(commands), first.getBackwardCompatibilityVersion(), first.getClientSideTime(),
+            first.getExpirationStrategy(), first.isCompactSerializationEnabled());
+    }
+
+}
@@ -0,0 +1,54 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+import io.github.bucket4j.util.concurrent.StripedLruCache;
+
+/**
+ * Bounded cache of state bytes that were last written or read by this client,
+ * used by compare-and-swap based proxy managers to skip reading of state before compare-and-swap.
+ *
+ * <p>
+ * Cache is striped in order to not serialize all requests of proxy-manager on single lock.
+ *
+ * @param <K> type of key
+ */
+class LastSeenStateCache<K> {
+
+    private final StripedLruCache<K, byte[]> states;
+
+    LastSeenStateCache(int maxSize) {
+        this.states = new StripedLruCache<>(maxSize);
+    }
+
+    byte[] get(K key) {
+        return states.get(key);
+    }
+
+    void put(K key, byte[] stateBytes) {
+        states.put(key, stateBytes);
+    }
+
+    void remove(K key, byte[] stateBytes) {
+        // state could be already replaced by concurrent request that has seen more recent state
+        states.remove(key, stateBytes);
+    }
+
+}
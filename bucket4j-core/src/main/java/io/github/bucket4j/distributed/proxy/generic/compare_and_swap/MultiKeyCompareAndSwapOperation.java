@@ -0,0 +1,55 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compare-and-swap operation that covers several keys at once,
+ * used by {@link AbstractCompareAndSwapBasedProxyManager} to consume tokens from several buckets atomically.
+ * Elements of all lists are positioned in the same order as keys were passed to {@link AbstractCompareAndSwapBasedProxyManager#beginMultiKeyCompareAndSwapOperation(List)}.
+ */
+public interface MultiKeyCompareAndSwapOperation {
+
+    /**
+     * Reads data of all keys
+     *
+     * @param timeoutNanos optional timeout in nanoseconds
+     *
+     * @return persisted data for each key, {@code null} element means that data for key does not exist
+     */
+    List<byte[]> getStateData(Optional<Long> timeoutNanos);
+
+    /**
+     * Compares and swaps data associated with all keys, data must be changed only if data of each key is equal to its original data.
+     *
+     * @param originalData previous bucket states, {@code null} element means that data for key did not exist
+     * @param newData new bucket states
+     * @param newStates new states of buckets - can be used to extract additional data is useful for persistence or logging.
+     * @param timeoutNanos optional timeout in nanoseconds
+     *
+     * @return {@code true} if data changed, {@code false} if another parallel transaction modified data of some key
+     */
+    boolean compareAndSwap(List<byte[]> originalData, List<byte[]> newData, List<RemoteBucketState> newStates, Optional<Long> timeoutNanos);
+
+}
@@ -0,0 +1,46 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+public class NopeContentionListener implements ContentionListener {
+
+    public static final NopeContentionListener INSTANCE = new NopeContentionListener();
+
+    @Override
+    public void onConflict() {
+        // do nothing
+    }
+
+    @Override
+    public void onPessimisticModeEntered() {
+        // do nothing
+    }
+
+    @Override
+    public void onPessimisticModeExited() {
+        // do nothing
+    }
+
+    @Override
+    public void incrementAvoidedConflictCount(int count) {
+        // do nothing
+    }
+
+}
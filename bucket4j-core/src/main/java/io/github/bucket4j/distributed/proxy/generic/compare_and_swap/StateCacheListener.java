@@ -0,0 +1,53 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap;
+
+/**
+ * Monitoring listener for cache of last seen states, see {@link io.github.bucket4j.distributed.proxy.ClientSideConfig#withLastSeenStateCache(int, StateCacheListener)}.
+ */
+public interface StateCacheListener {
+
+    /**
+     * Creates new instance of {@link DefaultStateCacheListener}
+     *
+     * @return new instance of {@link DefaultStateCacheListener}
+     *
+     * @see DefaultStateCacheListener
+     */
+    static StateCacheListener createDefault() {
+        return new DefaultStateCacheListener();
+    }
+
+    /**
+     * This method is invoked every time when request was completed against cached state, so reading of state from storage was skipped.
+     */
+    void onHit();
+
+    /**
+     * This method is invoked every time when request can not be executed against cached state, so state is read from storage.
+     */
+    void onMiss();
+
+    /**
+     * This method is invoked every time when cached state was found to be outdated by compare-and-swap, so state is read from storage.
+     */
+    void onConflict();
+
+}
@@ -32,6 +32,10 @@ import io.github.bucket4j.distributed.remote.Request;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
@@ -75,6 +79,87 @@ public abstract class AbstractLockBasedProxyManager<K> extends AbstractProxyMana
 
     protected abstract LockBasedTransaction allocateTransaction(K key, Optional<Long> timeoutNanos);
 
+    @Override
+    protected boolean isAtomicMultiKeyConsumptionSupported() {
+        return true;
+    }
+
+    @Override
+    protected boolean executeAllOrNothing(List<K> keys, List<Request<Boolean>> requests) {
+        Timeout timeout = Timeout.of(getClientSideConfig());
+        List<K> lockingOrder = distinctKeysInLockingOrder(keys);
+        List<LockBasedTransaction> transactions = new ArrayList<>(lockingOrder.size());
+        try {
+            return executeAllOrNothing(keys, requests, lockingOrder, transactions, timeout);
+        } finally {
+            for (LockBasedTransaction transaction : transactions) {
+                transaction.release();
+            }
+        }
+    }
+
+    private boolean executeAllOrNothing(List<K> keys, List<Request<Boolean>> requests, List<K> lockingOrder, List<LockBasedTransaction> transactions, Timeout timeout) {
+        // lock keys in deterministic order to avoid deadlocks with concurrent multi-key consumptions
+        List<LockBasedTransaction> begunTransactions = new ArrayList<>(lockingOrder.size());
+        Map<K, byte[]> persistedData = new HashMap<>();
+        try {
+            for (K key : lockingOrder) {
+                LockBasedTransaction transaction = timeout.call(requestTimeout -> allocateTransaction(key, requestTimeout));
+                transactions.add(transaction);
+                timeout.run(transaction::begin);
+                begunTransactions.add(transaction);
+                persistedData.put(key, timeout.call(transaction::lockAndGet));
+            }
+        } catch (Throwable t) {
+            unlockAndRollback(begunTransactions);
+            throw BucketExceptions.from(t);
+        }
+
+        boolean consumed;
+        try {
+            Map<K, MutableBucketEntry> entries = new HashMap<>();
+            for (K key : lockingOrder) {
+                entries.put(key, new MutableBucketEntry(persistedData.get(key)));
+            }
+            consumed = applyAllOrNothing(keys, requests, entries);
+            if (consumed) {
+                for (int i = 0; i < lockingOrder.size(); i++) {
+                    K key = lockingOrder.get(i);
+                    MutableBucketEntry entry = entries.get(key);
+                    if (!entry.isStateModified()) {
+                        continue;
+                    }
+                    LockBasedTransaction transaction = transactions.get(i);
+                    byte[] bytes = entry.getStateBytes(requests.get(0));
+                    if (persistedData.get(key) == null) {
+                        timeout.run(requestTimeout -> transaction.create(bytes, entry.get(), requestTimeout));
+                    } else {
+                        timeout.run(requestTimeout -> transaction.update(bytes, entry.get(), requestTimeout));
+                    }
+                }
+            }
+        } catch (Throwable t) {
+            unlockAndRollback(begunTransactions);
+            throw BucketExceptions.from(t);
+        }
+
+        if (!consumed) {
+            unlockAndRollback(begunTransactions);
+            return false;
+        }
+        for (int i = 0; i < transactions.size(); i++) {
+            LockBasedTransaction transaction = transactions.get(i);
+            try {
+                transaction.unlock();
+                timeout.run(transaction::commit);
+            } catch (Throwable t) {
+                unlockAndRollback(transactions.subList(i + 1, transactions.size()));
+                throw BucketExceptions.from(t);
+            }
+        }
+        return true;
+    }
+
     private <T> CommandResult<T> execute(Request<T> request, LockBasedTransaction transaction, Timeout timeout) {
         RemoteCommand<T> command = request.getCommand();
         timeout.run(transaction::begin);
@@ -98,7 +183,7 @@ public abstract class AbstractLockBasedProxyManager<K> extends AbstractProxyMana
             MutableBucketEntry entry = new MutableBucketEntry(persistedDataOnBeginOfTransaction);
             CommandResult<T> result = command.execute(entry, super.getClientSideTime());
             if (entry.isStateModified()) {
-                byte[] bytes = entry.getStateBytes(request.getBackwardCompatibilityVersion());
+                byte[] bytes = entry.getStateBytes(request);
                 if (persistedDataOnBeginOfTransaction == null) {
                     timeout.run(requestTimeout -> transaction.create(bytes, entry.get(), requestTimeout));
                 } else {
@@ -122,6 +207,20 @@ public abstract class AbstractLockBasedProxyManager<K> extends AbstractProxyMana
         }
     }
 
+    private void unlockAndRollback(List<LockBasedTransaction> transactions) {
+        Throwable error = null;
+        for (LockBasedTransaction transaction : transactions) {
+            try {
+                unlockAndRollback(transaction);
+            } catch (Throwable t) {
+                error = t;
+            }
+        }
+        if (error != null) {
+            throw BucketExceptions.from(error);
+        }
+    }
+
     private static ClientSideConfig injectTimeClock(ClientSideConfig clientSideConfig) {
         if (clientSideConfig.getClientSideClock().isPresent()) {
             return clientSideConfig;
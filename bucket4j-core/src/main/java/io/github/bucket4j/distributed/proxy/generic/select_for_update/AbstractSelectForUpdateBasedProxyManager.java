@@ -33,6 +33,10 @@ import io.github.bucket4j.distributed.remote.Request;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
@@ -85,6 +89,96 @@ public abstract class AbstractSelectForUpdateBasedProxyManager<K> extends Abstra
 
     protected abstract SelectForUpdateBasedTransaction allocateTransaction(K key, Optional<Long> timeoutNanos);
 
+    @Override
+    protected boolean isAtomicMultiKeyConsumptionSupported() {
+        return true;
+    }
+
+    @Override
+    protected boolean executeAllOrNothing(List<K> keys, List<Request<Boolean>> requests) {
+        Timeout timeout = Timeout.of(getClientSideConfig());
+        List<K> lockingOrder = distinctKeysInLockingOrder(keys);
+        while (true) {
+            List<SelectForUpdateBasedTransaction> transactions = new ArrayList<>(lockingOrder.size());
+            Optional<Boolean> result;
+            try {
+                result = executeAllOrNothing(keys, requests, lockingOrder, transactions, timeout);
+            } finally {
+                for (SelectForUpdateBasedTransaction transaction : transactions) {
+                    transaction.release();
+                }
+            }
+            if (result.isPresent()) {
+                return result.get();
+            }
+        }
+    }
+
+    /**
+     * @return empty optional if some row did not exist and has been inserted, so operation should be retried in the scope of new transactions
+     */
+    private Optional<Boolean> executeAllOrNothing(List<K> keys, List<Request<Boolean>> requests, List<K> lockingOrder,
+                                                  List<SelectForUpdateBasedTransaction> transactions, Timeout timeout) {
+        // lock keys in deterministic order to avoid deadlocks with concurrent multi-key consumptions
+        List<SelectForUpdateBasedTransaction> begunTransactions = new ArrayList<>(lockingOrder.size());
+        Map<K, MutableBucketEntry> entries = new HashMap<>();
+        try {
+            for (K key : lockingOrder) {
+                SelectForUpdateBasedTransaction transaction = timeout.call(timeoutNanos -> allocateTransaction(key, timeoutNanos));
+                transactions.add(transaction);
+                timeout.run(transaction::begin);
+                begunTransactions.add(transaction);
+                LockAndGetResult lockResult = timeout.call(transaction::tryLockAndGet);
+                if (!lockResult.isLocked()) {
+                    // insert data that can be locked in next transaction
+                    begunTransactions.remove(transaction);
+                    rollback(begunTransactions);
+                    begunTransactions.clear();
+                    insertEmptyData(transaction, timeout);
+                    return Optional.empty();
+                }
+                entries.put(key, new MutableBucketEntry(lockResult.getData()));
+            }
+        } catch (Throwable t) {
+            rollback(begunTransactions);
+            throw BucketExceptions.from(t);
+        }
+
+        boolean consumed;
+        try {
+            consumed = applyAllOrNothing(keys, requests, entries);
+            if (consumed) {
+                for (int i = 0; i < lockingOrder.size(); i++) {
+                    MutableBucketEntry entry = entries.get(lockingOrder.get(i));
+                    if (!entry.isStateModified()) {
+                        continue;
+                    }
+                    SelectForUpdateBasedTransaction transaction = transactions.get(i);
+                    RemoteBucketState modifiedState = entry.get();
+                    byte[] bytes = entry.getStateBytes(requests.get(0));
+                    timeout.run(threshold -> transaction.update(bytes, modifiedState, threshold));
+                }
+            }
+        } catch (Throwable t) {
+            rollback(begunTransactions);
+            throw BucketExceptions.from(t);
+        }
+
+        if (!consumed) {
+            rollback(begunTransactions);
+            return Optional.of(false);
+        }
+        for (int i = 0; i < transactions.size(); i++) {
+            try {
+                timeout.run(transactions.get(i)::commit);
+            } catch (Throwable t) {
+                rollback(transactions.subList(i + 1, transactions.size()));
+                throw BucketExceptions.from(t);
+            }
+        }
+        return Optional.of(true);
+    }
+
     private <T> CommandResult<T> execute(Request<T> request, SelectForUpdateBasedTransaction transaction, Timeout timeout) {
         RemoteCommand<T> command = request.getCommand();
         timeout.run(transaction::begin);
@@ -126,7 +220,7 @@ public abstract class AbstractSelectForUpdateBasedProxyManager<K> extends Abstra
             CommandResult<T> result = command.execute(entry, super.getClientSideTime());
             if (entry.isStateModified()) {
                 RemoteBucketState modifiedState = entry.get();
-                byte[] bytes = entry.getStateBytes(request.getBackwardCompatibilityVersion());
+                byte[] bytes = entry.getStateBytes(request);
                 timeout.run(threshold -> transaction.update(bytes, modifiedState, threshold));
             }
             timeout.run(transaction::commit);
@@ -137,6 +231,33 @@ public abstract class AbstractSelectForUpdateBasedProxyManager<K> extends Abstra
         }
     }
 
+    private void insertEmptyData(SelectForUpdateBasedTransaction transaction, Timeout timeout) {
+        try {
+            if (timeout.call(transaction::tryInsertEmptyData)) {
+                timeout.run(transaction::commit);
+            } else {
+                transaction.rollback();
+            }
+        } catch (Throwable t) {
+            transaction.rollback();
+            throw BucketExceptions.from(t);
+        }
+    }
+
+    private void rollback(List<SelectForUpdateBasedTransaction> transactions) {
+        Throwable error = null;
+        for (SelectForUpdateBasedTransaction transaction : transactions) {
+            try {
+                transaction.rollback();
+            } catch (Throwable t) {
+                error = t;
+            }
+        }
+        if (error != null) {
+            throw BucketExceptions.from(error);
+        }
+    }
+
     private static ClientSideConfig injectTimeClock(ClientSideConfig clientSideConfig) {
         if (clientSideConfig.getClientSideClock().isPresent()) {
             return clientSideConfig;
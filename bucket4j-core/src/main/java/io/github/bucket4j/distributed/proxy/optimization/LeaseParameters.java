@@ -0,0 +1,58 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.optimization;
+
+import io.github.bucket4j.BucketExceptions;
+import io.github.bucket4j.distributed.proxy.optimization.leasing.LeasingOptimization;
+
+import java.time.Duration;
+
+/**
+ * Describes parameters for {@link LeasingOptimization}.
+ *
+ * @see LeasingOptimization
+ * @see Optimizations#leasing(LeaseParameters)
+ */
+public class LeaseParameters {
+
+    public final long maxLeaseTokens;
+    public final long leaseDurationNanos;
+
+    /**
+     * Creates the new instance of {@link LeaseParameters}
+     *
+     * @param maxLeaseTokens the upper bound for amount of tokens that bucket proxy withdraws from external storage at once in order to serve requests locally. Must be a positive number.
+     * @param leaseDuration how long bucket proxy can serve requests from withdrawn tokens, unused tokens are returned to external storage when lease expires. Must be a positive duration.
+     */
+    public LeaseParameters(long maxLeaseTokens, Duration leaseDuration) {
+        if (maxLeaseTokens <= 0) {
+            throw BucketExceptions.nonPositiveTokensForLeaseParameters(maxLeaseTokens);
+        }
+        if (leaseDuration == null) {
+            throw BucketExceptions.nullLeaseDurationForLeaseParameters();
+        }
+        if (leaseDuration.isNegative() || leaseDuration.isZero()) {
+            throw BucketExceptions.nonPositiveLeaseDurationForLeaseParameters(leaseDuration);
+        }
+        this.maxLeaseTokens = maxLeaseTokens;
+        this.leaseDurationNanos = leaseDuration.toNanos();
+    }
+
+}
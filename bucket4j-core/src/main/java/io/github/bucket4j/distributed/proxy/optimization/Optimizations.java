@@ -23,6 +23,7 @@ import io.github.bucket4j.TimeMeter;
 import io.github.bucket4j.distributed.proxy.optimization.batch.BatchingOptimization;
 import io.github.bucket4j.distributed.proxy.optimization.predictive.PredictiveOptimization;
 import io.github.bucket4j.distributed.proxy.optimization.delay.DelayOptimization;
+import io.github.bucket4j.distributed.proxy.optimization.leasing.LeasingOptimization;
 
 /**
  * Provides factory methods for all request optimizations that are built-in into Bucket4j library.
@@ -30,6 +31,7 @@ import io.github.bucket4j.distributed.proxy.optimization.delay.DelayOptimization
  * @see BatchingOptimization
  * @see DelayOptimization
  * @see PredictiveOptimization
+ * @see LeasingOptimization
  * @see OptimizationListener
  */
 public class Optimizations {
@@ -90,4 +92,21 @@ public class Optimizations {
         return new PredictiveOptimization(defaultPrediction, delayParameters, NopeOptimizationListener.INSTANCE, TimeMeter.SYSTEM_MILLISECONDS);
     }
 
+    /**
+     * Creates optimization that withdraws tokens from external storage in advance and serves {@code tryConsume} requests locally from withdrawn tokens.
+     * In contrast to {@link #delaying(DelayParameters)} and {@link #predicting(DelayParameters)} this optimization never exceeds the limits.
+     *
+     * The returned optimization should be shared between buckets and closed on shutdown, see {@link LeasingOptimization#close()}.
+     *
+     * @param leaseParameters parameters that control how many tokens can be withdrawn at once and for how long
+     *
+     * @return new instance of {@link LeasingOptimization}
+     *
+     * @see LeasingOptimization
+     * @see LeaseParameters
+     */
+    public static LeasingOptimization leasing(LeaseParameters leaseParameters) {
+        return new LeasingOptimization(leaseParameters, NopeOptimizationListener.INSTANCE, TimeMeter.SYSTEM_MILLISECONDS);
+    }
+
 }
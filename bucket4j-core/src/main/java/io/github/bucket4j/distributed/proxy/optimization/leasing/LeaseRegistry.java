@@ -0,0 +1,157 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.optimization.leasing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Tracks executors that hold unused tokens of the lease, and returns these tokens to external storage
+ * without waiting for the next request of the bucket:
+ * <ul>
+ *     <li>expired leases are returned by dedicated daemon thread, that checks leases once per lease duration;</li>
+ *     <li>all leases are returned by {@link #close()} and by JVM shutdown hook.</li>
+ * </ul>
+ * The thread and the shutdown hook exist only while at least one lease is held: both are installed by the first lease,
+ * and removed as soon as the thread observes that all leases were returned, so idle registries do not hold any resources.
+ * Executors are referenced only while they hold the lease, so buckets that are not used anymore are not retained longer than their lease.
+ */
+class LeaseRegistry {
+
+    private final Set<LeasingCommandExecutor> leasedExecutors = ConcurrentHashMap.newKeySet();
+    private final long checkIntervalNanos;
+
+    private volatile boolean closed;
+
+    // guarded by this
+    private Thread returner;
+    private Thread shutdownHook;
+
+    LeaseRegistry(long checkIntervalNanos) {
+        this.checkIntervalNanos = checkIntervalNanos;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void register(LeasingCommandExecutor executor) {
+        leasedExecutors.add(executor);
+        startReturnerIfNeeded();
+    }
+
+    void unregister(LeasingCommandExecutor executor) {
+        leasedExecutors.remove(executor);
+    }
+
+    void returnExpiredLeases() {
+        for (LeasingCommandExecutor executor : leasedExecutors) {
+            try {
+                executor.returnLease(true);
+            } catch (RuntimeException e) {
+                // tokens that can not be returned are lost in the same way as when node crashes, so there is nothing to do
+            }
+        }
+    }
+
+    void returnAllLeases() {
+        List<CompletableFuture<?>> returns = new ArrayList<>(leasedExecutors.size());
+        for (LeasingCommandExecutor executor : leasedExecutors) {
+            try {
+                returns.add(executor.returnLease(false));
+            } catch (RuntimeException e) {
+                // tokens that can not be returned are lost in the same way as when node crashes, so there is nothing to do
+            }
+        }
+        for (CompletableFuture<?> future : returns) {
+            try {
+                future.join();
+            } catch (RuntimeException e) {
+                // the same as above
+            }
+        }
+    }
+
+    void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (returner != null) {
+                LockSupport.unpark(returner);
+            }
+            stopReturner();
+        }
+        returnAllLeases();
+    }
+
+    // visible for testing
+    synchronized boolean isReturnerRunning() {
+        return returner != null;
+    }
+
+    private synchronized void startReturnerIfNeeded() {
+        if (returner != null || closed) {
+            return;
+        }
+        returner = new Thread(this::returnExpiredLeasesPeriodically, "bucket4j-lease-returner");
+        returner.setDaemon(true);
+        returner.start();
+
+        shutdownHook = new Thread(this::returnAllLeases, "bucket4j-lease-returner-on-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    private void returnExpiredLeasesPeriodically() {
+        while (true) {
+            LockSupport.parkNanos(this, checkIntervalNanos);
+            if (closed) {
+                return;
+            }
+            returnExpiredLeases();
+            synchronized (this) {
+                // executors are added before the check in register, so lease that is taken concurrently either is seen here or starts new thread
+                if (closed || leasedExecutors.isEmpty()) {
+                    stopReturner();
+                    return;
+                }
+            }
+        }
+    }
+
+    // guarded by this
+    private void stopReturner() {
+        returner = null;
+        if (shutdownHook != null) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // JVM is shutting down already, so hook is running right now
+            }
+            shutdownHook = null;
+        }
+    }
+
+}
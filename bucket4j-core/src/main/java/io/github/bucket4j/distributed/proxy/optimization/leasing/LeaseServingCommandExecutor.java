@@ -0,0 +1,80 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.optimization.leasing;
+
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.proxy.AsyncCommandExecutor;
+import io.github.bucket4j.distributed.proxy.CommandExecutor;
+import io.github.bucket4j.distributed.proxy.optimization.OptimizationListener;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Serves requests from the lease without entering the batching queue, and delegates to batching executor otherwise.
+ */
+class LeaseServingCommandExecutor implements CommandExecutor, AsyncCommandExecutor {
+
+    private final LeasingCommandExecutor leasingExecutor;
+    private final CommandExecutor batchingExecutor;
+    private final AsyncCommandExecutor asyncBatchingExecutor;
+    private final OptimizationListener listener;
+    private final TimeMeter timeMeter;
+
+    LeaseServingCommandExecutor(LeasingCommandExecutor leasingExecutor, CommandExecutor batchingExecutor, OptimizationListener listener, TimeMeter timeMeter) {
+        this.leasingExecutor = leasingExecutor;
+        this.batchingExecutor = batchingExecutor;
+        this.asyncBatchingExecutor = null;
+        this.listener = listener;
+        this.timeMeter = timeMeter;
+    }
+
+    LeaseServingCommandExecutor(LeasingCommandExecutor leasingExecutor, AsyncCommandExecutor asyncBatchingExecutor, OptimizationListener listener, TimeMeter timeMeter) {
+        this.leasingExecutor = leasingExecutor;
+        this.batchingExecutor = null;
+        this.asyncBatchingExecutor = asyncBatchingExecutor;
+        this.listener = listener;
+        this.timeMeter = timeMeter;
+    }
+
+    @Override
+    public <T> CommandResult<T> execute(RemoteCommand<T> command) {
+        CommandResult<T> localResult = leasingExecutor.tryServeFromLease(command, timeMeter.currentTimeNanos());
+        if (localResult != null) {
+            // remote call is not needed
+            listener.incrementSkipCount(1);
+            return localResult;
+        }
+        return batchingExecutor.execute(command);
+    }
+
+    @Override
+    public <T> CompletableFuture<CommandResult<T>> executeAsync(RemoteCommand<T> command) {
+        CommandResult<T> localResult = leasingExecutor.tryServeFromLease(command, timeMeter.currentTimeNanos());
+        if (localResult != null) {
+            // remote call is not needed
+            listener.incrementSkipCount(1);
+            return CompletableFuture.completedFuture(localResult);
+        }
+        return asyncBatchingExecutor.executeAsync(command);
+    }
+
+}
@@ -0,0 +1,281 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.optimization.leasing;
+
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.proxy.AsyncCommandExecutor;
+import io.github.bucket4j.distributed.proxy.CommandExecutor;
+import io.github.bucket4j.distributed.proxy.optimization.LeaseParameters;
+import io.github.bucket4j.distributed.proxy.optimization.OptimizationListener;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.MultiResult;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import io.github.bucket4j.distributed.remote.commands.AddTokensCommand;
+import io.github.bucket4j.distributed.remote.commands.ConsumeAsMuchAsPossibleCommand;
+import io.github.bucket4j.distributed.remote.commands.MultiCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Keeps the lease of tokens withdrawn from external storage.
+ *
+ * <p>
+ * Each remote request is sent as {@link MultiCommand} that consists from three parts:
+ * <ul>
+ *     <li>{@link AddTokensCommand} that returns unused tokens of previous lease, if any;</li>
+ *     <li>original command;</li>
+ *     <li>{@link ConsumeAsMuchAsPossibleCommand} that withdraws next lease, if original command consumes tokens.</li>
+ * </ul>
+ * So the lease protocol is built from commands that every backend already supports, and does not require new protocol version.
+ *
+ * <p>
+ * While executor holds the lease it is tracked by {@link LeaseRegistry}, that returns the lease by {@link #returnLease(boolean)}
+ * when lease expires or when optimization is closed.
+ */
+class LeasingCommandExecutor implements CommandExecutor, AsyncCommandExecutor {
+
+    private final CommandExecutor originalExecutor;
+    private final AsyncCommandExecutor originalAsyncExecutor;
+    private final LeaseParameters leaseParameters;
+    private final OptimizationListener listener;
+    private final TimeMeter timeMeter;
+    private final LeaseRegistry registry;
+
+    // guarded by this
+    private long leasedTokens;
+    private long leaseExpirationNanos;
+    private long leaseAcquisitionTimeNanos;
+    private long consumedFromLease;
+    private boolean leasedBefore;
+
+    LeasingCommandExecutor(CommandExecutor originalExecutor, LeaseParameters leaseParameters, OptimizationListener listener, TimeMeter timeMeter, LeaseRegistry registry) {
+        this.originalExecutor = originalExecutor;
+        this.originalAsyncExecutor = null;
+        this.leaseParameters = leaseParameters;
+        this.listener = listener;
+        this.timeMeter = timeMeter;
+        this.registry = registry;
+    }
+
+    LeasingCommandExecutor(AsyncCommandExecutor originalAsyncExecutor, LeaseParameters leaseParameters, OptimizationListener listener, TimeMeter timeMeter, LeaseRegistry registry) {
+        this.originalExecutor = null;
+        this.originalAsyncExecutor = originalAsyncExecutor;
+        this.leaseParameters = leaseParameters;
+        this.listener = listener;
+        this.timeMeter = timeMeter;
+        this.registry = registry;
+    }
+
+    @Override
+    public <T> CommandResult<T> execute(RemoteCommand<T> command) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        CommandResult<T> localResult = tryServeFromLease(command, currentTimeNanos);
+        if (localResult != null) {
+            // lease was renewed by previous batch
+            listener.incrementSkipCount(1);
+            return localResult;
+        }
+
+        LeaseRenewal renewal = prepareRenewal(command, currentTimeNanos);
+        CommandResult<MultiResult> remoteResult;
+        try {
+            remoteResult = originalExecutor.execute(renewal.remoteCommand);
+        } catch (RuntimeException e) {
+            renewal.fail();
+            throw e;
+        }
+        return renewal.complete(remoteResult);
+    }
+
+    @Override
+    public <T> CompletableFuture<CommandResult<T>> executeAsync(RemoteCommand<T> command) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        CommandResult<T> localResult = tryServeFromLease(command, currentTimeNanos);
+        if (localResult != null) {
+            // lease was renewed by previous batch
+            listener.incrementSkipCount(1);
+            return CompletableFuture.completedFuture(localResult);
+        }
+
+        LeaseRenewal renewal = prepareRenewal(command, currentTimeNanos);
+        CompletableFuture<CommandResult<MultiResult>> resultFuture;
+        try {
+            resultFuture = originalAsyncExecutor.executeAsync(renewal.remoteCommand);
+        } catch (RuntimeException e) {
+            renewal.fail();
+            throw e;
+        }
+        return resultFuture.whenComplete((result, error) -> {
+            if (error != null) {
+                renewal.fail();
+            }
+        }).thenApply(renewal::complete);
+    }
+
+    <T> CommandResult<T> tryServeFromLease(RemoteCommand<T> command, long currentTimeNanos) {
+        if (!(command instanceof TryConsumeCommand)) {
+            return null;
+        }
+        long tokensToConsume = ((TryConsumeCommand) command).getTokensToConsume();
+        synchronized (this) {
+            if (leasedTokens < tokensToConsume || currentTimeNanos >= leaseExpirationNanos) {
+                return null;
+            }
+            leasedTokens -= tokensToConsume;
+            consumedFromLease += tokensToConsume;
+        }
+        return (CommandResult<T>) CommandResult.TRUE;
+    }
+
+    private synchronized LeaseRenewal prepareRenewal(RemoteCommand<?> command, long currentTimeNanos) {
+        long unusedTokens = leasedTokens;
+        leasedTokens = 0;
+        registry.unregister(this);
+
+        long tokensToLease = 0;
+        long commandTokens = command.estimateTokensToConsume();
+        if (commandTokens > 0 && commandTokens != Long.MAX_VALUE && !registry.isClosed()) {
+            tokensToLease = calculateNextLeaseSize(commandTokens, currentTimeNanos);
+        }
+
+        List<RemoteCommand<?>> commands = new ArrayList<>(3);
+        if (unusedTokens > 0) {
+            commands.add(new AddTokensCommand(unusedTokens));
+        }
+        int originalCommandIndex = commands.size();
+        commands.add(command);
+        if (tokensToLease > 0) {
+            commands.add(new ConsumeAsMuchAsPossibleCommand(tokensToLease));
+        }
+        return new LeaseRenewal(new MultiCommand(commands), originalCommandIndex, tokensToLease > 0, unusedTokens);
+    }
+
+    private long calculateNextLeaseSize(long commandTokens, long currentTimeNanos) {
+        if (!leasedBefore) {
+            return 1;
+        }
+        // extrapolate local consumption rate observed since previous lease to the lease duration
+        double consumedTokens = (double) consumedFromLease + commandTokens;
+        long elapsedNanos = Math.max(1L, currentTimeNanos - leaseAcquisitionTimeNanos);
+        double expectedTokens = consumedTokens * leaseParameters.leaseDurationNanos / elapsedNanos;
+        if (expectedTokens >= leaseParameters.maxLeaseTokens) {
+            return leaseParameters.maxLeaseTokens;
+        }
+        return Math.max(1L, (long) Math.ceil(expectedTokens));
+    }
+
+    private synchronized void rememberLease(long grantedTokens, boolean leaseRequested) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        leasedTokens = grantedTokens;
+        consumedFromLease = 0;
+        leaseAcquisitionTimeNanos = currentTimeNanos;
+        leaseExpirationNanos = currentTimeNanos + leaseParameters.leaseDurationNanos;
+        leasedBefore = leasedBefore || leaseRequested;
+        if (grantedTokens > 0) {
+            registry.register(this);
+        } else {
+            registry.unregister(this);
+        }
+    }
+
+    /**
+     * Returns unused tokens of the lease to external storage.
+     *
+     * @param onlyExpired if {@code true} then lease is returned only when it is expired
+     *
+     * @return future that is completed when tokens are returned
+     */
+    CompletableFuture<?> returnLease(boolean onlyExpired) {
+        long unusedTokens;
+        synchronized (this) {
+            if (leasedTokens == 0 || (onlyExpired && timeMeter.currentTimeNanos() < leaseExpirationNanos)) {
+                return CompletableFuture.completedFuture(null);
+            }
+            unusedTokens = leasedTokens;
+            leasedTokens = 0;
+            registry.unregister(this);
+        }
+
+        AddTokensCommand command = new AddTokensCommand(unusedTokens);
+        if (originalExecutor != null) {
+            return CompletableFuture.completedFuture(originalExecutor.execute(command));
+        } else {
+            return originalAsyncExecutor.executeAsync(command);
+        }
+    }
+
+    private synchronized void restoreLease(long unusedTokens) {
+        // tokens of previous lease were sent back together with failed request, keep them leased,
+        // so they will be returned by next request or by registry instead of being lost
+        leasedTokens += unusedTokens;
+        if (leasedTokens > 0) {
+            registry.register(this);
+        }
+    }
+
+    private class LeaseRenewal {
+
+        private final MultiCommand remoteCommand;
+        private final int originalCommandIndex;
+        private final boolean leaseRequested;
+        private final long returnedTokens;
+
+        private LeaseRenewal(MultiCommand remoteCommand, int originalCommandIndex, boolean leaseRequested, long returnedTokens) {
+            this.remoteCommand = remoteCommand;
+            this.originalCommandIndex = originalCommandIndex;
+            this.leaseRequested = leaseRequested;
+            this.returnedTokens = returnedTokens;
+        }
+
+        private void fail() {
+            if (returnedTokens > 0) {
+                restoreLease(returnedTokens);
+            }
+        }
+
+        private <T> CommandResult<T> complete(CommandResult<MultiResult> remoteResult) {
+            if (remoteResult.isError()) {
+                rememberLease(0, false);
+                return (CommandResult<T>) remoteResult;
+            }
+            List<CommandResult<?>> results = remoteResult.getData().getResults();
+            CommandResult<T> originalResult = (CommandResult<T>) results.get(originalCommandIndex);
+            if (originalResult.isError()) {
+                // for example bucket is not created yet, so lease was not taken
+                rememberLease(0, false);
+                return originalResult;
+            }
+            long grantedTokens = 0;
+            if (leaseRequested) {
+                CommandResult<?> leaseResult = results.get(originalCommandIndex + 1);
+                if (!leaseResult.isError()) {
+                    grantedTokens = (Long) leaseResult.getData();
+                }
+            }
+            rememberLease(grantedTokens, leaseRequested);
+            return originalResult;
+        }
+
+    }
+
+}
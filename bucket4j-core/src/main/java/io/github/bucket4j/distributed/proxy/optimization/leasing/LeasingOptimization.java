@@ -0,0 +1,100 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.proxy.optimization.leasing;
+
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.proxy.AsyncCommandExecutor;
+import io.github.bucket4j.distributed.proxy.CommandExecutor;
+import io.github.bucket4j.distributed.proxy.optimization.LeaseParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimization;
+import io.github.bucket4j.distributed.proxy.optimization.OptimizationListener;
+import io.github.bucket4j.distributed.proxy.optimization.batch.AsyncBatchingExecutor;
+import io.github.bucket4j.distributed.proxy.optimization.batch.BatchingExecutor;
+import io.github.bucket4j.distributed.proxy.optimization.batch.BatchingOptimization;
+import io.github.bucket4j.distributed.proxy.optimization.delay.DelayOptimization;
+
+/**
+ * Optimization that withdraws tokens from external storage in advance (leases them) and serves {@code tryConsume} requests locally from the lease.
+ *
+ * <p>
+ * In contrast to {@link DelayOptimization}, tokens are consumed in external storage before they are served locally,
+ * so limits are never exceeded regardless of how many nodes use the bucket.
+ * The price for exactness is that leased and not yet used tokens are unavailable for other nodes until the lease is returned.
+ * Size of each lease is chosen adaptively from the local consumption rate, so the lease covers roughly {@link LeaseParameters#leaseDurationNanos}
+ * of local traffic, but never exceeds {@link LeaseParameters#maxLeaseTokens}.
+ *
+ * <p>
+ * Unused tokens are returned to external storage together with the next request that can not be served from the lease,
+ * this happens when lease is exhausted, when lease is expired, or when any request other than {@code tryConsume} is executed.
+ * Leases that expire without further requests are returned by daemon thread, and all leases are returned by {@link #close()} or by JVM shutdown hook.
+ * The thread and the hook exist only while at least one lease is held, so instance that is not closed does not leak resources after buckets become idle,
+ * but it still should be shared between buckets and closed together with proxy-manager in order to return leases as soon as possible.
+ * Call {@link io.github.bucket4j.distributed.OptimizationController#syncImmediately()} in order to return the lease of particular bucket explicitly.
+ *
+ * <p>
+ * This optimization is based on top of {@link BatchingOptimization}, so multiple parallel request to same bucket that can not be served from the lease are grouped.
+ *
+ * @see LeaseParameters
+ */
+public class LeasingOptimization implements Optimization, AutoCloseable {
+
+    private final LeaseParameters leaseParameters;
+    private final OptimizationListener listener;
+    private final TimeMeter timeMeter;
+    private final LeaseRegistry registry;
+
+    public LeasingOptimization(LeaseParameters leaseParameters, OptimizationListener listener, TimeMeter timeMeter) {
+        this(leaseParameters, listener, timeMeter, new LeaseRegistry(leaseParameters.leaseDurationNanos));
+    }
+
+    private LeasingOptimization(LeaseParameters leaseParameters, OptimizationListener listener, TimeMeter timeMeter, LeaseRegistry registry) {
+        this.leaseParameters = leaseParameters;
+        this.listener = listener;
+        this.timeMeter = timeMeter;
+        this.registry = registry;
+    }
+
+    @Override
+    public Optimization withListener(OptimizationListener listener) {
+        return new LeasingOptimization(leaseParameters, listener, timeMeter, registry);
+    }
+
+    /**
+     * Returns unused tokens of all leases taken via this optimization (and via instances created by {@link #withListener(OptimizationListener)}) to external storage,
+     * and stops the thread that returns expired leases. Buckets stay usable after closing, but new leases are not taken.
+     */
+    @Override
+    public void close() {
+        registry.close();
+    }
+
+    @Override
+    public CommandExecutor apply(CommandExecutor originalExecutor) {
+        LeasingCommandExecutor leasingExecutor = new LeasingCommandExecutor(originalExecutor, leaseParameters, listener, timeMeter, registry);
+        return new LeaseServingCommandExecutor(leasingExecutor, new BatchingExecutor(leasingExecutor, listener), listener, timeMeter);
+    }
+
+    @Override
+    public AsyncCommandExecutor apply(AsyncCommandExecutor originalExecutor) {
+        LeasingCommandExecutor leasingExecutor = new LeasingCommandExecutor(originalExecutor, leaseParameters, listener, timeMeter, registry);
+        return new LeaseServingCommandExecutor(leasingExecutor, new AsyncBatchingExecutor(leasingExecutor, listener), listener, timeMeter);
+    }
+
+}
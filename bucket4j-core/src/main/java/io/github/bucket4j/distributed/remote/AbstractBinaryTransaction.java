@@ -49,12 +49,7 @@ public abstract class AbstractBinaryTransaction {
         Version backwardCompatibilityVersion = request.getBackwardCompatibilityVersion();
 
         try {
-            RemoteBucketState currentState = null;
-            if (exists()) {
-                byte[] stateBytes = getRawState();
-                currentState = deserializeState(stateBytes);
-            }
-            MutableBucketEntry entryWrapper = new MutableBucketEntry(currentState);
+            MutableBucketEntry entryWrapper = new MutableBucketEntry(exists() ? getRawState() : null);
 
             currentTimeNanos = request.getClientSideTime() != null? request.getClientSideTime(): System.currentTimeMillis() * 1_000_000;
             RemoteCommand<?> command = request.getCommand();
@@ -62,16 +57,16 @@ public abstract class AbstractBinaryTransaction {
 
             if (entryWrapper.isStateModified()) {
                 RemoteBucketState newState = entryWrapper.get();
-                setRawState(serializeState(newState, backwardCompatibilityVersion), newState);
+                setRawState(serializeState(newState, backwardCompatibilityVersion, request.isCompactSerializationEnabled()), newState);
             }
 
-            return serializeResult(result, request.getBackwardCompatibilityVersion());
+            return serializeResult(result, request.getBackwardCompatibilityVersion(), request.isCompactSerializationEnabled());
         } catch (UnsupportedTypeException e) {
-            return serializeResult(CommandResult.unsupportedType(e.getTypeId()), backwardCompatibilityVersion);
+            return serializeResult(CommandResult.unsupportedType(e.getTypeId()), backwardCompatibilityVersion, request.isCompactSerializationEnabled());
         } catch (UsageOfUnsupportedApiException e) {
-            return serializeResult(CommandResult.usageOfUnsupportedApiException(e.getRequestedFormatNumber(), e.getMaxSupportedFormatNumber()), backwardCompatibilityVersion);
+            return serializeResult(CommandResult.usageOfUnsupportedApiException(e.getRequestedFormatNumber(), e.getMaxSupportedFormatNumber()), backwardCompatibilityVersion, request.isCompactSerializationEnabled());
         } catch (UsageOfObsoleteApiException e) {
-            return serializeResult(CommandResult.usageOfObsoleteApiException(e.getRequestedFormatNumber(), e.getMinSupportedFormatNumber()), backwardCompatibilityVersion);
+            return serializeResult(CommandResult.usageOfObsoleteApiException(e.getRequestedFormatNumber(), e.getMinSupportedFormatNumber()), backwardCompatibilityVersion, request.isCompactSerializationEnabled());
         }
     }
 
@@ -64,4 +64,8 @@ public class MutableBucketEntry {
         return serializeState(get(), backwardCompatibilityVersion);
     }
 
+    public byte[] getStateBytes(Request<?> request) {
+        return serializeState(get(), request.getBackwardCompatibilityVersion(), request.isCompactSerializationEnabled());
+    }
+
 }
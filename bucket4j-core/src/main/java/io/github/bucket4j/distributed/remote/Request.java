@@ -42,12 +42,18 @@ public class Request<T> implements ComparableByContent<Request<T>> {
     private final RemoteCommand<T> command;
     private final Long clientSideTime;
     private final ExpirationAfterWriteStrategy expirationStrategy;
+    private final boolean compactSerializationEnabled;
 
     public Request(RemoteCommand<T> command, Version backwardCompatibilityVersion, Long clientSideTime, ExpirationAfterWriteStrategy expirationStrategy) {
+        this(command, backwardCompatibilityVersion, clientSideTime, expirationStrategy, false);
+    }
+
+    public Request(RemoteCommand<T> command, Version backwardCompatibilityVersion, Long clientSideTime, ExpirationAfterWriteStrategy expirationStrategy, boolean compactSerializationEnabled) {
         this.command = command;
         this.clientSideTime = clientSideTime;
         this.backwardCompatibilityVersion = backwardCompatibilityVersion;
         this.expirationStrategy = expirationStrategy;
+        this.compactSerializationEnabled = compactSerializationEnabled;
     }
 
     public RemoteCommand<T> getCommand() {
@@ -66,6 +72,20 @@ public class Request<T> implements ComparableByContent<Request<T>> {
         return expirationStrategy;
     }
 
+    /**
+     * Returns whether request, its result and persisted state are written by {@link io.github.bucket4j.distributed.serialization.CompactSerializationAdapter}.
+     * This flag is not transferred as part of request, it is derived from format of received bytes.
+     *
+     * @return whether compact serialization is enabled
+     */
+    public boolean isCompactSerializationEnabled() {
+        return compactSerializationEnabled;
+    }
+
+    public Request<T> withCompactSerialization() {
+        return new Request<>(command, backwardCompatibilityVersion, clientSideTime, expirationStrategy, true);
+    }
+
     public static final SerializationHandle<Request<?>> SERIALIZATION_HANDLE = new SerializationHandle<>() {
         @Override
         public <S> Request<?> deserialize(DeserializationAdapter<S> adapter, S input) throws IOException {
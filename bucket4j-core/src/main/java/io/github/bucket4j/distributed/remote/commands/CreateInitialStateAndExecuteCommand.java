@@ -37,30 +37,38 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static io.github.bucket4j.distributed.versioning.Versions.v_7_0_0;
+import static io.github.bucket4j.distributed.versioning.Versions.v_8_19_0;
 
 public class CreateInitialStateAndExecuteCommand<T> implements RemoteCommand<T>, ComparableByContent<CreateInitialStateAndExecuteCommand> {
 
     private final RemoteCommand<T> targetCommand;
     private final BucketConfiguration configuration;
+    private final MathType mathType;
 
     public static final SerializationHandle<CreateInitialStateAndExecuteCommand> SERIALIZATION_HANDLE = new SerializationHandle<>() {
         @Override
         public <S> CreateInitialStateAndExecuteCommand deserialize(DeserializationAdapter<S> adapter, S input) throws IOException {
             int formatNumber = adapter.readInt(input);
-            Versions.check(formatNumber, v_7_0_0, v_7_0_0);
+            Versions.check(formatNumber, v_7_0_0, v_8_19_0);
 
             BucketConfiguration configuration = BucketConfiguration.SERIALIZATION_HANDLE.deserialize(adapter, input);
             RemoteCommand<?> targetCommand = RemoteCommand.deserialize(adapter, input);
+            MathType mathType = formatNumber >= v_8_19_0.getNumber() ? MathType.valueOf(adapter.readString(input)) : MathType.INTEGER_64_BITS;
 
-            return new CreateInitialStateAndExecuteCommand(configuration, targetCommand);
+            return new CreateInitialStateAndExecuteCommand(configuration, targetCommand, mathType);
         }
 
         @Override
         public <O> void serialize(SerializationAdapter<O> adapter, O output, CreateInitialStateAndExecuteCommand command, Version backwardCompatibilityVersion, Scope scope) throws IOException {
-            adapter.writeInt(output, v_7_0_0.getNumber());
+            // math type is written only when it differs from default, to stay readable by nodes that do not know about math types
+            boolean writeMathType = command.mathType != MathType.INTEGER_64_BITS;
+            adapter.writeInt(output, writeMathType ? v_8_19_0.getNumber() : v_7_0_0.getNumber());
 
             BucketConfiguration.SERIALIZATION_HANDLE.serialize(adapter, output, command.configuration, backwardCompatibilityVersion, scope);
             RemoteCommand.serialize(adapter, output, command.targetCommand, backwardCompatibilityVersion, scope);
+            if (writeMathType) {
+                adapter.writeString(output, command.mathType.name());
+            }
         }
 
         @Override
@@ -76,20 +84,25 @@ public class CreateInitialStateAndExecuteCommand<T> implements RemoteCommand<T>,
         @Override
         public CreateInitialStateAndExecuteCommand<?> fromJsonCompatibleSnapshot(Map<String, Object> snapshot) throws IOException {
             int formatNumber = readIntValue(snapshot, "version");
-            Versions.check(formatNumber, v_7_0_0, v_7_0_0);
+            Versions.check(formatNumber, v_7_0_0, v_8_19_0);
 
             BucketConfiguration configuration = BucketConfiguration.SERIALIZATION_HANDLE
                 .fromJsonCompatibleSnapshot((Map<String, Object>) snapshot.get("configuration"));
             RemoteCommand<?> targetCommand = RemoteCommand.fromJsonCompatibleSnapshot((Map<String, Object>) snapshot.get("targetCommand"));
-            return new CreateInitialStateAndExecuteCommand<>(configuration, targetCommand);
+            MathType mathType = snapshot.containsKey("mathType") ? MathType.valueOf((String) snapshot.get("mathType")) : MathType.INTEGER_64_BITS;
+            return new CreateInitialStateAndExecuteCommand<>(configuration, targetCommand, mathType);
         }
 
         @Override
         public Map<String, Object> toJsonCompatibleSnapshot(CreateInitialStateAndExecuteCommand command, Version backwardCompatibilityVersion, Scope scope) throws IOException {
             Map<String, Object> result = new HashMap<>();
-            result.put("version", v_7_0_0.getNumber());
+            boolean writeMathType = command.mathType != MathType.INTEGER_64_BITS;
+            result.put("version", writeMathType ? v_8_19_0.getNumber() : v_7_0_0.getNumber());
             result.put("configuration", BucketConfiguration.SERIALIZATION_HANDLE.toJsonCompatibleSnapshot(command.configuration, backwardCompatibilityVersion, scope));
             result.put("targetCommand", RemoteCommand.toJsonCompatibleSnapshot(command.targetCommand, backwardCompatibilityVersion, scope));
+            if (writeMathType) {
+                result.put("mathType", command.mathType.name());
+            }
             return result;
         }
 
@@ -101,15 +114,20 @@ public class CreateInitialStateAndExecuteCommand<T> implements RemoteCommand<T>,
     };
 
     public CreateInitialStateAndExecuteCommand(BucketConfiguration configuration, RemoteCommand<T> targetCommand) {
+        this(configuration, targetCommand, MathType.INTEGER_64_BITS);
+    }
+
+    public CreateInitialStateAndExecuteCommand(BucketConfiguration configuration, RemoteCommand<T> targetCommand, MathType mathType) {
         this.configuration = configuration;
         this.targetCommand = targetCommand;
+        this.mathType = mathType;
     }
 
     @Override
     public CommandResult<T> execute(MutableBucketEntry mutableEntry, long currentTimeNanos) {
         RemoteBucketState state;
         if (!mutableEntry.exists()) {
-            BucketState bucketState = BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, currentTimeNanos);
+            BucketState bucketState = BucketState.createInitialState(configuration, mathType, currentTimeNanos);
             state = new RemoteBucketState(bucketState, new RemoteStat(0), null);
             mutableEntry.set(state);
         }
@@ -124,6 +142,10 @@ public class CreateInitialStateAndExecuteCommand<T> implements RemoteCommand<T>,
         return targetCommand;
     }
 
+    public MathType getMathType() {
+        return mathType;
+    }
+
     @Override
     public boolean isInitializationCommand() {
         return true;
@@ -137,7 +159,8 @@ public class CreateInitialStateAndExecuteCommand<T> implements RemoteCommand<T>,
     @Override
     public boolean equalsByContent(CreateInitialStateAndExecuteCommand other) {
         return ComparableByContent.equals(configuration, other.configuration) &&
-                ComparableByContent.equals(targetCommand, other.targetCommand);
+                ComparableByContent.equals(targetCommand, other.targetCommand) &&
+                mathType == other.mathType;
     }
 
     @Override
@@ -157,7 +180,8 @@ public class CreateInitialStateAndExecuteCommand<T> implements RemoteCommand<T>,
 
     @Override
     public Version getRequiredVersion() {
-        return Versions.max(v_7_0_0, targetCommand.getRequiredVersion());
+        Version selfVersion = mathType == MathType.INTEGER_64_BITS ? v_7_0_0 : v_8_19_0;
+        return Versions.max(selfVersion, targetCommand.getRequiredVersion());
     }
 
 }
@@ -37,6 +37,7 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
+import static io.github.bucket4j.distributed.versioning.Versions.v_8_19_0;
 import static io.github.bucket4j.distributed.versioning.Versions.v_8_1_0;
 
 public class CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<T> implements RemoteCommand<T>, ComparableByContent<CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand> {
@@ -45,29 +46,36 @@ public class CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteComman
     private final BucketConfiguration configuration;
     private final long desiredConfigurationVersion;
     private final TokensInheritanceStrategy tokensInheritanceStrategy;
+    private final MathType mathType;
 
     public static final SerializationHandle<CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<?>> SERIALIZATION_HANDLE = new SerializationHandle<>() {
         @Override
         public <S> CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<?> deserialize(DeserializationAdapter<S> adapter, S input) throws IOException {
             int formatNumber = adapter.readInt(input);
-            Versions.check(formatNumber, v_8_1_0, v_8_1_0);
+            Versions.check(formatNumber, v_8_1_0, v_8_19_0);
 
             BucketConfiguration configuration = BucketConfiguration.SERIALIZATION_HANDLE.deserialize(adapter, input);
             RemoteCommand<?> targetCommand = RemoteCommand.deserialize(adapter, input);
             long desiredConfigurationVersion = adapter.readLong(input);
             TokensInheritanceStrategy tokensInheritanceStrategy = TokensInheritanceStrategy.getById(adapter.readByte(input));
+            MathType mathType = formatNumber >= v_8_19_0.getNumber() ? MathType.valueOf(adapter.readString(input)) : MathType.INTEGER_64_BITS;
 
-            return new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(configuration, targetCommand, desiredConfigurationVersion, tokensInheritanceStrategy);
+            return new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(configuration, targetCommand, desiredConfigurationVersion, tokensInheritanceStrategy, mathType);
         }
 
         @Override
         public <O> void serialize(SerializationAdapter<O> adapter, O output, CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<?> command, Version backwardCompatibilityVersion, Scope scope) throws IOException {
-            adapter.writeInt(output, v_8_1_0.getNumber());
+            // math type is written only when it differs from default, to stay readable by nodes that do not know about math types
+            boolean writeMathType = command.mathType != MathType.INTEGER_64_BITS;
+            adapter.writeInt(output, writeMathType ? v_8_19_0.getNumber() : v_8_1_0.getNumber());
 
             BucketConfiguration.SERIALIZATION_HANDLE.serialize(adapter, output, command.configuration, backwardCompatibilityVersion, scope);
             RemoteCommand.serialize(adapter, output, command.targetCommand, backwardCompatibilityVersion, scope);
             adapter.writeLong(output, command.desiredConfigurationVersion);
             adapter.writeByte(output, command.tokensInheritanceStrategy.getId());
+            if (writeMathType) {
+                adapter.writeString(output, command.mathType.name());
+            }
         }
 
         @Override
@@ -83,24 +91,29 @@ public class CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteComman
         @Override
         public CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<?> fromJsonCompatibleSnapshot(Map<String, Object> snapshot) throws IOException {
             int formatNumber = readIntValue(snapshot, "version");
-            Versions.check(formatNumber, v_8_1_0, v_8_1_0);
+            Versions.check(formatNumber, v_8_1_0, v_8_19_0);
 
             BucketConfiguration configuration = BucketConfiguration.SERIALIZATION_HANDLE
                     .fromJsonCompatibleSnapshot((Map<String, Object>) snapshot.get("configuration"));
             RemoteCommand<?> targetCommand = RemoteCommand.fromJsonCompatibleSnapshot((Map<String, Object>) snapshot.get("targetCommand"));
             TokensInheritanceStrategy tokensInheritanceStrategy = TokensInheritanceStrategy.valueOf((String) snapshot.get("tokensInheritanceStrategy"));
             long desiredConfigurationVersion = readLongValue(snapshot, "desiredConfigurationVersion");
-            return new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(configuration, targetCommand, desiredConfigurationVersion, tokensInheritanceStrategy);
+            MathType mathType = snapshot.containsKey("mathType") ? MathType.valueOf((String) snapshot.get("mathType")) : MathType.INTEGER_64_BITS;
+            return new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(configuration, targetCommand, desiredConfigurationVersion, tokensInheritanceStrategy, mathType);
         }
 
         @Override
         public Map<String, Object> toJsonCompatibleSnapshot(CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<?> command, Version backwardCompatibilityVersion, Scope scope) throws IOException {
             Map<String, Object> result = new HashMap<>();
-            result.put("version", v_8_1_0.getNumber());
+            boolean writeMathType = command.mathType != MathType.INTEGER_64_BITS;
+            result.put("version", writeMathType ? v_8_19_0.getNumber() : v_8_1_0.getNumber());
             result.put("configuration", BucketConfiguration.SERIALIZATION_HANDLE.toJsonCompatibleSnapshot(command.configuration, backwardCompatibilityVersion, scope));
             result.put("targetCommand", RemoteCommand.toJsonCompatibleSnapshot(command.targetCommand, backwardCompatibilityVersion, scope));
             result.put("desiredConfigurationVersion", command.desiredConfigurationVersion);
             result.put("tokensInheritanceStrategy", command.tokensInheritanceStrategy.toString());
+            if (writeMathType) {
+                result.put("mathType", command.mathType.name());
+            }
 
             return result;
         }
@@ -113,10 +126,15 @@ public class CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteComman
     };
 
     public CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand(BucketConfiguration configuration, RemoteCommand<T> targetCommand, long desiredConfigurationVersion, TokensInheritanceStrategy tokensInheritanceStrategy) {
+        this(configuration, targetCommand, desiredConfigurationVersion, tokensInheritanceStrategy, MathType.INTEGER_64_BITS);
+    }
+
+    public CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand(BucketConfiguration configuration, RemoteCommand<T> targetCommand, long desiredConfigurationVersion, TokensInheritanceStrategy tokensInheritanceStrategy, MathType mathType) {
         this.configuration = configuration;
         this.targetCommand = targetCommand;
         this.desiredConfigurationVersion = desiredConfigurationVersion;
         this.tokensInheritanceStrategy = tokensInheritanceStrategy;
+        this.mathType = mathType;
     }
 
     @Override
@@ -130,7 +148,7 @@ public class CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteComman
                 state.setConfigurationVersion(desiredConfigurationVersion);
             }
         } else {
-            BucketState bucketState = BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, currentTimeNanos);
+            BucketState bucketState = BucketState.createInitialState(configuration, mathType, currentTimeNanos);
             RemoteBucketState state = new RemoteBucketState(bucketState, new RemoteStat(0), desiredConfigurationVersion);
             mutableEntry.set(state);
         }
@@ -154,6 +172,10 @@ public class CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteComman
         return tokensInheritanceStrategy;
     }
 
+    public MathType getMathType() {
+        return mathType;
+    }
+
     @Override
     public boolean isInitializationCommand() {
         return true;
@@ -169,7 +191,8 @@ public class CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteComman
         return ComparableByContent.equals(configuration, other.configuration) &&
                 ComparableByContent.equals(targetCommand, other.targetCommand) &&
                 desiredConfigurationVersion == other.desiredConfigurationVersion &&
-                tokensInheritanceStrategy == other.tokensInheritanceStrategy;
+                tokensInheritanceStrategy == other.tokensInheritanceStrategy &&
+                mathType == other.mathType;
     }
 
     @Override
@@ -189,7 +212,8 @@ public class CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteComman
 
     @Override
     public Version getRequiredVersion() {
-        return Versions.max(v_8_1_0, targetCommand.getRequiredVersion());
+        Version selfVersion = mathType == MathType.INTEGER_64_BITS ? v_8_1_0 : v_8_19_0;
+        return Versions.max(selfVersion, targetCommand.getRequiredVersion());
     }
 
 }
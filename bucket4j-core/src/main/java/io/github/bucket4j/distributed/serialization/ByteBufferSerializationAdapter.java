@@ -0,0 +1,200 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.serialization;
+
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Adapter that reads and writes {@link ByteBuffer} in the same binary format as {@link DataOutputSerializationAdapter},
+ * so data written by one adapter can be read by another.
+ *
+ * <p>
+ * In contrast to {@link DataOutputSerializationAdapter} it does not require intermediate streams,
+ * and works with heap and direct buffers in the same way.
+ * Writing to buffer that has not enough remaining space leads to {@link java.nio.BufferOverflowException}.
+ */
+public class ByteBufferSerializationAdapter implements FragmentSerializationAdapter<ByteBuffer>, DeserializationAdapter<ByteBuffer> {
+
+    public static final ByteBufferSerializationAdapter INSTANCE = new ByteBufferSerializationAdapter();
+
+    private ByteBufferSerializationAdapter() {}
+
+    @Override
+    public byte[] toFragment(FragmentWriter<ByteBuffer> writer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        while (true) {
+            try {
+                writer.write(buffer);
+                byte[] fragment = new byte[buffer.position()];
+                buffer.flip().get(fragment);
+                return fragment;
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+    }
+
+    @Override
+    public void writeFragment(ByteBuffer target, byte[] fragment) throws IOException {
+        target.put(fragment);
+    }
+
+    @Override
+    public boolean readBoolean(ByteBuffer source) throws IOException {
+        return source.get() != 0;
+    }
+
+    @Override
+    public byte readByte(ByteBuffer source) throws IOException {
+        return source.get();
+    }
+
+    @Override
+    public int readInt(ByteBuffer source) throws IOException {
+        return source.getInt();
+    }
+
+    @Override
+    public long readLong(ByteBuffer source) throws IOException {
+        return source.getLong();
+    }
+
+    @Override
+    public long[] readLongArray(ByteBuffer source) throws IOException {
+        int size = source.getInt();
+        long[] array = new long[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = source.getLong();
+        }
+        return array;
+    }
+
+    @Override
+    public double[] readDoubleArray(ByteBuffer source) throws IOException {
+        int size = source.getInt();
+        double[] array = new double[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = source.getDouble();
+        }
+        return array;
+    }
+
+    @Override
+    public String readString(ByteBuffer source) throws IOException {
+        // modified UTF-8 that is used by java.io.DataInput#readUTF
+        int length = source.getShort() & 0xFFFF;
+        int end = source.position() + length;
+        StringBuilder builder = new StringBuilder(length);
+        while (source.position() < end) {
+            int b = source.get() & 0xFF;
+            if (b < 0x80) {
+                builder.append((char) b);
+            } else if ((b & 0xE0) == 0xC0) {
+                int b2 = readContinuation(source);
+                builder.append((char) (((b & 0x1F) << 6) | b2));
+            } else if ((b & 0xF0) == 0xE0) {
+                int b2 = readContinuation(source);
+                int b3 = readContinuation(source);
+                builder.append((char) (((b & 0x0F) << 12) | (b2 << 6) | b3));
+            } else {
+                throw new UTFDataFormatException("Malformed input around byte " + source.position());
+            }
+        }
+        if (source.position() != end) {
+            throw new UTFDataFormatException("Malformed input: partial character at end");
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public void writeBoolean(ByteBuffer target, boolean value) throws IOException {
+        target.put(value ? (byte) 1 : (byte) 0);
+    }
+
+    @Override
+    public void writeByte(ByteBuffer target, byte value) throws IOException {
+        target.put(value);
+    }
+
+    @Override
+    public void writeInt(ByteBuffer target, int value) throws IOException {
+        target.putInt(value);
+    }
+
+    @Override
+    public void writeLong(ByteBuffer target, long value) throws IOException {
+        target.putLong(value);
+    }
+
+    @Override
+    public void writeLongArray(ByteBuffer target, long[] value) throws IOException {
+        target.putInt(value.length);
+        for (int i = 0; i < value.length; i++) {
+            target.putLong(value[i]);
+        }
+    }
+
+    @Override
+    public void writeDoubleArray(ByteBuffer target, double[] value) throws IOException {
+        target.putInt(value.length);
+        for (int i = 0; i < value.length; i++) {
+            target.putDouble(value[i]);
+        }
+    }
+
+    @Override
+    public void writeString(ByteBuffer target, String value) throws IOException {
+        // modified UTF-8 that is used by java.io.DataOutput#writeUTF
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            length += (c >= 0x0001 && c <= 0x007F) ? 1 : (c <= 0x07FF ? 2 : 3);
+        }
+        if (length > 0xFFFF) {
+            throw new UTFDataFormatException("Encoded string is too long: " + length + " bytes");
+        }
+        target.putShort((short) length);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                target.put((byte) c);
+            } else if (c <= 0x07FF) {
+                target.put((byte) (0xC0 | ((c >> 6) & 0x1F)));
+                target.put((byte) (0x80 | (c & 0x3F)));
+            } else {
+                target.put((byte) (0xE0 | ((c >> 12) & 0x0F)));
+                target.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                target.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    private static int readContinuation(ByteBuffer source) throws UTFDataFormatException {
+        int b = source.get() & 0xFF;
+        if ((b & 0xC0) != 0x80) {
+            throw new UTFDataFormatException("Malformed input around byte " + source.position());
+        }
+        return b & 0x3F;
+    }
+
+}
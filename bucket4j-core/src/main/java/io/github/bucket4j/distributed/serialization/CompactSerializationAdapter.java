@@ -0,0 +1,247 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.serialization;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary format that is intended to reduce size of bucket state and requests that are transferred over network and persisted in storage.
+ *
+ * <p>
+ * Differences from {@link DataOutputSerializationAdapter}:
+ * <ul>
+ *     <li>{@code int} and {@code long} values are written as zig-zag encoded variable length integers,
+ *     so format numbers, type identifiers and token counters usually take one or two bytes instead of four or eight.</li>
+ *     <li>Each element of {@code long[]} except the first one is written either as is or as delta relative to the first element,
+ *     whichever is shorter. Because the first element of bucket state is a refill timestamp, timestamps of other bandwidths usually take one byte.</li>
+ *     <li>Strings are written as UTF-8 bytes prefixed by variable length size.</li>
+ * </ul>
+ */
+public class CompactSerializationAdapter implements FragmentSerializationAdapter<ByteBuffer>, DeserializationAdapter<ByteBuffer> {
+
+    public static final CompactSerializationAdapter INSTANCE = new CompactSerializationAdapter();
+
+    private CompactSerializationAdapter() {}
+
+    @Override
+    public byte[] toFragment(FragmentWriter<ByteBuffer> writer) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        while (true) {
+            try {
+                writer.write(buffer);
+                byte[] fragment = new byte[buffer.position()];
+                buffer.flip().get(fragment);
+                return fragment;
+            } catch (BufferOverflowException e) {
+                buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+            }
+        }
+    }
+
+    @Override
+    public void writeFragment(ByteBuffer target, byte[] fragment) throws IOException {
+        target.put(fragment);
+    }
+
+    @Override
+    public boolean readBoolean(ByteBuffer source) throws IOException {
+        return source.get() != 0;
+    }
+
+    @Override
+    public byte readByte(ByteBuffer source) throws IOException {
+        return source.get();
+    }
+
+    @Override
+    public int readInt(ByteBuffer source) throws IOException {
+        long value = readLong(source);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IOException("Value " + value + " does not fit into int");
+        }
+        return (int) value;
+    }
+
+    @Override
+    public long readLong(ByteBuffer source) throws IOException {
+        long zigZag = readUnsignedVarLong(source);
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+
+    @Override
+    public long[] readLongArray(ByteBuffer source) throws IOException {
+        int size = readSize(source);
+        long[] array = new long[size];
+        if (size == 0) {
+            return array;
+        }
+        long base = readLong(source);
+        array[0] = base;
+        for (int i = 1; i < size; i++) {
+            array[i] = readTaggedLong(source, base);
+        }
+        return array;
+    }
+
+    @Override
+    public double[] readDoubleArray(ByteBuffer source) throws IOException {
+        int size = readSize(source);
+        double[] array = new double[size];
+        for (int i = 0; i < size; i++) {
+            array[i] = source.getDouble();
+        }
+        return array;
+    }
+
+    @Override
+    public String readString(ByteBuffer source) throws IOException {
+        byte[] bytes = new byte[readSize(source)];
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void writeBoolean(ByteBuffer target, boolean value) throws IOException {
+        target.put(value ? (byte) 1 : (byte) 0);
+    }
+
+    @Override
+    public void writeByte(ByteBuffer target, byte value) throws IOException {
+        target.put(value);
+    }
+
+    @Override
+    public void writeInt(ByteBuffer target, int value) throws IOException {
+        writeLong(target, value);
+    }
+
+    @Override
+    public void writeLong(ByteBuffer target, long value) throws IOException {
+        writeUnsignedVarLong(target, zigZag(value));
+    }
+
+    @Override
+    public void writeLongArray(ByteBuffer target, long[] value) throws IOException {
+        writeUnsignedVarLong(target, value.length);
+        if (value.length == 0) {
+            return;
+        }
+        long base = value[0];
+        writeLong(target, base);
+        for (int i = 1; i < value.length; i++) {
+            writeTaggedLong(target, value[i], base);
+        }
+    }
+
+    @Override
+    public void writeDoubleArray(ByteBuffer target, double[] value) throws IOException {
+        writeUnsignedVarLong(target, value.length);
+        for (int i = 0; i < value.length; i++) {
+            target.putDouble(value[i]);
+        }
+    }
+
+    @Override
+    public void writeString(ByteBuffer target, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeUnsignedVarLong(target, bytes.length);
+        target.put(bytes);
+    }
+
+    private static void writeTaggedLong(ByteBuffer target, long value, long base) throws IOException {
+        long zigZag = zigZag(value);
+        long delta = value - base;
+        boolean overflow = ((value ^ base) & (value ^ delta)) < 0;
+        long tag = 0;
+        if (!overflow && Long.compareUnsigned(zigZag(delta), zigZag) < 0) {
+            zigZag = zigZag(delta);
+            tag = 1;
+        }
+
+        // tagged value has 65 bits: lowest bit is the tag, remaining bits are zig-zag encoded value or delta
+        long low = (zigZag << 1) | tag;
+        long high = zigZag >>> 63;
+        for (int i = 0; i < 9; i++) {
+            if (high == 0 && (low & ~0x7FL) == 0) {
+                target.put((byte) low);
+                return;
+            }
+            target.put((byte) ((low & 0x7F) | 0x80));
+            low >>>= 7;
+        }
+        target.put((byte) (low | (high << 1)));
+    }
+
+    private static long readTaggedLong(ByteBuffer source, long base) throws IOException {
+        long low = 0;
+        long high = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = source.get();
+            if (shift == 63) {
+                low |= (long) (b & 1) << 63;
+                high = (b >>> 1) & 1;
+                break;
+            }
+            low |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        long zigZag = (low >>> 1) | (high << 63);
+        long value = (zigZag >>> 1) ^ -(zigZag & 1);
+        return (low & 1) == 1 ? base + value : value;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static int readSize(ByteBuffer source) throws IOException {
+        long size = readUnsignedVarLong(source);
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IOException("Invalid size " + size);
+        }
+        return (int) size;
+    }
+
+    private static void writeUnsignedVarLong(ByteBuffer target, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            target.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        target.put((byte) value);
+    }
+
+    private static long readUnsignedVarLong(ByteBuffer source) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = source.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+
+}
@@ -20,16 +20,32 @@
 
 package io.github.bucket4j.distributed.serialization;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
 import java.io.DataOutput;
+import java.io.DataOutputStream;
 import java.io.IOException;
 
-public class DataOutputSerializationAdapter implements SerializationAdapter<DataOutput>, DeserializationAdapter<DataInput> {
+public class DataOutputSerializationAdapter implements FragmentSerializationAdapter<DataOutput>, DeserializationAdapter<DataInput> {
 
     public static final DataOutputSerializationAdapter INSTANCE = new DataOutputSerializationAdapter();
 
     private DataOutputSerializationAdapter() {}
 
+    @Override
+    public byte[] toFragment(FragmentWriter<DataOutput> writer) throws IOException {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(byteStream);
+        writer.write(output);
+        output.flush();
+        return byteStream.toByteArray();
+    }
+
+    @Override
+    public void writeFragment(DataOutput target, byte[] fragment) throws IOException {
+        target.write(fragment);
+    }
+
     @Override
     public boolean readBoolean(DataInput source) throws IOException {
         return source.readBoolean();
@@ -0,0 +1,64 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.serialization;
+
+import java.io.IOException;
+
+/**
+ * Serialization adapter that is able to capture serialized form of object as byte fragment,
+ * and then splice that fragment into output without serializing the object again.
+ *
+ * <p>
+ * It is used to avoid repeated serialization of immutable objects which are transferred with almost each request,
+ * like {@link io.github.bucket4j.BucketConfiguration}, see {@link SerializedFragments}.
+ *
+ * @param <T> type of output
+ */
+public interface FragmentSerializationAdapter<T> extends SerializationAdapter<T> {
+
+    /**
+     * Captures data that is written by {@code writer} as fragment.
+     *
+     * @param writer the writer that writes the data via this adapter
+     *
+     * @return the bytes that are written by {@code writer}
+     *
+     * @throws IOException in case of writer failure
+     */
+    byte[] toFragment(FragmentWriter<T> writer) throws IOException;
+
+    /**
+     * Writes fragment that was previously captured by {@link #toFragment(FragmentWriter)} of this adapter.
+     *
+     * @param target the output
+     * @param fragment the fragment
+     *
+     * @throws IOException in case of output failure
+     */
+    void writeFragment(T target, byte[] fragment) throws IOException;
+
+    @FunctionalInterface
+    interface FragmentWriter<T> {
+
+        void write(T target) throws IOException;
+
+    }
+
+}
@@ -19,91 +19,197 @@
  */
 package io.github.bucket4j.distributed.serialization;
 
+import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.distributed.remote.CommandResult;
 import io.github.bucket4j.distributed.remote.RemoteBucketState;
 import io.github.bucket4j.distributed.remote.Request;
 import io.github.bucket4j.distributed.versioning.Version;
+import io.github.bucket4j.distributed.versioning.Versions;
 
-import java.io.*;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 public class InternalSerializationHelper {
 
-    public static byte[] serializeState(RemoteBucketState state, Version backwardCompatibilityVersion) {
-        try {
-            ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-            DataOutputStream output = new DataOutputStream(byteStream);
+    /**
+     * The first byte of data written by {@link CompactSerializationAdapter}.
+     * Data written by {@link ByteBufferSerializationAdapter} always starts from zero byte, because it starts from format number.
+     */
+    static final byte COMPACT_FORMAT_MARKER = (byte) 0xB4;
 
-            RemoteBucketState.SERIALIZATION_HANDLE.serialize(DataOutputSerializationAdapter.INSTANCE, output, state, backwardCompatibilityVersion, Scope.PERSISTED_STATE);
+    static final int INITIAL_BUFFER_SIZE = 256;
+    static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
 
-            output.close();
-            byteStream.close();
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocate(INITIAL_BUFFER_SIZE));
 
-            return byteStream.toByteArray();
-        } catch (Exception e) {
+    public static byte[] serializeState(RemoteBucketState state, Version backwardCompatibilityVersion) {
+        return serializeState(state, backwardCompatibilityVersion, false);
+    }
+
+    public static byte[] serializeState(RemoteBucketState state, Version backwardCompatibilityVersion, boolean compact) {
+        return serializeToArray(buffer -> writeState(buffer, state, backwardCompatibilityVersion, compact));
+    }
+
+    /**
+     * Writes state into provided buffer starting from its current position, the buffer can be direct.
+     *
+     * @throws BufferOverflowException if buffer has not enough remaining space
+     */
+    public static void serializeState(RemoteBucketState state, Version backwardCompatibilityVersion, boolean compact, ByteBuffer target) {
+        try {
+            writeState(target, state, backwardCompatibilityVersion, compact);
+        } catch (IOException e) {
             throw new IllegalStateException(e);
         }
     }
 
     public static RemoteBucketState deserializeState(byte[] bytes) {
+        return deserializeState(ByteBuffer.wrap(bytes));
+    }
+
+    public static RemoteBucketState deserializeState(ByteBuffer source) {
         try {
-            try (DataInputStream inputSteam = new DataInputStream(new ByteArrayInputStream(bytes))) {
-                return RemoteBucketState.SERIALIZATION_HANDLE.deserialize(DataOutputSerializationAdapter.INSTANCE, inputSteam);
-            }
+            return RemoteBucketState.SERIALIZATION_HANDLE.deserialize(detectAdapter(source), source);
         } catch (Exception e) {
             throw new IllegalStateException(e);
         }
     }
 
-    public static byte[] serializeRequest(Request<?> request) {
+    public static byte[] serializeConfiguration(BucketConfiguration configuration, Version backwardCompatibilityVersion) {
+        return serializeToArray(buffer -> BucketConfiguration.SERIALIZATION_HANDLE.serialize(ByteBufferSerializationAdapter.INSTANCE, buffer, configuration, backwardCompatibilityVersion, Scope.PERSISTED_STATE));
+    }
+
+    public static BucketConfiguration deserializeConfiguration(byte[] bytes) {
         try {
-            ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-            DataOutputStream output = new DataOutputStream(byteStream);
+            return BucketConfiguration.SERIALIZATION_HANDLE.deserialize(ByteBufferSerializationAdapter.INSTANCE, ByteBuffer.wrap(bytes));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
-            Request.SERIALIZATION_HANDLE.serialize(DataOutputSerializationAdapter.INSTANCE, output, request, request.getBackwardCompatibilityVersion(), Scope.REQUEST);
-            
-            output.close();
-            byteStream.close();
+    public static byte[] serializeRequest(Request<?> request) {
+        return serializeToArray(buffer -> writeRequest(buffer, request));
+    }
 
-            return byteStream.toByteArray();
-        } catch (Exception e) {
+    /**
+     * Writes request into provided buffer starting from its current position, the buffer can be direct.
+     *
+     * @throws BufferOverflowException if buffer has not enough remaining space
+     */
+    public static void serializeRequest(Request<?> request, ByteBuffer target) {
+        try {
+            writeRequest(target, request);
+        } catch (IOException e) {
             throw new IllegalStateException(e);
         }
     }
 
     public static <T> Request<T> deserializeRequest(byte[] bytes) {
+        return deserializeRequest(ByteBuffer.wrap(bytes));
+    }
+
+    public static <T> Request<T> deserializeRequest(ByteBuffer source) {
         try {
-            try (DataInputStream inputSteam = new DataInputStream(new ByteArrayInputStream(bytes))) {
-                return (Request<T>) Request.SERIALIZATION_HANDLE.deserialize(DataOutputSerializationAdapter.INSTANCE, inputSteam);
+            if (isCompact(source)) {
+                source.get();
+                Request<T> request = (Request<T>) Request.SERIALIZATION_HANDLE.deserialize(CompactSerializationAdapter.INSTANCE, source);
+                return request.withCompactSerialization();
             }
+            return (Request<T>) Request.SERIALIZATION_HANDLE.deserialize(ByteBufferSerializationAdapter.INSTANCE, source);
         } catch (Exception e) {
             throw new IllegalStateException(e);
         }
     }
 
     public static byte[] serializeResult(CommandResult<?> result, Version backwardCompatibilityVersion) {
-        try {
-            ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-            DataOutputStream output = new DataOutputStream(byteStream);
+        return serializeResult(result, backwardCompatibilityVersion, false);
+    }
 
-            CommandResult.SERIALIZATION_HANDLE.serialize(DataOutputSerializationAdapter.INSTANCE, output, result, backwardCompatibilityVersion, Scope.RESPONSE);
+    public static byte[] serializeResult(CommandResult<?> result, Version backwardCompatibilityVersion, boolean compact) {
+        return serializeToArray(buffer -> {
+            if (compact) {
+                buffer.put(COMPACT_FORMAT_MARKER);
+                CommandResult.SERIALIZATION_HANDLE.serialize(CompactSerializationAdapter.INSTANCE, buffer, result, backwardCompatibilityVersion, Scope.RESPONSE);
+            } else {
+                CommandResult.SERIALIZATION_HANDLE.serialize(ByteBufferSerializationAdapter.INSTANCE, buffer, result, backwardCompatibilityVersion, Scope.RESPONSE);
+            }
+        });
+    }
 
-            output.close();
-            byteStream.close();
+    public static <T> CommandResult<T> deserializeResult(byte[] bytes, Version backwardCompatibilityVersion) {
+        return deserializeResult(ByteBuffer.wrap(bytes), backwardCompatibilityVersion);
+    }
 
-            return byteStream.toByteArray();
+    public static <T> CommandResult<T> deserializeResult(ByteBuffer source, Version backwardCompatibilityVersion) {
+        try {
+            return (CommandResult<T>) CommandResult.SERIALIZATION_HANDLE.deserialize(detectAdapter(source), source);
         } catch (Exception e) {
             throw new IllegalStateException(e);
         }
     }
 
-    public static <T> CommandResult<T> deserializeResult(byte[] bytes, Version backwardCompatibilityVersion) {
+    private static void writeState(ByteBuffer buffer, RemoteBucketState state, Version backwardCompatibilityVersion, boolean compact) throws IOException {
+        SerializationAdapter<ByteBuffer> adapter = ByteBufferSerializationAdapter.INSTANCE;
+        if (compact && isCompactFormatSupported(backwardCompatibilityVersion)) {
+            buffer.put(COMPACT_FORMAT_MARKER);
+            adapter = CompactSerializationAdapter.INSTANCE;
+        }
+        RemoteBucketState.SERIALIZATION_HANDLE.serialize(adapter, buffer, state, backwardCompatibilityVersion, Scope.PERSISTED_STATE);
+    }
+
+    private static void writeRequest(ByteBuffer buffer, Request<?> request) throws IOException {
+        if (request.isCompactSerializationEnabled() && isCompactFormatSupported(request.getBackwardCompatibilityVersion())) {
+            buffer.put(COMPACT_FORMAT_MARKER);
+            Request.SERIALIZATION_HANDLE.serialize(CompactSerializationAdapter.INSTANCE, buffer, request, request.getBackwardCompatibilityVersion(), Scope.REQUEST);
+        } else {
+            Request.SERIALIZATION_HANDLE.serialize(ByteBufferSerializationAdapter.INSTANCE, buffer, request, request.getBackwardCompatibilityVersion(), Scope.REQUEST);
+        }
+    }
+
+    private static byte[] serializeToArray(BufferWriter writer) {
+        // buffer is reused by the thread, so the only allocation in the steady state is the resulting array
+        ByteBuffer buffer = BUFFERS.get();
         try {
-            try (DataInputStream inputSteam = new DataInputStream(new ByteArrayInputStream(bytes))) {
-                return (CommandResult<T>) CommandResult.SERIALIZATION_HANDLE.deserialize(DataOutputSerializationAdapter.INSTANCE, inputSteam);
+            while (true) {
+                buffer.clear();
+                try {
+                    writer.write(buffer);
+                    return Arrays.copyOf(buffer.array(), buffer.position());
+                } catch (BufferOverflowException e) {
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                    if (buffer.capacity() <= MAX_RETAINED_BUFFER_SIZE) {
+                        BUFFERS.set(buffer);
+                    }
+                }
             }
         } catch (Exception e) {
             throw new IllegalStateException(e);
         }
     }
 
+    private static boolean isCompactFormatSupported(Version backwardCompatibilityVersion) {
+        return backwardCompatibilityVersion.getNumber() >= Versions.v_8_19_0.getNumber();
+    }
+
+    private static boolean isCompact(ByteBuffer source) {
+        return source.hasRemaining() && source.get(source.position()) == COMPACT_FORMAT_MARKER;
+    }
+
+    private static DeserializationAdapter<ByteBuffer> detectAdapter(ByteBuffer source) {
+        if (isCompact(source)) {
+            source.get();
+            return CompactSerializationAdapter.INSTANCE;
+        }
+        return ByteBufferSerializationAdapter.INSTANCE;
+    }
+
+    @FunctionalInterface
+    private interface BufferWriter {
+
+        void write(ByteBuffer buffer) throws IOException;
+
+    }
+
 }
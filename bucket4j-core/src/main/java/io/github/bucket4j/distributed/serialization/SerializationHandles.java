@@ -28,6 +28,9 @@ import io.github.bucket4j.distributed.remote.commands.*;
 import io.github.bucket4j.distributed.versioning.UnsupportedNamedTypeException;
 import io.github.bucket4j.distributed.versioning.UnsupportedTypeException;
 import io.github.bucket4j.local.LockFreeBucket;
+import io.github.bucket4j.local.SeqLockBucket;
+import io.github.bucket4j.local.SingleWordLockFreeBucket;
+import io.github.bucket4j.local.StripedBucket;
 import io.github.bucket4j.local.SynchronizedBucket;
 import io.github.bucket4j.local.ThreadUnsafeBucket;
 
@@ -39,7 +42,7 @@ public class SerializationHandles {
             Bandwidth.SERIALIZATION_HANDLE, // 1
             BucketConfiguration.SERIALIZATION_HANDLE, // 2
             BucketState64BitsInteger.SERIALIZATION_HANDLE, // 3
-//            BucketStateIEEE754.SERIALIZATION_HANDLE, // 4
+            BucketStateIEEE754.SERIALIZATION_HANDLE, // 4
             RemoteBucketState.SERIALIZATION_HANDLE, // 5
             RemoteStat.SERIALIZATION_HANDLE, // 6
 
@@ -79,6 +82,9 @@ public class SerializationHandles {
             LockFreeBucket.SERIALIZATION_HANDLE, // 60
             SynchronizedBucket.SERIALIZATION_HANDLE, // 61
             ThreadUnsafeBucket.SERIALIZATION_HANDLE, // 62
+            SingleWordLockFreeBucket.SERIALIZATION_HANDLE, // 63
+            SeqLockBucket.SERIALIZATION_HANDLE, // 64
+            StripedBucket.SERIALIZATION_HANDLE, // 65
 
             BasedOnTimeForRefillingBucketUpToMaxExpirationAfterWriteStrategy.SERIALIZATION_HANDLE, // 70
             FixedTtlExpirationAfterWriteStrategy.SERIALIZATION_HANDLE, // 71
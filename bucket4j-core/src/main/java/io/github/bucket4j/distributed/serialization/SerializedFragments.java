@@ -0,0 +1,89 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.distributed.serialization;
+
+import io.github.bucket4j.distributed.versioning.Version;
+
+import java.io.IOException;
+
+/**
+ * Memoized serialized forms of immutable object, one fragment per combination of adapter, backward compatibility version and scope.
+ *
+ * <p>
+ * Intended to be stored as field of object which is shared between many requests,
+ * so the cost of serialization is paid once per object instead of once per request.
+ * Number of memoized fragments is limited by {@link #MAX_FRAGMENTS}, fragments for other combinations are not cached.
+ */
+public final class SerializedFragments {
+
+    static final int MAX_FRAGMENTS = 8;
+
+    private static final Fragment[] EMPTY = new Fragment[0];
+
+    private volatile Fragment[] fragments = EMPTY;
+
+    /**
+     * Writes serialized form of object to output, the form is captured by {@code writer} at first invocation and reused by next invocations.
+     *
+     * @param adapter the adapter
+     * @param output the output
+     * @param backwardCompatibilityVersion backward compatibility version
+     * @param scope the scope
+     * @param writer writer that serializes the object without involving of this cache
+     *
+     * @throws IOException in case of serialization failure
+     */
+    public <O> void write(FragmentSerializationAdapter<O> adapter, O output, Version backwardCompatibilityVersion, Scope scope, FragmentSerializationAdapter.FragmentWriter<O> writer) throws IOException {
+        Fragment[] current = fragments;
+        for (Fragment fragment : current) {
+            if (fragment.adapter == adapter && fragment.versionNumber == backwardCompatibilityVersion.getNumber() && fragment.scope == scope) {
+                adapter.writeFragment(output, fragment.bytes);
+                return;
+            }
+        }
+
+        byte[] bytes = adapter.toFragment(writer);
+        if (current.length < MAX_FRAGMENTS) {
+            // racy publication can lose a fragment, that is harmless because it will be captured again
+            Fragment[] updated = new Fragment[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, current.length);
+            updated[current.length] = new Fragment(adapter, backwardCompatibilityVersion.getNumber(), scope, bytes);
+            fragments = updated;
+        }
+        adapter.writeFragment(output, bytes);
+    }
+
+    private static final class Fragment {
+
+        private final FragmentSerializationAdapter<?> adapter;
+        private final int versionNumber;
+        private final Scope scope;
+        private final byte[] bytes;
+
+        private Fragment(FragmentSerializationAdapter<?> adapter, int versionNumber, Scope scope, byte[] bytes) {
+            this.adapter = adapter;
+            this.versionNumber = versionNumber;
+            this.scope = scope;
+            this.bytes = bytes;
+        }
+
+    }
+
+}
@@ -23,7 +23,8 @@ public enum Versions implements Version {
 
     v_7_0_0(1),
     v_8_1_0(2),
-    v_8_10_0(3)
+    v_8_10_0(3),
+    v_8_19_0(4)
     ;
 
     private final int number;
@@ -69,7 +70,7 @@ public enum Versions implements Version {
     }
 
     public static Version getLatest() {
-        return v_8_10_0;
+        return v_8_19_0;
     }
 
     public static Version getOldest() {
@@ -22,6 +22,7 @@ package io.github.bucket4j.local;
 
 import io.github.bucket4j.Bucket;
 import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.LimitChecker;
 import io.github.bucket4j.TimeMeter;
 
 import java.io.IOException;
@@ -53,6 +54,30 @@ public interface LocalBucket extends Bucket {
      */
     SynchronizationStrategy getSynchronizationStrategy();
 
+    /**
+     * Tries to consume each amount of tokens from {@code tokensToConsume}.
+     * Results are the same as for sequential invocations of {@link #tryConsume(long)} at the same moment of time,
+     * but implementation is free to refill the bucket and update its state only once for whole batch.
+     * Default implementation just invokes {@link #tryConsume(long)} for each amount.
+     *
+     * @param tokensToConsume amounts of tokens to consume, each amount should be positive
+     * @param admitted array where {@code admitted[i]} is set to {@code true} if {@code tokensToConsume[i]} was consumed, and to {@code false} otherwise,
+     *                 length of array should not be less than length of {@code tokensToConsume}
+     *
+     * @return amount of requests that were admitted
+     */
+    default int tryConsumeEach(long[] tokensToConsume, boolean[] admitted) {
+        LimitChecker.checkTokensToConsume(tokensToConsume, admitted);
+        int admittedCount = 0;
+        for (int i = 0; i < tokensToConsume.length; i++) {
+            admitted[i] = tryConsume(tokensToConsume[i]);
+            if (admitted[i]) {
+                admittedCount++;
+            }
+        }
+        return admittedCount;
+    }
+
     /**
      * Takes the binary snapshot of this bucket that later can be used as parameter for {@link #fromBinarySnapshot(byte[])} to restore bucket from snapshot.
      *
@@ -61,6 +61,7 @@ public class LocalBucketBuilder {
     private TimeMeter timeMeter = TimeMeter.SYSTEM_MILLISECONDS;
     private SynchronizationStrategy synchronizationStrategy = SynchronizationStrategy.LOCK_FREE;
     private BucketListener listener = BucketListener.NOPE;
+    private MathType mathType = MathType.INTEGER_64_BITS;
 
     /**
      * Specifies {@link TimeMeter#SYSTEM_NANOTIME} as time meter for buckets that will be created by this builder.
@@ -82,6 +83,17 @@ public class LocalBucketBuilder {
         return this;
     }
 
+    /**
+     * Specifies {@link CachedTimeMeter#millisecondPrecision()} as time meter for buckets that will be created by this builder.
+     * Buckets read time from volatile field that is refreshed by background thread each millisecond instead of calling {@link System#currentTimeMillis()}.
+     *
+     * @return this builder instance
+     */
+    public LocalBucketBuilder withCachedMillisecondPrecision() {
+        this.timeMeter = CachedTimeMeter.millisecondPrecision();
+        return this;
+    }
+
     /**
      * Specifies {@code customTimeMeter} time meter for buckets that will be created by this builder.
      *
@@ -112,6 +124,24 @@ public class LocalBucketBuilder {
         return this;
     }
 
+    /**
+     * Specifies {@code mathType} for buckets that will be created by this builder.
+     *
+     * <p>By default {@link MathType#INTEGER_64_BITS} is used.
+     * {@link SynchronizationStrategy#LOCK_FREE_SINGLE_WORD} and {@link SynchronizationStrategy#STRIPED} support only {@link MathType#INTEGER_64_BITS}.
+     *
+     * @param mathType the type of math that will be used for calculation of refill and delays.
+     *
+     * @return this builder instance
+     */
+    public LocalBucketBuilder withMath(MathType mathType) {
+        if (mathType == null) {
+            throw BucketExceptions.nullMathType();
+        }
+        this.mathType = mathType;
+        return this;
+    }
+
     /**
      * Specifies {@code listener} for buckets that will be created by this builder.
      *
@@ -131,10 +161,17 @@ public class LocalBucketBuilder {
      */
     public LocalBucket build() {
         BucketConfiguration configuration = buildConfiguration();
+        if (mathType != MathType.INTEGER_64_BITS
+                && (synchronizationStrategy == SynchronizationStrategy.LOCK_FREE_SINGLE_WORD || synchronizationStrategy == SynchronizationStrategy.STRIPED)) {
+            throw BucketExceptions.mathTypeIsNotSupportedBySynchronizationStrategy(mathType, synchronizationStrategy);
+        }
         return switch (synchronizationStrategy) {
-            case LOCK_FREE -> new LockFreeBucket(configuration, MathType.INTEGER_64_BITS, timeMeter, listener);
-            case SYNCHRONIZED -> new SynchronizedBucket(configuration, MathType.INTEGER_64_BITS, timeMeter, listener);
-            case NONE -> new ThreadUnsafeBucket(configuration, MathType.INTEGER_64_BITS, timeMeter, listener);
+            case LOCK_FREE -> new LockFreeBucket(configuration, mathType, timeMeter, listener);
+            case SYNCHRONIZED -> new SynchronizedBucket(configuration, mathType, timeMeter, listener);
+            case NONE -> new ThreadUnsafeBucket(configuration, mathType, timeMeter, listener);
+            case LOCK_FREE_SINGLE_WORD -> new SingleWordLockFreeBucket(configuration, timeMeter, listener);
+            case SEQLOCK -> new SeqLockBucket(configuration, mathType, timeMeter, listener);
+            case STRIPED -> new StripedBucket(configuration, Runtime.getRuntime().availableProcessors(), timeMeter, listener);
         };
     }
 
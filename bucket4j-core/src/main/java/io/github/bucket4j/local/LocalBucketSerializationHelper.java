@@ -66,6 +66,9 @@ public class LocalBucketSerializationHelper {
             case LOCK_FREE -> (SerializationHandle) LockFreeBucket.SERIALIZATION_HANDLE;
             case SYNCHRONIZED -> (SerializationHandle) SynchronizedBucket.SERIALIZATION_HANDLE;
             case NONE -> (SerializationHandle) ThreadUnsafeBucket.SERIALIZATION_HANDLE;
+            case LOCK_FREE_SINGLE_WORD -> (SerializationHandle) SingleWordLockFreeBucket.SERIALIZATION_HANDLE;
+            case SEQLOCK -> (SerializationHandle) SeqLockBucket.SERIALIZATION_HANDLE;
+            case STRIPED -> (SerializationHandle) StripedBucket.SERIALIZATION_HANDLE;
         };
     }
 
@@ -76,6 +79,12 @@ public class LocalBucketSerializationHelper {
             return (SerializationHandle) SynchronizedBucket.SERIALIZATION_HANDLE;
         } else if (typeId == ThreadUnsafeBucket.SERIALIZATION_HANDLE.getTypeId()) {
             return (SerializationHandle) ThreadUnsafeBucket.SERIALIZATION_HANDLE;
+        } else if (typeId == SingleWordLockFreeBucket.SERIALIZATION_HANDLE.getTypeId()) {
+            return (SerializationHandle) SingleWordLockFreeBucket.SERIALIZATION_HANDLE;
+        } else if (typeId == SeqLockBucket.SERIALIZATION_HANDLE.getTypeId()) {
+            return (SerializationHandle) SeqLockBucket.SERIALIZATION_HANDLE;
+        } else if (typeId == StripedBucket.SERIALIZATION_HANDLE.getTypeId()) {
+            return (SerializationHandle) StripedBucket.SERIALIZATION_HANDLE;
         } else {
             throw new IOException("Unknown typeId=" + typeId);
         }
@@ -88,6 +97,12 @@ public class LocalBucketSerializationHelper {
             return (SerializationHandle) SynchronizedBucket.SERIALIZATION_HANDLE;
         } else if (ThreadUnsafeBucket.SERIALIZATION_HANDLE.getTypeName().equals(typeName)) {
             return (SerializationHandle) ThreadUnsafeBucket.SERIALIZATION_HANDLE;
+        } else if (SingleWordLockFreeBucket.SERIALIZATION_HANDLE.getTypeName().equals(typeName)) {
+            return (SerializationHandle) SingleWordLockFreeBucket.SERIALIZATION_HANDLE;
+        } else if (SeqLockBucket.SERIALIZATION_HANDLE.getTypeName().equals(typeName)) {
+            return (SerializationHandle) SeqLockBucket.SERIALIZATION_HANDLE;
+        } else if (StripedBucket.SERIALIZATION_HANDLE.getTypeName().equals(typeName)) {
+            return (SerializationHandle) StripedBucket.SERIALIZATION_HANDLE;
         } else {
             throw new IOException("Unknown typeName=" + typeName);
         }
@@ -0,0 +1,538 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.local;
+
+import io.github.bucket4j.*;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static io.github.bucket4j.LimitChecker.checkTokensToConsume;
+
+/**
+ * The table of in-memory buckets that share the same {@link BucketConfiguration}, each bucket is addressed by key.
+ *
+ * <p>In comparison with {@code ConcurrentHashMap<K, LocalBucket>} the table does not create any object per key except the key itself:
+ * state of all buckets is stored in flat {@code long[]} slabs, the position of bucket inside slab is found by open-addressing index.
+ * The table is split into stripes, each stripe is protected by its own lock, so threads that work with different stripes do not contend.
+ *
+ * <p>Results of each operation are exactly the same that {@link LockFreeBucket} with the same configuration and time meter returns,
+ * the bucket is created lazily on first consumption for its key.
+ *
+ * <p>When expiration is configured via {@link LocalBucketTableBuilder#withExpirationAfterRefill(java.time.Duration)},
+ * the key becomes expired after its bucket has been fully refilled and {@code keepAfterRefillDuration} elapsed.
+ * Expired keys are removed from stripe when stripe needs to grow or by explicit call of {@link #removeExpired()}.
+ *
+ * @param <K> type of key
+ */
+public class LocalBucketTable<K> {
+
+    private static final int MIN_STRIPE_CAPACITY = 16;
+    private static final long EXPIRATION_DISABLED = -1;
+
+    private final BucketConfiguration configuration;
+    private final TimeMeter timeMeter;
+    private final long keepAfterRefillNanos;
+    private final Stripe[] stripes;
+
+    /**
+     * Creates the builder of table
+     *
+     * @return new builder
+     */
+    public static LocalBucketTableBuilder builder() {
+        return new LocalBucketTableBuilder();
+    }
+
+    LocalBucketTable(BucketConfiguration configuration, TimeMeter timeMeter, int stripeCount, int initialCapacity, long keepAfterRefillNanos) {
+        this.configuration = configuration;
+        this.timeMeter = timeMeter;
+        this.keepAfterRefillNanos = keepAfterRefillNanos;
+
+        int stripeCapacity = tableSizeFor(Math.max(MIN_STRIPE_CAPACITY, (int) Math.min(1 << 30, 2L * initialCapacity / stripeCount)));
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(configuration, stripeCapacity, keepAfterRefillNanos);
+        }
+    }
+
+    /**
+     * Tries to consume a specified number of tokens from the bucket associated with {@code key}.
+     *
+     * @param key the key of bucket
+     * @param numTokens The number of tokens to consume from the bucket, must be a positive number.
+     *
+     * @return {@code true} if the tokens were consumed, {@code false} otherwise.
+     *
+     * @see Bucket#tryConsume(long)
+     */
+    public boolean tryConsume(K key, long numTokens) {
+        checkTokensToConsume(numTokens);
+        int hash = hash(key);
+        Stripe stripe = stripeFor(hash);
+        stripe.lock.lock();
+        try {
+            long currentTimeNanos = timeMeter.currentTimeNanos();
+            int slot = stripe.findOrInsert(key, hash, currentTimeNanos);
+            BucketState state = stripe.load(slot);
+            state.refillAllBandwidth(currentTimeNanos);
+            if (numTokens > state.getAvailableTokens()) {
+                stripe.store(slot, currentTimeNanos);
+                return false;
+            }
+            state.consume(numTokens);
+            stripe.store(slot, currentTimeNanos);
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Tries to consume a specified number of tokens from the bucket associated with {@code key}.
+     *
+     * @param key the key of bucket
+     * @param numTokens The number of tokens to consume from the bucket, must be a positive number.
+     *
+     * @return {@link ConsumptionProbe} which describes both result of consumption and tokens remaining in the bucket after consumption.
+     *
+     * @see Bucket#tryConsumeAndReturnRemaining(long)
+     */
+    public ConsumptionProbe tryConsumeAndReturnRemaining(K key, long numTokens) {
+        MutableConsumptionProbe probe = new MutableConsumptionProbe();
+        tryConsumeAndReturnRemaining(key, numTokens, probe);
+        if (probe.isConsumed()) {
+            return ConsumptionProbe.consumed(probe.getRemainingTokens(), probe.getNanosToWaitForReset());
+        } else {
+            return ConsumptionProbe.rejected(probe.getRemainingTokens(), probe.getNanosToWaitForRefill(), probe.getNanosToWaitForReset());
+        }
+    }
+
+    /**
+     * The same as {@link #tryConsumeAndReturnRemaining(Object, long)}, but writes the result into {@code probe} provided by caller.
+     *
+     * @param key the key of bucket
+     * @param numTokens The number of tokens to consume from the bucket, must be a positive number.
+     * @param probe the holder to which result of consumption is written
+     *
+     * @return {@code true} if the tokens were consumed, {@code false} otherwise.
+     *
+     * @see Bucket#tryConsumeAndReturnRemaining(long, MutableConsumptionProbe)
+     */
+    public boolean tryConsumeAndReturnRemaining(K key, long numTokens, MutableConsumptionProbe probe) {
+        checkTokensToConsume(numTokens);
+        int hash = hash(key);
+        Stripe stripe = stripeFor(hash);
+        stripe.lock.lock();
+        try {
+            long currentTimeNanos = timeMeter.currentTimeNanos();
+            int slot = stripe.findOrInsert(key, hash, currentTimeNanos);
+            BucketState state = stripe.load(slot);
+            state.refillAllBandwidth(currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens();
+            if (numTokens > availableToConsume) {
+                long nanosToWaitForRefill = state.calculateDelayNanosAfterWillBePossibleToConsume(numTokens, currentTimeNanos, true);
+                long nanosToWaitForReset = state.calculateFullRefillingTime(currentTimeNanos);
+                stripe.store(slot, currentTimeNanos);
+                probe.setRejected(availableToConsume, nanosToWaitForRefill, nanosToWaitForReset);
+                return false;
+            }
+            state.consume(numTokens);
+            long nanosToWaitForReset = state.calculateFullRefillingTime(currentTimeNanos);
+            stripe.store(slot, currentTimeNanos);
+            probe.setConsumed(availableToConsume - numTokens, nanosToWaitForReset);
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Tries to consume as much tokens from the bucket associated with {@code key} as available in the bucket at the moment of invocation,
+     * but tokens which should be consumed is limited by {@code limit}.
+     *
+     * @param key the key of bucket
+     * @param limit maximum number of tokens to consume, should be positive.
+     *
+     * @return number of tokens which has been consumed, or zero if was consumed nothing.
+     *
+     * @see Bucket#tryConsumeAsMuchAsPossible(long)
+     */
+    public long tryConsumeAsMuchAsPossible(K key, long limit) {
+        checkTokensToConsume(limit);
+        int hash = hash(key);
+        Stripe stripe = stripeFor(hash);
+        stripe.lock.lock();
+        try {
+            long currentTimeNanos = timeMeter.currentTimeNanos();
+            int slot = stripe.findOrInsert(key, hash, currentTimeNanos);
+            BucketState state = stripe.load(slot);
+            state.refillAllBandwidth(currentTimeNanos);
+            long toConsume = Math.min(limit, state.getAvailableTokens());
+            if (toConsume <= 0) {
+                stripe.store(slot, currentTimeNanos);
+                return 0;
+            }
+            state.consume(toConsume);
+            stripe.store(slot, currentTimeNanos);
+            return toConsume;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Checks the availability of the tokens in the bucket associated with {@code key} without consuming them,
+     * bucket is not created when there is no bucket for this key yet.
+     *
+     * @param key the key of bucket
+     * @param numTokens The number of tokens to check, must be a positive number.
+     *
+     * @return {@link EstimationProbe} which describes the ability to consume.
+     *
+     * @see Bucket#estimateAbilityToConsume(long)
+     */
+    public EstimationProbe estimateAbilityToConsume(K key, long numTokens) {
+        checkTokensToConsume(numTokens);
+        int hash = hash(key);
+        Stripe stripe = stripeFor(hash);
+        stripe.lock.lock();
+        try {
+            long currentTimeNanos = timeMeter.currentTimeNanos();
+            BucketState state = stripe.loadOrInitialState(key, hash, currentTimeNanos);
+            state.refillAllBandwidth(currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens();
+            if (numTokens > availableToConsume) {
+                long nanosToWaitForRefill = state.calculateDelayNanosAfterWillBePossibleToConsume(numTokens, currentTimeNanos, true);
+                return EstimationProbe.canNotBeConsumed(availableToConsume, nanosToWaitForRefill);
+            } else {
+                return EstimationProbe.canBeConsumed(availableToConsume);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the amount of available tokens in the bucket associated with {@code key},
+     * bucket is not created when there is no bucket for this key yet.
+     *
+     * @param key the key of bucket
+     *
+     * @return amount of available tokens
+     *
+     * @see Bucket#getAvailableTokens()
+     */
+    public long getAvailableTokens(K key) {
+        int hash = hash(key);
+        Stripe stripe = stripeFor(hash);
+        stripe.lock.lock();
+        try {
+            long currentTimeNanos = timeMeter.currentTimeNanos();
+            BucketState state = stripe.loadOrInitialState(key, hash, currentTimeNanos);
+            state.refillAllBandwidth(currentTimeNanos);
+            return state.getAvailableTokens();
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the bucket associated with {@code key}, next consumption for this key will start from fresh bucket.
+     *
+     * @param key the key of bucket
+     *
+     * @return {@code true} if bucket was removed, {@code false} if there was no bucket for this key
+     */
+    public boolean remove(K key) {
+        int hash = hash(key);
+        Stripe stripe = stripeFor(hash);
+        stripe.lock.lock();
+        try {
+            int slot = stripe.find(key, hash);
+            if (slot < 0) {
+                return false;
+            }
+            stripe.removeSlot(slot);
+            return true;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all expired keys, does nothing if expiration is not configured.
+     *
+     * @return amount of removed keys
+     */
+    public int removeExpired() {
+        if (keepAfterRefillNanos == EXPIRATION_DISABLED) {
+            return 0;
+        }
+        int removed = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                int sizeBefore = stripe.size;
+                stripe.rehash(timeMeter.currentTimeNanos(), stripe.keys.length);
+                removed += sizeBefore - stripe.size;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Returns amount of keys in the table, the result is not an atomic snapshot when table is concurrently modified.
+     *
+     * @return amount of keys in the table
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.size;
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    public BucketConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public TimeMeter getTimeMeter() {
+        return timeMeter;
+    }
+
+    int getStripeCount() {
+        return stripes.length;
+    }
+
+    private Stripe stripeFor(int hash) {
+        // high bits of hash choose the stripe, low bits choose the slot inside stripe
+        return stripes[(int) (((hash & 0xFFFFFFFFL) * stripes.length) >>> 32)];
+    }
+
+    private static int hash(Object key) {
+        if (key == null) {
+            throw BucketExceptions.nullKey();
+        }
+        // finalization step of MurmurHash3, spreads entropy of hashCode across all bits
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int highestOneBit = Integer.highestOneBit(capacity);
+        return highestOneBit == capacity ? capacity : highestOneBit << 1;
+    }
+
+    private static final class Stripe {
+
+        private final Lock lock = new ReentrantLock();
+
+        private final BucketConfiguration configuration;
+        private final long keepAfterRefillNanos;
+        private final int stateSize;
+        private final int slotSize;
+
+        // state of bucket that is currently processed, the array is copied from and to slab around each operation
+        private final long[] stateData;
+        private final BucketState64BitsInteger state;
+
+        private Object[] keys;
+        private int[] hashes;
+        private long[] slab;
+        private int size;
+
+        private Stripe(BucketConfiguration configuration, int capacity, long keepAfterRefillNanos) {
+            this.configuration = configuration;
+            this.keepAfterRefillNanos = keepAfterRefillNanos;
+            // each bandwidth is represented by triple [lastRefillTimeNanos, currentSize, roundingError], the last long of slot is expiration time
+            this.stateSize = configuration.getBandwidths().length * 3;
+            this.slotSize = stateSize + 1;
+            this.stateData = new long[stateSize];
+            this.state = new BucketState64BitsInteger(configuration, stateData);
+            allocate(capacity);
+        }
+
+        private void allocate(int capacity) {
+            keys = new Object[capacity];
+            hashes = new int[capacity];
+            slab = new long[capacity * slotSize];
+        }
+
+        private int find(Object key, int hash) {
+            int mask = keys.length - 1;
+            int index = hash & mask;
+            while (true) {
+                Object candidate = keys[index];
+                if (candidate == null) {
+                    return -1;
+                }
+                if (hashes[index] == hash && candidate.equals(key)) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        private int findOrInsert(Object key, int hash, long currentTimeNanos) {
+            int slot = find(key, hash);
+            if (slot >= 0) {
+                return slot;
+            }
+            // load factor is kept not greater than 0.5 to keep linear probing short
+            if (size + 1 > keys.length >> 1) {
+                rehash(currentTimeNanos, keys.length << 1);
+            }
+            int mask = keys.length - 1;
+            int index = hash & mask;
+            while (keys[index] != null) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            hashes[index] = hash;
+            size++;
+            writeInitialState(index, currentTimeNanos);
+            return index;
+        }
+
+        private BucketState load(int slot) {
+            System.arraycopy(slab, slot * slotSize, stateData, 0, stateSize);
+            return state;
+        }
+
+        private BucketState loadOrInitialState(Object key, int hash, long currentTimeNanos) {
+            int slot = find(key, hash);
+            if (slot >= 0) {
+                return load(slot);
+            }
+            return new BucketState64BitsInteger(configuration, currentTimeNanos);
+        }
+
+        private void store(int slot, long currentTimeNanos) {
+            int offset = slot * slotSize;
+            System.arraycopy(stateData, 0, slab, offset, stateSize);
+            if (keepAfterRefillNanos != EXPIRATION_DISABLED) {
+                slab[offset + stateSize] = expirationTime(state, currentTimeNanos);
+            }
+        }
+
+        private void writeInitialState(int slot, long currentTimeNanos) {
+            BucketState64BitsInteger initialState = new BucketState64BitsInteger(configuration, currentTimeNanos);
+            int offset = slot * slotSize;
+            for (int i = 0; i < stateSize / 3; i++) {
+                slab[offset + i * 3] = initialState.getLastRefillTimeNanos(i);
+                slab[offset + i * 3 + 1] = initialState.getCurrentSize(i);
+                slab[offset + i * 3 + 2] = initialState.getRoundingError(i);
+            }
+            slab[offset + stateSize] = keepAfterRefillNanos == EXPIRATION_DISABLED ? Long.MAX_VALUE : expirationTime(initialState, currentTimeNanos);
+        }
+
+        /**
+         * Removes expired keys and moves remaining keys to arrays of {@code desiredCapacity},
+         * capacity is reduced when after removal of expired keys there is enough space in smaller arrays.
+         */
+        private void rehash(long currentTimeNanos, int desiredCapacity) {
+            Object[] oldKeys = keys;
+            int[] oldHashes = hashes;
+            long[] oldSlab = slab;
+
+            int liveKeys = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null && !isExpired(oldSlab, i, currentTimeNanos)) {
+                    liveKeys++;
+                }
+            }
+            int capacity = desiredCapacity;
+            if (liveKeys < size) {
+                capacity = Math.min(desiredCapacity, tableSizeFor(Math.max(MIN_STRIPE_CAPACITY, liveKeys * 4)));
+            }
+
+            allocate(capacity);
+            size = 0;
+            int mask = capacity - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == null || isExpired(oldSlab, i, currentTimeNanos)) {
+                    continue;
+                }
+                int index = oldHashes[i] & mask;
+                while (keys[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                hashes[index] = oldHashes[i];
+                System.arraycopy(oldSlab, i * slotSize, slab, index * slotSize, slotSize);
+                size++;
+            }
+        }
+
+        private boolean isExpired(long[] slab, int slot, long currentTimeNanos) {
+            return keepAfterRefillNanos != EXPIRATION_DISABLED && slab[slot * slotSize + stateSize] <= currentTimeNanos;
+        }
+
+        /**
+         * Removes key via backward shift deletion, so there is no need in tombstones.
+         */
+        private void removeSlot(int slot) {
+            int mask = keys.length - 1;
+            int hole = slot;
+            int index = slot;
+            while (true) {
+                index = (index + 1) & mask;
+                Object candidate = keys[index];
+                if (candidate == null) {
+                    break;
+                }
+                int home = hashes[index] & mask;
+                // the entry can be moved to the hole only if its home position is not located cyclically in (hole, index]
+                boolean homeBetween = hole <= index ? (hole < home && home <= index) : (hole < home || home <= index);
+                if (!homeBetween) {
+                    keys[hole] = candidate;
+                    hashes[hole] = hashes[index];
+                    System.arraycopy(slab, index * slotSize, slab, hole * slotSize, slotSize);
+                    hole = index;
+                }
+            }
+            keys[hole] = null;
+            size--;
+        }
+
+        private long expirationTime(BucketState state, long currentTimeNanos) {
+            long expirationTime = currentTimeNanos + state.calculateFullRefillingTime(currentTimeNanos) + keepAfterRefillNanos;
+            // overflow means that bucket will never be refilled in observable future
+            return expirationTime < currentTimeNanos ? Long.MAX_VALUE : expirationTime;
+        }
+
+    }
+
+}
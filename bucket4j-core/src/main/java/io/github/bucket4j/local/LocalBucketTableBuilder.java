@@ -0,0 +1,175 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.local;
+
+import io.github.bucket4j.*;
+import io.github.bucket4j.BandwidthBuilder.BandwidthBuilderBuildStage;
+import io.github.bucket4j.BandwidthBuilder.BandwidthBuilderCapacityStage;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * This builder creates {@link LocalBucketTable}.
+ */
+public class LocalBucketTableBuilder {
+
+    private final ConfigurationBuilder configurationBuilder;
+
+    private TimeMeter timeMeter = TimeMeter.SYSTEM_MILLISECONDS;
+    private int stripes = Runtime.getRuntime().availableProcessors() * 4;
+    private int initialCapacity = 0;
+    private Duration keepAfterRefillDuration = null;
+
+    public LocalBucketTableBuilder() {
+        configurationBuilder = new ConfigurationBuilder();
+    }
+
+    /**
+     * Adds limited bandwidth for all buckets in the table which will be constructed by this builder.
+     *
+     * @param bandwidth limitation
+     * @return this builder instance
+     */
+    public LocalBucketTableBuilder addLimit(Bandwidth bandwidth) {
+        configurationBuilder.addLimit(bandwidth);
+        return this;
+    }
+
+    public LocalBucketTableBuilder addLimit(Function<BandwidthBuilderCapacityStage, BandwidthBuilderBuildStage> bandwidthConfigurator) {
+        if (bandwidthConfigurator == null) {
+            throw BucketExceptions.nullBuilder();
+        }
+        BandwidthBuilderBuildStage builder = bandwidthConfigurator.apply(Bandwidth.builder());
+        Bandwidth bandwidth = builder.build();
+        return addLimit(bandwidth);
+    }
+
+    /**
+     * Specifies {@link TimeMeter#SYSTEM_NANOTIME} as time meter for the table that will be created by this builder.
+     *
+     * @return this builder instance
+     */
+    public LocalBucketTableBuilder withNanosecondPrecision() {
+        this.timeMeter = TimeMeter.SYSTEM_NANOTIME;
+        return this;
+    }
+
+    /**
+     * Specifies {@link TimeMeter#SYSTEM_MILLISECONDS} as time meter for the table that will be created by this builder.
+     *
+     * @return this builder instance
+     */
+    public LocalBucketTableBuilder withMillisecondPrecision() {
+        this.timeMeter = TimeMeter.SYSTEM_MILLISECONDS;
+        return this;
+    }
+
+    /**
+     * Specifies {@link CachedTimeMeter#millisecondPrecision()} as time meter for the table that will be created by this builder.
+     *
+     * @return this builder instance
+     */
+    public LocalBucketTableBuilder withCachedMillisecondPrecision() {
+        this.timeMeter = CachedTimeMeter.millisecondPrecision();
+        return this;
+    }
+
+    /**
+     * Specifies {@code customTimeMeter} time meter for the table that will be created by this builder.
+     *
+     * @param customTimeMeter object which will measure time.
+     *
+     * @return this builder instance
+     */
+    public LocalBucketTableBuilder withCustomTimePrecision(TimeMeter customTimeMeter) {
+        if (customTimeMeter == null) {
+            throw BucketExceptions.nullTimeMeter();
+        }
+        this.timeMeter = customTimeMeter;
+        return this;
+    }
+
+    /**
+     * Specifies amount of independently locked stripes, by default it is four times of available processors.
+     *
+     * @param stripes amount of stripes, must be positive
+     *
+     * @return this builder instance
+     */
+    public LocalBucketTableBuilder withStripes(int stripes) {
+        if (stripes <= 0) {
+            throw BucketExceptions.nonPositiveStripes(stripes);
+        }
+        this.stripes = stripes;
+        return this;
+    }
+
+    /**
+     * Specifies expected amount of keys, the table is sized to store this amount of keys without rehashing.
+     *
+     * @param initialCapacity expected amount of keys
+     *
+     * @return this builder instance
+     */
+    public LocalBucketTableBuilder withInitialCapacity(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw BucketExceptions.negativeInitialCapacity(initialCapacity);
+        }
+        this.initialCapacity = initialCapacity;
+        return this;
+    }
+
+    /**
+     * Enables expiration of idle keys, the key becomes expired when its bucket is fully refilled and {@code keepAfterRefillDuration} elapsed.
+     * Nothing is lost when expired key is removed, because fresh bucket is fully filled too.
+     *
+     * @param keepAfterRefillDuration how long to keep fully refilled bucket
+     *
+     * @return this builder instance
+     */
+    public LocalBucketTableBuilder withExpirationAfterRefill(Duration keepAfterRefillDuration) {
+        if (keepAfterRefillDuration == null || keepAfterRefillDuration.isNegative()) {
+            throw BucketExceptions.negativeKeepAfterRefillDuration(keepAfterRefillDuration);
+        }
+        this.keepAfterRefillDuration = keepAfterRefillDuration;
+        return this;
+    }
+
+    /**
+     * Constructs the table.
+     *
+     * @param <K> type of key
+     *
+     * @return the new table
+     */
+    public <K> LocalBucketTable<K> build() {
+        BucketConfiguration configuration = configurationBuilder.build();
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            if (bandwidth.isIntervallyAligned() && !timeMeter.isWallClockBased()) {
+                throw BucketExceptions.intervallyAlignedRefillCompatibleOnlyWithWallClock();
+            }
+        }
+        long keepAfterRefillNanos = keepAfterRefillDuration == null ? -1 : keepAfterRefillDuration.toNanos();
+        return new LocalBucketTable<>(configuration, timeMeter, stripes, initialCapacity, keepAfterRefillNanos);
+    }
+
+}
@@ -58,6 +58,13 @@ public class LockFreeBucket extends AbstractBucket implements LocalBucket, Compa
         return new LockFreeBucket(stateRef, timeMeter, listener);
     }
 
+    /**
+     * @return currently published state, which must not be modified by caller
+     */
+    BucketState getState() {
+        return stateRef.get();
+    }
+
     @Override
     protected long consumeAsMuchAsPossibleImpl(long limit) {
         BucketState previousState = stateRef.get();
@@ -103,6 +110,28 @@ public class LockFreeBucket extends AbstractBucket implements LocalBucket, Compa
         }
     }
 
+    @Override
+    protected int tryConsumeEachImpl(long[] tokensToConsume, boolean[] admitted) {
+        BucketState previousState = stateRef.get();
+        BucketState newState = previousState.copy();
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+
+        while (true) {
+            newState.refillAllBandwidth(currentTimeNanos);
+            long tokensToConsumeTotal = admitEach(newState.getAvailableTokens(), tokensToConsume, admitted);
+            if (tokensToConsumeTotal == 0) {
+                return 0;
+            }
+            newState.consume(tokensToConsumeTotal);
+            if (stateRef.compareAndSet(previousState, newState)) {
+                return countAdmitted(tokensToConsume, admitted);
+            } else {
+                previousState = stateRef.get();
+                newState.copyStateFrom(previousState);
+            }
+        }
+    }
+
     @Override
     protected ConsumptionProbe tryConsumeAndReturnRemainingTokensImpl(long tokensToConsume) {
         BucketState previousState = stateRef.get();
@@ -145,6 +174,50 @@ public class LockFreeBucket extends AbstractBucket implements LocalBucket, Compa
         }
     }
 
+    @Override
+    protected void tryConsumeAndReturnRemainingTokensImpl(long tokensToConsume, MutableConsumptionProbe probe) {
+        BucketState previousState = stateRef.get();
+        BucketState newState = previousState.copy();
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+
+        while (true) {
+            newState.refillAllBandwidth(currentTimeNanos);
+            long availableToConsume = newState.getAvailableTokens();
+            if (tokensToConsume > availableToConsume) {
+                long nanosToWaitForRefill = newState.calculateDelayNanosAfterWillBePossibleToConsume(tokensToConsume, currentTimeNanos, true);
+                long nanosToWaitForReset = newState.calculateFullRefillingTime(currentTimeNanos);
+                probe.setRejected(availableToConsume, nanosToWaitForRefill, nanosToWaitForReset);
+                return;
+            }
+            newState.consume(tokensToConsume);
+            if (stateRef.compareAndSet(previousState, newState)) {
+                long remainingTokens = availableToConsume - tokensToConsume;
+                long nanosToWaitForReset = newState.calculateFullRefillingTime(currentTimeNanos);
+                probe.setConsumed(remainingTokens, nanosToWaitForReset);
+                return;
+            } else {
+                previousState = stateRef.get();
+                newState.copyStateFrom(previousState);
+            }
+        }
+    }
+
+    @Override
+    protected void estimateAbilityToConsumeImpl(long tokensToEstimate, MutableEstimationProbe probe) {
+        BucketState previousState = stateRef.get();
+        BucketState newState = previousState.copy();
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+
+        newState.refillAllBandwidth(currentTimeNanos);
+        long availableToConsume = newState.getAvailableTokens();
+        if (tokensToEstimate > availableToConsume) {
+            long nanosToWaitForRefill = newState.calculateDelayNanosAfterWillBePossibleToConsume(tokensToEstimate, currentTimeNanos, true);
+            probe.setCanNotBeConsumed(availableToConsume, nanosToWaitForRefill);
+        } else {
+            probe.setCanBeConsumed(availableToConsume);
+        }
+    }
+
     @Override
     protected long reserveAndCalculateTimeToSleepImpl(long tokensToConsume, long waitIfBusyNanosLimit) {
         BucketState previousState = stateRef.get();
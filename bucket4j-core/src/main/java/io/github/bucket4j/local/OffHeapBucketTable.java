@@ -0,0 +1,493 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.local;
+
+import io.github.bucket4j.*;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static io.github.bucket4j.LimitChecker.checkTokensToConsume;
+
+/**
+ * The table of buckets addressed by {@code long} key that stores all state outside of Java heap,
+ * so amount of keys does not affect duration of garbage collection pauses.
+ *
+ * <p>The memory is allocated once at construction time as set of direct {@link ByteBuffer}s and never grows:
+ * the table is split into groups of {@value #WAYS} slots, the key can be stored only in the group selected by hash of key.
+ * When all slots of group are occupied, the bucket which was not accessed for the longest time is evicted by CLOCK algorithm.
+ * Evicted bucket is lost, so next request for its key starts from fully filled bucket,
+ * hence {@code maxKeys} should be chosen with reserve in comparison to expected amount of concurrently active keys.
+ *
+ * <p>Each group is guarded by spin-lock, the lock word is acquired via compare-and-set through {@link VarHandle}.
+ * Neither keys nor buckets are represented by Java objects, refill math is reused from {@link BucketState64BitsInteger}.
+ *
+ * <p>Results of each operation are exactly the same that {@link LockFreeBucket} with the same configuration and time meter returns
+ * until the bucket is evicted.
+ */
+public class OffHeapBucketTable {
+
+    static final int WAYS = 8;
+
+    private static final int MAX_SEGMENT_BYTES = 1 << 30;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final long OCCUPIED = 1;
+    private static final long REFERENCED = 2;
+
+    private final BucketConfiguration configuration;
+    private final TimeMeter timeMeter;
+
+    // layout of group: [lock, slot_0, ..., slot_(WAYS-1)], layout of slot: [key, meta, bandwidth triples...]
+    private final int stateSize;
+    private final int slotBytes;
+    private final int groupBytes;
+    private final long groupMask;
+    private final int groupsPerSegmentShift;
+    private final int groupsPerSegmentMask;
+    private final ByteBuffer[] segments;
+
+    private final ThreadLocal<Scratch> scratch;
+
+    /**
+     * Creates the builder of table
+     *
+     * @return new builder
+     */
+    public static OffHeapBucketTableBuilder builder() {
+        return new OffHeapBucketTableBuilder();
+    }
+
+    OffHeapBucketTable(BucketConfiguration configuration, TimeMeter timeMeter, long maxKeys) {
+        this.configuration = configuration;
+        this.timeMeter = timeMeter;
+        this.stateSize = configuration.getBandwidths().length * 3;
+        this.slotBytes = (2 + stateSize) * Long.BYTES;
+        this.groupBytes = Long.BYTES + WAYS * slotBytes;
+
+        long groupCount = Long.highestOneBit(Math.max(1, (maxKeys + WAYS - 1) / WAYS));
+        if (groupCount * WAYS < maxKeys) {
+            groupCount <<= 1;
+        }
+        this.groupMask = groupCount - 1;
+
+        int groupsPerSegment = (int) Math.min(groupCount, Integer.highestOneBit(MAX_SEGMENT_BYTES / groupBytes));
+        this.groupsPerSegmentShift = Integer.numberOfTrailingZeros(groupsPerSegment);
+        this.groupsPerSegmentMask = groupsPerSegment - 1;
+        int segmentCount = (int) (groupCount / groupsPerSegment);
+        this.segments = new ByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            // direct buffers are zeroed by JVM, zero meta word means empty slot and zero lock word means unlocked group
+            segments[i] = ByteBuffer.allocateDirect(groupsPerSegment * groupBytes + Long.BYTES)
+                .alignedSlice(Long.BYTES)
+                .order(ByteOrder.nativeOrder());
+        }
+
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(configuration, stateSize));
+    }
+
+    /**
+     * Tries to consume a specified number of tokens from the bucket associated with {@code key}.
+     *
+     * @param key the key of bucket
+     * @param numTokens The number of tokens to consume from the bucket, must be a positive number.
+     *
+     * @return {@code true} if the tokens were consumed, {@code false} otherwise.
+     *
+     * @see Bucket#tryConsume(long)
+     */
+    public boolean tryConsume(long key, long numTokens) {
+        checkTokensToConsume(numTokens);
+        long hash = hash(key);
+        ByteBuffer segment = segmentFor(hash);
+        int groupOffset = groupOffsetFor(hash);
+        Scratch scratch = this.scratch.get();
+        BucketState64BitsInteger state = scratch.state;
+        lock(segment, groupOffset);
+        try {
+            long currentTimeNanos = timeMeter.currentTimeNanos();
+            int slotOffset = findOrInsert(segment, groupOffset, key, currentTimeNanos);
+            load(segment, slotOffset, scratch);
+            state.refillAllBandwidth(currentTimeNanos);
+            if (numTokens > state.getAvailableTokens()) {
+                store(segment, slotOffset, scratch);
+                return false;
+            }
+            state.consume(numTokens);
+            store(segment, slotOffset, scratch);
+            return true;
+        } finally {
+            unlock(segment, groupOffset);
+        }
+    }
+
+    /**
+     * Tries to consume a specified number of tokens from the bucket associated with {@code key}.
+     *
+     * @param key the key of bucket
+     * @param numTokens The number of tokens to consume from the bucket, must be a positive number.
+     *
+     * @return {@link ConsumptionProbe} which describes both result of consumption and tokens remaining in the bucket after consumption.
+     *
+     * @see Bucket#tryConsumeAndReturnRemaining(long)
+     */
+    public ConsumptionProbe tryConsumeAndReturnRemaining(long key, long numTokens) {
+        MutableConsumptionProbe probe = new MutableConsumptionProbe();
+        tryConsumeAndReturnRemaining(key, numTokens, probe);
+        if (probe.isConsumed()) {
+            return ConsumptionProbe.consumed(probe.getRemainingTokens(), probe.getNanosToWaitForReset());
+        } else {
+            return ConsumptionProbe.rejected(probe.getRemainingTokens(), probe.getNanosToWaitForRefill(), probe.getNanosToWaitForReset());
+        }
+    }
+
+    /**
+     * The same as {@link #tryConsumeAndReturnRemaining(long, long)}, but writes the result into {@code probe} provided by caller.
+     *
+     * @param key the key of bucket
+     * @param numTokens The number of tokens to consume from the bucket, must be a positive number.
+     * @param probe the holder to which result of consumption is written
+     *
+     * @return {@code true} if the tokens were consumed, {@code false} otherwise.
+     *
+     * @see Bucket#tryConsumeAndReturnRemaining(long, MutableConsumptionProbe)
+     */
+    public boolean tryConsumeAndReturnRemaining(long key, long numTokens, MutableConsumptionProbe probe) {
+        checkTokensToConsume(numTokens);
+        long hash = hash(key);
+        ByteBuffer segment = segmentFor(hash);
+        int groupOffset = groupOffsetFor(hash);
+        Scratch scratch = this.scratch.get();
+        BucketState64BitsInteger state = scratch.state;
+        lock(segment, groupOffset);
+        try {
+            long currentTimeNanos = timeMeter.currentTimeNanos();
+            int slotOffset = findOrInsert(segment, groupOffset, key, currentTimeNanos);
+            load(segment, slotOffset, scratch);
+            state.refillAllBandwidth(currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens();
+            if (numTokens > availableToConsume) {
+                long nanosToWaitForRefill = state.calculateDelayNanosAfterWillBePossibleToConsume(numTokens, currentTimeNanos, true);
+                long nanosToWaitForReset = state.calculateFullRefillingTime(currentTimeNanos);
+                store(segment, slotOffset, scratch);
+                probe.setRejected(availableToConsume, nanosToWaitForRefill, nanosToWaitForReset);
+                return false;
+            }
+            state.consume(numTokens);
+            long nanosToWaitForReset = state.calculateFullRefillingTime(currentTimeNanos);
+            store(segment, slotOffset, scratch);
+            probe.setConsumed(availableToConsume - numTokens, nanosToWaitForReset);
+            return true;
+        } finally {
+            unlock(segment, groupOffset);
+        }
+    }
+
+    /**
+     * Tries to consume as much tokens from the bucket associated with {@code key} as available in the bucket at the moment of invocation,
+     * but tokens which should be consumed is limited by {@code limit}.
+     *
+     * @param key the key of bucket
+     * @param limit maximum number of tokens to consume, should be positive.
+     *
+     * @return number of tokens which has been consumed, or zero if was consumed nothing.
+     *
+     * @see Bucket#tryConsumeAsMuchAsPossible(long)
+     */
+    public long tryConsumeAsMuchAsPossible(long key, long limit) {
+        checkTokensToConsume(limit);
+        long hash = hash(key);
+        ByteBuffer segment = segmentFor(hash);
+        int groupOffset = groupOffsetFor(hash);
+        Scratch scratch = this.scratch.get();
+        BucketState64BitsInteger state = scratch.state;
+        lock(segment, groupOffset);
+        try {
+            long currentTimeNanos = timeMeter.currentTimeNanos();
+            int slotOffset = findOrInsert(segment, groupOffset, key, currentTimeNanos);
+            load(segment, slotOffset, scratch);
+            state.refillAllBandwidth(currentTimeNanos);
+            long toConsume = Math.min(limit, state.getAvailableTokens());
+            if (toConsume <= 0) {
+                store(segment, slotOffset, scratch);
+                return 0;
+            }
+            state.consume(toConsume);
+            store(segment, slotOffset, scratch);
+            return toConsume;
+        } finally {
+            unlock(segment, groupOffset);
+        }
+    }
+
+    /**
+     * Checks the availability of the tokens in the bucket associated with {@code key} without consuming them,
+     * bucket is not created when there is no bucket for this key yet.
+     *
+     * @param key the key of bucket
+     * @param numTokens The number of tokens to check, must be a positive number.
+     *
+     * @return {@link EstimationProbe} which describes the ability to consume.
+     *
+     * @see Bucket#estimateAbilityToConsume(long)
+     */
+    public EstimationProbe estimateAbilityToConsume(long key, long numTokens) {
+        checkTokensToConsume(numTokens);
+        long hash = hash(key);
+        ByteBuffer segment = segmentFor(hash);
+        int groupOffset = groupOffsetFor(hash);
+        lock(segment, groupOffset);
+        try {
+            long currentTimeNanos = timeMeter.currentTimeNanos();
+            BucketState64BitsInteger state = loadOrInitialState(segment, groupOffset, key, currentTimeNanos);
+            state.refillAllBandwidth(currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens();
+            if (numTokens > availableToConsume) {
+                long nanosToWaitForRefill = state.calculateDelayNanosAfterWillBePossibleToConsume(numTokens, currentTimeNanos, true);
+                return EstimationProbe.canNotBeConsumed(availableToConsume, nanosToWaitForRefill);
+            } else {
+                return EstimationProbe.canBeConsumed(availableToConsume);
+            }
+        } finally {
+            unlock(segment, groupOffset);
+        }
+    }
+
+    /**
+     * Returns the amount of available tokens in the bucket associated with {@code key},
+     * bucket is not created when there is no bucket for this key yet.
+     *
+     * @param key the key of bucket
+     *
+     * @return amount of available tokens
+     *
+     * @see Bucket#getAvailableTokens()
+     */
+    public long getAvailableTokens(long key) {
+        long hash = hash(key);
+        ByteBuffer segment = segmentFor(hash);
+        int groupOffset = groupOffsetFor(hash);
+        lock(segment, groupOffset);
+        try {
+            long currentTimeNanos = timeMeter.currentTimeNanos();
+            BucketState64BitsInteger state = loadOrInitialState(segment, groupOffset, key, currentTimeNanos);
+            state.refillAllBandwidth(currentTimeNanos);
+            return state.getAvailableTokens();
+        } finally {
+            unlock(segment, groupOffset);
+        }
+    }
+
+    /**
+     * Removes the bucket associated with {@code key}, next consumption for this key will start from fresh bucket.
+     *
+     * @param key the key of bucket
+     *
+     * @return {@code true} if bucket was removed, {@code false} if there was no bucket for this key
+     */
+    public boolean remove(long key) {
+        long hash = hash(key);
+        ByteBuffer segment = segmentFor(hash);
+        int groupOffset = groupOffsetFor(hash);
+        lock(segment, groupOffset);
+        try {
+            int slotOffset = find(segment, groupOffset, key);
+            if (slotOffset < 0) {
+                return false;
+            }
+            LONG.set(segment, slotOffset + Long.BYTES, 0L);
+            return true;
+        } finally {
+            unlock(segment, groupOffset);
+        }
+    }
+
+    /**
+     * Returns amount of keys in the table, this method scans whole table and intended for monitoring purposes.
+     *
+     * @return amount of keys in the table
+     */
+    public long size() {
+        long size = 0;
+        for (ByteBuffer segment : segments) {
+            for (int groupOffset = 0; groupOffset + groupBytes <= segment.capacity(); groupOffset += groupBytes) {
+                lock(segment, groupOffset);
+                try {
+                    for (int way = 0; way < WAYS; way++) {
+                        if (((long) LONG.get(segment, metaOffset(groupOffset, way)) & OCCUPIED) != 0) {
+                            size++;
+                        }
+                    }
+                } finally {
+                    unlock(segment, groupOffset);
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns maximum amount of keys which can be stored in the table, the actual amount can be lesser because of hash collisions.
+     *
+     * @return maximum amount of keys
+     */
+    public long getCapacity() {
+        return (groupMask + 1) * WAYS;
+    }
+
+    public BucketConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public TimeMeter getTimeMeter() {
+        return timeMeter;
+    }
+
+    private ByteBuffer segmentFor(long hash) {
+        return segments[(int) ((hash & groupMask) >>> groupsPerSegmentShift)];
+    }
+
+    private int groupOffsetFor(long hash) {
+        return ((int) (hash & groupMask) & groupsPerSegmentMask) * groupBytes;
+    }
+
+    private int slotOffset(int groupOffset, int way) {
+        return groupOffset + Long.BYTES + way * slotBytes;
+    }
+
+    private int metaOffset(int groupOffset, int way) {
+        return slotOffset(groupOffset, way) + Long.BYTES;
+    }
+
+    private static void lock(ByteBuffer segment, int groupOffset) {
+        while (!LONG.compareAndSet(segment, groupOffset, 0L, 1L)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void unlock(ByteBuffer segment, int groupOffset) {
+        LONG.setRelease(segment, groupOffset, 0L);
+    }
+
+    private int find(ByteBuffer segment, int groupOffset, long key) {
+        for (int way = 0; way < WAYS; way++) {
+            int slotOffset = slotOffset(groupOffset, way);
+            long meta = (long) LONG.get(segment, slotOffset + Long.BYTES);
+            if ((meta & OCCUPIED) != 0 && (long) LONG.get(segment, slotOffset) == key) {
+                return slotOffset;
+            }
+        }
+        return -1;
+    }
+
+    private int findOrInsert(ByteBuffer segment, int groupOffset, long key, long currentTimeNanos) {
+        int slotOffset = find(segment, groupOffset, key);
+        if (slotOffset < 0) {
+            slotOffset = slotOffset(groupOffset, chooseVictim(segment, groupOffset));
+            LONG.set(segment, slotOffset, key);
+            BucketState64BitsInteger initialState = new BucketState64BitsInteger(configuration, currentTimeNanos);
+            for (int i = 0; i < stateSize / 3; i++) {
+                int offset = slotOffset + (2 + i * 3) * Long.BYTES;
+                LONG.set(segment, offset, initialState.getLastRefillTimeNanos(i));
+                LONG.set(segment, offset + Long.BYTES, initialState.getCurrentSize(i));
+                LONG.set(segment, offset + 2 * Long.BYTES, initialState.getRoundingError(i));
+            }
+        }
+        LONG.set(segment, slotOffset + Long.BYTES, OCCUPIED | REFERENCED);
+        return slotOffset;
+    }
+
+    /**
+     * Returns empty way if any, otherwise evicts by CLOCK: referenced ways get second chance, their reference bit is cleared.
+     */
+    private int chooseVictim(ByteBuffer segment, int groupOffset) {
+        for (int way = 0; way < WAYS; way++) {
+            if (((long) LONG.get(segment, metaOffset(groupOffset, way)) & OCCUPIED) == 0) {
+                return way;
+            }
+        }
+        while (true) {
+            for (int way = 0; way < WAYS; way++) {
+                int metaOffset = metaOffset(groupOffset, way);
+                long meta = (long) LONG.get(segment, metaOffset);
+                if ((meta & REFERENCED) == 0) {
+                    return way;
+                }
+                LONG.set(segment, metaOffset, meta & ~REFERENCED);
+            }
+        }
+    }
+
+    private void load(ByteBuffer segment, int slotOffset, Scratch scratch) {
+        long[] stateData = scratch.stateData;
+        int offset = slotOffset + 2 * Long.BYTES;
+        for (int i = 0; i < stateSize; i++, offset += Long.BYTES) {
+            stateData[i] = (long) LONG.get(segment, offset);
+        }
+    }
+
+    private void store(ByteBuffer segment, int slotOffset, Scratch scratch) {
+        long[] stateData = scratch.stateData;
+        int offset = slotOffset + 2 * Long.BYTES;
+        for (int i = 0; i < stateSize; i++, offset += Long.BYTES) {
+            LONG.set(segment, offset, stateData[i]);
+        }
+    }
+
+    private BucketState64BitsInteger loadOrInitialState(ByteBuffer segment, int groupOffset, long key, long currentTimeNanos) {
+        int slotOffset = find(segment, groupOffset, key);
+        if (slotOffset < 0) {
+            return new BucketState64BitsInteger(configuration, currentTimeNanos);
+        }
+        Scratch scratch = this.scratch.get();
+        load(segment, slotOffset, scratch);
+        return scratch.state;
+    }
+
+    private static long hash(long key) {
+        // finalization step of MurmurHash3
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * Per-thread on-heap copy of the bucket that is currently processed, the state is copied from and to off-heap slot around each operation.
+     */
+    private static final class Scratch {
+
+        private final long[] stateData;
+        private final BucketState64BitsInteger state;
+
+        private Scratch(BucketConfiguration configuration, int stateSize) {
+            this.stateData = new long[stateSize];
+            this.state = new BucketState64BitsInteger(configuration, stateData);
+        }
+
+    }
+
+}
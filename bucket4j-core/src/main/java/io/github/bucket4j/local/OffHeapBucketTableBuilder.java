@@ -0,0 +1,140 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.local;
+
+import io.github.bucket4j.*;
+import io.github.bucket4j.BandwidthBuilder.BandwidthBuilderBuildStage;
+import io.github.bucket4j.BandwidthBuilder.BandwidthBuilderCapacityStage;
+
+import java.util.function.Function;
+
+/**
+ * This builder creates {@link OffHeapBucketTable}.
+ */
+public class OffHeapBucketTableBuilder {
+
+    private final ConfigurationBuilder configurationBuilder;
+
+    private TimeMeter timeMeter = TimeMeter.SYSTEM_MILLISECONDS;
+    private long maxKeys = 1 << 20;
+
+    public OffHeapBucketTableBuilder() {
+        configurationBuilder = new ConfigurationBuilder();
+    }
+
+    /**
+     * Adds limited bandwidth for all buckets in the table which will be constructed by this builder.
+     *
+     * @param bandwidth limitation
+     * @return this builder instance
+     */
+    public OffHeapBucketTableBuilder addLimit(Bandwidth bandwidth) {
+        configurationBuilder.addLimit(bandwidth);
+        return this;
+    }
+
+    public OffHeapBucketTableBuilder addLimit(Function<BandwidthBuilderCapacityStage, BandwidthBuilderBuildStage> bandwidthConfigurator) {
+        if (bandwidthConfigurator == null) {
+            throw BucketExceptions.nullBuilder();
+        }
+        BandwidthBuilderBuildStage builder = bandwidthConfigurator.apply(Bandwidth.builder());
+        Bandwidth bandwidth = builder.build();
+        return addLimit(bandwidth);
+    }
+
+    /**
+     * Specifies {@link TimeMeter#SYSTEM_NANOTIME} as time meter for the table that will be created by this builder.
+     *
+     * @return this builder instance
+     */
+    public OffHeapBucketTableBuilder withNanosecondPrecision() {
+        this.timeMeter = TimeMeter.SYSTEM_NANOTIME;
+        return this;
+    }
+
+    /**
+     * Specifies {@link TimeMeter#SYSTEM_MILLISECONDS} as time meter for the table that will be created by this builder.
+     *
+     * @return this builder instance
+     */
+    public OffHeapBucketTableBuilder withMillisecondPrecision() {
+        this.timeMeter = TimeMeter.SYSTEM_MILLISECONDS;
+        return this;
+    }
+
+    /**
+     * Specifies {@link CachedTimeMeter#millisecondPrecision()} as time meter for the table that will be created by this builder.
+     *
+     * @return this builder instance
+     */
+    public OffHeapBucketTableBuilder withCachedMillisecondPrecision() {
+        this.timeMeter = CachedTimeMeter.millisecondPrecision();
+        return this;
+    }
+
+    /**
+     * Specifies {@code customTimeMeter} time meter for the table that will be created by this builder.
+     *
+     * @param customTimeMeter object which will measure time.
+     *
+     * @return this builder instance
+     */
+    public OffHeapBucketTableBuilder withCustomTimePrecision(TimeMeter customTimeMeter) {
+        if (customTimeMeter == null) {
+            throw BucketExceptions.nullTimeMeter();
+        }
+        this.timeMeter = customTimeMeter;
+        return this;
+    }
+
+    /**
+     * Specifies amount of keys for which memory is allocated, by default it is {@code 1048576}.
+     * The capacity is rounded up to power of two, memory is never allocated after construction of table,
+     * when there is no free space for new key the bucket which was not accessed recently is evicted.
+     *
+     * @param maxKeys maximum amount of keys
+     *
+     * @return this builder instance
+     */
+    public OffHeapBucketTableBuilder withMaxKeys(long maxKeys) {
+        if (maxKeys <= 0) {
+            throw BucketExceptions.nonPositiveMaxKeys(maxKeys);
+        }
+        this.maxKeys = maxKeys;
+        return this;
+    }
+
+    /**
+     * Constructs the table.
+     *
+     * @return the new table
+     */
+    public OffHeapBucketTable build() {
+        BucketConfiguration configuration = configurationBuilder.build();
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            if (bandwidth.isIntervallyAligned() && !timeMeter.isWallClockBased()) {
+                throw BucketExceptions.intervallyAlignedRefillCompatibleOnlyWithWallClock();
+            }
+        }
+        return new OffHeapBucketTable(configuration, timeMeter, maxKeys);
+    }
+
+}
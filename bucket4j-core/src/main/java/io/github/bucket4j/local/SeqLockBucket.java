@@ -0,0 +1,654 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.local;
+
+import io.github.bucket4j.*;
+import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
+import io.github.bucket4j.distributed.serialization.Scope;
+import io.github.bucket4j.distributed.serialization.SerializationAdapter;
+import io.github.bucket4j.distributed.serialization.SerializationHandle;
+import io.github.bucket4j.distributed.versioning.Version;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.util.ComparableByContent;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import static io.github.bucket4j.distributed.versioning.Versions.v_8_10_0;
+
+/**
+ * Bucket that mutates its state in place and protects it by sequence word in seqlock manner.
+ *
+ * <p>Odd value of sequence means that some thread is modifying the state right now.
+ * Writer acquires the state by CAS of sequence from even to odd value, updates the state in place and publishes even value back,
+ * so neither successful nor contended attempts allocate memory.
+ * Thread which observes odd sequence spins for a bounded number of attempts, then parks itself for exponentially growing periods,
+ * so a writer preempted inside critical section does not cause other threads to burn CPU.
+ * Readers that need only a copy of state(snapshots for serialization, {@link #toString()}, {@link #equalsByContent(SeqLockBucket)})
+ * do not modify sequence at all, they copy the state optimistically and retry if sequence was changed during copying.
+ *
+ * @see SynchronizationStrategy#SEQLOCK
+ */
+public class SeqLockBucket extends AbstractBucket implements LocalBucket, ComparableByContent<SeqLockBucket> {
+
+    private final SequencedState sequencedState;
+    private final TimeMeter timeMeter;
+
+    public SeqLockBucket(BucketConfiguration configuration, MathType mathType, TimeMeter timeMeter, BucketListener listener) {
+        this(listener, timeMeter, new SequencedState(BucketState.createInitialState(configuration, mathType, timeMeter.currentTimeNanos())));
+    }
+
+    private SeqLockBucket(BucketListener listener, TimeMeter timeMeter, SequencedState sequencedState) {
+        super(listener);
+        this.timeMeter = timeMeter;
+        this.sequencedState = sequencedState;
+    }
+
+    @Override
+    public Bucket toListenable(BucketListener listener) {
+        return new SeqLockBucket(listener, timeMeter, sequencedState);
+    }
+
+    @Override
+    protected long consumeAsMuchAsPossibleImpl(long limit) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens();
+            long toConsume = Math.min(limit, availableToConsume);
+            if (toConsume <= 0) {
+                return 0;
+            }
+            state.consume(toConsume);
+            return toConsume;
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    protected boolean tryConsumeImpl(long tokensToConsume) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens();
+            if (tokensToConsume > availableToConsume) {
+                return false;
+            }
+            state.consume(tokensToConsume);
+            return true;
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    protected ConsumptionProbe tryConsumeAndReturnRemainingTokensImpl(long tokensToConsume) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens();
+            if (tokensToConsume > availableToConsume) {
+                long nanosToWaitForRefill = state.calculateDelayNanosAfterWillBePossibleToConsume(tokensToConsume, currentTimeNanos, true);
+                long nanosToWaitForReset = state.calculateFullRefillingTime(currentTimeNanos);
+                return ConsumptionProbe.rejected(availableToConsume, nanosToWaitForRefill, nanosToWaitForReset);
+            }
+            state.consume(tokensToConsume);
+            long remainingTokens = availableToConsume - tokensToConsume;
+            long nanosToWaitForReset = state.calculateFullRefillingTime(currentTimeNanos);
+            return ConsumptionProbe.consumed(remainingTokens, nanosToWaitForReset);
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    protected EstimationProbe estimateAbilityToConsumeImpl(long tokensToEstimate) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens();
+            if (tokensToEstimate > availableToConsume) {
+                long nanosToWaitForRefill = state.calculateDelayNanosAfterWillBePossibleToConsume(tokensToEstimate, currentTimeNanos, true);
+                return EstimationProbe.canNotBeConsumed(availableToConsume, nanosToWaitForRefill);
+            }
+            return EstimationProbe.canBeConsumed(availableToConsume);
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    protected void tryConsumeAndReturnRemainingTokensImpl(long tokensToConsume, MutableConsumptionProbe probe) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens();
+            if (tokensToConsume > availableToConsume) {
+                long nanosToWaitForRefill = state.calculateDelayNanosAfterWillBePossibleToConsume(tokensToConsume, currentTimeNanos, true);
+                long nanosToWaitForReset = state.calculateFullRefillingTime(currentTimeNanos);
+                probe.setRejected(availableToConsume, nanosToWaitForRefill, nanosToWaitForReset);
+                return;
+            }
+            state.consume(tokensToConsume);
+            long remainingTokens = availableToConsume - tokensToConsume;
+            long nanosToWaitForReset = state.calculateFullRefillingTime(currentTimeNanos);
+            probe.setConsumed(remainingTokens, nanosToWaitForReset);
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    protected void estimateAbilityToConsumeImpl(long tokensToEstimate, MutableEstimationProbe probe) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens();
+            if (tokensToEstimate > availableToConsume) {
+                long nanosToWaitForRefill = state.calculateDelayNanosAfterWillBePossibleToConsume(tokensToEstimate, currentTimeNanos, true);
+                probe.setCanNotBeConsumed(availableToConsume, nanosToWaitForRefill);
+            } else {
+                probe.setCanBeConsumed(availableToConsume);
+            }
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    protected long reserveAndCalculateTimeToSleepImpl(long tokensToConsume, long waitIfBusyNanosLimit) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            long nanosToCloseDeficit = state.calculateDelayNanosAfterWillBePossibleToConsume(tokensToConsume, currentTimeNanos, false);
+
+            if (nanosToCloseDeficit == Long.MAX_VALUE || nanosToCloseDeficit > waitIfBusyNanosLimit) {
+                return Long.MAX_VALUE;
+            }
+
+            state.consume(tokensToConsume);
+            return nanosToCloseDeficit;
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    protected VerboseResult<Long> reserveAndCalculateTimeToSleepVerboseImpl(long tokensToConsume, long maxWaitTimeNanos) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            long nanosToCloseDeficit = state.calculateDelayNanosAfterWillBePossibleToConsume(tokensToConsume, currentTimeNanos, false);
+
+            if (nanosToCloseDeficit == Long.MAX_VALUE || nanosToCloseDeficit > maxWaitTimeNanos) {
+                return new VerboseResult<>(currentTimeNanos, Long.MAX_VALUE, state.copy());
+            }
+
+            state.consume(tokensToConsume);
+            return new VerboseResult<>(currentTimeNanos, nanosToCloseDeficit, state.copy());
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    protected long consumeIgnoringRateLimitsImpl(long tokensToConsume) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            long nanosToCloseDeficit = state.calculateDelayNanosAfterWillBePossibleToConsume(tokensToConsume, currentTimeNanos, false);
+
+            if (nanosToCloseDeficit == INFINITY_DURATION) {
+                return nanosToCloseDeficit;
+            }
+            state.consume(tokensToConsume);
+            return nanosToCloseDeficit;
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    protected VerboseResult<Long> consumeAsMuchAsPossibleVerboseImpl(long limit) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens();
+            long toConsume = Math.min(limit, availableToConsume);
+            if (toConsume <= 0) {
+                return new VerboseResult<>(currentTimeNanos, 0L, state.copy());
+            }
+            state.consume(toConsume);
+            return new VerboseResult<>(currentTimeNanos, toConsume, state.copy());
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    protected VerboseResult<Boolean> tryConsumeVerboseImpl(long tokensToConsume) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens();
+            if (tokensToConsume > availableToConsume) {
+                return new VerboseResult<>(currentTimeNanos, false, state.copy());
+            }
+            state.consume(tokensToConsume);
+            return new VerboseResult<>(currentTimeNanos, true, state.copy());
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    protected VerboseResult<ConsumptionProbe> tryConsumeAndReturnRemainingTokensVerboseImpl(long tokensToConsume) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens();
+            if (tokensToConsume > availableToConsume) {
+                long nanosToWaitForRefill = state.calculateDelayNanosAfterWillBePossibleToConsume(tokensToConsume, currentTimeNanos, true);
+                long nanosToWaitForReset = state.calculateFullRefillingTime(currentTimeNanos);
+                ConsumptionProbe probe = ConsumptionProbe.rejected(availableToConsume, nanosToWaitForRefill, nanosToWaitForReset);
+                return new VerboseResult<>(currentTimeNanos, probe, state.copy());
+            }
+            state.consume(tokensToConsume);
+            long nanosToWaitForReset = state.calculateFullRefillingTime(currentTimeNanos);
+            ConsumptionProbe probe = ConsumptionProbe.consumed(availableToConsume - tokensToConsume, nanosToWaitForReset);
+            return new VerboseResult<>(currentTimeNanos, probe, state.copy());
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    protected VerboseResult<EstimationProbe> estimateAbilityToConsumeVerboseImpl(long tokensToEstimate) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens();
+            if (tokensToEstimate > availableToConsume) {
+                long nanosToWaitForRefill = state.calculateDelayNanosAfterWillBePossibleToConsume(tokensToEstimate, currentTimeNanos, true);
+                EstimationProbe estimationProbe = EstimationProbe.canNotBeConsumed(availableToConsume, nanosToWaitForRefill);
+                return new VerboseResult<>(currentTimeNanos, estimationProbe, state.copy());
+            }
+            EstimationProbe estimationProbe = EstimationProbe.canBeConsumed(availableToConsume);
+            return new VerboseResult<>(currentTimeNanos, estimationProbe, state.copy());
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    protected VerboseResult<Long> getAvailableTokensVerboseImpl() {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            long availableTokens = state.getAvailableTokens();
+            return new VerboseResult<>(currentTimeNanos, availableTokens, state.copy());
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    protected VerboseResult<Nothing> addTokensVerboseImpl(long tokensToAdd) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            state.addTokens(tokensToAdd);
+            return new VerboseResult<>(currentTimeNanos, Nothing.INSTANCE, state.copy());
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    protected VerboseResult<Nothing> forceAddTokensVerboseImpl(long tokensToAdd) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            state.forceAddTokens(tokensToAdd);
+            return new VerboseResult<>(currentTimeNanos, Nothing.INSTANCE, state.copy());
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    protected VerboseResult<Nothing> resetVerboseImpl() {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            state.reset();
+            return new VerboseResult<>(currentTimeNanos, Nothing.INSTANCE, state.copy());
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    protected VerboseResult<Nothing> replaceConfigurationVerboseImpl(BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            BucketState newState = state.replaceConfiguration(newConfiguration, tokensInheritanceStrategy, currentTimeNanos);
+            sequencedState.state = newState;
+            return new VerboseResult<>(currentTimeNanos, null, newState.copy());
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    protected VerboseResult<Long> consumeIgnoringRateLimitsVerboseImpl(long tokensToConsume) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            long nanosToCloseDeficit = state.calculateDelayNanosAfterWillBePossibleToConsume(tokensToConsume, currentTimeNanos, false);
+
+            if (nanosToCloseDeficit == INFINITY_DURATION) {
+                return new VerboseResult<>(currentTimeNanos, nanosToCloseDeficit, state.copy());
+            }
+            state.consume(tokensToConsume);
+            return new VerboseResult<>(currentTimeNanos, nanosToCloseDeficit, state.copy());
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    protected void addTokensImpl(long tokensToAdd) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            state.addTokens(tokensToAdd);
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    protected void forceAddTokensImpl(long tokensToAdd) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            state.forceAddTokens(tokensToAdd);
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    public void reset() {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            state.reset();
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    public long getAvailableTokens() {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            return state.getAvailableTokens();
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    protected void replaceConfigurationImpl(BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        long sequence = sequencedState.beginWrite();
+        try {
+            BucketState state = sequencedState.state;
+            state.refillAllBandwidth(currentTimeNanos);
+            sequencedState.state = state.replaceConfiguration(newConfiguration, tokensInheritanceStrategy, currentTimeNanos);
+        } finally {
+            sequencedState.endWrite(sequence);
+        }
+    }
+
+    @Override
+    public BucketConfiguration getConfiguration() {
+        return sequencedState.state.getConfiguration();
+    }
+
+    @Override
+    public TimeMeter getTimeMeter() {
+        return timeMeter;
+    }
+
+    @Override
+    public SynchronizationStrategy getSynchronizationStrategy() {
+        return SynchronizationStrategy.SEQLOCK;
+    }
+
+    @Override
+    public String toString() {
+        BucketState state = sequencedState.snapshot();
+        return "SeqLockBucket{" +
+                "state=" + state +
+                ", configuration=" + state.getConfiguration() +
+                '}';
+    }
+
+    /**
+     * The state shared between bucket and its listenable views, together with sequence word that protects it.
+     */
+    private static final class SequencedState {
+
+        private static final VarHandle SEQUENCE;
+        static {
+            try {
+                SEQUENCE = MethodHandles.lookup().findVarHandle(SequencedState.class, "sequence", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        // spinning makes no sense on single CPU, because the owner of sequence can not make progress while we spin
+        private static final int SPIN_LIMIT = Runtime.getRuntime().availableProcessors() > 1 ? 128 : 0;
+        private static final long MIN_PARK_NANOS = 1_000;
+        private static final long MAX_PARK_NANOS = 1_000_000;
+
+        private volatile long sequence;
+
+        // reference is replaced only by writer, volatile is required to publish new state safely to optimistic readers
+        private volatile BucketState state;
+
+        private SequencedState(BucketState state) {
+            this.state = state;
+        }
+
+        /**
+         * @return odd value of sequence that must be passed to {@link #endWrite(long)}
+         */
+        private long beginWrite() {
+            for (int attempt = 0; ; attempt++) {
+                long currentSequence = (long) SEQUENCE.getAcquire(this);
+                if ((currentSequence & 1) == 0 && SEQUENCE.compareAndSet(this, currentSequence, currentSequence + 1)) {
+                    return currentSequence + 1;
+                }
+                backoff(attempt);
+            }
+        }
+
+        private void endWrite(long writeSequence) {
+            SEQUENCE.setRelease(this, writeSequence + 1);
+        }
+
+        private BucketState snapshot() {
+            for (int attempt = 0; ; attempt++) {
+                long currentSequence = (long) SEQUENCE.getAcquire(this);
+                if ((currentSequence & 1) == 0) {
+                    BucketState copy = state.copy();
+                    VarHandle.acquireFence();
+                    if (currentSequence == (long) SEQUENCE.getOpaque(this)) {
+                        return copy;
+                    }
+                }
+                backoff(attempt);
+            }
+        }
+
+        private static void backoff(int attempt) {
+            if (attempt < SPIN_LIMIT) {
+                Thread.onSpinWait();
+            } else {
+                int parkNumber = Math.min(attempt - SPIN_LIMIT, 10);
+                LockSupport.parkNanos(Math.min(MIN_PARK_NANOS << parkNumber, MAX_PARK_NANOS));
+            }
+        }
+
+    }
+
+    public static final SerializationHandle<SeqLockBucket> SERIALIZATION_HANDLE = new SerializationHandle<>() {
+        @Override
+        public <S> SeqLockBucket deserialize(DeserializationAdapter<S> adapter, S input) throws IOException {
+            int formatNumber = adapter.readInt(input);
+            Versions.check(formatNumber, v_8_10_0, v_8_10_0);
+
+            BucketConfiguration bucketConfiguration = BucketConfiguration.SERIALIZATION_HANDLE.deserialize(adapter, input);
+            BucketState bucketState = BucketState.deserialize(adapter, input);
+            bucketState.setConfiguration(bucketConfiguration);
+
+            return new SeqLockBucket(BucketListener.NOPE, TimeMeter.SYSTEM_MILLISECONDS, new SequencedState(bucketState));
+        }
+
+        @Override
+        public <O> void serialize(SerializationAdapter<O> adapter, O output, SeqLockBucket bucket, Version backwardCompatibilityVersion, Scope scope) throws IOException {
+            if (bucket.timeMeter != TimeMeter.SYSTEM_MILLISECONDS) {
+                throw new NotSerializableException("Only TimeMeter.SYSTEM_MILLISECONDS can be serialized safely");
+            }
+            adapter.writeInt(output, v_8_10_0.getNumber());
+            BucketState state = bucket.sequencedState.snapshot();
+            BucketConfiguration.SERIALIZATION_HANDLE.serialize(adapter, output, state.getConfiguration(), backwardCompatibilityVersion, scope);
+            BucketState.serialize(adapter, output, state, backwardCompatibilityVersion, scope);
+        }
+
+        @Override
+        public int getTypeId() {
+            return 64;
+        }
+
+        @Override
+        public Class<SeqLockBucket> getSerializedType() {
+            return SeqLockBucket.class;
+        }
+
+        @Override
+        public SeqLockBucket fromJsonCompatibleSnapshot(Map<String, Object> snapshot) throws IOException {
+            int formatNumber = readIntValue(snapshot, "version");
+            Versions.check(formatNumber, v_8_10_0, v_8_10_0);
+
+            Map<String, Object> stateSnapshot = (Map<String, Object>) snapshot.get("state");
+            BucketState state = BucketState.fromJsonCompatibleSnapshot(stateSnapshot);
+
+            return new SeqLockBucket(BucketListener.NOPE, TimeMeter.SYSTEM_MILLISECONDS, new SequencedState(state));
+        }
+
+        @Override
+        public Map<String, Object> toJsonCompatibleSnapshot(SeqLockBucket bucket, Version backwardCompatibilityVersion, Scope scope) throws IOException {
+            if (bucket.timeMeter != TimeMeter.SYSTEM_MILLISECONDS) {
+                throw new NotSerializableException("Only TimeMeter.SYSTEM_MILLISECONDS can be serialized safely");
+            }
+            Map<String, Object> result = new HashMap<>();
+            result.put("version", v_8_10_0.getNumber());
+            result.put("state", BucketState.toJsonCompatibleSnapshot(bucket.sequencedState.snapshot(), backwardCompatibilityVersion, scope));
+            return result;
+        }
+
+        @Override
+        public String getTypeName() {
+            return "SeqLockBucket";
+        }
+
+    };
+
+    @Override
+    public boolean equalsByContent(SeqLockBucket other) {
+        BucketState state = sequencedState.snapshot();
+        BucketState otherState = other.sequencedState.snapshot();
+        return ComparableByContent.equals(state, otherState) &&
+                ComparableByContent.equals(state.getConfiguration(), otherState.getConfiguration()) &&
+                timeMeter == other.timeMeter;
+    }
+
+}
@@ -0,0 +1,827 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.local;
+
+import io.github.bucket4j.*;
+import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
+import io.github.bucket4j.distributed.serialization.Scope;
+import io.github.bucket4j.distributed.serialization.SerializationAdapter;
+import io.github.bucket4j.distributed.serialization.SerializationHandle;
+import io.github.bucket4j.distributed.versioning.Version;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.util.ComparableByContent;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.github.bucket4j.distributed.versioning.Versions.v_8_10_0;
+
+/**
+ * Lock-free bucket for configurations with exactly one greedy bandwidth,
+ * that keeps whole mutable state inside single {@code long} and never allocates memory on consumption.
+ *
+ * <p>Instead of pair "current size + time of last refill" the bucket stores the moment of virtual time when bucket was(or will be) empty.
+ * Time and tokens are measured in the same units, so {@code availableUnits(t) = min(capacity, (t - base) * unitsPerNanosecond - word)},
+ * where one token is {@code unitsPerToken} units, this is exactly the same arithmetic that {@link BucketState64BitsInteger} performs with "currentSize + roundingError",
+ * so results of refill are identical bit-for-bit.
+ *
+ * <p>Configuration and base of time are kept in immutable {@link Generation} that is replaced only when configuration is changed
+ * or when base of time needs to be moved forward in order to prevent arithmetic overflow.
+ * Word of old generation is sealed before replacement, so concurrent writers can not lose their updates.
+ *
+ * @see SynchronizationStrategy#LOCK_FREE_SINGLE_WORD
+ */
+public class SingleWordLockFreeBucket extends AbstractBucket implements LocalBucket, ComparableByContent<SingleWordLockFreeBucket> {
+
+    private static final long SEALED = Long.MIN_VALUE;
+    private static final long MIN_UNITS = -(Long.MAX_VALUE / 4);
+    private static final long MAX_UNITS = Long.MAX_VALUE / 2;
+
+    private final AtomicReference<Generation> generationRef;
+    private final TimeMeter timeMeter;
+
+    public SingleWordLockFreeBucket(BucketConfiguration configuration, TimeMeter timeMeter, BucketListener listener) {
+        this(new AtomicReference<>(createInitialGeneration(configuration, timeMeter)), timeMeter, listener);
+    }
+
+    private SingleWordLockFreeBucket(AtomicReference<Generation> generationRef, TimeMeter timeMeter, BucketListener listener) {
+        super(listener);
+        this.timeMeter = timeMeter;
+        this.generationRef = generationRef;
+    }
+
+    /**
+     * Checks that configuration can be handled by {@link SingleWordLockFreeBucket}.
+     *
+     * @param configuration the configuration to check
+     *
+     * @return true if configuration contains exactly one bandwidth with greedy refill and its capacity is not too big to be expressed in refill units
+     */
+    public static boolean isApplicable(BucketConfiguration configuration) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        if (bandwidths.length != 1) {
+            return false;
+        }
+        Bandwidth bandwidth = bandwidths[0];
+        if (bandwidth.isRefillIntervally()) {
+            return false;
+        }
+        long unitsPerToken = bandwidth.getRefillPeriodNanos() / gcd(bandwidth.getRefillPeriodNanos(), bandwidth.getRefillTokens());
+        return bandwidth.getCapacity() <= MAX_UNITS / unitsPerToken;
+    }
+
+    @Override
+    public Bucket toListenable(BucketListener listener) {
+        return new SingleWordLockFreeBucket(generationRef, timeMeter, listener);
+    }
+
+    @Override
+    protected long consumeAsMuchAsPossibleImpl(long limit) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Generation generation = generationRef.get();
+            long word = generation.word.get();
+            if (word == SEALED || !generation.isActual(currentTimeNanos)) {
+                onStaleGeneration(generation, word, currentTimeNanos);
+                continue;
+            }
+            long availableUnits = generation.getAvailableUnits(word, currentTimeNanos);
+            long toConsume = Math.min(limit, generation.toTokens(availableUnits));
+            if (toConsume <= 0) {
+                return 0;
+            }
+            long newUnits = availableUnits - toConsume * generation.unitsPerToken;
+            if (generation.word.compareAndSet(word, generation.toWord(newUnits, currentTimeNanos))) {
+                return toConsume;
+            }
+        }
+    }
+
+    @Override
+    protected boolean tryConsumeImpl(long tokensToConsume) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Generation generation = generationRef.get();
+            long word = generation.word.get();
+            if (word == SEALED || !generation.isActual(currentTimeNanos)) {
+                onStaleGeneration(generation, word, currentTimeNanos);
+                continue;
+            }
+            if (tokensToConsume > generation.capacity) {
+                return false;
+            }
+            long availableUnits = generation.getAvailableUnits(word, currentTimeNanos);
+            long unitsToConsume = tokensToConsume * generation.unitsPerToken;
+            if (unitsToConsume > availableUnits) {
+                return false;
+            }
+            if (generation.word.compareAndSet(word, generation.toWord(availableUnits - unitsToConsume, currentTimeNanos))) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    protected ConsumptionProbe tryConsumeAndReturnRemainingTokensImpl(long tokensToConsume) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Generation generation = generationRef.get();
+            long word = generation.word.get();
+            if (word == SEALED || !generation.isActual(currentTimeNanos)) {
+                onStaleGeneration(generation, word, currentTimeNanos);
+                continue;
+            }
+            long availableUnits = generation.getAvailableUnits(word, currentTimeNanos);
+            if (tokensToConsume > generation.capacity || tokensToConsume * generation.unitsPerToken > availableUnits) {
+                long nanosToWaitForRefill = generation.calculateDelayNanosAfterWillBePossibleToConsume(availableUnits, tokensToConsume, true);
+                long nanosToWaitForReset = generation.calculateFullRefillingTime(availableUnits);
+                return ConsumptionProbe.rejected(generation.toTokens(availableUnits), nanosToWaitForRefill, nanosToWaitForReset);
+            }
+            long newUnits = availableUnits - tokensToConsume * generation.unitsPerToken;
+            if (generation.word.compareAndSet(word, generation.toWord(newUnits, currentTimeNanos))) {
+                long nanosToWaitForReset = generation.calculateFullRefillingTime(newUnits);
+                return ConsumptionProbe.consumed(generation.toTokens(newUnits), nanosToWaitForReset);
+            }
+        }
+    }
+
+    @Override
+    protected EstimationProbe estimateAbilityToConsumeImpl(long tokensToEstimate) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Generation generation = generationRef.get();
+            long word = generation.word.get();
+            if (word == SEALED || !generation.isActual(currentTimeNanos)) {
+                onStaleGeneration(generation, word, currentTimeNanos);
+                continue;
+            }
+            long availableUnits = generation.getAvailableUnits(word, currentTimeNanos);
+            if (tokensToEstimate > generation.capacity || tokensToEstimate * generation.unitsPerToken > availableUnits) {
+                long nanosToWaitForRefill = generation.calculateDelayNanosAfterWillBePossibleToConsume(availableUnits, tokensToEstimate, true);
+                return EstimationProbe.canNotBeConsumed(generation.toTokens(availableUnits), nanosToWaitForRefill);
+            } else {
+                return EstimationProbe.canBeConsumed(generation.toTokens(availableUnits));
+            }
+        }
+    }
+
+    @Override
+    protected void tryConsumeAndReturnRemainingTokensImpl(long tokensToConsume, MutableConsumptionProbe probe) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Generation generation = generationRef.get();
+            long word = generation.word.get();
+            if (word == SEALED || !generation.isActual(currentTimeNanos)) {
+                onStaleGeneration(generation, word, currentTimeNanos);
+                continue;
+            }
+            long availableUnits = generation.getAvailableUnits(word, currentTimeNanos);
+            if (tokensToConsume > generation.capacity || tokensToConsume * generation.unitsPerToken > availableUnits) {
+                long nanosToWaitForRefill = generation.calculateDelayNanosAfterWillBePossibleToConsume(availableUnits, tokensToConsume, true);
+                long nanosToWaitForReset = generation.calculateFullRefillingTime(availableUnits);
+                probe.setRejected(generation.toTokens(availableUnits), nanosToWaitForRefill, nanosToWaitForReset);
+                return;
+            }
+            long newUnits = availableUnits - tokensToConsume * generation.unitsPerToken;
+            if (generation.word.compareAndSet(word, generation.toWord(newUnits, currentTimeNanos))) {
+                long nanosToWaitForReset = generation.calculateFullRefillingTime(newUnits);
+                probe.setConsumed(generation.toTokens(newUnits), nanosToWaitForReset);
+                return;
+            }
+        }
+    }
+
+    @Override
+    protected void estimateAbilityToConsumeImpl(long tokensToEstimate, MutableEstimationProbe probe) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Generation generation = generationRef.get();
+            long word = generation.word.get();
+            if (word == SEALED || !generation.isActual(currentTimeNanos)) {
+                onStaleGeneration(generation, word, currentTimeNanos);
+                continue;
+            }
+            long availableUnits = generation.getAvailableUnits(word, currentTimeNanos);
+            if (tokensToEstimate > generation.capacity || tokensToEstimate * generation.unitsPerToken > availableUnits) {
+                long nanosToWaitForRefill = generation.calculateDelayNanosAfterWillBePossibleToConsume(availableUnits, tokensToEstimate, true);
+                probe.setCanNotBeConsumed(generation.toTokens(availableUnits), nanosToWaitForRefill);
+            } else {
+                probe.setCanBeConsumed(generation.toTokens(availableUnits));
+            }
+            return;
+        }
+    }
+
+    @Override
+    protected long reserveAndCalculateTimeToSleepImpl(long tokensToConsume, long waitIfBusyNanosLimit) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Generation generation = generationRef.get();
+            long word = generation.word.get();
+            if (word == SEALED || !generation.isActual(currentTimeNanos)) {
+                onStaleGeneration(generation, word, currentTimeNanos);
+                continue;
+            }
+            long availableUnits = generation.getAvailableUnits(word, currentTimeNanos);
+            long nanosToCloseDeficit = generation.calculateDelayNanosAfterWillBePossibleToConsume(availableUnits, tokensToConsume, false);
+            if (nanosToCloseDeficit == INFINITY_DURATION || nanosToCloseDeficit > waitIfBusyNanosLimit) {
+                return INFINITY_DURATION;
+            }
+            long newUnits = generation.consumeUnits(availableUnits, tokensToConsume);
+            if (newUnits == SEALED) {
+                return INFINITY_DURATION;
+            }
+            if (generation.word.compareAndSet(word, generation.toWord(newUnits, currentTimeNanos))) {
+                return nanosToCloseDeficit;
+            }
+        }
+    }
+
+    @Override
+    protected VerboseResult<Long> reserveAndCalculateTimeToSleepVerboseImpl(long tokensToConsume, long maxWaitTimeNanos) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Generation generation = generationRef.get();
+            long word = generation.word.get();
+            if (word == SEALED || !generation.isActual(currentTimeNanos)) {
+                onStaleGeneration(generation, word, currentTimeNanos);
+                continue;
+            }
+            long availableUnits = generation.getAvailableUnits(word, currentTimeNanos);
+            long nanosToCloseDeficit = generation.calculateDelayNanosAfterWillBePossibleToConsume(availableUnits, tokensToConsume, false);
+            if (nanosToCloseDeficit == INFINITY_DURATION || nanosToCloseDeficit > maxWaitTimeNanos) {
+                return new VerboseResult<>(currentTimeNanos, INFINITY_DURATION, generation.toBucketState(availableUnits, currentTimeNanos));
+            }
+            long newUnits = generation.consumeUnits(availableUnits, tokensToConsume);
+            if (newUnits == SEALED) {
+                return new VerboseResult<>(currentTimeNanos, INFINITY_DURATION, generation.toBucketState(availableUnits, currentTimeNanos));
+            }
+            if (generation.word.compareAndSet(word, generation.toWord(newUnits, currentTimeNanos))) {
+                return new VerboseResult<>(currentTimeNanos, nanosToCloseDeficit, generation.toBucketState(newUnits, currentTimeNanos));
+            }
+        }
+    }
+
+    @Override
+    protected void addTokensImpl(long tokensToAdd) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Generation generation = generationRef.get();
+            long word = generation.word.get();
+            if (word == SEALED || !generation.isActual(currentTimeNanos)) {
+                onStaleGeneration(generation, word, currentTimeNanos);
+                continue;
+            }
+            long newUnits = generation.addUnits(generation.getAvailableUnits(word, currentTimeNanos), tokensToAdd);
+            if (generation.word.compareAndSet(word, generation.toWord(newUnits, currentTimeNanos))) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    protected void forceAddTokensImpl(long tokensToAdd) {
+        // amount of tokens above capacity can not be represented by single word
+        throw BucketExceptions.forceAddTokensIsNotSupportedBySingleWordStrategy();
+    }
+
+    @Override
+    public void reset() {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Generation generation = generationRef.get();
+            long word = generation.word.get();
+            if (word == SEALED || !generation.isActual(currentTimeNanos)) {
+                onStaleGeneration(generation, word, currentTimeNanos);
+                continue;
+            }
+            if (generation.word.compareAndSet(word, generation.toWord(generation.maxUnits, currentTimeNanos))) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    protected void replaceConfigurationImpl(BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy) {
+        replaceConfigurationAndGetState(newConfiguration, tokensInheritanceStrategy, timeMeter.currentTimeNanos());
+    }
+
+    @Override
+    protected long consumeIgnoringRateLimitsImpl(long tokensToConsume) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Generation generation = generationRef.get();
+            long word = generation.word.get();
+            if (word == SEALED || !generation.isActual(currentTimeNanos)) {
+                onStaleGeneration(generation, word, currentTimeNanos);
+                continue;
+            }
+            long availableUnits = generation.getAvailableUnits(word, currentTimeNanos);
+            long nanosToCloseDeficit = generation.calculateDelayNanosAfterWillBePossibleToConsume(availableUnits, tokensToConsume, false);
+            if (nanosToCloseDeficit == INFINITY_DURATION) {
+                return nanosToCloseDeficit;
+            }
+            long newUnits = generation.consumeUnits(availableUnits, tokensToConsume);
+            if (newUnits == SEALED) {
+                return INFINITY_DURATION;
+            }
+            if (generation.word.compareAndSet(word, generation.toWord(newUnits, currentTimeNanos))) {
+                return nanosToCloseDeficit;
+            }
+        }
+    }
+
+    @Override
+    protected VerboseResult<Long> consumeAsMuchAsPossibleVerboseImpl(long limit) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Generation generation = generationRef.get();
+            long word = generation.word.get();
+            if (word == SEALED || !generation.isActual(currentTimeNanos)) {
+                onStaleGeneration(generation, word, currentTimeNanos);
+                continue;
+            }
+            long availableUnits = generation.getAvailableUnits(word, currentTimeNanos);
+            long toConsume = Math.min(limit, generation.toTokens(availableUnits));
+            if (toConsume <= 0) {
+                return new VerboseResult<>(currentTimeNanos, 0L, generation.toBucketState(availableUnits, currentTimeNanos));
+            }
+            long newUnits = availableUnits - toConsume * generation.unitsPerToken;
+            if (generation.word.compareAndSet(word, generation.toWord(newUnits, currentTimeNanos))) {
+                return new VerboseResult<>(currentTimeNanos, toConsume, generation.toBucketState(newUnits, currentTimeNanos));
+            }
+        }
+    }
+
+    @Override
+    protected VerboseResult<Boolean> tryConsumeVerboseImpl(long tokensToConsume) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Generation generation = generationRef.get();
+            long word = generation.word.get();
+            if (word == SEALED || !generation.isActual(currentTimeNanos)) {
+                onStaleGeneration(generation, word, currentTimeNanos);
+                continue;
+            }
+            long availableUnits = generation.getAvailableUnits(word, currentTimeNanos);
+            if (tokensToConsume > generation.capacity || tokensToConsume * generation.unitsPerToken > availableUnits) {
+                return new VerboseResult<>(currentTimeNanos, false, generation.toBucketState(availableUnits, currentTimeNanos));
+            }
+            long newUnits = availableUnits - tokensToConsume * generation.unitsPerToken;
+            if (generation.word.compareAndSet(word, generation.toWord(newUnits, currentTimeNanos))) {
+                return new VerboseResult<>(currentTimeNanos, true, generation.toBucketState(newUnits, currentTimeNanos));
+            }
+        }
+    }
+
+    @Override
+    protected VerboseResult<ConsumptionProbe> tryConsumeAndReturnRemainingTokensVerboseImpl(long tokensToConsume) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Generation generation = generationRef.get();
+            long word = generation.word.get();
+            if (word == SEALED || !generation.isActual(currentTimeNanos)) {
+                onStaleGeneration(generation, word, currentTimeNanos);
+                continue;
+            }
+            long availableUnits = generation.getAvailableUnits(word, currentTimeNanos);
+            if (tokensToConsume > generation.capacity || tokensToConsume * generation.unitsPerToken > availableUnits) {
+                long nanosToWaitForRefill = generation.calculateDelayNanosAfterWillBePossibleToConsume(availableUnits, tokensToConsume, true);
+                long nanosToWaitForReset = generation.calculateFullRefillingTime(availableUnits);
+                ConsumptionProbe consumptionProbe = ConsumptionProbe.rejected(generation.toTokens(availableUnits), nanosToWaitForRefill, nanosToWaitForReset);
+                return new VerboseResult<>(currentTimeNanos, consumptionProbe, generation.toBucketState(availableUnits, currentTimeNanos));
+            }
+            long newUnits = availableUnits - tokensToConsume * generation.unitsPerToken;
+            if (generation.word.compareAndSet(word, generation.toWord(newUnits, currentTimeNanos))) {
+                long nanosToWaitForReset = generation.calculateFullRefillingTime(newUnits);
+                ConsumptionProbe consumptionProbe = ConsumptionProbe.consumed(generation.toTokens(newUnits), nanosToWaitForReset);
+                return new VerboseResult<>(currentTimeNanos, consumptionProbe, generation.toBucketState(newUnits, currentTimeNanos));
+            }
+        }
+    }
+
+    @Override
+    protected VerboseResult<EstimationProbe> estimateAbilityToConsumeVerboseImpl(long tokensToEstimate) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        BucketState snapshot = takeSnapshot(currentTimeNanos);
+        long availableToConsume = snapshot.getAvailableTokens();
+        if (tokensToEstimate > availableToConsume) {
+            long nanosToWaitForRefill = snapshot.calculateDelayNanosAfterWillBePossibleToConsume(tokensToEstimate, currentTimeNanos, true);
+            EstimationProbe estimationProbe = EstimationProbe.canNotBeConsumed(availableToConsume, nanosToWaitForRefill);
+            return new VerboseResult<>(currentTimeNanos, estimationProbe, snapshot);
+        } else {
+            EstimationProbe estimationProbe = EstimationProbe.canBeConsumed(availableToConsume);
+            return new VerboseResult<>(currentTimeNanos, estimationProbe, snapshot);
+        }
+    }
+
+    @Override
+    protected VerboseResult<Long> getAvailableTokensVerboseImpl() {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        BucketState snapshot = takeSnapshot(currentTimeNanos);
+        return new VerboseResult<>(currentTimeNanos, snapshot.getAvailableTokens(), snapshot);
+    }
+
+    @Override
+    protected VerboseResult<Nothing> addTokensVerboseImpl(long tokensToAdd) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Generation generation = generationRef.get();
+            long word = generation.word.get();
+            if (word == SEALED || !generation.isActual(currentTimeNanos)) {
+                onStaleGeneration(generation, word, currentTimeNanos);
+                continue;
+            }
+            long newUnits = generation.addUnits(generation.getAvailableUnits(word, currentTimeNanos), tokensToAdd);
+            if (generation.word.compareAndSet(word, generation.toWord(newUnits, currentTimeNanos))) {
+                return new VerboseResult<>(currentTimeNanos, Nothing.INSTANCE, generation.toBucketState(newUnits, currentTimeNanos));
+            }
+        }
+    }
+
+    @Override
+    protected VerboseResult<Nothing> forceAddTokensVerboseImpl(long tokensToAdd) {
+        // amount of tokens above capacity can not be represented by single word
+        throw BucketExceptions.forceAddTokensIsNotSupportedBySingleWordStrategy();
+    }
+
+    @Override
+    protected VerboseResult<Nothing> resetVerboseImpl() {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Generation generation = generationRef.get();
+            long word = generation.word.get();
+            if (word == SEALED || !generation.isActual(currentTimeNanos)) {
+                onStaleGeneration(generation, word, currentTimeNanos);
+                continue;
+            }
+            if (generation.word.compareAndSet(word, generation.toWord(generation.maxUnits, currentTimeNanos))) {
+                return new VerboseResult<>(currentTimeNanos, Nothing.INSTANCE, generation.toBucketState(generation.maxUnits, currentTimeNanos));
+            }
+        }
+    }
+
+    @Override
+    protected VerboseResult<Nothing> replaceConfigurationVerboseImpl(BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        BucketState newState = replaceConfigurationAndGetState(newConfiguration, tokensInheritanceStrategy, currentTimeNanos);
+        return new VerboseResult<>(currentTimeNanos, null, newState);
+    }
+
+    @Override
+    protected VerboseResult<Long> consumeIgnoringRateLimitsVerboseImpl(long tokensToConsume) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Generation generation = generationRef.get();
+            long word = generation.word.get();
+            if (word == SEALED || !generation.isActual(currentTimeNanos)) {
+                onStaleGeneration(generation, word, currentTimeNanos);
+                continue;
+            }
+            long availableUnits = generation.getAvailableUnits(word, currentTimeNanos);
+            long nanosToCloseDeficit = generation.calculateDelayNanosAfterWillBePossibleToConsume(availableUnits, tokensToConsume, false);
+            if (nanosToCloseDeficit == INFINITY_DURATION) {
+                return new VerboseResult<>(currentTimeNanos, nanosToCloseDeficit, generation.toBucketState(availableUnits, currentTimeNanos));
+            }
+            long newUnits = generation.consumeUnits(availableUnits, tokensToConsume);
+            if (newUnits == SEALED) {
+                return new VerboseResult<>(currentTimeNanos, INFINITY_DURATION, generation.toBucketState(availableUnits, currentTimeNanos));
+            }
+            if (generation.word.compareAndSet(word, generation.toWord(newUnits, currentTimeNanos))) {
+                return new VerboseResult<>(currentTimeNanos, nanosToCloseDeficit, generation.toBucketState(newUnits, currentTimeNanos));
+            }
+        }
+    }
+
+    @Override
+    public long getAvailableTokens() {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        while (true) {
+            Generation generation = generationRef.get();
+            long word = generation.word.get();
+            if (word == SEALED || !generation.isActual(currentTimeNanos)) {
+                onStaleGeneration(generation, word, currentTimeNanos);
+                continue;
+            }
+            return generation.toTokens(generation.getAvailableUnits(word, currentTimeNanos));
+        }
+    }
+
+    @Override
+    public BucketConfiguration getConfiguration() {
+        return generationRef.get().configuration;
+    }
+
+    @Override
+    public TimeMeter getTimeMeter() {
+        return timeMeter;
+    }
+
+    @Override
+    public SynchronizationStrategy getSynchronizationStrategy() {
+        return SynchronizationStrategy.LOCK_FREE_SINGLE_WORD;
+    }
+
+    private BucketState takeSnapshot(long currentTimeNanos) {
+        while (true) {
+            Generation generation = generationRef.get();
+            long word = generation.word.get();
+            if (word == SEALED || !generation.isActual(currentTimeNanos)) {
+                onStaleGeneration(generation, word, currentTimeNanos);
+                continue;
+            }
+            return generation.toBucketState(generation.getAvailableUnits(word, currentTimeNanos), currentTimeNanos);
+        }
+    }
+
+    private void onStaleGeneration(Generation generation, long word, long currentTimeNanos) {
+        if (word == SEALED) {
+            // another thread is going to publish the next generation right now
+            Thread.onSpinWait();
+            return;
+        }
+        // base of time is too far from current time, the arithmetic would overflow, so move base to current time
+        if (generation.word.compareAndSet(word, SEALED)) {
+            long availableUnits = generation.getAvailableUnitsSafely(word, currentTimeNanos);
+            generationRef.set(new Generation(generation.configuration, currentTimeNanos, availableUnits));
+        }
+    }
+
+    private BucketState replaceConfigurationAndGetState(BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy, long currentTimeNanos) {
+        if (!isApplicable(newConfiguration)) {
+            throw BucketExceptions.configurationIsNotApplicableForSingleWordStrategy(newConfiguration);
+        }
+        while (true) {
+            Generation generation = generationRef.get();
+            long word = generation.word.get();
+            if (word == SEALED) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (!generation.word.compareAndSet(word, SEALED)) {
+                continue;
+            }
+            long availableUnits = generation.getAvailableUnitsSafely(word, currentTimeNanos);
+            BucketState previousState = generation.toBucketState(availableUnits, currentTimeNanos);
+            BucketState newState = previousState.replaceConfiguration(newConfiguration, tokensInheritanceStrategy, currentTimeNanos);
+            Generation newGeneration = createGeneration(newState, currentTimeNanos);
+            generationRef.set(newGeneration);
+            return newGeneration.toBucketState(newGeneration.getAvailableUnits(newGeneration.word.get(), currentTimeNanos), currentTimeNanos);
+        }
+    }
+
+    private static Generation createInitialGeneration(BucketConfiguration configuration, TimeMeter timeMeter) {
+        if (!isApplicable(configuration)) {
+            throw BucketExceptions.configurationIsNotApplicableForSingleWordStrategy(configuration);
+        }
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        BucketState initialState = BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, currentTimeNanos);
+        return createGeneration(initialState, currentTimeNanos);
+    }
+
+    private static Generation createGeneration(BucketState state, long currentTimeNanos) {
+        Generation generation = new Generation(state.getConfiguration(), currentTimeNanos, 0L);
+        long units = generation.toUnits(state.getCurrentSize(0), state.getRoundingError(0));
+        return new Generation(state.getConfiguration(), currentTimeNanos, units);
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long rest = a % b;
+            a = b;
+            b = rest;
+        }
+        return a;
+    }
+
+    /**
+     * Immutable part of bucket state together with the word that holds the mutable part.
+     */
+    private static final class Generation {
+
+        private final BucketConfiguration configuration;
+        private final long capacity;
+        private final long unitsPerToken;
+        private final long unitsPerNanosecond;
+        private final long nanosPerUnit;
+        private final long maxUnits;
+        private final long baseTimeNanos;
+        private final long maxElapsedNanos;
+        private final AtomicLong word;
+
+        private Generation(BucketConfiguration configuration, long baseTimeNanos, long availableUnits) {
+            Bandwidth bandwidth = configuration.getBandwidths()[0];
+            long gcd = gcd(bandwidth.getRefillPeriodNanos(), bandwidth.getRefillTokens());
+            this.configuration = configuration;
+            this.capacity = bandwidth.getCapacity();
+            this.unitsPerToken = bandwidth.getRefillPeriodNanos() / gcd;
+            this.unitsPerNanosecond = bandwidth.getRefillTokens() / gcd;
+            this.nanosPerUnit = gcd;
+            this.maxUnits = capacity * unitsPerToken;
+            this.baseTimeNanos = baseTimeNanos;
+            this.maxElapsedNanos = Long.MAX_VALUE / 4 / unitsPerNanosecond;
+            this.word = new AtomicLong(toWord(availableUnits, baseTimeNanos));
+        }
+
+        private boolean isActual(long currentTimeNanos) {
+            long elapsedNanos = currentTimeNanos - baseTimeNanos;
+            return elapsedNanos <= maxElapsedNanos && elapsedNanos >= -maxElapsedNanos;
+        }
+
+        private long getAvailableUnits(long word, long currentTimeNanos) {
+            long refilledUnits = (currentTimeNanos - baseTimeNanos) * unitsPerNanosecond;
+            return refilledUnits >= maxUnits + word ? maxUnits : refilledUnits - word;
+        }
+
+        private long getAvailableUnitsSafely(long word, long currentTimeNanos) {
+            long elapsedNanos = Math.max(0L, currentTimeNanos - baseTimeNanos);
+            long unitsToFullRefill = maxUnits + word;
+            if (unitsToFullRefill <= 0 || elapsedNanos >= unitsToFullRefill / unitsPerNanosecond) {
+                return maxUnits;
+            }
+            return elapsedNanos * unitsPerNanosecond - word;
+        }
+
+        private long toWord(long units, long currentTimeNanos) {
+            return (currentTimeNanos - baseTimeNanos) * unitsPerNanosecond - units;
+        }
+
+        private long toTokens(long units) {
+            return Math.floorDiv(units, unitsPerToken);
+        }
+
+        private long toUnits(long currentSize, long roundingError) {
+            if (currentSize >= capacity) {
+                return maxUnits;
+            }
+            if (currentSize <= MIN_UNITS / unitsPerToken) {
+                return MIN_UNITS;
+            }
+            return currentSize * unitsPerToken + roundingError / nanosPerUnit;
+        }
+
+        private long addUnits(long availableUnits, long tokensToAdd) {
+            if (tokensToAdd >= (maxUnits - availableUnits) / unitsPerToken + 1) {
+                return maxUnits;
+            }
+            return Math.min(maxUnits, availableUnits + tokensToAdd * unitsPerToken);
+        }
+
+        /**
+         * @return new amount of units or {@link #SEALED} if amount of units can not be represented without overflow
+         */
+        private long consumeUnits(long availableUnits, long tokensToConsume) {
+            if (tokensToConsume > MAX_UNITS / unitsPerToken) {
+                return SEALED;
+            }
+            long unitsToConsume = tokensToConsume * unitsPerToken;
+            if (unitsToConsume > availableUnits - MIN_UNITS) {
+                return SEALED;
+            }
+            return availableUnits - unitsToConsume;
+        }
+
+        private long calculateDelayNanosAfterWillBePossibleToConsume(long availableUnits, long tokens, boolean checkTokensToConsumeShouldBeLessThenCapacity) {
+            if (checkTokensToConsumeShouldBeLessThenCapacity && tokens > capacity) {
+                return Long.MAX_VALUE;
+            }
+            if (tokens > MAX_UNITS / unitsPerToken) {
+                return Long.MAX_VALUE;
+            }
+            long deficitUnits = tokens * unitsPerToken - availableUnits;
+            if (deficitUnits <= 0) {
+                return 0L;
+            }
+            return deficitUnits / unitsPerNanosecond;
+        }
+
+        private long calculateFullRefillingTime(long availableUnits) {
+            if (availableUnits >= maxUnits) {
+                return 0L;
+            }
+            return (maxUnits - availableUnits) / unitsPerNanosecond;
+        }
+
+        private BucketState toBucketState(long units, long currentTimeNanos) {
+            long[] stateData = new long[] {
+                currentTimeNanos,
+                Math.floorDiv(units, unitsPerToken),
+                Math.floorMod(units, unitsPerToken) * nanosPerUnit
+            };
+            return new BucketState64BitsInteger(configuration, stateData);
+        }
+
+    }
+
+    @Override
+    public String toString() {
+        BucketState state = takeSnapshot(timeMeter.currentTimeNanos());
+        return "SingleWordLockFreeBucket{" +
+                "state=" + state +
+                ", configuration=" + state.getConfiguration() +
+                '}';
+    }
+
+    public static final SerializationHandle<SingleWordLockFreeBucket> SERIALIZATION_HANDLE = new SerializationHandle<>() {
+        @Override
+        public <S> SingleWordLockFreeBucket deserialize(DeserializationAdapter<S> adapter, S input) throws IOException {
+            int formatNumber = adapter.readInt(input);
+            Versions.check(formatNumber, v_8_10_0, v_8_10_0);
+
+            BucketConfiguration bucketConfiguration = BucketConfiguration.SERIALIZATION_HANDLE.deserialize(adapter, input);
+            BucketState bucketState = BucketState.deserialize(adapter, input);
+            bucketState.setConfiguration(bucketConfiguration);
+            return restore(bucketState);
+        }
+
+        @Override
+        public <O> void serialize(SerializationAdapter<O> adapter, O output, SingleWordLockFreeBucket bucket, Version backwardCompatibilityVersion, Scope scope) throws IOException {
+            if (bucket.timeMeter != TimeMeter.SYSTEM_MILLISECONDS) {
+                throw new NotSerializableException("Only TimeMeter.SYSTEM_MILLISECONDS can be serialized safely");
+            }
+            adapter.writeInt(output, v_8_10_0.getNumber());
+            BucketState state = bucket.takeSnapshot(bucket.timeMeter.currentTimeNanos());
+            BucketConfiguration.SERIALIZATION_HANDLE.serialize(adapter, output, state.getConfiguration(), backwardCompatibilityVersion, scope);
+            BucketState.serialize(adapter, output, state, backwardCompatibilityVersion, scope);
+        }
+
+        @Override
+        public int getTypeId() {
+            return 63;
+        }
+
+        @Override
+        public Class<SingleWordLockFreeBucket> getSerializedType() {
+            return SingleWordLockFreeBucket.class;
+        }
+
+        @Override
+        public SingleWordLockFreeBucket fromJsonCompatibleSnapshot(Map<String, Object> snapshot) throws IOException {
+            int formatNumber = readIntValue(snapshot, "version");
+            Versions.check(formatNumber, v_8_10_0, v_8_10_0);
+
+            Map<String, Object> stateSnapshot = (Map<String, Object>) snapshot.get("state");
+            BucketState state = BucketState.fromJsonCompatibleSnapshot(stateSnapshot);
+            return restore(state);
+        }
+
+        @Override
+        public Map<String, Object> toJsonCompatibleSnapshot(SingleWordLockFreeBucket bucket, Version backwardCompatibilityVersion, Scope scope) throws IOException {
+            if (bucket.timeMeter != TimeMeter.SYSTEM_MILLISECONDS) {
+                throw new NotSerializableException("Only TimeMeter.SYSTEM_MILLISECONDS can be serialized safely");
+            }
+            Map<String, Object> result = new HashMap<>();
+            result.put("version", v_8_10_0.getNumber());
+            result.put("state", BucketState.toJsonCompatibleSnapshot(bucket.takeSnapshot(bucket.timeMeter.currentTimeNanos()), backwardCompatibilityVersion, scope));
+            return result;
+        }
+
+        @Override
+        public String getTypeName() {
+            return "SingleWordLockFreeBucket";
+        }
+
+        private SingleWordLockFreeBucket restore(BucketState state) {
+            long currentTimeNanos = TimeMeter.SYSTEM_MILLISECONDS.currentTimeNanos();
+            state.refillAllBandwidth(currentTimeNanos);
+            Generation generation = createGeneration(state, currentTimeNanos);
+            return new SingleWordLockFreeBucket(new AtomicReference<>(generation), TimeMeter.SYSTEM_MILLISECONDS, BucketListener.NOPE);
+        }
+
+    };
+
+    @Override
+    public boolean equalsByContent(SingleWordLockFreeBucket other) {
+        if (timeMeter != other.timeMeter) {
+            return false;
+        }
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        BucketState state = takeSnapshot(currentTimeNanos);
+        BucketState otherState = other.takeSnapshot(currentTimeNanos);
+        return ComparableByContent.equals(state, otherState) &&
+                ComparableByContent.equals(state.getConfiguration(), otherState.getConfiguration());
+    }
+
+}
@@ -0,0 +1,685 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2020 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.local;
+
+import io.github.bucket4j.*;
+import io.github.bucket4j.BandwidthBuilder.BandwidthBuilderBuildStage;
+import io.github.bucket4j.BandwidthBuilder.BandwidthBuilderRefillStage;
+import io.github.bucket4j.distributed.serialization.DeserializationAdapter;
+import io.github.bucket4j.distributed.serialization.Scope;
+import io.github.bucket4j.distributed.serialization.SerializationAdapter;
+import io.github.bucket4j.distributed.serialization.SerializationHandle;
+import io.github.bucket4j.distributed.versioning.Version;
+import io.github.bucket4j.distributed.versioning.Versions;
+import io.github.bucket4j.util.ComparableByContent;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static io.github.bucket4j.distributed.versioning.Versions.v_8_10_0;
+
+/**
+ * Bucket that splits capacity and refill rate of each bandwidth across several independent {@link LockFreeBucket} stripes,
+ * in the same manner as {@link java.util.concurrent.atomic.LongAdder} splits a counter across cells.
+ *
+ * <p>Each thread works with its own home stripe that is chosen by random per-thread probe,
+ * so threads that work with different stripes never compete for the same CAS.
+ * When home stripe runs dry, the probe of thread is moved to another stripe, as {@link java.util.concurrent.atomic.LongAdder} does on contention,
+ * and the request falls back to global path that collects tokens from all stripes,
+ * and returns collected tokens back with truncation to capacity if whole bucket does not have enough tokens,
+ * so stripe never holds more than its share of capacity.
+ * Tokens that are consumed in debt (by {@link #consumeIgnoringRateLimits(long)} or by reservation) are spread across all stripes proportionally,
+ * so debt is paid back with the total refill rate.
+ *
+ * <p>The price for scalability is precision: results of operations that are executed concurrently with global path are not linearizable,
+ * for example request can be rejected while tokens borrowed by another thread are on the way back to their stripe.
+ * Values that describe the whole bucket(remaining tokens in probes, delays, verbose state) are calculated from the sum of stripes.
+ *
+ * @see SynchronizationStrategy#STRIPED
+ */
+public class StripedBucket extends AbstractBucket implements LocalBucket, ComparableByContent<StripedBucket> {
+
+    private final Stripes stripes;
+    private final TimeMeter timeMeter;
+
+    public StripedBucket(BucketConfiguration configuration, int stripes, TimeMeter timeMeter, BucketListener listener) {
+        this(createStripes(configuration, stripes, timeMeter), timeMeter, listener);
+    }
+
+    private StripedBucket(Stripes stripes, TimeMeter timeMeter, BucketListener listener) {
+        super(listener);
+        this.stripes = stripes;
+        this.timeMeter = timeMeter;
+    }
+
+    /**
+     * Returns the amount of stripes into which the bucket is split.
+     * It can be less than requested amount when capacity or refill tokens of some bandwidth are less than requested amount.
+     *
+     * @return the amount of stripes
+     */
+    public int getStripeCount() {
+        return stripes.buckets.length;
+    }
+
+    @Override
+    public Bucket toListenable(BucketListener listener) {
+        return new StripedBucket(stripes, timeMeter, listener);
+    }
+
+    @Override
+    protected long consumeAsMuchAsPossibleImpl(long limit) {
+        LockFreeBucket[] buckets = stripes.buckets;
+        return consumeAsMuchAsPossibleFromAllStripes(buckets, ThreadProbe.current().homeIndex(buckets.length), limit);
+    }
+
+    @Override
+    protected boolean tryConsumeImpl(long tokensToConsume) {
+        LockFreeBucket[] buckets = stripes.buckets;
+        if (buckets.length == 1) {
+            return buckets[0].tryConsume(tokensToConsume);
+        }
+        ThreadProbe probe = ThreadProbe.current();
+        int homeIndex = probe.homeIndex(buckets.length);
+        if (buckets[homeIndex].tryConsume(tokensToConsume)) {
+            return true;
+        }
+        probe.advance();
+        return tryConsumeFromAllStripes(buckets, homeIndex, tokensToConsume, probe.borrowedBuffer(buckets.length));
+    }
+
+    @Override
+    protected ConsumptionProbe tryConsumeAndReturnRemainingTokensImpl(long tokensToConsume) {
+        boolean consumed = tryConsumeImpl(tokensToConsume);
+        Snapshot snapshot = takeSnapshot(ThreadProbe.current().snapshot);
+        long availableTokens = snapshot.state.getAvailableTokens();
+        long nanosToWaitForReset = snapshot.calculateFullRefillingTime();
+        if (consumed) {
+            return ConsumptionProbe.consumed(availableTokens, nanosToWaitForReset);
+        }
+        long nanosToWaitForRefill = snapshot.calculateDelayNanosAfterWillBePossibleToConsume(tokensToConsume, true);
+        return ConsumptionProbe.rejected(availableTokens, nanosToWaitForRefill, nanosToWaitForReset);
+    }
+
+    @Override
+    protected EstimationProbe estimateAbilityToConsumeImpl(long tokensToEstimate) {
+        return estimateAbilityToConsume(takeSnapshot(ThreadProbe.current().snapshot), tokensToEstimate);
+    }
+
+    @Override
+    protected long reserveAndCalculateTimeToSleepImpl(long tokensToConsume, long waitIfBusyNanosLimit) {
+        LockFreeBucket[] buckets = stripes.buckets;
+        ThreadProbe probe = ThreadProbe.current();
+        int homeIndex = probe.homeIndex(buckets.length);
+        if (buckets[homeIndex].tryConsume(tokensToConsume)) {
+            return 0L;
+        }
+        long nanosToCloseDeficit = takeSnapshot(probe.snapshot).calculateDelayNanosAfterWillBePossibleToConsume(tokensToConsume, false);
+        if (nanosToCloseDeficit == Long.MAX_VALUE || nanosToCloseDeficit > waitIfBusyNanosLimit) {
+            return Long.MAX_VALUE;
+        }
+        probe.advance();
+        consumeIgnoringRateLimitsFromAllStripes(buckets, homeIndex, tokensToConsume);
+        return nanosToCloseDeficit;
+    }
+
+    @Override
+    protected long consumeIgnoringRateLimitsImpl(long tokensToConsume) {
+        LockFreeBucket[] buckets = stripes.buckets;
+        ThreadProbe probe = ThreadProbe.current();
+        int homeIndex = probe.homeIndex(buckets.length);
+        if (buckets[homeIndex].tryConsume(tokensToConsume)) {
+            return 0L;
+        }
+        long nanosToCloseDeficit = takeSnapshot(probe.snapshot).calculateDelayNanosAfterWillBePossibleToConsume(tokensToConsume, false);
+        if (nanosToCloseDeficit == INFINITY_DURATION) {
+            return nanosToCloseDeficit;
+        }
+        probe.advance();
+        consumeIgnoringRateLimitsFromAllStripes(buckets, homeIndex, tokensToConsume);
+        return nanosToCloseDeficit;
+    }
+
+    @Override
+    protected void addTokensImpl(long tokensToAdd) {
+        LockFreeBucket[] buckets = stripes.buckets;
+        for (int i = 0; i < buckets.length; i++) {
+            long share = share(tokensToAdd, buckets.length, i);
+            if (share > 0) {
+                buckets[i].addTokens(share);
+            }
+        }
+    }
+
+    @Override
+    protected void forceAddTokensImpl(long tokensToAdd) {
+        LockFreeBucket[] buckets = stripes.buckets;
+        for (int i = 0; i < buckets.length; i++) {
+            long share = share(tokensToAdd, buckets.length, i);
+            if (share > 0) {
+                buckets[i].forceAddTokens(share);
+            }
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (LockFreeBucket bucket : stripes.buckets) {
+            bucket.reset();
+        }
+    }
+
+    @Override
+    public long getAvailableTokens() {
+        // fractional tokens of stripes are summed too, so result is consistent with probes
+        return takeSnapshot(ThreadProbe.current().snapshot).state.getAvailableTokens();
+    }
+
+    @Override
+    protected void replaceConfigurationImpl(BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy) {
+        stripes.replaceConfiguration(newConfiguration, tokensInheritanceStrategy);
+    }
+
+    @Override
+    protected VerboseResult<Long> consumeAsMuchAsPossibleVerboseImpl(long limit) {
+        return toVerboseResult(consumeAsMuchAsPossibleImpl(limit));
+    }
+
+    @Override
+    protected VerboseResult<Boolean> tryConsumeVerboseImpl(long tokensToConsume) {
+        return toVerboseResult(tryConsumeImpl(tokensToConsume));
+    }
+
+    @Override
+    protected VerboseResult<ConsumptionProbe> tryConsumeAndReturnRemainingTokensVerboseImpl(long tokensToConsume) {
+        boolean consumed = tryConsumeImpl(tokensToConsume);
+        Snapshot snapshot = takeSnapshot();
+        long availableTokens = snapshot.state.getAvailableTokens();
+        long nanosToWaitForReset = snapshot.calculateFullRefillingTime();
+        ConsumptionProbe probe;
+        if (consumed) {
+            probe = ConsumptionProbe.consumed(availableTokens, nanosToWaitForReset);
+        } else {
+            long nanosToWaitForRefill = snapshot.calculateDelayNanosAfterWillBePossibleToConsume(tokensToConsume, true);
+            probe = ConsumptionProbe.rejected(availableTokens, nanosToWaitForRefill, nanosToWaitForReset);
+        }
+        return new VerboseResult<>(snapshot.currentTimeNanos, probe, snapshot.state);
+    }
+
+    @Override
+    protected VerboseResult<EstimationProbe> estimateAbilityToConsumeVerboseImpl(long tokensToEstimate) {
+        Snapshot snapshot = takeSnapshot();
+        EstimationProbe probe = estimateAbilityToConsume(snapshot, tokensToEstimate);
+        return new VerboseResult<>(snapshot.currentTimeNanos, probe, snapshot.state);
+    }
+
+    @Override
+    protected VerboseResult<Long> getAvailableTokensVerboseImpl() {
+        Snapshot snapshot = takeSnapshot();
+        return new VerboseResult<>(snapshot.currentTimeNanos, snapshot.state.getAvailableTokens(), snapshot.state);
+    }
+
+    @Override
+    protected VerboseResult<Nothing> addTokensVerboseImpl(long tokensToAdd) {
+        addTokensImpl(tokensToAdd);
+        return toVerboseResult(Nothing.INSTANCE);
+    }
+
+    @Override
+    protected VerboseResult<Nothing> forceAddTokensVerboseImpl(long tokensToAdd) {
+        forceAddTokensImpl(tokensToAdd);
+        return toVerboseResult(Nothing.INSTANCE);
+    }
+
+    @Override
+    protected VerboseResult<Nothing> resetVerboseImpl() {
+        reset();
+        return toVerboseResult(Nothing.INSTANCE);
+    }
+
+    @Override
+    protected VerboseResult<Nothing> replaceConfigurationVerboseImpl(BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy) {
+        replaceConfigurationImpl(newConfiguration, tokensInheritanceStrategy);
+        return toVerboseResult(null);
+    }
+
+    @Override
+    protected VerboseResult<Long> consumeIgnoringRateLimitsVerboseImpl(long tokensToConsume) {
+        return toVerboseResult(consumeIgnoringRateLimitsImpl(tokensToConsume));
+    }
+
+    @Override
+    protected VerboseResult<Long> reserveAndCalculateTimeToSleepVerboseImpl(long tokensToConsume, long maxWaitTimeNanos) {
+        return toVerboseResult(reserveAndCalculateTimeToSleepImpl(tokensToConsume, maxWaitTimeNanos));
+    }
+
+    @Override
+    public BucketConfiguration getConfiguration() {
+        return stripes.configuration;
+    }
+
+    @Override
+    public TimeMeter getTimeMeter() {
+        return timeMeter;
+    }
+
+    @Override
+    public SynchronizationStrategy getSynchronizationStrategy() {
+        return SynchronizationStrategy.STRIPED;
+    }
+
+    @Override
+    public String toString() {
+        Snapshot snapshot = takeSnapshot();
+        return "StripedBucket{" +
+                "stripes=" + snapshot.stripeCount +
+                ", state=" + snapshot.state +
+                ", configuration=" + snapshot.state.getConfiguration() +
+                '}';
+    }
+
+    private static long consumeAsMuchAsPossibleFromAllStripes(LockFreeBucket[] buckets, int homeIndex, long limit) {
+        long consumed = 0;
+        for (int i = 0; i < buckets.length && consumed < limit; i++) {
+            consumed += buckets[(homeIndex + i) % buckets.length].tryConsumeAsMuchAsPossible(limit - consumed);
+        }
+        return consumed;
+    }
+
+    private static boolean tryConsumeFromAllStripes(LockFreeBucket[] buckets, int homeIndex, long tokensToConsume, long[] borrowed) {
+        long consumed = 0;
+        int visited = 0;
+        while (visited < buckets.length && consumed < tokensToConsume) {
+            long borrowedFromStripe = buckets[(homeIndex + visited) % buckets.length].tryConsumeAsMuchAsPossible(tokensToConsume - consumed);
+            borrowed[visited++] = borrowedFromStripe;
+            consumed += borrowedFromStripe;
+        }
+        if (consumed == tokensToConsume) {
+            return true;
+        }
+
+        // whole bucket does not have enough tokens, so borrowed tokens should be returned back to stripes,
+        // stripe could be refilled meanwhile, tokens that do not fit into capacity are lost, because returning them by force
+        // would allow the stripe to exceed its capacity and whole bucket to admit more than configured limit
+        for (int i = 0; i < visited; i++) {
+            if (borrowed[i] > 0) {
+                buckets[(homeIndex + i) % buckets.length].addTokens(borrowed[i]);
+            }
+        }
+        return false;
+    }
+
+    private static void consumeIgnoringRateLimitsFromAllStripes(LockFreeBucket[] buckets, int homeIndex, long tokensToConsume) {
+        long debt = tokensToConsume - consumeAsMuchAsPossibleFromAllStripes(buckets, homeIndex, tokensToConsume);
+        for (int i = 0; i < buckets.length; i++) {
+            long share = share(debt, buckets.length, i);
+            if (share > 0) {
+                buckets[(homeIndex + i) % buckets.length].consumeIgnoringRateLimits(share);
+            }
+        }
+    }
+
+    private static EstimationProbe estimateAbilityToConsume(Snapshot snapshot, long tokensToEstimate) {
+        long availableTokens = snapshot.state.getAvailableTokens();
+        if (tokensToEstimate > availableTokens) {
+            long nanosToWaitForRefill = snapshot.calculateDelayNanosAfterWillBePossibleToConsume(tokensToEstimate, true);
+            return EstimationProbe.canNotBeConsumed(availableTokens, nanosToWaitForRefill);
+        }
+        return EstimationProbe.canBeConsumed(availableTokens);
+    }
+
+    private <T> VerboseResult<T> toVerboseResult(T value) {
+        Snapshot snapshot = takeSnapshot();
+        return new VerboseResult<>(snapshot.currentTimeNanos, value, snapshot.state);
+    }
+
+    private Snapshot takeSnapshot() {
+        // state of snapshot escapes into verbose results, so snapshot can not be reused
+        return takeSnapshot(new Snapshot());
+    }
+
+    private Snapshot takeSnapshot(Snapshot snapshot) {
+        while (true) {
+            long sequence = stripes.replacementSequence;
+            if ((sequence & 1) == 0) {
+                BucketConfiguration configuration = stripes.configuration;
+                snapshot.fill(configuration, stripes.buckets, timeMeter.currentTimeNanos());
+                if (sequence == stripes.replacementSequence) {
+                    return snapshot;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Per-thread state that chooses home stripe, like probe of {@link java.util.concurrent.atomic.LongAdder}.
+     * Probe is initialized randomly, so threads of pools and virtual threads are spread evenly regardless of their identifiers,
+     * and it is moved by xorshift step when home stripe runs dry.
+     * Buffer for borrowed tokens and snapshot are reused by all requests of the thread, so neither global path nor probes allocate memory.
+     */
+    private static final class ThreadProbe {
+
+        private static final ThreadLocal<ThreadProbe> PROBES = ThreadLocal.withInitial(ThreadProbe::new);
+
+        private int probe = ThreadLocalRandom.current().nextInt() | 1;
+        private long[] borrowed = new long[0];
+        private final Snapshot snapshot = new Snapshot();
+
+        static ThreadProbe current() {
+            return PROBES.get();
+        }
+
+        int homeIndex(int stripeCount) {
+            return (probe & Integer.MAX_VALUE) % stripeCount;
+        }
+
+        void advance() {
+            int value = probe;
+            value ^= value << 13;
+            value ^= value >>> 17;
+            value ^= value << 5;
+            probe = value;
+        }
+
+        long[] borrowedBuffer(int stripeCount) {
+            if (borrowed.length < stripeCount) {
+                borrowed = new long[stripeCount];
+            }
+            return borrowed;
+        }
+
+    }
+
+    /**
+     * Consistent view of all stripes together with the state of whole bucket, where the size of each bandwidth is the sum of stripes.
+     * Snapshot can be filled again, in such case states of previous filling are overwritten without allocation when configuration was not changed.
+     */
+    private static final class Snapshot {
+
+        private BucketState[] stripeStates = new BucketState[0];
+        private int stripeCount;
+        private long[] stateData;
+        private BucketState state;
+        private long currentTimeNanos;
+
+        private void fill(BucketConfiguration configuration, LockFreeBucket[] buckets, long currentTimeNanos) {
+            this.currentTimeNanos = currentTimeNanos;
+            this.stripeCount = buckets.length;
+            if (stripeStates.length < buckets.length) {
+                stripeStates = new BucketState[buckets.length];
+            }
+            for (int i = 0; i < buckets.length; i++) {
+                // published states of lock-free bucket are never modified, so they can be copied without synchronization
+                BucketState publishedState = buckets[i].getState();
+                if (stripeStates[i] == null) {
+                    stripeStates[i] = publishedState.copy();
+                } else {
+                    stripeStates[i].copyStateFrom(publishedState);
+                }
+                stripeStates[i].refillAllBandwidth(currentTimeNanos);
+            }
+
+            Bandwidth[] bandwidths = configuration.getBandwidths();
+            if (state == null || state.getConfiguration() != configuration) {
+                stateData = new long[bandwidths.length * 3];
+                state = new BucketState64BitsInteger(configuration, stateData);
+            }
+            for (int i = 0; i < bandwidths.length; i++) {
+                // all stripes share the same period, so rounding errors are measured in the same units and can be summed
+                long refillPeriodNanos = bandwidths[i].getRefillPeriodNanos();
+                long lastRefillTimeNanos = Long.MIN_VALUE;
+                long currentSize = 0;
+                long roundingError = 0;
+                for (int j = 0; j < stripeCount; j++) {
+                    BucketState stripeState = stripeStates[j];
+                    lastRefillTimeNanos = Math.max(lastRefillTimeNanos, ((BucketState64BitsInteger) stripeState).getLastRefillTimeNanos(i));
+                    currentSize = saturatedAdd(currentSize, stripeState.getCurrentSize(i));
+                    long stripeRoundingError = stripeState.getRoundingError(i);
+                    if (roundingError >= refillPeriodNanos - stripeRoundingError) {
+                        roundingError -= refillPeriodNanos - stripeRoundingError;
+                        currentSize = saturatedAdd(currentSize, 1);
+                    } else {
+                        roundingError += stripeRoundingError;
+                    }
+                }
+                stateData[i * 3] = lastRefillTimeNanos;
+                stateData[i * 3 + 1] = currentSize;
+                stateData[i * 3 + 2] = roundingError;
+            }
+        }
+
+        private long calculateDelayNanosAfterWillBePossibleToConsume(long tokensToConsume, boolean checkTokensToConsumeShouldBeLessThenCapacity) {
+            return state.calculateDelayNanosAfterWillBePossibleToConsume(tokensToConsume, currentTimeNanos, checkTokensToConsumeShouldBeLessThenCapacity);
+        }
+
+        private long calculateFullRefillingTime() {
+            // stripes are refilled independently, so whole bucket becomes full only when the slowest stripe becomes full
+            long nanosToWaitForReset = 0;
+            for (int i = 0; i < stripeCount; i++) {
+                nanosToWaitForReset = Math.max(nanosToWaitForReset, stripeStates[i].calculateFullRefillingTime(currentTimeNanos));
+            }
+            return nanosToWaitForReset;
+        }
+
+    }
+
+    /**
+     * Stripes shared between bucket and its listenable views.
+     */
+    private static final class Stripes {
+
+        private final LockFreeBucket[] buckets;
+        private volatile BucketConfiguration configuration;
+
+        // odd value means that configuration replacement is in progress and stripes can have different configurations
+        private volatile long replacementSequence;
+
+        private Stripes(BucketConfiguration configuration, LockFreeBucket[] buckets) {
+            this.configuration = configuration;
+            this.buckets = buckets;
+        }
+
+        private synchronized void replaceConfiguration(BucketConfiguration newConfiguration, TokensInheritanceStrategy tokensInheritanceStrategy) {
+            BucketConfiguration[] stripeConfigurations = split(newConfiguration, buckets.length);
+            replacementSequence++;
+            try {
+                for (int i = 0; i < buckets.length; i++) {
+                    buckets[i].replaceConfiguration(stripeConfigurations[i], tokensInheritanceStrategy);
+                }
+                configuration = newConfiguration;
+            } finally {
+                replacementSequence++;
+            }
+        }
+
+    }
+
+    private static Stripes createStripes(BucketConfiguration configuration, int requestedStripes, TimeMeter timeMeter) {
+        if (requestedStripes <= 0) {
+            throw new IllegalArgumentException("stripes should be positive, but " + requestedStripes + " was specified");
+        }
+        int stripes = requestedStripes;
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            stripes = (int) Math.min(stripes, Math.min(bandwidth.getCapacity(), bandwidth.getRefillTokens()));
+        }
+        BucketConfiguration[] stripeConfigurations = split(configuration, stripes);
+        LockFreeBucket[] buckets = new LockFreeBucket[stripes];
+        for (int i = 0; i < stripes; i++) {
+            buckets[i] = new LockFreeBucket(stripeConfigurations[i], MathType.INTEGER_64_BITS, timeMeter, BucketListener.NOPE);
+        }
+        return new Stripes(configuration, buckets);
+    }
+
+    private static BucketConfiguration[] split(BucketConfiguration configuration, int stripes) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        for (Bandwidth bandwidth : bandwidths) {
+            if (bandwidth.getCapacity() < stripes || bandwidth.getRefillTokens() < stripes) {
+                throw BucketExceptions.configurationIsNotApplicableForStripedStrategy(configuration, stripes);
+            }
+        }
+        BucketConfiguration[] stripeConfigurations = new BucketConfiguration[stripes];
+        for (int i = 0; i < stripes; i++) {
+            ConfigurationBuilder builder = BucketConfiguration.builder();
+            for (Bandwidth bandwidth : bandwidths) {
+                builder.addLimit(toStripeBandwidth(bandwidth, stripes, i));
+            }
+            stripeConfigurations[i] = builder.build();
+        }
+        return stripeConfigurations;
+    }
+
+    private static Bandwidth toStripeBandwidth(Bandwidth bandwidth, int stripes, int stripeIndex) {
+        long refillTokens = share(bandwidth.getRefillTokens(), stripes, stripeIndex);
+        Duration refillPeriod = Duration.ofNanos(bandwidth.getRefillPeriodNanos());
+        BandwidthBuilderRefillStage refillStage = Bandwidth.builder().capacity(share(bandwidth.getCapacity(), stripes, stripeIndex));
+
+        BandwidthBuilderBuildStage buildStage;
+        if (bandwidth.isGready()) {
+            buildStage = refillStage.refillGreedy(refillTokens, refillPeriod);
+        } else if (!bandwidth.isIntervallyAligned()) {
+            buildStage = refillStage.refillIntervally(refillTokens, refillPeriod);
+        } else if (bandwidth.isUseAdaptiveInitialTokens()) {
+            Instant timeOfFirstRefill = Instant.ofEpochMilli(bandwidth.getTimeOfFirstRefillMillis());
+            buildStage = refillStage.refillIntervallyAlignedWithAdaptiveInitialTokens(refillTokens, refillPeriod, timeOfFirstRefill);
+        } else {
+            Instant timeOfFirstRefill = Instant.ofEpochMilli(bandwidth.getTimeOfFirstRefillMillis());
+            buildStage = refillStage.refillIntervallyAligned(refillTokens, refillPeriod, timeOfFirstRefill);
+        }
+        if (!bandwidth.isUseAdaptiveInitialTokens()) {
+            buildStage.initialTokens(share(bandwidth.getInitialTokens(), stripes, stripeIndex));
+        }
+        return buildStage.id(bandwidth.getId()).build();
+    }
+
+    private static long share(long total, int stripes, int stripeIndex) {
+        return total / stripes + (stripeIndex < total % stripes ? 1 : 0);
+    }
+
+    private static long saturatedAdd(long x, long y) {
+        long result = x + y;
+        if (((x ^ result) & (y ^ result)) < 0) {
+            return x < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        return result;
+    }
+
+    public static final SerializationHandle<StripedBucket> SERIALIZATION_HANDLE = new SerializationHandle<>() {
+        @Override
+        public <S> StripedBucket deserialize(DeserializationAdapter<S> adapter, S input) throws IOException {
+            int formatNumber = adapter.readInt(input);
+            Versions.check(formatNumber, v_8_10_0, v_8_10_0);
+
+            BucketConfiguration bucketConfiguration = BucketConfiguration.SERIALIZATION_HANDLE.deserialize(adapter, input);
+            int stripeCount = adapter.readInt(input);
+            LockFreeBucket[] buckets = new LockFreeBucket[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                buckets[i] = LockFreeBucket.SERIALIZATION_HANDLE.deserialize(adapter, input);
+            }
+            return new StripedBucket(new Stripes(bucketConfiguration, buckets), TimeMeter.SYSTEM_MILLISECONDS, BucketListener.NOPE);
+        }
+
+        @Override
+        public <O> void serialize(SerializationAdapter<O> adapter, O output, StripedBucket bucket, Version backwardCompatibilityVersion, Scope scope) throws IOException {
+            if (bucket.timeMeter != TimeMeter.SYSTEM_MILLISECONDS) {
+                throw new NotSerializableException("Only TimeMeter.SYSTEM_MILLISECONDS can be serialized safely");
+            }
+            adapter.writeInt(output, v_8_10_0.getNumber());
+            BucketConfiguration.SERIALIZATION_HANDLE.serialize(adapter, output, bucket.stripes.configuration, backwardCompatibilityVersion, scope);
+            LockFreeBucket[] buckets = bucket.stripes.buckets;
+            adapter.writeInt(output, buckets.length);
+            for (LockFreeBucket stripe : buckets) {
+                LockFreeBucket.SERIALIZATION_HANDLE.serialize(adapter, output, stripe, backwardCompatibilityVersion, scope);
+            }
+        }
+
+        @Override
+        public int getTypeId() {
+            return 65;
+        }
+
+        @Override
+        public Class<StripedBucket> getSerializedType() {
+            return StripedBucket.class;
+        }
+
+        @Override
+        public StripedBucket fromJsonCompatibleSnapshot(Map<String, Object> snapshot) throws IOException {
+            int formatNumber = readIntValue(snapshot, "version");
+            Versions.check(formatNumber, v_8_10_0, v_8_10_0);
+
+            Map<String, Object> configurationSnapshot = (Map<String, Object>) snapshot.get("configuration");
+            BucketConfiguration configuration = BucketConfiguration.SERIALIZATION_HANDLE.fromJsonCompatibleSnapshot(configurationSnapshot);
+            List<Map<String, Object>> stripeSnapshots = (List<Map<String, Object>>) snapshot.get("stripes");
+            LockFreeBucket[] buckets = new LockFreeBucket[stripeSnapshots.size()];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = LockFreeBucket.SERIALIZATION_HANDLE.fromJsonCompatibleSnapshot(stripeSnapshots.get(i));
+            }
+            return new StripedBucket(new Stripes(configuration, buckets), TimeMeter.SYSTEM_MILLISECONDS, BucketListener.NOPE);
+        }
+
+        @Override
+        public Map<String, Object> toJsonCompatibleSnapshot(StripedBucket bucket, Version backwardCompatibilityVersion, Scope scope) throws IOException {
+            if (bucket.timeMeter != TimeMeter.SYSTEM_MILLISECONDS) {
+                throw new NotSerializableException("Only TimeMeter.SYSTEM_MILLISECONDS can be serialized safely");
+            }
+            Map<String, Object> result = new HashMap<>();
+            result.put("version", v_8_10_0.getNumber());
+            result.put("configuration", BucketConfiguration.SERIALIZATION_HANDLE.toJsonCompatibleSnapshot(bucket.stripes.configuration, backwardCompatibilityVersion, scope));
+            List<Map<String, Object>> stripeSnapshots = new ArrayList<>();
+            for (LockFreeBucket stripe : bucket.stripes.buckets) {
+                stripeSnapshots.add(LockFreeBucket.SERIALIZATION_HANDLE.toJsonCompatibleSnapshot(stripe, backwardCompatibilityVersion, scope));
+            }
+            result.put("stripes", stripeSnapshots);
+            return result;
+        }
+
+        @Override
+        public String getTypeName() {
+            return "StripedBucket";
+        }
+
+    };
+
+    @Override
+    public boolean equalsByContent(StripedBucket other) {
+        LockFreeBucket[] buckets = stripes.buckets;
+        LockFreeBucket[] otherBuckets = other.stripes.buckets;
+        if (buckets.length != otherBuckets.length) {
+            return false;
+        }
+        for (int i = 0; i < buckets.length; i++) {
+            if (!buckets[i].equalsByContent(otherBuckets[i])) {
+                return false;
+            }
+        }
+        return ComparableByContent.equals(stripes.configuration, other.stripes.configuration) &&
+                timeMeter == other.timeMeter;
+    }
+
+}
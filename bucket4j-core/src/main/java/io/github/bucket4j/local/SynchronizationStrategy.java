@@ -59,6 +59,46 @@ public enum SynchronizationStrategy {
      * for example in cases where your third-party library(like akka or rx-java) prevents concurrent access and provide guarantees of visibility,
      * or when you are so senior guy that can manage synchronization by yourself.
      */
-    NONE
+    NONE,
+
+    /**
+     * Lock-free algorithm that keeps whole state of bucket inside single {@code long} and updates it by one CAS.
+     * Applicable only for configurations with exactly one bandwidth with greedy refill, see {@link SingleWordLockFreeBucket#isApplicable(io.github.bucket4j.BucketConfiguration)}.
+     *
+     * <p>Advantages: Never allocates memory on consumption and tolerant to high contention like {@link #LOCK_FREE}.
+     * <br>Disadvantages: Supports only one bandwidth, configuration replacement to unsupported configuration is rejected.
+     * {@link io.github.bucket4j.Bucket#forceAddTokens(long)} is not supported and throws {@link UnsupportedOperationException}.
+     * <br>Usage recommendations: when you have single limit per bucket and your primary goal is avoiding of memory allocation on hot path.
+     */
+    LOCK_FREE_SINGLE_WORD,
+
+    /**
+     * Optimistic strategy based on sequence word(seqlock) that protects the state which is modified in place.
+     * Writer acquires the state by one CAS of sequence word, modifies it without copying and releases by plain ordered write,
+     * readers of snapshots do not write to shared memory at all.
+     *
+     * <p>Advantages: Never allocates memory on consumption even under contention, supports any amount of bandwidths,
+     * costs of acquisition and release are cheaper than for {@link #SYNCHRONIZED} because uncontended thread never parks.
+     * <br>Disadvantages: Writers spin for a bounded number of attempts while another writer modifies the state and then park with backoff,
+     * so thread which was superseded from CPU in the middle of modification delays another threads like in {@link #SYNCHRONIZED}.
+     * <br>Usage recommendations: when you have multiple limits per bucket, your primary goal is avoiding of memory allocation,
+     * and amount of threads that use same bucket concurrently is not greater than amount of CPU cores.
+     */
+    SEQLOCK,
+
+    /**
+     * Scalable strategy that splits capacity and refill rate of each bandwidth across several {@link #LOCK_FREE} stripes,
+     * so threads that run on different CPU cores mostly consume tokens from different stripes, see {@link StripedBucket}.
+     * When stripe of current thread runs dry, tokens are collected from all stripes.
+     * Amount of stripes is equal to amount of available processors, but not greater than capacity and refill tokens of any bandwidth.
+     *
+     * <p>Advantages: Throughput scales with amount of CPU cores when many threads consume tokens from the same bucket.
+     * <br>Disadvantages: Results are approximate near exhaustion of bucket, request can be rejected while another thread holds tokens borrowed from other stripes.
+     * Values that describe whole bucket(remaining tokens, time to wait) require reading of all stripes.
+     * Capacity should be much greater than amount of CPU cores, otherwise each stripe is too small to serve typical request without borrowing.
+     * <br>Usage recommendations: when the same bucket is hammered by dozens of threads, capacity and refill rate are large,
+     * and small deviations from exact limits near exhaustion are acceptable.
+     */
+    STRIPED
 
 }
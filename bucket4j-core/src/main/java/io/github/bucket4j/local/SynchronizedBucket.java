@@ -106,6 +106,22 @@ public class SynchronizedBucket extends AbstractBucket implements LocalBucket, C
         }
     }
 
+    @Override
+    protected int tryConsumeEachImpl(long[] tokensToConsume, boolean[] admitted) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        lock.lock();
+        try {
+            state.refillAllBandwidth(currentTimeNanos);
+            long tokensToConsumeTotal = admitEach(state.getAvailableTokens(), tokensToConsume, admitted);
+            if (tokensToConsumeTotal > 0) {
+                state.consume(tokensToConsumeTotal);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return countAdmitted(tokensToConsume, admitted);
+    }
+
     @Override
     protected ConsumptionProbe tryConsumeAndReturnRemainingTokensImpl(long tokensToConsume) {
         long currentTimeNanos = timeMeter.currentTimeNanos();
@@ -144,6 +160,46 @@ public class SynchronizedBucket extends AbstractBucket implements LocalBucket, C
         }
     }
 
+    @Override
+    protected void tryConsumeAndReturnRemainingTokensImpl(long tokensToConsume, MutableConsumptionProbe probe) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        lock.lock();
+        try {
+            state.refillAllBandwidth(currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens();
+            if (tokensToConsume > availableToConsume) {
+                long nanosToWaitForRefill = state.calculateDelayNanosAfterWillBePossibleToConsume(tokensToConsume, currentTimeNanos, true);
+                long nanosToWaitForReset = state.calculateFullRefillingTime(currentTimeNanos);
+                probe.setRejected(availableToConsume, nanosToWaitForRefill, nanosToWaitForReset);
+                return;
+            }
+            state.consume(tokensToConsume);
+            long remainingTokens = availableToConsume - tokensToConsume;
+            long nanosToWaitForReset = state.calculateFullRefillingTime(currentTimeNanos);
+            probe.setConsumed(remainingTokens, nanosToWaitForReset);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    protected void estimateAbilityToConsumeImpl(long tokensToEstimate, MutableEstimationProbe probe) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        lock.lock();
+        try {
+            state.refillAllBandwidth(currentTimeNanos);
+            long availableToConsume = state.getAvailableTokens();
+            if (tokensToEstimate > availableToConsume) {
+                long nanosToWaitForRefill = state.calculateDelayNanosAfterWillBePossibleToConsume(tokensToEstimate, currentTimeNanos, true);
+                probe.setCanNotBeConsumed(availableToConsume, nanosToWaitForRefill);
+            } else {
+                probe.setCanBeConsumed(availableToConsume);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
     @Override
     protected long reserveAndCalculateTimeToSleepImpl(long tokensToConsume, long waitIfBusyNanosLimit) {
         long currentTimeNanos = timeMeter.currentTimeNanos();
@@ -88,6 +88,17 @@ public class ThreadUnsafeBucket extends AbstractBucket implements LocalBucket, C
         return true;
     }
 
+    @Override
+    protected int tryConsumeEachImpl(long[] tokensToConsume, boolean[] admitted) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        state.refillAllBandwidth(currentTimeNanos);
+        long tokensToConsumeTotal = admitEach(state.getAvailableTokens(), tokensToConsume, admitted);
+        if (tokensToConsumeTotal > 0) {
+            state.consume(tokensToConsumeTotal);
+        }
+        return countAdmitted(tokensToConsume, admitted);
+    }
+
     @Override
     protected ConsumptionProbe tryConsumeAndReturnRemainingTokensImpl(long tokensToConsume) {
         long currentTimeNanos = timeMeter.currentTimeNanos();
@@ -116,6 +127,36 @@ public class ThreadUnsafeBucket extends AbstractBucket implements LocalBucket, C
         return EstimationProbe.canBeConsumed(availableToConsume);
     }
 
+    @Override
+    protected void tryConsumeAndReturnRemainingTokensImpl(long tokensToConsume, MutableConsumptionProbe probe) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        state.refillAllBandwidth(currentTimeNanos);
+        long availableToConsume = state.getAvailableTokens();
+        if (tokensToConsume > availableToConsume) {
+            long nanosToWaitForRefill = state.calculateDelayNanosAfterWillBePossibleToConsume(tokensToConsume, currentTimeNanos, true);
+            long nanosToWaitForReset = state.calculateFullRefillingTime(currentTimeNanos);
+            probe.setRejected(availableToConsume, nanosToWaitForRefill, nanosToWaitForReset);
+            return;
+        }
+        state.consume(tokensToConsume);
+        long remainingTokens = availableToConsume - tokensToConsume;
+        long nanosToWaitForReset = state.calculateFullRefillingTime(currentTimeNanos);
+        probe.setConsumed(remainingTokens, nanosToWaitForReset);
+    }
+
+    @Override
+    protected void estimateAbilityToConsumeImpl(long tokensToEstimate, MutableEstimationProbe probe) {
+        long currentTimeNanos = timeMeter.currentTimeNanos();
+        state.refillAllBandwidth(currentTimeNanos);
+        long availableToConsume = state.getAvailableTokens();
+        if (tokensToEstimate > availableToConsume) {
+            long nanosToWaitForRefill = state.calculateDelayNanosAfterWillBePossibleToConsume(tokensToEstimate, currentTimeNanos, true);
+            probe.setCanNotBeConsumed(availableToConsume, nanosToWaitForRefill);
+        } else {
+            probe.setCanBeConsumed(availableToConsume);
+        }
+    }
+
     @Override
     protected long reserveAndCalculateTimeToSleepImpl(long tokensToConsume, long waitIfBusyNanosLimit) {
         long currentTimeNanos = timeMeter.currentTimeNanos();
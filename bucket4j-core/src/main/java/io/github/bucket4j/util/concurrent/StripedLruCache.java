@@ -0,0 +1,114 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2022 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.util.concurrent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bounded cache that is split to independently locked stripes, each stripe evicts its least recently used entry when overflowed.
+ *
+ * <p>
+ * In contrast to single synchronized access-ordered {@link LinkedHashMap}, threads that work with different keys rarely contend for the same lock,
+ * the price is that eviction order is least-recently-used only inside stripe rather than across whole cache.
+ * Small caches are not striped at all, so they evict exactly in least-recently-used order.
+ *
+ * @param <K> type of key
+ * @param <V> type of value
+ */
+public class StripedLruCache<K, V> {
+
+    private static final int MIN_STRIPE_SIZE = 64;
+    private static final int MAX_STRIPES = 64;
+
+    private final Stripe<K, V>[] stripes;
+    private final int shift;
+
+    @SuppressWarnings("unchecked")
+    public StripedLruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize should be positive");
+        }
+        int parallelism = Math.min(MAX_STRIPES, Runtime.getRuntime().availableProcessors() * 4);
+        int stripeCount = Integer.highestOneBit(Math.max(1, Math.min(parallelism, maxSize / MIN_STRIPE_SIZE)));
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            // first stripes take the remainder, so total capacity is exactly maxSize
+            int stripeSize = maxSize / stripeCount + (i < maxSize % stripeCount ? 1 : 0);
+            stripes[i] = new Stripe<>(stripeSize);
+        }
+        this.shift = 32 - Integer.numberOfTrailingZeros(stripeCount);
+    }
+
+    public V get(K key) {
+        Stripe<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.get(key);
+        }
+    }
+
+    public void put(K key, V value) {
+        Stripe<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.put(key, value);
+        }
+    }
+
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> factory) {
+        Stripe<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.computeIfAbsent(key, factory);
+        }
+    }
+
+    public boolean remove(K key, V value) {
+        Stripe<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            return stripe.remove(key, value);
+        }
+    }
+
+    private Stripe<K, V> stripeFor(Object key) {
+        if (stripes.length == 1) {
+            return stripes[0];
+        }
+        // stripe is selected by high bits of multiplicative hash, because low bits are used by map of stripe itself
+        int index = (key.hashCode() * 0x9E3779B9) >>> shift;
+        return stripes[index];
+    }
+
+    private static final class Stripe<K, V> extends LinkedHashMap<K, V> {
+
+        private final int maxSize;
+
+        private Stripe(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxSize;
+        }
+
+    }
+
+}
@@ -0,0 +1,90 @@
+package io.github.bucket4j
+
+import io.github.bucket4j.local.LocalBucket
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+
+class CachedTimeMeterSpecification extends Specification {
+
+    AtomicLong sourceTime = new AtomicLong(42)
+    TimeMeter source = [currentTimeNanos: { -> sourceTime.get() }, isWallClockBased: { -> false }] as TimeMeter
+
+    def "should return time cached by ticker thread"() {
+        setup:
+            CachedTimeMeter meter = new CachedTimeMeter(source, Duration.ofMillis(1))
+        expect:
+            meter.currentTimeNanos() == 42
+            !meter.isWallClockBased()
+        when:
+            sourceTime.set(100)
+        then:
+            awaitTime(meter, 100)
+        cleanup:
+            meter.close()
+    }
+
+    def "should read source directly after closing"() {
+        setup:
+            CachedTimeMeter meter = new CachedTimeMeter(source, Duration.ofHours(1))
+        when:
+            meter.close()
+            sourceTime.set(100)
+        then:
+            meter.currentTimeNanos() == 100
+    }
+
+    def "should reject non-positive resolution"() {
+        when:
+            new CachedTimeMeter(source, resolution)
+        then:
+            thrown(IllegalArgumentException)
+        where:
+            resolution << [null, Duration.ZERO, Duration.ofMillis(-1)]
+    }
+
+    def "should reject null source"() {
+        when:
+            new CachedTimeMeter(null, Duration.ofMillis(1))
+        then:
+            thrown(IllegalArgumentException)
+    }
+
+    def "shared instance should be usable by local buckets"() {
+        setup:
+            LocalBucket bucket = Bucket.builder()
+                .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)))
+                .withCachedMillisecondPrecision()
+                .build()
+        expect:
+            bucket.getTimeMeter().is(CachedTimeMeter.millisecondPrecision())
+            bucket.getTimeMeter().isWallClockBased()
+            bucket.tryConsume(10)
+            !bucket.tryConsume(1)
+            Math.abs(bucket.getTimeMeter().currentTimeNanos() - TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis())) < TimeUnit.SECONDS.toNanos(1)
+    }
+
+    def "shared instance should not be closed by its users"() {
+        setup:
+            CachedTimeMeter meter = CachedTimeMeter.millisecondPrecision()
+        when:
+            meter.close()
+        then:
+            meter.@currentTimeNanos != Long.MIN_VALUE
+            meter.@ticker.isAlive()
+    }
+
+    private static boolean awaitTime(TimeMeter meter, long expectedTimeNanos) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10)
+        while (meter.currentTimeNanos() != expectedTimeNanos) {
+            if (System.nanoTime() > deadline) {
+                return false
+            }
+            Thread.sleep(1)
+        }
+        return true
+    }
+
+}
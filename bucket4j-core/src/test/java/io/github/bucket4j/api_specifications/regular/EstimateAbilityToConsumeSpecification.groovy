@@ -4,6 +4,7 @@ import io.github.bucket4j.Bandwidth
 import io.github.bucket4j.Bucket
 import io.github.bucket4j.BucketConfiguration
 import io.github.bucket4j.EstimationProbe
+import io.github.bucket4j.MutableEstimationProbe
 import io.github.bucket4j.Refill
 import io.github.bucket4j.distributed.AsyncBucketProxy
 import io.github.bucket4j.mock.BucketType
@@ -30,6 +31,12 @@ class EstimateAbilityToConsumeSpecification extends Specification {
             assert probe.nanosToWaitForRefill == expectedWait
             assert bucket.getAvailableTokens() == availableTokensBeforeEstimation
 
+            MutableEstimationProbe mutableProbe = new MutableEstimationProbe()
+            assert bucket.estimateAbilityToConsume(toEstimate, mutableProbe) == result
+            assert mutableProbe.canBeConsumed() == result
+            assert mutableProbe.remainingTokens == availableTokensBeforeEstimation
+            assert mutableProbe.nanosToWaitForRefill == expectedWait
+            assert bucket.getAvailableTokens() == availableTokensBeforeEstimation
 
             AsyncBucketProxy asyncBucket = type.createAsyncBucket(configuration, timeMeter)
             availableTokensBeforeEstimation = bucket.getAvailableTokens()
@@ -4,6 +4,7 @@ import io.github.bucket4j.Bandwidth
 import io.github.bucket4j.Bucket
 import io.github.bucket4j.BucketConfiguration
 import io.github.bucket4j.ConsumptionProbe
+import io.github.bucket4j.MutableConsumptionProbe
 import io.github.bucket4j.SimpleBucketListener
 import io.github.bucket4j.distributed.AsyncBucketProxy
 import io.github.bucket4j.mock.BucketType
@@ -36,6 +37,13 @@ class TryConsumeAndReturnRemainingSpecification extends Specification {
             assert probe.remainingTokens == expectedRemaining
             assert probe.nanosToWaitForRefill == expectedWait
 
+            MutableConsumptionProbe mutableProbe = new MutableConsumptionProbe()
+            assert type.createBucket(configuration, timeMeter).tryConsumeAndReturnRemaining(toConsume, mutableProbe) == result
+            assert mutableProbe.consumed == result
+            assert mutableProbe.remainingTokens == expectedRemaining
+            assert mutableProbe.nanosToWaitForRefill == expectedWait
+            assert mutableProbe.nanosToWaitForReset == probe.nanosToWaitForReset
+
             AsyncBucketProxy asyncBucket = type.createAsyncBucket(configuration, timeMeter)
             probe = asyncBucket.tryConsumeAndReturnRemaining(toConsume).get()
             assert probe.consumed == result
@@ -81,6 +89,32 @@ class TryConsumeAndReturnRemainingSpecification extends Specification {
             [type, verbose] << PipeGenerator.сartesianProduct(BucketType.values() as List, [false, true])
     }
 
+    @Unroll
+    def "#type test listener for tryConsumeAndReturnRemaining with mutable probe"(BucketType type) {
+        setup:
+            Bucket bucket = type.createBucket(configuration, clock, listener)
+            MutableConsumptionProbe probe = new MutableConsumptionProbe()
+
+        when:
+            bucket.tryConsumeAndReturnRemaining(9, probe)
+        then:
+            probe.consumed
+            probe.remainingTokens == 1
+            listener.getConsumed() == 9
+            listener.getRejected() == 0
+
+        when:
+            bucket.tryConsumeAndReturnRemaining(6, probe)
+        then:
+            !probe.consumed
+            probe.remainingTokens == 1
+            listener.getConsumed() == 9
+            listener.getRejected() == 6
+
+        where:
+            type << BucketType.values()
+    }
+
     @Unroll
     def "#type verbose=#verbose test listener for async tryConsumeAndReturnRemaining"(BucketType type, boolean verbose) {
         setup:
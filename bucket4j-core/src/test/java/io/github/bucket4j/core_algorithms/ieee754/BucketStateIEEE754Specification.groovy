@@ -0,0 +1,221 @@
+package io.github.bucket4j.core_algorithms.ieee754
+
+import io.github.bucket4j.Bandwidth
+import io.github.bucket4j.Bucket
+import io.github.bucket4j.BucketConfiguration
+import io.github.bucket4j.BucketState
+import io.github.bucket4j.MathType
+import io.github.bucket4j.Refill
+import io.github.bucket4j.TokensInheritanceStrategy
+import io.github.bucket4j.distributed.BucketProxy
+import io.github.bucket4j.distributed.proxy.ClientSideConfig
+import io.github.bucket4j.distributed.remote.RemoteCommand
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateAndExecuteCommand
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand
+import io.github.bucket4j.distributed.remote.commands.GetAvailableTokensCommand
+import io.github.bucket4j.distributed.versioning.UsageOfUnsupportedApiException
+import io.github.bucket4j.distributed.versioning.Versions
+import io.github.bucket4j.local.LocalBucket
+import io.github.bucket4j.local.SynchronizationStrategy
+import io.github.bucket4j.mock.ProxyManagerMock
+import io.github.bucket4j.mock.TimeMeterMock
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.time.Duration
+
+import static io.github.bucket4j.local.SynchronizationStrategy.*
+
+
+class BucketStateIEEE754Specification extends Specification {
+
+    @Unroll
+    def "Specification for refill classic bandwidth #n"(int n, long initialTokens, long capacity, long refillTokens, long refillPeriod,
+                                                        long initTime, long timeOnRefill, long tokensAfterRefill, long roundingError) {
+        setup:
+            def refill = Refill.greedy(refillTokens, Duration.ofNanos(refillPeriod))
+            BucketConfiguration configuration = BucketConfiguration.builder()
+                    .addLimit(Bandwidth.classic(capacity, refill).withInitialTokens(initialTokens))
+                    .build()
+            BucketState state = BucketState.createInitialState(configuration, MathType.IEEE754, initTime)
+        when:
+            state.refillAllBandwidth(timeOnRefill)
+        then:
+            state.getCurrentSize(0) == tokensAfterRefill
+            state.getRoundingError(0) == roundingError
+        where:
+        n  | initialTokens |    capacity    | refillTokens | refillPeriod | initTime | timeOnRefill | tokensAfterRefill | roundingError
+        1  |        0      |      1000      |       1      |          1   | 10000    |     10040    |       40          |      0
+        2  |       50      |      1000      |      10      |         10   | 10000    |     10001    |       51          |      0
+        3  |       55      |      1000      |       1      |          1   | 10000    |     10000    |       55          |      0
+        4  |      200      |      1000      |      10      |         10   | 10000    |     20000    |     1000          |      0
+        5  |        0      |       100      |       1      |         10   | 10000    |     10003    |        0          |      3
+        6  |       90      |       100      |       1      |         10   | 10000    |     10017    |       91          |      7
+        7  |        0      |       100      |       1      |         10   | 10000    |     28888    |      100          |      0
+        8  |        0      |       100      |     100      |       1000   | 10000    |     10003    |        0          |      300
+        9  |       90      |       100      |     100      |       1000   | 10000    |     10017    |       91          |      700
+    }
+
+    @Unroll
+    def "calculateFullRefillingTime specification #n"(int n, long requiredTime, long tokensConsumeBeforeAsk, BucketConfiguration configuration) {
+        setup:
+            BucketState state = BucketState.createInitialState(configuration, MathType.IEEE754, 0L)
+            state.consume(tokensConsumeBeforeAsk)
+        expect:
+            state.calculateFullRefillingTime(0L) == requiredTime
+        where:
+        n | requiredTime | tokensConsumeBeforeAsk | configuration
+        1 |      90      |            0           | BucketConfiguration.builder().addLimit(Bandwidth.simple(10, Duration.ofNanos(100)).withInitialTokens(1)).build()
+        2 |     100      |            0           | BucketConfiguration.builder().addLimit(Bandwidth.classic(10, Refill.intervally(10, Duration.ofNanos(100))).withInitialTokens(1)).build()
+        3 |    1650      |           23           | BucketConfiguration.builder().addLimit(Bandwidth.classic(10, Refill.greedy(2, Duration.ofNanos(100))).withInitialTokens(0)).build()
+        4 |    1700      |           23           | BucketConfiguration.builder().addLimit(Bandwidth.classic(10, Refill.intervally(2, Duration.ofNanos(100))).withInitialTokens(0)).build()
+        5 |      90      |            0           | BucketConfiguration.builder().addLimit(Bandwidth.simple(10, Duration.ofNanos(100)).withInitialTokens(1)).addLimit(Bandwidth.simple(5, Duration.ofNanos(10)).withInitialTokens(2)).build()
+    }
+
+    @Unroll
+    def "#strategy bucket should behave exactly as integer one when refill per millisecond is representable without rounding"(SynchronizationStrategy strategy) {
+        setup:
+            TimeMeterMock meter = new TimeMeterMock(0)
+            Bucket ieee754 = createBucket(strategy, MathType.IEEE754, meter)
+            Bucket integer = createBucket(strategy, MathType.INTEGER_64_BITS, meter)
+            Random random = new Random(42)
+        expect:
+            for (int i = 0; i < 1000; i++) {
+                long tokens = 1 + random.nextInt(50)
+                assert ieee754.tryConsume(tokens) == integer.tryConsume(tokens)
+                assert ieee754.getAvailableTokens() == integer.getAvailableTokens()
+                assert ieee754.estimateAbilityToConsume(tokens).nanosToWaitForRefill == integer.estimateAbilityToConsume(tokens).nanosToWaitForRefill
+                meter.addMillis(random.nextInt(20))
+            }
+        where:
+            strategy << [LOCK_FREE, SYNCHRONIZED, NONE, SEQLOCK]
+    }
+
+    def "accumulated rounding should not differ from integer math for more than one token"() {
+        setup:
+            TimeMeterMock meter = new TimeMeterMock(0)
+            BucketConfiguration configuration = BucketConfiguration.builder()
+                    .addLimit(Bandwidth.simple(100, Duration.ofSeconds(7)))
+                    .addLimit(Bandwidth.classic(1000, Refill.intervally(333, Duration.ofSeconds(3))))
+                    .build()
+            BucketState ieee754 = BucketState.createInitialState(configuration, MathType.IEEE754, 0L)
+            BucketState integer = BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, 0L)
+            Random random = new Random(42)
+        expect:
+            for (int i = 0; i < 10_000; i++) {
+                meter.addMillis(random.nextInt(30))
+                ieee754.refillAllBandwidth(meter.currentTimeNanos())
+                integer.refillAllBandwidth(meter.currentTimeNanos())
+                long tokens = random.nextInt(3)
+                ieee754.consume(tokens)
+                integer.consume(tokens)
+                assert Math.abs(ieee754.getAvailableTokens() - integer.getAvailableTokens()) <= 1
+            }
+    }
+
+    def "state should survive configuration replacement"() {
+        setup:
+            BucketConfiguration configuration = BucketConfiguration.builder()
+                    .addLimit(Bandwidth.simple(100, Duration.ofSeconds(100)))
+                    .build()
+            BucketConfiguration newConfiguration = BucketConfiguration.builder()
+                    .addLimit(Bandwidth.simple(1000, Duration.ofSeconds(100)))
+                    .build()
+            BucketState state = BucketState.createInitialState(configuration, MathType.IEEE754, 0L)
+            state.consume(50)
+        expect:
+            state.replaceConfiguration(newConfiguration, TokensInheritanceStrategy.PROPORTIONALLY, 0L).getAvailableTokens() == 500
+            state.replaceConfiguration(newConfiguration, TokensInheritanceStrategy.AS_IS, 0L).getAvailableTokens() == 50
+            state.replaceConfiguration(newConfiguration, TokensInheritanceStrategy.ADDITIVE, 0L).getAvailableTokens() == 950
+            state.replaceConfiguration(newConfiguration, TokensInheritanceStrategy.RESET, 0L).getAvailableTokens() == 1000
+            state.replaceConfiguration(newConfiguration, TokensInheritanceStrategy.RESET, 0L).getMathType() == MathType.IEEE754
+    }
+
+    @Unroll
+    def "#strategy should reject IEEE754 math"(SynchronizationStrategy strategy) {
+        when:
+            Bucket.builder()
+                .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)))
+                .withSynchronizationStrategy(strategy)
+                .withMath(MathType.IEEE754)
+                .build()
+        then:
+            thrown(IllegalArgumentException)
+        where:
+            strategy << [LOCK_FREE_SINGLE_WORD, STRIPED]
+    }
+
+    def "remote bucket should be created with math type configured in client side config"() {
+        setup:
+            TimeMeterMock meter = new TimeMeterMock(0)
+            ProxyManagerMock<Integer> proxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault()
+                    .withClientClock(meter)
+                    .withMathType(MathType.IEEE754))
+            BucketConfiguration configuration = BucketConfiguration.builder()
+                    .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)))
+                    .build()
+            BucketProxy bucket = proxyManager.builder().build(1, configuration)
+        expect:
+            bucket.tryConsume(10)
+            !bucket.tryConsume(1)
+            bucket.asVerbose().getAvailableTokens().getState().getMathType() == MathType.IEEE754
+        when:
+            meter.addMillis(150)
+        then:
+            bucket.getAvailableTokens() == 1
+    }
+
+    def "creation of IEEE754 state should require protocol version that is newer than 8.10"() {
+        setup:
+            BucketConfiguration configuration = BucketConfiguration.builder()
+                    .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)))
+                    .build()
+            RemoteCommand<?> target = new GetAvailableTokensCommand()
+        expect:
+            new CreateInitialStateAndExecuteCommand<>(configuration, target, MathType.INTEGER_64_BITS).getRequiredVersion() == Versions.v_7_0_0
+            new CreateInitialStateAndExecuteCommand<>(configuration, target, MathType.IEEE754).getRequiredVersion() == Versions.v_8_19_0
+            new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(configuration, target, 1, TokensInheritanceStrategy.AS_IS, MathType.INTEGER_64_BITS).getRequiredVersion() == Versions.v_8_1_0
+            new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(configuration, target, 1, TokensInheritanceStrategy.AS_IS, MathType.IEEE754).getRequiredVersion() == Versions.v_8_19_0
+    }
+
+    def "remote bucket with IEEE754 math should not be sent to nodes that are compatible only with 8.10"() {
+        setup:
+            ProxyManagerMock<Integer> proxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault()
+                    .backwardCompatibleWith(Versions.v_8_10_0)
+                    .withMathType(MathType.IEEE754))
+            BucketConfiguration configuration = BucketConfiguration.builder()
+                    .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)))
+                    .build()
+            BucketProxy bucket = proxyManager.builder().build(1, configuration)
+        when:
+            bucket.tryConsume(1)
+        then:
+            Exception e = thrown()
+            e.cause instanceof UsageOfUnsupportedApiException
+            e.cause.message.contains("encoded in 4 format number, when maximum supported by backend is 3")
+    }
+
+    def "remote bucket with integer math should stay compatible with 8.10"() {
+        setup:
+            ProxyManagerMock<Integer> proxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault()
+                    .backwardCompatibleWith(Versions.v_8_10_0))
+            BucketConfiguration configuration = BucketConfiguration.builder()
+                    .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)))
+                    .build()
+            BucketProxy bucket = proxyManager.builder().build(1, configuration)
+        expect:
+            bucket.tryConsume(1)
+            bucket.getAvailableTokens() == 9
+    }
+
+    private static LocalBucket createBucket(SynchronizationStrategy strategy, MathType mathType, TimeMeterMock meter) {
+        return Bucket.builder()
+            .addLimit(Bandwidth.simple(1000, Duration.ofSeconds(1)).withInitialTokens(100))
+            .addLimit(Bandwidth.classic(200, Refill.intervally(50, Duration.ofMillis(250))))
+            .withSynchronizationStrategy(strategy)
+            .withMath(mathType)
+            .withCustomTimePrecision(meter)
+            .build()
+    }
+
+}
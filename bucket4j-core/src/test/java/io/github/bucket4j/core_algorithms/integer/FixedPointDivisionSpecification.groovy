@@ -0,0 +1,29 @@
+package io.github.bucket4j.core_algorithms.integer
+
+import io.github.bucket4j.Bandwidth
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class FixedPointDivisionSpecification extends Specification {
+
+    @Unroll
+    def "division by reciprocal should be exact for divisor #divisor"(long divisor) {
+        setup:
+            Bandwidth bandwidth = new Bandwidth(Long.MAX_VALUE, divisor, divisor, 0, false, Bandwidth.UNSPECIFIED_TIME_OF_FIRST_REFILL, false, null)
+            Random random = new Random(divisor)
+            List<Long> dividends = [0L, 1L, divisor - 1, divisor, divisor + 1, Long.MAX_VALUE, Long.MAX_VALUE - 1,
+                                    Long.MAX_VALUE - divisor, (Long.MAX_VALUE / divisor as long) * divisor, -1L, Long.MIN_VALUE]
+            for (int i = 0; i < 10_000; i++) {
+                dividends.add(random.nextLong() >>> random.nextInt(64))
+            }
+        expect:
+            for (long dividend : dividends) {
+                assert bandwidth.divideByRefillPeriod(dividend) == dividend.intdiv(divisor)
+                assert bandwidth.divideByRefillTokens(dividend) == dividend.intdiv(divisor)
+            }
+        where:
+            divisor << [1L, 2L, 3L, 7L, 10L, 1000L, 1_000_000L, 1_000_000_000L, 60_000_000_000L, 86_400_000_000_000L,
+                        (1L << 32), (1L << 32) + 1, (1L << 62) + 1, Long.MAX_VALUE / 3, Long.MAX_VALUE - 1, Long.MAX_VALUE]
+    }
+
+}
@@ -1,11 +1,19 @@
 package io.github.bucket4j.distributed.proxy;
 
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
 import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
 import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
 import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.ContentionAwareExecution;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.NopeStateCacheListener;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.StateCacheListener;
 import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.versioning.Versions;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
@@ -106,6 +114,126 @@ public class AbstractProxyManagerBuilderTest {
         assertTrue(config.getRetryStrategy().isPresent());
     }
 
+    @Test
+    public void testMathTypeConfiguration() {
+        TestProxyManagerBuilder builder = new TestProxyManagerBuilder();
+        assertEquals(MathType.INTEGER_64_BITS, builder.getClientSideConfig().getMathType());
+
+        builder.mathType(MathType.IEEE754);
+        assertEquals(MathType.IEEE754, builder.getMathType());
+        assertEquals(MathType.IEEE754, builder.getClientSideConfig().getMathType());
+
+        assertThrows(IllegalArgumentException.class, () -> builder.mathType(null));
+    }
+
+    @Test
+    public void testSpeculativeInitializationConfiguration() {
+        TestProxyManagerBuilder builder = new TestProxyManagerBuilder();
+        assertFalse(builder.getClientSideConfig().isSpeculativeInitialization());
+
+        builder.speculativeInitialization();
+        assertTrue(builder.isSpeculativeInitialization());
+        assertTrue(builder.getClientSideConfig().isSpeculativeInitialization());
+        assertEquals(0, builder.getClientSideConfig().getKnownBucketsCacheSize());
+
+        builder.speculativeInitialization(1000);
+        assertEquals(1000, builder.getKnownBucketsCacheSize());
+        assertEquals(1000, builder.getClientSideConfig().getKnownBucketsCacheSize());
+
+        assertThrows(IllegalArgumentException.class, () -> builder.speculativeInitialization(-1));
+    }
+
+    @Test
+    public void testCrossKeyBatchingConfiguration() {
+        TestProxyManagerBuilder builder = new TestProxyManagerBuilder();
+        assertEquals(Optional.empty(), builder.getClientSideConfig().getMaxCrossKeyBatchSize());
+
+        builder.crossKeyBatching(64);
+        assertEquals(Optional.of(64), builder.getMaxCrossKeyBatchSize());
+        assertEquals(Optional.of(64), builder.getClientSideConfig().getMaxCrossKeyBatchSize());
+
+        assertThrows(IllegalArgumentException.class, () -> builder.crossKeyBatching(0));
+    }
+
+    @Test
+    public void testCompactSerializationConfiguration() {
+        TestProxyManagerBuilder builder = new TestProxyManagerBuilder();
+        assertFalse(builder.getClientSideConfig().isCompactSerializationEnabled());
+
+        builder.compactSerialization();
+        assertTrue(builder.isCompactSerializationEnabled());
+        assertTrue(builder.getClientSideConfig().isCompactSerializationEnabled());
+    }
+
+    @Test
+    public void testLastSeenStateCacheConfiguration() {
+        TestProxyManagerBuilder builder = new TestProxyManagerBuilder();
+        assertEquals(0, builder.getClientSideConfig().getLastSeenStateCacheSize());
+        assertSame(NopeStateCacheListener.INSTANCE, builder.getClientSideConfig().getStateCacheListener());
+
+        StateCacheListener listener = StateCacheListener.createDefault();
+        builder.lastSeenStateCache(1000, listener);
+        assertEquals(1000, builder.getLastSeenStateCacheSize());
+        assertEquals(1000, builder.getClientSideConfig().getLastSeenStateCacheSize());
+        assertSame(listener, builder.getClientSideConfig().getStateCacheListener());
+
+        assertThrows(IllegalArgumentException.class, () -> builder.lastSeenStateCache(0));
+        assertThrows(IllegalArgumentException.class, () -> builder.lastSeenStateCache(10, null));
+    }
+
+    @Test
+    public void testContentionAwareExecutionConfiguration() {
+        TestProxyManagerBuilder builder = new TestProxyManagerBuilder();
+        assertEquals(Optional.empty(), builder.getClientSideConfig().getContentionAwareExecution());
+
+        ContentionAwareExecution contentionAwareExecution = ContentionAwareExecution.of(0.3, 16).withMaxTrackedKeys(100);
+        builder.contentionAwareExecution(contentionAwareExecution);
+        assertEquals(Optional.of(contentionAwareExecution), builder.getContentionAwareExecution());
+        assertEquals(Optional.of(contentionAwareExecution), builder.getClientSideConfig().getContentionAwareExecution());
+
+        assertThrows(IllegalArgumentException.class, () -> builder.contentionAwareExecution(null));
+    }
+
+    @Test
+    public void testClientSideConfigCopyPreservesAllSettings() {
+        TimeMeter clock = TimeMeter.SYSTEM_MILLISECONDS;
+        RetryStrategy retryStrategy = metadata -> RetryDecision.stop();
+        ExpirationAfterWriteStrategy expirationStrategy = ExpirationAfterWriteStrategy.fixedTimeToLive(Duration.ofMinutes(1));
+        StateCacheListener listener = NopeStateCacheListener.INSTANCE;
+        ContentionAwareExecution contentionAwareExecution = ContentionAwareExecution.of(0.3, 16);
+
+        ClientSideConfig config = ClientSideConfig.getDefault()
+            .backwardCompatibleWith(Versions.v_8_10_0)
+            .withClientClock(clock)
+            .withExecutionStrategy(ExecutionStrategy.SAME_TREAD)
+            .withRequestTimeout(Duration.ofSeconds(3))
+            .withExpirationAfterWriteStrategy(expirationStrategy)
+            .withMaxRetries(7)
+            .withRetryStrategy(retryStrategy)
+            .withMathType(MathType.IEEE754)
+            .withSpeculativeInitialization(42)
+            .withCrossKeyBatching(8)
+            .withCompactSerialization()
+            .withLastSeenStateCache(100, listener)
+            .withContentionAwareExecution(contentionAwareExecution);
+
+        assertEquals(Versions.v_8_10_0, config.getBackwardCompatibilityVersion());
+        assertEquals(Optional.of(clock), config.getClientSideClock());
+        assertEquals(ExecutionStrategy.SAME_TREAD, config.getExecutionStrategy());
+        assertEquals(Optional.of(Duration.ofSeconds(3).toNanos()), config.getRequestTimeoutNanos());
+        assertEquals(Optional.of(expirationStrategy), config.getExpirationAfterWriteStrategy());
+        assertEquals(Optional.of(7), config.getMaxRetries());
+        assertEquals(Optional.of(retryStrategy), config.getRetryStrategy());
+        assertEquals(MathType.IEEE754, config.getMathType());
+        assertTrue(config.isSpeculativeInitialization());
+        assertEquals(42, config.getKnownBucketsCacheSize());
+        assertEquals(Optional.of(8), config.getMaxCrossKeyBatchSize());
+        assertTrue(config.isCompactSerializationEnabled());
+        assertEquals(100, config.getLastSeenStateCacheSize());
+        assertSame(listener, config.getStateCacheListener());
+        assertEquals(Optional.of(contentionAwareExecution), config.getContentionAwareExecution());
+    }
+
     /**
      * Test implementation of AbstractProxyManagerBuilder for testing purposes
      */
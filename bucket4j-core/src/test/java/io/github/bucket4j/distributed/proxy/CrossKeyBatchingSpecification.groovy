@@ -0,0 +1,222 @@
+package io.github.bucket4j.distributed.proxy
+
+import io.github.bucket4j.Bandwidth
+import io.github.bucket4j.BucketConfiguration
+import io.github.bucket4j.distributed.remote.CommandResult
+import io.github.bucket4j.distributed.remote.Request
+import io.github.bucket4j.distributed.remote.commands.ConsumeAsMuchAsPossibleCommand
+import io.github.bucket4j.distributed.versioning.Versions
+import io.github.bucket4j.mock.ProxyManagerMock
+import io.github.bucket4j.mock.TimeMeterMock
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.Callable
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+
+class CrossKeyBatchingSpecification extends Specification {
+
+    BucketConfiguration configuration = BucketConfiguration.builder()
+        .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)))
+        .build()
+
+    def "single request should be executed without batching"() {
+        setup:
+            BatchRecordingProxyManager proxyManager = new BatchRecordingProxyManager(ClientSideConfig.getDefault()
+                .withClientClock(new TimeMeterMock(0))
+                .withCrossKeyBatching(10))
+        when:
+            boolean consumed = proxyManager.builder().build("a", configuration).tryConsume(1)
+        then:
+            consumed
+            proxyManager.batchSizes.isEmpty()
+            proxyManager.getHistory().size() == 2
+    }
+
+    def "concurrent requests for different keys should be coalesced while previous request is in flight"() {
+        setup:
+            BatchRecordingProxyManager proxyManager = new BatchRecordingProxyManager(ClientSideConfig.getDefault()
+                .withClientClock(new TimeMeterMock(0))
+                .withCrossKeyBatching(3))
+            ExecutorService executor = Executors.newFixedThreadPool(8)
+            int requestCount = 8
+        when:
+            // create all buckets in advance, in order to have one request per tryConsume
+            for (int i = 0; i < requestCount; i++) {
+                proxyManager.builder().build("key-" + i, configuration).tryConsume(1)
+            }
+            proxyManager.blockExecution()
+            List<Future<Boolean>> futures = []
+            futures.add(executor.submit({ proxyManager.builder().build("key-0", configuration).tryConsume(1) } as Callable<Boolean>))
+            proxyManager.awaitBlockedRequests(1)
+            for (int i = 1; i < requestCount; i++) {
+                String key = "key-" + i
+                futures.add(executor.submit({ proxyManager.builder().build(key, configuration).tryConsume(1) } as Callable<Boolean>))
+            }
+            Thread.sleep(300)
+            proxyManager.unblockExecution()
+        then:
+            futures.every { it.get() }
+            proxyManager.batchSizes.sum() == requestCount - 1
+            proxyManager.batchSizes.every { it <= 3 }
+            proxyManager.batchSizes == [3, 3, 1]
+            proxyManager.builder().build("key-5", configuration).getAvailableTokens() == 8
+        cleanup:
+            executor.shutdownNow()
+    }
+
+    def "exception from storage should be propagated to caller as is"() {
+        setup:
+            BatchRecordingProxyManager proxyManager = new BatchRecordingProxyManager(ClientSideConfig.getDefault()
+                .withClientClock(new TimeMeterMock(0))
+                .withCrossKeyBatching(10))
+            IllegalStateException error = new IllegalStateException()
+            proxyManager.setException(error)
+        when:
+            proxyManager.builder().build("a", configuration).tryConsume(1)
+        then:
+            thrown(RuntimeException)
+    }
+
+    def "async requests should be coalesced"() {
+        setup:
+            BatchRecordingProxyManager proxyManager = new BatchRecordingProxyManager(ClientSideConfig.getDefault()
+                .withClientClock(new TimeMeterMock(0))
+                .withCrossKeyBatching(100))
+            int requestCount = 10
+        when:
+            List<CompletableFuture<Boolean>> futures = []
+            for (int i = 0; i < requestCount; i++) {
+                futures.add(proxyManager.asAsync().builder().build("key-" + i, { -> CompletableFuture.completedFuture(configuration) }).tryConsume(1))
+            }
+        then:
+            futures.every { it.get() }
+            proxyManager.asAsync().builder().build("key-7", { -> CompletableFuture.completedFuture(configuration) }).getAvailableTokens().get() == 9
+    }
+
+    def "default bulk execution should apply requests in order"() {
+        setup:
+            ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault().withClientClock(new TimeMeterMock(0)))
+            proxyManager.builder().build("a", configuration).tryConsume(1)
+            Request<Long> request = new Request<>(new ConsumeAsMuchAsPossibleCommand(4), Versions.getLatest(), 0L, null)
+        when:
+            List<CompletableFuture<CommandResult<?>>> results = proxyManager.executeBatch(["a", "a", "a"], [request, request, request])
+        then:
+            results*.join()*.data == [4L, 4L, 1L]
+    }
+
+    def "failure of one request should not fail other requests of the same batch"() {
+        setup:
+            BatchRecordingProxyManager proxyManager = new BatchRecordingProxyManager(ClientSideConfig.getDefault()
+                .withClientClock(new TimeMeterMock(0))
+                .withCrossKeyBatching(10))
+            ExecutorService executor = Executors.newFixedThreadPool(4)
+            List<String> keys = ["key-1", "broken-key", "key-2"]
+        when:
+            for (String key : ["key-0", "key-1", "key-2"]) {
+                proxyManager.builder().build(key, configuration).tryConsume(1)
+            }
+            proxyManager.blockExecution()
+            Future<Boolean> first = executor.submit({ proxyManager.builder().build("key-0", configuration).tryConsume(1) } as Callable<Boolean>)
+            proxyManager.awaitBlockedRequests(1)
+            List<Future<Boolean>> futures = keys.collect { String key ->
+                executor.submit({ proxyManager.builder().build(key, configuration).tryConsume(1) } as Callable<Boolean>)
+            }
+            Thread.sleep(300)
+            proxyManager.unblockExecution()
+        then:
+            first.get()
+            futures[0].get()
+            futures[2].get()
+            proxyManager.batchSizes == [3]
+        when:
+            futures[1].get()
+        then:
+            java.util.concurrent.ExecutionException e = thrown()
+            e.cause instanceof IllegalStateException
+            e.cause.message == "broken-key"
+        cleanup:
+            executor.shutdownNow()
+    }
+
+    def "failure of one async request should be reported only to its own future"() {
+        setup:
+            ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault().withClientClock(new TimeMeterMock(0)))
+            proxyManager.builder().build("a", configuration).tryConsume(1)
+            Request<Long> request = new Request<>(new ConsumeAsMuchAsPossibleCommand(4), Versions.getLatest(), 0L, null)
+        when:
+            List<CompletableFuture<CommandResult<?>>> results = proxyManager.executeBatchAsync(["a", "a"], [request, request])
+        then:
+            results*.join()*.data == [4L, 4L]
+        when:
+            BatchRecordingProxyManager failingProxyManager = new BatchRecordingProxyManager(ClientSideConfig.getDefault().withClientClock(new TimeMeterMock(0)))
+            failingProxyManager.builder().build("a", configuration).tryConsume(1)
+            results = failingProxyManager.executeBatch(["a", "broken", "a"], [request, request, request])
+        then:
+            results[0].join().data == 4L
+            results[1].isCompletedExceptionally()
+            results[2].join().data == 4L
+    }
+
+    def "cross-key batching should be ignored by proxy-manager without native bulk execution"() {
+        setup:
+            BatchRecordingProxyManager proxyManager = new BatchRecordingProxyManager(ClientSideConfig.getDefault()
+                .withClientClock(new TimeMeterMock(0))
+                .withCrossKeyBatching(10))
+            proxyManager.supported = false
+            int requestCount = 10
+        when:
+            List<CompletableFuture<Boolean>> futures = []
+            for (int i = 0; i < requestCount; i++) {
+                futures.add(proxyManager.asAsync().builder().build("key-" + i, { -> CompletableFuture.completedFuture(configuration) }).tryConsume(1))
+            }
+            for (int i = 0; i < requestCount; i++) {
+                proxyManager.builder().build("key-" + i, configuration).tryConsume(1)
+            }
+        then:
+            futures.every { it.get() }
+            proxyManager.batchSizes.isEmpty()
+    }
+
+    def "non positive batch size should be rejected"() {
+        when:
+            ClientSideConfig.getDefault().withCrossKeyBatching(0)
+        then:
+            thrown(IllegalArgumentException)
+    }
+
+    static class BatchRecordingProxyManager extends ProxyManagerMock<String> {
+
+        final List<Integer> batchSizes = new CopyOnWriteArrayList<>()
+        boolean supported = true
+
+        BatchRecordingProxyManager(ClientSideConfig config) {
+            super(config)
+        }
+
+        @Override
+        protected boolean isCrossKeyBatchingSupported() {
+            return supported
+        }
+
+        @Override
+        protected List<CompletableFuture<CommandResult<?>>> executeBatch(List<String> keys, List<Request<?>> requests) {
+            batchSizes.add(requests.size())
+            return super.executeBatch(keys, requests)
+        }
+
+        @Override
+        <T> CommandResult<T> execute(String key, Request<T> request) {
+            if (key.startsWith("broken")) {
+                throw new IllegalStateException(key)
+            }
+            return super.execute(key, request)
+        }
+
+    }
+
+}
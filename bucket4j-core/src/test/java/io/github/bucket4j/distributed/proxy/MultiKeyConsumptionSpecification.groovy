@@ -0,0 +1,223 @@
+package io.github.bucket4j.distributed.proxy
+
+import io.github.bucket4j.Bandwidth
+import io.github.bucket4j.BucketConfiguration
+import io.github.bucket4j.distributed.remote.commands.ForceAddTokensCommand
+import io.github.bucket4j.mock.CompareAndSwapBasedProxyManagerMock
+import io.github.bucket4j.mock.LockBasedProxyManagerMock
+import io.github.bucket4j.mock.ProxyManagerMock
+import io.github.bucket4j.mock.SelectForUpdateBasedProxyManagerMock
+import io.github.bucket4j.mock.TimeMeterMock
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.time.Duration
+import java.util.function.Supplier
+
+class MultiKeyConsumptionSpecification extends Specification {
+
+    static BucketConfiguration userLimit = BucketConfiguration.builder()
+        .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)))
+        .build()
+
+    static BucketConfiguration tenantLimit = BucketConfiguration.builder()
+        .addLimit(Bandwidth.simple(15, Duration.ofSeconds(1)))
+        .build()
+
+    static Map<String, Closure<AbstractProxyManager<String>>> managers = [
+        "refund-based": { ClientSideConfig config -> new ProxyManagerMock<String>(config) },
+        "lock-based": { ClientSideConfig config -> new LockBasedProxyManagerMock<String>(config) },
+        "select-for-update-based": { ClientSideConfig config -> new SelectForUpdateBasedProxyManagerMock<String>(config) },
+        "compare-and-swap-based": { ClientSideConfig config -> new CompareAndSwapBasedProxyManagerMock<String>(config) },
+    ]
+
+    @Unroll
+    def "#type should consume from all buckets when each bucket has enough tokens"(String type) {
+        setup:
+            AbstractProxyManager<String> proxyManager = createManager(type)
+        when:
+            boolean consumed = proxyManager.tryConsumeAll([
+                KeyedConsumption.of("user", userLimit, 4),
+                KeyedConsumption.of("tenant", tenantLimit, 4),
+            ])
+        then:
+            consumed
+            availableTokens(proxyManager, "user", userLimit) == 6
+            availableTokens(proxyManager, "tenant", tenantLimit) == 11
+        where:
+            type << managers.keySet()
+    }
+
+    @Unroll
+    def "#type should not consume anything when one of buckets has not enough tokens"(String type) {
+        setup:
+            AbstractProxyManager<String> proxyManager = createManager(type)
+            proxyManager.builder().build("tenant", tenantLimit).tryConsume(13)
+        when:
+            boolean consumed = proxyManager.tryConsumeAll([
+                KeyedConsumption.of("user", userLimit, 3),
+                KeyedConsumption.of("tenant", tenantLimit, 3),
+                KeyedConsumption.of("global", userLimit, 3),
+            ])
+        then:
+            !consumed
+            availableTokens(proxyManager, "user", userLimit) == 10
+            availableTokens(proxyManager, "tenant", tenantLimit) == 2
+            availableTokens(proxyManager, "global", userLimit) == 10
+        where:
+            type << managers.keySet()
+    }
+
+    @Unroll
+    def "#type should sum tokens when the same key is present several times"(String type) {
+        setup:
+            AbstractProxyManager<String> proxyManager = createManager(type)
+        expect:
+            !proxyManager.tryConsumeAll([
+                KeyedConsumption.of("user", userLimit, 6),
+                KeyedConsumption.of("tenant", tenantLimit, 1),
+                KeyedConsumption.of("user", userLimit, 6),
+            ])
+            availableTokens(proxyManager, "user", userLimit) == 10
+            proxyManager.tryConsumeAll([
+                KeyedConsumption.of("user", userLimit, 6),
+                KeyedConsumption.of("user", userLimit, 4),
+            ])
+            availableTokens(proxyManager, "user", userLimit) == 0
+        where:
+            type << managers.keySet()
+    }
+
+    def "refund-based manager should return tokens back to buckets touched before failure"() {
+        setup:
+            ProxyManagerMock<String> refundBased = new ProxyManagerMock<>(ClientSideConfig.default.withClientClock(new TimeMeterMock(0)))
+            refundBased.builder().build("tenant", tenantLimit).tryConsume(15)
+            refundBased.clearHistory()
+        when:
+            refundBased.tryConsumeAll([
+                KeyedConsumption.of("user", userLimit, 1),
+                KeyedConsumption.of("tenant", tenantLimit, 1),
+            ])
+        then:
+            refundBased.history.size() == 3
+            refundBased.history[2].command instanceof ForceAddTokensCommand
+    }
+
+    def "default implementation should consume one by one and return tokens back for third-party proxy-managers"() {
+        setup:
+            ProxyManagerMock<String> storage = new ProxyManagerMock<>(ClientSideConfig.default.withClientClock(new TimeMeterMock(0)))
+            ProxyManager<String> thirdParty = new ThirdPartyProxyManager(storage)
+            storage.builder().build("tenant", tenantLimit).tryConsume(13)
+        expect:
+            !thirdParty.tryConsumeAll([
+                KeyedConsumption.of("user", userLimit, 3),
+                KeyedConsumption.of("tenant", tenantLimit, 3),
+            ])
+            availableTokens(storage, "user", userLimit) == 10
+            availableTokens(storage, "tenant", tenantLimit) == 2
+            thirdParty.tryConsumeAll([
+                KeyedConsumption.of("user", userLimit, 3),
+                KeyedConsumption.of("tenant", tenantLimit, 2),
+            ])
+            availableTokens(storage, "user", userLimit) == 7
+            availableTokens(storage, "tenant", tenantLimit) == 0
+    }
+
+    def "default implementation should return tokens back when consumption throws exception"() {
+        setup:
+            ProxyManagerMock<String> storage = new ProxyManagerMock<>(ClientSideConfig.default.withClientClock(new TimeMeterMock(0)))
+            ProxyManager<String> thirdParty = new ThirdPartyProxyManager(storage)
+        when:
+            thirdParty.tryConsumeAll([
+                KeyedConsumption.of("user", userLimit, 3),
+                KeyedConsumption.of("tenant", { null } as Supplier<BucketConfiguration>, 1),
+            ])
+        then:
+            thrown(IllegalArgumentException)
+            availableTokens(storage, "user", userLimit) == 10
+    }
+
+    def "should map keys when consumption is requested via view"() {
+        setup:
+            AbstractProxyManager<String> proxyManager = createManager("lock-based")
+            ProxyManager<Integer> view = proxyManager.withMapper({ Integer id -> "user-" + id })
+        when:
+            boolean consumed = view.tryConsumeAll([
+                KeyedConsumption.of(1, userLimit, 2),
+                KeyedConsumption.of(2, userLimit, 3),
+            ])
+        then:
+            consumed
+            availableTokens(proxyManager, "user-1", userLimit) == 8
+            availableTokens(proxyManager, "user-2", userLimit) == 7
+    }
+
+    def "should check arguments"() {
+        setup:
+            AbstractProxyManager<String> proxyManager = createManager("refund-based")
+        when:
+            proxyManager.tryConsumeAll([])
+        then:
+            thrown(IllegalArgumentException)
+        when:
+            proxyManager.tryConsumeAll(null)
+        then:
+            thrown(IllegalArgumentException)
+        when:
+            KeyedConsumption.of("user", userLimit, 0)
+        then:
+            thrown(IllegalArgumentException)
+        when:
+            KeyedConsumption.of(null, userLimit, 1)
+        then:
+            thrown(IllegalArgumentException)
+        when:
+            KeyedConsumption.of("user", (BucketConfiguration) null, 1)
+        then:
+            thrown(IllegalArgumentException)
+    }
+
+    static class ThirdPartyProxyManager implements ProxyManager<String> {
+
+        private final ProxyManager<String> target
+
+        ThirdPartyProxyManager(ProxyManager<String> target) {
+            this.target = target
+        }
+
+        @Override
+        RemoteBucketBuilder<String> builder() {
+            return target.builder()
+        }
+
+        @Override
+        Optional<BucketConfiguration> getProxyConfiguration(String key) {
+            return target.getProxyConfiguration(key)
+        }
+
+        @Override
+        void removeProxy(String key) {
+            target.removeProxy(key)
+        }
+
+        @Override
+        boolean isAsyncModeSupported() {
+            return false
+        }
+
+        @Override
+        AsyncProxyManager<String> asAsync() {
+            throw new UnsupportedOperationException()
+        }
+    }
+
+    private static AbstractProxyManager<String> createManager(String type) {
+        ClientSideConfig config = ClientSideConfig.default.withClientClock(new TimeMeterMock(0))
+        return managers[type].call(config)
+    }
+
+    private static long availableTokens(AbstractProxyManager<String> proxyManager, String key, BucketConfiguration configuration) {
+        return proxyManager.builder().build(key, configuration).getAvailableTokens()
+    }
+
+}
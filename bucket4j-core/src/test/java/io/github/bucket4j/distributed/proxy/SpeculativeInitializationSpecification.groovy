@@ -0,0 +1,156 @@
+package io.github.bucket4j.distributed.proxy
+
+import io.github.bucket4j.Bandwidth
+import io.github.bucket4j.BucketConfiguration
+import io.github.bucket4j.TokensInheritanceStrategy
+import io.github.bucket4j.distributed.AsyncBucketProxy
+import io.github.bucket4j.distributed.BucketProxy
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateAndExecuteCommand
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand
+import io.github.bucket4j.mock.ProxyManagerMock
+import io.github.bucket4j.mock.TimeMeterMock
+import spock.lang.Specification
+
+import java.time.Duration
+
+import static io.github.bucket4j.distributed.proxy.RecoveryStrategy.THROW_BUCKET_NOT_FOUND_EXCEPTION
+
+class SpeculativeInitializationSpecification extends Specification {
+
+    BucketConfiguration configuration = BucketConfiguration.builder()
+        .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)))
+        .build()
+
+    def "without speculative initialization cold key costs two round trips"() {
+        setup:
+            ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault().withClientClock(new TimeMeterMock(0)))
+            BucketProxy bucket = proxyManager.builder().build("cold", configuration)
+        when:
+            bucket.tryConsume(1)
+        then:
+            proxyManager.getHistory().size() == 2
+    }
+
+    def "speculative initialization should initialize cold key in single round trip"() {
+        setup:
+            ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault()
+                .withClientClock(new TimeMeterMock(0))
+                .withSpeculativeInitialization())
+            BucketProxy bucket = proxyManager.builder().build("cold", configuration)
+        when:
+            bucket.tryConsume(1)
+        then:
+            proxyManager.getHistory().size() == 1
+            proxyManager.getHistory()[0].command instanceof CreateInitialStateAndExecuteCommand
+        when:
+            proxyManager.clearHistory()
+            bucket.tryConsume(1)
+        then:
+            proxyManager.getHistory().size() == 1
+            !(proxyManager.getHistory()[0].command instanceof CreateInitialStateAndExecuteCommand)
+            bucket.getAvailableTokens() == 8
+    }
+
+    def "speculative initialization should not reset already existed bucket"() {
+        setup:
+            ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault()
+                .withClientClock(new TimeMeterMock(0))
+                .withSpeculativeInitialization())
+        when:
+            proxyManager.builder().build("key", configuration).tryConsume(7)
+            long available = proxyManager.builder().build("key", configuration).tryConsumeAndReturnRemaining(1).remainingTokens
+        then:
+            available == 2
+    }
+
+    def "speculative initialization should work together with implicit configuration replacement"() {
+        setup:
+            ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault()
+                .withClientClock(new TimeMeterMock(0))
+                .withSpeculativeInitialization())
+            BucketProxy bucket = proxyManager.builder()
+                .withImplicitConfigurationReplacement(1, TokensInheritanceStrategy.AS_IS)
+                .build("key", configuration)
+        when:
+            bucket.tryConsume(1)
+        then:
+            proxyManager.getHistory().size() == 1
+            proxyManager.getHistory()[0].command instanceof CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand
+            bucket.getAvailableTokens() == 9
+    }
+
+    def "recovery strategy should be applied to requests of already initialized proxy"() {
+        setup:
+            ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault()
+                .withClientClock(new TimeMeterMock(0))
+                .withSpeculativeInitialization())
+            BucketProxy bucket = proxyManager.builder()
+                .withRecoveryStrategy(THROW_BUCKET_NOT_FOUND_EXCEPTION)
+                .build("key", configuration)
+        when:
+            bucket.tryConsume(1)
+            proxyManager.removeProxy("key")
+            bucket.tryConsume(1)
+        then:
+            thrown(BucketNotFoundException)
+    }
+
+    def "requests for keys known to exist should be sent without configuration"() {
+        setup:
+            ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault()
+                .withClientClock(new TimeMeterMock(0))
+                .withSpeculativeInitialization(1))
+        when:
+            proxyManager.builder().build("a", configuration).tryConsume(1)
+            proxyManager.clearHistory()
+            proxyManager.builder().build("a", configuration).tryConsume(1)
+        then:
+            proxyManager.getHistory().size() == 1
+            !(proxyManager.getHistory()[0].command instanceof CreateInitialStateAndExecuteCommand)
+
+        when: "key is evicted from cache by another key"
+            proxyManager.builder().build("b", configuration).tryConsume(1)
+            proxyManager.clearHistory()
+            proxyManager.builder().build("a", configuration).tryConsume(1)
+        then:
+            proxyManager.getHistory().size() == 1
+            proxyManager.getHistory()[0].command instanceof CreateInitialStateAndExecuteCommand
+
+        when: "bucket for known key was removed"
+            proxyManager.removeProxy("a")
+            proxyManager.clearHistory()
+            BucketProxy bucket = proxyManager.builder().build("a", configuration)
+            bucket.tryConsume(1)
+        then:
+            proxyManager.getHistory().size() == 2
+            bucket.getAvailableTokens() == 9
+    }
+
+    def "async proxy should initialize cold key in single round trip"() {
+        setup:
+            ProxyManagerMock<String> proxyManager = new ProxyManagerMock<>(ClientSideConfig.getDefault()
+                .withClientClock(new TimeMeterMock(0))
+                .withSpeculativeInitialization())
+            AsyncBucketProxy bucket = proxyManager.asAsync().builder().build("cold", { -> java.util.concurrent.CompletableFuture.completedFuture(configuration) })
+        when:
+            boolean consumed = bucket.tryConsume(1).get()
+        then:
+            consumed
+            proxyManager.getHistory().size() == 1
+            proxyManager.getHistory()[0].command instanceof CreateInitialStateAndExecuteCommand
+        when:
+            proxyManager.clearHistory()
+            bucket.tryConsume(1).get()
+        then:
+            proxyManager.getHistory().size() == 1
+            !(proxyManager.getHistory()[0].command instanceof CreateInitialStateAndExecuteCommand)
+    }
+
+    def "negative size of known buckets cache should be rejected"() {
+        when:
+            ClientSideConfig.getDefault().withSpeculativeInitialization(-1)
+        then:
+            thrown(IllegalArgumentException)
+    }
+
+}
@@ -0,0 +1,89 @@
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap
+
+import io.github.bucket4j.Bandwidth
+import io.github.bucket4j.BucketConfiguration
+import io.github.bucket4j.distributed.proxy.ClientSideConfig
+import io.github.bucket4j.distributed.remote.CommandResult
+import io.github.bucket4j.distributed.remote.Request
+import io.github.bucket4j.distributed.remote.commands.ConsumeAsMuchAsPossibleCommand
+import io.github.bucket4j.distributed.remote.commands.GetAvailableTokensCommand
+import io.github.bucket4j.distributed.versioning.Versions
+import io.github.bucket4j.mock.CompareAndSwapBasedProxyManagerMock
+import io.github.bucket4j.mock.TimeMeterMock
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+
+class BatchCompareAndSwapSpecification extends Specification {
+
+    BucketConfiguration configuration = BucketConfiguration.builder()
+        .addLimit(Bandwidth.simple(10, Duration.ofMinutes(1)))
+        .build()
+
+    CompareAndSwapBasedProxyManagerMock<String> proxyManager = new CompareAndSwapBasedProxyManagerMock<>(ClientSideConfig.getDefault()
+        .withClientClock(new TimeMeterMock(0)))
+
+    Request<Long> consumeFour = new Request<>(new ConsumeAsMuchAsPossibleCommand(4), Versions.getLatest(), 0L, null)
+
+    def setup() {
+        for (String key : ["a", "b", "c"]) {
+            proxyManager.builder().build(key, configuration).tryConsume(1)
+        }
+        proxyManager.enableBatchCompareAndSwap()
+    }
+
+    def "requests for different keys should be processed by one batch of reads and one batch of swaps"() {
+        when:
+            List<CommandResult<?>> results = proxyManager.executeBatch(["a", "b", "c"], [consumeFour, consumeFour, consumeFour])*.join()
+        then:
+            results*.data == [4L, 4L, 4L]
+            proxyManager.getReadBatchCount() == 1
+            proxyManager.getSwapBatchSizes() == [3]
+            proxyManager.builder().build("b", configuration).getAvailableTokens() == 5
+    }
+
+    def "requests for the same key should be applied in order"() {
+        when:
+            List<CommandResult<?>> results = proxyManager.executeBatch(["a", "b", "a", "a"], [consumeFour, consumeFour, consumeFour, consumeFour])*.join()
+        then:
+            results*.data == [4L, 4L, 4L, 1L]
+            proxyManager.getReadBatchCount() == 1
+            proxyManager.getSwapBatchSizes() == [2]
+            proxyManager.builder().build("a", configuration).getAvailableTokens() == 0
+    }
+
+    def "request should be retried individually when swap of its key failed"() {
+        setup:
+            proxyManager.injectConflicts(1)
+        when:
+            List<CommandResult<?>> results = proxyManager.executeBatch(["a", "b"], [consumeFour, consumeFour])*.join()
+        then:
+            results*.data == [4L, 4L]
+            proxyManager.getSwapBatchSizes() == [2]
+            proxyManager.builder().build("a", configuration).getAvailableTokens() == 5
+            proxyManager.builder().build("b", configuration).getAvailableTokens() == 5
+    }
+
+    def "read-only requests should not be swapped"() {
+        setup:
+            Request<Long> getAvailableTokens = new Request<>(new GetAvailableTokensCommand(), Versions.getLatest(), 0L, null)
+        when:
+            List<CommandResult<?>> results = proxyManager.executeBatch(["a", "b"], [getAvailableTokens, getAvailableTokens])*.join()
+        then:
+            results*.data == [9L, 9L]
+            proxyManager.getReadBatchCount() == 1
+            proxyManager.getSwapBatchSizes().isEmpty()
+    }
+
+    def "missing bucket should be reported without swapping"() {
+        when:
+            List<CompletableFuture<CommandResult<?>>> futures = proxyManager.executeBatchAsync(["a", "unknown"], [consumeFour, consumeFour])
+            List<CommandResult<?>> results = futures*.get()
+        then:
+            results[0].data == 4L
+            results[1].isBucketNotFound()
+            proxyManager.getSwapBatchSizes() == [1]
+    }
+
+}
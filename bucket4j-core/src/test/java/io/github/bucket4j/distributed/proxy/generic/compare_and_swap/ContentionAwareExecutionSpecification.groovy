@@ -0,0 +1,177 @@
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap
+
+import io.github.bucket4j.Bandwidth
+import io.github.bucket4j.BucketConfiguration
+import io.github.bucket4j.distributed.BucketProxy
+import io.github.bucket4j.distributed.proxy.ClientSideConfig
+import io.github.bucket4j.distributed.remote.CommandResult
+import io.github.bucket4j.distributed.remote.MutableBucketEntry
+import io.github.bucket4j.distributed.remote.Request
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateAndExecuteCommand
+import io.github.bucket4j.distributed.remote.commands.GetAvailableTokensCommand
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand
+import io.github.bucket4j.distributed.versioning.Versions
+import io.github.bucket4j.mock.CompareAndSwapBasedProxyManagerMock
+import io.github.bucket4j.mock.TimeMeterMock
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class ContentionAwareExecutionSpecification extends Specification {
+
+    BucketConfiguration configuration = BucketConfiguration.builder()
+        .addLimit(Bandwidth.simple(1000, Duration.ofMinutes(1)))
+        .build()
+
+    TimeMeterMock clock = new TimeMeterMock(0)
+    DefaultContentionListener listener = new DefaultContentionListener()
+
+    def "should switch key to pessimistic mode when conflict rate reaches threshold and switch back when contention subsides"() {
+        setup:
+            CompareAndSwapBasedProxyManagerMock<String> proxyManager = new CompareAndSwapBasedProxyManagerMock<>(ClientSideConfig.getDefault()
+                .withClientClock(clock)
+                .withContentionAwareExecution(ContentionAwareExecution.of(0.5, 4).withListener(listener)))
+            BucketProxy bucket = proxyManager.builder().build("42", () -> configuration)
+            bucket.tryConsume(1)
+        when:
+            proxyManager.injectConflicts(3)
+            bucket.tryConsume(1)
+        then:
+            listener.getConflictCount() == 3
+            listener.getPessimisticModeEnteredCount() == 1
+            listener.getPessimisticModeExitedCount() == 0
+        when:
+            for (int i = 0; i < 4; i++) {
+                bucket.tryConsume(1)
+            }
+        then:
+            listener.getPessimisticModeExitedCount() == 1
+            bucket.getAvailableTokens() == 994
+    }
+
+    def "should not switch to pessimistic mode when conflict rate is below threshold"() {
+        setup:
+            CompareAndSwapBasedProxyManagerMock<String> proxyManager = new CompareAndSwapBasedProxyManagerMock<>(ClientSideConfig.getDefault()
+                .withClientClock(clock)
+                .withContentionAwareExecution(ContentionAwareExecution.of(0.5, 8).withListener(listener)))
+            BucketProxy bucket = proxyManager.builder().build("42", () -> configuration)
+        when:
+            proxyManager.injectConflicts(1)
+            for (int i = 0; i < 10; i++) {
+                bucket.tryConsume(1)
+            }
+        then:
+            listener.getConflictCount() == 1
+            listener.getPessimisticModeEnteredCount() == 0
+            bucket.getAvailableTokens() == 990
+    }
+
+    def "should not lose any request when key is in pessimistic mode"() {
+        setup:
+            CompareAndSwapBasedProxyManagerMock<String> proxyManager = new CompareAndSwapBasedProxyManagerMock<>(ClientSideConfig.getDefault()
+                .withClientClock(clock)
+                .withContentionAwareExecution(ContentionAwareExecution.of(1.0, 2).withListener(listener)))
+            BucketProxy bucket = proxyManager.builder().build("42", () -> configuration)
+            bucket.tryConsume(1)
+            proxyManager.injectConflicts(2)
+            bucket.tryConsume(1)
+            assert listener.getPessimisticModeEnteredCount() == 1
+            int threadCount = 8
+            int requestsPerThread = 50
+            ExecutorService executor = Executors.newFixedThreadPool(threadCount)
+            CountDownLatch startLatch = new CountDownLatch(1)
+        when:
+            List<CompletableFuture<Void>> futures = []
+            for (int t = 0; t < threadCount; t++) {
+                futures.add(CompletableFuture.runAsync({
+                    startLatch.await()
+                    for (int i = 0; i < requestsPerThread; i++) {
+                        bucket.tryConsume(1)
+                    }
+                }, executor))
+            }
+            startLatch.countDown()
+            CompletableFuture.allOf(futures as CompletableFuture[]).get(30, TimeUnit.SECONDS)
+        then:
+            bucket.getAvailableTokens() == 1000 - 2 - threadCount * requestsPerThread
+        cleanup:
+            executor.shutdown()
+    }
+
+    def "should merge requests that wait for their turn"() {
+        setup:
+            MutableBucketEntry entry = new MutableBucketEntry((byte[]) null)
+            new CreateInitialStateAndExecuteCommand<>(configuration, new GetAvailableTokensCommand()).execute(entry, 0L)
+            List<Request<?>> executedRequests = []
+            List<CompletableFuture<CommandResult<?>>> pendingResults = []
+            KeyContention contention = new KeyContention(ContentionAwareExecution.of(0.5, 4).withListener(listener),
+                { Request<?> request -> request.getCommand().execute(entry, 0L) },
+                { Request<?> request ->
+                    CompletableFuture<CommandResult<?>> future = new CompletableFuture<>()
+                    executedRequests.add(request)
+                    pendingResults.add(future)
+                    return future
+                })
+        when:
+            List<CompletableFuture<CommandResult<Boolean>>> results = []
+            for (int i = 0; i < 4; i++) {
+                results.add(contention.executeSerializedAsync(request(new TryConsumeCommand(1))))
+            }
+        then:
+            executedRequests.size() == 1
+        when:
+            pendingResults[0].complete(executedRequests[0].getCommand().execute(entry, 0L))
+        then:
+            executedRequests.size() == 2
+            listener.getAvoidedConflictCount() == 2
+        when:
+            pendingResults[1].complete(executedRequests[1].getCommand().execute(entry, 0L))
+        then:
+            results.every { it.isDone() && it.get().getData() }
+            new GetAvailableTokensCommand().execute(entry, 0L).getData() == 996
+    }
+
+    def "contention of key should be allocated only after first conflict"() {
+        setup:
+            int allocations = 0
+            ContentionAwareExecution settings = ContentionAwareExecution.of(0.5, 4)
+            ContentionTracker<String> tracker = new ContentionTracker<>(10, { key ->
+                allocations++
+                return new KeyContention(settings, { request -> null }, { request -> null })
+            })
+        when:
+            tracker.onCompareAndSwapAttempt("42", true)
+        then:
+            allocations == 0
+            tracker.find("42") == null
+            !tracker.isPessimistic("42")
+        when:
+            tracker.onCompareAndSwapAttempt("42", false)
+            tracker.onCompareAndSwapAttempt("42", false)
+        then:
+            allocations == 1
+            tracker.find("42") != null
+    }
+
+    def "should validate parameters"() {
+        when:
+            ContentionAwareExecution.of(threshold, windowSize)
+        then:
+            thrown(IllegalArgumentException)
+        where:
+            threshold | windowSize
+            0.0       | 10
+            1.5       | 10
+            0.5       | 0
+    }
+
+    private static <T> Request<T> request(TryConsumeCommand command) {
+        return new Request<>(command, Versions.getLatest(), null, null)
+    }
+
+}
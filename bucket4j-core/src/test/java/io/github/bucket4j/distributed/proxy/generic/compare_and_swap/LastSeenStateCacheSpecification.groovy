@@ -0,0 +1,135 @@
+package io.github.bucket4j.distributed.proxy.generic.compare_and_swap
+
+import io.github.bucket4j.Bandwidth
+import io.github.bucket4j.BucketConfiguration
+import io.github.bucket4j.distributed.BucketProxy
+import io.github.bucket4j.distributed.proxy.ClientSideConfig
+import io.github.bucket4j.mock.CompareAndSwapBasedProxyManagerMock
+import io.github.bucket4j.mock.TimeMeterMock
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+
+class LastSeenStateCacheSpecification extends Specification {
+
+    BucketConfiguration configuration = BucketConfiguration.builder()
+        .addLimit(Bandwidth.simple(100, Duration.ofMinutes(1)))
+        .build()
+
+    TimeMeterMock clock = new TimeMeterMock(0)
+    DefaultStateCacheListener listener = new DefaultStateCacheListener()
+
+    def "should skip reading of state when state was seen before"() {
+        setup:
+            CompareAndSwapBasedProxyManagerMock<String> proxyManager = new CompareAndSwapBasedProxyManagerMock<>(ClientSideConfig.getDefault()
+                .withClientClock(clock)
+                .withLastSeenStateCache(10, listener))
+            BucketProxy bucket = proxyManager.builder().build("42", () -> configuration)
+        when:
+            for (int i = 0; i < 10; i++) {
+                bucket.tryConsume(1)
+            }
+        then:
+            // the first request reads empty storage at first, then reads it again in order to initialize the bucket
+            proxyManager.getReadCount() == 2
+            listener.getMissCount() == 2
+            listener.getHitCount() == 9
+            listener.getConflictCount() == 0
+            bucket.getAvailableTokens() == 90
+    }
+
+    def "should read state each time when cache is disabled"() {
+        setup:
+            CompareAndSwapBasedProxyManagerMock<String> proxyManager = new CompareAndSwapBasedProxyManagerMock<>(ClientSideConfig.getDefault()
+                .withClientClock(clock))
+            BucketProxy bucket = proxyManager.builder().build("42", () -> configuration)
+        when:
+            for (int i = 0; i < 10; i++) {
+                bucket.tryConsume(1)
+            }
+        then:
+            proxyManager.getReadCount() == 11
+    }
+
+    def "should fall back to reading of state when state was modified by somebody else"() {
+        setup:
+            CompareAndSwapBasedProxyManagerMock<String> proxyManager = new CompareAndSwapBasedProxyManagerMock<>(ClientSideConfig.getDefault()
+                .withClientClock(clock)
+                .withLastSeenStateCache(10, listener))
+            CompareAndSwapBasedProxyManagerMock<String> anotherProxyManager = new CompareAndSwapBasedProxyManagerMock<>(ClientSideConfig.getDefault()
+                .withClientClock(clock))
+            BucketProxy bucket = proxyManager.builder().build("42", () -> configuration)
+            BucketProxy anotherBucket = anotherProxyManager.builder().build("42", () -> configuration)
+            bucket.tryConsume(10)
+        when:
+            anotherProxyManager.putStateData("42", proxyManager.getStateData("42"))
+            anotherBucket.tryConsume(20)
+            proxyManager.putStateData("42", anotherProxyManager.getStateData("42"))
+            bucket.tryConsume(30)
+        then:
+            listener.getConflictCount() == 1
+            proxyManager.getReadCount() == 3
+            bucket.getAvailableTokens() == 40
+        when:
+            bucket.tryConsume(1)
+        then:
+            listener.getHitCount() == 1
+            proxyManager.getReadCount() == 4
+    }
+
+    def "should read state for commands that do not modify state"() {
+        setup:
+            CompareAndSwapBasedProxyManagerMock<String> proxyManager = new CompareAndSwapBasedProxyManagerMock<>(ClientSideConfig.getDefault()
+                .withClientClock(clock)
+                .withLastSeenStateCache(10, listener))
+            BucketProxy bucket = proxyManager.builder().build("42", () -> configuration)
+            bucket.tryConsume(1)
+        when:
+            long availableTokens = bucket.getAvailableTokens()
+        then:
+            availableTokens == 99
+            proxyManager.getReadCount() == 3
+            listener.getMissCount() == 3
+    }
+
+    def "should use cache in async mode"() {
+        setup:
+            CompareAndSwapBasedProxyManagerMock<String> proxyManager = new CompareAndSwapBasedProxyManagerMock<>(ClientSideConfig.getDefault()
+                .withClientClock(clock)
+                .withLastSeenStateCache(10, listener))
+            def bucket = proxyManager.asAsync().builder().build("42", () -> CompletableFuture.completedFuture(configuration))
+        when:
+            for (int i = 0; i < 10; i++) {
+                bucket.tryConsume(1).get()
+            }
+        then:
+            proxyManager.getReadCount() == 2
+            listener.getHitCount() == 9
+            bucket.getAvailableTokens().get() == 90
+    }
+
+    def "should evict least recently used states"() {
+        setup:
+            LastSeenStateCache<String> cache = new LastSeenStateCache<>(2)
+            byte[] first = [1]
+            byte[] second = [2]
+            byte[] third = [3]
+        when:
+            cache.put("1", first)
+            cache.put("2", second)
+            cache.get("1")
+            cache.put("3", third)
+        then:
+            cache.get("1") == first
+            cache.get("2") == null
+            cache.get("3") == third
+        when:
+            cache.remove("1", second)
+            cache.remove("3", third)
+        then:
+            cache.get("1") == first
+            cache.get("3") == null
+    }
+
+}
@@ -0,0 +1,75 @@
+package io.github.bucket4j.distributed.proxy.optimization.leasing
+
+import io.github.bucket4j.Bandwidth
+import io.github.bucket4j.Bucket
+import io.github.bucket4j.BucketConfiguration
+import io.github.bucket4j.distributed.AsyncBucketProxy
+import io.github.bucket4j.distributed.proxy.optimization.DefaultOptimizationListener
+import io.github.bucket4j.distributed.proxy.optimization.LeaseParameters
+import io.github.bucket4j.mock.ProxyManagerMock
+import io.github.bucket4j.mock.TimeMeterMock
+import spock.lang.Specification
+
+import java.time.Duration
+
+class LeasingAsyncCommandExecutorSpecification extends Specification {
+
+    private TimeMeterMock clock = new TimeMeterMock()
+    private ProxyManagerMock proxyManager = new ProxyManagerMock(clock)
+    private DefaultOptimizationListener listener = new DefaultOptimizationListener();
+    private BucketConfiguration configuration = BucketConfiguration.builder()
+        .addLimit(Bandwidth.simple(100, Duration.ofMillis(1000)))
+        .build()
+    private LeaseParameters parameters = new LeaseParameters(10, Duration.ofMillis(100))
+    private LeasingOptimization optimization = new LeasingOptimization(parameters, listener, clock)
+    private AsyncBucketProxy optimizedBucket = proxyManager.asAsync().builder()
+        .withOptimization(optimization)
+        .build(1L, configuration)
+    private Bucket notOptimizedBucket = proxyManager.builder()
+        .build(1L, configuration)
+
+    def "Should serve async tryConsume from the lease"() {
+        when: "first tryConsume(1) happened"
+            boolean consumed = optimizedBucket.tryConsume(1).get()
+        then: "token was consumed and minimal lease was taken together with it"
+            consumed == true
+            notOptimizedBucket.getAvailableTokens() == 98
+            listener.getSkipCount() == 0
+
+        when: "next tryConsume(1) happened"
+            consumed = optimizedBucket.tryConsume(1).get()
+        then: "token was served from the lease"
+            consumed == true
+            notOptimizedBucket.getAvailableTokens() == 98
+            listener.getSkipCount() == 1
+
+        when: "next tryConsume(1) happened after 10 millis when lease is exhausted"
+            clock.addMillis(10)
+            consumed = optimizedBucket.tryConsume(1).get()
+        then: "lease was extended according to observed rate, but limited by maxLeaseTokens"
+            consumed == true
+            notOptimizedBucket.getAvailableTokens() == 88
+            listener.getSkipCount() == 1
+
+        when: "synchronization is requested"
+            optimizedBucket.getOptimizationController().syncImmediately().get()
+        then: "leased tokens are returned"
+            notOptimizedBucket.getAvailableTokens() == 98
+    }
+
+    def "Should return async leases on close"() {
+        when: "lease is taken"
+            optimizedBucket.tryConsume(1).get()
+            optimizedBucket.tryConsume(1).get()
+            clock.addMillis(10)
+            optimizedBucket.tryConsume(1).get()
+        then:
+            notOptimizedBucket.getAvailableTokens() == 88
+
+        when: "optimization is closed"
+            optimization.close()
+        then: "leased tokens are returned"
+            notOptimizedBucket.getAvailableTokens() == 98
+    }
+
+}
@@ -0,0 +1,272 @@
+package io.github.bucket4j.distributed.proxy.optimization.leasing
+
+import io.github.bucket4j.Bandwidth
+import io.github.bucket4j.Bucket
+import io.github.bucket4j.BucketConfiguration
+import io.github.bucket4j.distributed.proxy.optimization.DefaultOptimizationListener
+import io.github.bucket4j.distributed.proxy.optimization.LeaseParameters
+import io.github.bucket4j.distributed.remote.commands.AddTokensCommand
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations
+import io.github.bucket4j.mock.ProxyManagerMock
+import io.github.bucket4j.mock.TimeMeterMock
+import spock.lang.Specification
+
+import java.time.Duration
+
+class LeasingCommandExecutorSpecification extends Specification {
+
+    private TimeMeterMock clock = new TimeMeterMock()
+    private ProxyManagerMock proxyManager = new ProxyManagerMock(clock)
+    private DefaultOptimizationListener listener = new DefaultOptimizationListener();
+    private BucketConfiguration configuration = BucketConfiguration.builder()
+        .addLimit(Bandwidth.simple(100, Duration.ofMillis(1000)))
+        .build()
+    private LeaseParameters parameters = new LeaseParameters(10, Duration.ofMillis(100))
+    private LeasingOptimization optimization = new LeasingOptimization(parameters, listener, clock)
+    private Bucket optimizedBucket = proxyManager.builder()
+        .withOptimization(optimization)
+        .build(1L, configuration)
+    private Bucket notOptimizedBucket = proxyManager.builder()
+        .build(1L, configuration)
+
+    def "Should serve tryConsume from the lease"() {
+        when: "first tryConsume(1) happened"
+            boolean consumed = optimizedBucket.tryConsume(1)
+        then: "token was consumed and minimal lease was taken together with it"
+            consumed == true
+            notOptimizedBucket.getAvailableTokens() == 98
+            listener.getSkipCount() == 0
+
+        when: "next tryConsume(1) happened"
+            consumed = optimizedBucket.tryConsume(1)
+        then: "token was served from the lease"
+            consumed == true
+            notOptimizedBucket.getAvailableTokens() == 98
+            listener.getSkipCount() == 1
+
+        when: "next tryConsume(1) happened after 10 millis when lease is exhausted"
+            clock.addMillis(10)
+            consumed = optimizedBucket.tryConsume(1)
+        then: "lease was extended according to observed rate, but limited by maxLeaseTokens"
+            consumed == true
+            notOptimizedBucket.getAvailableTokens() == 88
+            listener.getSkipCount() == 1
+
+        when: "10 tokens consumed"
+            for (int i = 0; i < 10; i++) {
+                consumed &= optimizedBucket.tryConsume(1)
+            }
+        then: "all of them were served from the lease"
+            consumed == true
+            notOptimizedBucket.getAvailableTokens() == 88
+            listener.getSkipCount() == 11
+    }
+
+    def "Should never exceed the limit"() {
+        setup:
+            List<Bucket> buckets = new ArrayList<>()
+            for (int i = 0; i < 10; i++) {
+                buckets.add(proxyManager.builder().withOptimization(optimization).build(1L, configuration))
+            }
+            long consumedTokens = 0
+
+        when: "many optimized buckets consume tokens without refill"
+            for (int round = 0; round < 100; round++) {
+                for (Bucket bucket : buckets) {
+                    if (bucket.tryConsume(1)) {
+                        consumedTokens++
+                    }
+                }
+            }
+        then: "total consumption does not exceed the capacity"
+            consumedTokens <= 100
+            notOptimizedBucket.getAvailableTokens() >= 0
+    }
+
+    def "Should return unused tokens when sync is requested"() {
+        when: "lease is taken"
+            optimizedBucket.tryConsume(1)
+            optimizedBucket.tryConsume(1)
+            clock.addMillis(10)
+            optimizedBucket.tryConsume(1)
+        then:
+            notOptimizedBucket.getAvailableTokens() == 88
+
+        when: "synchronization is requested"
+            optimizedBucket.getOptimizationController().syncImmediately()
+        then: "leased tokens are returned"
+            notOptimizedBucket.getAvailableTokens() == 98
+
+        when: "next tryConsume(1) happened"
+            optimizedBucket.tryConsume(1)
+        then: "it was not served locally because lease was returned"
+            notOptimizedBucket.getAvailableTokens() < 98
+    }
+
+    def "Should return unused tokens when lease is expired"() {
+        when: "lease is taken"
+            optimizedBucket.tryConsume(1)
+            optimizedBucket.tryConsume(1)
+            clock.addMillis(10)
+            optimizedBucket.tryConsume(1)
+        then:
+            notOptimizedBucket.getAvailableTokens() == 88
+
+        when: "lease is expired"
+            clock.addMillis(100)
+            long skipsBefore = listener.getSkipCount()
+            optimizedBucket.tryConsume(1)
+        then: "request was propagated to proxyManager"
+            listener.getSkipCount() == skipsBefore
+        and: "unused tokens were returned and new lease was taken"
+            notOptimizedBucket.getAvailableTokens() >= 88
+    }
+
+    def "Should return expired lease without waiting for the next request"() {
+        when: "lease is taken"
+            optimizedBucket.tryConsume(1)
+            optimizedBucket.tryConsume(1)
+            clock.addMillis(10)
+            optimizedBucket.tryConsume(1)
+            proxyManager.clearHistory()
+        and: "expired leases are checked before lease expiration"
+            optimization.registry.returnExpiredLeases()
+        then: "nothing is returned"
+            proxyManager.getHistory().isEmpty()
+
+        when: "expired leases are checked after lease expiration"
+            clock.addMillis(100)
+            optimization.registry.returnExpiredLeases()
+        then: "unused tokens are returned"
+            proxyManager.getHistory().size() == 1
+            proxyManager.getHistory()[0].command instanceof AddTokensCommand
+            proxyManager.getHistory()[0].command.tokensToAdd == 10
+    }
+
+    def "Should return expired lease in background"() {
+        setup:
+            LeasingOptimization backgroundOptimization = new LeasingOptimization(new LeaseParameters(10, Duration.ofMillis(10)), listener, clock)
+            Bucket bucket = proxyManager.builder()
+                .withOptimization(backgroundOptimization)
+                .build(1L, configuration)
+        when: "lease is taken and expired"
+            bucket.tryConsume(1)
+            bucket.tryConsume(1)
+            clock.addMillis(1)
+            bucket.tryConsume(1)
+            proxyManager.clearHistory()
+            clock.addMillis(100)
+        then: "unused tokens are returned by background thread"
+            long deadline = System.currentTimeMillis() + 10_000
+            while (proxyManager.getHistory().isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10)
+            }
+            proxyManager.getHistory().size() == 1
+            proxyManager.getHistory()[0].command instanceof AddTokensCommand
+        cleanup:
+            backgroundOptimization.close()
+    }
+
+    def "Should stop background thread when all leases are returned"() {
+        setup:
+            LeasingOptimization backgroundOptimization = new LeasingOptimization(new LeaseParameters(10, Duration.ofMillis(10)), listener, clock)
+            Bucket bucket = proxyManager.builder()
+                .withOptimization(backgroundOptimization)
+                .build(1L, configuration)
+        when: "lease is taken"
+            bucket.tryConsume(1)
+        then: "background thread is started"
+            backgroundOptimization.registry.isReturnerRunning()
+
+        when: "lease is expired"
+            clock.addMillis(100)
+        then: "background thread stops after returning the lease"
+            long deadline = System.currentTimeMillis() + 10_000
+            while (backgroundOptimization.registry.isReturnerRunning() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10)
+            }
+            !backgroundOptimization.registry.isReturnerRunning()
+
+        when: "next lease is taken"
+            bucket.tryConsume(1)
+        then: "background thread is started again"
+            backgroundOptimization.registry.isReturnerRunning()
+        cleanup:
+            backgroundOptimization.close()
+    }
+
+    def "Should keep unused tokens when renewal request fails"() {
+        when: "lease is taken"
+            optimizedBucket.tryConsume(1)
+            optimizedBucket.tryConsume(1)
+            clock.addMillis(10)
+            optimizedBucket.tryConsume(1)
+        then:
+            notOptimizedBucket.getAvailableTokens() == 88
+
+        when: "renewal request fails"
+            proxyManager.setException(new RuntimeException())
+            optimizedBucket.asBlocking().consume(1)
+        then:
+            thrown(RuntimeException)
+
+        when: "storage is available again and synchronization is requested"
+            proxyManager.setException(null)
+            optimizedBucket.getOptimizationController().syncImmediately()
+        then: "unused tokens of the lease are returned"
+            notOptimizedBucket.getAvailableTokens() == 98
+    }
+
+    def "Should return all leases and stop leasing on close"() {
+        when: "lease is taken"
+            optimizedBucket.tryConsume(1)
+            optimizedBucket.tryConsume(1)
+            clock.addMillis(10)
+            optimizedBucket.tryConsume(1)
+        then:
+            notOptimizedBucket.getAvailableTokens() == 88
+
+        when: "optimization is closed"
+            optimization.close()
+        then: "leased tokens are returned"
+            notOptimizedBucket.getAvailableTokens() == 98
+
+        when: "bucket is used after closing"
+            long skipsBefore = listener.getSkipCount()
+            optimizedBucket.tryConsume(1)
+            optimizedBucket.tryConsume(1)
+        then: "requests are executed without leasing"
+            notOptimizedBucket.getAvailableTokens() == 96
+            listener.getSkipCount() == skipsBefore
+    }
+
+    def "Should not lease tokens for requests that do not consume"() {
+        when:
+            optimizedBucket.getAvailableTokens()
+            optimizedBucket.getAvailableTokens()
+        then:
+            notOptimizedBucket.getAvailableTokens() == 100
+            listener.getSkipCount() == 0
+    }
+
+    def "Should check parameters"() {
+        when:
+            new LeaseParameters(0, Duration.ofMillis(100))
+        then:
+            thrown(IllegalArgumentException)
+
+        when:
+            new LeaseParameters(10, null)
+        then:
+            thrown(IllegalArgumentException)
+
+        when:
+            new LeaseParameters(10, Duration.ZERO)
+        then:
+            thrown(IllegalArgumentException)
+
+        expect:
+            Optimizations.leasing(parameters) instanceof LeasingOptimization
+    }
+
+}
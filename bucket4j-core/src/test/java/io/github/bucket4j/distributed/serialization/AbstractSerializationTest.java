@@ -7,6 +7,9 @@ import io.github.bucket4j.distributed.remote.*;
 import io.github.bucket4j.distributed.remote.commands.*;
 import io.github.bucket4j.distributed.versioning.Versions;
 import io.github.bucket4j.local.LockFreeBucket;
+import io.github.bucket4j.local.SeqLockBucket;
+import io.github.bucket4j.local.SingleWordLockFreeBucket;
+import io.github.bucket4j.local.StripedBucket;
 import io.github.bucket4j.local.SynchronizationStrategy;
 import io.github.bucket4j.local.SynchronizedBucket;
 import io.github.bucket4j.local.ThreadUnsafeBucket;
@@ -253,6 +256,8 @@ public abstract class AbstractSerializationTest {
 
         testSerialization(new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(configuration, new ConsumeAsMuchAsPossibleCommand(13), 1, TokensInheritanceStrategy.AS_IS));
         testSerialization(new CreateInitialStateAndExecuteCommand<>(configuration, new ConsumeAsMuchAsPossibleCommand(13)));
+        testSerialization(new CreateInitialStateWithVersionOrReplaceConfigurationAndExecuteCommand<>(configuration, new ConsumeAsMuchAsPossibleCommand(13), 1, TokensInheritanceStrategy.AS_IS, MathType.IEEE754));
+        testSerialization(new CreateInitialStateAndExecuteCommand<>(configuration, new ConsumeAsMuchAsPossibleCommand(13), MathType.IEEE754));
         testSerialization(new CheckConfigurationVersionAndExecuteCommand<>(new ConsumeAsMuchAsPossibleCommand(13), 1));
 
         testSerialization(
@@ -320,6 +325,26 @@ public abstract class AbstractSerializationTest {
                 .withSynchronizationStrategy(SynchronizationStrategy.NONE)
                 .build();
         testSerialization(unsafeBucket);
+
+        SingleWordLockFreeBucket singleWordBucket = (SingleWordLockFreeBucket) Bucket.builder()
+                .addLimit(Bandwidth.simple(1, Duration.ofSeconds(1)))
+                .withSynchronizationStrategy(SynchronizationStrategy.LOCK_FREE_SINGLE_WORD)
+                .build();
+        testSerialization(singleWordBucket);
+
+        SeqLockBucket seqLockBucket = (SeqLockBucket) Bucket.builder()
+                .addLimit(Bandwidth.simple(1, Duration.ofSeconds(1)))
+                .addLimit(Bandwidth.simple(10, Duration.ofMinutes(1)))
+                .withSynchronizationStrategy(SynchronizationStrategy.SEQLOCK)
+                .build();
+        testSerialization(seqLockBucket);
+
+        StripedBucket stripedBucket = new StripedBucket(BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)))
+                .addLimit(Bandwidth.simple(100, Duration.ofMinutes(1)))
+                .build(), 3, TimeMeter.SYSTEM_MILLISECONDS, BucketListener.NOPE);
+        stripedBucket.tryConsume(5);
+        testSerialization(stripedBucket);
     }
 
     @Test
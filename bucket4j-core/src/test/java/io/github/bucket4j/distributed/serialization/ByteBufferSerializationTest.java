@@ -0,0 +1,50 @@
+package io.github.bucket4j.distributed.serialization;
+
+import io.github.bucket4j.distributed.versioning.Versions;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ByteBufferSerializationTest extends AbstractSerializationTest {
+
+    private Map<Class, SerializationHandle> allHandles = new HashMap<>()
+    {{
+        for (SerializationHandle<?> handle : SerializationHandles.CORE_HANDLES.getAllHandles()) {
+            put(handle.getSerializedType(), handle);
+        }
+    }};
+
+    @Override
+    protected <T> T serializeAndDeserialize(T object, Scope scope) {
+        SerializationHandle serializationHandle = allHandles.get(object.getClass());
+        if (serializationHandle == null) {
+            throw new IllegalArgumentException("Serializer for class " + serializationHandle + " is not specified");
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            serializationHandle.serialize(ByteBufferSerializationAdapter.INSTANCE, buffer, object, Versions.getLatest(), scope);
+            buffer.flip();
+
+            // binary format must be the same as format of DataOutputSerializationAdapter
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.duplicate().get(bytes);
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+            serializationHandle.deserialize(DataOutputSerializationAdapter.INSTANCE, input);
+            if (input.available() > 0) {
+                throw new IllegalStateException("Binary format differs from DataOutput format for class " + object.getClass());
+            }
+
+            T deserialized = (T) serializationHandle.deserialize(ByteBufferSerializationAdapter.INSTANCE, buffer);
+            if (buffer.hasRemaining()) {
+                throw new IllegalStateException("Buffer was not read to the end for class " + object.getClass());
+            }
+            return deserialized;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+package io.github.bucket4j.distributed.serialization
+
+import io.github.bucket4j.Bandwidth
+import io.github.bucket4j.Bucket
+import io.github.bucket4j.BucketConfiguration
+import io.github.bucket4j.BucketState
+import io.github.bucket4j.MathType
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy
+import io.github.bucket4j.distributed.proxy.ClientSideConfig
+import io.github.bucket4j.distributed.remote.CommandResult
+import io.github.bucket4j.distributed.remote.RemoteBucketState
+import io.github.bucket4j.distributed.remote.RemoteStat
+import io.github.bucket4j.distributed.remote.Request
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateAndExecuteCommand
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand
+import io.github.bucket4j.distributed.versioning.Versions
+import io.github.bucket4j.mock.CompareAndSwapBasedProxyManagerMock
+import io.github.bucket4j.mock.ProxyManagerMock
+import io.github.bucket4j.mock.TimeMeterMock
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+import java.time.Duration
+
+class CompactSerializationAdapterSpecification extends Specification {
+
+    static BucketConfiguration configuration = BucketConfiguration.builder()
+        .addLimit(Bandwidth.builder().capacity(100).refillGreedy(100, Duration.ofSeconds(1)).build())
+        .addLimit(Bandwidth.builder().capacity(1000).refillIntervally(1000, Duration.ofMinutes(1)).build())
+        .build()
+
+    def "should write and read back long values"(long value) {
+        setup:
+            ByteBuffer output = ByteBuffer.allocate(1024)
+        when:
+            CompactSerializationAdapter.INSTANCE.writeLong(output, value)
+            CompactSerializationAdapter.INSTANCE.writeLongArray(output, [value, value, 0L, value - 1, -value, Long.MAX_VALUE, Long.MIN_VALUE] as long[])
+            CompactSerializationAdapter.INSTANCE.writeLongArray(output, [0L, value, Long.MIN_VALUE, Long.MAX_VALUE] as long[])
+            ByteBuffer input = output.flip()
+        then:
+            CompactSerializationAdapter.INSTANCE.readLong(input) == value
+            CompactSerializationAdapter.INSTANCE.readLongArray(input) == [value, value, 0L, value - 1, -value, Long.MAX_VALUE, Long.MIN_VALUE] as long[]
+            CompactSerializationAdapter.INSTANCE.readLongArray(input) == [0L, value, Long.MIN_VALUE, Long.MAX_VALUE] as long[]
+            !input.hasRemaining()
+        where:
+            value << [0L, 1L, -1L, 63L, 64L, -65L, Integer.MAX_VALUE, Integer.MIN_VALUE, System.currentTimeMillis() * 1_000_000L,
+                      Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1, 1L << 62, -(1L << 62)]
+    }
+
+    def "should write small numbers in single byte"() {
+        setup:
+            ByteBuffer output = ByteBuffer.allocate(1024)
+        when:
+            CompactSerializationAdapter.INSTANCE.writeInt(output, 8)
+            CompactSerializationAdapter.INSTANCE.writeLong(output, -3)
+        then:
+            output.position() == 2
+    }
+
+    def "compact state should be smaller and readable"() {
+        setup:
+            long now = System.currentTimeMillis() * 1_000_000L
+            BucketState bucketState = BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, now)
+            RemoteBucketState state = new RemoteBucketState(bucketState, new RemoteStat(0), null)
+            state.consume(10)
+        when:
+            byte[] regular = InternalSerializationHelper.serializeState(state, Versions.getLatest())
+            byte[] compact = InternalSerializationHelper.serializeState(state, Versions.getLatest(), true)
+        then:
+            compact.length * 2 < regular.length
+            InternalSerializationHelper.deserializeState(compact).equalsByContent(state)
+            InternalSerializationHelper.deserializeState(regular).equalsByContent(state)
+    }
+
+    def "should not use compact format when backward compatibility version does not support it"() {
+        setup:
+            BucketState bucketState = BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, 0)
+            RemoteBucketState state = new RemoteBucketState(bucketState, new RemoteStat(0), null)
+            Request<Long> request = new Request<>(TryConsumeCommand.create(1), Versions.v_8_10_0, null, null, true)
+        expect:
+            InternalSerializationHelper.serializeState(state, Versions.v_8_10_0, true) == InternalSerializationHelper.serializeState(state, Versions.v_8_10_0)
+            InternalSerializationHelper.serializeRequest(request) == InternalSerializationHelper.serializeRequest(new Request<>(TryConsumeCommand.create(1), Versions.v_8_10_0, null, null))
+    }
+
+    def "compact request should be recognized by receiver"() {
+        setup:
+            Request<Boolean> request = new Request<>(new CreateInitialStateAndExecuteCommand(configuration, TryConsumeCommand.create(1)),
+                Versions.getLatest(), System.currentTimeMillis() * 1_000_000L, ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(Duration.ofSeconds(10)), true)
+        when:
+            byte[] compact = InternalSerializationHelper.serializeRequest(request)
+            byte[] regular = InternalSerializationHelper.serializeRequest(new Request<>(request.command, Versions.getLatest(), request.clientSideTime, request.expirationStrategy))
+            Request<Boolean> received = InternalSerializationHelper.deserializeRequest(compact)
+        then:
+            compact.length < regular.length
+            received.isCompactSerializationEnabled()
+            received.equalsByContent(request)
+            !InternalSerializationHelper.deserializeRequest(regular).isCompactSerializationEnabled()
+        when:
+            CommandResult<Boolean> result = InternalSerializationHelper.deserializeResult(InternalSerializationHelper.serializeResult(CommandResult.TRUE, Versions.getLatest(), true), Versions.getLatest())
+        then:
+            result.getData()
+    }
+
+    def "proxy managers should work with compact serialization"() {
+        setup:
+            ClientSideConfig config = ClientSideConfig.default.withClientClock(new TimeMeterMock(0)).withCompactSerialization()
+            Bucket binaryTransactionBased = new ProxyManagerMock<String>(config).builder().build("42", () -> configuration)
+            Bucket casBased = new CompareAndSwapBasedProxyManagerMock<String>(config).builder().build("42", () -> configuration)
+        expect:
+            binaryTransactionBased.tryConsume(30)
+            binaryTransactionBased.getAvailableTokens() == 70
+            casBased.tryConsume(40)
+            casBased.getAvailableTokens() == 60
+    }
+
+}
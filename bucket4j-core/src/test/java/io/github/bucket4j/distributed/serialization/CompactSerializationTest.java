@@ -0,0 +1,39 @@
+package io.github.bucket4j.distributed.serialization;
+
+import io.github.bucket4j.distributed.versioning.Versions;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+public class CompactSerializationTest extends AbstractSerializationTest {
+
+    private Map<Class, SerializationHandle> allHandles = new HashMap<>()
+    {{
+        for (SerializationHandle<?> handle : SerializationHandles.CORE_HANDLES.getAllHandles()) {
+            put(handle.getSerializedType(), handle);
+        }
+    }};
+
+    @Override
+    protected <T> T serializeAndDeserialize(T object, Scope scope) {
+        SerializationHandle serializationHandle = allHandles.get(object.getClass());
+        if (serializationHandle == null) {
+            throw new IllegalArgumentException("Serializer for class " + serializationHandle + " is not specified");
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            serializationHandle.serialize(CompactSerializationAdapter.INSTANCE, buffer, object, Versions.getLatest(), scope);
+            buffer.flip();
+
+            T deserialized = (T) serializationHandle.deserialize(CompactSerializationAdapter.INSTANCE, buffer);
+            if (buffer.hasRemaining()) {
+                throw new IllegalStateException("Buffer was not read to the end for class " + object.getClass());
+            }
+            return deserialized;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+package io.github.bucket4j.distributed.serialization
+
+import io.github.bucket4j.Bandwidth
+import io.github.bucket4j.BucketConfiguration
+import io.github.bucket4j.BucketState
+import io.github.bucket4j.ConfigurationBuilder
+import io.github.bucket4j.MathType
+import io.github.bucket4j.distributed.remote.CommandResult
+import io.github.bucket4j.distributed.remote.RemoteBucketState
+import io.github.bucket4j.distributed.remote.RemoteStat
+import io.github.bucket4j.distributed.remote.Request
+import io.github.bucket4j.distributed.remote.commands.CreateInitialStateAndExecuteCommand
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand
+import io.github.bucket4j.distributed.versioning.Versions
+import spock.lang.Specification
+
+import java.nio.BufferOverflowException
+import java.nio.ByteBuffer
+import java.time.Duration
+
+class InternalSerializationHelperSpecification extends Specification {
+
+    def "should grow reusable buffer when serialized data does not fit into it"() {
+        setup:
+            ConfigurationBuilder builder = BucketConfiguration.builder()
+            for (int i = 1; i <= 50; i++) {
+                builder.addLimit(Bandwidth.builder().capacity(i).refillGreedy(i, Duration.ofSeconds(i)).id("limit-é中-" + i).build())
+            }
+            RemoteBucketState state = createState(builder.build())
+        when:
+            byte[] bytes = InternalSerializationHelper.serializeState(state, Versions.getLatest())
+        then:
+            bytes.length > InternalSerializationHelper.INITIAL_BUFFER_SIZE
+            bytes == serializeViaStreams(state)
+            InternalSerializationHelper.deserializeState(bytes).equalsByContent(state)
+        when:
+            byte[] small = InternalSerializationHelper.serializeState(createState(configuration(1)), Versions.getLatest())
+        then:
+            small.length < InternalSerializationHelper.INITIAL_BUFFER_SIZE
+            small == serializeViaStreams(createState(configuration(1)))
+    }
+
+    def "should serialize into and deserialize from provided direct buffers"(boolean compact) {
+        setup:
+            RemoteBucketState state = createState(configuration(2))
+            Request<Boolean> request = new Request<>(new CreateInitialStateAndExecuteCommand(configuration(2), TryConsumeCommand.create(1)),
+                Versions.getLatest(), 42L, null, compact)
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1024)
+        when:
+            InternalSerializationHelper.serializeState(state, Versions.getLatest(), compact, buffer)
+            buffer.flip()
+        then:
+            InternalSerializationHelper.deserializeState(buffer).equalsByContent(state)
+            !buffer.hasRemaining()
+        when:
+            buffer.clear()
+            InternalSerializationHelper.serializeRequest(request, buffer)
+            buffer.flip()
+            Request<Boolean> received = InternalSerializationHelper.deserializeRequest(buffer)
+        then:
+            received.equalsByContent(request)
+            received.isCompactSerializationEnabled() == compact
+            !buffer.hasRemaining()
+        when:
+            byte[] resultBytes = InternalSerializationHelper.serializeResult(CommandResult.FALSE, Versions.getLatest(), compact)
+            buffer.clear()
+            buffer.put(resultBytes).flip()
+        then:
+            !InternalSerializationHelper.deserializeResult(buffer, Versions.getLatest()).getData()
+        where:
+            compact << [false, true]
+    }
+
+    def "should report overflow of provided buffer"() {
+        when:
+            InternalSerializationHelper.serializeState(createState(configuration(2)), Versions.getLatest(), false, ByteBuffer.allocate(10))
+        then:
+            thrown(BufferOverflowException)
+    }
+
+    private static BucketConfiguration configuration(int bandwidthCount) {
+        ConfigurationBuilder builder = BucketConfiguration.builder()
+        for (int i = 1; i <= bandwidthCount; i++) {
+            builder.addLimit(Bandwidth.builder().capacity(100 * i).refillGreedy(100 * i, Duration.ofSeconds(i)).build())
+        }
+        return builder.build()
+    }
+
+    private static RemoteBucketState createState(BucketConfiguration configuration) {
+        BucketState bucketState = BucketState.createInitialState(configuration, MathType.INTEGER_64_BITS, 1_000_000_000L)
+        RemoteBucketState state = new RemoteBucketState(bucketState, new RemoteStat(7), 3L)
+        state.consume(1)
+        return state
+    }
+
+    private static byte[] serializeViaStreams(RemoteBucketState state) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream()
+        DataOutputStream output = new DataOutputStream(bytes)
+        RemoteBucketState.SERIALIZATION_HANDLE.serialize(DataOutputSerializationAdapter.INSTANCE, output, state, Versions.getLatest(), Scope.PERSISTED_STATE)
+        return bytes.toByteArray()
+    }
+
+}
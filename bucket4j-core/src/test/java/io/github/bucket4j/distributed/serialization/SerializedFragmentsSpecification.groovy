@@ -0,0 +1,127 @@
+package io.github.bucket4j.distributed.serialization
+
+import io.github.bucket4j.Bandwidth
+import io.github.bucket4j.BucketConfiguration
+import io.github.bucket4j.distributed.versioning.Version
+import io.github.bucket4j.distributed.versioning.Versions
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+import java.time.Duration
+
+class SerializedFragmentsSpecification extends Specification {
+
+    static BucketConfiguration configuration = BucketConfiguration.builder()
+        .addLimit(Bandwidth.builder().capacity(100).refillGreedy(100, Duration.ofSeconds(1)).id("per-second").build())
+        .addLimit(Bandwidth.builder().capacity(1000).refillIntervally(1000, Duration.ofMinutes(1)).build())
+        .build()
+
+    def "should write the same bytes as serialization without cache"(FragmentSerializationAdapter<ByteBuffer> adapter) {
+        setup:
+            BucketConfiguration copy = new BucketConfiguration(Arrays.asList(configuration.getBandwidths()))
+        when:
+            byte[] first = write(adapter, configuration, Versions.getLatest())
+            byte[] second = write(adapter, configuration, Versions.getLatest())
+            byte[] legacyVersion = write(adapter, configuration, Versions.v_7_0_0)
+            byte[] uncached = writeWithoutCache(adapter, copy)
+        then:
+            first == uncached
+            second == uncached
+            legacyVersion == uncached
+            read(adapter, second) == configuration
+        where:
+            adapter << [ByteBufferSerializationAdapter.INSTANCE, CompactSerializationAdapter.INSTANCE]
+    }
+
+    def "should splice fragment into DataOutput"() {
+        setup:
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream()
+            DataOutputStream output = new DataOutputStream(bytes)
+        when:
+            output.writeInt(42)
+            BucketConfiguration.SERIALIZATION_HANDLE.serialize(DataOutputSerializationAdapter.INSTANCE, output, configuration, Versions.getLatest(), Scope.REQUEST)
+            BucketConfiguration.SERIALIZATION_HANDLE.serialize(DataOutputSerializationAdapter.INSTANCE, output, configuration, Versions.getLatest(), Scope.REQUEST)
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))
+        then:
+            input.readInt() == 42
+            BucketConfiguration.SERIALIZATION_HANDLE.deserialize(DataOutputSerializationAdapter.INSTANCE, input) == configuration
+            BucketConfiguration.SERIALIZATION_HANDLE.deserialize(DataOutputSerializationAdapter.INSTANCE, input) == configuration
+            input.available() == 0
+    }
+
+    def "should capture fragment once per combination of adapter, version and scope"() {
+        setup:
+            SerializedFragments fragments = new SerializedFragments()
+            int captures = 0
+            FragmentSerializationAdapter.FragmentWriter<ByteBuffer> writer = { ByteBuffer target ->
+                captures++
+                ByteBufferSerializationAdapter.INSTANCE.writeLong(target, 42L)
+            }
+            ByteBuffer output = ByteBuffer.allocate(1024)
+        when:
+            for (int i = 0; i < 3; i++) {
+                fragments.write(ByteBufferSerializationAdapter.INSTANCE, output, Versions.getLatest(), Scope.REQUEST, writer)
+            }
+        then:
+            captures == 1
+            output.position() == 24
+        when:
+            fragments.write(ByteBufferSerializationAdapter.INSTANCE, output, Versions.getLatest(), Scope.PERSISTED_STATE, writer)
+            fragments.write(ByteBufferSerializationAdapter.INSTANCE, output, Versions.v_8_10_0, Scope.REQUEST, writer)
+            fragments.write(CompactSerializationAdapter.INSTANCE, output, Versions.getLatest(), Scope.REQUEST, writer)
+        then:
+            captures == 4
+    }
+
+    def "should not memoize more than limited amount of fragments"() {
+        setup:
+            SerializedFragments fragments = new SerializedFragments()
+            int captures = 0
+            FragmentSerializationAdapter.FragmentWriter<ByteBuffer> writer = { ByteBuffer target ->
+                captures++
+                target.put((byte) 1)
+            }
+            List<Version> versions = Versions.values() as List
+            ByteBuffer output = ByteBuffer.allocate(1024)
+        when:
+            for (int round = 0; round < 2; round++) {
+                for (Scope scope : Scope.values()) {
+                    for (Version version : versions) {
+                        fragments.write(ByteBufferSerializationAdapter.INSTANCE, output, version, scope, writer)
+                    }
+                }
+            }
+            int combinations = Scope.values().length * versions.size()
+        then:
+            combinations > SerializedFragments.MAX_FRAGMENTS
+            captures == 2 * combinations - SerializedFragments.MAX_FRAGMENTS
+            output.position() == 2 * combinations
+    }
+
+    private static byte[] write(FragmentSerializationAdapter<ByteBuffer> adapter, BucketConfiguration configuration, Version version) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024)
+        BucketConfiguration.SERIALIZATION_HANDLE.serialize(adapter, buffer, configuration, version, Scope.PERSISTED_STATE)
+        return Arrays.copyOf(buffer.array(), buffer.position())
+    }
+
+    private static byte[] writeWithoutCache(FragmentSerializationAdapter<ByteBuffer> adapter, BucketConfiguration configuration) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024)
+        // a proxy that hides FragmentSerializationAdapter forces regular serialization
+        SerializationAdapter<ByteBuffer> plain = [
+            writeBoolean   : { ByteBuffer t, boolean v -> adapter.writeBoolean(t, v) },
+            writeByte      : { ByteBuffer t, byte v -> adapter.writeByte(t, v) },
+            writeInt       : { ByteBuffer t, int v -> adapter.writeInt(t, v) },
+            writeLong      : { ByteBuffer t, long v -> adapter.writeLong(t, v) },
+            writeLongArray : { ByteBuffer t, long[] v -> adapter.writeLongArray(t, v) },
+            writeDoubleArray: { ByteBuffer t, double[] v -> adapter.writeDoubleArray(t, v) },
+            writeString    : { ByteBuffer t, String v -> adapter.writeString(t, v) },
+        ] as SerializationAdapter<ByteBuffer>
+        BucketConfiguration.SERIALIZATION_HANDLE.serialize(plain, buffer, configuration, Versions.getLatest(), Scope.PERSISTED_STATE)
+        return Arrays.copyOf(buffer.array(), buffer.position())
+    }
+
+    private static BucketConfiguration read(DeserializationAdapter<ByteBuffer> adapter, byte[] bytes) {
+        return BucketConfiguration.SERIALIZATION_HANDLE.deserialize(adapter, ByteBuffer.wrap(bytes))
+    }
+
+}
@@ -0,0 +1,202 @@
+package io.github.bucket4j.local
+
+import io.github.bucket4j.Bandwidth
+import io.github.bucket4j.Bucket
+import io.github.bucket4j.ConsumptionProbe
+import io.github.bucket4j.EstimationProbe
+import io.github.bucket4j.MutableConsumptionProbe
+import io.github.bucket4j.mock.TimeMeterMock
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.time.Duration
+
+class LocalBucketTableSpecification extends Specification {
+
+    @Unroll
+    def "#n each key should behave exactly as LockFreeBucket for #bandwidths"(int n, List<Bandwidth> bandwidths) {
+        setup:
+            TimeMeterMock meter = new TimeMeterMock(1_000_000_000)
+            LocalBucketTableBuilder builder = LocalBucketTable.builder()
+                .withCustomTimePrecision(meter)
+                .withStripes(3)
+            bandwidths.each { builder.addLimit(it) }
+            LocalBucketTable<Integer> table = builder.build()
+            Map<Integer, Bucket> references = new HashMap<>()
+            Closure<Bucket> newBucket = {
+                LocalBucketBuilder bucketBuilder = Bucket.builder().withCustomTimePrecision(meter)
+                bandwidths.each { bucketBuilder.addLimit(it) }
+                return bucketBuilder.build()
+            }
+            Closure<Bucket> reference = { Integer key -> references.computeIfAbsent(key, { k -> newBucket() }) }
+            // read-only operations of table do not create buckets
+            Closure<Bucket> peek = { Integer key -> references.getOrDefault(key, newBucket()) }
+            Random random = new Random(n)
+            long maxTokens = bandwidths.collect { it.capacity }.max() + 3
+            long maxNanos = bandwidths.collect { Math.min(it.refillPeriodNanos.intdiv(it.refillTokens) * 2 + 1, Duration.ofHours(1).toNanos()) }.max()
+            MutableConsumptionProbe mutableProbe = new MutableConsumptionProbe()
+        expect:
+            for (int i = 0; i < 5_000; i++) {
+                long tokens = 1 + (long) (random.nextDouble() * maxTokens)
+                Integer key = random.nextInt(300)
+                switch (random.nextInt(8)) {
+                    case 0:
+                        meter.addTime((long) (random.nextDouble() * maxNanos))
+                        break
+                    case 1:
+                        assert table.tryConsume(key, tokens) == reference(key).tryConsume(tokens)
+                        break
+                    case 2:
+                        assertEquals(table.tryConsumeAndReturnRemaining(key, tokens), reference(key).tryConsumeAndReturnRemaining(tokens))
+                        break
+                    case 3:
+                        boolean consumed = table.tryConsumeAndReturnRemaining(key, tokens, mutableProbe)
+                        ConsumptionProbe expected = reference(key).tryConsumeAndReturnRemaining(tokens)
+                        assert consumed == expected.consumed
+                        assert mutableProbe.remainingTokens == expected.remainingTokens
+                        assert mutableProbe.nanosToWaitForRefill == expected.nanosToWaitForRefill
+                        assert mutableProbe.nanosToWaitForReset == expected.nanosToWaitForReset
+                        break
+                    case 4:
+                        assertEquals(table.estimateAbilityToConsume(key, tokens), peek(key).estimateAbilityToConsume(tokens))
+                        break
+                    case 5:
+                        assert table.tryConsumeAsMuchAsPossible(key, tokens) == reference(key).tryConsumeAsMuchAsPossible(tokens)
+                        break
+                    case 6:
+                        assert table.getAvailableTokens(key) == peek(key).getAvailableTokens()
+                        break
+                    case 7:
+                        if (random.nextInt(5) == 0) {
+                            assert table.remove(key) == (references.remove(key) != null)
+                        }
+                        break
+                }
+            }
+            table.size() == references.size()
+        where:
+            [n, bandwidths] << [
+                [1, [Bandwidth.simple(10, Duration.ofSeconds(1))]],
+                [2, [Bandwidth.simple(7, Duration.ofNanos(1000)).withInitialTokens(0)]],
+                [3, [Bandwidth.builder().capacity(100).refillGreedy(3, Duration.ofSeconds(1)).build(),
+                     Bandwidth.builder().capacity(10).refillIntervally(1, Duration.ofMillis(100)).build()]],
+                [4, [Bandwidth.builder().capacity(1000).refillGreedy(999_999_999, Duration.ofSeconds(1)).initialTokens(13).build()]],
+            ]
+    }
+
+    def "read-only operations should not create buckets"() {
+        setup:
+            LocalBucketTable<String> table = LocalBucketTable.builder()
+                .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)))
+                .build()
+        when:
+            long available = table.getAvailableTokens("a")
+            EstimationProbe probe = table.estimateAbilityToConsume("a", 11)
+        then:
+            available == 10
+            !probe.canBeConsumed()
+            table.size() == 0
+            !table.remove("a")
+    }
+
+    def "fully refilled buckets should expire after keepAfterRefillDuration"() {
+        setup:
+            TimeMeterMock meter = new TimeMeterMock(0)
+            LocalBucketTable<Long> table = LocalBucketTable.builder()
+                .withCustomTimePrecision(meter)
+                .addLimit(Bandwidth.simple(10, Duration.ofNanos(100)))
+                .withExpirationAfterRefill(Duration.ofNanos(50))
+                .withStripes(1)
+                .build()
+        when:
+            for (long key = 0; key < 10; key++) {
+                table.tryConsume(key, 10)
+            }
+            meter.addTime(149)
+        then:
+            table.removeExpired() == 0
+            table.size() == 10
+        when:
+            table.tryConsume(3L, 1)
+            meter.addTime(1)
+        then:
+            table.removeExpired() == 9
+            table.size() == 1
+            table.getAvailableTokens(3L) == 9
+    }
+
+    def "expired keys should be dropped instead of growing the stripe"() {
+        setup:
+            TimeMeterMock meter = new TimeMeterMock(0)
+            LocalBucketTable<Long> table = LocalBucketTable.builder()
+                .withCustomTimePrecision(meter)
+                .addLimit(Bandwidth.simple(10, Duration.ofNanos(100)))
+                .withExpirationAfterRefill(Duration.ZERO)
+                .withStripes(1)
+                .build()
+        when:
+            for (long key = 0; key < 100_000; key++) {
+                meter.addTime(1)
+                assert table.tryConsume(key, 10)
+            }
+        then:
+            table.size() <= 200
+    }
+
+    def "table should grow to millions of keys"() {
+        setup:
+            LocalBucketTable<Integer> table = LocalBucketTable.builder()
+                .addLimit(Bandwidth.simple(3, Duration.ofMinutes(1)))
+                .withStripes(8)
+                .build()
+        when:
+            for (int key = 0; key < 1_000_000; key++) {
+                assert table.tryConsume(key, 1)
+            }
+        then:
+            table.size() == 1_000_000
+            table.getAvailableTokens(777) == 2
+            table.tryConsume(999_999, 2)
+            !table.tryConsume(999_999, 1)
+    }
+
+    def "should validate parameters"() {
+        when:
+            LocalBucketTable.builder().withStripes(0)
+        then:
+            thrown(IllegalArgumentException)
+        when:
+            LocalBucketTable.builder().withInitialCapacity(-1)
+        then:
+            thrown(IllegalArgumentException)
+        when:
+            LocalBucketTable.builder().withExpirationAfterRefill(Duration.ofSeconds(-1))
+        then:
+            thrown(IllegalArgumentException)
+        when:
+            LocalBucketTable<String> table = LocalBucketTable.builder()
+                .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)))
+                .build()
+            table.tryConsume(null, 1)
+        then:
+            thrown(IllegalArgumentException)
+        when:
+            table.tryConsume("a", 0)
+        then:
+            thrown(IllegalArgumentException)
+    }
+
+    private static void assertEquals(ConsumptionProbe actual, ConsumptionProbe expected) {
+        assert actual.consumed == expected.consumed
+        assert actual.remainingTokens == expected.remainingTokens
+        assert actual.nanosToWaitForRefill == expected.nanosToWaitForRefill
+        assert actual.nanosToWaitForReset == expected.nanosToWaitForReset
+    }
+
+    private static void assertEquals(EstimationProbe actual, EstimationProbe expected) {
+        assert actual.canBeConsumed() == expected.canBeConsumed()
+        assert actual.remainingTokens == expected.remainingTokens
+        assert actual.nanosToWaitForRefill == expected.nanosToWaitForRefill
+    }
+
+}
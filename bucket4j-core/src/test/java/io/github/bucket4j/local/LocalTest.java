@@ -20,6 +20,12 @@ public class LocalTest {
 
     private double permittedRatePerSecond = Math.min(1_000d / 60, 200.0 / 10);
 
+    private LocalBucketBuilder singleBandwidthBuilder = Bucket.builder()
+            .addLimit(Bandwidth.simple(200, Duration.ofSeconds(10)).withInitialTokens(0))
+            .withSynchronizationStrategy(SynchronizationStrategy.LOCK_FREE_SINGLE_WORD);
+
+    private double singleBandwidthPermittedRatePerSecond = 200.0 / 10;
+
     @Test
     public void testTryConsume_lockFree() throws Throwable {
         int threadCount = 4;
@@ -48,6 +54,34 @@ public class LocalTest {
         testScenario(() -> builder.withSynchronizationStrategy(SynchronizationStrategy.SYNCHRONIZED).build(), threadCount, action);
     }
 
+    @Test
+    public void testTryConsume_SeqLock() throws Throwable {
+        int threadCount = 4;
+        Function<Bucket, Long> action = b -> b.tryConsume(1)? 1L : 0L;
+        testScenario(() -> builder.withSynchronizationStrategy(SynchronizationStrategy.SEQLOCK).build(), threadCount, action);
+    }
+
+    @Test
+    public void testTryConsume_SeqLockLimited() throws Throwable {
+        int threadCount = 4;
+        Function<Bucket, Long> action = b -> b.asBlocking().tryConsumeUninterruptibly(1, Duration.ofMillis(50), UninterruptibleBlockingStrategy.PARKING)? 1L : 0L;
+        testScenario(() -> builder.withSynchronizationStrategy(SynchronizationStrategy.SEQLOCK).build(), threadCount, action);
+    }
+
+    @Test
+    public void testTryConsume_Striped() throws Throwable {
+        int threadCount = 4;
+        Function<Bucket, Long> action = b -> b.tryConsume(1)? 1L : 0L;
+        testScenario(() -> builder.withSynchronizationStrategy(SynchronizationStrategy.STRIPED).build(), threadCount, action);
+    }
+
+    @Test
+    public void testTryConsume_StripedLimited() throws Throwable {
+        int threadCount = 4;
+        Function<Bucket, Long> action = b -> b.asBlocking().tryConsumeUninterruptibly(1, Duration.ofMillis(50), UninterruptibleBlockingStrategy.PARKING)? 1L : 0L;
+        testScenario(() -> builder.withSynchronizationStrategy(SynchronizationStrategy.STRIPED).build(), threadCount, action);
+    }
+
     @Test
     public void testTryConsume_Unsafe() throws Throwable {
         int threadCount = 1;
@@ -62,7 +96,25 @@ public class LocalTest {
         testScenario(() -> builder.withSynchronizationStrategy(SynchronizationStrategy.NONE).build(), threadCount, action);
     }
 
+    @Test
+    public void testTryConsume_singleWord() throws Throwable {
+        int threadCount = 4;
+        Function<Bucket, Long> action = b -> b.tryConsume(1)? 1L : 0L;
+        testScenario(() -> singleBandwidthBuilder.build(), threadCount, action, singleBandwidthPermittedRatePerSecond);
+    }
+
+    @Test
+    public void testTryConsume_singleWord_Limited() throws Throwable {
+        int threadCount = 4;
+        Function<Bucket, Long> action = b -> b.asBlocking().tryConsumeUninterruptibly(1, Duration.ofMillis(50))? 1L : 0L;
+        testScenario(() -> singleBandwidthBuilder.build(), threadCount, action, singleBandwidthPermittedRatePerSecond);
+    }
+
     private void testScenario(Supplier<Bucket> bucket, int threadCount, Function<Bucket, Long> action) throws Throwable {
+        testScenario(bucket, threadCount, action, permittedRatePerSecond);
+    }
+
+    private void testScenario(Supplier<Bucket> bucket, int threadCount, Function<Bucket, Long> action, double permittedRatePerSecond) throws Throwable {
         int durationSeconds = System.getenv("CI") == null ? 5 : 1;
         ConsumptionScenario scenario = new ConsumptionScenario(threadCount, TimeUnit.SECONDS.toNanos(durationSeconds), bucket, action, permittedRatePerSecond);
         scenario.executeAndValidateRate();
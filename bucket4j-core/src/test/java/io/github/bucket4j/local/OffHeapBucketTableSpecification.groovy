@@ -0,0 +1,173 @@
+package io.github.bucket4j.local
+
+import io.github.bucket4j.Bandwidth
+import io.github.bucket4j.Bucket
+import io.github.bucket4j.ConsumptionProbe
+import io.github.bucket4j.EstimationProbe
+import io.github.bucket4j.MutableConsumptionProbe
+import io.github.bucket4j.mock.TimeMeterMock
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.time.Duration
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicLong
+
+class OffHeapBucketTableSpecification extends Specification {
+
+    @Unroll
+    def "#n each key should behave exactly as LockFreeBucket for #bandwidths"(int n, List<Bandwidth> bandwidths) {
+        setup:
+            TimeMeterMock meter = new TimeMeterMock(1_000_000_000)
+            OffHeapBucketTableBuilder builder = OffHeapBucketTable.builder()
+                .withCustomTimePrecision(meter)
+                .withMaxKeys(100_000)
+            bandwidths.each { builder.addLimit(it) }
+            OffHeapBucketTable table = builder.build()
+            Map<Long, Bucket> references = new HashMap<>()
+            Closure<Bucket> newBucket = {
+                LocalBucketBuilder bucketBuilder = Bucket.builder().withCustomTimePrecision(meter)
+                bandwidths.each { bucketBuilder.addLimit(it) }
+                return bucketBuilder.build()
+            }
+            Closure<Bucket> reference = { Long key -> references.computeIfAbsent(key, { k -> newBucket() }) }
+            // read-only operations of table do not create buckets
+            Closure<Bucket> peek = { Long key -> references.getOrDefault(key, newBucket()) }
+            Random random = new Random(n)
+            long maxTokens = bandwidths.collect { it.capacity }.max() + 3
+            long maxNanos = bandwidths.collect { Math.min(it.refillPeriodNanos.intdiv(it.refillTokens) * 2 + 1, Duration.ofHours(1).toNanos()) }.max()
+            MutableConsumptionProbe mutableProbe = new MutableConsumptionProbe()
+        expect:
+            for (int i = 0; i < 5_000; i++) {
+                long tokens = 1 + (long) (random.nextDouble() * maxTokens)
+                Long key = random.nextInt(300) - 150L
+                switch (random.nextInt(8)) {
+                    case 0:
+                        meter.addTime((long) (random.nextDouble() * maxNanos))
+                        break
+                    case 1:
+                        assert table.tryConsume(key, tokens) == reference(key).tryConsume(tokens)
+                        break
+                    case 2:
+                        assertEquals(table.tryConsumeAndReturnRemaining(key, tokens), reference(key).tryConsumeAndReturnRemaining(tokens))
+                        break
+                    case 3:
+                        boolean consumed = table.tryConsumeAndReturnRemaining(key, tokens, mutableProbe)
+                        ConsumptionProbe expected = reference(key).tryConsumeAndReturnRemaining(tokens)
+                        assert consumed == expected.consumed
+                        assert mutableProbe.remainingTokens == expected.remainingTokens
+                        assert mutableProbe.nanosToWaitForRefill == expected.nanosToWaitForRefill
+                        assert mutableProbe.nanosToWaitForReset == expected.nanosToWaitForReset
+                        break
+                    case 4:
+                        assertEquals(table.estimateAbilityToConsume(key, tokens), peek(key).estimateAbilityToConsume(tokens))
+                        break
+                    case 5:
+                        assert table.tryConsumeAsMuchAsPossible(key, tokens) == reference(key).tryConsumeAsMuchAsPossible(tokens)
+                        break
+                    case 6:
+                        assert table.getAvailableTokens(key) == peek(key).getAvailableTokens()
+                        break
+                    case 7:
+                        if (random.nextInt(5) == 0) {
+                            assert table.remove(key) == (references.remove(key) != null)
+                        }
+                        break
+                }
+            }
+            table.size() == references.size()
+        where:
+            [n, bandwidths] << [
+                [1, [Bandwidth.simple(10, Duration.ofSeconds(1))]],
+                [2, [Bandwidth.simple(7, Duration.ofNanos(1000)).withInitialTokens(0)]],
+                [3, [Bandwidth.builder().capacity(100).refillGreedy(3, Duration.ofSeconds(1)).build(),
+                     Bandwidth.builder().capacity(10).refillIntervally(1, Duration.ofMillis(100)).build()]],
+                [4, [Bandwidth.builder().capacity(1000).refillGreedy(999_999_999, Duration.ofSeconds(1)).initialTokens(13).build()]],
+            ]
+    }
+
+    def "memory should be bounded and buckets which were not accessed recently should be evicted first"() {
+        setup:
+            TimeMeterMock meter = new TimeMeterMock(0)
+            OffHeapBucketTable table = OffHeapBucketTable.builder()
+                .withCustomTimePrecision(meter)
+                .addLimit(Bandwidth.simple(10, Duration.ofDays(1)))
+                .withMaxKeys(OffHeapBucketTable.WAYS)
+                .build()
+        expect:
+            table.getCapacity() == OffHeapBucketTable.WAYS
+        when:
+            for (long key = 0; key < OffHeapBucketTable.WAYS; key++) {
+                table.tryConsume(key, 1)
+            }
+        then:
+            table.size() == OffHeapBucketTable.WAYS
+        when:
+            // all keys are referenced, so first key gets evicted after second chance is given to all keys
+            table.tryConsume(100, 1)
+            for (long key = 2; key < OffHeapBucketTable.WAYS; key++) {
+                table.tryConsume(key, 1)
+            }
+            table.tryConsume(101, 1)
+        then:
+            table.size() == OffHeapBucketTable.WAYS
+            table.getAvailableTokens(0) == 10
+            table.getAvailableTokens(1) == 10
+            table.getAvailableTokens(2) == 8
+            table.getAvailableTokens(100) == 9
+            table.getAvailableTokens(101) == 9
+    }
+
+    def "table should not lose tokens under concurrent access"() {
+        setup:
+            OffHeapBucketTable table = OffHeapBucketTable.builder()
+                .addLimit(Bandwidth.simple(1000, Duration.ofDays(1)))
+                .withMaxKeys(1024)
+                .build()
+            int threadCount = 4
+            AtomicLong consumed = new AtomicLong()
+            CountDownLatch latch = new CountDownLatch(threadCount)
+        when:
+            for (int t = 0; t < threadCount; t++) {
+                new Thread({
+                    for (int i = 0; i < 20_000; i++) {
+                        if (table.tryConsume(i % 10, 1)) {
+                            consumed.incrementAndGet()
+                        }
+                    }
+                    latch.countDown()
+                }).start()
+            }
+            latch.await()
+        then:
+            consumed.get() == 10 * 1000
+    }
+
+    def "should validate parameters"() {
+        when:
+            OffHeapBucketTable.builder().withMaxKeys(0)
+        then:
+            thrown(IllegalArgumentException)
+        when:
+            OffHeapBucketTable table = OffHeapBucketTable.builder()
+                .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)))
+                .build()
+            table.tryConsume(1, 0)
+        then:
+            thrown(IllegalArgumentException)
+    }
+
+    private static void assertEquals(ConsumptionProbe actual, ConsumptionProbe expected) {
+        assert actual.consumed == expected.consumed
+        assert actual.remainingTokens == expected.remainingTokens
+        assert actual.nanosToWaitForRefill == expected.nanosToWaitForRefill
+        assert actual.nanosToWaitForReset == expected.nanosToWaitForReset
+    }
+
+    private static void assertEquals(EstimationProbe actual, EstimationProbe expected) {
+        assert actual.canBeConsumed() == expected.canBeConsumed()
+        assert actual.remainingTokens == expected.remainingTokens
+        assert actual.nanosToWaitForRefill == expected.nanosToWaitForRefill
+    }
+
+}
@@ -0,0 +1,235 @@
+package io.github.bucket4j.local
+
+import io.github.bucket4j.Bandwidth
+import io.github.bucket4j.Bucket
+import io.github.bucket4j.BucketConfiguration
+import io.github.bucket4j.BucketState
+import io.github.bucket4j.ConsumptionProbe
+import io.github.bucket4j.EstimationProbe
+import io.github.bucket4j.MutableConsumptionProbe
+import io.github.bucket4j.MutableEstimationProbe
+import io.github.bucket4j.TokensInheritanceStrategy
+import io.github.bucket4j.mock.TimeMeterMock
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.time.Duration
+
+class SingleWordLockFreeBucketSpecification extends Specification {
+
+    @Unroll
+    def "#n should behave exactly as LockFreeBucket for #bandwidth"(int n, Bandwidth bandwidth) {
+        setup:
+            TimeMeterMock meter = new TimeMeterMock(1_000_000_000)
+            Bucket reference = Bucket.builder()
+                .withCustomTimePrecision(meter)
+                .addLimit(bandwidth)
+                .build()
+            Bucket bucket = Bucket.builder()
+                .withCustomTimePrecision(meter)
+                .addLimit(bandwidth)
+                .withSynchronizationStrategy(SynchronizationStrategy.LOCK_FREE_SINGLE_WORD)
+                .build()
+            Random random = new Random(n)
+            long maxTokens = bandwidth.capacity + 3
+            long maxNanos = Math.min(bandwidth.refillPeriodNanos.intdiv(bandwidth.refillTokens) * 2 + 1, Duration.ofHours(1).toNanos())
+        expect:
+            for (int i = 0; i < 3_000; i++) {
+                long tokens = 1 + (long) (random.nextDouble() * maxTokens)
+                switch (random.nextInt(9)) {
+                    case 0:
+                        meter.addTime((long) (random.nextDouble() * maxNanos))
+                        break
+                    case 1:
+                        assert bucket.tryConsume(tokens) == reference.tryConsume(tokens)
+                        break
+                    case 2:
+                        if (random.nextBoolean()) {
+                            assertEquals(bucket.tryConsumeAndReturnRemaining(tokens), reference.tryConsumeAndReturnRemaining(tokens))
+                        } else {
+                            MutableConsumptionProbe probe = new MutableConsumptionProbe()
+                            bucket.tryConsumeAndReturnRemaining(tokens, probe)
+                            assertEquals(probe, reference.tryConsumeAndReturnRemaining(tokens))
+                        }
+                        break
+                    case 3:
+                        if (random.nextBoolean()) {
+                            assertEquals(bucket.estimateAbilityToConsume(tokens), reference.estimateAbilityToConsume(tokens))
+                        } else {
+                            MutableEstimationProbe probe = new MutableEstimationProbe()
+                            bucket.estimateAbilityToConsume(tokens, probe)
+                            assertEquals(probe, reference.estimateAbilityToConsume(tokens))
+                        }
+                        break
+                    case 4:
+                        assert bucket.tryConsumeAsMuchAsPossible(tokens) == reference.tryConsumeAsMuchAsPossible(tokens)
+                        break
+                    case 5:
+                        assert bucket.addTokens(tokens) == reference.addTokens(tokens)
+                        break
+                    case 6:
+                        assert bucket.consumeIgnoringRateLimits(tokens) == reference.consumeIgnoringRateLimits(tokens)
+                        break
+                    case 7:
+                        assert bucket.asVerbose().getAvailableTokens().getValue() == reference.getAvailableTokens()
+                        break
+                    case 8:
+                        if (random.nextInt(10) == 0) {
+                            bucket.reset()
+                            reference.reset()
+                        }
+                        break
+                }
+                BucketState state = bucket.asVerbose().getAvailableTokens().getState()
+                BucketState referenceState = reference.asVerbose().getAvailableTokens().getState()
+                assert state.getCurrentSize(0) == referenceState.getCurrentSize(0)
+                assert state.getRoundingError(0) == referenceState.getRoundingError(0)
+            }
+        where:
+            [n, bandwidth] << [
+                [1, Bandwidth.simple(10, Duration.ofSeconds(1))],
+                [2, Bandwidth.simple(7, Duration.ofNanos(1000)).withInitialTokens(0)],
+                [3, Bandwidth.builder().capacity(100).refillGreedy(3, Duration.ofSeconds(1)).build()],
+                [4, Bandwidth.builder().capacity(1000).refillGreedy(999_999_999, Duration.ofSeconds(1)).initialTokens(13).build()],
+                [5, Bandwidth.builder().capacity(1).refillGreedy(1, Duration.ofDays(365)).build()],
+            ]
+    }
+
+    @Unroll
+    def "#strategy replacement of configuration should behave exactly as LockFreeBucket"(TokensInheritanceStrategy strategy) {
+        setup:
+            TimeMeterMock meter = new TimeMeterMock(0)
+            Bandwidth bandwidth = Bandwidth.simple(100, Duration.ofNanos(1001))
+            BucketConfiguration newConfiguration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(37, Duration.ofNanos(503)))
+                .build()
+            Bucket reference = Bucket.builder()
+                .withCustomTimePrecision(meter)
+                .addLimit(bandwidth)
+                .build()
+            Bucket bucket = Bucket.builder()
+                .withCustomTimePrecision(meter)
+                .addLimit(bandwidth)
+                .withSynchronizationStrategy(SynchronizationStrategy.LOCK_FREE_SINGLE_WORD)
+                .build()
+        when:
+            bucket.tryConsume(90)
+            reference.tryConsume(90)
+            meter.addTime(55)
+            bucket.replaceConfiguration(newConfiguration, strategy)
+            reference.replaceConfiguration(newConfiguration, strategy)
+        then:
+            bucket.getAvailableTokens() == reference.getAvailableTokens()
+            ((LocalBucket) bucket).getConfiguration() == newConfiguration
+        when:
+            meter.addTime(100)
+        then:
+            bucket.getAvailableTokens() == reference.getAvailableTokens()
+            bucket.tryConsumeAndReturnRemaining(1).remainingTokens == reference.tryConsumeAndReturnRemaining(1).remainingTokens
+        where:
+            strategy << TokensInheritanceStrategy.values()
+    }
+
+    def "should survive time jumps that require rebasing of time"() {
+        setup:
+            TimeMeterMock meter = new TimeMeterMock(0)
+            Bandwidth bandwidth = Bandwidth.builder().capacity(1000).refillGreedy(999_999_999, Duration.ofSeconds(1)).build()
+            Bucket reference = Bucket.builder()
+                .withCustomTimePrecision(meter)
+                .addLimit(bandwidth)
+                .build()
+            Bucket bucket = Bucket.builder()
+                .withCustomTimePrecision(meter)
+                .addLimit(bandwidth)
+                .withSynchronizationStrategy(SynchronizationStrategy.LOCK_FREE_SINGLE_WORD)
+                .build()
+        expect:
+            for (int i = 0; i < 10; i++) {
+                assert bucket.tryConsumeAsMuchAsPossible() == reference.tryConsumeAsMuchAsPossible()
+                meter.addSeconds(10)
+                assert bucket.consumeIgnoringRateLimits(1500) == reference.consumeIgnoringRateLimits(1500)
+                meter.addTime(17)
+                assert bucket.getAvailableTokens() == reference.getAvailableTokens()
+            }
+    }
+
+    def "should reject configurations which can not be represented by single word"() {
+        when:
+            Bucket.builder()
+                .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)))
+                .addLimit(Bandwidth.simple(100, Duration.ofMinutes(1)))
+                .withSynchronizationStrategy(SynchronizationStrategy.LOCK_FREE_SINGLE_WORD)
+                .build()
+        then:
+            thrown(IllegalArgumentException)
+
+        when:
+            Bucket.builder()
+                .addLimit(Bandwidth.builder().capacity(10).refillIntervally(10, Duration.ofSeconds(1)).build())
+                .withSynchronizationStrategy(SynchronizationStrategy.LOCK_FREE_SINGLE_WORD)
+                .build()
+        then:
+            thrown(IllegalArgumentException)
+
+        when:
+            Bucket bucket = Bucket.builder()
+                .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)))
+                .withSynchronizationStrategy(SynchronizationStrategy.LOCK_FREE_SINGLE_WORD)
+                .build()
+            BucketConfiguration multiBandwidthConfiguration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)))
+                .addLimit(Bandwidth.simple(100, Duration.ofMinutes(1)))
+                .build()
+            bucket.replaceConfiguration(multiBandwidthConfiguration, TokensInheritanceStrategy.AS_IS)
+        then:
+            thrown(IllegalArgumentException)
+            bucket.getAvailableTokens() == 10
+    }
+
+    def "should reject force addition of tokens instead of truncating it to capacity"() {
+        setup:
+            Bucket bucket = Bucket.builder()
+                .addLimit(Bandwidth.simple(10, Duration.ofSeconds(1)))
+                .withSynchronizationStrategy(SynchronizationStrategy.LOCK_FREE_SINGLE_WORD)
+                .build()
+            bucket.tryConsume(5)
+        when:
+            bucket.forceAddTokens(20)
+        then:
+            thrown(UnsupportedOperationException)
+            bucket.getAvailableTokens() == 5
+
+        when:
+            bucket.asVerbose().forceAddTokens(20)
+        then:
+            thrown(UnsupportedOperationException)
+            bucket.getAvailableTokens() == 5
+    }
+
+    private static void assertEquals(ConsumptionProbe actual, ConsumptionProbe expected) {
+        assert actual.consumed == expected.consumed
+        assert actual.remainingTokens == expected.remainingTokens
+        assert actual.nanosToWaitForRefill == expected.nanosToWaitForRefill
+        assert actual.nanosToWaitForReset == expected.nanosToWaitForReset
+    }
+
+    private static void assertEquals(EstimationProbe actual, EstimationProbe expected) {
+        assert actual.canBeConsumed() == expected.canBeConsumed()
+        assert actual.remainingTokens == expected.remainingTokens
+        assert actual.nanosToWaitForRefill == expected.nanosToWaitForRefill
+    }
+
+    private static void assertEquals(MutableConsumptionProbe actual, ConsumptionProbe expected) {
+        assert actual.consumed == expected.consumed
+        assert actual.remainingTokens == expected.remainingTokens
+        assert actual.nanosToWaitForRefill == expected.nanosToWaitForRefill
+        assert actual.nanosToWaitForReset == expected.nanosToWaitForReset
+    }
+
+    private static void assertEquals(MutableEstimationProbe actual, EstimationProbe expected) {
+        assert actual.canBeConsumed() == expected.canBeConsumed()
+        assert actual.remainingTokens == expected.remainingTokens
+        assert actual.nanosToWaitForRefill == expected.nanosToWaitForRefill
+    }
+
+}
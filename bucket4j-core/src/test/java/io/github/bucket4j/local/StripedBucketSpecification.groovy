@@ -0,0 +1,141 @@
+package io.github.bucket4j.local
+
+import io.github.bucket4j.Bandwidth
+import io.github.bucket4j.BucketConfiguration
+import io.github.bucket4j.BucketListener
+import io.github.bucket4j.ConsumptionProbe
+import io.github.bucket4j.TokensInheritanceStrategy
+import io.github.bucket4j.mock.BlockingStrategyMock
+import io.github.bucket4j.mock.TimeMeterMock
+import spock.lang.Specification
+
+import java.time.Duration
+
+class StripedBucketSpecification extends Specification {
+
+    TimeMeterMock meter = new TimeMeterMock(0)
+    BlockingStrategyMock blocker = new BlockingStrategyMock(meter)
+
+    def "amount of stripes should be limited by capacity and refill tokens"() {
+        expect:
+            createBucket(Bandwidth.simple(3, Duration.ofSeconds(1)), 8).getStripeCount() == 3
+            createBucket(Bandwidth.builder().capacity(100).refillGreedy(2, Duration.ofSeconds(1)).build(), 8).getStripeCount() == 2
+            createBucket(Bandwidth.simple(100, Duration.ofSeconds(1)), 8).getStripeCount() == 8
+    }
+
+    def "single thread should be able to consume tokens from all stripes"() {
+        setup:
+            StripedBucket bucket = createBucket(Bandwidth.simple(100, Duration.ofSeconds(100)), 4)
+        expect:
+            for (int i = 0; i < 100; i++) {
+                assert bucket.tryConsume(1)
+            }
+            !bucket.tryConsume(1)
+            bucket.getAvailableTokens() == 0
+    }
+
+    def "tokens borrowed from other stripes should be returned back when whole bucket has not enough tokens"() {
+        setup:
+            StripedBucket bucket = createBucket(Bandwidth.simple(100, Duration.ofSeconds(100)), 4)
+        expect:
+            bucket.tryConsume(60)
+            bucket.getAvailableTokens() == 40
+            !bucket.tryConsume(41)
+            bucket.getAvailableTokens() == 40
+            bucket.tryConsumeAsMuchAsPossible(50) == 40
+            bucket.getAvailableTokens() == 0
+    }
+
+    def "probes should describe the whole bucket"() {
+        setup:
+            StripedBucket bucket = createBucket(Bandwidth.simple(100, Duration.ofSeconds(100)), 4)
+        when:
+            ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(90)
+        then:
+            probe.consumed
+            probe.remainingTokens == 10
+        when:
+            probe = bucket.tryConsumeAndReturnRemaining(20)
+        then:
+            !probe.consumed
+            probe.remainingTokens == 10
+            probe.nanosToWaitForRefill == Duration.ofSeconds(10).toNanos()
+            bucket.estimateAbilityToConsume(20).nanosToWaitForRefill == Duration.ofSeconds(10).toNanos()
+        when:
+            meter.addSeconds(20)
+        then:
+            bucket.getAvailableTokens() == 30
+            bucket.asVerbose().getAvailableTokens().getValue() == 30
+            bucket.tryConsume(30)
+            bucket.getAvailableTokens() == 0
+    }
+
+    def "probes of buckets with different amount of stripes should not interfere within the same thread"() {
+        setup:
+            StripedBucket first = createBucket(Bandwidth.simple(100, Duration.ofSeconds(100)), 4)
+            StripedBucket second = createBucket(Bandwidth.simple(10, Duration.ofSeconds(10)), 2)
+        expect:
+            first.tryConsumeAndReturnRemaining(30).remainingTokens == 70
+            second.tryConsumeAndReturnRemaining(3).remainingTokens == 7
+            first.estimateAbilityToConsume(80).nanosToWaitForRefill == Duration.ofSeconds(10).toNanos()
+            second.estimateAbilityToConsume(8).nanosToWaitForRefill == Duration.ofSeconds(1).toNanos()
+            first.getAvailableTokens() == 70
+            second.getAvailableTokens() == 7
+    }
+
+    def "debt should be spread across stripes and paid back with the total refill rate"() {
+        setup:
+            StripedBucket bucket = createBucket(Bandwidth.simple(100, Duration.ofSeconds(100)), 4)
+        expect:
+            bucket.consumeIgnoringRateLimits(120) == Duration.ofSeconds(20).toNanos()
+            bucket.getAvailableTokens() == -20
+            !bucket.asBlocking().tryConsume(10, Duration.ofSeconds(29), blocker)
+            blocker.parkedNanos == 0
+        when:
+            meter.addSeconds(20)
+        then:
+            bucket.getAvailableTokens() == 0
+            bucket.asBlocking().tryConsume(10, Duration.ofSeconds(30), blocker)
+            blocker.parkedNanos == Duration.ofSeconds(10).toNanos()
+            bucket.getAvailableTokens() == 0
+    }
+
+    def "configuration replacement should be applied to all stripes"() {
+        setup:
+            StripedBucket bucket = createBucket(Bandwidth.simple(100, Duration.ofSeconds(100)), 4)
+            BucketConfiguration newConfiguration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(1000, Duration.ofSeconds(100)))
+                .build()
+        when:
+            bucket.tryConsume(50)
+            bucket.replaceConfiguration(newConfiguration, TokensInheritanceStrategy.PROPORTIONALLY)
+        then:
+            bucket.getConfiguration() == newConfiguration
+            bucket.getAvailableTokens() == 500
+        when:
+            bucket.reset()
+        then:
+            bucket.getAvailableTokens() == 1000
+    }
+
+    def "configuration which can not be split across current stripes should be rejected"() {
+        setup:
+            StripedBucket bucket = createBucket(Bandwidth.simple(100, Duration.ofSeconds(100)), 4)
+            BucketConfiguration newConfiguration = BucketConfiguration.builder()
+                .addLimit(Bandwidth.simple(3, Duration.ofSeconds(1)))
+                .build()
+        when:
+            bucket.replaceConfiguration(newConfiguration, TokensInheritanceStrategy.AS_IS)
+        then:
+            thrown(IllegalArgumentException)
+            bucket.getAvailableTokens() == 100
+    }
+
+    private StripedBucket createBucket(Bandwidth bandwidth, int stripes) {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(bandwidth)
+            .build()
+        return new StripedBucket(configuration, stripes, meter, BucketListener.NOPE)
+    }
+
+}
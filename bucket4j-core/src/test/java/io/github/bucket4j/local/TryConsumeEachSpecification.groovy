@@ -0,0 +1,106 @@
+package io.github.bucket4j.local
+
+import io.github.bucket4j.Bandwidth
+import io.github.bucket4j.Bucket
+import io.github.bucket4j.BucketConfiguration
+import io.github.bucket4j.SimpleBucketListener
+import io.github.bucket4j.mock.BucketType
+import io.github.bucket4j.mock.TimeMeterMock
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.time.Duration
+
+class TryConsumeEachSpecification extends Specification {
+
+    BucketConfiguration configuration = BucketConfiguration.builder()
+        .addLimit(Bandwidth.simple(100, Duration.ofSeconds(10)))
+        .addLimit(Bandwidth.simple(30, Duration.ofSeconds(1)).withInitialTokens(25))
+        .build()
+
+    @Unroll
+    def "#type batch consumption should be equivalent to sequential consumption"(BucketType type) {
+        setup:
+            TimeMeterMock meter = new TimeMeterMock(0)
+            LocalBucket bucket = (LocalBucket) type.createBucket(configuration, meter)
+            Bucket reference = type.createBucket(configuration, meter)
+            Random random = new Random(42)
+        expect:
+            for (int i = 0; i < 200; i++) {
+                long[] batch = new long[random.nextInt(20)]
+                for (int j = 0; j < batch.length; j++) {
+                    batch[j] = 1 + random.nextInt(10)
+                }
+                boolean[] admitted = new boolean[batch.length]
+                int admittedCount = bucket.tryConsumeEach(batch, admitted)
+
+                int expectedCount = 0
+                for (int j = 0; j < batch.length; j++) {
+                    boolean expected = reference.tryConsume(batch[j])
+                    assert admitted[j] == expected
+                    expectedCount += expected ? 1 : 0
+                }
+                assert admittedCount == expectedCount
+                assert bucket.getAvailableTokens() == reference.getAvailableTokens()
+                meter.addMillis(random.nextInt(300))
+            }
+        where:
+            type << BucketType.values().findAll { it.isLocal() }
+    }
+
+    @Unroll
+    def "#type batch consumption should notify listener about each request"(BucketType type) {
+        setup:
+            SimpleBucketListener listener = new SimpleBucketListener()
+            LocalBucket bucket = (LocalBucket) type.createBucket(configuration, new TimeMeterMock(0), listener)
+            boolean[] admitted = new boolean[4]
+        when:
+            int admittedCount = bucket.tryConsumeEach([10, 20, 5, 11] as long[], admitted)
+        then:
+            admittedCount == 2
+            admitted == [true, false, true, false] as boolean[]
+            listener.getConsumed() == 15
+            listener.getRejected() == 31
+        where:
+            type << BucketType.values().findAll { it.isLocal() }
+    }
+
+    def "default implementation should consume each amount by separate invocation"() {
+        setup:
+            LocalBucket target = Bucket.builder().addLimit(Bandwidth.simple(30, Duration.ofSeconds(1))).build()
+            LocalBucket bucket = new ThirdPartyBucket(target: target)
+            boolean[] admitted = new boolean[4]
+        when:
+            int admittedCount = bucket.tryConsumeEach([10, 25, 20, 1] as long[], admitted)
+        then:
+            admittedCount == 2
+            admitted == [true, false, true, false] as boolean[]
+            target.getAvailableTokens() == 0
+        when:
+            bucket.tryConsumeEach([1, 1] as long[], new boolean[1])
+        then:
+            thrown(IllegalArgumentException)
+    }
+
+    def "should validate arguments"() {
+        setup:
+            LocalBucket bucket = Bucket.builder().addLimit(Bandwidth.simple(10, Duration.ofSeconds(1))).build()
+        when:
+            bucket.tryConsumeEach([1, 0] as long[], new boolean[2])
+        then:
+            thrown(IllegalArgumentException)
+        when:
+            bucket.tryConsumeEach([1, 1] as long[], new boolean[1])
+        then:
+            thrown(IllegalArgumentException)
+            bucket.getAvailableTokens() == 10
+    }
+
+}
+
+class ThirdPartyBucket implements LocalBucket {
+
+    @Delegate(excludes = ["tryConsumeEach"])
+    LocalBucket target
+
+}
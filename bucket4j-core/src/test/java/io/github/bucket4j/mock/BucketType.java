@@ -107,6 +107,37 @@ public enum BucketType {
             throw new UnsupportedOperationException();
         }
     },
+    LOCAL_SEQLOCK {
+        @Override
+        public Bucket createBucket(BucketConfiguration configuration, TimeMeter timeMeter) {
+            LocalBucketBuilder builder = Bucket.builder();
+            for (Bandwidth bandwidth : configuration.getBandwidths()) {
+                builder.addLimit(bandwidth);
+            }
+            return builder
+                    .withCustomTimePrecision(timeMeter)
+                    .withSynchronizationStrategy(SynchronizationStrategy.SEQLOCK)
+                    .build();
+        }
+
+        @Override
+        public Bucket createBucket(BucketConfiguration configuration, TimeMeter timeMeter, BucketListener listener) {
+            LocalBucketBuilder builder = Bucket.builder();
+            for (Bandwidth bandwidth : configuration.getBandwidths()) {
+                builder.addLimit(bandwidth);
+            }
+            return builder
+                .withCustomTimePrecision(timeMeter)
+                .withSynchronizationStrategy(SynchronizationStrategy.SEQLOCK)
+                .withListener(listener)
+                .build();
+        }
+
+        @Override
+        public ProxyManager<Integer> createProxyManager(TimeMeter timeMeter) {
+            throw new UnsupportedOperationException();
+        }
+    },
     GRID {
         @Override
         public Bucket createBucket(BucketConfiguration configuration, TimeMeter timeMeter) {
@@ -295,7 +326,7 @@ public enum BucketType {
     }
 
     public boolean isLocal() {
-        return this == LOCAL_LOCK_FREE || this == LOCAL_SYNCHRONIZED || this == LOCAL_UNSAFE;
+        return this == LOCAL_LOCK_FREE || this == LOCAL_SYNCHRONIZED || this == LOCAL_UNSAFE || this == LOCAL_SEQLOCK;
     }
 
 }
@@ -19,18 +19,29 @@ package io.github.bucket4j.mock;
 
 import io.github.bucket4j.distributed.proxy.ClientSideConfig;
 import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncBatchCompareAndSwapOperation;
 import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
 import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.MultiKeyCompareAndSwapOperation;
 import io.github.bucket4j.distributed.remote.RemoteBucketState;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CompareAndSwapBasedProxyManagerMock<K> extends AbstractCompareAndSwapBasedProxyManager<K> {
 
     private final Map<K, byte[]> stateMap = new HashMap<>();
+    private final AtomicInteger readCount = new AtomicInteger();
+    private final AtomicInteger injectedConflicts = new AtomicInteger();
+    private final AtomicInteger readBatchCount = new AtomicInteger();
+    private final List<Integer> swapBatchSizes = new ArrayList<>();
+    private boolean batchCompareAndSwapEnabled;
 
     public CompareAndSwapBasedProxyManagerMock(ClientSideConfig clientSideConfig) {
         super(clientSideConfig);
@@ -47,10 +58,17 @@ public class CompareAndSwapBasedProxyManagerMock<K> extends AbstractCompareAndSw
         return new CompareAndSwapOperation() {
             @Override
             public Optional<byte[]> getStateData(Optional<Long> timeoutNanos) {
+                readCount.incrementAndGet();
                 return Optional.ofNullable(stateMap.get(key));
             }
             @Override
             public boolean compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState, Optional<Long> timeoutNanos) {
+                if (injectedConflicts.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+                    return false;
+                }
+                if (!Arrays.equals(stateMap.get(key), originalData)) {
+                    return false;
+                }
                 stateMap.put(key, newData);
                 return true;
             }
@@ -63,21 +81,124 @@ public class CompareAndSwapBasedProxyManagerMock<K> extends AbstractCompareAndSw
         return new AsyncCompareAndSwapOperation() {
             @Override
             public CompletableFuture<Optional<byte[]>> getStateData(Optional<Long> timeoutNanos) {
+                readCount.incrementAndGet();
                 return CompletableFuture.completedFuture(Optional.ofNullable(backup));
             }
             @Override
             public CompletableFuture<Boolean> compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState, Optional<Long> timeoutNanos) {
+                if (!Arrays.equals(stateMap.get(key), originalData)) {
+                    return CompletableFuture.completedFuture(false);
+                }
                 stateMap.put(key, newData);
                 return CompletableFuture.completedFuture(true);
             }
         };
     }
 
+    @Override
+    protected boolean isAtomicMultiKeyConsumptionSupported() {
+        return true;
+    }
+
+    @Override
+    protected MultiKeyCompareAndSwapOperation beginMultiKeyCompareAndSwapOperation(List<K> keys) {
+        return new MultiKeyCompareAndSwapOperation() {
+            @Override
+            public List<byte[]> getStateData(Optional<Long> timeoutNanos) {
+                List<byte[]> data = new ArrayList<>(keys.size());
+                for (K key : keys) {
+                    data.add(stateMap.get(key));
+                }
+                return data;
+            }
+            @Override
+            public boolean compareAndSwap(List<byte[]> originalData, List<byte[]> newData, List<RemoteBucketState> newStates, Optional<Long> timeoutNanos) {
+                for (int i = 0; i < keys.size(); i++) {
+                    if (!Arrays.equals(stateMap.get(keys.get(i)), originalData.get(i))) {
+                        return false;
+                    }
+                }
+                for (int i = 0; i < keys.size(); i++) {
+                    stateMap.put(keys.get(i), newData.get(i));
+                }
+                return true;
+            }
+        };
+    }
+
+    @Override
+    protected boolean isBatchCompareAndSwapSupported() {
+        return batchCompareAndSwapEnabled;
+    }
+
+    @Override
+    protected AsyncBatchCompareAndSwapOperation beginAsyncBatchCompareAndSwapOperation(List<K> keys) {
+        return new AsyncBatchCompareAndSwapOperation() {
+            @Override
+            public List<CompletableFuture<Optional<byte[]>>> getStateData(Optional<Long> timeoutNanos) {
+                readBatchCount.incrementAndGet();
+                List<CompletableFuture<Optional<byte[]>>> data = new ArrayList<>(keys.size());
+                for (K key : keys) {
+                    data.add(CompletableFuture.completedFuture(Optional.ofNullable(stateMap.get(key))));
+                }
+                return data;
+            }
+            @Override
+            public List<CompletableFuture<Boolean>> compareAndSwap(List<Integer> positions, List<byte[]> originalData, List<byte[]> newData, List<RemoteBucketState> newStates, Optional<Long> timeoutNanos) {
+                swapBatchSizes.add(positions.size());
+                List<CompletableFuture<Boolean>> results = new ArrayList<>(positions.size());
+                for (int i = 0; i < positions.size(); i++) {
+                    K key = keys.get(positions.get(i));
+                    if (injectedConflicts.getAndUpdate(count -> Math.max(0, count - 1)) > 0 || !Arrays.equals(stateMap.get(key), originalData.get(i))) {
+                        results.add(CompletableFuture.completedFuture(false));
+                    } else {
+                        stateMap.put(key, newData.get(i));
+                        results.add(CompletableFuture.completedFuture(true));
+                    }
+                }
+                return results;
+            }
+        };
+    }
+
+    @Override
+    protected boolean isLastSeenStateCacheSupported() {
+        return true;
+    }
+
     @Override
     public void removeProxy(K key) {
         stateMap.remove(key);
     }
 
+    public void putStateData(K key, byte[] stateData) {
+        stateMap.put(key, stateData);
+    }
+
+    public byte[] getStateData(K key) {
+        return stateMap.get(key);
+    }
+
+    public int getReadCount() {
+        return readCount.get();
+    }
+
+    public void injectConflicts(int count) {
+        injectedConflicts.set(count);
+    }
+
+    public void enableBatchCompareAndSwap() {
+        batchCompareAndSwapEnabled = true;
+    }
+
+    public int getReadBatchCount() {
+        return readBatchCount.get();
+    }
+
+    public List<Integer> getSwapBatchSizes() {
+        return swapBatchSizes;
+    }
+
     @Override
     public boolean isAsyncModeSupported() {
         return true;
@@ -5,6 +5,7 @@ import io.github.bucket4j.BucketState;
 import io.github.bucket4j.distributed.proxy.DefaultBucketProxy;
 import io.github.bucket4j.distributed.remote.RemoteBucketState;
 import io.github.bucket4j.local.LockFreeBucket;
+import io.github.bucket4j.local.SeqLockBucket;
 import io.github.bucket4j.local.SynchronizedBucket;
 import io.github.bucket4j.local.ThreadUnsafeBucket;
 
@@ -19,6 +20,9 @@ public class PackageAccessor {
             return stateRef.get();
         } else if (bucket instanceof SynchronizedBucket || bucket instanceof ThreadUnsafeBucket) {
             return getFieldValue(bucket, "state");
+        } else if (bucket instanceof SeqLockBucket) {
+            Object sequencedState = getFieldValue(bucket, "sequencedState");
+            return getFieldValue(sequencedState, "state");
         } else if (bucket instanceof DefaultBucketProxy) {
             DefaultBucketProxy proxy = getFieldValue(bucket, "gridProxy");
             RemoteBucketState gridState = getFieldValue(proxy, "state");
@@ -0,0 +1,76 @@
+package io.github.bucket4j.util.concurrent
+
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicInteger
+
+class StripedLruCacheSpecification extends Specification {
+
+    def "small cache should evict exactly least recently used entry"() {
+        setup:
+            StripedLruCache<String, Integer> cache = new StripedLruCache<>(2)
+        when:
+            cache.put("1", 1)
+            cache.put("2", 2)
+            cache.get("1")
+            cache.put("3", 3)
+        then:
+            cache.get("1") == 1
+            cache.get("2") == null
+            cache.get("3") == 3
+    }
+
+    def "size of striped cache should never exceed configured maximum"() {
+        setup:
+            int maxSize = 1000
+            StripedLruCache<Integer, Integer> cache = new StripedLruCache<>(maxSize)
+        when:
+            for (int i = 0; i < 100_000; i++) {
+                cache.put(i, i)
+            }
+            int size = 0
+            for (int i = 0; i < 100_000; i++) {
+                if (cache.get(i) != null) {
+                    size++
+                }
+            }
+        then:
+            size <= maxSize
+            size > maxSize / 2
+            cache.get(99_999) == 99_999
+    }
+
+    def "should support concurrent access"() {
+        setup:
+            StripedLruCache<Integer, AtomicInteger> cache = new StripedLruCache<>(10_000)
+            int threadCount = 4
+            int keyCount = 1000
+            CountDownLatch startLatch = new CountDownLatch(1)
+            List<Thread> threads = (1..threadCount).collect {
+                Thread.start {
+                    startLatch.await()
+                    for (int i = 0; i < keyCount; i++) {
+                        cache.computeIfAbsent(i, { k -> new AtomicInteger() }).incrementAndGet()
+                    }
+                }
+            }
+        when:
+            startLatch.countDown()
+            threads.each { it.join() }
+        then:
+            (0..<keyCount).every { cache.get(it).get() == threadCount }
+    }
+
+    def "should remove entry only when it is mapped to specified value"() {
+        setup:
+            StripedLruCache<String, String> cache = new StripedLruCache<>(10)
+            cache.put("key", "first")
+        expect:
+            !cache.remove("key", "second")
+            cache.get("key") == "first"
+            cache.remove("key", "first")
+            cache.get("key") == null
+    }
+
+}
@@ -63,6 +63,11 @@ public class HazelcastCompareAndSwapBasedProxyManager<K> extends AbstractCompare
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    protected boolean isLastSeenStateCacheSupported() {
+        return true;
+    }
+
     @Override
     public boolean isAsyncModeSupported() {
         // Because Hazelcast IMap does not provide "replaceAsync" API.
@@ -115,6 +115,11 @@ public class IgniteThinClientCasBasedProxyManager<K> extends AbstractCompareAndS
         };
     }
 
+    @Override
+    protected boolean isLastSeenStateCacheSupported() {
+        return true;
+    }
+
     @Override
     public boolean isAsyncModeSupported() {
         return true;
@@ -144,6 +144,11 @@ public class MongoDBAsyncCompareAndSwapBasedProxyManager<K> extends AbstractComp
         removeAsync(key).join();
     }
 
+    @Override
+    protected boolean isLastSeenStateCacheSupported() {
+        return true;
+    }
+
     @Override
     public boolean isAsyncModeSupported() {
         return true;
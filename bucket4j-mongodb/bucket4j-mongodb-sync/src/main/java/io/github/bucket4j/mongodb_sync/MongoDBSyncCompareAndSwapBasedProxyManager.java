@@ -159,6 +159,11 @@ public class MongoDBSyncCompareAndSwapBasedProxyManager<K> extends AbstractCompa
         collection.deleteOne(Filters.eq(idFieldName, keyBytes));
     }
 
+    @Override
+    protected boolean isLastSeenStateCacheSupported() {
+        return true;
+    }
+
     @Override
     public boolean isAsyncModeSupported() {
         return false;
@@ -19,14 +19,20 @@
  */
 package io.github.bucket4j.redis.jedis;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executor;
 
 
 import io.github.bucket4j.distributed.proxy.AbstractProxyManagerBuilder;
 import io.github.bucket4j.distributed.serialization.Mapper;
+import io.github.bucket4j.redis.cas.VersionStamps;
 import io.github.bucket4j.redis.jedis.cas.JedisBasedProxyManager;
+import io.github.bucket4j.redis.jedis.lua.JedisLuaBasedProxyManager;
+import io.github.bucket4j.redis.script.RedisScript;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.Response;
 import redis.clients.jedis.UnifiedJedis;
 import redis.clients.jedis.util.Pool;
 
@@ -43,12 +49,80 @@ public class Bucket4jJedis {
      * @return new instance of {@link JedisBasedProxyManagerBuilder}
      */
     public static JedisBasedProxyManagerBuilder<byte[]> casBasedBuilder(Pool<Jedis> jedisPool) {
+        return new JedisBasedProxyManagerBuilder<>(Mapper.BYTES, redisApi(jedisPool));
+    }
+
+    /**
+     * Returns the builder for {@link JedisBasedProxyManager}
+     *
+     * @param unifiedJedis
+     *
+     * @return new instance of {@link JedisBasedProxyManagerBuilder}
+     */
+    public static JedisBasedProxyManagerBuilder<byte[]> casBasedBuilder(UnifiedJedis unifiedJedis) {
+        return new JedisBasedProxyManagerBuilder<>(Mapper.BYTES, redisApi(unifiedJedis));
+    }
+
+    /**
+     * Returns the builder for {@link JedisBasedProxyManager}
+     *
+     * @param jedisCluster
+     *
+     * @return new instance of {@link JedisBasedProxyManagerBuilder}
+     */
+    public static JedisBasedProxyManagerBuilder<byte[]> casBasedBuilder(JedisCluster jedisCluster) {
+        return new JedisBasedProxyManagerBuilder<>(Mapper.BYTES, redisApi(jedisCluster));
+    }
+
+    /**
+     * Returns the builder for {@link JedisLuaBasedProxyManager}
+     *
+     * @param jedisPool
+     *
+     * @return new instance of {@link JedisLuaBasedProxyManagerBuilder}
+     */
+    public static JedisLuaBasedProxyManagerBuilder<byte[]> luaBasedBuilder(Pool<Jedis> jedisPool) {
+        return new JedisLuaBasedProxyManagerBuilder<>(Mapper.BYTES, redisApi(jedisPool));
+    }
+
+    /**
+     * Returns the builder for {@link JedisLuaBasedProxyManager}
+     *
+     * @param unifiedJedis
+     *
+     * @return new instance of {@link JedisLuaBasedProxyManagerBuilder}
+     */
+    public static JedisLuaBasedProxyManagerBuilder<byte[]> luaBasedBuilder(UnifiedJedis unifiedJedis) {
+        return new JedisLuaBasedProxyManagerBuilder<>(Mapper.BYTES, redisApi(unifiedJedis));
+    }
+
+    /**
+     * Returns the builder for {@link JedisLuaBasedProxyManager}
+     *
+     * @param jedisCluster
+     *
+     * @return new instance of {@link JedisLuaBasedProxyManagerBuilder}
+     */
+    public static JedisLuaBasedProxyManagerBuilder<byte[]> luaBasedBuilder(JedisCluster jedisCluster) {
+        return new JedisLuaBasedProxyManagerBuilder<>(Mapper.BYTES, redisApi(jedisCluster));
+    }
+
+    private static RedisApi redisApi(Pool<Jedis> jedisPool) {
         Objects.requireNonNull(jedisPool);
-        RedisApi redisApi = new RedisApi() {
+        return new RedisApi() {
             @Override
             public Object eval(byte[] script, int keyCount, byte[]... params) {
                 try (Jedis jedis = jedisPool.getResource()) {
-                    return jedis.eval(script, 1, params);
+                    return jedis.eval(script, keyCount, params);
+                }
+            }
+            @Override
+            public Object evalScript(RedisScript script, int keyCount, byte[]... params) {
+                try (Jedis jedis = jedisPool.getResource()) {
+                    return script.evaluate(
+                        () -> jedis.evalsha(script.getSha1Bytes(), keyCount, params),
+                        () -> jedis.eval(script.getSourceBytes(), keyCount, params)
+                    );
                 }
             }
             @Override
@@ -63,24 +137,50 @@ public class Bucket4jJedis {
                     jedis.del(key);
                 }
             }
+            @Override
+            public List<byte[]> mget(byte[]... keys) {
+                try (Jedis jedis = jedisPool.getResource()) {
+                    return jedis.mget(keys);
+                }
+            }
+            @Override
+            public boolean isPipeliningSupported() {
+                return true;
+            }
+            @Override
+            public List<byte[]> getPipelined(List<byte[]> keys) {
+                try (Jedis jedis = jedisPool.getResource()) {
+                    return JedisPipelines.get(jedis.pipelined(), keys);
+                }
+            }
+            @Override
+            public List<Object> evalScriptPipelined(List<RedisScript> scripts, int keyCount, List<byte[][]> params) {
+                List<Response<Object>> responses;
+                try (Jedis jedis = jedisPool.getResource()) {
+                    responses = JedisPipelines.evalSha(jedis.pipelined(), scripts, keyCount, params);
+                }
+                return JedisPipelines.evalScriptResults(this, responses, scripts, keyCount, params);
+            }
         };
-        return new JedisBasedProxyManagerBuilder<>(Mapper.BYTES, redisApi);
     }
 
-    /**
-     * Returns the builder for {@link JedisBasedProxyManager}
-     *
-     * @param unifiedJedis
-     *
-     * @return new instance of {@link JedisBasedProxyManagerBuilder}
-     */
-    public static JedisBasedProxyManagerBuilder<byte[]> casBasedBuilder(UnifiedJedis unifiedJedis) {
+    private static RedisApi redisApi(UnifiedJedis unifiedJedis) {
         Objects.requireNonNull(unifiedJedis);
-        RedisApi redisApi = new RedisApi() {
+        return new RedisApi() {
+            // becomes true when connection provider of client does not support pipelining
+            private volatile boolean pipeliningUnsupported;
+
             @Override
             public Object eval(byte[] script, int keyCount, byte[]... params) {
                 return unifiedJedis.eval(script, keyCount, params);
             }
+            @Override
+            public Object evalScript(RedisScript script, int keyCount, byte[]... params) {
+                return script.evaluate(
+                    () -> unifiedJedis.evalsha(script.getSha1Bytes(), keyCount, params),
+                    () -> unifiedJedis.eval(script.getSourceBytes(), keyCount, params)
+                );
+            }
 
             @Override
             public byte[] get(byte[] key) {
@@ -91,26 +191,64 @@ public class Bucket4jJedis {
             public void delete(byte[] key) {
                 unifiedJedis.del(key);
             }
+
+            @Override
+            public List<byte[]> mget(byte[]... keys) {
+                return unifiedJedis.mget(keys);
+            }
+
+            @Override
+            public boolean isPipeliningSupported() {
+                return !pipeliningUnsupported;
+            }
+
+            @Override
+            public List<byte[]> getPipelined(List<byte[]> keys) {
+                Object pipeline = pipelined(unifiedJedis);
+                if (pipeline == null) {
+                    pipeliningUnsupported = true;
+                    return RedisApi.super.getPipelined(keys);
+                }
+                return JedisPipelines.get(pipeline, keys);
+            }
+
+            @Override
+            public List<Object> evalScriptPipelined(List<RedisScript> scripts, int keyCount, List<byte[][]> params) {
+                Object pipeline = pipelined(unifiedJedis);
+                if (pipeline == null) {
+                    pipeliningUnsupported = true;
+                    return RedisApi.super.evalScriptPipelined(scripts, keyCount, params);
+                }
+                List<Response<Object>> responses = JedisPipelines.evalSha(pipeline, scripts, keyCount, params);
+                return JedisPipelines.evalScriptResults(this, responses, scripts, keyCount, params);
+            }
         };
-        return new JedisBasedProxyManagerBuilder<>(Mapper.BYTES, redisApi);
+    }
 
+    private static Object pipelined(UnifiedJedis unifiedJedis) {
+        try {
+            return unifiedJedis.pipelined();
+        } catch (IllegalStateException e) {
+            // connection provider of client does not support pipelining, commands are sent one by one
+            return null;
+        }
     }
 
-    /**
-     * Returns the builder for {@link JedisBasedProxyManager}
-     *
-     * @param jedisCluster
-     *
-     * @return new instance of {@link JedisBasedProxyManagerBuilder}
-     */
-    public static JedisBasedProxyManagerBuilder<byte[]> casBasedBuilder(JedisCluster jedisCluster) {
+    private static RedisApi redisApi(JedisCluster jedisCluster) {
         Objects.requireNonNull(jedisCluster);
-        RedisApi redisApi = new RedisApi() {
+        return new RedisApi() {
             @Override
             public Object eval(byte[] script, int keyCount, byte[]... params) {
                 return jedisCluster.eval(script, keyCount, params);
             }
             @Override
+            public Object evalScript(RedisScript script, int keyCount, byte[]... params) {
+                return script.evaluate(
+                    () -> jedisCluster.evalsha(script.getSha1Bytes(), keyCount, params),
+                    () -> jedisCluster.eval(script.getSourceBytes(), keyCount, params)
+                );
+            }
+            @Override
             public byte[] get(byte[] key) {
                 return jedisCluster.get(key);
             }
@@ -118,14 +256,32 @@ public class Bucket4jJedis {
             public void delete(byte[] key) {
                 jedisCluster.del(key);
             }
+            @Override
+            public List<byte[]> mget(byte[]... keys) {
+                return jedisCluster.mget(keys);
+            }
+            @Override
+            public boolean isPipeliningSupported() {
+                return true;
+            }
+            @Override
+            public List<byte[]> getPipelined(List<byte[]> keys) {
+                return JedisPipelines.get(jedisCluster.pipelined(), keys);
+            }
+            @Override
+            public List<Object> evalScriptPipelined(List<RedisScript> scripts, int keyCount, List<byte[][]> params) {
+                List<Response<Object>> responses = JedisPipelines.evalSha(jedisCluster.pipelined(), scripts, keyCount, params);
+                return JedisPipelines.evalScriptResults(this, responses, scripts, keyCount, params);
+            }
         };
-        return new JedisBasedProxyManagerBuilder<>(Mapper.BYTES, redisApi);
     }
 
     public static class JedisBasedProxyManagerBuilder<K> extends AbstractProxyManagerBuilder<K, JedisBasedProxyManager<K>, JedisBasedProxyManagerBuilder<K>> {
 
         final RedisApi redisApi;
         Mapper<K> keyMapper;
+        private boolean versionStamping;
+        private Executor asyncExecutor;
 
         public JedisBasedProxyManagerBuilder(Mapper<K> keyMapper, RedisApi redisApi) {
             this.redisApi = redisApi;
@@ -157,6 +313,110 @@ public class Bucket4jJedis {
             return redisApi;
         }
 
+        /**
+         * Enables version stamping of stored values, see {@link VersionStamps}.
+         * Compare-and-swap sends to Redis only the stamp of original value instead of whole original value.
+         *
+         * <p>
+         * Values written without stamp are still processed by comparing whole value, so stamping can be enabled for already populated Redis.
+         * But stamped values can not be read by previous versions of Bucket4j, so all clients should be upgraded before stamping is enabled.
+         *
+         * @return this builder instance
+         */
+        public JedisBasedProxyManagerBuilder<K> versionStamping() {
+            this.versionStamping = true;
+            return this;
+        }
+
+        public boolean isVersionStampingEnabled() {
+            return versionStamping;
+        }
+
+        /**
+         * Specifies the executor which performs blocking Redis commands on behalf of asynchronous API, see {@link JedisBasedProxyManager#asAsync()}.
+         *
+         * <p>
+         * By default the shared executor from {@link JedisAsyncExecutor#getDefault()} is used.
+         * Asynchronous commands which are issued concurrently are sent by pipelines, see {@link JedisAsyncPipeline},
+         * so each thread of executor and each connection of client serve many commands per round-trip.
+         * Enable {@link #crossKeyBatching(int)} in addition, in order to also coalesce the state transitions of concurrent requests for different keys.
+         *
+         * @param asyncExecutor the executor for blocking Redis commands
+         *
+         * @return this builder instance
+         */
+        public JedisBasedProxyManagerBuilder<K> asyncExecutor(Executor asyncExecutor) {
+            this.asyncExecutor = Objects.requireNonNull(asyncExecutor);
+            return this;
+        }
+
+        public Executor getAsyncExecutor() {
+            return asyncExecutor != null ? asyncExecutor : JedisAsyncExecutor.getDefault();
+        }
+
+        @Override
+        public boolean isExpireAfterWriteSupported() {
+            return true;
+        }
+    }
+
+    public static class JedisLuaBasedProxyManagerBuilder<K> extends AbstractProxyManagerBuilder<K, JedisLuaBasedProxyManager<K>, JedisLuaBasedProxyManagerBuilder<K>> {
+
+        final RedisApi redisApi;
+        Mapper<K> keyMapper;
+        private Executor asyncExecutor;
+
+        public JedisLuaBasedProxyManagerBuilder(Mapper<K> keyMapper, RedisApi redisApi) {
+            this.redisApi = redisApi;
+            this.keyMapper = Objects.requireNonNull(keyMapper);
+        }
+
+        @Override
+        public JedisLuaBasedProxyManager<K> build() {
+            return new JedisLuaBasedProxyManager<>(this);
+        }
+
+        /**
+         * Specifies the type of key.
+         *
+         * @param keyMapper object responsible for converting primary keys to byte arrays.
+         *
+         * @return this builder instance
+         */
+        public <K2> JedisLuaBasedProxyManagerBuilder<K2> keyMapper(Mapper<K2> keyMapper) {
+            this.keyMapper = (Mapper) Objects.requireNonNull(keyMapper);
+            return (JedisLuaBasedProxyManagerBuilder<K2>) this;
+        }
+
+        public Mapper<K> getKeyMapper() {
+            return keyMapper;
+        }
+
+        public RedisApi getRedisApi() {
+            return redisApi;
+        }
+
+        /**
+         * Specifies the executor which performs blocking Redis commands on behalf of asynchronous API, see {@link JedisLuaBasedProxyManager#asAsync()}.
+         *
+         * <p>
+         * By default the shared executor from {@link JedisAsyncExecutor#getDefault()} is used.
+         * Asynchronous commands which are issued concurrently are sent by pipelines, see {@link JedisAsyncPipeline},
+         * so each thread of executor and each connection of client serve many commands per round-trip.
+         *
+         * @param asyncExecutor the executor for blocking Redis commands
+         *
+         * @return this builder instance
+         */
+        public JedisLuaBasedProxyManagerBuilder<K> asyncExecutor(Executor asyncExecutor) {
+            this.asyncExecutor = Objects.requireNonNull(asyncExecutor);
+            return this;
+        }
+
+        public Executor getAsyncExecutor() {
+            return asyncExecutor != null ? asyncExecutor : JedisAsyncExecutor.getDefault();
+        }
+
         @Override
         public boolean isExpireAfterWriteSupported() {
             return true;
@@ -0,0 +1,87 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.redis.jedis;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provides the default executor for asynchronous API of Jedis based proxy-managers.
+ *
+ * <p>
+ * Jedis does not provide asynchronous API, so commands are executed by blocking calls on dedicated I/O executor,
+ * concurrent commands are grouped into pipelines by {@link JedisAsyncPipeline}.
+ * When JVM supports virtual threads then each command is executed on new virtual thread,
+ * otherwise commands are executed on bounded pool of daemon platform threads, see {@link #MAX_PLATFORM_THREADS},
+ * commands which are submitted when all threads are busy wait in the queue of executor.
+ * Virtual threads are detected in runtime, because Bucket4j is compiled against Java 17 where virtual threads are not available.
+ */
+public final class JedisAsyncExecutor {
+
+    /**
+     * The maximum number of platform threads in default executor, when virtual threads are not supported by JVM.
+     */
+    public static final int MAX_PLATFORM_THREADS = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
+
+    private JedisAsyncExecutor() {
+    }
+
+    /**
+     * Returns the executor shared by all Jedis based proxy-managers which were built without explicitly specified executor.
+     * Executor is created on first call and is never shut down, threads of executor do not prevent JVM from exit.
+     *
+     * @return the default executor
+     */
+    public static Executor getDefault() {
+        return DefaultExecutorHolder.EXECUTOR;
+    }
+
+    private static class DefaultExecutorHolder {
+
+        private static final Executor EXECUTOR = createDefaultExecutor();
+
+        private static Executor createDefaultExecutor() {
+            try {
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // virtual threads are not supported by JVM
+            }
+            AtomicInteger threadCounter = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_PLATFORM_THREADS, MAX_PLATFORM_THREADS,
+                60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "bucket4j-jedis-io-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            // idle threads are released in the same way as cached pool does
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+
+    }
+
+}
@@ -0,0 +1,211 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.redis.jedis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import io.github.bucket4j.redis.script.RedisScript;
+
+/**
+ * Sends commands of asynchronous API of Jedis based proxy-managers by pipelines.
+ *
+ * <p>
+ * Jedis provides only blocking API, so if each asynchronous command was executed by separate blocking call,
+ * then each command would occupy a connection and a thread of I/O executor for whole round-trip.
+ * Instead, commands are put into queue that is drained by at most {@link #MAX_PARALLEL_PIPELINES} tasks on I/O executor,
+ * each task takes up to {@link #MAX_PIPELINE_SIZE} commands and sends them through single connection by one pipeline, see {@link RedisApi#getPipelined(List)}.
+ * Command is never delayed in order to wait for companions: when load is low each command is sent alone,
+ * when load is high commands that were issued while previous pipelines were in flight are sent together.
+ *
+ * <p>
+ * Each command is completed independently, but when pipeline fails all commands of this pipeline are completed by the same error.
+ */
+public final class JedisAsyncPipeline {
+
+    /**
+     * The maximum number of commands which are sent by one pipeline.
+     */
+    public static final int MAX_PIPELINE_SIZE = 256;
+
+    /**
+     * The maximum number of pipelines of the same kind which are in flight at the same time,
+     * it is equal to default size of Jedis connection pool.
+     */
+    public static final int MAX_PARALLEL_PIPELINES = 8;
+
+    private final CommandQueue<byte[], byte[]> gets;
+    private final CommandQueue<ScriptInvocation, Object> scripts;
+
+    /**
+     * @param redisApi the API which executes pipelines, it should support pipelining, see {@link RedisApi#isPipeliningSupported()}
+     * @param executor the executor which performs blocking Redis commands
+     */
+    public JedisAsyncPipeline(RedisApi redisApi, Executor executor) {
+        this.gets = new CommandQueue<>(executor, redisApi::getPipelined);
+        this.scripts = new CommandQueue<>(executor, invocations -> {
+            List<RedisScript> invokedScripts = new ArrayList<>(invocations.size());
+            List<byte[][]> params = new ArrayList<>(invocations.size());
+            for (ScriptInvocation invocation : invocations) {
+                invokedScripts.add(invocation.script);
+                params.add(invocation.keyAndArgs);
+            }
+            return redisApi.evalScriptPipelined(invokedScripts, 1, params);
+        });
+    }
+
+    /**
+     * Reads value of key.
+     *
+     * @param key the key
+     *
+     * @return the future which will be completed by value of key, or by null if key does not exist
+     */
+    public CompletableFuture<byte[]> get(byte[] key) {
+        return gets.submit(key);
+    }
+
+    /**
+     * Evaluates script that accesses single key.
+     *
+     * @param script the script
+     * @param keyAndArgs the key followed by arguments of script
+     *
+     * @return the future which will be completed by result of script
+     */
+    public CompletableFuture<Object> evalScript(RedisScript script, byte[][] keyAndArgs) {
+        return scripts.submit(new ScriptInvocation(script, keyAndArgs));
+    }
+
+    private static final class ScriptInvocation {
+
+        private final RedisScript script;
+        private final byte[][] keyAndArgs;
+
+        private ScriptInvocation(RedisScript script, byte[][] keyAndArgs) {
+            this.script = script;
+            this.keyAndArgs = keyAndArgs;
+        }
+
+    }
+
+    private static final class PendingCommand<C, R> {
+
+        private final C command;
+        private final CompletableFuture<R> future = new CompletableFuture<>();
+
+        private PendingCommand(C command) {
+            this.command = command;
+        }
+
+    }
+
+    private static final class CommandQueue<C, R> {
+
+        private final Queue<PendingCommand<C, R>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger activeDrainers = new AtomicInteger();
+        private final Executor executor;
+        private final Function<List<C>, List<R>> pipeline;
+
+        private CommandQueue(Executor executor, Function<List<C>, List<R>> pipeline) {
+            this.executor = executor;
+            this.pipeline = pipeline;
+        }
+
+        CompletableFuture<R> submit(C command) {
+            PendingCommand<C, R> pendingCommand = new PendingCommand<>(command);
+            queue.add(pendingCommand);
+            startDrainerIfNeeded();
+            return pendingCommand.future;
+        }
+
+        private void startDrainerIfNeeded() {
+            while (true) {
+                int drainers = activeDrainers.get();
+                if (drainers >= MAX_PARALLEL_PIPELINES || queue.isEmpty()) {
+                    return;
+                }
+                if (activeDrainers.compareAndSet(drainers, drainers + 1)) {
+                    break;
+                }
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (RuntimeException e) {
+                // executor rejected the task, so commands that are not taken by other drainers would never be sent
+                activeDrainers.decrementAndGet();
+                List<PendingCommand<C, R>> rejectedCommands = poll(Integer.MAX_VALUE);
+                for (PendingCommand<C, R> rejectedCommand : rejectedCommands) {
+                    rejectedCommand.future.completeExceptionally(e);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                List<PendingCommand<C, R>> pendingCommands = poll(MAX_PIPELINE_SIZE);
+                while (!pendingCommands.isEmpty()) {
+                    execute(pendingCommands);
+                    pendingCommands = poll(MAX_PIPELINE_SIZE);
+                }
+            } finally {
+                activeDrainers.decrementAndGet();
+            }
+            // command can be added after the queue was observed as empty, but before this drainer was deregistered
+            startDrainerIfNeeded();
+        }
+
+        private List<PendingCommand<C, R>> poll(int maxCount) {
+            List<PendingCommand<C, R>> pendingCommands = new ArrayList<>();
+            PendingCommand<C, R> pendingCommand;
+            while (pendingCommands.size() < maxCount && (pendingCommand = queue.poll()) != null) {
+                pendingCommands.add(pendingCommand);
+            }
+            return pendingCommands;
+        }
+
+        private void execute(List<PendingCommand<C, R>> pendingCommands) {
+            List<R> results;
+            try {
+                List<C> commands = new ArrayList<>(pendingCommands.size());
+                for (PendingCommand<C, R> pendingCommand : pendingCommands) {
+                    commands.add(pendingCommand.command);
+                }
+                results = pipeline.apply(commands);
+            } catch (Throwable e) {
+                for (PendingCommand<C, R> pendingCommand : pendingCommands) {
+                    pendingCommand.future.completeExceptionally(e);
+                }
+                return;
+            }
+            for (int i = 0; i < pendingCommands.size(); i++) {
+                pendingCommands.get(i).future.complete(results.get(i));
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,116 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.redis.jedis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import io.github.bucket4j.redis.script.RedisScript;
+import redis.clients.jedis.MultiNodePipelineBase;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.commands.PipelineBinaryCommands;
+
+/**
+ * Sends several commands to Redis by one pipeline.
+ *
+ * <p>
+ * Standalone pipeline writes all commands to single connection and reads all replies after that,
+ * so whole batch costs one round-trip instead of one round-trip per command.
+ * Cluster pipeline groups commands by node that serves the hash slot of key, and uses one connection per node.
+ */
+final class JedisPipelines {
+
+    private JedisPipelines() {
+    }
+
+    /**
+     * Reads values of keys, pipeline is synchronized and closed before return.
+     *
+     * @param pipeline the pipeline obtained from {@code pipelined()} method of Jedis client
+     * @param keys keys to read
+     *
+     * @return values of keys
+     */
+    static List<byte[]> get(Object pipeline, List<byte[]> keys) {
+        List<Response<byte[]>> responses = execute(pipeline, commands -> {
+            List<Response<byte[]>> keyResponses = new ArrayList<>(keys.size());
+            for (byte[] key : keys) {
+                keyResponses.add(commands.get(key));
+            }
+            return keyResponses;
+        });
+        List<byte[]> values = new ArrayList<>(responses.size());
+        for (Response<byte[]> response : responses) {
+            values.add(response.get());
+        }
+        return values;
+    }
+
+    /**
+     * Invokes scripts via EVALSHA, pipeline is synchronized and closed before return.
+     * Replies are resolved lazily by {@link #evalScriptResults(RedisApi, List, List, int, List)},
+     * that should be called after connection of pipeline is released, because it can invoke scripts which are not known by Redis via regular API.
+     *
+     * @param pipeline the pipeline obtained from {@code pipelined()} method of Jedis client
+     * @param scripts scripts to invoke
+     * @param keyCount count of keys in parameters of each invocation
+     * @param params keys and arguments of each invocation
+     *
+     * @return not resolved replies
+     */
+    static List<Response<Object>> evalSha(Object pipeline, List<RedisScript> scripts, int keyCount, List<byte[][]> params) {
+        return execute(pipeline, commands -> {
+            List<Response<Object>> responses = new ArrayList<>(scripts.size());
+            for (int i = 0; i < scripts.size(); i++) {
+                responses.add(commands.evalsha(scripts.get(i).getSha1Bytes(), keyCount, params.get(i)));
+            }
+            return responses;
+        });
+    }
+
+    static List<Object> evalScriptResults(RedisApi redisApi, List<Response<Object>> responses, List<RedisScript> scripts, int keyCount, List<byte[][]> params) {
+        List<Object> results = new ArrayList<>(responses.size());
+        for (int i = 0; i < responses.size(); i++) {
+            RedisScript script = scripts.get(i);
+            byte[][] scriptParams = params.get(i);
+            // script is loaded on demand by regular invocation when node does not know it
+            results.add(script.evaluate(responses.get(i)::get, () -> redisApi.evalScript(script, keyCount, scriptParams)));
+        }
+        return results;
+    }
+
+    private static <T> List<Response<T>> execute(Object pipeline, Function<PipelineBinaryCommands, List<Response<T>>> commands) {
+        // pipelines of Jedis do not share interface that describes synchronization, closing synchronizes both kinds of pipeline
+        if (pipeline instanceof Pipeline standalonePipeline) {
+            try (standalonePipeline) {
+                return commands.apply(standalonePipeline);
+            }
+        } else if (pipeline instanceof MultiNodePipelineBase multiNodePipeline) {
+            try (multiNodePipeline) {
+                return commands.apply(multiNodePipeline);
+            }
+        } else {
+            throw new IllegalStateException("Unsupported pipeline " + pipeline.getClass());
+        }
+    }
+
+}
@@ -19,12 +19,71 @@
  */
 package io.github.bucket4j.redis.jedis;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import io.github.bucket4j.redis.script.RedisScript;
+
 public interface RedisApi {
 
     Object eval(final byte[] script, final int keyCount, final byte[]... params);
 
+    /**
+     * Evaluates registered script, implementations provided by Bucket4j invoke script via EVALSHA,
+     * default implementation sends whole source of script via {@link #eval(byte[], int, byte[]...)}.
+     */
+    default Object evalScript(RedisScript script, int keyCount, byte[]... params) {
+        return eval(script.getSourceBytes(), keyCount, params);
+    }
+
     byte[] get(byte[] key);
 
     void delete(byte[] key);
 
+    default List<byte[]> mget(byte[]... keys) {
+        List<byte[]> values = new ArrayList<>(keys.length);
+        for (byte[] key : keys) {
+            values.add(get(key));
+        }
+        return values;
+    }
+
+    /**
+     * Returns whether {@link #getPipelined(List)} and {@link #evalScriptPipelined(List, int, List)} send all commands through single connection at once.
+     * Asynchronous API of Jedis based proxy-managers sends concurrent commands by pipelines only when pipelining is supported, see {@link JedisAsyncPipeline}.
+     *
+     * @return true if pipelined methods are implemented by pipelines, default implementation returns false
+     */
+    default boolean isPipeliningSupported() {
+        return false;
+    }
+
+    /**
+     * Reads values of several keys by one pipeline, implementations provided by Bucket4j send all commands through single connection at once,
+     * default implementation reads each key via {@link #get(byte[])}.
+     *
+     * <p>
+     * In contrast to {@link #mget(byte[]...)} keys are not required to belong to the same hash slot.
+     */
+    default List<byte[]> getPipelined(List<byte[]> keys) {
+        List<byte[]> values = new ArrayList<>(keys.size());
+        for (byte[] key : keys) {
+            values.add(get(key));
+        }
+        return values;
+    }
+
+    /**
+     * Evaluates registered scripts by one pipeline, elements of both lists describe the same invocation,
+     * default implementation invokes each script via {@link #evalScript(RedisScript, int, byte[]...)}.
+     * If any invocation fails then exception is thrown, results of other invocations are lost in such case.
+     */
+    default List<Object> evalScriptPipelined(List<RedisScript> scripts, int keyCount, List<byte[][]> params) {
+        List<Object> results = new ArrayList<>(scripts.size());
+        for (int i = 0; i < scripts.size(); i++) {
+            results.add(evalScript(scripts.get(i), keyCount, params.get(i)));
+        }
+        return results;
+    }
+
 }
@@ -21,30 +21,54 @@
 package io.github.bucket4j.redis.jedis.cas;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
 import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncBatchCompareAndSwapOperation;
 import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
 import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.MultiKeyCompareAndSwapOperation;
 import io.github.bucket4j.distributed.remote.RemoteBucketState;
 import io.github.bucket4j.distributed.serialization.Mapper;
 import io.github.bucket4j.redis.AbstractRedisProxyManagerBuilder;
+import io.github.bucket4j.redis.cas.VersionStamps;
 import io.github.bucket4j.redis.consts.LuaScripts;
 import io.github.bucket4j.redis.jedis.Bucket4jJedis;
+import io.github.bucket4j.redis.jedis.JedisAsyncExecutor;
+import io.github.bucket4j.redis.jedis.JedisAsyncPipeline;
 import io.github.bucket4j.redis.jedis.RedisApi;
+import io.github.bucket4j.redis.script.RedisScript;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisCluster;
 import redis.clients.jedis.UnifiedJedis;
 import redis.clients.jedis.util.Pool;
 
+/**
+ * Compare-and-swap based proxy-manager for Jedis.
+ *
+ * <p>
+ * Jedis provides only blocking API, so asynchronous API of this proxy-manager executes blocking commands on dedicated I/O executor,
+ * see {@link Bucket4jJedis.JedisBasedProxyManagerBuilder#asyncExecutor(Executor)}.
+ * Concurrent asynchronous commands are sent by pipelines, see {@link JedisAsyncPipeline}, so many concurrent requests share single connection and single round-trip.
+ * When cross-key batching is enabled, requests for different keys are also read and swapped together.
+ *
+ * @param <K> type of key
+ */
 public class JedisBasedProxyManager<K> extends AbstractCompareAndSwapBasedProxyManager<K> {
 
     private final RedisApi redisApi;
     private final ExpirationAfterWriteStrategy expirationStrategy;
+    private final boolean versionStamping;
     private final Mapper<K> keyMapper;
+    private final Executor asyncExecutor;
+    private final JedisAsyncPipeline asyncPipeline;
 
     /**
      * @deprecated use {@link Bucket4jJedis#casBasedBuilder(Pool)}
@@ -56,7 +80,16 @@ public class JedisBasedProxyManager<K> extends AbstractCompareAndSwapBasedProxyM
             @Override
             public Object eval(byte[] script, int keyCount, byte[]... params) {
                 try (Jedis jedis = jedisPool.getResource()) {
-                    return jedis.eval(script, 1, params);
+                    return jedis.eval(script, keyCount, params);
+                }
+            }
+            @Override
+            public Object evalScript(RedisScript script, int keyCount, byte[]... params) {
+                try (Jedis jedis = jedisPool.getResource()) {
+                    return script.evaluate(
+                        () -> jedis.evalsha(script.getSha1Bytes(), keyCount, params),
+                        () -> jedis.eval(script.getSourceBytes(), keyCount, params)
+                    );
                 }
             }
             @Override
@@ -86,6 +119,13 @@ public class JedisBasedProxyManager<K> extends AbstractCompareAndSwapBasedProxyM
             public Object eval(byte[] script, int keyCount, byte[]... params) {
                 return unifiedJedis.eval(script, keyCount, params);
             }
+            @Override
+            public Object evalScript(RedisScript script, int keyCount, byte[]... params) {
+                return script.evaluate(
+                    () -> unifiedJedis.evalsha(script.getSha1Bytes(), keyCount, params),
+                    () -> unifiedJedis.eval(script.getSourceBytes(), keyCount, params)
+                );
+            }
 
             @Override
             public byte[] get(byte[] key) {
@@ -104,6 +144,7 @@ public class JedisBasedProxyManager<K> extends AbstractCompareAndSwapBasedProxyM
     /**
      * @deprecated use {@link Bucket4jJedis#casBasedBuilder(JedisCluster)}
      */
+    @Deprecated
     public static JedisBasedProxyManagerBuilder<byte[]> builderFor(JedisCluster jedisCluster) {
         Objects.requireNonNull(jedisCluster);
         RedisApi redisApi = new RedisApi() {
@@ -112,6 +153,13 @@ public class JedisBasedProxyManager<K> extends AbstractCompareAndSwapBasedProxyM
                 return jedisCluster.eval(script, keyCount, params);
             }
             @Override
+            public Object evalScript(RedisScript script, int keyCount, byte[]... params) {
+                return script.evaluate(
+                    () -> jedisCluster.evalsha(script.getSha1Bytes(), keyCount, params),
+                    () -> jedisCluster.eval(script.getSourceBytes(), keyCount, params)
+                );
+            }
+            @Override
             public byte[] get(byte[] key) {
                 return jedisCluster.get(key);
             }
@@ -154,6 +202,9 @@ public class JedisBasedProxyManager<K> extends AbstractCompareAndSwapBasedProxyM
         this.keyMapper = builder.getKeyMapper();
         this.expirationStrategy = builder.getExpirationAfterWrite().orElse(ExpirationAfterWriteStrategy.none());
         this.redisApi = builder.getRedisApi();
+        this.versionStamping = builder.isVersionStampingEnabled();
+        this.asyncExecutor = builder.getAsyncExecutor();
+        this.asyncPipeline = new JedisAsyncPipeline(redisApi, asyncExecutor);
     }
 
     private JedisBasedProxyManager(JedisBasedProxyManagerBuilder<K> builder) {
@@ -161,6 +212,9 @@ public class JedisBasedProxyManager<K> extends AbstractCompareAndSwapBasedProxyM
         this.redisApi = builder.redisApi;
         this.expirationStrategy = builder.getNotNullExpirationStrategy();
         this.keyMapper = builder.keyMapper;
+        this.versionStamping = false;
+        this.asyncExecutor = JedisAsyncExecutor.getDefault();
+        this.asyncPipeline = new JedisAsyncPipeline(redisApi, asyncExecutor);
     }
 
     @Override
@@ -179,9 +233,104 @@ public class JedisBasedProxyManager<K> extends AbstractCompareAndSwapBasedProxyM
         };
     }
 
+    @Override
+    protected boolean isAtomicMultiKeyConsumptionSupported() {
+        return true;
+    }
+
+    /**
+     * Keys are read and swapped by single MGET and single script invocation,
+     * so in case of Redis Cluster all keys must belong to the same hash slot, which can be achieved via hash tags.
+     */
+    @Override
+    protected MultiKeyCompareAndSwapOperation beginMultiKeyCompareAndSwapOperation(List<K> keys) {
+        byte[][] keysBytes = new byte[keys.size()][];
+        for (int i = 0; i < keys.size(); i++) {
+            keysBytes[i] = keyMapper.toBytes(keys.get(i));
+        }
+        return new MultiKeyCompareAndSwapOperation() {
+            @Override
+            public List<byte[]> getStateData(Optional<Long> timeoutNanos) {
+                return redisApi.mget(keysBytes);
+            }
+
+            @Override
+            public boolean compareAndSwap(List<byte[]> originalData, List<byte[]> newData, List<RemoteBucketState> newStates, Optional<Long> timeoutNanos) {
+                return JedisBasedProxyManager.this.compareAndSwap(keysBytes, originalData, newData, newStates);
+            }
+        };
+    }
+
     @Override
     protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(K key) {
-        throw new UnsupportedOperationException();
+        byte[] keyBytes = keyMapper.toBytes(key);
+        return new AsyncCompareAndSwapOperation() {
+            @Override
+            public CompletableFuture<Optional<byte[]>> getStateData(Optional<Long> timeoutNanos) {
+                if (redisApi.isPipeliningSupported()) {
+                    return convertToCompletableFuture(asyncPipeline.get(keyBytes).thenApply(Optional::ofNullable), timeoutNanos);
+                }
+                return convertToCompletableFuture(CompletableFuture.supplyAsync(() -> Optional.ofNullable(redisApi.get(keyBytes)), asyncExecutor), timeoutNanos);
+            }
+
+            @Override
+            public CompletableFuture<Boolean> compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState, Optional<Long> timeoutNanos) {
+                if (redisApi.isPipeliningSupported()) {
+                    long ttlMillis = expirationStrategy.calculateTimeToLiveMillis(newState, currentTimeNanos());
+                    RedisScript script = compareAndSwapScript(originalData, ttlMillis);
+                    byte[][] keysAndArgs = compareAndSwapKeysAndArgs(keyBytes, originalData, newData, ttlMillis);
+                    return convertToCompletableFuture(asyncPipeline.evalScript(script, keysAndArgs).thenApply(JedisBasedProxyManager::isSwapped), timeoutNanos);
+                }
+                return convertToCompletableFuture(CompletableFuture.supplyAsync(() -> JedisBasedProxyManager.this.compareAndSwap(keyBytes, originalData, newData, newState), asyncExecutor), timeoutNanos);
+            }
+        };
+    }
+
+    /**
+     * Reads and swaps all keys by single pipeline, which is executed on I/O executor.
+     * In case of Redis Cluster keys are not required to belong to the same hash slot, the pipeline uses one connection per node.
+     */
+    @Override
+    protected AsyncBatchCompareAndSwapOperation beginAsyncBatchCompareAndSwapOperation(List<K> keys) {
+        List<byte[]> keysBytes = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            keysBytes.add(keyMapper.toBytes(key));
+        }
+        return new AsyncBatchCompareAndSwapOperation() {
+            @Override
+            public List<CompletableFuture<Optional<byte[]>>> getStateData(Optional<Long> timeoutNanos) {
+                CompletableFuture<List<byte[]>> statesFuture = convertToCompletableFuture(CompletableFuture.supplyAsync(() -> redisApi.getPipelined(keysBytes), asyncExecutor), timeoutNanos);
+                List<CompletableFuture<Optional<byte[]>>> results = new ArrayList<>(keysBytes.size());
+                for (int i = 0; i < keysBytes.size(); i++) {
+                    int position = i;
+                    results.add(statesFuture.thenApply(states -> Optional.ofNullable(states.get(position))));
+                }
+                return results;
+            }
+
+            @Override
+            public List<CompletableFuture<Boolean>> compareAndSwap(List<Integer> positions, List<byte[]> originalData, List<byte[]> newData, List<RemoteBucketState> newStates, Optional<Long> timeoutNanos) {
+                List<RedisScript> scripts = new ArrayList<>(positions.size());
+                List<byte[][]> keysAndArgs = new ArrayList<>(positions.size());
+                for (int i = 0; i < positions.size(); i++) {
+                    long ttlMillis = expirationStrategy.calculateTimeToLiveMillis(newStates.get(i), currentTimeNanos());
+                    scripts.add(compareAndSwapScript(originalData.get(i), ttlMillis));
+                    keysAndArgs.add(compareAndSwapKeysAndArgs(keysBytes.get(positions.get(i)), originalData.get(i), newData.get(i), ttlMillis));
+                }
+                CompletableFuture<List<Object>> swapsFuture = convertToCompletableFuture(CompletableFuture.supplyAsync(() -> redisApi.evalScriptPipelined(scripts, 1, keysAndArgs), asyncExecutor), timeoutNanos);
+                List<CompletableFuture<Boolean>> results = new ArrayList<>(positions.size());
+                for (int i = 0; i < positions.size(); i++) {
+                    int index = i;
+                    results.add(swapsFuture.thenApply(swaps -> isSwapped(swaps.get(index))));
+                }
+                return results;
+            }
+        };
+    }
+
+    @Override
+    protected boolean isBatchCompareAndSwapSupported() {
+        return true;
     }
 
     @Override
@@ -191,41 +340,114 @@ public class JedisBasedProxyManager<K> extends AbstractCompareAndSwapBasedProxyM
 
     @Override
     protected CompletableFuture<Void> removeAsync(K key) {
-        throw new UnsupportedOperationException();
+        byte[] keyBytes = keyMapper.toBytes(key);
+        return CompletableFuture.runAsync(() -> redisApi.delete(keyBytes), asyncExecutor);
+    }
+
+    @Override
+    protected byte[] toStateBytes(byte[] storedData) {
+        return VersionStamps.toStateBytes(storedData);
+    }
+
+    @Override
+    protected byte[] toStoredData(byte[] originalStoredData, byte[] stateBytes) {
+        return versionStamping ? VersionStamps.toStampedData(originalStoredData, stateBytes) : stateBytes;
+    }
+
+    @Override
+    protected boolean isLastSeenStateCacheSupported() {
+        return true;
     }
 
     @Override
     public boolean isAsyncModeSupported() {
-        return false;
+        return true;
     }
 
     private Boolean compareAndSwap(byte[] key, byte[] originalData, byte[] newData, RemoteBucketState newState) {
         long ttlMillis = expirationStrategy.calculateTimeToLiveMillis(newState, currentTimeNanos());
+        Object res = redisApi.evalScript(compareAndSwapScript(originalData, ttlMillis), 1, compareAndSwapKeysAndArgs(key, originalData, newData, ttlMillis));
+        return isSwapped(res);
+    }
+
+    private RedisScript compareAndSwapScript(byte[] originalData, long ttlMillis) {
         if (ttlMillis > 0) {
             if (originalData == null) {
                 // nulls are prohibited as values, so "replace" must not be used in such cases
-                byte[][] keysAndArgs = {key, newData, encodeLong(ttlMillis)};
-                Object res = redisApi.eval(LuaScripts.SCRIPT_SET_NX_PX.getBytes(StandardCharsets.UTF_8), 1, keysAndArgs);
-                return res != null && !res.equals(0L);
+                return RedisScript.of(LuaScripts.SCRIPT_SET_NX_PX);
+            } else if (VersionStamps.isStamped(originalData)) {
+                return RedisScript.of(LuaScripts.SCRIPT_COMPARE_STAMP_AND_SWAP_PX);
             } else {
-                byte[][] keysAndArgs = {key, originalData, newData, encodeLong(ttlMillis)};
-                Object res = redisApi.eval(LuaScripts.SCRIPT_COMPARE_AND_SWAP_PX.getBytes(StandardCharsets.UTF_8), 1, keysAndArgs);
-                return res != null && !res.equals(0L);
+                return RedisScript.of(LuaScripts.SCRIPT_COMPARE_AND_SWAP_PX);
             }
         } else {
             if (originalData == null) {
                 // nulls are prohibited as values, so "replace" must not be used in such cases
-                byte[][] keysAndArgs = {key, newData};
-                Object res = redisApi.eval(LuaScripts.SCRIPT_SET_NX.getBytes(StandardCharsets.UTF_8), 1, keysAndArgs);
-                return res != null && !res.equals(0L);
+                return RedisScript.of(LuaScripts.SCRIPT_SET_NX);
+            } else if (VersionStamps.isStamped(originalData)) {
+                return RedisScript.of(LuaScripts.SCRIPT_COMPARE_STAMP_AND_SWAP);
+            } else {
+                return RedisScript.of(LuaScripts.SCRIPT_COMPARE_AND_SWAP);
+            }
+        }
+    }
+
+    private byte[][] compareAndSwapKeysAndArgs(byte[] key, byte[] originalData, byte[] newData, long ttlMillis) {
+        if (ttlMillis > 0) {
+            if (originalData == null) {
+                return new byte[][] {key, newData, encodeLong(ttlMillis)};
+            } else if (VersionStamps.isStamped(originalData)) {
+                return new byte[][] {key, VersionStamps.getStamp(originalData), newData, encodeLong(ttlMillis)};
+            } else {
+                return new byte[][] {key, originalData, newData, encodeLong(ttlMillis)};
+            }
+        } else {
+            if (originalData == null) {
+                return new byte[][] {key, newData};
+            } else if (VersionStamps.isStamped(originalData)) {
+                return new byte[][] {key, VersionStamps.getStamp(originalData), newData};
             } else {
-                byte[][] keysAndArgs = {key, originalData, newData};
-                Object res = redisApi.eval(LuaScripts.SCRIPT_COMPARE_AND_SWAP.getBytes(StandardCharsets.UTF_8), 1, keysAndArgs);
-                return res != null && !res.equals(0L);
+                return new byte[][] {key, originalData, newData};
             }
         }
     }
 
+    private static boolean isSwapped(Object res) {
+        return res != null && !res.equals(0L);
+    }
+
+    private boolean compareAndSwap(byte[][] keys, List<byte[]> originalData, List<byte[]> newData, List<RemoteBucketState> newStates) {
+        byte[][] keysAndArgs = new byte[keys.length * 5][];
+        System.arraycopy(keys, 0, keysAndArgs, 0, keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            int base = keys.length + i * 4;
+            byte[] original = originalData.get(i);
+            long ttlMillis = Math.max(0, expirationStrategy.calculateTimeToLiveMillis(newStates.get(i), currentTimeNanos()));
+            if (original == null) {
+                keysAndArgs[base] = encodeLong(0L);
+                keysAndArgs[base + 1] = new byte[0];
+            } else if (VersionStamps.isStamped(original)) {
+                keysAndArgs[base] = encodeLong(2L);
+                keysAndArgs[base + 1] = VersionStamps.getStamp(original);
+            } else {
+                keysAndArgs[base] = encodeLong(1L);
+                keysAndArgs[base + 1] = original;
+            }
+            keysAndArgs[base + 2] = newData.get(i);
+            keysAndArgs[base + 3] = encodeLong(ttlMillis);
+        }
+        Object res = redisApi.evalScript(RedisScript.of(LuaScripts.SCRIPT_COMPARE_AND_SWAP_MULTIPLE), keys.length, keysAndArgs);
+        return isSwapped(res);
+    }
+
+    private <T> CompletableFuture<T> convertToCompletableFuture(CompletableFuture<T> future, Optional<Long> timeoutNanos) {
+        if (timeoutNanos.isEmpty()) {
+            return future;
+        } else {
+            return future.orTimeout(timeoutNanos.get(), TimeUnit.NANOSECONDS);
+        }
+    }
+
     private byte[] encodeLong(Long value) {
         return ("" + value).getBytes(StandardCharsets.UTF_8);
     }
@@ -0,0 +1,84 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.redis.jedis.lua;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.serialization.Mapper;
+import io.github.bucket4j.redis.jedis.Bucket4jJedis;
+import io.github.bucket4j.redis.jedis.JedisAsyncPipeline;
+import io.github.bucket4j.redis.jedis.RedisApi;
+import io.github.bucket4j.redis.lua.AbstractRedisLuaBasedProxyManager;
+import io.github.bucket4j.redis.script.RedisScript;
+
+public class JedisLuaBasedProxyManager<K> extends AbstractRedisLuaBasedProxyManager<K> {
+
+    private final RedisApi redisApi;
+    private final Mapper<K> keyMapper;
+    private final Executor asyncExecutor;
+    private final JedisAsyncPipeline asyncPipeline;
+
+    public JedisLuaBasedProxyManager(Bucket4jJedis.JedisLuaBasedProxyManagerBuilder<K> builder) {
+        super(builder.getClientSideConfig(), builder.getExpirationAfterWrite().orElse(ExpirationAfterWriteStrategy.none()));
+        this.keyMapper = builder.getKeyMapper();
+        this.redisApi = builder.getRedisApi();
+        this.asyncExecutor = builder.getAsyncExecutor();
+        this.asyncPipeline = new JedisAsyncPipeline(redisApi, asyncExecutor);
+    }
+
+    @Override
+    protected List<byte[]> evalScript(K key, String script, byte[][] args, Optional<Long> timeoutNanos) {
+        return (List<byte[]>) redisApi.evalScript(RedisScript.of(script), 1, keyAndArgs(key, args));
+    }
+
+    @Override
+    protected CompletableFuture<List<byte[]>> evalScriptAsync(K key, String script, byte[][] args, Optional<Long> timeoutNanos) {
+        CompletableFuture<List<byte[]>> future;
+        if (redisApi.isPipeliningSupported()) {
+            future = asyncPipeline.evalScript(RedisScript.of(script), keyAndArgs(key, args)).thenApply(result -> (List<byte[]>) result);
+        } else {
+            future = CompletableFuture.supplyAsync(() -> evalScript(key, script, args, timeoutNanos), asyncExecutor);
+        }
+        if (timeoutNanos.isEmpty()) {
+            return future;
+        } else {
+            return future.orTimeout(timeoutNanos.get(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return true;
+    }
+
+    private byte[][] keyAndArgs(K key, byte[][] args) {
+        byte[][] keyAndArgs = new byte[args.length + 1][];
+        keyAndArgs[0] = keyMapper.toBytes(key);
+        System.arraycopy(args, 0, keyAndArgs, 1, args.length);
+        return keyAndArgs;
+    }
+
+}
@@ -50,6 +50,16 @@ public class JedisBasedProxyManagerClusterTest extends AbstractDistributedBucket
                 "JedisBasedProxyManager_ByteArrayKey",
                 () -> UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8),
                 () -> Bucket4jJedis.casBasedBuilder(jedisCluster)
+            ).checkExpiration(),
+            new ProxyManagerSpec<>(
+                "JedisBasedProxyManager_ByteArrayKey_CrossKeyBatching",
+                () -> UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8),
+                () -> Bucket4jJedis.casBasedBuilder(jedisCluster).crossKeyBatching(16)
+            ).checkExpiration(),
+            new ProxyManagerSpec<>(
+                "JedisLuaBasedProxyManager_ByteArrayKey",
+                () -> UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8),
+                () -> Bucket4jJedis.luaBasedBuilder(jedisCluster)
             ).checkExpiration()
         );
     }
@@ -1,22 +1,36 @@
 package io.github.bucket4j.redis;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
 
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
 import org.testcontainers.containers.GenericContainer;
 
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
 import io.github.bucket4j.distributed.serialization.Mapper;
+import io.github.bucket4j.mock.CompareAndSwapBasedProxyManagerMock;
+import io.github.bucket4j.mock.TimeMeterMock;
 import io.github.bucket4j.redis.jedis.Bucket4jJedis;
 import io.github.bucket4j.tck.AbstractDistributedBucketTest;
 import io.github.bucket4j.tck.ProxyManagerSpec;
 import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPooled;
 import redis.clients.jedis.UnifiedJedis;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 public class JedisBasedProxyManagerStandaloneTest extends AbstractDistributedBucketTest {
 
     private static GenericContainer container;
@@ -43,6 +57,21 @@ public class JedisBasedProxyManagerStandaloneTest extends AbstractDistributedBuc
                 () -> UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8),
                 () -> Bucket4jJedis.casBasedBuilder(jedisPool)
             ).checkExpiration(),
+            new ProxyManagerSpec<>(
+                "JedisBasedProxyManager_ByteArrayKey_VersionStamping",
+                () -> UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8),
+                () -> Bucket4jJedis.casBasedBuilder(jedisPool).versionStamping()
+            ).checkExpiration(),
+            new ProxyManagerSpec<>(
+                "JedisBasedProxyManager_ByteArrayKey_CrossKeyBatching",
+                () -> UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8),
+                () -> Bucket4jJedis.casBasedBuilder(jedisPool).crossKeyBatching(16)
+            ).checkExpiration(),
+            new ProxyManagerSpec<>(
+                "JedisBasedProxyManager_unifiedJedisPooled_ByteArrayKey_CrossKeyBatching",
+                () -> UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8),
+                () -> Bucket4jJedis.casBasedBuilder(unifiedJedisPooled).crossKeyBatching(16).asyncExecutor(ForkJoinPool.commonPool())
+            ).checkExpiration(),
             new ProxyManagerSpec<>(
                 "JedisBasedProxyManager_StringKey",
                 () -> UUID.randomUUID().toString(),
@@ -52,6 +81,11 @@ public class JedisBasedProxyManagerStandaloneTest extends AbstractDistributedBuc
                 "JedisBasedProxyManager_unifiedJedisPooled_ByteArrayKey",
                 () -> UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8),
                 () -> Bucket4jJedis.casBasedBuilder(unifiedJedisPooled)
+            ).checkExpiration(),
+            new ProxyManagerSpec<>(
+                "JedisLuaBasedProxyManager_StringKey",
+                () -> UUID.randomUUID().toString(),
+                () -> Bucket4jJedis.luaBasedBuilder(jedisPool).keyMapper(Mapper.STRING)
             ).checkExpiration()
         );
     }
@@ -81,6 +115,71 @@ public class JedisBasedProxyManagerStandaloneTest extends AbstractDistributedBuc
         }
     }
 
+    @Test
+    public void scriptsShouldBeReloadedAfterScriptFlush() {
+        BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(10).refillGreedy(10, Duration.ofMinutes(1)))
+            .build();
+        ProxyManager<byte[]> casProxyManager = Bucket4jJedis.casBasedBuilder(jedisPool).build();
+        ProxyManager<String> luaProxyManager = Bucket4jJedis.luaBasedBuilder(jedisPool).keyMapper(Mapper.STRING).build();
+        byte[] casKey = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+        String luaKey = UUID.randomUUID().toString();
+
+        assertEquals(9, casProxyManager.getProxy(casKey, () -> configuration).tryConsumeAndReturnRemaining(1).getRemainingTokens());
+        assertEquals(9, luaProxyManager.getProxy(luaKey, () -> configuration).tryConsumeAndReturnRemaining(1).getRemainingTokens());
+
+        try (Jedis jedis = jedisPool.getResource()) {
+            jedis.scriptFlush();
+        }
+
+        assertEquals(8, casProxyManager.getProxy(casKey, () -> configuration).tryConsumeAndReturnRemaining(1).getRemainingTokens());
+        assertEquals(8, luaProxyManager.getProxy(luaKey, () -> configuration).tryConsumeAndReturnRemaining(1).getRemainingTokens());
+    }
+
+    @Test
+    public void luaScriptShouldBehaveAsJavaCode() {
+        List<BucketConfiguration> configurations = List.of(
+            BucketConfiguration.builder()
+                .addLimit(limit -> limit.capacity(1000).refillGreedy(7, Duration.ofMillis(333)))
+                .addLimit(limit -> limit.capacity(50).refillIntervally(50, Duration.ofSeconds(5)))
+                .build(),
+            // refill tokens multiplied by refill period exceed 2^53, so script has to split multiplication
+            BucketConfiguration.builder()
+                .addLimit(limit -> limit.capacity(1_000_000_000L).refillGreedy(999_999_937L, Duration.ofDays(30)).initialTokens(0))
+                .build()
+        );
+        Random random = new Random(42);
+        for (BucketConfiguration configuration : configurations) {
+            TimeMeterMock clock = new TimeMeterMock(1_700_000_000_123_456_789L);
+            ProxyManager<String> luaProxyManager = Bucket4jJedis.luaBasedBuilder(jedisPool)
+                .keyMapper(Mapper.STRING)
+                .clientClock(clock)
+                .build();
+            CompareAndSwapBasedProxyManagerMock<String> javaProxyManager = new CompareAndSwapBasedProxyManagerMock<>(ClientSideConfig.getDefault().withClientClock(clock));
+            String key = UUID.randomUUID().toString();
+            BucketProxy luaBucket = luaProxyManager.builder().build(key, () -> configuration);
+            BucketProxy javaBucket = javaProxyManager.builder().build(key, () -> configuration);
+
+            for (int i = 0; i < 300; i++) {
+                long tokens = 1 + random.nextInt(20);
+                String description = configuration + ", step " + i;
+                switch (random.nextInt(4)) {
+                    case 0 -> assertEquals(javaBucket.tryConsume(tokens), luaBucket.tryConsume(tokens), description);
+                    case 1 -> {
+                        assertEquals(javaBucket.tryConsumeAndReturnRemaining(tokens).getNanosToWaitForRefill(), luaBucket.tryConsumeAndReturnRemaining(tokens).getNanosToWaitForRefill(), description);
+                        assertEquals(javaBucket.getAvailableTokens(), luaBucket.getAvailableTokens(), description);
+                    }
+                    case 2 -> assertEquals(javaBucket.tryConsumeAsMuchAsPossible(tokens), luaBucket.tryConsumeAsMuchAsPossible(tokens), description);
+                    default -> {
+                        javaBucket.addTokens(tokens);
+                        luaBucket.addTokens(tokens);
+                    }
+                }
+                clock.addTime(random.nextInt(300_000_000));
+            }
+        }
+    }
+
     private static GenericContainer startRedisContainer() {
         GenericContainer genericContainer = new GenericContainer("redis:4.0.11")
             .withExposedPorts(6379);
@@ -0,0 +1,204 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.redis.jedis;
+
+import io.github.bucket4j.redis.script.RedisScript;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JedisAsyncPipelineTest {
+
+    private final RecordingRedisApi redisApi = new RecordingRedisApi();
+    private final ManualExecutor executor = new ManualExecutor();
+    private final JedisAsyncPipeline pipeline = new JedisAsyncPipeline(redisApi, executor);
+
+    @Test
+    public void commandsIssuedWhileDrainersAreBusyShouldBeSentByOnePipeline() throws Exception {
+        List<CompletableFuture<byte[]>> futures = new ArrayList<>();
+        for (int i = 0; i < JedisAsyncPipeline.MAX_PARALLEL_PIPELINES + 10; i++) {
+            futures.add(pipeline.get(bytes("key-" + i)));
+        }
+        assertEquals(JedisAsyncPipeline.MAX_PARALLEL_PIPELINES, executor.tasks.size());
+
+        // first drainer takes everything which was queued before it started
+        executor.runAll();
+        assertEquals(1, redisApi.getPipelines.size());
+        assertEquals(JedisAsyncPipeline.MAX_PARALLEL_PIPELINES + 10, redisApi.getPipelines.get(0).size());
+        for (int i = 0; i < futures.size(); i++) {
+            assertArrayEquals(bytes("value-key-" + i), futures.get(i).get());
+        }
+    }
+
+    @Test
+    public void singleCommandShouldNotWaitForCompanions() throws Exception {
+        CompletableFuture<byte[]> future = pipeline.get(bytes("key"));
+        executor.runAll();
+        assertArrayEquals(bytes("value-key"), future.get());
+        assertEquals(1, redisApi.getPipelines.get(0).size());
+    }
+
+    @Test
+    public void pipelineShouldBeLimitedBySize() {
+        for (int i = 0; i < JedisAsyncPipeline.MAX_PIPELINE_SIZE + 1; i++) {
+            pipeline.get(bytes("key-" + i));
+        }
+        executor.runAll();
+        assertEquals(2, redisApi.getPipelines.size());
+        assertEquals(JedisAsyncPipeline.MAX_PIPELINE_SIZE, redisApi.getPipelines.get(0).size());
+        assertEquals(1, redisApi.getPipelines.get(1).size());
+    }
+
+    @Test
+    public void scriptsShouldBeSentByPipeline() throws Exception {
+        RedisScript script = RedisScript.of("return 1");
+        CompletableFuture<Object> first = pipeline.evalScript(script, new byte[][] {bytes("key-1"), bytes("arg")});
+        CompletableFuture<Object> second = pipeline.evalScript(script, new byte[][] {bytes("key-2"), bytes("arg")});
+        executor.runAll();
+        assertEquals(1, redisApi.scriptPipelines);
+        assertEquals(0L, first.get());
+        assertEquals(1L, second.get());
+    }
+
+    @Test
+    public void failureOfPipelineShouldFailAllItsCommands() {
+        redisApi.failure = new IllegalStateException("connection refused");
+        CompletableFuture<byte[]> first = pipeline.get(bytes("key-1"));
+        CompletableFuture<byte[]> second = pipeline.get(bytes("key-2"));
+        executor.runAll();
+        ExecutionException firstError = assertThrows(ExecutionException.class, first::get);
+        ExecutionException secondError = assertThrows(ExecutionException.class, second::get);
+        assertSame(redisApi.failure, firstError.getCause());
+        assertSame(redisApi.failure, secondError.getCause());
+
+        // next commands are sent by new pipeline
+        redisApi.failure = null;
+        CompletableFuture<byte[]> third = pipeline.get(bytes("key-3"));
+        executor.runAll();
+        assertFalse(third.isCompletedExceptionally());
+    }
+
+    @Test
+    public void commandsShouldBeFailedWhenExecutorRejectsDrainer() {
+        JedisAsyncPipeline rejectingPipeline = new JedisAsyncPipeline(redisApi, command -> {
+            throw new RejectedExecutionException();
+        });
+        CompletableFuture<byte[]> future = rejectingPipeline.get(bytes("key"));
+        assertTrue(future.isCompletedExceptionally());
+        ExecutionException error = assertThrows(ExecutionException.class, future::get);
+        assertTrue(error.getCause() instanceof RejectedExecutionException);
+    }
+
+    @Test
+    public void missingKeyShouldBeCompletedByNull() throws Exception {
+        redisApi.missingKeys = true;
+        CompletableFuture<byte[]> future = pipeline.get(bytes("key"));
+        executor.runAll();
+        assertNull(future.get());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static class ManualExecutor implements Executor {
+
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+
+    }
+
+    private static class RecordingRedisApi implements RedisApi {
+
+        private final List<List<byte[]>> getPipelines = new ArrayList<>();
+        private int scriptPipelines;
+        private RuntimeException failure;
+        private boolean missingKeys;
+
+        @Override
+        public boolean isPipeliningSupported() {
+            return true;
+        }
+
+        @Override
+        public List<byte[]> getPipelined(List<byte[]> keys) {
+            if (failure != null) {
+                throw failure;
+            }
+            getPipelines.add(keys);
+            List<byte[]> values = new ArrayList<>(keys.size());
+            for (byte[] key : keys) {
+                values.add(missingKeys ? null : bytes("value-" + new String(key, StandardCharsets.UTF_8)));
+            }
+            return values;
+        }
+
+        @Override
+        public List<Object> evalScriptPipelined(List<RedisScript> scripts, int keyCount, List<byte[][]> params) {
+            scriptPipelines++;
+            List<Object> results = new ArrayList<>(scripts.size());
+            for (int i = 0; i < scripts.size(); i++) {
+                results.add((long) i);
+            }
+            return results;
+        }
+
+        @Override
+        public Object eval(byte[] script, int keyCount, byte[]... params) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public byte[] get(byte[] key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void delete(byte[] key) {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+}
@@ -19,10 +19,15 @@
  */
 package io.github.bucket4j.redis.lettuce;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 import io.github.bucket4j.distributed.proxy.AbstractProxyManagerBuilder;
+import io.github.bucket4j.redis.cas.VersionStamps;
 import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
+import io.github.bucket4j.redis.lettuce.lua.LettuceLuaBasedProxyManager;
+import io.github.bucket4j.redis.script.RedisScript;
 import io.lettuce.core.RedisClient;
 import io.lettuce.core.RedisFuture;
 import io.lettuce.core.ScriptOutputType;
@@ -32,6 +37,7 @@ import io.lettuce.core.cluster.RedisClusterClient;
 import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
 import io.lettuce.core.cluster.api.async.RedisAdvancedClusterAsyncCommands;
 import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
 
 /**
  * Entry point for Lettuce integration
@@ -47,22 +53,7 @@ public class Bucket4jLettuce {
      * @return new instance of {@link LettuceBasedProxyManagerBuilder}
      */
     public static <K> LettuceBasedProxyManagerBuilder<K> casBasedBuilder(RedisAsyncCommands<K, byte[]> redisAsyncCommands) {
-        Objects.requireNonNull(redisAsyncCommands);
-        RedisApi<K> redisApi = new RedisApi<>() {
-            @Override
-            public <V> RedisFuture<V> eval(String script, ScriptOutputType scriptOutputType, K[] keys, byte[][] params) {
-                return redisAsyncCommands.eval(script, scriptOutputType, keys, params);
-            }
-            @Override
-            public RedisFuture<byte[]> get(K key) {
-                return redisAsyncCommands.get(key);
-            }
-            @Override
-            public RedisFuture<?> delete(K key) {
-                return redisAsyncCommands.del(key);
-            }
-        };
-        return new LettuceBasedProxyManagerBuilder<>(redisApi);
+        return new LettuceBasedProxyManagerBuilder<>(redisApi(redisAsyncCommands, null));
     }
 
     /**
@@ -84,7 +75,7 @@ public class Bucket4jLettuce {
      * @return new instance of {@link LettuceBasedProxyManagerBuilder}
      */
     public static LettuceBasedProxyManagerBuilder<byte[]> casBasedBuilder(RedisClient redisClient) {
-        return casBasedBuilder(redisClient.connect(ByteArrayCodec.INSTANCE));
+        return new LettuceBasedProxyManagerBuilder<>(redisApi(redisClient.connect(ByteArrayCodec.INSTANCE).async(), ByteArrayCodec.INSTANCE));
     }
 
     /**
@@ -95,7 +86,7 @@ public class Bucket4jLettuce {
      * @return new instance of {@link LettuceBasedProxyManagerBuilder}
      */
     public static LettuceBasedProxyManagerBuilder<byte[]> casBasedBuilder(RedisClusterClient redisClient) {
-        return casBasedBuilder(redisClient.connect(ByteArrayCodec.INSTANCE));
+        return new LettuceBasedProxyManagerBuilder<>(redisApi(redisClient.connect(ByteArrayCodec.INSTANCE).async(), ByteArrayCodec.INSTANCE));
     }
 
     /**
@@ -117,13 +108,91 @@ public class Bucket4jLettuce {
      * @return new instance of {@link LettuceBasedProxyManagerBuilder}
      */
     public static <K> LettuceBasedProxyManagerBuilder<K> casBasedBuilder(RedisAdvancedClusterAsyncCommands<K, byte[]> redisAsyncCommands) {
+        return new LettuceBasedProxyManagerBuilder<>(redisApi(redisAsyncCommands, null));
+    }
+
+    /**
+     * Returns the builder for {@link LettuceLuaBasedProxyManager}
+     *
+     * @param redisAsyncCommands
+     *
+     * @return new instance of {@link LettuceLuaBasedProxyManagerBuilder}
+     */
+    public static <K> LettuceLuaBasedProxyManagerBuilder<K> luaBasedBuilder(RedisAsyncCommands<K, byte[]> redisAsyncCommands) {
+        return new LettuceLuaBasedProxyManagerBuilder<>(redisApi(redisAsyncCommands, null));
+    }
+
+    /**
+     * Returns the builder for {@link LettuceLuaBasedProxyManager}
+     *
+     * @param statefulRedisConnection
+     *
+     * @return new instance of {@link LettuceLuaBasedProxyManagerBuilder}
+     */
+    public static <K> LettuceLuaBasedProxyManagerBuilder<K> luaBasedBuilder(StatefulRedisConnection<K, byte[]> statefulRedisConnection) {
+        return luaBasedBuilder(statefulRedisConnection.async());
+    }
+
+    /**
+     * Returns the builder for {@link LettuceLuaBasedProxyManager}
+     *
+     * @param redisClient
+     *
+     * @return new instance of {@link LettuceLuaBasedProxyManagerBuilder}
+     */
+    public static LettuceLuaBasedProxyManagerBuilder<byte[]> luaBasedBuilder(RedisClient redisClient) {
+        return new LettuceLuaBasedProxyManagerBuilder<>(redisApi(redisClient.connect(ByteArrayCodec.INSTANCE).async(), ByteArrayCodec.INSTANCE));
+    }
+
+    /**
+     * Returns the builder for {@link LettuceLuaBasedProxyManager}
+     *
+     * @param redisClient
+     *
+     * @return new instance of {@link LettuceLuaBasedProxyManagerBuilder}
+     */
+    public static LettuceLuaBasedProxyManagerBuilder<byte[]> luaBasedBuilder(RedisClusterClient redisClient) {
+        return new LettuceLuaBasedProxyManagerBuilder<>(redisApi(redisClient.connect(ByteArrayCodec.INSTANCE).async(), ByteArrayCodec.INSTANCE));
+    }
+
+    /**
+     * Returns the builder for {@link LettuceLuaBasedProxyManager}
+     *
+     * @param connection
+     *
+     * @return new instance of {@link LettuceLuaBasedProxyManagerBuilder}
+     */
+    public static <K> LettuceLuaBasedProxyManagerBuilder<K> luaBasedBuilder(StatefulRedisClusterConnection<K, byte[]> connection) {
+        return luaBasedBuilder(connection.async());
+    }
+
+    /**
+     * Returns the builder for {@link LettuceLuaBasedProxyManager}
+     *
+     * @param redisAsyncCommands
+     *
+     * @return new instance of {@link LettuceLuaBasedProxyManagerBuilder}
+     */
+    public static <K> LettuceLuaBasedProxyManagerBuilder<K> luaBasedBuilder(RedisAdvancedClusterAsyncCommands<K, byte[]> redisAsyncCommands) {
+        return new LettuceLuaBasedProxyManagerBuilder<>(redisApi(redisAsyncCommands, null));
+    }
+
+    private static <K> RedisApi<K> redisApi(RedisAsyncCommands<K, byte[]> redisAsyncCommands, RedisCodec<K, byte[]> codec) {
         Objects.requireNonNull(redisAsyncCommands);
-        RedisApi<K> redisApi = new RedisApi<>() {
+        LettucePipeline<K> pipeline = LettucePipeline.of(redisAsyncCommands.getStatefulConnection(), codec);
+        return new RedisApi<>() {
             @Override
             public <V> RedisFuture<V> eval(String script, ScriptOutputType scriptOutputType, K[] keys, byte[][] params) {
                 return redisAsyncCommands.eval(script, scriptOutputType, keys, params);
             }
             @Override
+            public <V> CompletableFuture<V> evalScript(RedisScript script, ScriptOutputType scriptOutputType, K[] keys, byte[][] params) {
+                return script.evaluateAsync(
+                    () -> redisAsyncCommands.<V>evalsha(script.getSha1(), scriptOutputType, keys, params),
+                    () -> redisAsyncCommands.<V>eval(script.getSource(), scriptOutputType, keys, params)
+                );
+            }
+            @Override
             public RedisFuture<byte[]> get(K key) {
                 return redisAsyncCommands.get(key);
             }
@@ -131,13 +200,61 @@ public class Bucket4jLettuce {
             public RedisFuture<?> delete(K key) {
                 return redisAsyncCommands.del(key);
             }
+            @Override
+            public List<CompletableFuture<byte[]>> getPipelined(List<K> keys) {
+                return pipeline == null ? RedisApi.super.getPipelined(keys) : pipeline.get(keys);
+            }
+            @Override
+            public <V> List<CompletableFuture<V>> evalScriptPipelined(List<RedisScript> scripts, ScriptOutputType scriptOutputType, List<K[]> keys, List<byte[][]> params) {
+                if (pipeline == null) {
+                    return RedisApi.super.evalScriptPipelined(scripts, scriptOutputType, keys, params);
+                }
+                return pipeline.evalScript(this, scripts, scriptOutputType, keys, params);
+            }
+        };
+    }
+
+    private static <K> RedisApi<K> redisApi(RedisAdvancedClusterAsyncCommands<K, byte[]> redisAsyncCommands, RedisCodec<K, byte[]> codec) {
+        Objects.requireNonNull(redisAsyncCommands);
+        LettucePipeline<K> pipeline = LettucePipeline.of(redisAsyncCommands.getStatefulConnection(), codec);
+        return new RedisApi<>() {
+            @Override
+            public <V> RedisFuture<V> eval(String script, ScriptOutputType scriptOutputType, K[] keys, byte[][] params) {
+                return redisAsyncCommands.eval(script, scriptOutputType, keys, params);
+            }
+            @Override
+            public <V> CompletableFuture<V> evalScript(RedisScript script, ScriptOutputType scriptOutputType, K[] keys, byte[][] params) {
+                return script.evaluateAsync(
+                    () -> redisAsyncCommands.<V>evalsha(script.getSha1(), scriptOutputType, keys, params),
+                    () -> redisAsyncCommands.<V>eval(script.getSource(), scriptOutputType, keys, params)
+                );
+            }
+            @Override
+            public RedisFuture<byte[]> get(K key) {
+                return redisAsyncCommands.get(key);
+            }
+            @Override
+            public RedisFuture<?> delete(K key) {
+                return redisAsyncCommands.del(key);
+            }
+            @Override
+            public List<CompletableFuture<byte[]>> getPipelined(List<K> keys) {
+                return pipeline == null ? RedisApi.super.getPipelined(keys) : pipeline.get(keys);
+            }
+            @Override
+            public <V> List<CompletableFuture<V>> evalScriptPipelined(List<RedisScript> scripts, ScriptOutputType scriptOutputType, List<K[]> keys, List<byte[][]> params) {
+                if (pipeline == null) {
+                    return RedisApi.super.evalScriptPipelined(scripts, scriptOutputType, keys, params);
+                }
+                return pipeline.evalScript(this, scripts, scriptOutputType, keys, params);
+            }
         };
-        return new LettuceBasedProxyManagerBuilder<>(redisApi);
     }
 
     public static class LettuceBasedProxyManagerBuilder<K> extends AbstractProxyManagerBuilder<K, LettuceBasedProxyManager<K>, LettuceBasedProxyManagerBuilder<K>> {
 
         private final RedisApi<K> redisApi;
+        private boolean versionStamping;
 
         public LettuceBasedProxyManagerBuilder(RedisApi<K> redisApi) {
             this.redisApi = redisApi;
@@ -152,6 +269,49 @@ public class Bucket4jLettuce {
             return new LettuceBasedProxyManager<>(this);
         }
 
+        /**
+         * Enables version stamping of stored values, see {@link VersionStamps}.
+         * Compare-and-swap sends to Redis only the stamp of original value instead of whole original value.
+         *
+         * <p>
+         * Values written without stamp are still processed by comparing whole value, so stamping can be enabled for already populated Redis.
+         * But stamped values can not be read by previous versions of Bucket4j, so all clients should be upgraded before stamping is enabled.
+         *
+         * @return this builder instance
+         */
+        public LettuceBasedProxyManagerBuilder<K> versionStamping() {
+            this.versionStamping = true;
+            return this;
+        }
+
+        public boolean isVersionStampingEnabled() {
+            return versionStamping;
+        }
+
+        @Override
+        public boolean isExpireAfterWriteSupported() {
+            return true;
+        }
+
+    }
+
+    public static class LettuceLuaBasedProxyManagerBuilder<K> extends AbstractProxyManagerBuilder<K, LettuceLuaBasedProxyManager<K>, LettuceLuaBasedProxyManagerBuilder<K>> {
+
+        private final RedisApi<K> redisApi;
+
+        public LettuceLuaBasedProxyManagerBuilder(RedisApi<K> redisApi) {
+            this.redisApi = redisApi;
+        }
+
+        public RedisApi<K> getRedisApi() {
+            return redisApi;
+        }
+
+        @Override
+        public LettuceLuaBasedProxyManager<K> build() {
+            return new LettuceLuaBasedProxyManager<>(this);
+        }
+
         @Override
         public boolean isExpireAfterWriteSupported() {
             return true;
@@ -0,0 +1,129 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.redis.lettuce;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import io.github.bucket4j.redis.script.RedisScript;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.StatefulRedisConnectionImpl;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.output.BooleanOutput;
+import io.lettuce.core.output.ByteArrayOutput;
+import io.lettuce.core.output.CommandOutput;
+import io.lettuce.core.output.IntegerOutput;
+import io.lettuce.core.output.NestedMultiOutput;
+import io.lettuce.core.output.StatusOutput;
+import io.lettuce.core.output.ValueOutput;
+import io.lettuce.core.protocol.AsyncCommand;
+import io.lettuce.core.protocol.Command;
+import io.lettuce.core.protocol.CommandArgs;
+import io.lettuce.core.protocol.CommandType;
+
+/**
+ * Sends several commands to Redis by one pipeline.
+ *
+ * <p>
+ * Commands are dispatched to the connection as one collection, so standalone connection writes and flushes them at once.
+ * Redis Cluster connection accepts the same collection and routes each command as a regular command,
+ * but how the commands are coalesced into writes to the nodes is defined by Lettuce and is not covered by tests of Bucket4j.
+ *
+ * @param <K> type of key
+ */
+final class LettucePipeline<K> {
+
+    private final StatefulConnection<K, byte[]> connection;
+    private final RedisCodec<K, byte[]> codec;
+
+    private LettucePipeline(StatefulConnection<K, byte[]> connection, RedisCodec<K, byte[]> codec) {
+        this.connection = connection;
+        this.codec = codec;
+    }
+
+    /**
+     * @param connection the connection
+     * @param codec codec of connection, or null if codec is not known by caller
+     *
+     * @return the pipeline, or null if codec of connection is unknown and commands can not be encoded outside of Lettuce command API
+     */
+    static <K> LettucePipeline<K> of(StatefulConnection<K, byte[]> connection, RedisCodec<K, byte[]> codec) {
+        if (codec == null && connection instanceof StatefulRedisConnectionImpl<K, byte[]> standaloneConnection) {
+            codec = standaloneConnection.getCodec();
+        }
+        return codec == null || connection == null ? null : new LettucePipeline<>(connection, codec);
+    }
+
+    List<CompletableFuture<byte[]>> get(List<K> keys) {
+        List<AsyncCommand<K, byte[], byte[]>> commands = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            CommandArgs<K, byte[]> args = new CommandArgs<>(codec).addKey(key);
+            commands.add(new AsyncCommand<>(new Command<>(CommandType.GET, new ByteArrayOutput<>(codec), args)));
+        }
+        connection.dispatch(commands);
+        return new ArrayList<>(commands);
+    }
+
+    <V> List<CompletableFuture<V>> evalScript(RedisApi<K> redisApi, List<RedisScript> scripts, ScriptOutputType scriptOutputType, List<K[]> keys, List<byte[][]> params) {
+        List<AsyncCommand<K, byte[], V>> commands = new ArrayList<>(scripts.size());
+        for (int i = 0; i < scripts.size(); i++) {
+            CommandArgs<K, byte[]> args = new CommandArgs<>(codec)
+                .add(scripts.get(i).getSha1())
+                .add(keys.get(i).length)
+                .addKeys(keys.get(i))
+                .addValues(params.get(i));
+            commands.add(new AsyncCommand<>(new Command<>(CommandType.EVALSHA, this.<V>newScriptOutput(scriptOutputType), args)));
+        }
+        connection.dispatch(commands);
+
+        List<CompletableFuture<V>> results = new ArrayList<>(commands.size());
+        for (int i = 0; i < commands.size(); i++) {
+            RedisScript script = scripts.get(i);
+            K[] scriptKeys = keys.get(i);
+            byte[][] scriptParams = params.get(i);
+            AsyncCommand<K, byte[], V> command = commands.get(i);
+            // script is loaded on demand by regular invocation when node does not know it
+            results.add(script.evaluateAsync(() -> command, () -> redisApi.<V>evalScript(script, scriptOutputType, scriptKeys, scriptParams)));
+        }
+        return results;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> CommandOutput<K, byte[], V> newScriptOutput(ScriptOutputType scriptOutputType) {
+        switch (scriptOutputType) {
+            case BOOLEAN:
+                return (CommandOutput<K, byte[], V>) new BooleanOutput<>(codec);
+            case INTEGER:
+                return (CommandOutput<K, byte[], V>) new IntegerOutput<>(codec);
+            case STATUS:
+                return (CommandOutput<K, byte[], V>) new StatusOutput<>(codec);
+            case MULTI:
+                return (CommandOutput<K, byte[], V>) new NestedMultiOutput<>(codec);
+            case VALUE:
+                return (CommandOutput<K, byte[], V>) (CommandOutput<K, byte[], ?>) new ValueOutput<>(codec);
+            default:
+                throw new RedisException("Unsupported script output type " + scriptOutputType);
+        }
+    }
+
+}
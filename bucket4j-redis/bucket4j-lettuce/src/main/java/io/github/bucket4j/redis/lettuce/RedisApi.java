@@ -19,6 +19,11 @@
  */
 package io.github.bucket4j.redis.lettuce;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import io.github.bucket4j.redis.script.RedisScript;
 import io.lettuce.core.RedisFuture;
 import io.lettuce.core.ScriptOutputType;
 
@@ -26,8 +31,40 @@ public interface RedisApi<K> {
 
     <V> RedisFuture<V> eval(String script, ScriptOutputType scriptOutputType, K[] keys, byte[][] params);
 
+    /**
+     * Evaluates registered script, implementations provided by Bucket4j invoke script via EVALSHA,
+     * default implementation sends whole source of script via {@link #eval(String, ScriptOutputType, Object[], byte[][])}.
+     */
+    default <V> CompletableFuture<V> evalScript(RedisScript script, ScriptOutputType scriptOutputType, K[] keys, byte[][] params) {
+        return this.<V>eval(script.getSource(), scriptOutputType, keys, params).toCompletableFuture();
+    }
+
     RedisFuture<byte[]> get(K key);
 
+    /**
+     * Reads values of several keys by one pipeline, implementations provided by Bucket4j dispatch all commands to connection at once,
+     * default implementation reads each key via {@link #get(Object)}.
+     */
+    default List<CompletableFuture<byte[]>> getPipelined(List<K> keys) {
+        List<CompletableFuture<byte[]>> futures = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            futures.add(get(key).toCompletableFuture());
+        }
+        return futures;
+    }
+
+    /**
+     * Evaluates registered scripts by one pipeline, elements of all lists describe the same invocation,
+     * default implementation invokes each script via {@link #evalScript(RedisScript, ScriptOutputType, Object[], byte[][])}.
+     */
+    default <V> List<CompletableFuture<V>> evalScriptPipelined(List<RedisScript> scripts, ScriptOutputType scriptOutputType, List<K[]> keys, List<byte[][]> params) {
+        List<CompletableFuture<V>> futures = new ArrayList<>(scripts.size());
+        for (int i = 0; i < scripts.size(); i++) {
+            futures.add(this.<V>evalScript(scripts.get(i), scriptOutputType, keys.get(i), params.get(i)));
+        }
+        return futures;
+    }
+
     RedisFuture<?> delete(K key);
 
 }
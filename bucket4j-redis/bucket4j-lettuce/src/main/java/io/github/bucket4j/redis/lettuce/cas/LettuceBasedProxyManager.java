@@ -21,21 +21,28 @@
 package io.github.bucket4j.redis.lettuce.cas;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
 import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncBatchCompareAndSwapOperation;
 import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
 import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
 import io.github.bucket4j.distributed.remote.RemoteBucketState;
 import io.github.bucket4j.redis.AbstractRedisProxyManagerBuilder;
+import io.github.bucket4j.redis.cas.VersionStamps;
 import io.github.bucket4j.redis.consts.LuaScripts;
 import io.github.bucket4j.redis.lettuce.Bucket4jLettuce;
 import io.github.bucket4j.redis.lettuce.RedisApi;
+import io.github.bucket4j.redis.script.RedisScript;
 import io.lettuce.core.RedisClient;
 import io.lettuce.core.RedisException;
 import io.lettuce.core.RedisFuture;
@@ -66,6 +73,7 @@ public class LettuceBasedProxyManager<K> extends AbstractCompareAndSwapBasedProx
 
     private final RedisApi<K> redisApi;
     private final ExpirationAfterWriteStrategy expirationStrategy;
+    private final boolean versionStamping;
 
     /**
      * @deprecated use {@link Bucket4jLettuce#casBasedBuilder(RedisAsyncCommands)}
@@ -78,6 +86,13 @@ public class LettuceBasedProxyManager<K> extends AbstractCompareAndSwapBasedProx
             public <V> RedisFuture<V> eval(String script, ScriptOutputType scriptOutputType, K[] keys, byte[][] params) {
                 return redisAsyncCommands.eval(script, scriptOutputType, keys, params);
             }
+            @Override
+            public <V> CompletableFuture<V> evalScript(RedisScript script, ScriptOutputType scriptOutputType, K[] keys, byte[][] params) {
+                return script.evaluateAsync(
+                    () -> redisAsyncCommands.<V>evalsha(script.getSha1(), scriptOutputType, keys, params),
+                    () -> redisAsyncCommands.<V>eval(script.getSource(), scriptOutputType, keys, params)
+                );
+            }
 
             @Override
             public RedisFuture<byte[]> get(K key) {
@@ -136,6 +151,13 @@ public class LettuceBasedProxyManager<K> extends AbstractCompareAndSwapBasedProx
                 return redisAsyncCommands.eval(script, scriptOutputType, keys, params);
             }
             @Override
+            public <V> CompletableFuture<V> evalScript(RedisScript script, ScriptOutputType scriptOutputType, K[] keys, byte[][] params) {
+                return script.evaluateAsync(
+                    () -> redisAsyncCommands.<V>evalsha(script.getSha1(), scriptOutputType, keys, params),
+                    () -> redisAsyncCommands.<V>eval(script.getSource(), scriptOutputType, keys, params)
+                );
+            }
+            @Override
             public RedisFuture<byte[]> get(K key) {
                 return redisAsyncCommands.get(key);
             }
@@ -170,12 +192,14 @@ public class LettuceBasedProxyManager<K> extends AbstractCompareAndSwapBasedProx
         super(builder.getClientSideConfig());
         this.expirationStrategy = builder.getNotNullExpirationStrategy();
         this.redisApi = builder.redisApi;
+        this.versionStamping = false;
     }
 
     public LettuceBasedProxyManager(Bucket4jLettuce.LettuceBasedProxyManagerBuilder<K> builder) {
         super(builder.getClientSideConfig());
         this.expirationStrategy = builder.getExpirationAfterWrite().orElse(ExpirationAfterWriteStrategy.none());
         this.redisApi = builder.getRedisApi();
+        this.versionStamping = builder.isVersionStampingEnabled();
     }
 
     @Override
@@ -215,6 +239,42 @@ public class LettuceBasedProxyManager<K> extends AbstractCompareAndSwapBasedProx
         };
     }
 
+    @Override
+    protected AsyncBatchCompareAndSwapOperation beginAsyncBatchCompareAndSwapOperation(List<K> keys) {
+        return new AsyncBatchCompareAndSwapOperation() {
+            @Override
+            public List<CompletableFuture<Optional<byte[]>>> getStateData(Optional<Long> timeoutNanos) {
+                List<CompletableFuture<byte[]>> stateFutures = redisApi.getPipelined(keys);
+                List<CompletableFuture<Optional<byte[]>>> results = new ArrayList<>(stateFutures.size());
+                for (CompletableFuture<byte[]> stateFuture : stateFutures) {
+                    results.add(convertToCompletableFuture(stateFuture, timeoutNanos).thenApply(Optional::ofNullable));
+                }
+                return results;
+            }
+
+            @Override
+            public List<CompletableFuture<Boolean>> compareAndSwap(List<Integer> positions, List<byte[]> originalData, List<byte[]> newData, List<RemoteBucketState> newStates, Optional<Long> timeoutNanos) {
+                List<RedisScript> scripts = new ArrayList<>(positions.size());
+                List<K[]> scriptKeys = new ArrayList<>(positions.size());
+                List<byte[][]> scriptParams = new ArrayList<>(positions.size());
+                for (int i = 0; i < positions.size(); i++) {
+                    long ttlMillis = expirationStrategy.calculateTimeToLiveMillis(newStates.get(i), currentTimeNanos());
+                    @SuppressWarnings("unchecked")
+                    K[] keyArray = (K[]) new Object[]{keys.get(positions.get(i))};
+                    scripts.add(compareAndSwapScript(originalData.get(i), ttlMillis));
+                    scriptKeys.add(keyArray);
+                    scriptParams.add(compareAndSwapParams(originalData.get(i), newData.get(i), ttlMillis));
+                }
+                List<CompletableFuture<Boolean>> swapFutures = redisApi.evalScriptPipelined(scripts, ScriptOutputType.BOOLEAN, scriptKeys, scriptParams);
+                List<CompletableFuture<Boolean>> results = new ArrayList<>(swapFutures.size());
+                for (CompletableFuture<Boolean> swapFuture : swapFutures) {
+                    results.add(convertToCompletableFuture(swapFuture, timeoutNanos));
+                }
+                return results;
+            }
+        };
+    }
+
     @Override
     public void removeProxy(K key) {
         RedisFuture<?> future = redisApi.delete(key);
@@ -227,6 +287,26 @@ public class LettuceBasedProxyManager<K> extends AbstractCompareAndSwapBasedProx
         return convertToCompletableFuture(future, Optional.empty()).thenApply(bytes -> null);
     }
 
+    @Override
+    protected byte[] toStateBytes(byte[] storedData) {
+        return VersionStamps.toStateBytes(storedData);
+    }
+
+    @Override
+    protected byte[] toStoredData(byte[] originalStoredData, byte[] stateBytes) {
+        return versionStamping ? VersionStamps.toStampedData(originalStoredData, stateBytes) : stateBytes;
+    }
+
+    @Override
+    protected boolean isLastSeenStateCacheSupported() {
+        return true;
+    }
+
+    @Override
+    protected boolean isBatchCompareAndSwapSupported() {
+        return true;
+    }
+
     @Override
     public boolean isAsyncModeSupported() {
         return true;
@@ -241,30 +321,54 @@ public class LettuceBasedProxyManager<K> extends AbstractCompareAndSwapBasedProx
      *
      * @see AbstractCompareAndSwapBasedProxyManager for retry and timeout configuration
      */
-    private RedisFuture<Boolean> compareAndSwapFuture(K[] keys, byte[] originalData, byte[] newData, RemoteBucketState newState) {
+    private CompletableFuture<Boolean> compareAndSwapFuture(K[] keys, byte[] originalData, byte[] newData, RemoteBucketState newState) {
         long ttlMillis = expirationStrategy.calculateTimeToLiveMillis(newState, currentTimeNanos());
+        return redisApi.evalScript(compareAndSwapScript(originalData, ttlMillis), ScriptOutputType.BOOLEAN, keys, compareAndSwapParams(originalData, newData, ttlMillis));
+    }
+
+    private RedisScript compareAndSwapScript(byte[] originalData, long ttlMillis) {
         if (ttlMillis > 0) {
             if (originalData == null) {
                 // nulls are prohibited as values, so "replace" must not be used in such cases
-                byte[][] params = {newData, encodeLong(ttlMillis)};
-                return redisApi.eval(LuaScripts.SCRIPT_SET_NX_PX, ScriptOutputType.BOOLEAN, keys, params);
+                return RedisScript.of(LuaScripts.SCRIPT_SET_NX_PX);
+            } else if (VersionStamps.isStamped(originalData)) {
+                return RedisScript.of(LuaScripts.SCRIPT_COMPARE_STAMP_AND_SWAP_PX);
             } else {
-                byte[][] params = {originalData, newData, encodeLong(ttlMillis)};
-                return redisApi.eval(LuaScripts.SCRIPT_COMPARE_AND_SWAP_PX, ScriptOutputType.BOOLEAN, keys, params);
+                return RedisScript.of(LuaScripts.SCRIPT_COMPARE_AND_SWAP_PX);
             }
         } else {
             if (originalData == null) {
                 // nulls are prohibited as values, so "replace" must not be used in such cases
-                byte[][] params = {newData};
-                return redisApi.eval(LuaScripts.SCRIPT_SET_NX, ScriptOutputType.BOOLEAN, keys, params);
+                return RedisScript.of(LuaScripts.SCRIPT_SET_NX);
+            } else if (VersionStamps.isStamped(originalData)) {
+                return RedisScript.of(LuaScripts.SCRIPT_COMPARE_STAMP_AND_SWAP);
+            } else {
+                return RedisScript.of(LuaScripts.SCRIPT_COMPARE_AND_SWAP);
+            }
+        }
+    }
+
+    private byte[][] compareAndSwapParams(byte[] originalData, byte[] newData, long ttlMillis) {
+        if (ttlMillis > 0) {
+            if (originalData == null) {
+                return new byte[][] {newData, encodeLong(ttlMillis)};
+            } else if (VersionStamps.isStamped(originalData)) {
+                return new byte[][] {VersionStamps.getStamp(originalData), newData, encodeLong(ttlMillis)};
+            } else {
+                return new byte[][] {originalData, newData, encodeLong(ttlMillis)};
+            }
+        } else {
+            if (originalData == null) {
+                return new byte[][] {newData};
+            } else if (VersionStamps.isStamped(originalData)) {
+                return new byte[][] {VersionStamps.getStamp(originalData), newData};
             } else {
-                byte[][] params = {originalData, newData};
-                return redisApi.eval(LuaScripts.SCRIPT_COMPARE_AND_SWAP, ScriptOutputType.BOOLEAN, keys, params);
+                return new byte[][] {originalData, newData};
             }
         }
     }
 
-    private <T> CompletableFuture<T> convertToCompletableFuture(RedisFuture<T> redisFuture, Optional<Long> timeoutNanos) {
+    private <T> CompletableFuture<T> convertToCompletableFuture(CompletionStage<T> redisFuture, Optional<Long> timeoutNanos) {
         if (timeoutNanos.isEmpty()) {
             return redisFuture.toCompletableFuture();
         } else {
@@ -272,7 +376,7 @@ public class LettuceBasedProxyManager<K> extends AbstractCompareAndSwapBasedProx
         }
     }
 
-    private <V> V getFutureValue(RedisFuture<V> redisFuture, Optional<Long> timeoutNanos) {
+    private <V> V getFutureValue(Future<V> redisFuture, Optional<Long> timeoutNanos) {
         try {
             if (timeoutNanos.isEmpty()) {
                 return redisFuture.get();
@@ -0,0 +1,91 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.redis.lettuce.lua;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.redis.lettuce.Bucket4jLettuce;
+import io.github.bucket4j.redis.lettuce.RedisApi;
+import io.github.bucket4j.redis.lua.AbstractRedisLuaBasedProxyManager;
+import io.github.bucket4j.redis.script.RedisScript;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.ScriptOutputType;
+
+public class LettuceLuaBasedProxyManager<K> extends AbstractRedisLuaBasedProxyManager<K> {
+
+    private final RedisApi<K> redisApi;
+
+    public LettuceLuaBasedProxyManager(Bucket4jLettuce.LettuceLuaBasedProxyManagerBuilder<K> builder) {
+        super(builder.getClientSideConfig(), builder.getExpirationAfterWrite().orElse(ExpirationAfterWriteStrategy.none()));
+        this.redisApi = builder.getRedisApi();
+    }
+
+    @Override
+    protected List<byte[]> evalScript(K key, String script, byte[][] args, Optional<Long> timeoutNanos) {
+        return getFutureValue(eval(key, script, args), timeoutNanos);
+    }
+
+    @Override
+    protected CompletableFuture<List<byte[]>> evalScriptAsync(K key, String script, byte[][] args, Optional<Long> timeoutNanos) {
+        CompletableFuture<List<byte[]>> future = eval(key, script, args);
+        return timeoutNanos.isEmpty() ? future : future.orTimeout(timeoutNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return true;
+    }
+
+    private CompletableFuture<List<byte[]>> eval(K key, String script, byte[][] args) {
+        @SuppressWarnings("unchecked")
+        K[] keys = (K[]) new Object[]{key};
+        return redisApi.evalScript(RedisScript.of(script), ScriptOutputType.MULTI, keys, args);
+    }
+
+    private <V> V getFutureValue(Future<V> redisFuture, Optional<Long> timeoutNanos) {
+        try {
+            if (timeoutNanos.isEmpty()) {
+                return redisFuture.get();
+            } else {
+                return redisFuture.get(timeoutNanos.get(), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            redisFuture.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RedisException(e);
+        } catch (java.util.concurrent.TimeoutException e) {
+            String message = "Violated timeout while waiting for redis future for " + timeoutNanos.get() + "ns";
+            throw new io.github.bucket4j.TimeoutException(message, timeoutNanos.get(), timeoutNanos.get());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RedisException re) {
+                throw re;
+            }
+            throw new RedisException("Unexpected exception while processing command", e.getCause());
+        }
+    }
+
+}
@@ -43,6 +43,16 @@ public class LettuceBasedProxyManagerClusterTest extends AbstractDistributedBuck
                 "LettuceBasedProxyManager_ByteArrayKey",
                 () -> UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8),
                 () -> Bucket4jLettuce.casBasedBuilder(redisClient)
+            ).checkExpiration(),
+            new ProxyManagerSpec<>(
+                "LettuceBasedProxyManager_ByteArrayKey_CrossKeyBatching",
+                () -> UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8),
+                () -> Bucket4jLettuce.casBasedBuilder(redisClient).crossKeyBatching(16)
+            ).checkExpiration(),
+            new ProxyManagerSpec<>(
+                "LettuceLuaBasedProxyManager_ByteArrayKey",
+                () -> UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8),
+                () -> Bucket4jLettuce.luaBasedBuilder(redisClient)
             ).checkExpiration()
         );
     }
@@ -39,6 +39,16 @@ public class LettuceBasedProxyManagerStandaloneTest extends AbstractDistributedB
                 () -> UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8),
                 () -> Bucket4jLettuce.casBasedBuilder(redisClient)
             ).checkExpiration(),
+            new ProxyManagerSpec<>(
+                "LettuceBasedProxyManager_ByteArrayKey_VersionStamping",
+                () -> UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8),
+                () -> Bucket4jLettuce.casBasedBuilder(redisClient).versionStamping()
+            ).checkExpiration(),
+            new ProxyManagerSpec<>(
+                "LettuceBasedProxyManager_ByteArrayKey_CrossKeyBatching",
+                () -> UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8),
+                () -> Bucket4jLettuce.casBasedBuilder(redisClient).crossKeyBatching(16)
+            ).checkExpiration(),
             new ProxyManagerSpec<>(
                 "LettuceBasedProxyManager_StringKey",
                 () -> UUID.randomUUID().toString(),
@@ -49,6 +59,11 @@ public class LettuceBasedProxyManagerStandaloneTest extends AbstractDistributedB
                 () -> UUID.randomUUID().toString(),
                 () -> Bucket4jLettuce.casBasedBuilder(redisClient.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE)))
                     .retryStrategy(metadata -> RetryDecision.retryAfter(Duration.ofNanos(metadata.getAttemptNumber())))
+            ).checkExpiration(),
+            new ProxyManagerSpec<>(
+                "LettuceLuaBasedProxyManager_StringKey",
+                () -> UUID.randomUUID().toString(),
+                () -> Bucket4jLettuce.luaBasedBuilder(redisClient.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE)))
             ).checkExpiration()
         );
     }
@@ -0,0 +1,108 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.redis.cas;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Layout of values that carry version stamp in front of serialized bucket state.
+ *
+ * <p>
+ * Stamped value consists from two bytes of marker, eight bytes of version and serialized state.
+ * Compare-and-swap scripts compare only first {@link #STAMP_LENGTH} bytes of stamped value,
+ * so the original state does not need to be sent back to Redis.
+ * Version of newly created value is chosen randomly and incremented by each update,
+ * that makes practically impossible to confuse the stamp with the stamp of value that was removed and created again.
+ *
+ * <p>
+ * Serialized bucket state starts either from zero byte or from marker of compact format,
+ * so values written without stamp are distinguished by marker and still processed by comparing whole value.
+ */
+public final class VersionStamps {
+
+    public static final int STAMP_LENGTH = 10;
+
+    private static final byte MARKER_0 = (byte) 0xB5;
+    private static final byte MARKER_1 = (byte) 'V';
+
+    private VersionStamps() {
+    }
+
+    /**
+     * @param storedData value stored in Redis, can be null
+     *
+     * @return true if value starts from version stamp
+     */
+    public static boolean isStamped(byte[] storedData) {
+        return storedData != null
+            && storedData.length >= STAMP_LENGTH
+            && storedData[0] == MARKER_0
+            && storedData[1] == MARKER_1;
+    }
+
+    /**
+     * @param storedData stamped value
+     *
+     * @return the stamp which should be passed to compare-and-swap script as expected value
+     */
+    public static byte[] getStamp(byte[] storedData) {
+        return Arrays.copyOf(storedData, STAMP_LENGTH);
+    }
+
+    /**
+     * @param storedData value stored in Redis, can be null
+     *
+     * @return serialized bucket state
+     */
+    public static byte[] toStateBytes(byte[] storedData) {
+        if (!isStamped(storedData)) {
+            return storedData;
+        }
+        return Arrays.copyOfRange(storedData, STAMP_LENGTH, storedData.length);
+    }
+
+    /**
+     * @param originalStoredData value from which state was read, can be null
+     * @param stateBytes new serialized bucket state
+     *
+     * @return new state stamped by version that follows the version of original value
+     */
+    public static byte[] toStampedData(byte[] originalStoredData, byte[] stateBytes) {
+        long version = isStamped(originalStoredData) ? readVersion(originalStoredData) + 1 : ThreadLocalRandom.current().nextLong();
+        byte[] result = new byte[STAMP_LENGTH + stateBytes.length];
+        result[0] = MARKER_0;
+        result[1] = MARKER_1;
+        for (int i = 0; i < 8; i++) {
+            result[2 + i] = (byte) (version >>> (56 - i * 8));
+        }
+        System.arraycopy(stateBytes, 0, result, STAMP_LENGTH, stateBytes.length);
+        return result;
+    }
+
+    private static long readVersion(byte[] storedData) {
+        long version = 0;
+        for (int i = 0; i < 8; i++) {
+            version = (version << 8) | (storedData[2 + i] & 0xFF);
+        }
+        return version;
+    }
+
+}
@@ -55,4 +55,386 @@ public class LuaScripts {
                 "return 0; " +
             "end";
 
+    /**
+     * Compares only version stamp of stored value instead of whole value, see {@code io.github.bucket4j.redis.cas.VersionStamps}.
+     *
+     * <p>Arguments: expected stamp, new value, time to live in milliseconds.
+     */
+    public final static String SCRIPT_COMPARE_STAMP_AND_SWAP_PX =
+            "local current = redis.call('get', KEYS[1]); " +
+            "if current and string.sub(current, 1, string.len(ARGV[1])) == ARGV[1] then " +
+                "redis.call('psetex', KEYS[1], ARGV[3], ARGV[2]); " +
+                "return 1; " +
+            "else " +
+                "return 0; " +
+            "end";
+
+    /**
+     * Compares only version stamp of stored value instead of whole value, see {@code io.github.bucket4j.redis.cas.VersionStamps}.
+     *
+     * <p>Arguments: expected stamp, new value.
+     */
+    public final static String SCRIPT_COMPARE_STAMP_AND_SWAP =
+            "local current = redis.call('get', KEYS[1]); " +
+            "if current and string.sub(current, 1, string.len(ARGV[1])) == ARGV[1] then " +
+                "redis.call('set', KEYS[1], ARGV[2]); " +
+                "return 1; " +
+            "else " +
+                "return 0; " +
+            "end";
+
+    /**
+     * Compares and swaps several keys at once, for each key there are four arguments:
+     * flag of existence of original value("1" or "0"), original value, new value, and time to live in milliseconds("0" means no expiration).
+     * Flag "2" means that instead of original value its version stamp is passed, and only the stamp is compared.
+     */
+    public final static String SCRIPT_COMPARE_AND_SWAP_MULTIPLE =
+            "for i = 1, #KEYS do " +
+                "local base = (i - 1) * 4; " +
+                "local current = redis.call('get', KEYS[i]); " +
+                "if ARGV[base + 1] == '1' then " +
+                    "if current ~= ARGV[base + 2] then " +
+                        "return 0; " +
+                    "end " +
+                "elseif ARGV[base + 1] == '2' then " +
+                    "if not current or string.sub(current, 1, string.len(ARGV[base + 2])) ~= ARGV[base + 2] then " +
+                        "return 0; " +
+                    "end " +
+                "elseif current then " +
+                    "return 0; " +
+                "end " +
+            "end " +
+            "for i = 1, #KEYS do " +
+                "local base = (i - 1) * 4; " +
+                "if ARGV[base + 4] == '0' then " +
+                    "redis.call('set', KEYS[i], ARGV[base + 3]); " +
+                "else " +
+                    "redis.call('psetex', KEYS[i], ARGV[base + 4], ARGV[base + 3]); " +
+                "end " +
+            "end " +
+            "return 1;";
+
+    /**
+     * Executes command against bucket that stored as Redis hash, see {@code io.github.bucket4j.redis.lua.HashStateLayout} for list of fields.
+     *
+     * <p>Arguments: operation code, amount of tokens, current time split to seconds and nanoseconds of second,
+     * expiration mode("0" - none, "1" - fixed time to live, "2" - based on time for refilling bucket up to max) and expiration parameter in milliseconds.
+     *
+     * <p>Returns array which first element is status: "0" - bucket not found, "1" - bucket can not be processed by script,
+     * "2" - command executed and the rest of array contains result.
+     */
+    public final static String SCRIPT_HASH_STATE_EXECUTE = """
+        local key = KEYS[1]
+        local count = redis.call('hget', key, 'n')
+        if not count then
+            return {'0'}
+        end
+        count = tonumber(count)
+        if count == 0 then
+            return {'1'}
+        end
+
+        local MAX = 9223372036854775807
+        local function fmt(x)
+            if x >= MAX then
+                return '9223372036854775807'
+            end
+            if x <= -MAX then
+                return '-9223372036854775808'
+            end
+            return string.format('%.0f', x)
+        end
+        local function divide(dividend, divisor)
+            local result = math.floor(dividend / divisor)
+            if result * divisor > dividend then
+                result = result - 1
+            end
+            return result
+        end
+        -- numbers are doubles, so integers are exact only below 2^53
+        local EXACT = 9007199254740992
+        -- returns quotient and remainder of (a * b + c) / m, where a, b, m and |c| are below 2^52,
+        -- when product does not fit into 2^53 it is calculated by binary multiplication that keeps remainder below m
+        local function mulDiv(a, b, c, m)
+            local product = a * b
+            if product < EXACT and product + c < EXACT then
+                local q = divide(product + c, m)
+                return q, product + c - q * m
+            end
+            local aq = divide(a, m)
+            local ar = a - aq * m
+            local q = 0
+            local r = 0
+            local bit = 1
+            while bit * 2 <= b do
+                bit = bit * 2
+            end
+            while bit >= 1 do
+                q = q * 2
+                r = r * 2
+                if r >= m then
+                    r = r - m
+                    q = q + 1
+                end
+                if b >= bit then
+                    b = b - bit
+                    q = q + aq
+                    r = r + ar
+                    if r >= m then
+                        r = r - m
+                        q = q + 1
+                    end
+                end
+                bit = bit / 2
+            end
+            r = r + c
+            local k = divide(r, m)
+            return q + k, r - k * m
+        end
+
+        local fields = {'e'}
+        for i = 1, count do
+            fields[#fields + 1] = 'c' .. i
+            fields[#fields + 1] = 't' .. i
+            fields[#fields + 1] = 'p' .. i
+            fields[#fields + 1] = 'g' .. i
+            fields[#fields + 1] = 's' .. i
+            fields[#fields + 1] = 'r' .. i
+            fields[#fields + 1] = 'l' .. i
+        end
+        local values = redis.call('hmget', key, unpack(fields))
+        local epoch = tonumber(values[1])
+        local now = (tonumber(ARGV[3]) - epoch) * 1000000000 + tonumber(ARGV[4])
+        local bandwidths = {}
+        for i = 1, count do
+            local base = 1 + (i - 1) * 7
+            bandwidths[i] = {
+                capacity = tonumber(values[base + 1]),
+                refillTokens = tonumber(values[base + 2]),
+                refillPeriod = tonumber(values[base + 3]),
+                intervally = values[base + 4] == '1',
+                size = tonumber(values[base + 5]),
+                roundingError = tonumber(values[base + 6]),
+                lastRefill = tonumber(values[base + 7])
+            }
+        end
+
+        local function refill(b)
+            local previous = b.lastRefill
+            local current = now
+            if current <= previous then
+                return
+            end
+            if b.intervally then
+                current = current - (current - previous) % b.refillPeriod
+                if current <= previous then
+                    return
+                end
+            end
+            b.lastRefill = current
+            if b.size >= b.capacity then
+                return
+            end
+            local duration = current - previous
+            local size = b.size
+            if duration > b.refillPeriod then
+                local periods = divide(duration, b.refillPeriod)
+                size = size + periods * b.refillTokens
+                if size > b.capacity then
+                    b.size = b.capacity
+                    b.roundingError = 0
+                    return
+                end
+                duration = duration - periods * b.refillPeriod
+            end
+            if b.refillTokens * duration + b.roundingError >= MAX then
+                -- the same approximation as 64-bit integer arithmetic uses on overflow
+                size = size + math.floor(duration / b.refillPeriod * b.refillTokens)
+                b.roundingError = 0
+            else
+                local refilled, remainder = mulDiv(b.refillTokens, duration, b.roundingError, b.refillPeriod)
+                size = size + refilled
+                b.roundingError = remainder
+            end
+            if size >= b.capacity then
+                b.size = b.capacity
+                b.roundingError = 0
+                return
+            end
+            b.size = size
+        end
+
+        local function delayForDeficit(b, deficit)
+            if not b.intervally then
+                if b.refillPeriod * deficit >= MAX then
+                    -- the same approximation as 64-bit integer arithmetic uses on overflow
+                    return math.floor(deficit / b.refillTokens * b.refillPeriod)
+                end
+                return (mulDiv(b.refillPeriod, deficit, -b.roundingError, b.refillTokens))
+            end
+            local waitForNextRefill = b.lastRefill + b.refillPeriod - now
+            if deficit <= b.refillTokens then
+                return waitForNextRefill
+            end
+            deficit = deficit - b.refillTokens
+            if deficit < b.refillTokens then
+                return waitForNextRefill + b.refillPeriod
+            end
+            local periods = divide(deficit, b.refillTokens)
+            if deficit ~= periods * b.refillTokens then
+                periods = periods + 1
+            end
+            return periods * b.refillPeriod + waitForNextRefill
+        end
+
+        local function delayToConsume(tokens)
+            local delay = 0
+            for i = 1, count do
+                local b = bandwidths[i]
+                local bandwidthDelay = 0
+                if tokens > b.capacity then
+                    bandwidthDelay = MAX
+                elseif tokens > b.size then
+                    bandwidthDelay = delayForDeficit(b, tokens - b.size)
+                end
+                delay = math.max(delay, bandwidthDelay)
+            end
+            return delay
+        end
+
+        local function delayToFullRefill()
+            local delay = 0
+            for i = 1, count do
+                local b = bandwidths[i]
+                if b.size < b.capacity then
+                    delay = math.max(delay, delayForDeficit(b, b.capacity - b.size))
+                end
+            end
+            return delay
+        end
+
+        local function consume(tokens)
+            for i = 1, count do
+                bandwidths[i].size = bandwidths[i].size - tokens
+            end
+            local stat = redis.pcall('hincrby', key, 'st', fmt(tokens))
+            if type(stat) == 'table' and stat.err then
+                redis.call('hset', key, 'st', fmt(tokens))
+            end
+        end
+
+        local function save()
+            -- epoch is moved forward in order to keep relative timestamps small
+            local shift = bandwidths[1].lastRefill
+            for i = 2, count do
+                shift = math.min(shift, bandwidths[i].lastRefill)
+            end
+            shift = divide(shift, 1000000000)
+            local args = {'e', fmt(epoch + shift)}
+            for i = 1, count do
+                local b = bandwidths[i]
+                args[#args + 1] = 's' .. i
+                args[#args + 1] = fmt(b.size)
+                args[#args + 1] = 'r' .. i
+                args[#args + 1] = fmt(b.roundingError)
+                args[#args + 1] = 'l' .. i
+                args[#args + 1] = fmt(b.lastRefill - shift * 1000000000)
+            end
+            redis.call('hmset', key, unpack(args))
+            redis.call('hincrby', key, 'v', 1)
+            if ARGV[5] == '1' then
+                redis.call('pexpire', key, ARGV[6])
+            elseif ARGV[5] == '2' then
+                local ttl = tonumber(ARGV[6]) + math.floor(delayToFullRefill() / 1000000)
+                if ttl <= 0 then
+                    ttl = 1
+                end
+                redis.call('pexpire', key, fmt(ttl))
+            end
+        end
+
+        for i = 1, count do
+            refill(bandwidths[i])
+        end
+        local available = bandwidths[1].size
+        for i = 2, count do
+            available = math.min(available, bandwidths[i].size)
+        end
+
+        local operation = ARGV[1]
+        local tokens = tonumber(ARGV[2])
+        if operation == '1' then
+            if tokens <= available then
+                consume(tokens)
+                save()
+                return {'2', '1'}
+            end
+            return {'2', '0'}
+        elseif operation == '2' then
+            if tokens <= available then
+                consume(tokens)
+                save()
+                return {'2', '1', fmt(available - tokens), '0', fmt(delayToFullRefill())}
+            end
+            return {'2', '0', fmt(available), fmt(delayToConsume(tokens)), fmt(delayToFullRefill())}
+        elseif operation == '3' then
+            local toConsume = math.min(tokens, available)
+            if toConsume <= 0 then
+                return {'2', '0'}
+            end
+            consume(toConsume)
+            save()
+            return {'2', fmt(toConsume)}
+        elseif operation == '4' then
+            for i = 1, count do
+                local b = bandwidths[i]
+                local size = b.size + tokens
+                if size >= b.capacity then
+                    b.size = b.capacity
+                    b.roundingError = 0
+                else
+                    b.size = size
+                end
+            end
+            save()
+            return {'2'}
+        elseif operation == '5' then
+            return {'2', fmt(available)}
+        end
+        return {'1'}
+        """;
+
+    /**
+     * Returns all fields of bucket that stored as Redis hash, in the same form as HGETALL does.
+     */
+    public final static String SCRIPT_HASH_STATE_GET =
+            "return redis.call('hgetall', KEYS[1]);";
+
+    /**
+     * Replaces all fields of bucket that stored as Redis hash if field "v" still equals to expected version.
+     *
+     * <p>Arguments: expected version(empty string means that bucket must not exist), time to live in milliseconds("0" means no expiration)
+     * and then pairs of field names and values.
+     */
+    public final static String SCRIPT_HASH_STATE_COMPARE_AND_SWAP = """
+        if ARGV[1] == '' then
+            if redis.call('exists', KEYS[1]) == 1 then
+                return {'0'}
+            end
+        elseif redis.call('hget', KEYS[1], 'v') ~= ARGV[1] then
+            return {'0'}
+        end
+        redis.call('del', KEYS[1])
+        redis.call('hmset', KEYS[1], unpack(ARGV, 3))
+        if ARGV[2] ~= '0' then
+            redis.call('pexpire', KEYS[1], ARGV[2])
+        end
+        return {'1'}
+        """;
+
+    public final static String SCRIPT_HASH_STATE_DELETE =
+            "redis.call('del', KEYS[1]); " +
+            "return {};";
+
+
 }
@@ -0,0 +1,180 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.redis.lua;
+
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.Timeout;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.Request;
+import io.github.bucket4j.redis.consts.LuaScripts;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The base class for Redis proxy managers that store bucket as Redis hash and execute the most frequently used commands
+ * ({@code tryConsume}, {@code tryConsumeAndReturnRemaining}, {@code tryConsumeAsMuchAsPossible}, {@code addTokens} and {@code getAvailableTokens})
+ * entirely inside Lua script, so such commands require exactly one round trip to Redis and never retry.
+ *
+ * <p>The rest of commands, as well as buckets that use {@link io.github.bucket4j.MathType#IEEE754} math,
+ * are executed via compare-and-swap over the same hash, see {@link HashStateLayout} for details of storage format.
+ * Commands are executed by script only when expiration strategy is one of provided by {@link ExpirationAfterWriteStrategy} factory methods,
+ * because time to live has to be calculated inside script.
+ *
+ * <p>Storage format is not compatible with compare-and-swap based proxy managers, so both flavours must not be used for the same keys.
+ *
+ * @param <K> type of key
+ */
+public abstract class AbstractRedisLuaBasedProxyManager<K> extends AbstractCompareAndSwapBasedProxyManager<K> {
+
+    private final ExpirationAfterWriteStrategy expirationStrategy;
+    private final LuaCommands luaCommands;
+
+    protected AbstractRedisLuaBasedProxyManager(ClientSideConfig clientSideConfig, ExpirationAfterWriteStrategy expirationStrategy) {
+        super(clientSideConfig);
+        this.expirationStrategy = Objects.requireNonNull(expirationStrategy);
+        this.luaCommands = LuaCommands.forExpirationStrategy(expirationStrategy);
+    }
+
+    /**
+     * Evaluates script against single key.
+     *
+     * @param key the key
+     * @param script the text of script
+     * @param args arguments of script
+     * @param timeoutNanos optional timeout in nanoseconds
+     *
+     * @return array of bulk strings returned by script
+     */
+    protected abstract List<byte[]> evalScript(K key, String script, byte[][] args, Optional<Long> timeoutNanos);
+
+    /**
+     * Asynchronous version of {@link #evalScript(Object, String, byte[][], Optional)}.
+     */
+    protected abstract CompletableFuture<List<byte[]>> evalScriptAsync(K key, String script, byte[][] args, Optional<Long> timeoutNanos);
+
+    @Override
+    public <T> CommandResult<T> execute(K key, Request<T> request) {
+        byte[][] args = luaCommands == null ? null : luaCommands.toArguments(request.getCommand(), getClientSideTime());
+        if (args == null) {
+            return super.execute(key, request);
+        }
+        Timeout timeout = Timeout.of(getClientSideConfig());
+        List<byte[]> reply = timeout.call(timeoutNanos -> evalScript(key, LuaScripts.SCRIPT_HASH_STATE_EXECUTE, args, timeoutNanos));
+        CommandResult<T> result = LuaCommands.toResult(request.getCommand(), reply);
+        return result != null ? result : super.execute(key, request);
+    }
+
+    @Override
+    public <T> CompletableFuture<CommandResult<T>> executeAsync(K key, Request<T> request) {
+        byte[][] args = luaCommands == null ? null : luaCommands.toArguments(request.getCommand(), getClientSideTime());
+        if (args == null) {
+            return super.executeAsync(key, request);
+        }
+        Timeout timeout = Timeout.of(getClientSideConfig());
+        return timeout.callAsync(timeoutNanos -> evalScriptAsync(key, LuaScripts.SCRIPT_HASH_STATE_EXECUTE, args, timeoutNanos))
+            .thenCompose(reply -> {
+                CommandResult<T> result = LuaCommands.toResult(request.getCommand(), reply);
+                return result != null ? CompletableFuture.completedFuture(result) : super.executeAsync(key, request);
+            });
+    }
+
+    @Override
+    protected CompareAndSwapOperation beginCompareAndSwapOperation(K key) {
+        return new CompareAndSwapOperation() {
+            Long version;
+
+            @Override
+            public Optional<byte[]> getStateData(Optional<Long> timeoutNanos) {
+                Map<String, byte[]> hash = HashStateLayout.toMap(evalScript(key, LuaScripts.SCRIPT_HASH_STATE_GET, new byte[0][], timeoutNanos));
+                version = hash.isEmpty() ? null : HashStateLayout.getVersion(hash);
+                return Optional.ofNullable(toStateData(hash));
+            }
+
+            @Override
+            public boolean compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState, Optional<Long> timeoutNanos) {
+                byte[][] args = toCompareAndSwapArguments(version, newData, newState);
+                return isSwapped(evalScript(key, LuaScripts.SCRIPT_HASH_STATE_COMPARE_AND_SWAP, args, timeoutNanos));
+            }
+        };
+    }
+
+    @Override
+    protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(K key) {
+        return new AsyncCompareAndSwapOperation() {
+            volatile Long version;
+
+            @Override
+            public CompletableFuture<Optional<byte[]>> getStateData(Optional<Long> timeoutNanos) {
+                return evalScriptAsync(key, LuaScripts.SCRIPT_HASH_STATE_GET, new byte[0][], timeoutNanos)
+                    .thenApply(reply -> {
+                        Map<String, byte[]> hash = HashStateLayout.toMap(reply);
+                        version = hash.isEmpty() ? null : HashStateLayout.getVersion(hash);
+                        return Optional.ofNullable(toStateData(hash));
+                    });
+            }
+
+            @Override
+            public CompletableFuture<Boolean> compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState, Optional<Long> timeoutNanos) {
+                byte[][] args = toCompareAndSwapArguments(version, newData, newState);
+                return evalScriptAsync(key, LuaScripts.SCRIPT_HASH_STATE_COMPARE_AND_SWAP, args, timeoutNanos)
+                    .thenApply(AbstractRedisLuaBasedProxyManager::isSwapped);
+            }
+        };
+    }
+
+    @Override
+    public void removeProxy(K key) {
+        evalScript(key, LuaScripts.SCRIPT_HASH_STATE_DELETE, new byte[0][], Optional.empty());
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(K key) {
+        return evalScriptAsync(key, LuaScripts.SCRIPT_HASH_STATE_DELETE, new byte[0][], Optional.empty())
+            .thenApply(reply -> null);
+    }
+
+    @Override
+    public boolean isExpireAfterWriteSupported() {
+        return true;
+    }
+
+    private byte[] toStateData(Map<String, byte[]> hash) {
+        return hash.isEmpty() ? null : HashStateLayout.toSerializedState(hash, getBackwardCompatibilityVersion());
+    }
+
+    private byte[][] toCompareAndSwapArguments(Long expectedVersion, byte[] newData, RemoteBucketState newState) {
+        long ttlMillis = expirationStrategy.calculateTimeToLiveMillis(newState, currentTimeNanos());
+        return HashStateLayout.toCompareAndSwapArguments(expectedVersion, ttlMillis, newState, newData, getBackwardCompatibilityVersion());
+    }
+
+    private static boolean isSwapped(List<byte[]> reply) {
+        return !reply.isEmpty() && reply.get(0).length == 1 && reply.get(0)[0] == '1';
+    }
+
+}
@@ -0,0 +1,195 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.redis.lua;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketState;
+import io.github.bucket4j.BucketState64BitsInteger;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import io.github.bucket4j.distributed.remote.RemoteStat;
+import io.github.bucket4j.distributed.serialization.InternalSerializationHelper;
+import io.github.bucket4j.distributed.versioning.Version;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Describes how bucket is stored as Redis hash, all numbers are stored as decimal strings:
+ * <ul>
+ *     <li>{@code v} - version of state, incremented on each write;</li>
+ *     <li>{@code n} - count of bandwidths, zero means that state can not be processed by Lua and stored as serialized blob in field {@code state};</li>
+ *     <li>{@code e} - epoch in seconds, all timestamps are stored relatively to epoch in order to stay within 2^53 precision of Lua numbers;</li>
+ *     <li>{@code cfg} - serialized configuration;</li>
+ *     <li>{@code cv} - configuration version, absent when version is not specified;</li>
+ *     <li>{@code st} - count of consumed tokens;</li>
+ *     <li>{@code c<i>}, {@code t<i>}, {@code p<i>}, {@code g<i>} - capacity, refill tokens, refill period in nanoseconds and intervally refill flag of i-th bandwidth;</li>
+ *     <li>{@code s<i>}, {@code r<i>}, {@code l<i>} - size, rounding error and relative time of last refill of i-th bandwidth.</li>
+ * </ul>
+ * Bandwidths are numbered starting from one, as it is usual for Lua.
+ */
+class HashStateLayout {
+
+    static final String VERSION = "v";
+    static final String BANDWIDTH_COUNT = "n";
+    static final String EPOCH_SECONDS = "e";
+    static final String CONFIGURATION = "cfg";
+    static final String CONFIGURATION_VERSION = "cv";
+    static final String CONSUMED_TOKENS = "st";
+    static final String SERIALIZED_STATE = "state";
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long MAX_EXACT_LUA_INTEGER = 1L << 52;
+
+    static Map<String, byte[]> toMap(List<byte[]> fieldsAndValues) {
+        Map<String, byte[]> hash = new HashMap<>();
+        for (int i = 0; i + 1 < fieldsAndValues.size(); i += 2) {
+            hash.put(new String(fieldsAndValues.get(i), StandardCharsets.UTF_8), fieldsAndValues.get(i + 1));
+        }
+        return hash;
+    }
+
+    static long getVersion(Map<String, byte[]> hash) {
+        return readLong(hash, VERSION);
+    }
+
+    static byte[] toSerializedState(Map<String, byte[]> hash, Version backwardCompatibilityVersion) {
+        if (readLong(hash, BANDWIDTH_COUNT) == 0) {
+            return hash.get(SERIALIZED_STATE);
+        }
+        return InternalSerializationHelper.serializeState(toState(hash), backwardCompatibilityVersion);
+    }
+
+    static RemoteBucketState toState(Map<String, byte[]> hash) {
+        int bandwidthCount = (int) readLong(hash, BANDWIDTH_COUNT);
+        if (bandwidthCount == 0) {
+            return InternalSerializationHelper.deserializeState(hash.get(SERIALIZED_STATE));
+        }
+        BucketConfiguration configuration = InternalSerializationHelper.deserializeConfiguration(hash.get(CONFIGURATION));
+        long epochNanos = readLong(hash, EPOCH_SECONDS) * NANOS_PER_SECOND;
+        long[] stateData = new long[bandwidthCount * 3];
+        for (int i = 0; i < bandwidthCount; i++) {
+            stateData[i * 3] = epochNanos + readLong(hash, "l" + (i + 1));
+            stateData[i * 3 + 1] = readLong(hash, "s" + (i + 1));
+            stateData[i * 3 + 2] = readLong(hash, "r" + (i + 1));
+        }
+        BucketState state = new BucketState64BitsInteger(configuration, stateData);
+        RemoteStat stat = new RemoteStat(hash.containsKey(CONSUMED_TOKENS) ? readLong(hash, CONSUMED_TOKENS) : 0L);
+        Long configurationVersion = hash.containsKey(CONFIGURATION_VERSION) ? readLong(hash, CONFIGURATION_VERSION) : null;
+        return new RemoteBucketState(state, stat, configurationVersion);
+    }
+
+    /**
+     * Builds arguments for {@link io.github.bucket4j.redis.consts.LuaScripts#SCRIPT_HASH_STATE_COMPARE_AND_SWAP}.
+     *
+     * @param expectedVersion version of state that was read before, or {@code null} when bucket did not exist
+     */
+    static byte[][] toCompareAndSwapArguments(Long expectedVersion, long ttlMillis, RemoteBucketState state, byte[] serializedState, Version backwardCompatibilityVersion) {
+        List<byte[]> args = new ArrayList<>();
+        args.add(expectedVersion == null ? new byte[0] : encode(expectedVersion));
+        args.add(encode(Math.max(0L, ttlMillis)));
+        add(args, VERSION, expectedVersion == null ? 1L : expectedVersion + 1);
+
+        if (!(state.getState() instanceof BucketState64BitsInteger nativeState) || !isExactInLua(state.getConfiguration(), nativeState)) {
+            add(args, BANDWIDTH_COUNT, 0L);
+            args.add(encode(SERIALIZED_STATE));
+            args.add(serializedState);
+            return args.toArray(new byte[0][]);
+        }
+
+        Bandwidth[] bandwidths = state.getConfiguration().getBandwidths();
+        long minLastRefillNanos = nativeState.getLastRefillTimeNanos(0);
+        for (int i = 1; i < bandwidths.length; i++) {
+            minLastRefillNanos = Math.min(minLastRefillNanos, nativeState.getLastRefillTimeNanos(i));
+        }
+        long epochSeconds = Math.floorDiv(minLastRefillNanos, NANOS_PER_SECOND);
+        long epochNanos = epochSeconds * NANOS_PER_SECOND;
+
+        add(args, BANDWIDTH_COUNT, bandwidths.length);
+        add(args, EPOCH_SECONDS, epochSeconds);
+        args.add(encode(CONFIGURATION));
+        args.add(InternalSerializationHelper.serializeConfiguration(state.getConfiguration(), backwardCompatibilityVersion));
+        if (state.getConfigurationVersion() != null) {
+            add(args, CONFIGURATION_VERSION, state.getConfigurationVersion());
+        }
+        add(args, CONSUMED_TOKENS, state.getRemoteStat().getConsumedTokens());
+        for (int i = 0; i < bandwidths.length; i++) {
+            Bandwidth bandwidth = bandwidths[i];
+            int n = i + 1;
+            add(args, "c" + n, bandwidth.getCapacity());
+            add(args, "t" + n, bandwidth.getRefillTokens());
+            add(args, "p" + n, bandwidth.getRefillPeriodNanos());
+            add(args, "g" + n, bandwidth.isRefillIntervally() ? 1L : 0L);
+            add(args, "s" + n, nativeState.getCurrentSize(i));
+            add(args, "r" + n, nativeState.getRoundingError(i));
+            add(args, "l" + n, nativeState.getLastRefillTimeNanos(i) - epochNanos);
+        }
+        return args.toArray(new byte[0][]);
+    }
+
+    /**
+     * Checks that all numbers of state are below 2^52, because Lua numbers are doubles that hold integers exactly only below 2^53,
+     * and script needs one more bit to keep intermediate results exact. Other states are stored as serialized blob and processed by compare-and-swap.
+     */
+    static boolean isExactInLua(BucketConfiguration configuration, BucketState64BitsInteger state) {
+        Bandwidth[] bandwidths = configuration.getBandwidths();
+        for (int i = 0; i < bandwidths.length; i++) {
+            Bandwidth bandwidth = bandwidths[i];
+            if (!isExactInLua(bandwidth.getCapacity()) || !isExactInLua(bandwidth.getRefillTokens()) || !isExactInLua(bandwidth.getRefillPeriodNanos())
+                    || !isExactInLua(state.getCurrentSize(i)) || !isExactInLua(state.getRoundingError(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isExactInLua(long value) {
+        return Math.abs(value) < MAX_EXACT_LUA_INTEGER;
+    }
+
+    static byte[] encode(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] encode(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static long decode(byte[] value) {
+        return Long.parseLong(new String(value, StandardCharsets.UTF_8));
+    }
+
+    private static void add(List<byte[]> args, String field, long value) {
+        args.add(encode(field));
+        args.add(encode(value));
+    }
+
+    private static long readLong(Map<String, byte[]> hash, String field) {
+        byte[] value = hash.get(field);
+        if (value == null) {
+            throw new IllegalStateException("Field " + field + " is absent in bucket state");
+        }
+        return decode(value);
+    }
+
+}
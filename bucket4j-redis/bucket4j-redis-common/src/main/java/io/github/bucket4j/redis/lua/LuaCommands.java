@@ -0,0 +1,150 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.redis.lua;
+
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.expiration.BasedOnTimeForRefillingBucketUpToMaxExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.expiration.FixedTtlExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.expiration.NoneExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.remote.CommandResult;
+import io.github.bucket4j.distributed.remote.RemoteCommand;
+import io.github.bucket4j.distributed.remote.commands.AddTokensCommand;
+import io.github.bucket4j.distributed.remote.commands.ConsumeAsMuchAsPossibleCommand;
+import io.github.bucket4j.distributed.remote.commands.GetAvailableTokensCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeAndReturnRemainingTokensCommand;
+import io.github.bucket4j.distributed.remote.commands.TryConsumeCommand;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static io.github.bucket4j.distributed.serialization.PrimitiveSerializationHandles.LONG_HANDLE;
+import static io.github.bucket4j.redis.lua.HashStateLayout.decode;
+import static io.github.bucket4j.redis.lua.HashStateLayout.encode;
+
+/**
+ * Translates commands to arguments of {@link io.github.bucket4j.redis.consts.LuaScripts#SCRIPT_HASH_STATE_EXECUTE} and its replies back to command results.
+ */
+class LuaCommands {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private static final byte[] TRY_CONSUME = encode(1);
+    private static final byte[] TRY_CONSUME_AND_RETURN_REMAINING = encode(2);
+    private static final byte[] CONSUME_AS_MUCH_AS_POSSIBLE = encode(3);
+    private static final byte[] ADD_TOKENS = encode(4);
+    private static final byte[] GET_AVAILABLE_TOKENS = encode(5);
+
+    private static final String STATUS_NOT_FOUND = "0";
+    private static final String STATUS_EXECUTED = "2";
+
+    private final byte[] expirationMode;
+    private final byte[] expirationParameter;
+
+    private LuaCommands(long expirationMode, long expirationParameter) {
+        this.expirationMode = encode(expirationMode);
+        this.expirationParameter = encode(expirationParameter);
+    }
+
+    /**
+     * @return translator for specified strategy, or {@code null} when TTL of strategy can not be calculated by script
+     */
+    static LuaCommands forExpirationStrategy(ExpirationAfterWriteStrategy expirationStrategy) {
+        if (expirationStrategy instanceof NoneExpirationAfterWriteStrategy) {
+            return new LuaCommands(0, 0);
+        } else if (expirationStrategy instanceof FixedTtlExpirationAfterWriteStrategy fixedTtl) {
+            // non-positive TTL means that key should not expire, exactly as compare-and-swap based implementation does
+            long ttlMillis = fixedTtl.getTtlMillis();
+            return ttlMillis > 0 ? new LuaCommands(1, ttlMillis) : new LuaCommands(0, 0);
+        } else if (expirationStrategy instanceof BasedOnTimeForRefillingBucketUpToMaxExpirationAfterWriteStrategy basedOnRefill) {
+            return new LuaCommands(2, basedOnRefill.getKeepAfterRefillDurationMillis());
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * @return arguments for script, or {@code null} when command can not be executed by script
+     */
+    byte[][] toArguments(RemoteCommand<?> command, long currentTimeNanos) {
+        byte[] operation;
+        long tokens;
+        if (command instanceof TryConsumeCommand tryConsume) {
+            operation = TRY_CONSUME;
+            tokens = tryConsume.getTokensToConsume();
+        } else if (command instanceof TryConsumeAndReturnRemainingTokensCommand tryConsume) {
+            operation = TRY_CONSUME_AND_RETURN_REMAINING;
+            tokens = tryConsume.getTokensToConsume();
+        } else if (command instanceof ConsumeAsMuchAsPossibleCommand consume) {
+            operation = CONSUME_AS_MUCH_AS_POSSIBLE;
+            tokens = consume.getLimit();
+        } else if (command instanceof AddTokensCommand addTokens) {
+            operation = ADD_TOKENS;
+            tokens = addTokens.getTokensToAdd();
+        } else if (command instanceof GetAvailableTokensCommand) {
+            operation = GET_AVAILABLE_TOKENS;
+            tokens = 0;
+        } else {
+            return null;
+        }
+        return new byte[][] {
+            operation,
+            encode(tokens),
+            encode(Math.floorDiv(currentTimeNanos, NANOS_PER_SECOND)),
+            encode(Math.floorMod(currentTimeNanos, NANOS_PER_SECOND)),
+            expirationMode,
+            expirationParameter
+        };
+    }
+
+    /**
+     * @return result of command, or {@code null} when script was not able to execute command and compare-and-swap should be used instead
+     */
+    static <T> CommandResult<T> toResult(RemoteCommand<T> command, List<byte[]> reply) {
+        String status = new String(reply.get(0), StandardCharsets.UTF_8);
+        if (status.equals(STATUS_NOT_FOUND)) {
+            return CommandResult.bucketNotFound();
+        }
+        if (!status.equals(STATUS_EXECUTED)) {
+            return null;
+        }
+        CommandResult<?> result;
+        if (command instanceof TryConsumeCommand) {
+            result = decode(reply.get(1)) == 1 ? CommandResult.TRUE : CommandResult.FALSE;
+        } else if (command instanceof TryConsumeAndReturnRemainingTokensCommand) {
+            ConsumptionProbe probe;
+            if (decode(reply.get(1)) == 1) {
+                probe = ConsumptionProbe.consumed(decode(reply.get(2)), decode(reply.get(4)));
+            } else {
+                probe = ConsumptionProbe.rejected(decode(reply.get(2)), decode(reply.get(3)), decode(reply.get(4)));
+            }
+            result = CommandResult.success(probe, ConsumptionProbe.SERIALIZATION_HANDLE);
+        } else if (command instanceof ConsumeAsMuchAsPossibleCommand) {
+            long consumed = decode(reply.get(1));
+            result = consumed == 0 ? CommandResult.ZERO : CommandResult.success(consumed, LONG_HANDLE);
+        } else if (command instanceof AddTokensCommand) {
+            result = CommandResult.NOTHING;
+        } else {
+            result = CommandResult.success(decode(reply.get(1)), LONG_HANDLE);
+        }
+        return (CommandResult<T>) result;
+    }
+
+}
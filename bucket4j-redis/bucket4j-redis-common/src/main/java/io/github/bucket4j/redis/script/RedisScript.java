@@ -0,0 +1,183 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.redis.script;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Lua script which is invoked by its SHA1 digest via EVALSHA, so source of script is sent to Redis only when Redis does not know the script.
+ *
+ * <p>
+ * Instances are registered once per source and shared by all proxy-managers, digest and binary form of source are calculated only once.
+ * When Redis replies by NOSCRIPT error, that happens after restart, failover or SCRIPT FLUSH,
+ * the script is invoked via EVAL, that also puts the script into the script cache of Redis node, so next invocations use EVALSHA again.
+ */
+public final class RedisScript {
+
+    private static final Map<String, RedisScript> REGISTRY = new ConcurrentHashMap<>();
+
+    private final String source;
+    private final byte[] sourceBytes;
+    private final String sha1;
+    private final byte[] sha1Bytes;
+
+    private RedisScript(String source) {
+        this.source = source;
+        this.sourceBytes = source.getBytes(StandardCharsets.UTF_8);
+        this.sha1 = sha1Hex(sourceBytes);
+        this.sha1Bytes = sha1.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Returns the registered script for provided source, the script is registered on first call.
+     *
+     * @param source source of Lua script
+     *
+     * @return the script
+     */
+    public static RedisScript of(String source) {
+        RedisScript script = REGISTRY.get(source);
+        if (script != null) {
+            return script;
+        }
+        return REGISTRY.computeIfAbsent(source, RedisScript::new);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public byte[] getSourceBytes() {
+        return sourceBytes;
+    }
+
+    /**
+     * @return hex representation of SHA1 digest of script in lower case, as expected by EVALSHA
+     */
+    public String getSha1() {
+        return sha1;
+    }
+
+    public byte[] getSha1Bytes() {
+        return sha1Bytes;
+    }
+
+    /**
+     * Invokes the script via {@code evalSha}, and falls back to {@code eval} if Redis does not know the script.
+     *
+     * @param evalSha invocation of EVALSHA
+     * @param eval invocation of EVAL
+     *
+     * @return the result of script
+     */
+    public <T> T evaluate(Supplier<T> evalSha, Supplier<T> eval) {
+        try {
+            return evalSha.get();
+        } catch (RuntimeException e) {
+            if (!isNoScriptError(e)) {
+                throw e;
+            }
+            return eval.get();
+        }
+    }
+
+    /**
+     * Asynchronous version of {@link #evaluate(Supplier, Supplier)}.
+     *
+     * @param evalSha invocation of EVALSHA
+     * @param eval invocation of EVAL
+     *
+     * @return the future which will be completed by result of script
+     */
+    public <T> CompletableFuture<T> evaluateAsync(Supplier<? extends CompletionStage<T>> evalSha, Supplier<? extends CompletionStage<T>> eval) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        evalSha.get().whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else if (isNoScriptError(error)) {
+                eval.get().whenComplete((evalValue, evalError) -> {
+                    if (evalError == null) {
+                        result.complete(evalValue);
+                    } else {
+                        result.completeExceptionally(unwrap(evalError));
+                    }
+                });
+            } else {
+                result.completeExceptionally(unwrap(error));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Checks whether error or one of its causes is the NOSCRIPT reply of Redis.
+     *
+     * @param error the error
+     *
+     * @return true if Redis does not know the script
+     */
+    public static boolean isNoScriptError(Throwable error) {
+        Throwable current = error;
+        while (current != null) {
+            if (!(current instanceof CompletionException) && !(current instanceof ExecutionException)) {
+                String message = current.getMessage();
+                if (message != null && message.contains("NOSCRIPT")) {
+                    return true;
+                }
+            }
+            if (current.getCause() == current) {
+                return false;
+            }
+            current = current.getCause();
+        }
+        return false;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+
+    private static String sha1Hex(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(bytes);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+                hex.append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.redis.cas;
+
+import io.github.bucket4j.distributed.proxy.AbstractProxyManagerBuilder;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AbstractCompareAndSwapBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompareAndSwapOperation;
+import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Emulates Redis-based compare-and-swap proxy-manager, the storage behaves in the same way as scripts from {@link io.github.bucket4j.redis.consts.LuaScripts}.
+ */
+public class EmulatedStampedProxyManager extends AbstractCompareAndSwapBasedProxyManager<String> {
+
+    private final Map<String, byte[]> storage;
+    private final boolean versionStamping;
+
+    private EmulatedStampedProxyManager(EmulatedStampedProxyManagerBuilder builder) {
+        super(builder.getClientSideConfig());
+        this.storage = builder.storage;
+        this.versionStamping = builder.versionStamping;
+    }
+
+    public static EmulatedStampedProxyManagerBuilder builder(Map<String, byte[]> storage) {
+        return new EmulatedStampedProxyManagerBuilder(storage);
+    }
+
+    @Override
+    protected CompareAndSwapOperation beginCompareAndSwapOperation(String key) {
+        return new CompareAndSwapOperation() {
+            @Override
+            public Optional<byte[]> getStateData(Optional<Long> timeoutNanos) {
+                return Optional.ofNullable(storage.get(key));
+            }
+
+            @Override
+            public boolean compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState, Optional<Long> timeoutNanos) {
+                return EmulatedStampedProxyManager.this.compareAndSwap(key, originalData, newData);
+            }
+        };
+    }
+
+    @Override
+    protected AsyncCompareAndSwapOperation beginAsyncCompareAndSwapOperation(String key) {
+        return new AsyncCompareAndSwapOperation() {
+            @Override
+            public CompletableFuture<Optional<byte[]>> getStateData(Optional<Long> timeoutNanos) {
+                return CompletableFuture.completedFuture(Optional.ofNullable(storage.get(key)));
+            }
+
+            @Override
+            public CompletableFuture<Boolean> compareAndSwap(byte[] originalData, byte[] newData, RemoteBucketState newState, Optional<Long> timeoutNanos) {
+                return CompletableFuture.completedFuture(EmulatedStampedProxyManager.this.compareAndSwap(key, originalData, newData));
+            }
+        };
+    }
+
+    @Override
+    public void removeProxy(String key) {
+        storage.remove(key);
+    }
+
+    @Override
+    protected CompletableFuture<Void> removeAsync(String key) {
+        storage.remove(key);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    protected byte[] toStateBytes(byte[] storedData) {
+        return VersionStamps.toStateBytes(storedData);
+    }
+
+    @Override
+    protected byte[] toStoredData(byte[] originalStoredData, byte[] stateBytes) {
+        return versionStamping ? VersionStamps.toStampedData(originalStoredData, stateBytes) : stateBytes;
+    }
+
+    @Override
+    protected boolean isLastSeenStateCacheSupported() {
+        return true;
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return true;
+    }
+
+    private boolean compareAndSwap(String key, byte[] originalData, byte[] newData) {
+        if (originalData == null) {
+            return storage.putIfAbsent(key, newData) == null;
+        }
+        // the same data that would be sent to Redis
+        byte[] expected = VersionStamps.isStamped(originalData) ? VersionStamps.getStamp(originalData) : originalData;
+        boolean[] swapped = new boolean[1];
+        storage.computeIfPresent(key, (k, current) -> {
+            boolean matches = VersionStamps.isStamped(originalData)
+                ? current.length >= expected.length && Arrays.equals(current, 0, expected.length, expected, 0, expected.length)
+                : Arrays.equals(current, expected);
+            swapped[0] = matches;
+            return matches ? newData : current;
+        });
+        return swapped[0];
+    }
+
+    public static class EmulatedStampedProxyManagerBuilder extends AbstractProxyManagerBuilder<String, EmulatedStampedProxyManager, EmulatedStampedProxyManagerBuilder> {
+
+        private final Map<String, byte[]> storage;
+        private boolean versionStamping;
+
+        private EmulatedStampedProxyManagerBuilder(Map<String, byte[]> storage) {
+            this.storage = storage;
+        }
+
+        public EmulatedStampedProxyManagerBuilder versionStamping() {
+            this.versionStamping = true;
+            return this;
+        }
+
+        @Override
+        public EmulatedStampedProxyManager build() {
+            return new EmulatedStampedProxyManager(this);
+        }
+
+    }
+
+}
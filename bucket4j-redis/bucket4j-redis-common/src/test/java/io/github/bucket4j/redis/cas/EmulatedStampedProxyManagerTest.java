@@ -0,0 +1,50 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.redis.cas;
+
+import io.github.bucket4j.tck.AbstractDistributedBucketTest;
+import io.github.bucket4j.tck.ProxyManagerSpec;
+import org.junit.jupiter.api.BeforeAll;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class EmulatedStampedProxyManagerTest extends AbstractDistributedBucketTest {
+
+    @BeforeAll
+    public static void setupStorage() {
+        Map<String, byte[]> storage = new ConcurrentHashMap<>();
+        specs = Arrays.asList(
+            new ProxyManagerSpec<>(
+                "EmulatedStampedProxyManager",
+                () -> UUID.randomUUID().toString(),
+                () -> EmulatedStampedProxyManager.builder(storage).versionStamping()
+            ),
+            new ProxyManagerSpec<>(
+                "EmulatedStampedProxyManager_LastSeenStateCache",
+                () -> UUID.randomUUID().toString(),
+                () -> EmulatedStampedProxyManager.builder(storage).versionStamping().lastSeenStateCache(1000)
+            )
+        );
+    }
+
+}
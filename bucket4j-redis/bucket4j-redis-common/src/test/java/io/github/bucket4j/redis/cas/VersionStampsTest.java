@@ -0,0 +1,104 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.redis.cas;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.BucketProxy;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VersionStampsTest {
+
+    private static final BucketConfiguration CONFIGURATION = BucketConfiguration.builder()
+        .addLimit(limit -> limit.capacity(100).refillGreedy(10, Duration.ofSeconds(1)))
+        .build();
+
+    @Test
+    public void unstampedDataShouldBeReturnedAsIs() {
+        byte[] legacy = {0, 0, 0, 3, 1, 2, 3, 4, 5, 6, 7, 8};
+        assertFalse(VersionStamps.isStamped(legacy));
+        assertSame(legacy, VersionStamps.toStateBytes(legacy));
+        assertNull(VersionStamps.toStateBytes(null));
+        assertFalse(VersionStamps.isStamped(null));
+    }
+
+    @Test
+    public void versionShouldBeIncrementedByEachUpdate() {
+        byte[] state = {1, 2, 3};
+        byte[] first = VersionStamps.toStampedData(null, state);
+        byte[] second = VersionStamps.toStampedData(first, new byte[] {4, 5});
+
+        assertTrue(VersionStamps.isStamped(first));
+        assertTrue(VersionStamps.isStamped(second));
+        assertArrayEquals(state, VersionStamps.toStateBytes(first));
+        assertArrayEquals(new byte[] {4, 5}, VersionStamps.toStateBytes(second));
+
+        byte[] firstStamp = VersionStamps.getStamp(first);
+        byte[] secondStamp = VersionStamps.getStamp(second);
+        assertEquals(VersionStamps.STAMP_LENGTH, firstStamp.length);
+        assertFalse(Arrays.equals(firstStamp, secondStamp));
+        assertEquals(ByteBuffer.wrap(firstStamp, 2, 8).getLong() + 1, ByteBuffer.wrap(secondStamp, 2, 8).getLong());
+    }
+
+    @Test
+    public void valuesWrittenWithoutStampShouldBeUpgraded() {
+        Map<String, byte[]> storage = new ConcurrentHashMap<>();
+        BucketProxy legacyBucket = EmulatedStampedProxyManager.builder(storage).build()
+            .builder().build("key", () -> CONFIGURATION);
+        legacyBucket.tryConsume(10);
+        assertFalse(VersionStamps.isStamped(storage.get("key")));
+
+        BucketProxy stampedBucket = EmulatedStampedProxyManager.builder(storage).versionStamping().build()
+            .builder().build("key", () -> CONFIGURATION);
+        assertTrue(stampedBucket.tryConsume(10));
+        assertTrue(VersionStamps.isStamped(storage.get("key")));
+
+        // stamped values are still understood when stamping is disabled
+        assertEquals(80, legacyBucket.getAvailableTokens());
+    }
+
+    @Test
+    public void staleStampShouldBeRejected() {
+        Map<String, byte[]> storage = new ConcurrentHashMap<>();
+        BucketProxy bucket = EmulatedStampedProxyManager.builder(storage).versionStamping().lastSeenStateCache(10).build()
+            .builder().build("key", () -> CONFIGURATION);
+        BucketProxy anotherBucket = EmulatedStampedProxyManager.builder(storage).versionStamping().lastSeenStateCache(10).build()
+            .builder().build("key", () -> CONFIGURATION);
+
+        bucket.tryConsume(1);
+        anotherBucket.tryConsume(1);
+        // first proxy-manager remembers outdated stamp, so its compare-and-swap fails and state is re-read
+        bucket.tryConsume(1);
+        assertEquals(97, anotherBucket.getAvailableTokens());
+    }
+
+}
@@ -0,0 +1,77 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.redis.lua;
+
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.proxy.AbstractProxyManagerBuilder;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public class EmulatedLuaBasedProxyManager extends AbstractRedisLuaBasedProxyManager<String> {
+
+    private final HashStateScriptEmulator emulator;
+
+    private EmulatedLuaBasedProxyManager(EmulatedLuaBasedProxyManagerBuilder builder) {
+        super(builder.getClientSideConfig(), builder.getExpirationAfterWrite().orElse(ExpirationAfterWriteStrategy.none()));
+        this.emulator = builder.emulator;
+    }
+
+    public static EmulatedLuaBasedProxyManagerBuilder builder(HashStateScriptEmulator emulator) {
+        return new EmulatedLuaBasedProxyManagerBuilder(emulator);
+    }
+
+    @Override
+    protected List<byte[]> evalScript(String key, String script, byte[][] args, Optional<Long> timeoutNanos) {
+        return emulator.eval(key, script, args);
+    }
+
+    @Override
+    protected CompletableFuture<List<byte[]>> evalScriptAsync(String key, String script, byte[][] args, Optional<Long> timeoutNanos) {
+        return CompletableFuture.supplyAsync(() -> emulator.eval(key, script, args));
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return true;
+    }
+
+    public static class EmulatedLuaBasedProxyManagerBuilder extends AbstractProxyManagerBuilder<String, EmulatedLuaBasedProxyManager, EmulatedLuaBasedProxyManagerBuilder> {
+
+        private final HashStateScriptEmulator emulator;
+
+        private EmulatedLuaBasedProxyManagerBuilder(HashStateScriptEmulator emulator) {
+            this.emulator = emulator;
+        }
+
+        @Override
+        public EmulatedLuaBasedProxyManager build() {
+            return new EmulatedLuaBasedProxyManager(this);
+        }
+
+        @Override
+        public boolean isExpireAfterWriteSupported() {
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,49 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.redis.lua;
+
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.tck.AbstractDistributedBucketTest;
+import io.github.bucket4j.tck.ProxyManagerSpec;
+import org.junit.jupiter.api.BeforeAll;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+public class EmulatedLuaBasedProxyManagerTest extends AbstractDistributedBucketTest {
+
+    @BeforeAll
+    public static void setupEmulator() {
+        HashStateScriptEmulator emulator = new HashStateScriptEmulator();
+        specs = Arrays.asList(
+            new ProxyManagerSpec<>(
+                "EmulatedLuaBasedProxyManager",
+                () -> UUID.randomUUID().toString(),
+                () -> EmulatedLuaBasedProxyManager.builder(emulator)
+            ).checkExpiration(),
+            new ProxyManagerSpec<>(
+                "EmulatedLuaBasedProxyManager_IEEE754",
+                () -> UUID.randomUUID().toString(),
+                () -> EmulatedLuaBasedProxyManager.builder(emulator).mathType(MathType.IEEE754)
+            ).checkExpiration()
+        );
+    }
+
+}
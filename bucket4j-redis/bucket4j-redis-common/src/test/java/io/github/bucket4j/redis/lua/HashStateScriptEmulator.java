@@ -0,0 +1,404 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.redis.lua;
+
+import io.github.bucket4j.redis.consts.LuaScripts;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis-compatible stand-in for tests which can not start Redis: emulates hash-state scripts from {@link LuaScripts} statement by statement,
+ * including the fact that Lua operates with double precision numbers.
+ */
+class HashStateScriptEmulator {
+
+    private static final double MAX = 9223372036854775807d;
+    private static final double EXACT = 9007199254740992d;
+
+    private final Map<String, Map<String, byte[]>> hashes = new HashMap<>();
+    private final Map<String, Long> expirations = new HashMap<>();
+
+    synchronized List<byte[]> eval(String key, String script, byte[][] args) {
+        expireIfNeeded(key);
+        String[] argv = new String[args.length];
+        for (int i = 0; i < args.length; i++) {
+            argv[i] = new String(args[i], StandardCharsets.UTF_8);
+        }
+        if (script.equals(LuaScripts.SCRIPT_HASH_STATE_EXECUTE)) {
+            return execute(key, argv);
+        } else if (script.equals(LuaScripts.SCRIPT_HASH_STATE_GET)) {
+            List<byte[]> reply = new ArrayList<>();
+            hashes.getOrDefault(key, Map.of()).forEach((field, value) -> {
+                reply.add(bytes(field));
+                reply.add(value);
+            });
+            return reply;
+        } else if (script.equals(LuaScripts.SCRIPT_HASH_STATE_COMPARE_AND_SWAP)) {
+            Map<String, byte[]> hash = hashes.get(key);
+            if (argv[0].isEmpty()) {
+                if (hash != null) {
+                    return reply("0");
+                }
+            } else if (hash == null || hash.get("v") == null || !argv[0].equals(string(hash.get("v")))) {
+                return reply("0");
+            }
+            delete(key);
+            Map<String, byte[]> newHash = new LinkedHashMap<>();
+            for (int i = 2; i + 1 < args.length; i += 2) {
+                newHash.put(argv[i], args[i + 1]);
+            }
+            hashes.put(key, newHash);
+            if (!argv[1].equals("0")) {
+                pexpire(key, Long.parseLong(argv[1]));
+            }
+            return reply("1");
+        } else if (script.equals(LuaScripts.SCRIPT_HASH_STATE_DELETE)) {
+            delete(key);
+            return List.of();
+        } else {
+            throw new UnsupportedOperationException(script);
+        }
+    }
+
+    synchronized boolean exists(String key) {
+        expireIfNeeded(key);
+        return hashes.containsKey(key);
+    }
+
+    private List<byte[]> execute(String key, String[] argv) {
+        Map<String, byte[]> hash = hashes.get(key);
+        if (hash == null || hash.get("n") == null) {
+            return reply("0");
+        }
+        int count = (int) number(hash.get("n"));
+        if (count == 0) {
+            return reply("1");
+        }
+
+        double epoch = number(hash.get("e"));
+        double now = (Double.parseDouble(argv[2]) - epoch) * 1000000000d + Double.parseDouble(argv[3]);
+        Bandwidth[] bandwidths = new Bandwidth[count];
+        for (int i = 0; i < count; i++) {
+            int n = i + 1;
+            Bandwidth b = new Bandwidth();
+            b.capacity = number(hash.get("c" + n));
+            b.refillTokens = number(hash.get("t" + n));
+            b.refillPeriod = number(hash.get("p" + n));
+            b.intervally = "1".equals(string(hash.get("g" + n)));
+            b.size = number(hash.get("s" + n));
+            b.roundingError = number(hash.get("r" + n));
+            b.lastRefill = number(hash.get("l" + n));
+            bandwidths[i] = b;
+        }
+
+        for (Bandwidth b : bandwidths) {
+            refill(b, now);
+        }
+        double available = bandwidths[0].size;
+        for (int i = 1; i < count; i++) {
+            available = Math.min(available, bandwidths[i].size);
+        }
+
+        String operation = argv[0];
+        double tokens = Double.parseDouble(argv[1]);
+        switch (operation) {
+            case "1":
+                if (tokens <= available) {
+                    consume(key, bandwidths, tokens);
+                    save(key, bandwidths, epoch, now, argv);
+                    return reply("2", "1");
+                }
+                return reply("2", "0");
+            case "2":
+                if (tokens <= available) {
+                    consume(key, bandwidths, tokens);
+                    save(key, bandwidths, epoch, now, argv);
+                    return reply("2", "1", fmt(available - tokens), "0", fmt(delayToFullRefill(bandwidths, now)));
+                }
+                return reply("2", "0", fmt(available), fmt(delayToConsume(bandwidths, tokens, now)), fmt(delayToFullRefill(bandwidths, now)));
+            case "3":
+                double toConsume = Math.min(tokens, available);
+                if (toConsume <= 0) {
+                    return reply("2", "0");
+                }
+                consume(key, bandwidths, toConsume);
+                save(key, bandwidths, epoch, now, argv);
+                return reply("2", fmt(toConsume));
+            case "4":
+                for (Bandwidth b : bandwidths) {
+                    double size = b.size + tokens;
+                    if (size >= b.capacity) {
+                        b.size = b.capacity;
+                        b.roundingError = 0;
+                    } else {
+                        b.size = size;
+                    }
+                }
+                save(key, bandwidths, epoch, now, argv);
+                return reply("2");
+            case "5":
+                return reply("2", fmt(available));
+            default:
+                return reply("1");
+        }
+    }
+
+    private static void refill(Bandwidth b, double now) {
+        double previous = b.lastRefill;
+        double current = now;
+        if (current <= previous) {
+            return;
+        }
+        if (b.intervally) {
+            current = current - mod(current - previous, b.refillPeriod);
+            if (current <= previous) {
+                return;
+            }
+        }
+        b.lastRefill = current;
+        if (b.size >= b.capacity) {
+            return;
+        }
+        double duration = current - previous;
+        double size = b.size;
+        if (duration > b.refillPeriod) {
+            double periods = divide(duration, b.refillPeriod);
+            size = size + periods * b.refillTokens;
+            if (size > b.capacity) {
+                b.size = b.capacity;
+                b.roundingError = 0;
+                return;
+            }
+            duration = duration - periods * b.refillPeriod;
+        }
+        if (b.refillTokens * duration + b.roundingError >= MAX) {
+            size = size + Math.floor(duration / b.refillPeriod * b.refillTokens);
+            b.roundingError = 0;
+        } else {
+            double[] refilled = mulDiv(b.refillTokens, duration, b.roundingError, b.refillPeriod);
+            size = size + refilled[0];
+            b.roundingError = refilled[1];
+        }
+        if (size >= b.capacity) {
+            b.size = b.capacity;
+            b.roundingError = 0;
+            return;
+        }
+        b.size = size;
+    }
+
+    private static double delayForDeficit(Bandwidth b, double deficit, double now) {
+        if (!b.intervally) {
+            if (b.refillPeriod * deficit >= MAX) {
+                return Math.floor(deficit / b.refillTokens * b.refillPeriod);
+            }
+            return mulDiv(b.refillPeriod, deficit, -b.roundingError, b.refillTokens)[0];
+        }
+        double waitForNextRefill = b.lastRefill + b.refillPeriod - now;
+        if (deficit <= b.refillTokens) {
+            return waitForNextRefill;
+        }
+        deficit = deficit - b.refillTokens;
+        if (deficit < b.refillTokens) {
+            return waitForNextRefill + b.refillPeriod;
+        }
+        double periods = divide(deficit, b.refillTokens);
+        if (deficit != periods * b.refillTokens) {
+            periods = periods + 1;
+        }
+        return periods * b.refillPeriod + waitForNextRefill;
+    }
+
+    private static double delayToConsume(Bandwidth[] bandwidths, double tokens, double now) {
+        double delay = 0;
+        for (Bandwidth b : bandwidths) {
+            double bandwidthDelay = 0;
+            if (tokens > b.capacity) {
+                bandwidthDelay = MAX;
+            } else if (tokens > b.size) {
+                bandwidthDelay = delayForDeficit(b, tokens - b.size, now);
+            }
+            delay = Math.max(delay, bandwidthDelay);
+        }
+        return delay;
+    }
+
+    private static double delayToFullRefill(Bandwidth[] bandwidths, double now) {
+        double delay = 0;
+        for (Bandwidth b : bandwidths) {
+            if (b.size < b.capacity) {
+                delay = Math.max(delay, delayForDeficit(b, b.capacity - b.size, now));
+            }
+        }
+        return delay;
+    }
+
+    private void consume(String key, Bandwidth[] bandwidths, double tokens) {
+        for (Bandwidth b : bandwidths) {
+            b.size = b.size - tokens;
+        }
+        Map<String, byte[]> hash = hashes.get(key);
+        byte[] stat = hash.get("st");
+        long increment = Long.parseLong(fmt(tokens));
+        try {
+            hash.put("st", bytes(Long.toString(stat == null ? increment : Math.addExact(Long.parseLong(string(stat)), increment))));
+        } catch (ArithmeticException e) {
+            hash.put("st", bytes(fmt(tokens)));
+        }
+    }
+
+    private void save(String key, Bandwidth[] bandwidths, double epoch, double now, String[] argv) {
+        double shift = bandwidths[0].lastRefill;
+        for (int i = 1; i < bandwidths.length; i++) {
+            shift = Math.min(shift, bandwidths[i].lastRefill);
+        }
+        shift = divide(shift, 1000000000d);
+        Map<String, byte[]> hash = hashes.get(key);
+        hash.put("e", bytes(fmt(epoch + shift)));
+        for (int i = 0; i < bandwidths.length; i++) {
+            Bandwidth b = bandwidths[i];
+            int n = i + 1;
+            hash.put("s" + n, bytes(fmt(b.size)));
+            hash.put("r" + n, bytes(fmt(b.roundingError)));
+            hash.put("l" + n, bytes(fmt(b.lastRefill - shift * 1000000000d)));
+        }
+        hash.put("v", bytes(Long.toString(Long.parseLong(string(hash.get("v"))) + 1)));
+        if (argv[4].equals("1")) {
+            pexpire(key, Long.parseLong(argv[5]));
+        } else if (argv[4].equals("2")) {
+            double ttl = Double.parseDouble(argv[5]) + Math.floor(delayToFullRefill(bandwidths, now) / 1000000d);
+            if (ttl <= 0) {
+                ttl = 1;
+            }
+            pexpire(key, Long.parseLong(fmt(ttl)));
+        }
+    }
+
+    private void pexpire(String key, long ttlMillis) {
+        expirations.put(key, System.currentTimeMillis() + ttlMillis);
+    }
+
+    private void delete(String key) {
+        hashes.remove(key);
+        expirations.remove(key);
+    }
+
+    private void expireIfNeeded(String key) {
+        Long expireAt = expirations.get(key);
+        if (expireAt != null && expireAt <= System.currentTimeMillis()) {
+            delete(key);
+        }
+    }
+
+    private static double divide(double dividend, double divisor) {
+        double result = Math.floor(dividend / divisor);
+        if (result * divisor > dividend) {
+            result = result - 1;
+        }
+        return result;
+    }
+
+    private static double[] mulDiv(double a, double b, double c, double m) {
+        double product = a * b;
+        if (product < EXACT && product + c < EXACT) {
+            double q = divide(product + c, m);
+            return new double[] {q, product + c - q * m};
+        }
+        double aq = divide(a, m);
+        double ar = a - aq * m;
+        double q = 0;
+        double r = 0;
+        double bit = 1;
+        while (bit * 2 <= b) {
+            bit = bit * 2;
+        }
+        while (bit >= 1) {
+            q = q * 2;
+            r = r * 2;
+            if (r >= m) {
+                r = r - m;
+                q = q + 1;
+            }
+            if (b >= bit) {
+                b = b - bit;
+                q = q + aq;
+                r = r + ar;
+                if (r >= m) {
+                    r = r - m;
+                    q = q + 1;
+                }
+            }
+            bit = bit / 2;
+        }
+        r = r + c;
+        double k = divide(r, m);
+        return new double[] {q + k, r - k * m};
+    }
+
+    private static double mod(double a, double b) {
+        // Lua defines modulo as a - floor(a / b) * b
+        return a - Math.floor(a / b) * b;
+    }
+
+    private static String fmt(double x) {
+        if (x >= MAX) {
+            return "9223372036854775807";
+        }
+        if (x <= -MAX) {
+            return "-9223372036854775808";
+        }
+        return new BigDecimal(x).setScale(0, RoundingMode.HALF_EVEN).toPlainString();
+    }
+
+    private static double number(byte[] value) {
+        return Double.parseDouble(string(value));
+    }
+
+    private static String string(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<byte[]> reply(String... values) {
+        return Arrays.stream(values).map(HashStateScriptEmulator::bytes).toList();
+    }
+
+    private static class Bandwidth {
+        double capacity;
+        double refillTokens;
+        double refillPeriod;
+        boolean intervally;
+        double size;
+        double roundingError;
+        double lastRefill;
+    }
+
+}
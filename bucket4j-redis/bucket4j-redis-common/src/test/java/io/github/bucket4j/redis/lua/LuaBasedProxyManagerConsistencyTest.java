@@ -0,0 +1,141 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.redis.lua;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.BucketState;
+import io.github.bucket4j.BucketState64BitsInteger;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.MathType;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.mock.CompareAndSwapBasedProxyManagerMock;
+import io.github.bucket4j.mock.TimeMeterMock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that commands executed by script give exactly the same results as commands executed by Java code.
+ */
+public class LuaBasedProxyManagerConsistencyTest {
+
+    private static final List<BucketConfiguration> CONFIGURATIONS = List.of(
+        BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(100).refillGreedy(100, Duration.ofSeconds(1)))
+            .build(),
+        BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(10).refillIntervally(3, Duration.ofMillis(700)).initialTokens(4))
+            .build(),
+        BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(1000).refillGreedy(7, Duration.ofMillis(333)))
+            .addLimit(limit -> limit.capacity(50).refillIntervally(50, Duration.ofSeconds(5)))
+            .build(),
+        // refill tokens multiplied by refill period exceed 2^53
+        BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(1_000_000_000L).refillGreedy(999_999_937L, Duration.ofDays(30)).initialTokens(0))
+            .build(),
+        // refill period exceeds 2^52 nanoseconds, so state is processed by compare-and-swap
+        BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(1000).refillGreedy(1000, Duration.ofDays(60)))
+            .build()
+    );
+
+    @Test
+    public void scriptShouldBehaveAsJavaCode() {
+        Random random = new Random(42);
+        for (BucketConfiguration configuration : CONFIGURATIONS) {
+            TimeMeterMock clock = new TimeMeterMock(1_700_000_000_123_456_789L);
+            EmulatedLuaBasedProxyManager luaProxyManager = EmulatedLuaBasedProxyManager.builder(new HashStateScriptEmulator())
+                .clientClock(clock)
+                .build();
+            CompareAndSwapBasedProxyManagerMock<String> javaProxyManager = new CompareAndSwapBasedProxyManagerMock<>(ClientSideConfig.getDefault().withClientClock(clock));
+            BucketProxy luaBucket = luaProxyManager.builder().build("key", () -> configuration);
+            BucketProxy javaBucket = javaProxyManager.builder().build("key", () -> configuration);
+
+            for (int i = 0; i < 2_000; i++) {
+                long tokens = 1 + random.nextInt(20);
+                String description = configuration + ", step " + i;
+                switch (random.nextInt(7)) {
+                    case 0 -> assertEquals(javaBucket.tryConsume(tokens), luaBucket.tryConsume(tokens), description);
+                    case 1 -> assertProbeEquals(javaBucket.tryConsumeAndReturnRemaining(tokens), luaBucket.tryConsumeAndReturnRemaining(tokens), description);
+                    case 2 -> assertEquals(javaBucket.tryConsumeAsMuchAsPossible(tokens), luaBucket.tryConsumeAsMuchAsPossible(tokens), description);
+                    case 3 -> {
+                        javaBucket.addTokens(tokens);
+                        luaBucket.addTokens(tokens);
+                    }
+                    case 4 -> assertEquals(javaBucket.getAvailableTokens(), luaBucket.getAvailableTokens(), description);
+                    case 5 -> {
+                        // executed via compare-and-swap
+                        assertEquals(javaBucket.estimateAbilityToConsume(tokens).getNanosToWaitForRefill(), luaBucket.estimateAbilityToConsume(tokens).getNanosToWaitForRefill(), description);
+                        javaBucket.forceAddTokens(tokens);
+                        luaBucket.forceAddTokens(tokens);
+                    }
+                    default -> assertEquals(javaBucket.tryConsumeAsMuchAsPossible(), luaBucket.tryConsumeAsMuchAsPossible(), description);
+                }
+                clock.addTime(random.nextInt(300_000_000));
+            }
+        }
+    }
+
+    @Test
+    public void epochShouldBeMovedForwardWhenBucketIsUsedForLongTime() {
+        TimeMeterMock clock = new TimeMeterMock(1_700_000_000_000_000_000L);
+        HashStateScriptEmulator emulator = new HashStateScriptEmulator();
+        EmulatedLuaBasedProxyManager luaProxyManager = EmulatedLuaBasedProxyManager.builder(emulator)
+            .clientClock(clock)
+            .build();
+        BucketConfiguration configuration = BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(1_000_000).refillGreedy(3, Duration.ofNanos(7)))
+            .build();
+        BucketProxy bucket = luaProxyManager.builder().build("key", () -> configuration);
+        bucket.tryConsume(1_000_000);
+
+        // 2^53 nanoseconds are about 104 days
+        for (int day = 0; day < 400; day++) {
+            clock.addSeconds(24 * 60 * 60);
+            assertEquals(1_000_000, bucket.tryConsumeAsMuchAsPossible());
+            clock.addTime(7 * 1001);
+            assertEquals(3003, bucket.getAvailableTokens());
+        }
+    }
+
+    @Test
+    public void stateThatCanNotBeExactInLuaShouldBeStoredAsSerializedState() {
+        BucketConfiguration exact = CONFIGURATIONS.get(3);
+        BucketConfiguration notExact = CONFIGURATIONS.get(4);
+        assertTrue(HashStateLayout.isExactInLua(exact, (BucketState64BitsInteger) BucketState.createInitialState(exact, MathType.INTEGER_64_BITS, 0L)));
+        assertFalse(HashStateLayout.isExactInLua(notExact, (BucketState64BitsInteger) BucketState.createInitialState(notExact, MathType.INTEGER_64_BITS, 0L)));
+    }
+
+    private static void assertProbeEquals(ConsumptionProbe expected, ConsumptionProbe actual, String description) {
+        assertEquals(expected.isConsumed(), actual.isConsumed(), description);
+        assertEquals(expected.getRemainingTokens(), actual.getRemainingTokens(), description);
+        assertEquals(expected.getNanosToWaitForRefill(), actual.getNanosToWaitForRefill(), description);
+        assertEquals(expected.getNanosToWaitForReset(), actual.getNanosToWaitForReset(), description);
+    }
+
+}
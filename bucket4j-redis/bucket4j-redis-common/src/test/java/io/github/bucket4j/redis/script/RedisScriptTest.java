@@ -0,0 +1,115 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.bucket4j.redis.script;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RedisScriptTest {
+
+    private static final String NO_SCRIPT_MESSAGE = "NOSCRIPT No matching script. Please use EVAL.";
+
+    @Test
+    public void sha1ShouldMatchRedisDigest() {
+        // redis> EVAL "return redis.sha1hex('return 1')" 0
+        RedisScript script = RedisScript.of("return 1");
+        assertEquals("e0e1f9fabfc9d4800c877a703b823ac0578ff8db", script.getSha1());
+        assertArrayEquals("e0e1f9fabfc9d4800c877a703b823ac0578ff8db".getBytes(StandardCharsets.US_ASCII), script.getSha1Bytes());
+        assertArrayEquals("return 1".getBytes(StandardCharsets.UTF_8), script.getSourceBytes());
+    }
+
+    @Test
+    public void scriptShouldBeRegisteredOnlyOnce() {
+        String source = new StringBuilder("return ").append(2).toString();
+        assertSame(RedisScript.of("return 2"), RedisScript.of(source));
+    }
+
+    @Test
+    public void evalShouldNotBeCalledWhenScriptIsKnown() {
+        AtomicInteger evalCalls = new AtomicInteger();
+        Long result = RedisScript.of("return 1").evaluate(() -> 1L, () -> {
+            evalCalls.incrementAndGet();
+            return 2L;
+        });
+        assertEquals(1L, result);
+        assertEquals(0, evalCalls.get());
+    }
+
+    @Test
+    public void shouldFallbackToEvalOnNoScriptError() {
+        Long result = RedisScript.of("return 1").evaluate(() -> {
+            throw new IllegalStateException(new RuntimeException(NO_SCRIPT_MESSAGE));
+        }, () -> 1L);
+        assertEquals(1L, result);
+    }
+
+    @Test
+    public void otherErrorsShouldBeRethrown() {
+        IllegalStateException error = new IllegalStateException("READONLY You can't write against a read only replica.");
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> RedisScript.of("return 1").evaluate(() -> {
+            throw error;
+        }, () -> 1L));
+        assertSame(error, thrown);
+    }
+
+    @Test
+    public void shouldFallbackToEvalOnNoScriptErrorAsync() throws Exception {
+        CompletableFuture<Long> noScript = new CompletableFuture<>();
+        noScript.completeExceptionally(new RuntimeException(NO_SCRIPT_MESSAGE));
+
+        CompletableFuture<Long> result = RedisScript.of("return 1").evaluateAsync(() -> noScript, () -> CompletableFuture.completedFuture(1L));
+        assertEquals(1L, result.get());
+    }
+
+    @Test
+    public void otherErrorsShouldBeRethrownAsync() {
+        IllegalStateException error = new IllegalStateException("BUSY Redis is busy running a script.");
+        CompletableFuture<Long> failed = new CompletableFuture<>();
+        failed.completeExceptionally(error);
+
+        AtomicInteger evalCalls = new AtomicInteger();
+        CompletableFuture<Long> result = RedisScript.of("return 1").evaluateAsync(() -> failed, () -> {
+            evalCalls.incrementAndGet();
+            return CompletableFuture.completedFuture(1L);
+        });
+        ExecutionException thrown = assertThrows(ExecutionException.class, result::get);
+        assertSame(error, thrown.getCause());
+        assertEquals(0, evalCalls.get());
+    }
+
+    @Test
+    public void noScriptErrorShouldBeRecognizedThroughWrappers() {
+        assertTrue(RedisScript.isNoScriptError(new ExecutionException(new RuntimeException(NO_SCRIPT_MESSAGE))));
+        assertFalse(RedisScript.isNoScriptError(new RuntimeException("ERR unknown command")));
+        assertFalse(RedisScript.isNoScriptError(null));
+    }
+
+}
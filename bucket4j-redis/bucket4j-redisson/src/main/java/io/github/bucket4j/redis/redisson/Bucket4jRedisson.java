@@ -25,7 +25,9 @@ import org.redisson.command.CommandAsyncExecutor;
 
 import io.github.bucket4j.distributed.proxy.AbstractProxyManagerBuilder;
 import io.github.bucket4j.distributed.serialization.Mapper;
+import io.github.bucket4j.redis.cas.VersionStamps;
 import io.github.bucket4j.redis.redisson.cas.RedissonBasedProxyManager;
+import io.github.bucket4j.redis.redisson.lua.RedissonLuaBasedProxyManager;
 
 /**
  * Entry point for Jedis integration
@@ -43,10 +45,22 @@ public class Bucket4jRedisson {
         return new RedissonBasedProxyManagerBuilder<>(Mapper.STRING, commandExecutor);
     }
 
+    /**
+     * Returns the builder for {@link RedissonLuaBasedProxyManager}
+     *
+     * @param commandExecutor
+     *
+     * @return new instance of {@link RedissonLuaBasedProxyManagerBuilder}
+     */
+    public static RedissonLuaBasedProxyManagerBuilder<String> luaBasedBuilder(CommandAsyncExecutor commandExecutor) {
+        return new RedissonLuaBasedProxyManagerBuilder<>(Mapper.STRING, commandExecutor);
+    }
+
     public static class RedissonBasedProxyManagerBuilder<K> extends AbstractProxyManagerBuilder<K, RedissonBasedProxyManager<K>, RedissonBasedProxyManagerBuilder<K>> {
 
         private final CommandAsyncExecutor commandExecutor;
         private Mapper<K> keyMapper;
+        private boolean versionStamping;
 
         public RedissonBasedProxyManagerBuilder(Mapper<K> keyMapper, CommandAsyncExecutor commandExecutor) {
             this.commandExecutor = Objects.requireNonNull(commandExecutor);
@@ -78,6 +92,67 @@ public class Bucket4jRedisson {
             return new RedissonBasedProxyManager<>(this);
         }
 
+        /**
+         * Enables version stamping of stored values, see {@link VersionStamps}.
+         * Compare-and-swap sends to Redis only the stamp of original value instead of whole original value.
+         *
+         * <p>
+         * Values written without stamp are still processed by comparing whole value, so stamping can be enabled for already populated Redis.
+         * But stamped values can not be read by previous versions of Bucket4j, so all clients should be upgraded before stamping is enabled.
+         *
+         * @return this builder instance
+         */
+        public RedissonBasedProxyManagerBuilder<K> versionStamping() {
+            this.versionStamping = true;
+            return this;
+        }
+
+        public boolean isVersionStampingEnabled() {
+            return versionStamping;
+        }
+
+        @Override
+        public boolean isExpireAfterWriteSupported() {
+            return true;
+        }
+
+    }
+
+    public static class RedissonLuaBasedProxyManagerBuilder<K> extends AbstractProxyManagerBuilder<K, RedissonLuaBasedProxyManager<K>, RedissonLuaBasedProxyManagerBuilder<K>> {
+
+        private final CommandAsyncExecutor commandExecutor;
+        private Mapper<K> keyMapper;
+
+        public RedissonLuaBasedProxyManagerBuilder(Mapper<K> keyMapper, CommandAsyncExecutor commandExecutor) {
+            this.commandExecutor = Objects.requireNonNull(commandExecutor);
+            this.keyMapper = Objects.requireNonNull(keyMapper);
+        }
+
+        /**
+         * Specifies the type of key.
+         *
+         * @param keyMapper object responsible for converting primary keys to byte arrays.
+         *
+         * @return this builder instance
+         */
+        public <K2> RedissonLuaBasedProxyManagerBuilder<K2> keyMapper(Mapper<K2> keyMapper) {
+            this.keyMapper = (Mapper) Objects.requireNonNull(keyMapper);
+            return (RedissonLuaBasedProxyManagerBuilder<K2>) this;
+        }
+
+        public Mapper<K> getKeyMapper() {
+            return keyMapper;
+        }
+
+        public CommandAsyncExecutor getCommandExecutor() {
+            return commandExecutor;
+        }
+
+        @Override
+        public RedissonLuaBasedProxyManager<K> build() {
+            return new RedissonLuaBasedProxyManager<>(this);
+        }
+
         @Override
         public boolean isExpireAfterWriteSupported() {
             return true;
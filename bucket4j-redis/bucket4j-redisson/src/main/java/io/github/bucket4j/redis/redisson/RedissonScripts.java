@@ -0,0 +1,78 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.redis.redisson;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.redisson.api.RFuture;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.protocol.RedisCommand;
+import org.redisson.command.CommandAsyncExecutor;
+import org.redisson.misc.CompletableFutureWrapper;
+
+import io.github.bucket4j.redis.script.RedisScript;
+
+/**
+ * Invokes registered scripts via EVALSHA regardless of whether script cache is enabled in Redisson configuration.
+ */
+public final class RedissonScripts {
+
+    private static final Map<RedisCommand<?>, RedisCommand<?>> EVALSHA_COMMANDS = new ConcurrentHashMap<>();
+
+    private RedissonScripts() {
+    }
+
+    /**
+     * Invokes script via EVALSHA and falls back to EVAL if Redis does not know the script.
+     * Parameters can be written twice, so they must not be reference counted buffers.
+     *
+     * @param commandExecutor Redisson command executor
+     * @param key key that is used to choose the node
+     * @param evalCommand EVAL command with desired decoder of result, the same decoder is used for EVALSHA
+     * @param script the script
+     * @param keys keys passed to the script
+     * @param params parameters passed to the script
+     *
+     * @return the future which will be completed by result of script
+     */
+    public static <T> RFuture<T> evalWriteAsync(CommandAsyncExecutor commandExecutor, String key, RedisCommand<T> evalCommand,
+                                                RedisScript script, List<Object> keys, Object... params) {
+        RedisCommand<T> evalShaCommand = (RedisCommand<T>) EVALSHA_COMMANDS.computeIfAbsent(evalCommand, command -> new RedisCommand<>(command, "EVALSHA"));
+        return new CompletableFutureWrapper<>(script.evaluateAsync(
+            () -> commandExecutor.writeAsync(key, ByteArrayCodec.INSTANCE, evalShaCommand, arguments(script.getSha1(), keys, params)),
+            () -> commandExecutor.evalWriteAsync(key, ByteArrayCodec.INSTANCE, evalCommand, script.getSource(), keys, params)
+        ));
+    }
+
+    private static Object[] arguments(String sha1, List<Object> keys, Object[] params) {
+        List<Object> arguments = new ArrayList<>(2 + keys.size() + params.length);
+        arguments.add(sha1);
+        arguments.add(keys.size());
+        arguments.addAll(keys);
+        arguments.addAll(Arrays.asList(params));
+        return arguments.toArray();
+    }
+
+}
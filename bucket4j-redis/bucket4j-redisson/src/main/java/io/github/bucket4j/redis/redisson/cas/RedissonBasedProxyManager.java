@@ -45,8 +45,11 @@ import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndS
 import io.github.bucket4j.distributed.remote.RemoteBucketState;
 import io.github.bucket4j.distributed.serialization.Mapper;
 import io.github.bucket4j.redis.AbstractRedisProxyManagerBuilder;
+import io.github.bucket4j.redis.cas.VersionStamps;
 import io.github.bucket4j.redis.consts.LuaScripts;
 import io.github.bucket4j.redis.redisson.Bucket4jRedisson;
+import io.github.bucket4j.redis.redisson.RedissonScripts;
+import io.github.bucket4j.redis.script.RedisScript;
 import io.netty.buffer.ByteBuf;
 
 public class RedissonBasedProxyManager<K> extends AbstractCompareAndSwapBasedProxyManager<K> {
@@ -55,6 +58,7 @@ public class RedissonBasedProxyManager<K> extends AbstractCompareAndSwapBasedPro
 
     private final CommandAsyncExecutor commandExecutor;
     private final ExpirationAfterWriteStrategy expirationStrategy;
+    private final boolean versionStamping;
 
     private final Mapper<K> keyMapper;
 
@@ -92,6 +96,7 @@ public class RedissonBasedProxyManager<K> extends AbstractCompareAndSwapBasedPro
         this.commandExecutor = builder.getCommandExecutor();
         this.expirationStrategy = builder.getExpirationAfterWrite().orElse(ExpirationAfterWriteStrategy.none());
         this.keyMapper = builder.getKeyMapper();
+        this.versionStamping = builder.isVersionStampingEnabled();
     }
 
     private RedissonBasedProxyManager(RedissonBasedProxyManagerBuilder<K> builder) {
@@ -99,6 +104,7 @@ public class RedissonBasedProxyManager<K> extends AbstractCompareAndSwapBasedPro
         this.commandExecutor = builder.commandExecutor;
         this.expirationStrategy = builder.getNotNullExpirationStrategy();
         this.keyMapper = builder.keyMapper;
+        this.versionStamping = false;
     }
 
     @Override
@@ -125,9 +131,13 @@ public class RedissonBasedProxyManager<K> extends AbstractCompareAndSwapBasedPro
                         // Redisson prohibits the usage null as values, so "replace" must not be used in such cases
                         RFuture<Boolean> redissonFuture = commandExecutor.writeAsync(stringKey, ByteArrayCodec.INSTANCE, SET, stringKey, encodeByteArray(newData), "PX", ttlMillis, "NX");
                         return getWithTimeout(redissonFuture, timeoutNanos);
+                    } else if (VersionStamps.isStamped(originalData)) {
+                        Object[] params = new Object[] {VersionStamps.getStamp(originalData), newData, ttlMillis};
+                        RFuture<Boolean> redissonFuture = RedissonScripts.evalWriteAsync(commandExecutor, stringKey, RedisCommands.EVAL_BOOLEAN, RedisScript.of(LuaScripts.SCRIPT_COMPARE_STAMP_AND_SWAP_PX), keys, params);
+                        return getWithTimeout(redissonFuture, timeoutNanos);
                     } else {
                         Object[] params = new Object[] {originalData, newData, ttlMillis};
-                        RFuture<Boolean> redissonFuture = commandExecutor.evalWriteAsync(stringKey, ByteArrayCodec.INSTANCE, RedisCommands.EVAL_BOOLEAN, LuaScripts.SCRIPT_COMPARE_AND_SWAP_PX, keys, params);
+                        RFuture<Boolean> redissonFuture = RedissonScripts.evalWriteAsync(commandExecutor, stringKey, RedisCommands.EVAL_BOOLEAN, RedisScript.of(LuaScripts.SCRIPT_COMPARE_AND_SWAP_PX), keys, params);
                         return getWithTimeout(redissonFuture, timeoutNanos);
                     }
                 } else {
@@ -135,9 +145,13 @@ public class RedissonBasedProxyManager<K> extends AbstractCompareAndSwapBasedPro
                         // Redisson prohibits the usage null as values, so "replace" must not be used in such cases
                         RFuture<Boolean> redissonFuture = commandExecutor.writeAsync(stringKey, ByteArrayCodec.INSTANCE, SET, stringKey, encodeByteArray(newData), "NX");
                         return getWithTimeout(redissonFuture, timeoutNanos);
+                    } else if (VersionStamps.isStamped(originalData)) {
+                        Object[] params = new Object[] {VersionStamps.getStamp(originalData), newData};
+                        RFuture<Boolean> redissonFuture = RedissonScripts.evalWriteAsync(commandExecutor, stringKey, RedisCommands.EVAL_BOOLEAN, RedisScript.of(LuaScripts.SCRIPT_COMPARE_STAMP_AND_SWAP), keys, params);
+                        return getWithTimeout(redissonFuture, timeoutNanos);
                     } else {
                         Object[] params = new Object[] {originalData, newData};
-                        RFuture<Boolean> redissonFuture = commandExecutor.evalWriteAsync(stringKey, ByteArrayCodec.INSTANCE, RedisCommands.EVAL_BOOLEAN, LuaScripts.SCRIPT_COMPARE_AND_SWAP, keys, params);
+                        RFuture<Boolean> redissonFuture = RedissonScripts.evalWriteAsync(commandExecutor, stringKey, RedisCommands.EVAL_BOOLEAN, RedisScript.of(LuaScripts.SCRIPT_COMPARE_AND_SWAP), keys, params);
                         return getWithTimeout(redissonFuture, timeoutNanos);
                     }
                 }
@@ -170,20 +184,30 @@ public class RedissonBasedProxyManager<K> extends AbstractCompareAndSwapBasedPro
                     if (originalData == null) {
                         RFuture<Boolean> redissonFuture = commandExecutor.writeAsync(stringKey, ByteArrayCodec.INSTANCE, SET, stringKey, encodeByteArray(newData), "PX", ttlMillis, "NX");
                         return convertFuture(redissonFuture, timeoutNanos);
+                    } else if (VersionStamps.isStamped(originalData)) {
+                        Object[] params = new Object[] {VersionStamps.getStamp(originalData), newData, ttlMillis};
+                        RFuture<Boolean> redissonFuture = RedissonScripts.evalWriteAsync(commandExecutor, stringKey,
+                                RedisCommands.EVAL_BOOLEAN, RedisScript.of(LuaScripts.SCRIPT_COMPARE_STAMP_AND_SWAP_PX), keys, params);
+                        return convertFuture(redissonFuture, timeoutNanos);
                     } else {
-                        Object[] params = new Object[] {encodeByteArray(originalData), encodeByteArray(newData), ttlMillis};
-                        RFuture<Boolean> redissonFuture = commandExecutor.evalWriteAsync(stringKey, ByteArrayCodec.INSTANCE,
-                                RedisCommands.EVAL_BOOLEAN, LuaScripts.SCRIPT_COMPARE_AND_SWAP_PX, keys, params);
+                        Object[] params = new Object[] {originalData, newData, ttlMillis};
+                        RFuture<Boolean> redissonFuture = RedissonScripts.evalWriteAsync(commandExecutor, stringKey,
+                                RedisCommands.EVAL_BOOLEAN, RedisScript.of(LuaScripts.SCRIPT_COMPARE_AND_SWAP_PX), keys, params);
                         return convertFuture(redissonFuture, timeoutNanos);
                     }
                 } else {
                     if (originalData == null) {
                         RFuture<Boolean> redissonFuture = commandExecutor.writeAsync(stringKey, ByteArrayCodec.INSTANCE, SET, stringKey, encodeByteArray(newData), "NX");
                         return convertFuture(redissonFuture, timeoutNanos);
+                    } else if (VersionStamps.isStamped(originalData)) {
+                        Object[] params = new Object[] {VersionStamps.getStamp(originalData), newData};
+                        RFuture<Boolean> redissonFuture = RedissonScripts.evalWriteAsync(commandExecutor, stringKey,
+                                RedisCommands.EVAL_BOOLEAN, RedisScript.of(LuaScripts.SCRIPT_COMPARE_STAMP_AND_SWAP), keys, params);
+                        return convertFuture(redissonFuture, timeoutNanos);
                     } else {
-                        Object[] params = new Object[] {encodeByteArray(originalData), encodeByteArray(newData)};
-                        RFuture<Boolean> redissonFuture = commandExecutor.evalWriteAsync(stringKey, ByteArrayCodec.INSTANCE,
-                                RedisCommands.EVAL_BOOLEAN, LuaScripts.SCRIPT_COMPARE_AND_SWAP, keys, params);
+                        Object[] params = new Object[] {originalData, newData};
+                        RFuture<Boolean> redissonFuture = RedissonScripts.evalWriteAsync(commandExecutor, stringKey,
+                                RedisCommands.EVAL_BOOLEAN, RedisScript.of(LuaScripts.SCRIPT_COMPARE_AND_SWAP), keys, params);
                         return convertFuture(redissonFuture, timeoutNanos);
                     }
                 }
@@ -203,6 +227,21 @@ public class RedissonBasedProxyManager<K> extends AbstractCompareAndSwapBasedPro
         return convertFuture(redissonFuture, Optional.empty()).thenApply(bytes -> null);
     }
 
+    @Override
+    protected byte[] toStateBytes(byte[] storedData) {
+        return VersionStamps.toStateBytes(storedData);
+    }
+
+    @Override
+    protected byte[] toStoredData(byte[] originalStoredData, byte[] stateBytes) {
+        return versionStamping ? VersionStamps.toStampedData(originalStoredData, stateBytes) : stateBytes;
+    }
+
+    @Override
+    protected boolean isLastSeenStateCacheSupported() {
+        return true;
+    }
+
     @Override
     public boolean isAsyncModeSupported() {
         return true;
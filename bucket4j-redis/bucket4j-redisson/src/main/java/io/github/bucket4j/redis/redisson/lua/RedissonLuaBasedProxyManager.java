@@ -0,0 +1,99 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.redis.redisson.lua;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.redisson.api.RFuture;
+import org.redisson.client.RedisException;
+import org.redisson.client.protocol.RedisCommands;
+import org.redisson.command.CommandAsyncExecutor;
+
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.serialization.Mapper;
+import io.github.bucket4j.redis.lua.AbstractRedisLuaBasedProxyManager;
+import io.github.bucket4j.redis.redisson.Bucket4jRedisson;
+import io.github.bucket4j.redis.redisson.RedissonScripts;
+import io.github.bucket4j.redis.script.RedisScript;
+
+public class RedissonLuaBasedProxyManager<K> extends AbstractRedisLuaBasedProxyManager<K> {
+
+    private final CommandAsyncExecutor commandExecutor;
+    private final Mapper<K> keyMapper;
+
+    public RedissonLuaBasedProxyManager(Bucket4jRedisson.RedissonLuaBasedProxyManagerBuilder<K> builder) {
+        super(builder.getClientSideConfig(), builder.getExpirationAfterWrite().orElse(ExpirationAfterWriteStrategy.none()));
+        this.commandExecutor = builder.getCommandExecutor();
+        this.keyMapper = builder.getKeyMapper();
+    }
+
+    @Override
+    protected List<byte[]> evalScript(K key, String script, byte[][] args, Optional<Long> timeoutNanos) {
+        return getWithTimeout(eval(key, script, args), timeoutNanos);
+    }
+
+    @Override
+    protected CompletableFuture<List<byte[]>> evalScriptAsync(K key, String script, byte[][] args, Optional<Long> timeoutNanos) {
+        CompletableFuture<List<byte[]>> future = eval(key, script, args).toCompletableFuture();
+        return timeoutNanos.isEmpty() ? future : future.orTimeout(timeoutNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return true;
+    }
+
+    private RFuture<List<byte[]>> eval(K key, String script, byte[][] args) {
+        String stringKey = keyMapper.toString(key);
+        List<Object> keys = Collections.singletonList(stringKey);
+        RFuture<List<Object>> future = RedissonScripts.evalWriteAsync(commandExecutor, stringKey, RedisCommands.EVAL_LIST, RedisScript.of(script), keys, (Object[]) args);
+        return (RFuture) future;
+    }
+
+    private <T> T getWithTimeout(RFuture<T> redissonFuture, Optional<Long> timeoutNanos) {
+        if (timeoutNanos.isEmpty()) {
+            return commandExecutor.get(redissonFuture);
+        } else {
+            try {
+                return redissonFuture.get(timeoutNanos.get(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                redissonFuture.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new RedisException(e);
+            } catch (TimeoutException e) {
+                String message = "Violated timeout while waiting for redis future for " + timeoutNanos.get() + "ns";
+                throw new io.github.bucket4j.TimeoutException(message, timeoutNanos.get(), timeoutNanos.get());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RedisException re) {
+                    throw re;
+                }
+                throw new RedisException(e);
+            }
+        }
+    }
+
+}
@@ -64,6 +64,11 @@ public class RedissonBasedProxyManagerRedisClusterTest extends AbstractDistribut
                 "RedissonBasedProxyManager_StringKey",
                 () -> UUID.randomUUID().toString(),
                 () -> Bucket4jRedisson.casBasedBuilder(commandExecutor)
+            ).checkExpiration(),
+            new ProxyManagerSpec<>(
+                "RedissonLuaBasedProxyManager_StringKey",
+                () -> UUID.randomUUID().toString(),
+                () -> Bucket4jRedisson.luaBasedBuilder(commandExecutor)
             ).checkExpiration()
         );
     }
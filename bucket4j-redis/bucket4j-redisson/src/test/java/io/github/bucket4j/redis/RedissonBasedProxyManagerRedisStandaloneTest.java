@@ -49,10 +49,20 @@ public class RedissonBasedProxyManagerRedisStandaloneTest extends AbstractDistri
                 () -> ThreadLocalRandom.current().nextLong(),
                 () -> Bucket4jRedisson.casBasedBuilder(commandExecutor).keyMapper(Mapper.LONG)
             ).checkExpiration(),
+            new ProxyManagerSpec<>(
+                "RedissonBasedProxyManager_LongKey_VersionStamping",
+                () -> ThreadLocalRandom.current().nextLong(),
+                () -> Bucket4jRedisson.casBasedBuilder(commandExecutor).keyMapper(Mapper.LONG).versionStamping()
+            ).checkExpiration(),
             new ProxyManagerSpec<>(
                 "RedissonBasedProxyManager_StringKey",
                 () -> UUID.randomUUID().toString(),
                 () -> Bucket4jRedisson.casBasedBuilder(commandExecutor)
+            ).checkExpiration(),
+            new ProxyManagerSpec<>(
+                "RedissonLuaBasedProxyManager_StringKey",
+                () -> UUID.randomUUID().toString(),
+                () -> Bucket4jRedisson.luaBasedBuilder(commandExecutor)
             ).checkExpiration()
         );
     }
@@ -21,12 +21,17 @@ package io.github.bucket4j.redis.vertx;
 
 import io.github.bucket4j.distributed.proxy.AbstractProxyManagerBuilder;
 import io.github.bucket4j.distributed.serialization.Mapper;
+import io.github.bucket4j.redis.cas.VersionStamps;
+import io.github.bucket4j.redis.script.RedisScript;
 import io.github.bucket4j.redis.vertx.cas.VertxBasedProxyManager;
+import io.github.bucket4j.redis.vertx.lua.VertxLuaBasedProxyManager;
 import io.vertx.redis.client.Command;
 import io.vertx.redis.client.Redis;
 import io.vertx.redis.client.Request;
 import io.vertx.redis.client.Response;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 
@@ -43,25 +48,35 @@ public class Bucket4jVertx {
      * @return new instance of {@link VertxBasedProxyManagerBuilder}
      */
     public static VertxBasedProxyManagerBuilder<byte[]> casBasedBuilder(Redis redis) {
+        return new VertxBasedProxyManagerBuilder<>(Mapper.BYTES, redisApi(redis));
+    }
+
+    /**
+     * Returns the builder for {@link VertxLuaBasedProxyManager}
+     *
+     * @param redis
+     *
+     * @return new instance of {@link VertxLuaBasedProxyManagerBuilder}
+     */
+    public static VertxLuaBasedProxyManagerBuilder<byte[]> luaBasedBuilder(Redis redis) {
+        return new VertxLuaBasedProxyManagerBuilder<>(Mapper.BYTES, redisApi(redis));
+    }
+
+    private static RedisApi redisApi(Redis redis) {
         Objects.requireNonNull(redis, "redis");
-        RedisApi redisApi = new RedisApi() {
+        return new RedisApi() {
             @Override
             public CompletableFuture<Boolean> eval(String script, byte[][] keys, byte[][] params) {
-                Request request = Request.cmd(Command.EVAL)
-                    .arg(script)
-                    .arg(keys.length);
-                for (byte[] key : keys) {
-                    request.arg(key);
-                }
-                for (byte[] param : params) {
-                    request.arg(param);
-                }
-                return redis.send(request)
-                    .toCompletionStage()
-                    .toCompletableFuture()
+                return evalScript(redis, RedisScript.of(script), keys, params)
                     .thenApply(Bucket4jVertx::toBooleanResult);
             }
 
+            @Override
+            public CompletableFuture<List<byte[]>> evalMulti(String script, byte[][] keys, byte[][] params) {
+                return evalScript(redis, RedisScript.of(script), keys, params)
+                    .thenApply(Bucket4jVertx::toBytesList);
+            }
+
             @Override
             public CompletableFuture<byte[]> get(byte[] key) {
                 Request request = Request.cmd(Command.GET).arg(key);
@@ -80,7 +95,37 @@ public class Bucket4jVertx {
                     .thenApply(ignored -> null);
             }
         };
-        return new VertxBasedProxyManagerBuilder<>(Mapper.BYTES, redisApi);
+    }
+
+    private static CompletableFuture<Response> evalScript(Redis redis, RedisScript script, byte[][] keys, byte[][] params) {
+        return script.evaluateAsync(
+            () -> redis.send(evalRequest(Command.EVALSHA, script.getSha1(), keys, params)).toCompletionStage(),
+            () -> redis.send(evalRequest(Command.EVAL, script.getSource(), keys, params)).toCompletionStage()
+        );
+    }
+
+    private static Request evalRequest(Command command, String scriptOrSha1, byte[][] keys, byte[][] params) {
+        Request request = Request.cmd(command)
+            .arg(scriptOrSha1)
+            .arg(keys.length);
+        for (byte[] key : keys) {
+            request.arg(key);
+        }
+        for (byte[] param : params) {
+            request.arg(param);
+        }
+        return request;
+    }
+
+    private static List<byte[]> toBytesList(Response response) {
+        if (response == null) {
+            return List.of();
+        }
+        List<byte[]> result = new ArrayList<>(response.size());
+        for (Response item : response) {
+            result.add(item == null ? null : item.toBytes());
+        }
+        return result;
     }
 
     private static boolean toBooleanResult(Response response) {
@@ -104,6 +149,7 @@ public class Bucket4jVertx {
 
         private final RedisApi redisApi;
         private Mapper<K> keyMapper;
+        private boolean versionStamping;
 
         public VertxBasedProxyManagerBuilder(Mapper<K> keyMapper, RedisApi redisApi) {
             this.redisApi = Objects.requireNonNull(redisApi, "redisApi");
@@ -136,6 +182,67 @@ public class Bucket4jVertx {
             return new VertxBasedProxyManager<>(this);
         }
 
+        /**
+         * Enables version stamping of stored values, see {@link VersionStamps}.
+         * Compare-and-swap sends to Redis only the stamp of original value instead of whole original value.
+         *
+         * <p>
+         * Values written without stamp are still processed by comparing whole value, so stamping can be enabled for already populated Redis.
+         * But stamped values can not be read by previous versions of Bucket4j, so all clients should be upgraded before stamping is enabled.
+         *
+         * @return this builder instance
+         */
+        public VertxBasedProxyManagerBuilder<K> versionStamping() {
+            this.versionStamping = true;
+            return this;
+        }
+
+        public boolean isVersionStampingEnabled() {
+            return versionStamping;
+        }
+
+        @Override
+        public boolean isExpireAfterWriteSupported() {
+            return true;
+        }
+    }
+
+    public static class VertxLuaBasedProxyManagerBuilder<K> extends AbstractProxyManagerBuilder<K, VertxLuaBasedProxyManager<K>, VertxLuaBasedProxyManagerBuilder<K>> {
+
+        private final RedisApi redisApi;
+        private Mapper<K> keyMapper;
+
+        public VertxLuaBasedProxyManagerBuilder(Mapper<K> keyMapper, RedisApi redisApi) {
+            this.redisApi = Objects.requireNonNull(redisApi, "redisApi");
+            this.keyMapper = Objects.requireNonNull(keyMapper, "keyMapper");
+        }
+
+        /**
+         * Specifies the type of key.
+         *
+         * @param keyMapper object responsible for converting keys to byte arrays
+         *
+         * @return this builder instance
+         */
+        @SuppressWarnings("unchecked")
+        public <K2> VertxLuaBasedProxyManagerBuilder<K2> keyMapper(Mapper<K2> keyMapper) {
+            this.keyMapper = (Mapper<K>) Objects.requireNonNull(keyMapper, "keyMapper");
+            return (VertxLuaBasedProxyManagerBuilder<K2>) this;
+        }
+
+        public Mapper<K> getKeyMapper() {
+            return keyMapper;
+        }
+
+        public RedisApi getRedisApi() {
+            return redisApi;
+        }
+
+        @Override
+        public VertxLuaBasedProxyManager<K> build() {
+            return new VertxLuaBasedProxyManager<>(this);
+        }
+
         @Override
         public boolean isExpireAfterWriteSupported() {
             return true;
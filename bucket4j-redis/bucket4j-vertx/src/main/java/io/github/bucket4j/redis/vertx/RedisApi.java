@@ -19,6 +19,7 @@
  */
 package io.github.bucket4j.redis.vertx;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 public interface RedisApi {
@@ -29,4 +30,11 @@ public interface RedisApi {
 
     CompletableFuture<Void> delete(byte[] key);
 
+    /**
+     * Evaluates script which returns array of bulk strings, it is required only by Lua based proxy manager.
+     */
+    default CompletableFuture<List<byte[]>> evalMulti(String script, byte[][] keys, byte[][] params) {
+        throw new UnsupportedOperationException();
+    }
+
 }
@@ -26,6 +26,7 @@ import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.AsyncCompar
 import io.github.bucket4j.distributed.proxy.generic.compare_and_swap.CompareAndSwapOperation;
 import io.github.bucket4j.distributed.remote.RemoteBucketState;
 import io.github.bucket4j.distributed.serialization.Mapper;
+import io.github.bucket4j.redis.cas.VersionStamps;
 import io.github.bucket4j.redis.consts.LuaScripts;
 import io.github.bucket4j.redis.vertx.Bucket4jVertx;
 import io.github.bucket4j.redis.vertx.RedisApi;
@@ -40,6 +41,7 @@ public class VertxBasedProxyManager<K> extends AbstractCompareAndSwapBasedProxyM
 
     private final RedisApi redisApi;
     private final ExpirationAfterWriteStrategy expirationStrategy;
+    private final boolean versionStamping;
     private final Mapper<K> keyMapper;
 
     public VertxBasedProxyManager(Bucket4jVertx.VertxBasedProxyManagerBuilder<K> builder) {
@@ -47,6 +49,7 @@ public class VertxBasedProxyManager<K> extends AbstractCompareAndSwapBasedProxyM
         this.redisApi = builder.getRedisApi();
         this.expirationStrategy = builder.getExpirationAfterWrite().orElse(ExpirationAfterWriteStrategy.none());
         this.keyMapper = builder.getKeyMapper();
+        this.versionStamping = builder.isVersionStampingEnabled();
     }
 
     @Override
@@ -91,6 +94,21 @@ public class VertxBasedProxyManager<K> extends AbstractCompareAndSwapBasedProxyM
         return redisApi.delete(keyMapper.toBytes(key));
     }
 
+    @Override
+    protected byte[] toStateBytes(byte[] storedData) {
+        return VersionStamps.toStateBytes(storedData);
+    }
+
+    @Override
+    protected byte[] toStoredData(byte[] originalStoredData, byte[] stateBytes) {
+        return versionStamping ? VersionStamps.toStampedData(originalStoredData, stateBytes) : stateBytes;
+    }
+
+    @Override
+    protected boolean isLastSeenStateCacheSupported() {
+        return true;
+    }
+
     @Override
     public boolean isAsyncModeSupported() {
         return true;
@@ -108,6 +126,9 @@ public class VertxBasedProxyManager<K> extends AbstractCompareAndSwapBasedProxyM
             if (originalData == null) {
                 byte[][] params = new byte[][] {newData, encodeLong(ttlMillis)};
                 return redisApi.eval(LuaScripts.SCRIPT_SET_NX_PX, keys, params);
+            } else if (VersionStamps.isStamped(originalData)) {
+                byte[][] params = new byte[][] {VersionStamps.getStamp(originalData), newData, encodeLong(ttlMillis)};
+                return redisApi.eval(LuaScripts.SCRIPT_COMPARE_STAMP_AND_SWAP_PX, keys, params);
             } else {
                 byte[][] params = new byte[][] {originalData, newData, encodeLong(ttlMillis)};
                 return redisApi.eval(LuaScripts.SCRIPT_COMPARE_AND_SWAP_PX, keys, params);
@@ -116,6 +137,9 @@ public class VertxBasedProxyManager<K> extends AbstractCompareAndSwapBasedProxyM
             if (originalData == null) {
                 byte[][] params = new byte[][] {newData};
                 return redisApi.eval(LuaScripts.SCRIPT_SET_NX, keys, params);
+            } else if (VersionStamps.isStamped(originalData)) {
+                byte[][] params = new byte[][] {VersionStamps.getStamp(originalData), newData};
+                return redisApi.eval(LuaScripts.SCRIPT_COMPARE_STAMP_AND_SWAP, keys, params);
             } else {
                 byte[][] params = new byte[][] {originalData, newData};
                 return redisApi.eval(LuaScripts.SCRIPT_COMPARE_AND_SWAP, keys, params);
@@ -0,0 +1,86 @@
+/*-
+ * ========================LICENSE_START=================================
+ * Bucket4j
+ * %%
+ * Copyright (C) 2015 - 2024 Vladimir Bukhtoyarov
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.bucket4j.redis.vertx.lua;
+
+import io.github.bucket4j.TimeoutException;
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.serialization.Mapper;
+import io.github.bucket4j.redis.lua.AbstractRedisLuaBasedProxyManager;
+import io.github.bucket4j.redis.vertx.Bucket4jVertx;
+import io.github.bucket4j.redis.vertx.RedisApi;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class VertxLuaBasedProxyManager<K> extends AbstractRedisLuaBasedProxyManager<K> {
+
+    private final RedisApi redisApi;
+    private final Mapper<K> keyMapper;
+
+    public VertxLuaBasedProxyManager(Bucket4jVertx.VertxLuaBasedProxyManagerBuilder<K> builder) {
+        super(builder.getClientSideConfig(), builder.getExpirationAfterWrite().orElse(ExpirationAfterWriteStrategy.none()));
+        this.redisApi = builder.getRedisApi();
+        this.keyMapper = builder.getKeyMapper();
+    }
+
+    @Override
+    protected List<byte[]> evalScript(K key, String script, byte[][] args, Optional<Long> timeoutNanos) {
+        return awaitResult(evalScriptAsync(key, script, args, Optional.empty()), timeoutNanos);
+    }
+
+    @Override
+    protected CompletableFuture<List<byte[]>> evalScriptAsync(K key, String script, byte[][] args, Optional<Long> timeoutNanos) {
+        byte[][] keys = {keyMapper.toBytes(key)};
+        CompletableFuture<List<byte[]>> future = redisApi.evalMulti(script, keys, args);
+        return timeoutNanos.isEmpty() ? future : future.orTimeout(timeoutNanos.get(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public boolean isAsyncModeSupported() {
+        return true;
+    }
+
+    private <T> T awaitResult(CompletableFuture<T> future, Optional<Long> timeoutNanos) {
+        try {
+            if (timeoutNanos.isEmpty()) {
+                return future.get();
+            }
+            return future.get(timeoutNanos.get(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Redis command", e);
+        } catch (java.util.concurrent.TimeoutException e) {
+            long timeout = timeoutNanos.orElse(0L);
+            String message = "Violated timeout while waiting for Redis command result for " + timeout + "ns";
+            throw new TimeoutException(message, timeout, timeout);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Unexpected exception while processing redis command", e.getCause());
+        }
+    }
+
+}
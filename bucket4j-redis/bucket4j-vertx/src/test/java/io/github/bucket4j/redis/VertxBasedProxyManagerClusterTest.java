@@ -44,6 +44,11 @@ public class VertxBasedProxyManagerClusterTest extends AbstractDistributedBucket
                 "VertxBasedProxyManager_StringKey",
                 () -> UUID.randomUUID().toString(),
                 () -> Bucket4jVertx.casBasedBuilder(redis).keyMapper(Mapper.STRING)
+            ).checkExpiration(),
+            new ProxyManagerSpec<>(
+                "VertxLuaBasedProxyManager_StringKey",
+                () -> UUID.randomUUID().toString(),
+                () -> Bucket4jVertx.luaBasedBuilder(redis).keyMapper(Mapper.STRING)
             ).checkExpiration()
         );
     }
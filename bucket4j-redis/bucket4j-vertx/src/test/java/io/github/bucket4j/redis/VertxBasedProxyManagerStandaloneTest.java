@@ -33,10 +33,20 @@ public class VertxBasedProxyManagerStandaloneTest extends AbstractDistributedBuc
                 () -> UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8),
                 () -> Bucket4jVertx.casBasedBuilder(redis)
             ).checkExpiration(),
+            new ProxyManagerSpec<>(
+                "VertxBasedProxyManager_ByteArrayKey_VersionStamping",
+                () -> UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8),
+                () -> Bucket4jVertx.casBasedBuilder(redis).versionStamping()
+            ).checkExpiration(),
             new ProxyManagerSpec<>(
                 "VertxBasedProxyManager_StringKey",
                 () -> UUID.randomUUID().toString(),
                 () -> Bucket4jVertx.casBasedBuilder(redis).keyMapper(Mapper.STRING)
+            ).checkExpiration(),
+            new ProxyManagerSpec<>(
+                "VertxLuaBasedProxyManager_StringKey",
+                () -> UUID.randomUUID().toString(),
+                () -> Bucket4jVertx.luaBasedBuilder(redis).keyMapper(Mapper.STRING)
             ).checkExpiration()
         );
     }